@@ -13,6 +13,7 @@
 
 package org.pentaho.di.core;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -41,6 +42,13 @@ abstract class BaseRowSet implements Comparable<RowSet>, RowSet {
   protected volatile String remoteSlaveServerName;
   private ReadWriteLock lock;
 
+  private static final RowSetListener[] NO_LISTENERS = new RowSetListener[0];
+
+  /**
+   * Copy-on-write array of listeners: adding listeners is rare, informing them happens for every row.
+   */
+  private volatile RowSetListener[] listeners = NO_LISTENERS;
+
   public BaseRowSet() {
     // not done putting data into this RowSet
     done = new AtomicBoolean( false );
@@ -127,6 +135,7 @@ abstract class BaseRowSet implements Comparable<RowSet>, RowSet {
   @Override
   public void setDone() {
     done.set( true );
+    fireRowsAvailable();
   }
 
   /*
@@ -283,6 +292,52 @@ abstract class BaseRowSet implements Comparable<RowSet>, RowSet {
     this.remoteSlaveServerName = remoteSlaveServerName;
   }
 
+  @Override
+  public synchronized boolean addRowSetListener( RowSetListener listener ) {
+    for ( RowSetListener registered : listeners ) {
+      if ( registered == listener ) {
+        return true;
+      }
+    }
+    RowSetListener[] newListeners = Arrays.copyOf( listeners, listeners.length + 1 );
+    newListeners[listeners.length] = listener;
+    listeners = newListeners;
+    return true;
+  }
+
+  @Override
+  public synchronized void removeRowSetListener( RowSetListener listener ) {
+    for ( int i = 0; i < listeners.length; i++ ) {
+      if ( listeners[i] == listener ) {
+        RowSetListener[] newListeners = new RowSetListener[listeners.length - 1];
+        System.arraycopy( listeners, 0, newListeners, 0, i );
+        System.arraycopy( listeners, i + 1, newListeners, i, listeners.length - i - 1 );
+        listeners = newListeners;
+        return;
+      }
+    }
+  }
+
+  /**
+   * Inform the listeners that a row was added or that this row set is done.
+   */
+  protected void fireRowsAvailable() {
+    RowSetListener[] current = listeners;
+    for ( int i = 0; i < current.length; i++ ) {
+      current[i].rowsAvailable( this );
+    }
+  }
+
+  /**
+   * Inform the listeners that a row was taken from this row set.
+   */
+  protected void fireSpaceAvailable() {
+    RowSetListener[] current = listeners;
+    for ( int i = 0; i < current.length; i++ ) {
+      current[i].spaceAvailable( this );
+    }
+  }
+
   /**
    * By default we don't report blocking, only for monitored transformations.
    *
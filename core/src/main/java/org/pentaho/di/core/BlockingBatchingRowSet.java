@@ -97,6 +97,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
       try {
         getArray.offer( inputBuffer, time, tu );
         inputBuffer = null;
+        fireRowsAvailable();
       } catch ( InterruptedException e ) {
         return false;
       }
@@ -147,6 +148,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
     if ( getIndex == size ) {
       putArray.offer( outputBuffer );
       outputBuffer = null;
+      fireSpaceAvailable();
     }
 
     return row;
@@ -168,6 +170,7 @@ public class BlockingBatchingRowSet extends BaseRowSet implements Comparable<Row
         inputBuffer[i] = null;
       }
       getArray.offer( inputBuffer );
+      fireRowsAvailable();
     }
     putArray.clear();
   }
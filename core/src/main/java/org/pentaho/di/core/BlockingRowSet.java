@@ -69,7 +69,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
     this.rowMeta = rowMeta;
     try {
 
-      return queArray.offer( rowData, time, tu );
+      if ( queArray.offer( rowData, time, tu ) ) {
+        fireRowsAvailable();
+        return true;
+      }
+      return false;
     } catch ( InterruptedException e ) {
       return false;
     } catch ( NullPointerException e ) {
@@ -98,7 +102,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
   @Override
   public Object[] getRowImmediate() {
 
-    return queArray.poll();
+    Object[] row = queArray.poll();
+    if ( row != null ) {
+      fireSpaceAvailable();
+    }
+    return row;
   }
 
   /*
@@ -110,7 +118,11 @@ public class BlockingRowSet extends BaseRowSet implements Comparable<RowSet>, Ro
   public Object[] getRowWait( long timeout, TimeUnit tu ) {
 
     try {
-      return queArray.poll( timeout, tu );
+      Object[] row = queArray.poll( timeout, tu );
+      if ( row != null ) {
+        fireSpaceAvailable();
+      }
+      return row;
     } catch ( InterruptedException e ) {
       return null;
     }
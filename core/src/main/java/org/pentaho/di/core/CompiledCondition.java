@@ -0,0 +1,395 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * A {@link Condition} compiled against one row layout.<br>
+ * <br>
+ * Field positions, constant conversions, regular expressions and IN LIST sets are worked out once in
+ * {@link #compile(Condition, RowMetaInterface)} instead of for every row. Comparisons of Integer and Date fields
+ * against a constant are done on the native values, Number fields keep going through their value metadata. Whatever
+ * can't be specialized is evaluated by the atomic condition itself, so the result is always the same as
+ * {@link Condition#evaluate(RowMetaInterface, Object[])}. Just like there, the KETTLE_FILTER_TREAT_NULLS_AS_NOT_ZERO
+ * setting is read for every evaluation.
+ * <br>
+ * A compiled condition only holds for the row metadata it was compiled with.
+ *
+ * @since 11.0
+ */
+public class CompiledCondition {
+
+  @FunctionalInterface
+  interface RowPredicate {
+    boolean test( Object[] r ) throws Exception;
+  }
+
+  @FunctionalInterface
+  interface RowComparison {
+    int compare( Object[] r ) throws Exception;
+  }
+
+  private static final RowPredicate ALWAYS_FALSE = r -> false;
+  private static final RowPredicate ALWAYS_TRUE = r -> true;
+
+  private final Condition condition;
+  private final RowMetaInterface rowMeta;
+  private final RowPredicate predicate;
+
+  private int nrSpecialized;
+  private int nrInterpreted;
+
+  private CompiledCondition( Condition condition, RowMetaInterface rowMeta ) {
+    this.condition = condition;
+    this.rowMeta = rowMeta;
+    this.predicate = compileCondition( condition );
+  }
+
+  /**
+   * Compile a condition for rows with the given layout.
+   *
+   * @param condition
+   *          the condition to compile
+   * @param rowMeta
+   *          the metadata of the rows that will be evaluated
+   * @return the compiled condition
+   */
+  public static CompiledCondition compile( Condition condition, RowMetaInterface rowMeta ) {
+    return new CompiledCondition( condition, rowMeta );
+  }
+
+  /**
+   * Evaluate the condition...
+   *
+   * @param r
+   *          the row data, laid out as described by the row metadata used to compile the condition
+   * @return true if the condition evaluates to true.
+   */
+  public boolean evaluate( Object[] r ) {
+    try {
+      return predicate.test( r );
+    } catch ( Exception e ) {
+      throw new RuntimeException( "Unexpected error evaluation condition [" + condition.toString() + "]", e );
+    }
+  }
+
+  /**
+   * @return the row metadata this condition was compiled with
+   */
+  public RowMetaInterface getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * @return the condition that was compiled
+   */
+  public Condition getCondition() {
+    return condition;
+  }
+
+  /**
+   * @return the number of atomic conditions that got a specialized evaluator
+   */
+  public int getNrSpecialized() {
+    return nrSpecialized;
+  }
+
+  /**
+   * @return the number of atomic conditions that are evaluated by the condition itself
+   */
+  public int getNrInterpreted() {
+    return nrInterpreted;
+  }
+
+  private RowPredicate compileCondition( Condition cond ) {
+    if ( cond.isAtomic() ) {
+      return compileAtomic( cond );
+    }
+
+    // Conditions are evaluated in the order in which they are found, without precedence.
+    // Sub-conditions without a usable operator are never evaluated, just like in Condition.evaluate().
+    //
+    RowPredicate first = compileCondition( cond.getCondition( 0 ) );
+    List<RowPredicate> parts = new ArrayList<>();
+    List<Integer> operators = new ArrayList<>();
+    for ( int i = 1; i < cond.nrConditions(); i++ ) {
+      Condition sub = cond.getCondition( i );
+      switch ( sub.getOperator() ) {
+        case Condition.OPERATOR_OR:
+        case Condition.OPERATOR_AND:
+        case Condition.OPERATOR_OR_NOT:
+        case Condition.OPERATOR_AND_NOT:
+        case Condition.OPERATOR_XOR:
+          parts.add( compileCondition( sub ) );
+          operators.add( sub.getOperator() );
+          break;
+        default:
+          break;
+      }
+    }
+    RowPredicate[] rest = parts.toArray( new RowPredicate[ parts.size() ] );
+    int[] ops = new int[ operators.size() ];
+    for ( int i = 0; i < ops.length; i++ ) {
+      ops[ i ] = operators.get( i );
+    }
+    boolean negate = cond.isNegated();
+
+    if ( rest.length == 1 && ops[ 0 ] == Condition.OPERATOR_AND ) {
+      RowPredicate second = rest[ 0 ];
+      return r -> ( first.test( r ) && second.test( r ) ) != negate;
+    }
+    if ( rest.length == 1 && ops[ 0 ] == Condition.OPERATOR_OR ) {
+      RowPredicate second = rest[ 0 ];
+      return r -> ( first.test( r ) || second.test( r ) ) != negate;
+    }
+    return r -> {
+      boolean retval = first.test( r );
+      for ( int i = 0; i < rest.length; i++ ) {
+        switch ( ops[ i ] ) {
+          case Condition.OPERATOR_OR:
+            retval = retval || rest[ i ].test( r );
+            break;
+          case Condition.OPERATOR_AND:
+            retval = retval && rest[ i ].test( r );
+            break;
+          case Condition.OPERATOR_OR_NOT:
+            retval = retval || !rest[ i ].test( r );
+            break;
+          case Condition.OPERATOR_AND_NOT:
+            retval = retval && !rest[ i ].test( r );
+            break;
+          default:
+            retval = retval ^ rest[ i ].test( r );
+            break;
+        }
+      }
+      return retval != negate;
+    };
+  }
+
+  private RowPredicate compileAtomic( Condition cond ) {
+    int function = cond.getFunction();
+    boolean negate = cond.isNegated();
+    if ( function == Condition.FUNC_TRUE ) {
+      nrSpecialized++;
+      return negate ? ALWAYS_FALSE : ALWAYS_TRUE;
+    }
+
+    // Without a left field there is nothing to evaluate, negated or not.
+    //
+    int leftIndex = Utils.isEmpty( cond.getLeftValuename() ) ? -1 : rowMeta.indexOfValue( cond.getLeftValuename() );
+    if ( leftIndex < 0 ) {
+      nrSpecialized++;
+      return ALWAYS_FALSE;
+    }
+    ValueMetaInterface leftMeta = rowMeta.getValueMeta( leftIndex );
+
+    RowPredicate test = null;
+    try {
+      if ( function == Condition.FUNC_NULL ) {
+        test = r -> leftMeta.isNull( r[ leftIndex ] );
+      } else if ( function == Condition.FUNC_NOT_NULL ) {
+        test = r -> !leftMeta.isNull( r[ leftIndex ] );
+      } else if ( cond.getRightExact() != null && cond.getRightExact().getValueData() != null ) {
+        test = compileConstant( function, leftIndex, leftMeta, cond.getRightExact().getValueMeta(),
+          cond.getRightExact().getValueData() );
+      } else if ( !Utils.isEmpty( cond.getRightValuename() ) ) {
+        int rightIndex = rowMeta.indexOfValue( cond.getRightValuename() );
+        if ( rightIndex >= 0 ) {
+          test = compileField( function, leftIndex, leftMeta, rightIndex, rowMeta.getValueMeta( rightIndex ) );
+        }
+      }
+    } catch ( Exception e ) {
+      // Leave the errors, if any, to the condition itself, row by row.
+      test = null;
+    }
+
+    if ( test == null ) {
+      nrInterpreted++;
+      return r -> cond.evaluate( rowMeta, r );
+    }
+    nrSpecialized++;
+    if ( !negate ) {
+      return test;
+    }
+    RowPredicate positive = test;
+    return r -> !positive.test( r );
+  }
+
+  private RowPredicate compileConstant( int function, int leftIndex, ValueMetaInterface leftMeta,
+    ValueMetaInterface rightMeta, Object rightData ) throws KettleValueException {
+    switch ( function ) {
+      case Condition.FUNC_EQUAL:
+      case Condition.FUNC_NOT_EQUAL:
+      case Condition.FUNC_SMALLER:
+      case Condition.FUNC_SMALLER_EQUAL:
+      case Condition.FUNC_LARGER:
+      case Condition.FUNC_LARGER_EQUAL:
+        return compileConstantComparison( function, leftIndex, leftMeta, rightMeta, rightData );
+      case Condition.FUNC_REGEXP:
+        return matching( leftIndex, leftMeta, Pattern.compile( rightMeta.getCompatibleString( rightData ) ) );
+      case Condition.FUNC_LIKE:
+        String regex = rightMeta.getCompatibleString( rightData ).replace( "%", ".*" ).replace( "?", "." );
+        return matching( leftIndex, leftMeta, Pattern.compile( regex ) );
+      case Condition.FUNC_IN_LIST:
+        String[] inList = Const.splitString( rightMeta.getString( rightData ), ';', true );
+        for ( int i = 0; i < inList.length; i++ ) {
+          inList[ i ] = inList[ i ] == null ? null : inList[ i ].replace( "\\", "" );
+        }
+        Arrays.sort( inList );
+        Set<String> inSet = new HashSet<>( Arrays.asList( inList ) );
+        return r -> {
+          String searchString = leftMeta.getCompatibleString( r[ leftIndex ] );
+          return searchString != null && inSet.contains( searchString );
+        };
+      case Condition.FUNC_CONTAINS:
+        String contained = rightMeta.getCompatibleString( rightData );
+        if ( contained == null ) {
+          return null;
+        }
+        return r -> {
+          String string = leftMeta.getCompatibleString( r[ leftIndex ] );
+          return string != null && string.contains( contained );
+        };
+      case Condition.FUNC_STARTS_WITH:
+        String prefix = rightMeta.getCompatibleString( rightData );
+        if ( prefix == null ) {
+          return null;
+        }
+        return r -> {
+          String string = leftMeta.getCompatibleString( r[ leftIndex ] );
+          return string != null && string.startsWith( prefix );
+        };
+      case Condition.FUNC_ENDS_WITH:
+        String suffix = rightMeta.getCompatibleString( rightData );
+        if ( suffix == null ) {
+          return r -> false;
+        }
+        return r -> {
+          String string = leftMeta.getCompatibleString( r[ leftIndex ] );
+          return !Utils.isEmpty( string ) && string.endsWith( suffix );
+        };
+      default:
+        return null;
+    }
+  }
+
+  private RowPredicate compileConstantComparison( int function, int leftIndex, ValueMetaInterface leftMeta,
+    ValueMetaInterface rightMeta, Object rightData ) throws KettleValueException {
+    // Convert the constant once, the same way ValueMetaInterface.compare() would do for every row.
+    // The Integer to Number comparison converts the other way around, leave that one alone.
+    //
+    Object constant;
+    if ( leftMeta.getType() == rightMeta.getType() ) {
+      if ( leftMeta.getStorageType() == rightMeta.getStorageType() ) {
+        constant = rightData;
+      } else if ( leftMeta.getStorageType() == ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+        constant = rightMeta.convertToNormalStorageType( rightData );
+      } else {
+        return compileComparison( function, leftIndex, leftMeta,
+          r -> leftMeta.compare( r[ leftIndex ], rightMeta, rightData ) );
+      }
+    } else if ( leftMeta.getType() == ValueMetaInterface.TYPE_INTEGER
+      && rightMeta.getType() == ValueMetaInterface.TYPE_NUMBER ) {
+      return compileComparison( function, leftIndex, leftMeta,
+        r -> leftMeta.compare( r[ leftIndex ], rightMeta, rightData ) );
+    } else {
+      constant = leftMeta.convertData( rightMeta, rightData );
+    }
+
+    // Natively typed values in normal storage can be compared without going through the value metadata.
+    // A null sorts before anything else, just like in ValueMetaInterface.compare(). Number values are left to the
+    // value metadata so NaN and -0.0 compare exactly like they do there.
+    //
+    if ( constant != null && leftMeta.getStorageType() == ValueMetaInterface.STORAGE_TYPE_NORMAL
+      && !leftMeta.isSortedDescending() ) {
+      Class<?> metaClass = leftMeta.getClass();
+      if ( metaClass == ValueMetaInteger.class ) {
+        long value = (Long) constant;
+        return compileComparison( function, leftIndex, leftMeta,
+          r -> r[ leftIndex ] == null ? -1 : Long.compare( (Long) r[ leftIndex ], value ) );
+      }
+      if ( metaClass == ValueMetaDate.class ) {
+        long value = ( (Date) constant ).getTime();
+        return compileComparison( function, leftIndex, leftMeta,
+          r -> r[ leftIndex ] == null ? -1 : Long.compare( ( (Date) r[ leftIndex ] ).getTime(), value ) );
+      }
+    }
+
+    Object converted = constant;
+    return compileComparison( function, leftIndex, leftMeta, r -> leftMeta.compare( r[ leftIndex ], converted ) );
+  }
+
+  private RowPredicate compileField( int function, int leftIndex, ValueMetaInterface leftMeta, int rightIndex,
+    ValueMetaInterface rightMeta ) {
+    switch ( function ) {
+      case Condition.FUNC_EQUAL:
+      case Condition.FUNC_NOT_EQUAL:
+      case Condition.FUNC_SMALLER:
+      case Condition.FUNC_SMALLER_EQUAL:
+      case Condition.FUNC_LARGER:
+      case Condition.FUNC_LARGER_EQUAL:
+        return compileComparison( function, leftIndex, leftMeta,
+          r -> leftMeta.compare( r[ leftIndex ], rightMeta, r[ rightIndex ] ) );
+      default:
+        // The string functions keep per-row state against a field, let the condition handle those.
+        return null;
+    }
+  }
+
+  private RowPredicate compileComparison( int function, int leftIndex, ValueMetaInterface leftMeta,
+    RowComparison compare ) {
+    switch ( function ) {
+      case Condition.FUNC_EQUAL:
+        return r -> compare.compare( r ) == 0;
+      case Condition.FUNC_NOT_EQUAL:
+        return r -> compare.compare( r ) != 0;
+      case Condition.FUNC_LARGER:
+        return r -> compare.compare( r ) > 0;
+      case Condition.FUNC_LARGER_EQUAL:
+        return r -> compare.compare( r ) >= 0;
+      default:
+        RowPredicate smaller = function == Condition.FUNC_SMALLER
+          ? r -> compare.compare( r ) < 0
+          : r -> compare.compare( r ) <= 0;
+        // Read the setting for every row, like Condition.evaluate() does
+        return r -> !( isTreatingNullsAsNotZero() && leftMeta.isNull( r[ leftIndex ] ) ) && smaller.test( r );
+    }
+  }
+
+  private static boolean isTreatingNullsAsNotZero() {
+    return "Y".equalsIgnoreCase( System.getProperty( Const.KETTLE_FILTER_TREAT_NULLS_AS_NOT_ZERO, "N" ) );
+  }
+
+  private static RowPredicate matching( int leftIndex, ValueMetaInterface leftMeta, Pattern pattern ) {
+    return r -> {
+      Object value = r[ leftIndex ];
+      return !leftMeta.isNull( value ) && pattern.matcher( leftMeta.getCompatibleString( value ) ).matches();
+    };
+  }
+}
@@ -563,6 +563,18 @@ public class Condition implements Cloneable, XMLInterface {
     return retval;
   }
 
+  /**
+   * Compile this condition for rows with the given layout. The compiled condition gives the same results as
+   * {@link #evaluate(RowMetaInterface, Object[])} without resolving fields and constants for every row.
+   *
+   * @param rowMeta
+   *          the metadata of the rows that will be evaluated
+   * @return the compiled condition
+   */
+  public CompiledCondition compile( RowMetaInterface rowMeta ) {
+    return CompiledCondition.compile( this, rowMeta );
+  }
+
   public void addCondition( Condition cb ) {
     if ( isAtomic() && getLeftValuename() != null ) {
       /*
@@ -1042,6 +1042,37 @@ public class Const {
    */
   public static final String KETTLE_BATCHING_ROWSET = "KETTLE_BATCHING_ROWSET";
 
+  /**
+   * Set this variable to Y to use the lock-free ring buffer row set instead of a blocking row set on the hops between
+   * step copies of a transformation. Only do this when every step calls putRow() from its own thread. (default = N)
+   */
+  public static final String KETTLE_RING_BUFFER_ROWSET = "KETTLE_RING_BUFFER_ROWSET";
+
+  /**
+   * Set this variable to "Virtual" to run the step threads of transformations on virtual threads when the JVM supports
+   * them. Transformations with the "Default" step thread mode use this setting. The default is "Platform".
+   */
+  public static final String KETTLE_STEP_THREAD_MODE = "KETTLE_STEP_THREAD_MODE";
+
+  /**
+   * The maximum number of temporary files the Sort Rows step merges at once. When a sort spills more files, they are
+   * first merged into bigger files in several passes. The default is 128.
+   */
+  public static final String KETTLE_SORT_ROWS_MAX_MERGE_FILES = "KETTLE_SORT_ROWS_MAX_MERGE_FILES";
+
+  /**
+   * The number of threads the Sort Rows step sorts large buffers in memory with. Every step copy uses a pool of its
+   * own. The default is 0: the buffers are sorted by the step thread.
+   */
+  public static final String KETTLE_SORT_ROWS_PARALLEL_THREADS = "KETTLE_SORT_ROWS_PARALLEL_THREADS";
+
+  /**
+   * The format of the temporary files written by the Group By step, and by the Sort Rows step when it has no spill
+   * codec and doesn't compress its files: NONE, GZIP, BLOCK or BLOCK_LZ4. The default is BLOCK_LZ4 for Group By and
+   * NONE for Sort Rows.
+   */
+  public static final String KETTLE_SPILL_CODEC = "KETTLE_SPILL_CODEC";
+
   /**
    * Set this variable to limit max number of files the Text File Output step can have open at one time.
    */
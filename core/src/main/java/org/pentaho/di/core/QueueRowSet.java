@@ -70,4 +70,11 @@ public class QueueRowSet extends BaseRowSet implements Comparable<RowSet>, RowSe
     done.set( false );
   }
 
+  /**
+   * This row set is only used by single threaded transformations: nobody waits for it, so there is nothing to notify.
+   */
+  @Override
+  public boolean addRowSetListener( RowSetListener listener ) {
+    return false;
+  }
 }
@@ -0,0 +1,232 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * A lock-free buffer of rows for a hop with exactly one writing thread and one reading thread. This is the case for
+ * every hop between two step copies (1:1, 1:N, N:1 and N:N distribution) so Trans uses it for those hops instead of a
+ * {@link BlockingRowSet} when KETTLE_RING_BUFFER_ROWSET is set to Y.<br>
+ * <br>
+ * The rows are kept in a fixed size ring. A slot is free when it contains null, so the writer and the reader never
+ * have to look at each other's position to decide if they can go ahead. The positions and row counters of the writer
+ * and the reader are kept in separate, padded cache lines to prevent false sharing between the two threads.<br>
+ * <br>
+ * When the ring is full (writer) or empty (reader) the thread spins briefly, then yields and finally parks with an
+ * increasing back-off until the row set timeout expires.<br>
+ * <br>
+ * IMPORTANT: calling putRow() from more than one thread at the same time, or getRow() from more than one thread at
+ * the same time is not supported. Use a {@link BlockingRowSet} for that.
+ *
+ * @since 11.0
+ */
+public class RingBufferRowSet extends BaseRowSet implements Comparable<RowSet>, RowSet {
+  private static final VarHandle ROWS = MethodHandles.arrayElementVarHandle( Object[].class );
+  private static final VarHandle SEQUENCES = MethodHandles.arrayElementVarHandle( long[].class );
+
+  /**
+   * Number of array elements to keep between the hot fields: 2 cache lines of 64 bytes, enough to also avoid false
+   * sharing caused by adjacent cache line prefetching.
+   */
+  private static final int PADDING = 16;
+
+  private static final int PUT_INDEX = PADDING;
+  private static final int PUT_COUNT = PADDING + 1;
+  private static final int GET_INDEX = 2 * PADDING;
+  private static final int GET_COUNT = 2 * PADDING + 1;
+
+  private static final int SPIN_TRIES = 100;
+  private static final int YIELD_TRIES = 200;
+  private static final long MIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos( 1 );
+  private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos( 1 );
+
+  /**
+   * The ring of rows, starting at PADDING and ending PADDING elements before the end of the array.
+   */
+  private final Object[] rows;
+
+  /**
+   * The writer and reader positions and counters, each group in its own cache line.
+   */
+  private final long[] sequences;
+
+  private final int capacity;
+
+  private int timeoutPut;
+  private int timeoutGet;
+
+  /**
+   * Create new lock-free ring buffer with maxSize capacity.
+   *
+   * @param maxSize
+   */
+  public RingBufferRowSet( int maxSize ) {
+    super();
+
+    if ( maxSize <= 0 ) {
+      throw new IllegalArgumentException( "The size of a row set needs to be at least 1, not " + maxSize );
+    }
+    capacity = maxSize;
+    rows = new Object[ capacity + 2 * PADDING ];
+    sequences = new long[ 3 * PADDING ];
+
+    timeoutGet = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_GET_TIMEOUT ), Const.TIMEOUT_GET_MILLIS );
+    timeoutPut = Const.toInt( System.getProperty( Const.KETTLE_ROWSET_PUT_TIMEOUT ), Const.TIMEOUT_PUT_MILLIS );
+  }
+
+  @Override
+  public boolean putRow( RowMetaInterface rowMeta, Object[] rowData ) {
+    return putRowWait( rowMeta, rowData, timeoutPut, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public boolean putRowWait( RowMetaInterface rowMeta, Object[] rowData, long time, TimeUnit tu ) {
+    this.rowMeta = rowMeta;
+    if ( rowData == null ) {
+      // Same behavior as the blocking queue in BlockingRowSet, null is reserved to mark an empty slot
+      return false;
+    }
+
+    int index = (int) (long) SEQUENCES.getOpaque( sequences, PUT_INDEX );
+    if ( ROWS.getAcquire( rows, index + PADDING ) != null && !awaitSlot( index, false, tu.toNanos( time ) ) ) {
+      return false;
+    }
+    ROWS.setRelease( rows, index + PADDING, rowData );
+
+    SEQUENCES.setOpaque( sequences, PUT_INDEX, (long) nextIndex( index ) );
+    // A volatile write, so it can't be reordered with the read of the listeners: a reader that registered a listener
+    // and then found the ring empty is always informed.
+    SEQUENCES.setVolatile( sequences, PUT_COUNT, (long) SEQUENCES.getOpaque( sequences, PUT_COUNT ) + 1 );
+    fireRowsAvailable();
+    return true;
+  }
+
+  @Override
+  public Object[] getRow() {
+    return getRowWait( timeoutGet, TimeUnit.MILLISECONDS );
+  }
+
+  @Override
+  public Object[] getRowImmediate() {
+    int index = (int) (long) SEQUENCES.getOpaque( sequences, GET_INDEX );
+    Object[] row = (Object[]) ROWS.getAcquire( rows, index + PADDING );
+    if ( row == null ) {
+      return null;
+    }
+    return takeRow( index, row );
+  }
+
+  @Override
+  public Object[] getRowWait( long timeout, TimeUnit tu ) {
+    int index = (int) (long) SEQUENCES.getOpaque( sequences, GET_INDEX );
+    Object[] row = (Object[]) ROWS.getAcquire( rows, index + PADDING );
+    if ( row == null ) {
+      if ( !awaitSlot( index, true, tu.toNanos( timeout ) ) ) {
+        return null;
+      }
+      row = (Object[]) ROWS.getAcquire( rows, index + PADDING );
+    }
+    return takeRow( index, row );
+  }
+
+  private Object[] takeRow( int index, Object[] row ) {
+    ROWS.setRelease( rows, index + PADDING, null );
+
+    SEQUENCES.setOpaque( sequences, GET_INDEX, (long) nextIndex( index ) );
+    // Volatile for the same reason as in putRowWait(), for a writer waiting for room
+    SEQUENCES.setVolatile( sequences, GET_COUNT, (long) SEQUENCES.getOpaque( sequences, GET_COUNT ) + 1 );
+    fireSpaceAvailable();
+    return row;
+  }
+
+  private int nextIndex( int index ) {
+    return ++index == capacity ? 0 : index;
+  }
+
+  /**
+   * Wait until the slot at the given index holds a row (reader) or is free (writer).
+   *
+   * @param index
+   *          the index of the slot in the ring
+   * @param forRow
+   *          true if we wait for a row to arrive, false if we wait for a row to be taken
+   * @param timeoutNanos
+   *          the maximum time to wait
+   * @return true if the slot is ready, false on time-out or interruption.
+   */
+  private boolean awaitSlot( int index, boolean forRow, long timeoutNanos ) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    long parkNanos = MIN_PARK_NANOS;
+    int tries = 0;
+    while ( ( ROWS.getAcquire( rows, index + PADDING ) != null ) != forRow ) {
+      if ( Thread.interrupted() ) {
+        // Same behavior as the blocking queue: an interruption ends the wait and clears the flag
+        return false;
+      }
+      long remaining = deadline - System.nanoTime();
+      if ( remaining <= 0 ) {
+        return false;
+      }
+      if ( tries < SPIN_TRIES ) {
+        Thread.onSpinWait();
+        tries++;
+      } else if ( tries < YIELD_TRIES ) {
+        Thread.yield();
+        tries++;
+      } else {
+        LockSupport.parkNanos( this, Math.min( remaining, parkNanos ) );
+        parkNanos = Math.min( parkNanos << 1, MAX_PARK_NANOS );
+      }
+    }
+    return true;
+  }
+
+  /**
+   * The number of rows in the buffer. This can be called from any thread, the result is a snapshot.
+   */
+  @Override
+  public int size() {
+    // Read the reader counter first so we never report more rows than were written.
+    //
+    long taken = (long) SEQUENCES.getAcquire( sequences, GET_COUNT );
+    long given = (long) SEQUENCES.getAcquire( sequences, PUT_COUNT );
+    return (int) Math.max( 0L, Math.min( capacity, given - taken ) );
+  }
+
+  /**
+   * @return the maximum number of rows this row set can hold.
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  @Override
+  public void clear() {
+    for ( int i = 0; i < capacity; i++ ) {
+      ROWS.setRelease( rows, i + PADDING, null );
+    }
+    SEQUENCES.setRelease( sequences, PUT_INDEX, 0L );
+    SEQUENCES.setRelease( sequences, GET_INDEX, 0L );
+    SEQUENCES.setRelease( sequences, PUT_COUNT, 0L );
+    SEQUENCES.setRelease( sequences, GET_COUNT, 0L );
+    done.set( false );
+  }
+
+}
@@ -145,4 +145,26 @@ public interface RowSet {
    * Clear this rowset: remove all rows and remove the "done" flag.
    */
   void clear();
+
+  /**
+   * Register a listener that is informed when rows are added to or taken from this row set. Adding the same listener
+   * twice has no effect.
+   *
+   * @param listener
+   *          the listener to add
+   * @return true if this row set informs its listeners, false if it doesn't support listeners. In that case the caller
+   *         needs to poll the row set.
+   */
+  default boolean addRowSetListener( RowSetListener listener ) {
+    return false;
+  }
+
+  /**
+   * Remove a listener registered with {@link #addRowSetListener(RowSetListener)}.
+   *
+   * @param listener
+   *          the listener to remove
+   */
+  default void removeRowSetListener( RowSetListener listener ) {
+  }
 }
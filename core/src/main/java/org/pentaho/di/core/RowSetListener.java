@@ -13,6 +13,40 @@
 
 package org.pentaho.di.core;
 
+/**
+ * A listener that is informed when the state of a {@link RowSet} changes in a way that allows a waiting reader or
+ * writer to continue. The methods are called on the thread that changed the row set, right after the change, so they
+ * need to be very cheap: typically they just wake up a parked thread.<br>
+ * <br>
+ * Every listener is informed of every row, so a registered listener that isn't waiting should return right away.
+ */
 public interface RowSetListener {
-  public void isEmpty( RowSet rowSet );
+
+  /**
+   * @deprecated never called by the row sets, use {@link #rowsAvailable(RowSet)} and
+   *             {@link #spaceAvailable(RowSet)} instead.
+   */
+  @Deprecated
+  default void isEmpty( RowSet rowSet ) {
+  }
+
+  /**
+   * A row was added to the row set or the row set was marked as done. A reader waiting for rows can continue.
+   *
+   * @param rowSet
+   *          the row set that changed
+   * @since 11.0
+   */
+  default void rowsAvailable( RowSet rowSet ) {
+  }
+
+  /**
+   * A row was taken from the row set. A writer waiting for room in the row set can continue.
+   *
+   * @param rowSet
+   *          the row set that changed
+   * @since 11.0
+   */
+  default void spaceAvailable( RowSet rowSet ) {
+  }
 }
@@ -66,4 +66,11 @@ public class SingleRowRowSet extends BaseRowSet implements Comparable<RowSet>, R
     done.set( false );
   }
 
+  /**
+   * This row set is only used by single threaded transformations: nobody waits for it, so there is nothing to notify.
+   */
+  @Override
+  public boolean addRowSetListener( RowSetListener listener ) {
+    return false;
+  }
 }
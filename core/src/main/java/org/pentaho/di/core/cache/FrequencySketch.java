@@ -0,0 +1,106 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.cache;
+
+/**
+ * A count-min sketch with 4-bit counters that estimates how often a key was used recently. Every long of the table
+ * holds 16 counters, a key uses one counter in each of 4 of those groups. When the number of increments reaches ten
+ * times the capacity all counters are halved so old popularity fades away.
+ */
+class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  private long[] table = new long[ 0 ];
+  private int tableMask;
+  private int sampleSize;
+  private int additions;
+
+  /**
+   * Make sure the sketch can tell apart about the given number of keys, a larger table forgets all counts.
+   */
+  void ensureCapacity( long capacity ) {
+    int maximum = (int) Math.min( Math.max( capacity, 8 ), MAXIMUM_CAPACITY );
+    if ( table.length >= maximum ) {
+      return;
+    }
+    int size = Integer.highestOneBit( maximum );
+    if ( size < maximum ) {
+      size <<= 1;
+    }
+    table = new long[ size ];
+    tableMask = size - 1;
+    sampleSize = (int) Math.min( 10L * maximum, Integer.MAX_VALUE );
+    additions = 0;
+  }
+
+  int frequency( Object key ) {
+    int hash = spread( key.hashCode() );
+    int start = ( hash & 3 ) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for ( int i = 0; i < 4; i++ ) {
+      int offset = ( start + i ) << 2;
+      int count = (int) ( ( table[ indexOf( hash, i ) ] >>> offset ) & 0xfL );
+      frequency = Math.min( frequency, count );
+    }
+    return frequency;
+  }
+
+  void increment( Object key ) {
+    int hash = spread( key.hashCode() );
+    int start = ( hash & 3 ) << 2;
+    boolean added = false;
+    for ( int i = 0; i < 4; i++ ) {
+      added |= incrementAt( indexOf( hash, i ), start + i );
+    }
+    if ( added && ++additions == sampleSize ) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt( int index, int counter ) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ( ( table[ index ] & mask ) != mask ) {
+      table[ index ] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for ( int i = 0; i < table.length; i++ ) {
+      odd += Long.bitCount( table[ i ] & ONE_MASK );
+      table[ i ] = ( table[ i ] >>> 1 ) & RESET_MASK;
+    }
+    additions = ( additions >>> 1 ) - ( odd >>> 2 );
+  }
+
+  private int indexOf( int hash, int i ) {
+    long h = ( hash + SEEDS[ i ] ) * SEEDS[ i ];
+    h += h >>> 32;
+    return ( (int) h ) & tableMask;
+  }
+
+  private static int spread( int x ) {
+    x = ( ( x >>> 16 ) ^ x ) * 0x45d9f3b;
+    x = ( ( x >>> 16 ) ^ x ) * 0x45d9f3b;
+    return ( x >>> 16 ) ^ x;
+  }
+}
@@ -0,0 +1,498 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A bounded cache for the lookup steps. The number of entries, the estimated size in bytes of the entries or both can
+ * be limited, entries can expire a fixed time after they were stored and the hits, misses and evictions are counted in
+ * {@linkplain LookupCacheStatistics}.<br>
+ * <br>
+ * Two eviction policies are available:
+ * <ul>
+ * <li>{@linkplain EvictionPolicy#LRU}: the least recently used entry is removed first.</li>
+ * <li>{@linkplain EvictionPolicy#W_TINY_LFU}: new entries go to a small LRU window. Entries that leave the window only
+ * stay when they were used more often than the entry they would replace, according to a {@linkplain FrequencySketch}.
+ * Entries that are used again are protected from eviction by a segmented LRU. This keeps the popular keys of a skewed
+ * lookup stream in the cache when a burst of keys that are used only once passes by.</li>
+ * </ul>
+ * A cache belongs to one step thread and is not thread safe, only the statistics can be read from other threads.
+ *
+ * @param <K> the key type, with a proper hashCode and equals
+ * @param <V> the value type
+ * @since 11.0
+ */
+public class LookupCache<K, V> {
+
+  public enum EvictionPolicy {
+    LRU( "lru" ), W_TINY_LFU( "w-tinylfu" );
+
+    private final String code;
+
+    EvictionPolicy( String code ) {
+      this.code = code;
+    }
+
+    public String getCode() {
+      return code;
+    }
+
+    /**
+     * @return the policy with the given code, LRU if the code is unknown or empty
+     */
+    public static EvictionPolicy getPolicyByCode( String code ) {
+      for ( EvictionPolicy policy : values() ) {
+        if ( policy.code.equalsIgnoreCase( code ) ) {
+          return policy;
+        }
+      }
+      return LRU;
+    }
+  }
+
+  /** The share of the budget for the admission window of W-TinyLFU */
+  private static final double WINDOW_SHARE = 0.01;
+  /** The share of the budget for the entries that were used more than once */
+  private static final double PROTECTED_SHARE = 0.8 * ( 1 - WINDOW_SHARE );
+
+  private static final int WINDOW = 0;
+  private static final int PROBATION = 1;
+  private static final int PROTECTED = 2;
+
+  private static final class Node<K, V> {
+    final K key;
+    V value;
+    long weight;
+    long writeTime;
+    int queue;
+    Node<K, V> previous;
+    Node<K, V> next;
+
+    Node( K key ) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * A doubly linked list of entries, least recently used first.
+   */
+  private static final class AccessQueue<K, V> {
+    Node<K, V> head;
+    Node<K, V> tail;
+    long rows;
+    long bytes;
+
+    void addLast( Node<K, V> node ) {
+      node.previous = tail;
+      node.next = null;
+      if ( tail == null ) {
+        head = node;
+      } else {
+        tail.next = node;
+      }
+      tail = node;
+      rows++;
+      bytes += node.weight;
+    }
+
+    void remove( Node<K, V> node ) {
+      if ( node.previous == null ) {
+        head = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if ( node.next == null ) {
+        tail = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+      rows--;
+      bytes -= node.weight;
+    }
+
+    void clear() {
+      head = null;
+      tail = null;
+      rows = 0;
+      bytes = 0;
+    }
+  }
+
+  private final EvictionPolicy policy;
+  private final long maximumRows;
+  private final long maximumBytes;
+  private final ToLongBiFunction<K, V> weigher;
+  private final long expireAfterWriteNanos;
+  private final LongSupplier ticker;
+  private final LookupCacheStatistics statistics;
+
+  private final Map<K, Node<K, V>> map;
+  @SuppressWarnings( "unchecked" )
+  private final AccessQueue<K, V>[] queues = new AccessQueue[] { new AccessQueue<>(), new AccessQueue<>(),
+    new AccessQueue<>() };
+  private final FrequencySketch sketch;
+
+  private LookupCache( Builder<K, V> builder ) {
+    this.policy = builder.policy;
+    this.maximumRows = builder.maximumRows;
+    this.maximumBytes = builder.maximumBytes;
+    this.weigher = builder.weigher;
+    this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+    this.ticker = builder.ticker;
+    this.statistics = builder.statistics;
+    this.map = new LinkedHashMap<>( (int) Math.min( maximumRows > 0 ? maximumRows * 4 / 3 + 1 : 16, 1 << 20 ) );
+    if ( policy == EvictionPolicy.W_TINY_LFU && isBounded() ) {
+      sketch = new FrequencySketch();
+      sketch.ensureCapacity( maximumRows > 0 ? maximumRows : 16 );
+    } else {
+      sketch = null;
+    }
+  }
+
+  public static <K, V> Builder<K, V> builder() {
+    return new Builder<>();
+  }
+
+  /**
+   * Look up a key. A hit makes the entry the most recently used one.
+   *
+   * @return the cached value or null if the key is not cached or the entry expired
+   */
+  public V get( K key ) {
+    if ( sketch != null ) {
+      sketch.increment( key );
+    }
+    Node<K, V> node = map.get( key );
+    if ( node == null ) {
+      statistics.recordMiss();
+      return null;
+    }
+    if ( isExpired( node ) ) {
+      removeNode( node );
+      statistics.recordExpiration();
+      statistics.recordMiss();
+      return null;
+    }
+    statistics.recordHit();
+    onAccess( node );
+    return node.value;
+  }
+
+  /**
+   * Store a value, replacing the value of the key if it is cached already. Entries are evicted afterwards until the
+   * cache fits in its budget again, which can be the new entry itself if it is larger than the whole byte budget.
+   */
+  public void put( K key, V value ) {
+    long weight = weigher == null ? 0L : weigher.applyAsLong( key, value );
+    Node<K, V> node = map.get( key );
+    if ( node == null ) {
+      node = new Node<>( key );
+      node.value = value;
+      node.weight = weight;
+      node.writeTime = expireAfterWriteNanos > 0 ? ticker.getAsLong() : 0L;
+      node.queue = WINDOW;
+      map.put( key, node );
+      queues[ WINDOW ].addLast( node );
+    } else {
+      queues[ node.queue ].bytes += weight - node.weight;
+      node.value = value;
+      node.weight = weight;
+      node.writeTime = expireAfterWriteNanos > 0 ? ticker.getAsLong() : 0L;
+      onAccess( node );
+    }
+    if ( sketch != null ) {
+      sketch.ensureCapacity( Math.max( maximumRows, map.size() ) );
+      sketch.increment( key );
+    }
+    evict();
+  }
+
+  /**
+   * Store a value unless the key is cached already. This is not a lookup, the statistics are not updated.
+   *
+   * @return the value that was cached already or null if the given value was stored
+   */
+  public V putIfAbsent( K key, V value ) {
+    Node<K, V> node = map.get( key );
+    if ( node != null && !isExpired( node ) ) {
+      return node.value;
+    }
+    put( key, value );
+    return null;
+  }
+
+  /**
+   * @return the removed value or null if the key was not cached
+   */
+  public V remove( K key ) {
+    Node<K, V> node = map.get( key );
+    if ( node == null ) {
+      return null;
+    }
+    removeNode( node );
+    return node.value;
+  }
+
+  public void clear() {
+    map.clear();
+    for ( AccessQueue<K, V> queue : queues ) {
+      queue.clear();
+    }
+  }
+
+  /**
+   * @return true if the key is cached but its entry expired. The statistics and the access order are not updated.
+   */
+  public boolean isExpired( K key ) {
+    Node<K, V> node = map.get( key );
+    return node != null && isExpired( node );
+  }
+
+  /**
+   * Remove the entries that expired. This is not a lookup, only the expirations are counted.
+   */
+  public void removeExpired() {
+    if ( expireAfterWriteNanos <= 0 ) {
+      return;
+    }
+    Iterator<Node<K, V>> nodes = map.values().iterator();
+    while ( nodes.hasNext() ) {
+      Node<K, V> node = nodes.next();
+      if ( isExpired( node ) ) {
+        queues[ node.queue ].remove( node );
+        nodes.remove();
+        statistics.recordExpiration();
+      }
+    }
+  }
+
+  /**
+   * @return the cached keys in the order they were first stored, including the ones of expired entries that were not
+   *         removed yet. {@linkplain #isExpired(Object)} can be called while iterating. Looking up a key with
+   *         {@linkplain #get(Object)} is allowed as long as the iteration stops afterwards, because an expired entry is
+   *         removed by it.
+   */
+  public Set<K> keys() {
+    return Collections.unmodifiableSet( map.keySet() );
+  }
+
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * @return the estimated size in bytes of all entries, 0 if there is no weigher
+   */
+  public long getByteSize() {
+    long bytes = 0;
+    for ( AccessQueue<K, V> queue : queues ) {
+      bytes += queue.bytes;
+    }
+    return bytes;
+  }
+
+  public EvictionPolicy getPolicy() {
+    return policy;
+  }
+
+  public long getMaximumRows() {
+    return maximumRows;
+  }
+
+  public long getMaximumBytes() {
+    return maximumBytes;
+  }
+
+  public LookupCacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  private boolean isBounded() {
+    return maximumRows > 0 || maximumBytes > 0;
+  }
+
+  private boolean isExpired( Node<K, V> node ) {
+    return expireAfterWriteNanos > 0 && ticker.getAsLong() - node.writeTime >= expireAfterWriteNanos;
+  }
+
+  private void onAccess( Node<K, V> node ) {
+    AccessQueue<K, V> queue = queues[ node.queue ];
+    queue.remove( node );
+    if ( node.queue == PROBATION ) {
+      // used again after it was admitted: protect it and make room by demoting the least recently used protected ones
+      node.queue = PROTECTED;
+      queues[ PROTECTED ].addLast( node );
+      while ( exceeds( queues[ PROTECTED ], PROTECTED_SHARE ) ) {
+        Node<K, V> demoted = queues[ PROTECTED ].head;
+        queues[ PROTECTED ].remove( demoted );
+        demoted.queue = PROBATION;
+        queues[ PROBATION ].addLast( demoted );
+      }
+    } else {
+      queue.addLast( node );
+    }
+  }
+
+  /**
+   * @return true if the queue holds more than its share of the budget. A queue may always hold one entry.
+   */
+  private boolean exceeds( AccessQueue<K, V> queue, double share ) {
+    if ( queue.rows <= 1 ) {
+      return false;
+    }
+    return ( maximumRows > 0 && queue.rows > Math.max( 1L, (long) ( maximumRows * share ) ) )
+      || ( maximumBytes > 0 && queue.bytes > (long) ( maximumBytes * share ) );
+  }
+
+  private boolean isOverBudget() {
+    return ( maximumRows > 0 && map.size() > maximumRows ) || ( maximumBytes > 0 && getByteSize() > maximumBytes );
+  }
+
+  private void evict() {
+    if ( !isBounded() ) {
+      return;
+    }
+    if ( policy == EvictionPolicy.LRU ) {
+      while ( isOverBudget() ) {
+        evictNode( queues[ WINDOW ].head );
+      }
+      return;
+    }
+
+    // The entries pushed out of the window are candidates at the end of the probation queue. Each one competes with
+    // the least recently used probation entry, the one that was used the least often is evicted.
+    Node<K, V> candidate = null;
+    while ( exceeds( queues[ WINDOW ], WINDOW_SHARE ) ) {
+      Node<K, V> node = queues[ WINDOW ].head;
+      queues[ WINDOW ].remove( node );
+      node.queue = PROBATION;
+      queues[ PROBATION ].addLast( node );
+      if ( candidate == null ) {
+        candidate = node;
+      }
+    }
+    while ( isOverBudget() ) {
+      Node<K, V> victim = queues[ PROBATION ].head;
+      if ( victim == null ) {
+        victim = queues[ PROTECTED ].head != null ? queues[ PROTECTED ].head : queues[ WINDOW ].head;
+        evictNode( victim );
+      } else if ( candidate == null ) {
+        evictNode( victim );
+      } else if ( victim == candidate ) {
+        candidate = candidate.next;
+        evictNode( victim );
+      } else if ( sketch.frequency( candidate.key ) > sketch.frequency( victim.key ) ) {
+        evictNode( victim );
+      } else {
+        Node<K, V> next = candidate.next;
+        evictNode( candidate );
+        candidate = next;
+      }
+    }
+  }
+
+  private void evictNode( Node<K, V> node ) {
+    removeNode( node );
+    if ( isExpired( node ) ) {
+      statistics.recordExpiration();
+    } else {
+      statistics.recordEviction();
+    }
+  }
+
+  private void removeNode( Node<K, V> node ) {
+    queues[ node.queue ].remove( node );
+    map.remove( node.key );
+  }
+
+  public static class Builder<K, V> {
+    private EvictionPolicy policy = EvictionPolicy.LRU;
+    private long maximumRows;
+    private long maximumBytes;
+    private ToLongBiFunction<K, V> weigher;
+    private long expireAfterWriteNanos;
+    private LongSupplier ticker = System::nanoTime;
+    private LookupCacheStatistics statistics = new LookupCacheStatistics();
+
+    public Builder<K, V> policy( EvictionPolicy policy ) {
+      this.policy = policy == null ? EvictionPolicy.LRU : policy;
+      return this;
+    }
+
+    /**
+     * @param maximumRows the maximum number of entries, 0 or less for no limit
+     */
+    public Builder<K, V> maximumRows( long maximumRows ) {
+      this.maximumRows = maximumRows;
+      return this;
+    }
+
+    /**
+     * @param maximumBytes the maximum estimated size of all entries, 0 or less for no limit. Needs a weigher.
+     */
+    public Builder<K, V> maximumBytes( long maximumBytes ) {
+      this.maximumBytes = maximumBytes;
+      return this;
+    }
+
+    /**
+     * @param weigher estimates the size in bytes of an entry
+     */
+    public Builder<K, V> weigher( ToLongBiFunction<K, V> weigher ) {
+      this.weigher = weigher;
+      return this;
+    }
+
+    /**
+     * @param duration the time an entry stays valid after it was stored, 0 or less to keep entries until evicted
+     */
+    public Builder<K, V> expireAfterWrite( long duration, TimeUnit unit ) {
+      this.expireAfterWriteNanos = duration > 0 ? unit.toNanos( duration ) : 0L;
+      return this;
+    }
+
+    /**
+     * @param ticker the source of the nanosecond time used for expiration
+     */
+    public Builder<K, V> ticker( LongSupplier ticker ) {
+      this.ticker = ticker;
+      return this;
+    }
+
+    /**
+     * @param statistics the counters to update, for example to share them between caches of the same step
+     */
+    public Builder<K, V> statistics( LookupCacheStatistics statistics ) {
+      this.statistics = statistics;
+      return this;
+    }
+
+    public LookupCache<K, V> build() {
+      if ( maximumBytes > 0 && weigher == null ) {
+        throw new IllegalStateException( "A byte budget needs a weigher to estimate the size of the entries" );
+      }
+      return new LookupCache<>( this );
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The hit, miss, eviction and expiration counters of a {@linkplain LookupCache}. The cache is used by a single step
+ * thread but the counters can be read at any time, for example by the step status of Carte.
+ *
+ * @since 11.0
+ */
+public class LookupCacheStatistics {
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  public void recordHit() {
+    hits.increment();
+  }
+
+  public void recordMiss() {
+    misses.increment();
+  }
+
+  public void recordEviction() {
+    evictions.increment();
+  }
+
+  public void recordExpiration() {
+    expirations.increment();
+  }
+
+  /**
+   * Count the last hit as a miss, because the caller found the cached value to be unusable for the lookup.
+   */
+  public void recordInvalidation() {
+    hits.decrement();
+    misses.increment();
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * @return the number of entries removed to stay within the row or byte budget
+   */
+  public long getEvictions() {
+    return evictions.sum();
+  }
+
+  /**
+   * @return the number of entries removed because they lived longer than the time to live
+   */
+  public long getExpirations() {
+    return expirations.sum();
+  }
+
+  /**
+   * @return the fraction of the lookups that was found in the cache, 0 if there were no lookups
+   */
+  public double getHitRatio() {
+    long hitCount = getHits();
+    long total = hitCount + getMisses();
+    return total == 0 ? 0.0 : (double) hitCount / total;
+  }
+
+  @Override
+  public String toString() {
+    return "hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + ", expirations="
+      + getExpirations();
+  }
+}
@@ -0,0 +1,66 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.cache;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+/**
+ * Estimates the heap size of a row of Kettle values, to weigh the entries of a {@linkplain LookupCache} with a byte
+ * budget. The estimate assumes a 64-bit JVM with compressed references, it is meant for sizing and not exact.
+ *
+ * @since 11.0
+ */
+public class RowSizeEstimator {
+
+  private static final int OBJECT_HEADER = 16;
+  private static final int REFERENCE = 4;
+
+  private RowSizeEstimator() {
+  }
+
+  /**
+   * @return the estimated number of bytes used by the row array and its values
+   */
+  public static long estimate( Object[] row ) {
+    if ( row == null ) {
+      return 0L;
+    }
+    long size = OBJECT_HEADER + (long) REFERENCE * row.length;
+    for ( Object value : row ) {
+      size += estimateValue( value );
+    }
+    return size;
+  }
+
+  private static long estimateValue( Object value ) {
+    if ( value == null ) {
+      return 0L;
+    }
+    if ( value instanceof String ) {
+      // the String object plus its byte array, one byte per character for Latin-1 strings
+      return 2L * OBJECT_HEADER + 8 + ( (String) value ).length();
+    }
+    if ( value instanceof byte[] ) {
+      return OBJECT_HEADER + ( (byte[]) value ).length;
+    }
+    if ( value instanceof BigDecimal ) {
+      return 2L * OBJECT_HEADER + 16 + ( ( (BigDecimal) value ).precision() + 1 ) / 2;
+    }
+    if ( value instanceof Date ) {
+      return OBJECT_HEADER + 16;
+    }
+    return OBJECT_HEADER + 8;
+  }
+}
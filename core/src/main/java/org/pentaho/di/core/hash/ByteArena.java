@@ -0,0 +1,132 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Stores byte records in large pages instead of one array per record. A record is addressed with a long: the page
+ * number in the high and the offset in the low 32 bits. Records can't be removed.
+ */
+class ByteArena {
+
+  private static final int PAGE_SIZE = 1 << 20;
+
+  private byte[][] pages = new byte[ 16 ][];
+  private int nrPages;
+  private byte[] page;
+  private int position;
+  private long byteSize;
+
+  /**
+   * Add a record.
+   *
+   * @return the address of the record
+   */
+  long append( byte[] data, int offset, int length ) {
+    int needed = length + 5;
+    if ( page == null || page.length - position < needed ) {
+      if ( nrPages == pages.length ) {
+        pages = Arrays.copyOf( pages, nrPages * 2 );
+      }
+      page = new byte[ Math.max( PAGE_SIZE, needed ) ];
+      pages[ nrPages++ ] = page;
+      position = 0;
+      byteSize += page.length;
+    }
+    long address = ( (long) ( nrPages - 1 ) << 32 ) | position;
+
+    int value = length;
+    while ( ( value & ~0x7F ) != 0 ) {
+      page[ position++ ] = (byte) ( ( value & 0x7F ) | 0x80 );
+      value >>>= 7;
+    }
+    page[ position++ ] = (byte) value;
+    System.arraycopy( data, offset, page, position, length );
+    position += length;
+    return address;
+  }
+
+  /**
+   * @return true if the record at the address holds the given bytes
+   */
+  boolean equals( long address, byte[] data, int length ) {
+    byte[] p = pages[ (int) ( address >>> 32 ) ];
+    int offset = (int) address;
+    int stored = 0;
+    for ( int shift = 0;; shift += 7 ) {
+      byte b = p[ offset++ ];
+      stored |= ( b & 0x7F ) << shift;
+      if ( b >= 0 ) {
+        break;
+      }
+    }
+    if ( stored != length ) {
+      return false;
+    }
+    for ( int i = 0; i < length; i++ ) {
+      if ( p[ offset + i ] != data[ i ] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of bytes allocated for the pages
+   */
+  long getByteSize() {
+    return byteSize;
+  }
+
+  /**
+   * Reads a record, can be positioned on another record to avoid creating a stream per record.
+   */
+  final class RecordInputStream extends InputStream {
+    private byte[] buf;
+    private int pos;
+    private int limit;
+
+    void seek( long address ) {
+      buf = pages[ (int) ( address >>> 32 ) ];
+      pos = (int) address;
+      int length = 0;
+      for ( int shift = 0;; shift += 7 ) {
+        byte b = buf[ pos++ ];
+        length |= ( b & 0x7F ) << shift;
+        if ( b >= 0 ) {
+          break;
+        }
+      }
+      limit = pos + length;
+    }
+
+    @Override
+    public int read() {
+      return pos < limit ? buf[ pos++ ] & 0xFF : -1;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) {
+      if ( pos >= limit ) {
+        return -1;
+      }
+      int n = Math.min( len, limit - pos );
+      System.arraycopy( buf, pos, b, off, n );
+      pos += n;
+      return n;
+    }
+  }
+}
@@ -0,0 +1,560 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.net.SocketTimeoutException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+/**
+ * An open addressing hash index from the key fields of a row to a row of values, meant for lookups on millions of
+ * rows. There is no object per entry: the keys and values sit in arrays indexed by an entry number, the table only
+ * holds entry numbers.<br>
+ * <ul>
+ * <li>A single Integer key is stored as a primitive long.</li>
+ * <li>Other keys, single or composite, are encoded into bytes that are kept in large shared pages. Strings are
+ * stored as their characters.</li>
+ * <li>The values are either kept as the row that was added or, to preserve memory, serialized into the shared
+ * pages and read back on every hit.</li>
+ * </ul>
+ * Looking up Integer, String, Number, Date and Boolean keys doesn't allocate memory. Entries are numbered in the order
+ * they were added. Adding an existing key replaces the value, a null key matches a null key.<br>
+ * <br>
+ * Not thread safe.
+ *
+ * @since 11.0
+ */
+public class RowHashIndex {
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.7f;
+
+  private final ValueMetaInterface[] keyMetas;
+  private final ValueMetaInterface[] valueMetas;
+  private final boolean longKeys;
+  private final boolean packValues;
+
+  /** The entry number + 1 of every slot, 0 for an empty slot */
+  private int[] slots;
+  private int threshold;
+
+  private int size;
+
+  /** The long key or the address of the key bytes of every entry */
+  private long[] keys;
+  /** The hash code of the key of every entry, only for byte keys */
+  private int[] hashes;
+  /** The values of every entry, unless they are packed */
+  private Object[][] values;
+  /** The address of the packed values of every entry */
+  private long[] valueAddresses;
+
+  /** The entry of the null key, long keys only */
+  private int nullKeyEntry = -1;
+
+  private final ByteArena keyArena;
+  private final ByteArena valueArena;
+
+  private final KeyBuffer keyBuffer = new KeyBuffer();
+  private final ValueBuffer valueBuffer;
+  private final DataOutputStream valueOutput;
+  private final ByteArena.RecordInputStream valueStream;
+  private final DataInputStream valueInput;
+
+  /**
+   * Create a new index.
+   *
+   * @param keyMeta
+   *          the metadata of the key fields, see {@link #isSupported(RowMetaInterface)}
+   * @param valueMeta
+   *          the metadata of the value rows
+   * @param packValues
+   *          true to serialize the values to preserve memory, false to keep the value rows as they are
+   */
+  public RowHashIndex( RowMetaInterface keyMeta, RowMetaInterface valueMeta, boolean packValues ) {
+    this.keyMetas = keyMeta.getValueMetaList().toArray( new ValueMetaInterface[ 0 ] );
+    this.valueMetas = valueMeta.getValueMetaList().toArray( new ValueMetaInterface[ 0 ] );
+    this.longKeys = keyMetas.length == 1 && keyMetas[ 0 ].getType() == ValueMetaInterface.TYPE_INTEGER;
+    this.packValues = packValues;
+
+    slots = new int[ INITIAL_CAPACITY ];
+    threshold = (int) ( INITIAL_CAPACITY * LOAD_FACTOR );
+    keys = new long[ threshold ];
+    if ( longKeys ) {
+      keyArena = null;
+    } else {
+      keyArena = new ByteArena();
+      hashes = new int[ threshold ];
+    }
+    if ( packValues ) {
+      valueArena = new ByteArena();
+      valueAddresses = new long[ threshold ];
+      valueBuffer = new ValueBuffer();
+      valueOutput = new DataOutputStream( valueBuffer );
+      valueStream = valueArena.new RecordInputStream();
+      valueInput = new DataInputStream( valueStream );
+    } else {
+      valueArena = null;
+      values = new Object[ threshold ][];
+      valueBuffer = null;
+      valueOutput = null;
+      valueStream = null;
+      valueInput = null;
+    }
+  }
+
+  /**
+   * @param keyMeta
+   *          the metadata of the key fields
+   * @return true if the index can handle keys of these data types: Integer, String, Number, Date, Boolean, BigNumber,
+   *         Binary and Timestamp. Case insensitive strings are not supported.
+   */
+  public static boolean isSupported( RowMetaInterface keyMeta ) {
+    if ( keyMeta.isEmpty() ) {
+      return false;
+    }
+    for ( ValueMetaInterface valueMeta : keyMeta.getValueMetaList() ) {
+      if ( valueMeta.isCaseInsensitive() ) {
+        return false;
+      }
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_INTEGER:
+        case ValueMetaInterface.TYPE_STRING:
+        case ValueMetaInterface.TYPE_NUMBER:
+        case ValueMetaInterface.TYPE_DATE:
+        case ValueMetaInterface.TYPE_BOOLEAN:
+        case ValueMetaInterface.TYPE_BIGNUMBER:
+        case ValueMetaInterface.TYPE_BINARY:
+        case ValueMetaInterface.TYPE_TIMESTAMP:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return the number of entries
+   */
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @return an estimate of the bytes used by the index, without the value rows that aren't packed
+   */
+  public long getMemoryUsage() {
+    long bytes = slots.length * 4L + keys.length * 8L;
+    if ( hashes != null ) {
+      bytes += hashes.length * 4L;
+    }
+    if ( keyArena != null ) {
+      bytes += keyArena.getByteSize();
+    }
+    if ( packValues ) {
+      bytes += valueAddresses.length * 8L + valueArena.getByteSize();
+    } else {
+      bytes += values.length * 8L;
+    }
+    return bytes;
+  }
+
+  /**
+   * Add a row with the key fields in order, in normal storage.
+   *
+   * @param keyData
+   *          the key fields
+   * @param valueData
+   *          the values
+   * @return the entry number
+   */
+  public int put( Object[] keyData, Object[] valueData ) throws KettleValueException {
+    return put( null, keyData, null, valueData );
+  }
+
+  /**
+   * Add a row.
+   *
+   * @param rowMeta
+   *          the metadata of the row to convert keys that are not in normal storage, null if they all are
+   * @param row
+   *          the row holding the keys
+   * @param keyIndexes
+   *          the indexes of the key fields in the row, null if the row holds the keys in order
+   * @param valueData
+   *          the values
+   * @return the entry number
+   */
+  public int put( RowMetaInterface rowMeta, Object[] row, int[] keyIndexes, Object[] valueData )
+    throws KettleValueException {
+    int entry;
+    if ( longKeys ) {
+      Object key = getKey( rowMeta, row, keyIndexes, 0 );
+      if ( key == null ) {
+        if ( nullKeyEntry < 0 ) {
+          nullKeyEntry = newEntry();
+        }
+        entry = nullKeyEntry;
+      } else {
+        long longKey = toLong( key );
+        int slot = findLongSlot( longKey );
+        if ( slots[ slot ] != 0 ) {
+          entry = slots[ slot ] - 1;
+        } else {
+          entry = newEntry();
+          keys[ entry ] = longKey;
+          slots[ slot ] = entry + 1;
+        }
+      }
+    } else {
+      encodeKey( rowMeta, row, keyIndexes );
+      int hash = keyBuffer.hash();
+      int slot = findByteSlot( hash );
+      if ( slots[ slot ] != 0 ) {
+        entry = slots[ slot ] - 1;
+      } else {
+        entry = newEntry();
+        keys[ entry ] = keyArena.append( keyBuffer.buf, 0, keyBuffer.length );
+        hashes[ entry ] = hash;
+        slots[ slot ] = entry + 1;
+      }
+    }
+    setValue( entry, valueData );
+    if ( size > threshold ) {
+      resize();
+    }
+    return entry;
+  }
+
+  /**
+   * Look up the values for the key fields in order, in normal storage.
+   *
+   * @return the values or null if the key isn't in the index
+   */
+  public Object[] get( Object[] keyData ) throws KettleValueException {
+    int entry = find( null, keyData, null );
+    return entry < 0 ? null : getValue( entry );
+  }
+
+  /**
+   * Look up the values for the keys in a row.
+   *
+   * @param rowMeta
+   *          the metadata of the row to convert keys that are not in normal storage, null if they all are
+   * @param row
+   *          the row holding the keys
+   * @param keyIndexes
+   *          the indexes of the key fields in the row, null if the row holds the keys in order
+   * @return the values or null if the key isn't in the index
+   */
+  public Object[] get( RowMetaInterface rowMeta, Object[] row, int[] keyIndexes ) throws KettleValueException {
+    int entry = find( rowMeta, row, keyIndexes );
+    return entry < 0 ? null : getValue( entry );
+  }
+
+  /**
+   * Find the entry of the keys in a row.
+   *
+   * @return the entry number or -1 if the key isn't in the index
+   * @see #get(RowMetaInterface, Object[], int[])
+   */
+  public int find( RowMetaInterface rowMeta, Object[] row, int[] keyIndexes ) throws KettleValueException {
+    if ( longKeys ) {
+      Object key = getKey( rowMeta, row, keyIndexes, 0 );
+      if ( key == null ) {
+        return nullKeyEntry;
+      }
+      return slots[ findLongSlot( toLong( key ) ) ] - 1;
+    } else {
+      encodeKey( rowMeta, row, keyIndexes );
+      return slots[ findByteSlot( keyBuffer.hash() ) ] - 1;
+    }
+  }
+
+  /**
+   * @param entry
+   *          the entry number, from 0 to size()-1
+   * @return the values of the entry, a new row if the values are packed
+   */
+  public Object[] getValue( int entry ) throws KettleValueException {
+    if ( !packValues ) {
+      return values[ entry ];
+    }
+    valueStream.seek( valueAddresses[ entry ] );
+    Object[] valueData = new Object[ valueMetas.length ];
+    try {
+      for ( int i = 0; i < valueMetas.length; i++ ) {
+        valueData[ i ] = valueMetas[ i ].readData( valueInput );
+      }
+    } catch ( KettleFileException | SocketTimeoutException e ) {
+      throw new KettleValueException( "Unable to read the values of entry " + entry, e );
+    }
+    return valueData;
+  }
+
+  private void setValue( int entry, Object[] valueData ) throws KettleValueException {
+    if ( !packValues ) {
+      values[ entry ] = valueData;
+      return;
+    }
+    valueBuffer.reset();
+    try {
+      for ( int i = 0; i < valueMetas.length; i++ ) {
+        valueMetas[ i ].writeData( valueOutput, valueData[ i ] );
+      }
+    } catch ( KettleFileException e ) {
+      throw new KettleValueException( "Unable to store the values of entry " + entry, e );
+    }
+    valueAddresses[ entry ] = valueArena.append( valueBuffer.getBuffer(), 0, valueBuffer.size() );
+  }
+
+  private int newEntry() {
+    if ( size == keys.length ) {
+      int capacity = keys.length + ( keys.length >> 1 );
+      keys = Arrays.copyOf( keys, capacity );
+      if ( hashes != null ) {
+        hashes = Arrays.copyOf( hashes, capacity );
+      }
+      if ( packValues ) {
+        valueAddresses = Arrays.copyOf( valueAddresses, capacity );
+      } else {
+        values = Arrays.copyOf( values, capacity );
+      }
+    }
+    return size++;
+  }
+
+  private int findLongSlot( long key ) {
+    int mask = slots.length - 1;
+    int slot = hash( key ) & mask;
+    while ( slots[ slot ] != 0 && keys[ slots[ slot ] - 1 ] != key ) {
+      slot = ( slot + 1 ) & mask;
+    }
+    return slot;
+  }
+
+  private int findByteSlot( int hash ) {
+    int mask = slots.length - 1;
+    int slot = hash & mask;
+    while ( slots[ slot ] != 0 ) {
+      int entry = slots[ slot ] - 1;
+      if ( hashes[ entry ] == hash && keyArena.equals( keys[ entry ], keyBuffer.buf, keyBuffer.length ) ) {
+        break;
+      }
+      slot = ( slot + 1 ) & mask;
+    }
+    return slot;
+  }
+
+  private void resize() {
+    int capacity = slots.length * 2;
+    if ( capacity <= 0 ) {
+      throw new IllegalStateException( "The hash index is full" );
+    }
+    int[] newSlots = new int[ capacity ];
+    int mask = capacity - 1;
+    for ( int entry = 0; entry < size; entry++ ) {
+      if ( entry == nullKeyEntry ) {
+        continue;
+      }
+      int slot = ( longKeys ? hash( keys[ entry ] ) : hashes[ entry ] ) & mask;
+      while ( newSlots[ slot ] != 0 ) {
+        slot = ( slot + 1 ) & mask;
+      }
+      newSlots[ slot ] = entry + 1;
+    }
+    slots = newSlots;
+    threshold = (int) ( capacity * LOAD_FACTOR );
+  }
+
+  private static int hash( long key ) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    key *= 0xc4ceb9fe1a85ec53L;
+    key ^= key >>> 33;
+    return (int) key;
+  }
+
+  private Object getKey( RowMetaInterface rowMeta, Object[] row, int[] keyIndexes, int i )
+    throws KettleValueException {
+    int index = keyIndexes == null ? i : keyIndexes[ i ];
+    Object value = row[ index ];
+    if ( rowMeta != null && value != null ) {
+      ValueMetaInterface valueMeta = rowMeta.getValueMeta( index );
+      if ( !valueMeta.isStorageNormal() ) {
+        value = valueMeta.convertToNormalStorageType( value );
+      }
+    }
+    return value;
+  }
+
+  private long toLong( Object key ) throws KettleValueException {
+    if ( key instanceof Long ) {
+      return (Long) key;
+    }
+    throw new KettleValueException( "Expected an Integer key but got " + key.getClass().getName() );
+  }
+
+  private void encodeKey( RowMetaInterface rowMeta, Object[] row, int[] keyIndexes ) throws KettleValueException {
+    KeyBuffer key = keyBuffer;
+    key.length = 0;
+    try {
+      for ( int i = 0; i < keyMetas.length; i++ ) {
+        Object value = getKey( rowMeta, row, keyIndexes, i );
+        // An empty string is a null value, unless KETTLE_EMPTY_STRING_DIFFERS_FROM_NULL says otherwise
+        if ( keyMetas[ i ].isNull( value ) ) {
+          key.write( 0 );
+          continue;
+        }
+        key.write( 1 );
+        switch ( keyMetas[ i ].getType() ) {
+          case ValueMetaInterface.TYPE_INTEGER:
+            key.writeLong( (Long) value );
+            break;
+          case ValueMetaInterface.TYPE_NUMBER:
+            double number = (Double) value;
+            // 0.0 and -0.0 are the same key
+            key.writeLong( number == 0.0 ? 0L : Double.doubleToLongBits( number ) );
+            break;
+          case ValueMetaInterface.TYPE_DATE:
+            key.writeLong( ( (Date) value ).getTime() );
+            break;
+          case ValueMetaInterface.TYPE_TIMESTAMP:
+            key.writeLong( ( (Date) value ).getTime() );
+            key.writeVarInt( value instanceof Timestamp ? ( (Timestamp) value ).getNanos() : 0 );
+            break;
+          case ValueMetaInterface.TYPE_BOOLEAN:
+            key.write( ( (Boolean) value ) ? 1 : 0 );
+            break;
+          case ValueMetaInterface.TYPE_STRING:
+            key.writeChars( (String) value );
+            break;
+          case ValueMetaInterface.TYPE_BIGNUMBER:
+            // 1.0 and 1.00 are the same key
+            key.writeChars( ( (BigDecimal) value ).stripTrailingZeros().toString() );
+            break;
+          case ValueMetaInterface.TYPE_BINARY:
+            byte[] bytes = (byte[]) value;
+            key.writeVarInt( bytes.length );
+            key.write( bytes, 0, bytes.length );
+            break;
+          default:
+            throw new KettleValueException( "Unsupported key type for field " + keyMetas[ i ].getName() );
+        }
+      }
+    } catch ( ClassCastException e ) {
+      throw new KettleValueException( "A key doesn't have the data type of its field", e );
+    }
+  }
+
+  /**
+   * The reused buffer to encode a key in.
+   */
+  private static final class KeyBuffer {
+    private byte[] buf = new byte[ 256 ];
+    private int length;
+
+    private void ensure( int extra ) {
+      if ( length + extra > buf.length ) {
+        buf = Arrays.copyOf( buf, Math.max( buf.length * 2, length + extra ) );
+      }
+    }
+
+    void write( int b ) {
+      ensure( 1 );
+      buf[ length++ ] = (byte) b;
+    }
+
+    void write( byte[] b, int off, int len ) {
+      ensure( len );
+      System.arraycopy( b, off, buf, length, len );
+      length += len;
+    }
+
+    void writeLong( long value ) {
+      ensure( 8 );
+      for ( int i = 0; i < 8; i++ ) {
+        buf[ length++ ] = (byte) ( value >>> ( i * 8 ) );
+      }
+    }
+
+    void writeVarInt( int value ) {
+      ensure( 5 );
+      while ( ( value & ~0x7F ) != 0 ) {
+        buf[ length++ ] = (byte) ( ( value & 0x7F ) | 0x80 );
+        value >>>= 7;
+      }
+      buf[ length++ ] = (byte) value;
+    }
+
+    /**
+     * Write the length and the characters, one byte for ASCII characters.
+     */
+    void writeChars( String string ) {
+      int n = string.length();
+      writeVarInt( n );
+      ensure( n * 3 );
+      for ( int i = 0; i < n; i++ ) {
+        int c = string.charAt( i );
+        while ( ( c & ~0x7F ) != 0 ) {
+          buf[ length++ ] = (byte) ( ( c & 0x7F ) | 0x80 );
+          c >>>= 7;
+        }
+        buf[ length++ ] = (byte) c;
+      }
+    }
+
+    int hash() {
+      int h = 1;
+      for ( int i = 0; i < length; i++ ) {
+        h = 31 * h + buf[ i ];
+      }
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return h;
+    }
+  }
+
+  /**
+   * A reused buffer to serialize values in.
+   */
+  private static final class ValueBuffer extends ByteArrayOutputStream {
+    ValueBuffer() {
+      super( 256 );
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
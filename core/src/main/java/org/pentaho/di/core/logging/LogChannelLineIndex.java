@@ -0,0 +1,149 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import java.util.Arrays;
+
+/**
+ * The numbers of the buffer lines logged by a log channel and all of its children, in ascending order.<br>
+ * <br>
+ * The numbers are kept in a ring of primitive ints which holds at most a fixed number of lines: the oldest numbers are
+ * dropped first. That way reading the lines of one transformation or job doesn't need to look at the lines of any of
+ * the others.
+ *
+ * @since 11.0
+ */
+class LogChannelLineIndex {
+
+  private static final int INITIAL_CAPACITY = 64;
+
+  private final int maxSize;
+
+  private int[] lines;
+  private int start;
+  private int size;
+
+  /**
+   * @param maxSize
+   *          the maximum number of line numbers to keep, 0 or lower means: no limit
+   */
+  LogChannelLineIndex( int maxSize ) {
+    this.maxSize = maxSize;
+    this.lines = new int[ maxSize > 0 ? Math.min( maxSize, INITIAL_CAPACITY ) : INITIAL_CAPACITY ];
+  }
+
+  private int get( int index ) {
+    return lines[ ( start + index ) % lines.length ];
+  }
+
+  private void set( int index, int nr ) {
+    lines[ ( start + index ) % lines.length ] = nr;
+  }
+
+  /**
+   * Add a line number. Line numbers usually arrive in ascending order, the odd one that was overtaken by another
+   * thread is moved into place.
+   */
+  synchronized void add( int nr ) {
+    if ( size == lines.length ) {
+      if ( maxSize > 0 && size >= maxSize ) {
+        // Drop the oldest line
+        start = ( start + 1 ) % lines.length;
+        size--;
+      } else {
+        grow();
+      }
+    }
+    int index = size;
+    while ( index > 0 && get( index - 1 ) > nr ) {
+      set( index, get( index - 1 ) );
+      index--;
+    }
+    set( index, nr );
+    size++;
+  }
+
+  private void grow() {
+    int capacity = lines.length * 2;
+    if ( maxSize > 0 ) {
+      capacity = Math.min( capacity, maxSize );
+    }
+    int[] grown = new int[ capacity ];
+    for ( int i = 0; i < size; i++ ) {
+      grown[ i ] = get( i );
+    }
+    lines = grown;
+    start = 0;
+  }
+
+  /**
+   * @return the position of the first line number that is at least the given number
+   */
+  private int lowerBound( int nr ) {
+    int low = 0;
+    int high = size;
+    while ( low < high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( get( middle ) < nr ) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @param from
+   *          the first line number to return
+   * @param to
+   *          the last line number to return
+   * @param tailLines
+   *          return only the last lines if larger than 0
+   * @return the line numbers between from and to (both included), in ascending order
+   */
+  synchronized int[] getLines( int from, int to, int tailLines ) {
+    int first = lowerBound( from );
+    int last = to == Integer.MAX_VALUE ? size : lowerBound( to + 1 );
+    if ( tailLines > 0 && last - first > tailLines ) {
+      first = last - tailLines;
+    }
+    if ( first >= last ) {
+      return new int[ 0 ];
+    }
+    int[] result = new int[ last - first ];
+    for ( int i = first; i < last; i++ ) {
+      result[ i - first ] = get( i );
+    }
+    return result;
+  }
+
+  /**
+   * Forget about the lines with a number lower than the given one.
+   */
+  synchronized void removeBefore( int nr ) {
+    int count = lowerBound( nr );
+    start = ( start + count ) % lines.length;
+    size -= count;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return Arrays.toString( getLines( 0, Integer.MAX_VALUE, 0 ) );
+  }
+}
@@ -18,7 +18,9 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +39,9 @@ import java.util.stream.Stream;
  * @author matt
  */
 public class LoggingBuffer {
+  // Safety net against loops in the parent chain of a log channel
+  private static final int MAX_CHANNEL_DEPTH = 100;
+
   private String name;
 
   private ConcurrentSkipListMap<Integer, BufferLine> buffer;
@@ -45,6 +50,19 @@ public class LoggingBuffer {
   //the entire buffer.  This matters when bufferSize is large
   private Map<String, Integer> tailMap = new ConcurrentHashMap<>();
 
+  //Keeps the line numbers of every log channel and its children, so the lines of one transformation or job can be read
+  //without filtering the lines of all the others.
+  private Map<String, LogChannelLineIndex> channelLines = new ConcurrentHashMap<>();
+
+  //The channel itself followed by all its parents, looked up in the logging registry once per channel. Guarded by the
+  //write lock, like linesDropped.
+  private Map<String, String[]> channelAncestry = new HashMap<>();
+
+  //Number of lines dropped from the buffer since the channel line indexes were last pruned
+  private int linesDropped;
+
+  //Appending a line updates the buffer and the channel line indexes together under the write lock, reading the
+  //lines of a channel takes the read lock
   private ReadWriteLock lock = new ReentrantReadWriteLock();
 
   private int bufferSize;
@@ -155,6 +173,10 @@ public class LoggingBuffer {
    */
   public List<KettleLoggingEvent> getLogBufferFromTo( String parentLogChannelId, boolean includeGeneral, int from,
                                                       int to, int tailLines ) {
+    if ( !includeGeneral && parentLogChannelId != null ) {
+      return getChannelLogBufferFromTo( parentLogChannelId, from, to, tailLines );
+    }
+
     // Typically, the log channel id is the one from the transformation or job running currently.
     // However, we also want to see the details of the steps etc.
     // So we need to look at the parents all the way up if needed...
@@ -164,6 +186,50 @@ public class LoggingBuffer {
     return getLogBufferFromTo( childIds, includeGeneral, from, to, tailLines, parentLogChannelId );
   }
 
+  /**
+   * Reads the lines of a log channel and all its children from the channel line index: only the lines of the channel
+   * are looked at, no matter how many other channels are logging.
+   */
+  private List<KettleLoggingEvent> getChannelLogBufferFromTo( String parentLogChannelId, int from, int to,
+                                                              int tailLines ) {
+    if ( from > to ) {
+      return Collections.<KettleLoggingEvent>emptyList();
+    }
+    int[] lineNrs;
+    lock.readLock().lock();
+    try {
+      LogChannelLineIndex index = channelLines.get( parentLogChannelId );
+      if ( index == null ) {
+        return Collections.<KettleLoggingEvent>emptyList();
+      }
+      lineNrs = index.getLines( from, to, 0 );
+    } finally {
+      lock.readLock().unlock();
+    }
+
+    // Lines removed from the buffer can still be in the index, skip those
+    //
+    List<KettleLoggingEvent> events = new ArrayList<>( tailLines > 0 ? Math.min( tailLines, lineNrs.length )
+      : lineNrs.length );
+    if ( tailLines > 0 ) {
+      for ( int i = lineNrs.length - 1; i >= 0 && events.size() < tailLines; i-- ) {
+        BufferLine line = buffer.get( lineNrs[ i ] );
+        if ( line != null ) {
+          events.add( line.getEvent() );
+        }
+      }
+      Collections.reverse( events );
+    } else {
+      for ( int lineNr : lineNrs ) {
+        BufferLine line = buffer.get( lineNr );
+        if ( line != null ) {
+          events.add( line.getEvent() );
+        }
+      }
+    }
+    return events;
+  }
+
   public StringBuffer getBuffer( String parentLogChannelId, boolean includeGeneral, int startLineNr, int endLineNr ) {
     return getBuffer( parentLogChannelId, includeGeneral, startLineNr, endLineNr, 0 );
   }
@@ -211,13 +277,75 @@ public class LoggingBuffer {
   public void doAppend( KettleLoggingEvent event ) {
     if ( event.getMessage() instanceof LogMessage ) {
       BufferLine bufferLine = new BufferLine( event );
-      buffer.put( bufferLine.getNr(), bufferLine );
-      while ( bufferSize > 0 && buffer.size() > bufferSize ) {
-        buffer.remove( buffer.firstKey() );
+      lock.writeLock().lock();
+      try {
+        buffer.put( bufferLine.getNr(), bufferLine );
+        indexLine( bufferLine );
+        while ( bufferSize > 0 && buffer.size() > bufferSize ) {
+          buffer.remove( buffer.firstKey() );
+          if ( ++linesDropped >= bufferSize ) {
+            pruneChannelLines();
+          }
+        }
+      } finally {
+        lock.writeLock().unlock();
       }
     }
   }
 
+  /**
+   * Adds the line number to the index of the channel that logged it and to the indexes of all the parents of that
+   * channel. Must be called with the write lock held.
+   */
+  private void indexLine( BufferLine bufferLine ) {
+    String logChannelId = getLogChId( bufferLine );
+    if ( logChannelId == null ) {
+      return;
+    }
+    String[] ancestry = channelAncestry.get( logChannelId );
+    if ( ancestry == null ) {
+      ancestry = getAncestry( logChannelId );
+      if ( loggingRegistry.getLoggingObject( logChannelId ) != null ) {
+        // Only a registered channel has a known parent chain, which doesn't change afterwards
+        channelAncestry.put( logChannelId, ancestry );
+      }
+    }
+    for ( String id : ancestry ) {
+      channelLines.computeIfAbsent( id, key -> new LogChannelLineIndex( bufferSize ) ).add( bufferLine.getNr() );
+    }
+  }
+
+  private String[] getAncestry( String logChannelId ) {
+    List<String> ancestry = new ArrayList<>();
+    for ( int depth = 0; logChannelId != null && depth < MAX_CHANNEL_DEPTH; depth++ ) {
+      ancestry.add( logChannelId );
+      LoggingObjectInterface loggingObject = loggingRegistry.getLoggingObject( logChannelId );
+      LoggingObjectInterface parent = loggingObject == null ? null : loggingObject.getParent();
+      logChannelId = parent == null ? null : parent.getLogChannelId();
+    }
+    return ancestry.toArray( new String[ ancestry.size() ] );
+  }
+
+  /**
+   * Drops the line numbers no longer in the buffer from the channel line indexes, as well as the empty indexes and the
+   * cached ancestry of channels that are no longer registered. Must be called with the write lock held.
+   */
+  private void pruneChannelLines() {
+    linesDropped = 0;
+    channelAncestry.keySet().removeIf( id -> loggingRegistry.getLoggingObject( id ) == null );
+    int firstLineNr;
+    try {
+      firstLineNr = buffer.firstKey();
+    } catch ( NoSuchElementException e ) {
+      channelLines.clear();
+      return;
+    }
+    channelLines.entrySet().removeIf( entry -> {
+      entry.getValue().removeBefore( firstLineNr );
+      return entry.getValue().size() == 0 && loggingRegistry.getLoggingObject( entry.getKey() ) == null;
+    } );
+  }
+
   public void setName( String name ) {
     this.name = name;
   }
@@ -239,7 +367,15 @@ public class LoggingBuffer {
   }
 
   public void clear() {
-    buffer.clear();
+    lock.writeLock().lock();
+    try {
+      buffer.clear();
+      channelLines.clear();
+      channelAncestry.clear();
+      linesDropped = 0;
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   /**
@@ -269,8 +405,16 @@ public class LoggingBuffer {
    * @param id the id of the logging channel to remove
    */
   public void removeChannelFromBuffer( String id ) {
-    buffer.values().stream().filter( line -> id.equals( getLogChId( line ) ) ).forEach( line -> buffer.remove( line.getNr() ) );
-    tailMap.remove( id );
+    lock.writeLock().lock();
+    try {
+      buffer.values().stream().filter( line -> id.equals( getLogChId( line ) ) )
+        .forEach( line -> buffer.remove( line.getNr() ) );
+      tailMap.remove( id );
+      channelLines.remove( id );
+      channelAncestry.remove( id );
+    } finally {
+      lock.writeLock().unlock();
+    }
 
 /*    for ( BufferLine line : buffer.values() ) {
       if ( id.equals( getLogChId( line ) ) ) {
@@ -340,7 +484,14 @@ public class LoggingBuffer {
   }
 
   public void removeBufferLinesBefore( long minTimeBoundary ) {
-    buffer.values().stream().filter( v -> v.getEvent().timeStamp < minTimeBoundary ).forEach( v -> buffer.remove( v.getNr() ) );
+    lock.writeLock().lock();
+    try {
+      buffer.values().stream().filter( v -> v.getEvent().timeStamp < minTimeBoundary )
+        .forEach( v -> buffer.remove( v.getNr() ) );
+      pruneChannelLines();
+    } finally {
+      lock.writeLock().unlock();
+    }
   }
 
   public void addLogggingEvent( KettleLoggingEvent loggingEvent ) {
@@ -125,6 +125,44 @@ public class Metrics implements MetricsInterface {
   public static Metrics METRIC_STEP_INIT_STOP = new Metrics(
     MetricsSnapshotType.STOP, "METRIC_STEP_INIT", "Initialize a step" );
 
+  // Step caches
+  //
+  public static Metrics METRIC_STEP_CACHE_HITS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_CACHE_HITS", "Lookups found in the step cache" );
+  public static Metrics METRIC_STEP_CACHE_MISSES = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_CACHE_MISSES", "Lookups not found in the step cache" );
+  public static Metrics METRIC_STEP_CACHE_EVICTIONS = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_STEP_CACHE_EVICTIONS", "Entries evicted from the step cache" );
+
+  // Step remote calls
+  //
+  public static Metrics METRIC_STEP_CALLS_MAX_IN_FLIGHT = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_CALLS_MAX_IN_FLIGHT", "Most remote calls of the step in flight" );
+  public static Metrics METRIC_STEP_CALL_LATENCY_P50 = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_CALL_LATENCY_P50", "Median remote call latency (ms)" );
+  public static Metrics METRIC_STEP_CALL_LATENCY_P99 = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_CALL_LATENCY_P99", "99th percentile remote call latency (ms)" );
+  public static Metrics METRIC_STEP_CALLS_POOL_PENDING = new Metrics(
+    MetricsSnapshotType.MAX, "METRIC_STEP_CALLS_POOL_PENDING", "Most calls waiting for a pooled connection" );
+
+  // Remote steps (clustering)
+  //
+  public static Metrics METRIC_REMOTE_STEP_ROWS_SENT = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_ROWS_SENT", "Rows sent to a remote step" );
+  public static Metrics METRIC_REMOTE_STEP_RAW_BYTES_SENT = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_RAW_BYTES_SENT", "Row bytes sent to a remote step, uncompressed" );
+  public static Metrics METRIC_REMOTE_STEP_WIRE_BYTES_SENT = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_WIRE_BYTES_SENT", "Bytes sent over the wire to a remote step" );
+  public static Metrics METRIC_REMOTE_STEP_ENCODE_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_ENCODE_TIME", "Compressing and sending blocks to a remote step (ms)" );
+  public static Metrics METRIC_REMOTE_STEP_ROWS_RECEIVED = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_ROWS_RECEIVED", "Rows received from a remote step" );
+  public static Metrics METRIC_REMOTE_STEP_WIRE_BYTES_RECEIVED = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_WIRE_BYTES_RECEIVED",
+    "Bytes received over the wire from a remote step" );
+  public static Metrics METRIC_REMOTE_STEP_DECODE_TIME = new Metrics(
+    MetricsSnapshotType.SUM, "METRIC_REMOTE_STEP_DECODE_TIME", "Reading and decoding blocks from a remote step (ms)" );
+
   // Logging back-end
   //
   public static Metrics METRIC_CENTRAL_LOG_STORE_TIMEOUT_CLEAN_TIME = new Metrics(
@@ -0,0 +1,101 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of latencies, to report percentiles without keeping every value. Values are counted in
+ * buckets of which the width grows with the value: there are 8 buckets for every power of two, so a percentile is
+ * reported with a relative error of at most 12.5%. Values are not interpreted, any unit can be used as long as the
+ * caller is consistent.
+ *
+ * @since 11.0
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private final AtomicLongArray counts = new AtomicLongArray( 64 << SUB_BUCKET_BITS );
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong maximum = new AtomicLong();
+
+  /**
+   * @param value the latency to count, negative values are counted as 0
+   */
+  public void record( long value ) {
+    long latency = Math.max( 0L, value );
+    counts.incrementAndGet( indexOf( latency ) );
+    count.incrementAndGet();
+    maximum.accumulateAndGet( latency, Math::max );
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMaximum() {
+    return maximum.get();
+  }
+
+  /**
+   * @param percentile the percentile between 0 and 100, for example 99.9
+   * @return the upper bound of the bucket that holds the given percentile, 0 if nothing was recorded
+   */
+  public long getValueAtPercentile( double percentile ) {
+    long total = count.get();
+    if ( total == 0 ) {
+      return 0L;
+    }
+    long rank = (long) Math.ceil( Math.min( 100.0, Math.max( 0.0, percentile ) ) / 100.0 * total );
+    rank = Math.max( 1L, rank );
+    long seen = 0;
+    for ( int i = 0; i < counts.length(); i++ ) {
+      seen += counts.get( i );
+      if ( seen >= rank ) {
+        return Math.min( lowerBoundOf( i + 1 ) - 1, getMaximum() );
+      }
+    }
+    return getMaximum();
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + getCount() + ", p50=" + getValueAtPercentile( 50 ) + ", p95=" + getValueAtPercentile( 95 )
+      + ", p99=" + getValueAtPercentile( 99 ) + ", max=" + getMaximum();
+  }
+
+  static int indexOf( long value ) {
+    if ( value < SUB_BUCKETS ) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros( value );
+    int subBucket = (int) ( ( value >>> ( exponent - SUB_BUCKET_BITS ) ) & ( SUB_BUCKETS - 1 ) );
+    return ( ( exponent - SUB_BUCKET_BITS + 1 ) << SUB_BUCKET_BITS ) + subBucket;
+  }
+
+  static long lowerBoundOf( int index ) {
+    if ( index < SUB_BUCKETS ) {
+      return index;
+    }
+    int exponent = ( index >>> SUB_BUCKET_BITS ) + SUB_BUCKET_BITS - 1;
+    if ( exponent > 62 ) {
+      return Long.MAX_VALUE;
+    }
+    long subBucket = index & ( SUB_BUCKETS - 1 );
+    return ( SUB_BUCKETS + subBucket ) << ( exponent - SUB_BUCKET_BITS );
+  }
+}
@@ -0,0 +1,565 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Date;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * A spill codec that writes the rows in blocks of up to {@link #BLOCK_ROWS} rows. Within a block the values are
+ * stored column by column, each column starts with a bitmap of the null values followed by the other values:<br>
+ * <ul>
+ * <li>String: the number of leading characters shared with the previous value, followed by the rest</li>
+ * <li>Integer, Date: the difference with the previous value as a variable length number</li>
+ * <li>Number: the 8 bytes of the double</li>
+ * <li>Boolean: one byte</li>
+ * <li>BigNumber: the scale and the bytes of the unscaled value</li>
+ * <li>Binary: the length followed by the bytes</li>
+ * </ul>
+ * Other data types and values that aren't in normal storage are written with
+ * {@link ValueMetaInterface#writeData(DataOutputStream, Object)}.<br>
+ * <br>
+ * A block is written as the number of rows, the length of the encoded block and the number of bytes that follow,
+ * which is less than the length if the block is compressed with LZ4. A block of 0 rows ends the file.<br>
+ * <br>
+ * The writer and the reader reuse their block buffers, only the rows that are read are new.
+ *
+ * @since 11.0
+ */
+public class BlockRowSpillCodec implements RowSpillCodec {
+
+  /** The maximum number of rows in a block */
+  public static final int BLOCK_ROWS = 4096;
+
+  private static final int KIND_OTHER = 0;
+  private static final int KIND_STRING = 1;
+  private static final int KIND_INTEGER = 2;
+  private static final int KIND_NUMBER = 3;
+  private static final int KIND_DATE = 4;
+  private static final int KIND_BOOLEAN = 5;
+  private static final int KIND_BIGNUMBER = 6;
+  private static final int KIND_BINARY = 7;
+
+  private final String code;
+  private final boolean compress;
+
+  /**
+   * @param code
+   *          the code of the codec
+   * @param compress
+   *          true to compress the blocks with LZ4
+   */
+  public BlockRowSpillCodec( String code, boolean compress ) {
+    this.code = code;
+    this.compress = compress;
+  }
+
+  @Override
+  public String getCode() {
+    return code;
+  }
+
+  @Override
+  public RowSpillWriter createWriter( RowMetaInterface rowMeta, OutputStream outputStream ) {
+    return new BlockWriter( rowMeta, outputStream, compress );
+  }
+
+  @Override
+  public RowSpillReader createReader( RowMetaInterface rowMeta, InputStream inputStream ) {
+    return new BlockReader( rowMeta, inputStream );
+  }
+
+  private static int[] getKinds( ValueMetaInterface[] valueMetas ) {
+    int[] kinds = new int[ valueMetas.length ];
+    for ( int i = 0; i < valueMetas.length; i++ ) {
+      ValueMetaInterface valueMeta = valueMetas[ i ];
+      if ( valueMeta.getStorageType() != ValueMetaInterface.STORAGE_TYPE_NORMAL ) {
+        kinds[ i ] = KIND_OTHER;
+        continue;
+      }
+      switch ( valueMeta.getType() ) {
+        case ValueMetaInterface.TYPE_STRING:
+          kinds[ i ] = KIND_STRING;
+          break;
+        case ValueMetaInterface.TYPE_INTEGER:
+          kinds[ i ] = KIND_INTEGER;
+          break;
+        case ValueMetaInterface.TYPE_NUMBER:
+          kinds[ i ] = KIND_NUMBER;
+          break;
+        case ValueMetaInterface.TYPE_DATE:
+          kinds[ i ] = KIND_DATE;
+          break;
+        case ValueMetaInterface.TYPE_BOOLEAN:
+          kinds[ i ] = KIND_BOOLEAN;
+          break;
+        case ValueMetaInterface.TYPE_BIGNUMBER:
+          kinds[ i ] = KIND_BIGNUMBER;
+          break;
+        case ValueMetaInterface.TYPE_BINARY:
+          kinds[ i ] = KIND_BINARY;
+          break;
+        default:
+          kinds[ i ] = KIND_OTHER;
+          break;
+      }
+    }
+    return kinds;
+  }
+
+  private static ValueMetaInterface[] getValueMetas( RowMetaInterface rowMeta ) {
+    return rowMeta.getValueMetaList().toArray( new ValueMetaInterface[ 0 ] );
+  }
+
+  /**
+   * A growing byte buffer to encode a block in.
+   */
+  private static final class BlockOutput extends OutputStream {
+    private byte[] buf = new byte[ 64 * 1024 ];
+    private int size;
+
+    private void ensure( int extra ) {
+      if ( size + extra > buf.length ) {
+        buf = Arrays.copyOf( buf, Math.max( buf.length * 2, size + extra ) );
+      }
+    }
+
+    @Override
+    public void write( int b ) {
+      ensure( 1 );
+      buf[ size++ ] = (byte) b;
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len ) {
+      ensure( len );
+      System.arraycopy( b, off, buf, size, len );
+      size += len;
+    }
+
+    void writeVarLong( long value ) {
+      ensure( 10 );
+      while ( ( value & ~0x7FL ) != 0 ) {
+        buf[ size++ ] = (byte) ( ( value & 0x7F ) | 0x80 );
+        value >>>= 7;
+      }
+      buf[ size++ ] = (byte) value;
+    }
+
+    void writeZigZag( long value ) {
+      writeVarLong( ( value << 1 ) ^ ( value >> 63 ) );
+    }
+
+    void writeLong( long value ) {
+      ensure( 8 );
+      for ( int i = 0; i < 8; i++ ) {
+        buf[ size++ ] = (byte) ( value >>> ( i * 8 ) );
+      }
+    }
+  }
+
+  /**
+   * Reads the values of a decoded block.
+   */
+  private static final class BlockInput extends InputStream {
+    private byte[] buf = new byte[ 64 * 1024 ];
+    private int pos;
+    private int limit;
+
+    @Override
+    public int read() {
+      return pos < limit ? buf[ pos++ ] & 0xFF : -1;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) {
+      if ( pos >= limit ) {
+        return -1;
+      }
+      int n = Math.min( len, limit - pos );
+      System.arraycopy( buf, pos, b, off, n );
+      pos += n;
+      return n;
+    }
+
+    byte readByte() throws EOFException {
+      if ( pos >= limit ) {
+        throw new EOFException( "Unexpected end of block" );
+      }
+      return buf[ pos++ ];
+    }
+
+    long readVarLong() throws EOFException {
+      long value = 0;
+      for ( int shift = 0; shift < 64; shift += 7 ) {
+        byte b = readByte();
+        value |= (long) ( b & 0x7F ) << shift;
+        if ( b >= 0 ) {
+          return value;
+        }
+      }
+      throw new EOFException( "Corrupt variable length number in block" );
+    }
+
+    long readZigZag() throws EOFException {
+      long value = readVarLong();
+      return ( value >>> 1 ) ^ -( value & 1 );
+    }
+
+    long readLong() throws EOFException {
+      if ( pos + 8 > limit ) {
+        throw new EOFException( "Unexpected end of block" );
+      }
+      long value = 0;
+      for ( int i = 0; i < 8; i++ ) {
+        value |= ( buf[ pos++ ] & 0xFFL ) << ( i * 8 );
+      }
+      return value;
+    }
+
+    byte[] readBytes( int length ) throws EOFException {
+      if ( length < 0 || pos + length > limit ) {
+        throw new EOFException( "Unexpected end of block" );
+      }
+      byte[] bytes = Arrays.copyOfRange( buf, pos, pos + length );
+      pos += length;
+      return bytes;
+    }
+  }
+
+  private static final class BlockWriter implements RowSpillWriter {
+    private final DataOutputStream out;
+    private final ValueMetaInterface[] valueMetas;
+    private final int[] kinds;
+    private final LZ4BlockCompressor compressor;
+
+    private final Object[][] rows = new Object[ BLOCK_ROWS ][];
+    private int nrRows;
+
+    private final BlockOutput block = new BlockOutput();
+    private final DataOutputStream blockData = new DataOutputStream( block );
+    private byte[] compressed = new byte[ 0 ];
+
+    BlockWriter( RowMetaInterface rowMeta, OutputStream outputStream, boolean compress ) {
+      this.out = new DataOutputStream( new BufferedOutputStream( outputStream, 64 * 1024 ) );
+      this.valueMetas = getValueMetas( rowMeta );
+      this.kinds = getKinds( valueMetas );
+      this.compressor = compress ? new LZ4BlockCompressor() : null;
+    }
+
+    @Override
+    public void writeRow( Object[] row ) throws KettleFileException {
+      rows[ nrRows++ ] = row;
+      if ( nrRows == BLOCK_ROWS ) {
+        writeBlock();
+      }
+    }
+
+    private void writeBlock() throws KettleFileException {
+      try {
+        block.size = 0;
+        for ( int c = 0; c < valueMetas.length; c++ ) {
+          writeColumn( c );
+        }
+
+        int length = block.size;
+        out.writeInt( nrRows );
+        out.writeInt( length );
+        if ( compressor != null ) {
+          int maxLength = LZ4BlockCompressor.maxCompressedLength( length );
+          if ( compressed.length < maxLength ) {
+            compressed = new byte[ maxLength ];
+          }
+          int compressedLength = compressor.compress( block.buf, length, compressed );
+          if ( compressedLength < length ) {
+            out.writeInt( compressedLength );
+            out.write( compressed, 0, compressedLength );
+            return;
+          }
+        }
+        out.writeInt( length );
+        out.write( block.buf, 0, length );
+      } catch ( IOException e ) {
+        throw new KettleFileException( "Unable to write a block of rows to the spill file", e );
+      } catch ( ClassCastException e ) {
+        throw new KettleFileException( "A value doesn't have the data type of its field", e );
+      } finally {
+        Arrays.fill( rows, 0, nrRows, null );
+        nrRows = 0;
+      }
+    }
+
+    private void writeColumn( int c ) throws IOException, KettleFileException {
+      int kind = kinds[ c ];
+      if ( kind == KIND_OTHER ) {
+        ValueMetaInterface valueMeta = valueMetas[ c ];
+        for ( int r = 0; r < nrRows; r++ ) {
+          valueMeta.writeData( blockData, rows[ r ][ c ] );
+        }
+        return;
+      }
+
+      // The null bitmap
+      //
+      for ( int r = 0; r < nrRows; r += 8 ) {
+        int bits = 0;
+        for ( int i = 0; i < 8 && r + i < nrRows; i++ ) {
+          if ( rows[ r + i ][ c ] == null ) {
+            bits |= 1 << i;
+          }
+        }
+        block.write( bits );
+      }
+
+      String previousString = "";
+      long previous = 0L;
+      for ( int r = 0; r < nrRows; r++ ) {
+        Object value = rows[ r ][ c ];
+        if ( value == null ) {
+          continue;
+        }
+        switch ( kind ) {
+          case KIND_STRING:
+            String string = (String) value;
+            int max = Math.min( string.length(), previousString.length() );
+            int prefix = 0;
+            while ( prefix < max && string.charAt( prefix ) == previousString.charAt( prefix ) ) {
+              prefix++;
+            }
+            block.writeVarLong( prefix );
+            block.writeVarLong( string.length() - prefix );
+            for ( int i = prefix; i < string.length(); i++ ) {
+              block.writeVarLong( string.charAt( i ) );
+            }
+            previousString = string;
+            break;
+          case KIND_INTEGER:
+            long integer = (Long) value;
+            block.writeZigZag( integer - previous );
+            previous = integer;
+            break;
+          case KIND_DATE:
+            long time = ( (Date) value ).getTime();
+            block.writeZigZag( time - previous );
+            previous = time;
+            break;
+          case KIND_NUMBER:
+            block.writeLong( Double.doubleToRawLongBits( (Double) value ) );
+            break;
+          case KIND_BOOLEAN:
+            block.write( ( (Boolean) value ) ? 1 : 0 );
+            break;
+          case KIND_BIGNUMBER:
+            BigDecimal bigNumber = (BigDecimal) value;
+            byte[] unscaled = bigNumber.unscaledValue().toByteArray();
+            block.writeZigZag( bigNumber.scale() );
+            block.writeVarLong( unscaled.length );
+            block.write( unscaled, 0, unscaled.length );
+            break;
+          default:
+            byte[] binary = (byte[]) value;
+            block.writeVarLong( binary.length );
+            block.write( binary, 0, binary.length );
+            break;
+        }
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        if ( nrRows > 0 ) {
+          writeBlock();
+        }
+        out.writeInt( 0 );
+      } catch ( KettleFileException e ) {
+        throw new IOException( e );
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+  private static final class BlockReader implements RowSpillReader {
+    private final DataInputStream in;
+    private final ValueMetaInterface[] valueMetas;
+    private final int[] kinds;
+
+    private final Object[][] rows = new Object[ BLOCK_ROWS ][];
+    private int nrRows;
+    private int position;
+    private boolean finished;
+
+    private final BlockInput block = new BlockInput();
+    private final DataInputStream blockData = new DataInputStream( block );
+    private byte[] compressed = new byte[ 0 ];
+    private final boolean[] nulls = new boolean[ BLOCK_ROWS ];
+    private char[] chars = new char[ 256 ];
+
+    BlockReader( RowMetaInterface rowMeta, InputStream inputStream ) {
+      this.in = new DataInputStream( new BufferedInputStream( inputStream, 64 * 1024 ) );
+      this.valueMetas = getValueMetas( rowMeta );
+      this.kinds = getKinds( valueMetas );
+    }
+
+    @Override
+    public Object[] readRow() throws KettleFileException {
+      if ( position == nrRows ) {
+        if ( finished || !readBlock() ) {
+          finished = true;
+          return null;
+        }
+      }
+      Object[] row = rows[ position ];
+      rows[ position++ ] = null;
+      return row;
+    }
+
+    private boolean readBlock() throws KettleFileException {
+      try {
+        int blockRows;
+        try {
+          blockRows = in.readInt();
+        } catch ( EOFException e ) {
+          return false;
+        }
+        if ( blockRows <= 0 ) {
+          return false;
+        }
+        if ( blockRows > BLOCK_ROWS ) {
+          throw new KettleFileException( "Corrupt spill file: a block of " + blockRows + " rows" );
+        }
+        int length = in.readInt();
+        int storedLength = in.readInt();
+        if ( block.buf.length < length ) {
+          block.buf = new byte[ Math.max( length, block.buf.length * 2 ) ];
+        }
+        if ( storedLength == length ) {
+          in.readFully( block.buf, 0, length );
+        } else {
+          if ( compressed.length < storedLength ) {
+            compressed = new byte[ Math.max( storedLength, compressed.length * 2 ) ];
+          }
+          in.readFully( compressed, 0, storedLength );
+          LZ4BlockCompressor.decompress( compressed, storedLength, block.buf, length );
+        }
+        block.pos = 0;
+        block.limit = length;
+
+        for ( int r = 0; r < blockRows; r++ ) {
+          rows[ r ] = new Object[ valueMetas.length ];
+        }
+        nrRows = blockRows;
+        position = 0;
+        for ( int c = 0; c < valueMetas.length; c++ ) {
+          readColumn( c );
+        }
+        return true;
+      } catch ( IOException e ) {
+        throw new KettleFileException( "Unable to read a block of rows from the spill file", e );
+      }
+    }
+
+    private void readColumn( int c ) throws IOException {
+      int kind = kinds[ c ];
+      if ( kind == KIND_OTHER ) {
+        ValueMetaInterface valueMeta = valueMetas[ c ];
+        for ( int r = 0; r < nrRows; r++ ) {
+          try {
+            rows[ r ][ c ] = valueMeta.readData( blockData );
+          } catch ( KettleFileException | SocketTimeoutException e ) {
+            throw new IOException( e );
+          }
+        }
+        return;
+      }
+
+      // Mark the null values with the bitmap, the others are read next
+      //
+      for ( int r = 0; r < nrRows; r += 8 ) {
+        int bits = block.readByte();
+        for ( int i = 0; i < 8 && r + i < nrRows; i++ ) {
+          nulls[ r + i ] = ( bits & ( 1 << i ) ) != 0;
+        }
+      }
+
+      String previousString = "";
+      long previous = 0L;
+      for ( int r = 0; r < nrRows; r++ ) {
+        if ( nulls[ r ] ) {
+          continue;
+        }
+        Object value;
+        switch ( kind ) {
+          case KIND_STRING:
+            int prefix = (int) block.readVarLong();
+            int length = prefix + (int) block.readVarLong();
+            if ( prefix > previousString.length() || length < prefix ) {
+              throw new IOException( "Corrupt string in spill file block" );
+            }
+            if ( chars.length < length ) {
+              chars = new char[ Math.max( length, chars.length * 2 ) ];
+            }
+            previousString.getChars( 0, prefix, chars, 0 );
+            for ( int i = prefix; i < length; i++ ) {
+              chars[ i ] = (char) block.readVarLong();
+            }
+            previousString = new String( chars, 0, length );
+            value = previousString;
+            break;
+          case KIND_INTEGER:
+            previous += block.readZigZag();
+            value = previous;
+            break;
+          case KIND_DATE:
+            previous += block.readZigZag();
+            value = new Date( previous );
+            break;
+          case KIND_NUMBER:
+            value = Double.longBitsToDouble( block.readLong() );
+            break;
+          case KIND_BOOLEAN:
+            value = block.readByte() != 0;
+            break;
+          case KIND_BIGNUMBER:
+            int scale = (int) block.readZigZag();
+            byte[] unscaled = block.readBytes( (int) block.readVarLong() );
+            value = new BigDecimal( new BigInteger( unscaled ), scale );
+            break;
+          default:
+            value = block.readBytes( (int) block.readVarLong() );
+            break;
+        }
+        rows[ r ][ c ] = value;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * A compressor for the LZ4 block format: a sequence of literal runs and back references into the last 64KB. It trades
+ * compression ratio for speed, which is what we want for temporary files that are written and read only once, and for
+ * blocks of rows sent between remote steps.<br>
+ * <br>
+ * An instance keeps its hash table between calls and isn't thread safe.
+ */
+public class LZ4BlockCompressor {
+
+  private static final int MIN_MATCH = 4;
+  private static final int LAST_LITERALS = 5;
+  private static final int MF_LIMIT = 12;
+  private static final int MAX_OFFSET = 65535;
+  private static final int HASH_LOG = 14;
+
+  private final int[] hashTable = new int[ 1 << HASH_LOG ];
+
+  /**
+   * @param length
+   *          the number of bytes to compress
+   * @return the size of the buffer needed to compress them
+   */
+  public static int maxCompressedLength( int length ) {
+    return length + length / 255 + 16;
+  }
+
+  private static int readInt( byte[] buf, int i ) {
+    return ( buf[ i ] & 0xFF ) | ( buf[ i + 1 ] & 0xFF ) << 8 | ( buf[ i + 2 ] & 0xFF ) << 16 | buf[ i + 3 ] << 24;
+  }
+
+  private static int hash( int value ) {
+    return ( value * -1640531535 ) >>> ( 32 - HASH_LOG );
+  }
+
+  /**
+   * Compress a buffer.
+   *
+   * @param src
+   *          the bytes to compress
+   * @param srcLength
+   *          the number of bytes to compress
+   * @param dst
+   *          the buffer for the compressed bytes, at least {@link #maxCompressedLength(int)} long
+   * @return the number of compressed bytes
+   */
+  public int compress( byte[] src, int srcLength, byte[] dst ) {
+    int anchor = 0;
+    int op = 0;
+
+    if ( srcLength > MF_LIMIT ) {
+      Arrays.fill( hashTable, -1 );
+      int limit = srcLength - MF_LIMIT;
+      int matchLimit = srcLength - LAST_LITERALS;
+      int ip = 0;
+
+      while ( ip < limit ) {
+        int sequence = readInt( src, ip );
+        int h = hash( sequence );
+        int ref = hashTable[ h ];
+        hashTable[ h ] = ip;
+        if ( ref < 0 || ip - ref > MAX_OFFSET || readInt( src, ref ) != sequence ) {
+          ip++;
+          continue;
+        }
+
+        // Extend the match backwards over the pending literals and forwards
+        //
+        while ( ip > anchor && ref > 0 && src[ ip - 1 ] == src[ ref - 1 ] ) {
+          ip--;
+          ref--;
+        }
+        int matchLength = MIN_MATCH;
+        while ( ip + matchLength < matchLimit && src[ ip + matchLength ] == src[ ref + matchLength ] ) {
+          matchLength++;
+        }
+
+        op = writeSequence( src, anchor, ip - anchor, ip - ref, matchLength, dst, op );
+        ip += matchLength;
+        anchor = ip;
+        if ( ip < limit ) {
+          hashTable[ hash( readInt( src, ip - 2 ) ) ] = ip - 2;
+        }
+      }
+    }
+
+    // The last bytes are always literals
+    //
+    int literals = srcLength - anchor;
+    dst[ op++ ] = (byte) ( Math.min( literals, 15 ) << 4 );
+    op = writeLength( literals, dst, op );
+    System.arraycopy( src, anchor, dst, op, literals );
+    return op + literals;
+  }
+
+  private static int writeSequence( byte[] src, int start, int literals, int offset, int matchLength, byte[] dst,
+                                    int op ) {
+    int extraMatch = matchLength - MIN_MATCH;
+    dst[ op++ ] = (byte) ( Math.min( literals, 15 ) << 4 | Math.min( extraMatch, 15 ) );
+    op = writeLength( literals, dst, op );
+    System.arraycopy( src, start, dst, op, literals );
+    op += literals;
+    dst[ op++ ] = (byte) offset;
+    dst[ op++ ] = (byte) ( offset >>> 8 );
+    return writeLength( extraMatch, dst, op );
+  }
+
+  /**
+   * Write the rest of a length that doesn't fit in the 4 bits of the token.
+   */
+  private static int writeLength( int length, byte[] dst, int op ) {
+    if ( length >= 15 ) {
+      int rest = length - 15;
+      while ( rest >= 255 ) {
+        dst[ op++ ] = (byte) 255;
+        rest -= 255;
+      }
+      dst[ op++ ] = (byte) rest;
+    }
+    return op;
+  }
+
+  /**
+   * Decompress a buffer.
+   *
+   * @param src
+   *          the compressed bytes
+   * @param srcLength
+   *          the number of compressed bytes
+   * @param dst
+   *          the buffer for the decompressed bytes
+   * @param dstLength
+   *          the number of bytes the data decompresses to
+   * @throws IOException
+   *           if the compressed data is corrupt
+   */
+  public static void decompress( byte[] src, int srcLength, byte[] dst, int dstLength ) throws IOException {
+    try {
+      int ip = 0;
+      int op = 0;
+      while ( true ) {
+        int token = src[ ip++ ] & 0xFF;
+
+        int literals = token >>> 4;
+        if ( literals == 15 ) {
+          int b;
+          do {
+            b = src[ ip++ ] & 0xFF;
+            literals += b;
+          } while ( b == 255 );
+        }
+        if ( ip + literals > srcLength ) {
+          throw new IOException( "Corrupt LZ4 block at offset " + ip );
+        }
+        System.arraycopy( src, ip, dst, op, literals );
+        ip += literals;
+        op += literals;
+        if ( ip >= srcLength ) {
+          break;
+        }
+
+        int offset = ( src[ ip ] & 0xFF ) | ( src[ ip + 1 ] & 0xFF ) << 8;
+        ip += 2;
+        int matchLength = token & 0x0F;
+        if ( matchLength == 15 ) {
+          int b;
+          do {
+            b = src[ ip++ ] & 0xFF;
+            matchLength += b;
+          } while ( b == 255 );
+        }
+        matchLength += MIN_MATCH;
+
+        int ref = op - offset;
+        if ( offset == 0 || ref < 0 || op + matchLength > dstLength ) {
+          throw new IOException( "Corrupt LZ4 block at offset " + ip );
+        }
+        if ( offset >= matchLength ) {
+          System.arraycopy( dst, ref, dst, op, matchLength );
+          op += matchLength;
+        } else {
+          // Overlapping copy, repeats the last offset bytes
+          for ( int i = 0; i < matchLength; i++ ) {
+            dst[ op++ ] = dst[ ref++ ];
+          }
+        }
+      }
+      if ( op != dstLength ) {
+        throw new IOException( "Corrupt LZ4 block: expected " + dstLength + " bytes but got " + op );
+      }
+    } catch ( IndexOutOfBoundsException e ) {
+      throw new IOException( "Corrupt LZ4 block", e );
+    }
+  }
+}
@@ -0,0 +1,716 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.exception.KettleValueException;
+
+/**
+ * Stores rows outside of the Java heap so that millions of rows don't cost the garbage collector anything. The rows
+ * are serialized with {@link ValueMetaInterface#writeData(DataOutputStream, Object)} into large pages: direct buffers
+ * up to the memory budget, pages mapped from a temporary file beyond it. The operating system then decides what part
+ * of that file stays in memory.<br>
+ * <br>
+ * A row is addressed with a long: the page number in the high and the offset in the low 32 bits. Rows are read back as
+ * new Object[] rows. Lookups by key are done through a {@link HashIndex} or a {@link SortedIndex}, these only hold
+ * arrays of primitives on the heap.<br>
+ * <br>
+ * Not thread safe. Call {@link #close()} to free the pages and remove the temporary file.
+ *
+ * @since 11.0
+ */
+public class OffHeapRowStore implements Closeable {
+
+  public static final int PAGE_SIZE = 4 * 1024 * 1024;
+
+  private static final int INITIAL_CAPACITY = 1024;
+  private static final float LOAD_FACTOR = 0.7f;
+
+  /**
+   * The number of rows that a sorted index sorts with their keys on the heap, before merging these chunks.
+   */
+  static final int SORT_CHUNK_SIZE = 64 * 1024;
+
+  /**
+   * Frees a direct or mapped buffer right away instead of when it is garbage collected. Null if the JVM doesn't allow
+   * that, the pages are then left to the garbage collector.
+   */
+  private static final BufferCleaner CLEANER = BufferCleaner.create();
+
+  private final RowMetaInterface rowMeta;
+  private final ValueMetaInterface[] valueMetas;
+  private final long memoryBudget;
+
+  private ByteBuffer[] pages = new ByteBuffer[ 16 ];
+  private int nrPages;
+  private ByteBuffer page;
+
+  private long directBytes;
+  private long mappedBytes;
+  private FileChannel channel;
+  private Path file;
+
+  private long[] addresses = new long[ INITIAL_CAPACITY ];
+  private int size;
+
+  private final RecordBuffer writeBuffer = new RecordBuffer();
+  private final DataOutputStream output = new DataOutputStream( writeBuffer );
+  private final RecordInputStream readBuffer = new RecordInputStream();
+  private final DataInputStream input = new DataInputStream( readBuffer );
+
+  /**
+   * @param rowMeta
+   *          the metadata of the rows to store
+   * @param memoryBudget
+   *          the number of bytes to allocate outside of the heap, pages beyond it are mapped from a temporary file
+   */
+  public OffHeapRowStore( RowMetaInterface rowMeta, long memoryBudget ) {
+    this.rowMeta = rowMeta;
+    this.valueMetas = rowMeta.getValueMetaList().toArray( new ValueMetaInterface[ 0 ] );
+    this.memoryBudget = memoryBudget;
+  }
+
+  /**
+   * @return the metadata of the stored rows
+   */
+  public RowMetaInterface getRowMeta() {
+    return rowMeta;
+  }
+
+  /**
+   * Store a row.
+   *
+   * @param row
+   *          the row, only the fields of the row metadata are stored
+   * @return the address of the row
+   */
+  public long addRow( Object[] row ) throws KettleValueException {
+    writeBuffer.reset();
+    try {
+      for ( int i = 0; i < valueMetas.length; i++ ) {
+        valueMetas[ i ].writeData( output, row[ i ] );
+      }
+    } catch ( KettleFileException e ) {
+      throw new KettleValueException( "Unable to serialize row " + size, e );
+    }
+    int length = writeBuffer.size();
+
+    if ( page == null || page.remaining() < length + 4 ) {
+      page = allocatePage( length + 4 );
+    }
+    long address = ( (long) ( nrPages - 1 ) << 32 ) | page.position();
+    page.putInt( length );
+    page.put( writeBuffer.getBuffer(), 0, length );
+
+    if ( size == addresses.length ) {
+      addresses = Arrays.copyOf( addresses, size + ( size >> 1 ) );
+    }
+    addresses[ size++ ] = address;
+    return address;
+  }
+
+  /**
+   * Read back a row.
+   *
+   * @param address
+   *          the address returned by {@link #addRow(Object[])}
+   * @return a new row
+   */
+  public Object[] getRow( long address ) throws KettleValueException {
+    ByteBuffer source = pages[ (int) ( address >>> 32 ) ];
+    int offset = (int) address;
+    int length = source.getInt( offset );
+    readBuffer.load( source, offset + 4, length );
+
+    Object[] row = RowDataUtil.allocateRowData( valueMetas.length );
+    readFields( address, row, valueMetas.length );
+    return row;
+  }
+
+  /**
+   * Read the key fields of a row, only decoding the fields up to the last key field.
+   */
+  private Object[] getKey( long address, int[] keyIndexes, Object[] fields ) throws KettleValueException {
+    ByteBuffer source = pages[ (int) ( address >>> 32 ) ];
+    int offset = (int) address;
+    int length = source.getInt( offset );
+    readBuffer.load( source, offset + 4, length );
+
+    readFields( address, fields, fields.length );
+    Object[] key = new Object[ keyIndexes.length ];
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      key[ i ] = fields[ keyIndexes[ i ] ];
+    }
+    return key;
+  }
+
+  private void readFields( long address, Object[] fields, int nrFields ) throws KettleValueException {
+    try {
+      for ( int i = 0; i < nrFields; i++ ) {
+        fields[ i ] = valueMetas[ i ].readData( input );
+      }
+    } catch ( KettleFileException | SocketTimeoutException e ) {
+      throw new KettleValueException( "Unable to read the row at address " + address, e );
+    }
+  }
+
+  /**
+   * @param rowNr
+   *          the number of the row in the order they were added
+   * @return the address of the row
+   */
+  public long getAddress( int rowNr ) {
+    return addresses[ rowNr ];
+  }
+
+  /**
+   * @return the number of stored rows
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the bytes allocated outside of the heap in direct buffers
+   */
+  public long getDirectBytes() {
+    return directBytes;
+  }
+
+  /**
+   * @return the bytes mapped from the temporary file once the memory budget was used
+   */
+  public long getMappedBytes() {
+    return mappedBytes;
+  }
+
+  private ByteBuffer allocatePage( int needed ) throws KettleValueException {
+    int pageSize = Math.max( PAGE_SIZE, needed );
+    ByteBuffer buffer;
+    if ( directBytes + pageSize <= memoryBudget ) {
+      buffer = ByteBuffer.allocateDirect( pageSize );
+      directBytes += pageSize;
+    } else {
+      try {
+        if ( channel == null ) {
+          file = Files.createTempFile( "kettle-offheap-", ".tmp" );
+          channel = FileChannel.open( file, StandardOpenOption.READ, StandardOpenOption.WRITE );
+        }
+        buffer = channel.map( FileChannel.MapMode.READ_WRITE, mappedBytes, pageSize );
+        mappedBytes += pageSize;
+      } catch ( IOException e ) {
+        throw new KettleValueException( "Unable to map a page of " + pageSize + " bytes beyond the memory budget", e );
+      }
+    }
+    if ( nrPages == pages.length ) {
+      pages = Arrays.copyOf( pages, nrPages * 2 );
+    }
+    pages[ nrPages++ ] = buffer;
+    return buffer;
+  }
+
+  /**
+   * Free the pages and remove the temporary file. The store and its indexes can't be used afterwards.
+   */
+  @Override
+  public void close() throws IOException {
+    ByteBuffer[] released = pages;
+    int nrReleased = nrPages;
+    pages = new ByteBuffer[ 0 ];
+    nrPages = 0;
+    page = null;
+    addresses = new long[ 0 ];
+    size = 0;
+    directBytes = 0;
+    mappedBytes = 0;
+    if ( CLEANER != null ) {
+      for ( int i = 0; i < nrReleased; i++ ) {
+        CLEANER.free( released[ i ] );
+      }
+    }
+    if ( channel != null ) {
+      try {
+        channel.close();
+      } finally {
+        channel = null;
+        Files.deleteIfExists( file );
+      }
+    }
+  }
+
+  /**
+   * Create a hash index on the stored rows, the rows that are already stored are added to it.
+   *
+   * @param keyIndexes
+   *          the indexes of the key fields in the stored rows
+   */
+  public HashIndex createHashIndex( int[] keyIndexes ) throws KettleValueException {
+    HashIndex index = new HashIndex( keyIndexes );
+    for ( int i = 0; i < size; i++ ) {
+      index.index( addresses[ i ], getRow( addresses[ i ] ) );
+    }
+    return index;
+  }
+
+  /**
+   * Create a sorted index on the rows that are stored right now. Rows added later are not in the index.
+   *
+   * @param keyIndexes
+   *          the indexes of the key fields in the stored rows
+   */
+  public SortedIndex createSortedIndex( int[] keyIndexes ) throws KettleValueException {
+    return new SortedIndex( keyIndexes );
+  }
+
+  private int compareKeyData( int[] keyIndexes, Object[] keyData1, Object[] keyData2 ) throws KettleValueException {
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      int cmp = valueMetas[ keyIndexes[ i ] ].compare( keyData1[ i ], keyData2[ i ] );
+      if ( cmp != 0 ) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  private int compareKeys( int[] keyIndexes, Object[] row, Object[] keyData ) throws KettleValueException {
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      int cmp = valueMetas[ keyIndexes[ i ] ].compare( row[ keyIndexes[ i ] ], keyData[ i ] );
+      if ( cmp != 0 ) {
+        return cmp;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * An open addressing hash index from the key fields to stored rows. Keys are equal and hashed like
+   * {@link RowMetaInterface#compare(Object[], Object[], int[])} and {@link ValueMetaInterface#hashCode(Object)} do,
+   * like the rows in a hash map of {@link org.pentaho.di.core.RowMetaAndData}.
+   */
+  public final class HashIndex {
+    private final int[] keyIndexes;
+    private final Object[] keyData;
+
+    /** The entry number + 1 of every slot, 0 for an empty slot */
+    private int[] slots = new int[ INITIAL_CAPACITY ];
+    private int threshold = (int) ( INITIAL_CAPACITY * LOAD_FACTOR );
+    private long[] entryAddresses = new long[ threshold ];
+    private int[] hashes = new int[ threshold ];
+    private int entries;
+
+    /** The row found by the last call to findSlot() */
+    private Object[] foundRow;
+
+    private HashIndex( int[] keyIndexes ) {
+      this.keyIndexes = keyIndexes;
+      this.keyData = new Object[ keyIndexes.length ];
+    }
+
+    /**
+     * @return the number of distinct keys
+     */
+    public int size() {
+      return entries;
+    }
+
+    /**
+     * Find the row with the given key.
+     *
+     * @param keyData
+     *          the values of the key fields, in the order of the key indexes and with the storage type of the stored
+     *          rows
+     * @return a new row or null if the key isn't found
+     */
+    public Object[] get( Object[] keyData ) throws KettleValueException {
+      int hash = 1;
+      for ( int i = 0; i < keyIndexes.length; i++ ) {
+        hash = 31 * hash + valueMetas[ keyIndexes[ i ] ].hashCode( keyData[ i ] );
+      }
+      findSlot( keyData, spread( hash ) );
+      return foundRow;
+    }
+
+    /**
+     * Store a row, it replaces the row with the same key. The replaced row stays in the store.
+     *
+     * @return the address of the row
+     */
+    public long put( Object[] row ) throws KettleValueException {
+      long address = addRow( row );
+      index( address, row );
+      return address;
+    }
+
+    /**
+     * Store a row unless a row with the same key is already stored.
+     *
+     * @return true if the row was stored, false if the key was already there
+     */
+    public boolean putIfAbsent( Object[] row ) throws KettleValueException {
+      int hash = hash( row );
+      int slot = findSlot( extractKey( row ), hash );
+      if ( slots[ slot ] != 0 ) {
+        return false;
+      }
+      insertAt( slot, addRow( row ), hash );
+      return true;
+    }
+
+    private void index( long address, Object[] row ) throws KettleValueException {
+      int hash = hash( row );
+      int slot = findSlot( extractKey( row ), hash );
+      if ( slots[ slot ] != 0 ) {
+        entryAddresses[ slots[ slot ] - 1 ] = address;
+      } else {
+        insertAt( slot, address, hash );
+      }
+    }
+
+    private Object[] extractKey( Object[] row ) {
+      for ( int i = 0; i < keyIndexes.length; i++ ) {
+        keyData[ i ] = row[ keyIndexes[ i ] ];
+      }
+      return keyData;
+    }
+
+    private int findSlot( Object[] key, int hash ) throws KettleValueException {
+      foundRow = null;
+      int mask = slots.length - 1;
+      int slot = hash & mask;
+      while ( slots[ slot ] != 0 ) {
+        int entry = slots[ slot ] - 1;
+        if ( hashes[ entry ] == hash ) {
+          Object[] row = getRow( entryAddresses[ entry ] );
+          if ( compareKeys( keyIndexes, row, key ) == 0 ) {
+            foundRow = row;
+            break;
+          }
+        }
+        slot = ( slot + 1 ) & mask;
+      }
+      return slot;
+    }
+
+    private void insertAt( int slot, long address, int hash ) {
+      if ( entries == entryAddresses.length ) {
+        entryAddresses = Arrays.copyOf( entryAddresses, entries + ( entries >> 1 ) );
+        hashes = Arrays.copyOf( hashes, entries + ( entries >> 1 ) );
+      }
+      entryAddresses[ entries ] = address;
+      hashes[ entries ] = hash;
+      slots[ slot ] = ++entries;
+      if ( entries > threshold ) {
+        resize();
+      }
+    }
+
+    private void resize() {
+      int capacity = slots.length * 2;
+      int[] newSlots = new int[ capacity ];
+      int mask = capacity - 1;
+      for ( int entry = 0; entry < entries; entry++ ) {
+        int slot = hashes[ entry ] & mask;
+        while ( newSlots[ slot ] != 0 ) {
+          slot = ( slot + 1 ) & mask;
+        }
+        newSlots[ slot ] = entry + 1;
+      }
+      slots = newSlots;
+      threshold = (int) ( capacity * LOAD_FACTOR );
+    }
+
+    private int hash( Object[] row ) throws KettleValueException {
+      int hash = 1;
+      for ( int i = 0; i < keyIndexes.length; i++ ) {
+        hash = 31 * hash + valueMetas[ keyIndexes[ i ] ].hashCode( row[ keyIndexes[ i ] ] );
+      }
+      return spread( hash );
+    }
+
+    private int spread( int h ) {
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      return h;
+    }
+  }
+
+  /**
+   * The stored rows ordered on key fields, to find a key or a range of keys with a binary search.
+   */
+  public final class SortedIndex {
+    private final int[] keyIndexes;
+    private final long[] sortedAddresses;
+
+    private SortedIndex( int[] keyIndexes ) throws KettleValueException {
+      this.keyIndexes = keyIndexes;
+      int nrFields = 0;
+      for ( int keyIndex : keyIndexes ) {
+        nrFields = Math.max( nrFields, keyIndex + 1 );
+      }
+      Object[] fields = new Object[ nrFields ];
+
+      // Sort the rows in chunks with the keys of a chunk on the heap, then merge the sorted chunks reading the next key
+      // of every chunk from the pages. Only the addresses of all rows are kept on the heap.
+      //
+      long[] chunks = new long[ size ];
+      Object[][] keys = new Object[ Math.min( size, SORT_CHUNK_SIZE ) ][];
+      int[] order = new int[ keys.length ];
+      int[] work = new int[ keys.length ];
+      for ( int start = 0; start < size; start += SORT_CHUNK_SIZE ) {
+        int length = Math.min( SORT_CHUNK_SIZE, size - start );
+        for ( int i = 0; i < length; i++ ) {
+          keys[ i ] = getKey( addresses[ start + i ], keyIndexes, fields );
+          order[ i ] = i;
+        }
+        sort( order, work, 0, length, keys );
+        for ( int i = 0; i < length; i++ ) {
+          chunks[ start + i ] = addresses[ start + order[ i ] ];
+        }
+      }
+      sortedAddresses = size > SORT_CHUNK_SIZE ? merge( chunks, fields ) : chunks;
+    }
+
+    /**
+     * A stable merge sort of the positions in a chunk on their keys.
+     */
+    private void sort( int[] order, int[] work, int from, int to, Object[][] keys ) throws KettleValueException {
+      if ( to - from < 2 ) {
+        return;
+      }
+      int middle = ( from + to ) >>> 1;
+      sort( order, work, from, middle, keys );
+      sort( order, work, middle, to, keys );
+      if ( compareKeyData( keyIndexes, keys[ order[ middle - 1 ] ], keys[ order[ middle ] ] ) <= 0 ) {
+        return;
+      }
+      System.arraycopy( order, from, work, from, to - from );
+      int left = from;
+      int right = middle;
+      for ( int i = from; i < to; i++ ) {
+        if ( right >= to
+          || left < middle && compareKeyData( keyIndexes, keys[ work[ left ] ], keys[ work[ right ] ] ) <= 0 ) {
+          order[ i ] = work[ left++ ];
+        } else {
+          order[ i ] = work[ right++ ];
+        }
+      }
+    }
+
+    /**
+     * Merge the sorted chunks with a binary heap on the key of the next row of every chunk.
+     */
+    private long[] merge( long[] chunks, Object[] fields ) throws KettleValueException {
+      int nrChunks = ( size + SORT_CHUNK_SIZE - 1 ) / SORT_CHUNK_SIZE;
+      int[] positions = new int[ nrChunks ];
+      Object[][] heads = new Object[ nrChunks ][];
+      int[] heap = new int[ nrChunks ];
+      for ( int chunk = 0; chunk < nrChunks; chunk++ ) {
+        positions[ chunk ] = chunk * SORT_CHUNK_SIZE;
+        heads[ chunk ] = getKey( chunks[ positions[ chunk ] ], keyIndexes, fields );
+        heap[ chunk ] = chunk;
+      }
+      int heapSize = nrChunks;
+      for ( int i = heapSize / 2 - 1; i >= 0; i-- ) {
+        siftDown( heap, heapSize, i, heads );
+      }
+
+      long[] merged = new long[ size ];
+      for ( int i = 0; i < size; i++ ) {
+        int chunk = heap[ 0 ];
+        merged[ i ] = chunks[ positions[ chunk ]++ ];
+        if ( positions[ chunk ] < Math.min( ( chunk + 1 ) * SORT_CHUNK_SIZE, size ) ) {
+          heads[ chunk ] = getKey( chunks[ positions[ chunk ] ], keyIndexes, fields );
+        } else {
+          heads[ chunk ] = null;
+          heap[ 0 ] = heap[ --heapSize ];
+        }
+        siftDown( heap, heapSize, 0, heads );
+      }
+      return merged;
+    }
+
+    private void siftDown( int[] heap, int heapSize, int i, Object[][] heads ) throws KettleValueException {
+      int chunk = heap[ i ];
+      int child = 2 * i + 1;
+      while ( child < heapSize ) {
+        if ( child + 1 < heapSize && isBefore( heap[ child + 1 ], heap[ child ], heads ) ) {
+          child++;
+        }
+        if ( !isBefore( heap[ child ], chunk, heads ) ) {
+          break;
+        }
+        heap[ i ] = heap[ child ];
+        i = child;
+        child = 2 * i + 1;
+      }
+      heap[ i ] = chunk;
+    }
+
+    /**
+     * Equal keys are taken from the first chunk first, to keep the order in which the rows were added.
+     */
+    private boolean isBefore( int chunk1, int chunk2, Object[][] heads ) throws KettleValueException {
+      int cmp = compareKeyData( keyIndexes, heads[ chunk1 ], heads[ chunk2 ] );
+      return cmp < 0 || cmp == 0 && chunk1 < chunk2;
+    }
+
+    /**
+     * @return the number of rows in the index
+     */
+    public int size() {
+      return sortedAddresses.length;
+    }
+
+    /**
+     * @param position
+     *          the position in key order
+     * @return a new row
+     */
+    public Object[] getRow( int position ) throws KettleValueException {
+      return OffHeapRowStore.this.getRow( sortedAddresses[ position ] );
+    }
+
+    /**
+     * @param keyData
+     *          the values of the key fields, in the order of the key indexes
+     * @return the position of the first row with a key that is equal or larger, size() if there is none
+     */
+    public int lowerBound( Object[] keyData ) throws KettleValueException {
+      int low = 0;
+      int high = sortedAddresses.length;
+      while ( low < high ) {
+        int middle = ( low + high ) >>> 1;
+        if ( compareKeys( keyIndexes, getRow( middle ), keyData ) < 0 ) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return low;
+    }
+
+    /**
+     * @param keyData
+     *          the values of the key fields, in the order of the key indexes
+     * @return the first row with the key or null if there is none
+     */
+    public Object[] get( Object[] keyData ) throws KettleValueException {
+      int position = lowerBound( keyData );
+      if ( position < sortedAddresses.length ) {
+        Object[] row = getRow( position );
+        if ( compareKeys( keyIndexes, row, keyData ) == 0 ) {
+          return row;
+        }
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Frees direct and mapped buffers through sun.misc.Unsafe.invokeCleaner(), the only way to do so before the buffers
+   * are garbage collected.
+   */
+  private static final class BufferCleaner {
+    private final Object unsafe;
+    private final Method invokeCleaner;
+
+    private BufferCleaner( Object unsafe, Method invokeCleaner ) {
+      this.unsafe = unsafe;
+      this.invokeCleaner = invokeCleaner;
+    }
+
+    static BufferCleaner create() {
+      try {
+        Class<?> unsafeClass = Class.forName( "sun.misc.Unsafe" );
+        Field field = unsafeClass.getDeclaredField( "theUnsafe" );
+        field.setAccessible( true );
+        return new BufferCleaner( field.get( null ), unsafeClass.getMethod( "invokeCleaner", ByteBuffer.class ) );
+      } catch ( ReflectiveOperationException | RuntimeException e ) {
+        return null;
+      }
+    }
+
+    void free( ByteBuffer buffer ) {
+      try {
+        invokeCleaner.invoke( unsafe, buffer );
+      } catch ( ReflectiveOperationException | RuntimeException e ) {
+        // Left to the garbage collector
+      }
+    }
+  }
+
+  /**
+   * The reused buffer to serialize a row in.
+   */
+  private static final class RecordBuffer extends ByteArrayOutputStream {
+    RecordBuffer() {
+      super( 1024 );
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+
+  /**
+   * Reads a record from a page through a reused heap buffer.
+   */
+  private static final class RecordInputStream extends InputStream {
+    private byte[] buf = new byte[ 1024 ];
+    private int pos;
+    private int limit;
+
+    void load( ByteBuffer source, int offset, int length ) {
+      if ( buf.length < length ) {
+        buf = new byte[ Math.max( length, buf.length * 2 ) ];
+      }
+      source.get( offset, buf, 0, length );
+      pos = 0;
+      limit = length;
+    }
+
+    @Override
+    public int read() {
+      return pos < limit ? buf[ pos++ ] & 0xFF : -1;
+    }
+
+    @Override
+    public int read( byte[] b, int off, int len ) {
+      if ( pos >= limit ) {
+        return -1;
+      }
+      int n = Math.min( len, limit - pos );
+      System.arraycopy( buf, pos, b, off, n );
+      pos += n;
+      return n;
+    }
+  }
+}
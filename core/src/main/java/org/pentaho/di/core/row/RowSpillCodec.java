@@ -0,0 +1,60 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * A format to write rows to a temporary (spill) file and read them back, used by steps that sort or group more rows
+ * than fit in memory. The rows are read back in the order they were written, with the same row metadata. The codecs
+ * are registered in {@link RowSpillCodecs}.
+ *
+ * @since 11.0
+ */
+public interface RowSpillCodec {
+
+  /**
+   * @return the code of the codec as used in the step settings and the KETTLE_SPILL_CODEC variable
+   */
+  String getCode();
+
+  /**
+   * Create a writer on a new spill file.
+   *
+   * @param rowMeta
+   *          the metadata of the rows to write
+   * @param outputStream
+   *          the spill file, closed with the writer
+   * @return the writer
+   * @throws KettleFileException
+   *           in case the writer can't be created
+   */
+  RowSpillWriter createWriter( RowMetaInterface rowMeta, OutputStream outputStream ) throws KettleFileException;
+
+  /**
+   * Create a reader on a spill file written by this codec.
+   *
+   * @param rowMeta
+   *          the metadata the rows were written with
+   * @param inputStream
+   *          the spill file, closed with the reader
+   * @return the reader
+   * @throws KettleFileException
+   *           in case the reader can't be created
+   */
+  RowSpillReader createReader( RowMetaInterface rowMeta, InputStream inputStream ) throws KettleFileException;
+}
@@ -0,0 +1,103 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.pentaho.di.core.util.Utils;
+
+/**
+ * The available spill file codecs, see {@link RowSpillCodec}:<br>
+ * <ul>
+ * <li>NONE: the classic format, every value is written on its own with a null flag.</li>
+ * <li>GZIP: the classic format compressed with gzip. Small files but it costs a lot of CPU.</li>
+ * <li>BLOCK: the rows are written in blocks, column by column. Strings store only what differs from the previous value
+ * (which is a lot in sorted data) and integers and dates store the difference with the previous value.</li>
+ * <li>BLOCK_LZ4: BLOCK with every block compressed with LZ4, nearly as small as GZIP at a fraction of the CPU.</li>
+ * </ul>
+ * Other codecs can be added with {@link #register(RowSpillCodec)}.
+ *
+ * @since 11.0
+ */
+public class RowSpillCodecs {
+
+  public static final String NONE = "NONE";
+  public static final String GZIP = "GZIP";
+  public static final String BLOCK = "BLOCK";
+  public static final String BLOCK_LZ4 = "BLOCK_LZ4";
+
+  private static final Map<String, RowSpillCodec> codecs = new ConcurrentHashMap<>();
+  private static final List<String> codes = new CopyOnWriteArrayList<>();
+
+  static {
+    register( new StreamRowSpillCodec( NONE, false ) );
+    register( new StreamRowSpillCodec( GZIP, true ) );
+    register( new BlockRowSpillCodec( BLOCK, false ) );
+    register( new BlockRowSpillCodec( BLOCK_LZ4, true ) );
+  }
+
+  private RowSpillCodecs() {
+  }
+
+  /**
+   * Register a codec, replacing any codec with the same code.
+   *
+   * @param codec
+   *          the codec to register
+   */
+  public static synchronized void register( RowSpillCodec codec ) {
+    String code = codec.getCode().toUpperCase( Locale.ROOT );
+    if ( codecs.put( code, codec ) == null ) {
+      codes.add( code );
+    }
+  }
+
+  /**
+   * @param code
+   *          the code of the codec, not case sensitive
+   * @return the codec or null if there is no codec with that code
+   */
+  public static RowSpillCodec getCodec( String code ) {
+    if ( Utils.isEmpty( code ) ) {
+      return null;
+    }
+    return codecs.get( code.trim().toUpperCase( Locale.ROOT ) );
+  }
+
+  /**
+   * Find the codec to use for a step that also has the older compress option.
+   *
+   * @param code
+   *          the code of the codec, empty to use the compress option
+   * @param compress
+   *          the compress option of the step: GZIP if set, NONE if not
+   * @return the codec or null if there is no codec with the given code
+   */
+  public static RowSpillCodec getCodec( String code, boolean compress ) {
+    if ( Utils.isEmpty( code ) ) {
+      return codecs.get( compress ? GZIP : NONE );
+    }
+    return getCodec( code );
+  }
+
+  /**
+   * @return the codes of the registered codecs in the order they were registered
+   */
+  public static String[] getCodes() {
+    return codes.toArray( new String[ 0 ] );
+  }
+}
@@ -0,0 +1,33 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import java.io.Closeable;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * Reads the rows of a spill file back, see {@link RowSpillCodec}.
+ *
+ * @since 11.0
+ */
+public interface RowSpillReader extends Closeable {
+
+  /**
+   * @return the next row, a new array that the caller can keep, or null at the end of the file
+   * @throws KettleFileException
+   *           in case the row can't be read
+   */
+  Object[] readRow() throws KettleFileException;
+}
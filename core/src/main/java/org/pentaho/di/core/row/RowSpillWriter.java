@@ -0,0 +1,35 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import java.io.Closeable;
+
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * Writes rows to a spill file, see {@link RowSpillCodec}. A writer may keep the rows it was given until it is closed
+ * or its block is full, so the caller shouldn't change them afterwards.
+ *
+ * @since 11.0
+ */
+public interface RowSpillWriter extends Closeable {
+
+  /**
+   * @param row
+   *          the row to write
+   * @throws KettleFileException
+   *           in case the row can't be written
+   */
+  void writeRow( Object[] row ) throws KettleFileException;
+}
@@ -0,0 +1,113 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.pentaho.di.core.exception.KettleEOFException;
+import org.pentaho.di.core.exception.KettleFileException;
+
+/**
+ * The spill format used before the codecs were introduced: every row is written with
+ * {@link RowMetaInterface#writeData(DataOutputStream, Object[])}, optionally compressed with gzip.
+ *
+ * @since 11.0
+ */
+public class StreamRowSpillCodec implements RowSpillCodec {
+
+  private final String code;
+  private final boolean gzip;
+
+  /**
+   * @param code
+   *          the code of the codec
+   * @param gzip
+   *          true to compress the file with gzip
+   */
+  public StreamRowSpillCodec( String code, boolean gzip ) {
+    this.code = code;
+    this.gzip = gzip;
+  }
+
+  @Override
+  public String getCode() {
+    return code;
+  }
+
+  @Override
+  public RowSpillWriter createWriter( RowMetaInterface rowMeta, OutputStream outputStream )
+    throws KettleFileException {
+    DataOutputStream dos;
+    try {
+      if ( gzip ) {
+        dos = new DataOutputStream( new GZIPOutputStream( new BufferedOutputStream( outputStream ) ) );
+      } else {
+        dos = new DataOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to open the spill file for writing", e );
+    }
+    return new RowSpillWriter() {
+      @Override
+      public void writeRow( Object[] row ) throws KettleFileException {
+        rowMeta.writeData( dos, row );
+      }
+
+      @Override
+      public void close() throws IOException {
+        dos.close();
+      }
+    };
+  }
+
+  @Override
+  public RowSpillReader createReader( RowMetaInterface rowMeta, InputStream inputStream )
+    throws KettleFileException {
+    DataInputStream dis;
+    try {
+      if ( gzip ) {
+        dis = new DataInputStream( new GZIPInputStream( new BufferedInputStream( inputStream ) ) );
+      } else {
+        dis = new DataInputStream( new BufferedInputStream( inputStream, 50000 ) );
+      }
+    } catch ( IOException e ) {
+      throw new KettleFileException( "Unable to open the spill file for reading", e );
+    }
+    return new RowSpillReader() {
+      @Override
+      public Object[] readRow() throws KettleFileException {
+        try {
+          return rowMeta.readData( dis );
+        } catch ( KettleEOFException e ) {
+          return null;
+        } catch ( SocketTimeoutException e ) {
+          throw new KettleFileException( e );
+        }
+      }
+
+      @Override
+      public void close() throws IOException {
+        dis.close();
+      }
+    };
+  }
+}
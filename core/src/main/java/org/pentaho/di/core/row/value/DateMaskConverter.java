@@ -0,0 +1,389 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SimpleTimeZone;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe parser and formatter for the dates of one {@link SimpleDateFormat}. Converters are shared between all
+ * equal date formats.
+ * <p>
+ * Masks made up of fixed width numeric fields (yyyy, MM, dd, HH, mm, ss and SSS) separated by literals, like the
+ * default yyyy/MM/dd HH:mm:ss.SSS, are handled without SimpleDateFormat. That only happens when the outcome is known
+ * to be the same: the text has to match the mask exactly, all fields have to be in range and the local time can't fall
+ * in a daylight saving time transition. Lenient parsing only differs from strict parsing for fields out of range, so
+ * both modes are covered. Everything else goes to a per thread copy of the SimpleDateFormat.
+ *
+ * @since 11.0
+ */
+public final class DateMaskConverter {
+  private static final int MAX_CACHED_CONVERTERS = 1000;
+
+  private static final Map<Key, DateMaskConverter> converters = new ConcurrentHashMap<>();
+  private static final Map<String, List<Field>> layouts = new ConcurrentHashMap<>();
+
+  /** No fast path for this pattern */
+  private static final List<Field> NO_LAYOUT = new ArrayList<>();
+
+  private static final long MILLIS_PER_DAY = 86400000L;
+
+  /** The Gregorian calendar is used without exception from this year on */
+  private static final int MIN_YEAR = 1600;
+  private static final int MAX_YEAR = 9999;
+
+  private static final long DEFAULT_GREGORIAN_CHANGE = new GregorianCalendar().getGregorianChange().getTime();
+
+  private enum Type {
+    LITERAL, YEAR, MONTH, DAY, HOUR, MINUTE, SECOND, MILLISECOND
+  }
+
+  private static class Field {
+    final Type type;
+    final int width;
+    final char literal;
+
+    Field( Type type, int width, char literal ) {
+      this.type = type;
+      this.width = width;
+      this.literal = literal;
+    }
+  }
+
+  private final SimpleDateFormat prototype;
+  private final ThreadLocal<SimpleDateFormat> formats;
+
+  private final List<Field> layout;
+  private final int layoutLength;
+  private final TimeZone timeZone;
+  private final ZoneRules zoneRules;
+
+  private DateMaskConverter( SimpleDateFormat format ) {
+    prototype = (SimpleDateFormat) format.clone();
+    formats = ThreadLocal.withInitial( () -> (SimpleDateFormat) prototype.clone() );
+
+    timeZone = (TimeZone) prototype.getTimeZone().clone();
+    zoneRules = getZoneRules( timeZone );
+
+    List<Field> fields = null;
+    if ( prototype.getClass() == SimpleDateFormat.class && zoneRules != null && isGregorian( prototype )
+      && hasAsciiDigits( prototype ) ) {
+      fields = layouts.computeIfAbsent( prototype.toPattern(), DateMaskConverter::compileLayout );
+    }
+    if ( fields == null || fields == NO_LAYOUT ) {
+      layout = null;
+      layoutLength = 0;
+    } else {
+      layout = fields;
+      int length = 0;
+      for ( Field field : fields ) {
+        length += field.width;
+      }
+      layoutLength = length;
+    }
+  }
+
+  /**
+   * @param format
+   *          the date format to convert with, it is copied so later changes to it are not picked up
+   * @return the converter for the format, shared with all equal formats
+   */
+  public static DateMaskConverter getInstance( SimpleDateFormat format ) {
+    Key key = new Key( format );
+    DateMaskConverter converter = converters.get( key );
+    if ( converter == null ) {
+      if ( converters.size() >= MAX_CACHED_CONVERTERS ) {
+        converters.clear();
+      }
+      converter = new DateMaskConverter( format );
+      DateMaskConverter existing = converters.putIfAbsent( new Key( converter.prototype ), converter );
+      if ( existing != null ) {
+        converter = existing;
+      }
+    }
+    return converter;
+  }
+
+  /**
+   * @return true if masks of this format are handled without SimpleDateFormat
+   */
+  boolean hasFastPath() {
+    return layout != null;
+  }
+
+  /**
+   * Same as {@link SimpleDateFormat#parse(String, ParsePosition)}.
+   */
+  public Date parse( String string, ParsePosition position ) {
+    if ( layout != null && position.getIndex() == 0 && string.length() == layoutLength ) {
+      Date date = parseLayout( string );
+      if ( date != null ) {
+        position.setIndex( layoutLength );
+        return date;
+      }
+    }
+    return formats.get().parse( string, position );
+  }
+
+  /**
+   * Same as {@link SimpleDateFormat#format(Date)}.
+   */
+  public String format( Date date ) {
+    if ( layout != null ) {
+      String string = formatLayout( date.getTime() );
+      if ( string != null ) {
+        return string;
+      }
+    }
+    return formats.get().format( date );
+  }
+
+  /**
+   * @return the date or null if the text is not in the layout or leaves any doubt about the outcome
+   */
+  private Date parseLayout( String string ) {
+    int year = 1970;
+    int month = 1;
+    int day = 1;
+    int hour = 0;
+    int minute = 0;
+    int second = 0;
+    int millisecond = 0;
+
+    int index = 0;
+    for ( Field field : layout ) {
+      if ( field.type == Type.LITERAL ) {
+        if ( string.charAt( index++ ) != field.literal ) {
+          return null;
+        }
+        continue;
+      }
+      int value = 0;
+      for ( int i = 0; i < field.width; i++ ) {
+        int digit = string.charAt( index++ ) - '0';
+        if ( digit < 0 || digit > 9 ) {
+          return null;
+        }
+        value = value * 10 + digit;
+      }
+      switch ( field.type ) {
+        case YEAR:
+          year = value;
+          break;
+        case MONTH:
+          month = value;
+          break;
+        case DAY:
+          day = value;
+          break;
+        case HOUR:
+          hour = value;
+          break;
+        case MINUTE:
+          minute = value;
+          break;
+        case SECOND:
+          second = value;
+          break;
+        default:
+          millisecond = value;
+          break;
+      }
+    }
+
+    // Out of range fields are rolled over or refused depending on the leniency, leave that to SimpleDateFormat
+    //
+    if ( year < MIN_YEAR || month < 1 || month > 12 || day < 1 || hour > 23 || minute > 59 || second > 59 ) {
+      return null;
+    }
+    LocalDate date = LocalDate.of( year, month, 1 );
+    if ( day > date.lengthOfMonth() ) {
+      return null;
+    }
+    LocalDateTime dateTime = LocalDateTime.of( year, month, day, hour, minute, second );
+
+    // A local time in a gap or an overlap is resolved differently by Calendar
+    //
+    List<ZoneOffset> offsets = zoneRules.getValidOffsets( dateTime );
+    if ( offsets.size() != 1 ) {
+      return null;
+    }
+    long local = ( date.toEpochDay() + day - 1 ) * MILLIS_PER_DAY
+      + ( ( hour * 60L + minute ) * 60L + second ) * 1000L + millisecond;
+    long millis = local - offsets.get( 0 ).getTotalSeconds() * 1000L;
+    if ( timeZone.getOffset( millis ) != offsets.get( 0 ).getTotalSeconds() * 1000L ) {
+      return null;
+    }
+    return new Date( millis );
+  }
+
+  private String formatLayout( long millis ) {
+    long local = millis + timeZone.getOffset( millis );
+    long epochDay = Math.floorDiv( local, MILLIS_PER_DAY );
+    long millisOfDay = Math.floorMod( local, MILLIS_PER_DAY );
+    LocalDate date = LocalDate.ofEpochDay( epochDay );
+    if ( date.getYear() < MIN_YEAR || date.getYear() > MAX_YEAR ) {
+      return null;
+    }
+
+    char[] chars = new char[ layoutLength ];
+    int index = 0;
+    for ( Field field : layout ) {
+      int value;
+      switch ( field.type ) {
+        case LITERAL:
+          chars[ index++ ] = field.literal;
+          continue;
+        case YEAR:
+          value = date.getYear();
+          break;
+        case MONTH:
+          value = date.getMonthValue();
+          break;
+        case DAY:
+          value = date.getDayOfMonth();
+          break;
+        case HOUR:
+          value = (int) ( millisOfDay / 3600000L );
+          break;
+        case MINUTE:
+          value = (int) ( millisOfDay / 60000L % 60 );
+          break;
+        case SECOND:
+          value = (int) ( millisOfDay / 1000L % 60 );
+          break;
+        default:
+          value = (int) ( millisOfDay % 1000L );
+          break;
+      }
+      for ( int i = index + field.width - 1; i >= index; i-- ) {
+        chars[ i ] = (char) ( '0' + value % 10 );
+        value /= 10;
+      }
+      index += field.width;
+    }
+    return new String( chars );
+  }
+
+  /**
+   * @return the fields of a mask made up of fixed width numeric fields and literals, NO_LAYOUT for any other mask
+   */
+  private static List<Field> compileLayout( String pattern ) {
+    List<Field> fields = new ArrayList<>();
+    int i = 0;
+    while ( i < pattern.length() ) {
+      char c = pattern.charAt( i );
+      if ( c == '\'' ) {
+        return NO_LAYOUT;
+      }
+      if ( ( c < 'a' || c > 'z' ) && ( c < 'A' || c > 'Z' ) ) {
+        fields.add( new Field( Type.LITERAL, 1, c ) );
+        i++;
+        continue;
+      }
+      int count = 1;
+      while ( i + count < pattern.length() && pattern.charAt( i + count ) == c ) {
+        count++;
+      }
+      Field field;
+      if ( c == 'y' && count == 4 ) {
+        field = new Field( Type.YEAR, 4, c );
+      } else if ( c == 'M' && count == 2 ) {
+        field = new Field( Type.MONTH, 2, c );
+      } else if ( c == 'd' && count == 2 ) {
+        field = new Field( Type.DAY, 2, c );
+      } else if ( c == 'H' && count == 2 ) {
+        field = new Field( Type.HOUR, 2, c );
+      } else if ( c == 'm' && count == 2 ) {
+        field = new Field( Type.MINUTE, 2, c );
+      } else if ( c == 's' && count == 2 ) {
+        field = new Field( Type.SECOND, 2, c );
+      } else if ( c == 'S' && count == 3 ) {
+        field = new Field( Type.MILLISECOND, 3, c );
+      } else {
+        return NO_LAYOUT;
+      }
+      fields.add( field );
+      i += count;
+    }
+    return fields;
+  }
+
+  /**
+   * @return the rules of the time zone if it is one of the time zones of the JRE, null for custom time zones
+   */
+  private static ZoneRules getZoneRules( TimeZone timeZone ) {
+    if ( timeZone instanceof SimpleTimeZone || !TimeZone.getTimeZone( timeZone.getID() ).hasSameRules( timeZone ) ) {
+      return null;
+    }
+    try {
+      return timeZone.toZoneId().getRules();
+    } catch ( RuntimeException e ) {
+      return null;
+    }
+  }
+
+  private static boolean isGregorian( SimpleDateFormat format ) {
+    return format.getCalendar().getClass() == GregorianCalendar.class
+      && ( (GregorianCalendar) format.getCalendar() ).getGregorianChange().getTime() == DEFAULT_GREGORIAN_CHANGE;
+  }
+
+  private static boolean hasAsciiDigits( SimpleDateFormat format ) {
+    return format.getNumberFormat() instanceof DecimalFormat
+      && ( (DecimalFormat) format.getNumberFormat() ).getDecimalFormatSymbols().getZeroDigit() == '0';
+  }
+
+  /**
+   * SimpleDateFormat.equals() leaves out the calendar system, Thai and Japanese locales can have the same symbols with
+   * another calendar.
+   */
+  private static class Key {
+    private final SimpleDateFormat format;
+    private final Class<?> calendarClass;
+
+    Key( SimpleDateFormat format ) {
+      this.format = format;
+      this.calendarClass = format.getCalendar().getClass();
+    }
+
+    @Override
+    public boolean equals( Object obj ) {
+      if ( !( obj instanceof Key ) ) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return format.getClass() == other.format.getClass() && calendarClass == other.calendarClass
+        && format.equals( other.format );
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash( format.toPattern(), calendarClass );
+    }
+  }
+}
@@ -0,0 +1,192 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Thread-safe parser and formatter for the numbers of one {@link DecimalFormat}. Converters are shared between all
+ * equal decimal formats.
+ * <p>
+ * Plain integers and decimals, an optional minus sign followed by digits with at most one decimal separator, are
+ * parsed without DecimalFormat when the format has no prefixes, suffixes, multiplier or exponent. Integers are
+ * formatted without DecimalFormat when the format would print them as plain digits anyway. Everything else goes to a
+ * per thread copy of the DecimalFormat.
+ *
+ * @since 11.0
+ */
+public final class NumberMaskConverter {
+  private static final int MAX_CACHED_CONVERTERS = 1000;
+
+  /** Up to 18 digits always fit in a long and are exactly the digits DecimalFormat keeps */
+  private static final int MAX_FAST_DIGITS = 18;
+
+  private static final Map<DecimalFormat, NumberMaskConverter> converters = new ConcurrentHashMap<>();
+
+  private final DecimalFormat prototype;
+  private final ThreadLocal<DecimalFormat> formats;
+
+  private final boolean fastParse;
+  private final boolean fastIntegerFormat;
+  private final char decimalSeparator;
+
+  private NumberMaskConverter( DecimalFormat format ) {
+    prototype = (DecimalFormat) format.clone();
+    formats = ThreadLocal.withInitial( () -> (DecimalFormat) prototype.clone() );
+
+    DecimalFormatSymbols symbols = prototype.getDecimalFormatSymbols();
+    decimalSeparator = symbols.getDecimalSeparator();
+
+    boolean plain = prototype.getClass() == DecimalFormat.class
+      && symbols.getZeroDigit() == '0' && symbols.getMinusSign() == '-'
+      && prototype.getPositivePrefix().isEmpty() && prototype.getPositiveSuffix().isEmpty()
+      && "-".equals( prototype.getNegativePrefix() ) && prototype.getNegativeSuffix().isEmpty()
+      && prototype.getMultiplier() == 1 && prototype.toPattern().indexOf( 'E' ) < 0;
+
+    fastParse = plain && !prototype.isParseBigDecimal() && !prototype.isParseIntegerOnly()
+      && ( decimalSeparator < '0' || decimalSeparator > '9' ) && decimalSeparator != '-'
+      && decimalSeparator != symbols.getGroupingSeparator();
+
+    fastIntegerFormat = plain && ( !prototype.isGroupingUsed() || prototype.getGroupingSize() == 0 )
+      && prototype.getMinimumIntegerDigits() == 1 && prototype.getMaximumIntegerDigits() >= 19
+      && prototype.getMinimumFractionDigits() == 0 && !prototype.isDecimalSeparatorAlwaysShown();
+  }
+
+  /**
+   * @param format
+   *          the decimal format to convert with, it is copied so later changes to it are not picked up
+   * @return the converter for the format, shared with all equal formats
+   */
+  public static NumberMaskConverter getInstance( DecimalFormat format ) {
+    NumberMaskConverter converter = converters.get( format );
+    if ( converter == null ) {
+      if ( converters.size() >= MAX_CACHED_CONVERTERS ) {
+        converters.clear();
+      }
+      converter = new NumberMaskConverter( format );
+      NumberMaskConverter existing = converters.putIfAbsent( converter.prototype, converter );
+      if ( existing != null ) {
+        converter = existing;
+      }
+    }
+    return converter;
+  }
+
+  boolean hasFastParse() {
+    return fastParse;
+  }
+
+  boolean hasFastIntegerFormat() {
+    return fastIntegerFormat;
+  }
+
+  /**
+   * Same as {@link DecimalFormat#parse(String, ParsePosition)}.
+   */
+  public Number parse( String string, ParsePosition position ) {
+    if ( fastParse && position.getIndex() == 0 ) {
+      Number number = parsePlain( string );
+      if ( number != null ) {
+        position.setIndex( string.length() );
+        return number;
+      }
+    }
+    return formats.get().parse( string, position );
+  }
+
+  /**
+   * Same as {@link DecimalFormat#parse(String)}.
+   */
+  public Number parse( String string ) throws ParseException {
+    if ( fastParse ) {
+      Number number = parsePlain( string );
+      if ( number != null ) {
+        return number;
+      }
+    }
+    return formats.get().parse( string );
+  }
+
+  /**
+   * Same as {@link DecimalFormat#format(long)}.
+   */
+  public String format( long number ) {
+    if ( fastIntegerFormat ) {
+      return Long.toString( number );
+    }
+    return formats.get().format( number );
+  }
+
+  /**
+   * Same as {@link DecimalFormat#format(Object)}, for numbers only.
+   */
+  public String format( Number number ) {
+    return formats.get().format( number );
+  }
+
+  /**
+   * Parses an optional minus sign followed by digits with at most one decimal separator. Like DecimalFormat the result
+   * is a Long when the value is a whole number (other than minus zero), a Double otherwise.
+   *
+   * @return the number or null if the string is anything else
+   */
+  private Number parsePlain( String string ) {
+    int length = string.length();
+    int start = 0;
+    boolean negative = false;
+    if ( length > 0 && string.charAt( 0 ) == '-' ) {
+      negative = true;
+      start = 1;
+    }
+    if ( length - start > MAX_FAST_DIGITS + 1 ) {
+      return null;
+    }
+
+    long integer = 0L;
+    int digits = 0;
+    int separator = -1;
+    boolean fraction = false;
+    for ( int i = start; i < length; i++ ) {
+      char c = string.charAt( i );
+      if ( c >= '0' && c <= '9' ) {
+        digits++;
+        if ( separator < 0 ) {
+          integer = integer * 10 + ( c - '0' );
+        } else if ( c != '0' ) {
+          fraction = true;
+        }
+      } else if ( c == decimalSeparator && separator < 0 ) {
+        separator = i;
+      } else {
+        return null;
+      }
+    }
+    if ( digits == 0 || digits > MAX_FAST_DIGITS ) {
+      return null;
+    }
+
+    if ( !fraction && !( negative && integer == 0L ) ) {
+      return negative ? -integer : integer;
+    }
+    if ( decimalSeparator != '.' ) {
+      string = string.replace( decimalSeparator, '.' );
+    }
+    return Double.parseDouble( string );
+  }
+}
@@ -152,6 +152,10 @@ public class ValueMetaBase implements ValueMetaInterface {
   protected DecimalFormat decimalFormat;
   protected boolean decimalFormatChanged;
 
+  // Thread-safe converters for the date and decimal format, remembered together with the format they're made for
+  private volatile MaskConverter<SimpleDateFormat, DateMaskConverter> dateMaskConverter;
+  private volatile MaskConverter<DecimalFormat, NumberMaskConverter> numberMaskConverter;
+
   protected ValueMetaInterface storageMetadata;
   protected boolean identicalFormat;
 
@@ -432,6 +436,8 @@ public class ValueMetaBase implements ValueMetaInterface {
       ValueMetaBase valueMeta = (ValueMetaBase) super.clone();
       valueMeta.dateFormat = null;
       valueMeta.decimalFormat = null;
+      valueMeta.dateMaskConverter = null;
+      valueMeta.numberMaskConverter = null;
       if ( dateFormatLocale != null ) {
         valueMeta.dateFormatLocale = (Locale) dateFormatLocale.clone();
       }
@@ -893,12 +899,19 @@ public class ValueMetaBase implements ValueMetaInterface {
 
   // DATE + STRING
 
-  protected synchronized String convertDateToString( Date date ) {
+  protected String convertDateToString( Date date ) {
     if ( date == null ) {
       return null;
     }
 
-    return getDateFormat().format( date );
+    SimpleDateFormat format = getDateFormat();
+    DateMaskConverter converter = getDateMaskConverter( format );
+    if ( converter == null ) {
+      synchronized ( this ) {
+        return format.format( date );
+      }
+    }
+    return converter.format( date );
   }
 
   protected static SimpleDateFormat compatibleDateFormat = new SimpleDateFormat( COMPATIBLE_DATE_FORMAT_PATTERN );
@@ -910,7 +923,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return compatibleDateFormat.format( date );
   }
 
-  protected synchronized Date convertStringToDate( String string ) throws KettleValueException {
+  protected Date convertStringToDate( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -921,7 +934,16 @@ public class ValueMetaBase implements ValueMetaInterface {
 
     try {
       ParsePosition pp = new ParsePosition( 0 );
-      Date result = getDateFormat( TYPE_DATE ).parse( string, pp );
+      SimpleDateFormat format = getDateFormat( TYPE_DATE );
+      DateMaskConverter converter = getDateMaskConverter( format );
+      Date result;
+      if ( converter == null ) {
+        synchronized ( this ) {
+          result = format.parse( string, pp );
+        }
+      } else {
+        result = converter.parse( string, pp );
+      }
       if ( pp.getErrorIndex() >= 0 ) {
         // error happen
         throw new ParseException( string, pp.getErrorIndex() );
@@ -1006,7 +1028,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return Double.toString( number );
   }
 
-  protected synchronized Double convertStringToNumber( String string ) throws KettleValueException {
+  protected Double convertStringToNumber( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1019,10 +1041,10 @@ public class ValueMetaBase implements ValueMetaInterface {
       DecimalFormat format = getDecimalFormat( false );
       Number number;
       if ( lenientStringToNumber ) {
-        number = format.parse( string );
+        number = parseNumber( format, string );
       } else {
         ParsePosition parsePosition = new ParsePosition( 0 );
-        number = format.parse( string, parsePosition );
+        number = parseNumber( format, string, parsePosition );
 
         if ( parsePosition.getIndex() < string.length() ) {
           throw new KettleValueException( toString()
@@ -1038,6 +1060,66 @@ public class ValueMetaBase implements ValueMetaInterface {
     }
   }
 
+  /**
+   * @return the thread-safe converter for a date format of this value, null if the format has to be used as is
+   */
+  private DateMaskConverter getDateMaskConverter( SimpleDateFormat format ) {
+    if ( format == null || format.getClass() != SimpleDateFormat.class ) {
+      return null;
+    }
+    MaskConverter<SimpleDateFormat, DateMaskConverter> maskConverter = dateMaskConverter;
+    if ( maskConverter == null || maskConverter.format != format ) {
+      maskConverter = new MaskConverter<>( format, DateMaskConverter.getInstance( format ) );
+      dateMaskConverter = maskConverter;
+    }
+    return maskConverter.converter;
+  }
+
+  /**
+   * @return the thread-safe converter for a decimal format of this value, null if the format has to be used as is
+   */
+  private NumberMaskConverter getNumberMaskConverter( DecimalFormat format ) {
+    if ( format == null || format.getClass() != DecimalFormat.class ) {
+      return null;
+    }
+    MaskConverter<DecimalFormat, NumberMaskConverter> maskConverter = numberMaskConverter;
+    if ( maskConverter == null || maskConverter.format != format ) {
+      maskConverter = new MaskConverter<>( format, NumberMaskConverter.getInstance( format ) );
+      numberMaskConverter = maskConverter;
+    }
+    return maskConverter.converter;
+  }
+
+  private Number parseNumber( DecimalFormat format, String string ) throws ParseException {
+    NumberMaskConverter converter = getNumberMaskConverter( format );
+    if ( converter == null ) {
+      synchronized ( this ) {
+        return format.parse( string );
+      }
+    }
+    return converter.parse( string );
+  }
+
+  private Number parseNumber( DecimalFormat format, String string, ParsePosition parsePosition ) {
+    NumberMaskConverter converter = getNumberMaskConverter( format );
+    if ( converter == null ) {
+      synchronized ( this ) {
+        return format.parse( string, parsePosition );
+      }
+    }
+    return converter.parse( string, parsePosition );
+  }
+
+  private static final class MaskConverter<F, C> {
+    private final F format;
+    private final C converter;
+
+    private MaskConverter( F format, C converter ) {
+      this.format = format;
+      this.converter = converter;
+    }
+  }
+
   @Override
   public synchronized SimpleDateFormat getDateFormat() {
     return getDateFormat( getType() );
@@ -1287,7 +1369,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return numberPattern.toString();
   }
 
-  protected synchronized String convertIntegerToString( Long integer ) throws KettleValueException {
+  protected String convertIntegerToString( Long integer ) throws KettleValueException {
     if ( integer == null ) {
       if ( !outputPaddingEnabled || length < 1 ) {
         return null;
@@ -1306,7 +1388,14 @@ public class ValueMetaBase implements ValueMetaInterface {
     }
 
     try {
-      return getDecimalFormat( false ).format( integer );
+      DecimalFormat format = getDecimalFormat( false );
+      NumberMaskConverter converter = getNumberMaskConverter( format );
+      if ( converter == null ) {
+        synchronized ( this ) {
+          return format.format( integer );
+        }
+      }
+      return converter.format( integer.longValue() );
     } catch ( Exception e ) {
       throw new KettleValueException( toString() + " : couldn't convert Long to String ", e );
     }
@@ -1319,7 +1408,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     return Long.toString( integer );
   }
 
-  protected synchronized Long convertStringToInteger( String string ) throws KettleValueException {
+  protected Long convertStringToInteger( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1331,10 +1420,10 @@ public class ValueMetaBase implements ValueMetaInterface {
     try {
       Number number;
       if ( lenientStringToNumber ) {
-        number = getDecimalFormat( false ).parse( string );
+        number = parseNumber( getDecimalFormat( false ), string );
       } else {
         ParsePosition parsePosition = new ParsePosition( 0 );
-        number = getDecimalFormat( false ).parse( string, parsePosition );
+        number = parseNumber( getDecimalFormat( false ), string, parsePosition );
 
         if ( parsePosition.getIndex() < string.length() ) {
           throw new KettleValueException( toString()
@@ -1372,7 +1461,7 @@ public class ValueMetaBase implements ValueMetaInterface {
     }
   }
 
-  protected synchronized BigDecimal convertStringToBigNumber( String string ) throws KettleValueException {
+  protected BigDecimal convertStringToBigNumber( String string ) throws KettleValueException {
     string = Const.trimToType( string, getTrimType() ); // see if trimming needs
     // to be performed before
     // conversion
@@ -1385,10 +1474,10 @@ public class ValueMetaBase implements ValueMetaInterface {
       DecimalFormat format = getDecimalFormat( bigNumberFormatting );
       Number number;
       if ( lenientStringToNumber ) {
-        number = format.parse( string );
+        number = parseNumber( format, string );
       } else {
         ParsePosition parsePosition = new ParsePosition( 0 );
-        number = format.parse( string, parsePosition );
+        number = parseNumber( format, string, parsePosition );
 
         if ( parsePosition.getIndex() < string.length() ) {
           throw new KettleValueException( toString()
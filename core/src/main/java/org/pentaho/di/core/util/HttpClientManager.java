@@ -24,6 +24,7 @@ import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 
 /**
  * Single entry point for all {@link org.apache.http.client.HttpClient HttpClient instances} usages in pentaho projects.
@@ -62,6 +63,14 @@ public class HttpClientManager {
       .build();
   }
 
+  /**
+   * @return the leased, pending, available and maximum number of connections of the shared connection pool. A pending
+   * request waits for a connection because the pool is saturated.
+   */
+  public PoolStats getPoolStats() {
+    return manager.getTotalStats();
+  }
+
   public HttpClientBuilderFacade createBuilder() {
     return new HttpClientBuilderFacade();
   }
@@ -0,0 +1,206 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaAndData;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CompiledConditionTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private static final int[] FUNCTIONS = {
+    Condition.FUNC_EQUAL, Condition.FUNC_NOT_EQUAL, Condition.FUNC_SMALLER, Condition.FUNC_SMALLER_EQUAL,
+    Condition.FUNC_LARGER, Condition.FUNC_LARGER_EQUAL, Condition.FUNC_REGEXP, Condition.FUNC_NULL,
+    Condition.FUNC_NOT_NULL, Condition.FUNC_IN_LIST, Condition.FUNC_CONTAINS, Condition.FUNC_STARTS_WITH,
+    Condition.FUNC_ENDS_WITH, Condition.FUNC_LIKE, Condition.FUNC_TRUE };
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "created" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "other" ) );
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { "apple", 10L, 2.5, new Date( 1000L ), "apple" } );
+    rows.add( new Object[] { "banana", 20L, 10.0, new Date( 2000L ), "an" } );
+    rows.add( new Object[] { "cherry", -5L, -1.0, new Date( 3000L ), "ch" } );
+    rows.add( new Object[] { "", 0L, 0.0, new Date( 0L ), "" } );
+    rows.add( new Object[] { null, null, null, null, null } );
+    return rows;
+  }
+
+  private List<ValueMetaAndData> createConstants() {
+    List<ValueMetaAndData> constants = new ArrayList<>();
+    constants.add( new ValueMetaAndData( new ValueMetaString( "constant" ), "banana" ) );
+    constants.add( new ValueMetaAndData( new ValueMetaString( "constant" ), "apple;cherry;10;2.5" ) );
+    constants.add( new ValueMetaAndData( new ValueMetaString( "constant" ), "%an%" ) );
+    constants.add( new ValueMetaAndData( new ValueMetaString( "constant" ), "a.*" ) );
+    constants.add( new ValueMetaAndData( new ValueMetaString( "constant" ), "10" ) );
+    constants.add( new ValueMetaAndData( new ValueMetaInteger( "constant" ), 10L ) );
+    constants.add( new ValueMetaAndData( new ValueMetaNumber( "constant" ), 2.5 ) );
+    constants.add( new ValueMetaAndData( new ValueMetaDate( "constant" ), new Date( 2000L ) ) );
+    return constants;
+  }
+
+  private void assertSameResults( Condition condition, RowMetaInterface rowMeta, List<Object[]> rows ) {
+    CompiledCondition compiled = condition.compile( rowMeta );
+    for ( Object[] row : rows ) {
+      Boolean expected;
+      try {
+        expected = condition.evaluate( rowMeta, row );
+      } catch ( RuntimeException e ) {
+        expected = null;
+      }
+      Boolean actual;
+      try {
+        actual = compiled.evaluate( row );
+      } catch ( RuntimeException e ) {
+        actual = null;
+      }
+      assertEquals( condition + " for row " + rowMeta.getString( row ), expected, actual );
+    }
+  }
+
+  @Test
+  public void testAtomicConditionsAgainstConstants() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows();
+    for ( String field : rowMeta.getFieldNames() ) {
+      for ( int function : FUNCTIONS ) {
+        for ( ValueMetaAndData constant : createConstants() ) {
+          assertSameResults( new Condition( field, function, null, constant ), rowMeta, rows );
+          assertSameResults( new Condition( true, field, function, null, constant ), rowMeta, rows );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAtomicConditionsAgainstFields() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows();
+    for ( String field : rowMeta.getFieldNames() ) {
+      for ( String other : rowMeta.getFieldNames() ) {
+        for ( int function : FUNCTIONS ) {
+          assertSameResults( new Condition( field, function, other, null ), rowMeta, rows );
+          assertSameResults( new Condition( true, field, function, other, null ), rowMeta, rows );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCompositeConditions() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows();
+    int[] operators = { Condition.OPERATOR_OR, Condition.OPERATOR_AND, Condition.OPERATOR_OR_NOT,
+      Condition.OPERATOR_AND_NOT, Condition.OPERATOR_XOR };
+    for ( int operator : operators ) {
+      Condition condition = new Condition();
+      condition.addCondition( new Condition( "id", Condition.FUNC_LARGER, null,
+        new ValueMetaAndData( new ValueMetaInteger( "constant" ), 0L ) ) );
+      condition.addCondition( new Condition( operator, "name", Condition.FUNC_CONTAINS, null,
+        new ValueMetaAndData( new ValueMetaString( "constant" ), "an" ) ) );
+      condition.addCondition( new Condition( Condition.OPERATOR_AND, "amount", Condition.FUNC_NOT_NULL, null, null ) );
+      assertSameResults( condition, rowMeta, rows );
+      condition.setNegated( true );
+      assertSameResults( condition, rowMeta, rows );
+    }
+  }
+
+  @Test
+  public void testSpecialNumbers() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "other" ) );
+    double[] values = { Double.NaN, 0.0, -0.0, 1.0, Double.NEGATIVE_INFINITY };
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { null, null } );
+    for ( double value : values ) {
+      rows.add( new Object[] { value, null } );
+      rows.add( new Object[] { null, value } );
+      for ( double other : values ) {
+        rows.add( new Object[] { value, other } );
+      }
+    }
+    for ( int function : FUNCTIONS ) {
+      for ( double value : values ) {
+        assertSameResults( new Condition( "amount", function, null,
+          new ValueMetaAndData( new ValueMetaNumber( "constant" ), value ) ), rowMeta, rows );
+      }
+      assertSameResults( new Condition( "amount", function, "other", null ), rowMeta, rows );
+    }
+  }
+
+  @Test
+  public void testNullsAsNotZeroIsReadForEveryEvaluation() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows();
+    Condition condition = new Condition( "amount", Condition.FUNC_SMALLER_EQUAL, null,
+      new ValueMetaAndData( new ValueMetaNumber( "constant" ), 0.0 ) );
+    CompiledCondition compiled = condition.compile( rowMeta );
+    Object[] nullRow = rows.get( 4 );
+    try {
+      System.setProperty( Const.KETTLE_FILTER_TREAT_NULLS_AS_NOT_ZERO, "N" );
+      assertTrue( compiled.evaluate( nullRow ) );
+      assertSameResults( condition, rowMeta, rows );
+
+      System.setProperty( Const.KETTLE_FILTER_TREAT_NULLS_AS_NOT_ZERO, "Y" );
+      assertFalse( compiled.evaluate( nullRow ) );
+      assertSameResults( condition, rowMeta, rows );
+    } finally {
+      System.clearProperty( Const.KETTLE_FILTER_TREAT_NULLS_AS_NOT_ZERO );
+    }
+  }
+
+  @Test
+  public void testUnknownLeftFieldIsFalse() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    Condition condition = new Condition( true, "unknown", Condition.FUNC_NULL, null, null );
+    assertFalse( condition.compile( rowMeta ).evaluate( createRows().get( 0 ) ) );
+  }
+
+  @Test
+  public void testNativeComparisonIsSpecialized() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    Condition condition = new Condition( "id", Condition.FUNC_LARGER_EQUAL, null,
+      new ValueMetaAndData( new ValueMetaInteger( "constant" ), 10L ) );
+    CompiledCondition compiled = condition.compile( rowMeta );
+    assertEquals( 1, compiled.getNrSpecialized() );
+    assertEquals( 0, compiled.getNrInterpreted() );
+    assertTrue( compiled.evaluate( createRows().get( 1 ) ) );
+    assertFalse( compiled.evaluate( createRows().get( 4 ) ) );
+  }
+}
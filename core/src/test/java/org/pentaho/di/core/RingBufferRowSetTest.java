@@ -0,0 +1,211 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test class for the lock-free single producer, single consumer row set.
+ */
+public class RingBufferRowSetTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private RowMetaInterface createRowMetaInterface() {
+    RowMetaInterface rm = new RowMeta();
+    rm.addValueMeta( new ValueMetaInteger( "ROWNR" ) );
+    return rm;
+  }
+
+  @Test
+  public void testBasicCreation() {
+    RowSet set = new RingBufferRowSet( 10 );
+
+    assertFalse( set.isDone() );
+    assertEquals( 0, set.size() );
+    assertEquals( 10, ( (RingBufferRowSet) set ).getCapacity() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testInvalidSize() {
+    new RingBufferRowSet( 0 );
+  }
+
+  @Test
+  public void testFifoAndWrapAround() {
+    RowSet set = new RingBufferRowSet( 3 );
+    RowMetaInterface rm = createRowMetaInterface();
+
+    for ( long i = 0; i < 10; i++ ) {
+      assertTrue( set.putRow( rm, new Object[] { i } ) );
+      assertTrue( set.putRow( rm, new Object[] { i + 100 } ) );
+      assertEquals( 2, set.size() );
+
+      assertEquals( i, set.getRow()[0] );
+      assertEquals( i + 100, set.getRowImmediate()[0] );
+      assertEquals( 0, set.size() );
+    }
+    assertSame( rm, set.getRowMeta() );
+  }
+
+  @Test
+  public void testFullAndEmptyTimeOut() {
+    RowSet set = new RingBufferRowSet( 2 );
+    RowMetaInterface rm = createRowMetaInterface();
+
+    assertNull( set.getRowImmediate() );
+    assertNull( set.getRowWait( 1, TimeUnit.MILLISECONDS ) );
+
+    assertTrue( set.putRowWait( rm, new Object[] { 1L }, 1, TimeUnit.MILLISECONDS ) );
+    assertTrue( set.putRowWait( rm, new Object[] { 2L }, 1, TimeUnit.MILLISECONDS ) );
+    assertFalse( set.putRowWait( rm, new Object[] { 3L }, 1, TimeUnit.MILLISECONDS ) );
+    assertFalse( set.putRow( rm, null ) );
+    assertEquals( 2, set.size() );
+
+    assertEquals( 1L, set.getRowImmediate()[0] );
+    assertTrue( set.putRowWait( rm, new Object[] { 3L }, 1, TimeUnit.MILLISECONDS ) );
+    assertEquals( 2L, set.getRowImmediate()[0] );
+    assertEquals( 3L, set.getRowImmediate()[0] );
+    assertNull( set.getRowImmediate() );
+  }
+
+  @Test
+  public void testClear() {
+    RowSet set = new RingBufferRowSet( 4 );
+    RowMetaInterface rm = createRowMetaInterface();
+
+    set.putRow( rm, new Object[] { 1L } );
+    set.putRow( rm, new Object[] { 2L } );
+    set.getRow();
+    set.setDone();
+
+    set.clear();
+    assertFalse( set.isDone() );
+    assertEquals( 0, set.size() );
+    assertNull( set.getRowImmediate() );
+
+    set.putRow( rm, new Object[] { 3L } );
+    assertEquals( 3L, set.getRow()[0] );
+  }
+
+  @Test
+  public void testNames() {
+    RowSet set = new RingBufferRowSet( 3 );
+
+    set.setThreadNameFromToCopy( "from", 2, "to", 3 );
+
+    assertEquals( "from", set.getOriginStepName() );
+    assertEquals( 2, set.getOriginStepCopy() );
+    assertEquals( "to", set.getDestinationStepName() );
+    assertEquals( 3, set.getDestinationStepCopy() );
+    assertEquals( "from.2 - to.3", set.getName() );
+  }
+
+  @Test
+  public void testListeners() {
+    RowSet set = new RingBufferRowSet( 2 );
+    RowMetaInterface rm = createRowMetaInterface();
+    final AtomicInteger rowsAvailable = new AtomicInteger();
+    final AtomicInteger spaceAvailable = new AtomicInteger();
+    RowSetListener listener = new RowSetListener() {
+      @Override
+      public void rowsAvailable( RowSet rowSet ) {
+        rowsAvailable.incrementAndGet();
+      }
+
+      @Override
+      public void spaceAvailable( RowSet rowSet ) {
+        spaceAvailable.incrementAndGet();
+      }
+    };
+
+    assertTrue( set.addRowSetListener( listener ) );
+    assertTrue( set.addRowSetListener( listener ) );
+
+    set.putRow( rm, new Object[] { 1L } );
+    assertEquals( 1, rowsAvailable.get() );
+    set.getRowImmediate();
+    assertEquals( 1, spaceAvailable.get() );
+    assertNull( set.getRowImmediate() );
+    assertEquals( 1, spaceAvailable.get() );
+
+    set.setDone();
+    assertEquals( 2, rowsAvailable.get() );
+
+    set.removeRowSetListener( listener );
+    set.putRow( rm, new Object[] { 2L } );
+    assertEquals( 2, rowsAvailable.get() );
+  }
+
+  /**
+   * One writer thread and one reader thread: all rows need to arrive, in order.
+   */
+  @Test( timeout = 30000 )
+  public void testProducerConsumer() throws Exception {
+    final int nrRows = 500000;
+    final RowSet set = new RingBufferRowSet( 16 );
+    final RowMetaInterface rm = createRowMetaInterface();
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    Thread producer = new Thread( () -> {
+      try {
+        for ( long i = 0; i < nrRows; i++ ) {
+          Object[] row = new Object[] { i };
+          while ( !set.putRow( rm, row ) ) {
+            // The reader is slower, try again
+          }
+        }
+        set.setDone();
+      } catch ( Throwable t ) {
+        error.set( t );
+      }
+    } );
+    producer.start();
+
+    long expected = 0;
+    while ( true ) {
+      Object[] row = set.getRow();
+      if ( row == null ) {
+        if ( set.isDone() ) {
+          row = set.getRow();
+          if ( row == null ) {
+            break;
+          }
+        } else {
+          continue;
+        }
+      }
+      assertEquals( expected++, row[0] );
+    }
+    producer.join();
+
+    assertNull( error.get() );
+    assertEquals( nrRows, expected );
+    assertEquals( 0, set.size() );
+  }
+}
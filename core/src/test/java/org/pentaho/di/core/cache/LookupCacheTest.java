@@ -0,0 +1,181 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.cache;
+
+import org.junit.Test;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LookupCacheTest {
+
+  @Test
+  public void testLruEvictsTheLeastRecentlyUsedEntry() {
+    LookupCache<String, Integer> cache =
+      LookupCache.<String, Integer>builder().policy( EvictionPolicy.LRU ).maximumRows( 2 ).build();
+    cache.put( "a", 1 );
+    cache.put( "b", 2 );
+    assertEquals( Integer.valueOf( 1 ), cache.get( "a" ) );
+    cache.put( "c", 3 );
+
+    assertEquals( 2, cache.size() );
+    assertNull( cache.get( "b" ) );
+    assertEquals( Integer.valueOf( 1 ), cache.get( "a" ) );
+    assertEquals( Integer.valueOf( 3 ), cache.get( "c" ) );
+
+    LookupCacheStatistics statistics = cache.getStatistics();
+    assertEquals( 3, statistics.getHits() );
+    assertEquals( 1, statistics.getMisses() );
+    assertEquals( 1, statistics.getEvictions() );
+    assertEquals( 0.75, statistics.getHitRatio(), 0.0 );
+  }
+
+  @Test
+  public void testByteBudget() {
+    LookupCache<Integer, byte[]> cache = LookupCache.<Integer, byte[]>builder()
+      .maximumBytes( 100 ).weigher( ( key, value ) -> value.length ).build();
+    for ( int i = 0; i < 10; i++ ) {
+      cache.put( i, new byte[ 30 ] );
+    }
+    assertEquals( 3, cache.size() );
+    assertEquals( 90, cache.getByteSize() );
+    assertEquals( 7, cache.getStatistics().getEvictions() );
+
+    // replacing a value updates the size
+    cache.put( 9, new byte[ 10 ] );
+    assertEquals( 70, cache.getByteSize() );
+
+    // an entry larger than the whole budget is not kept
+    cache.put( 100, new byte[ 200 ] );
+    assertNull( cache.get( 100 ) );
+    assertTrue( cache.getByteSize() <= 100 );
+  }
+
+  @Test( expected = IllegalStateException.class )
+  public void testByteBudgetNeedsWeigher() {
+    LookupCache.<Integer, byte[]>builder().maximumBytes( 100 ).build();
+  }
+
+  @Test
+  public void testExpireAfterWrite() {
+    AtomicLong time = new AtomicLong();
+    LookupCache<String, Integer> cache = LookupCache.<String, Integer>builder()
+      .expireAfterWrite( 10, TimeUnit.SECONDS ).ticker( time::get ).build();
+    cache.put( "a", 1 );
+    time.addAndGet( TimeUnit.SECONDS.toNanos( 5 ) );
+    assertEquals( Integer.valueOf( 1 ), cache.get( "a" ) );
+    cache.put( "b", 2 );
+    time.addAndGet( TimeUnit.SECONDS.toNanos( 5 ) );
+
+    assertNull( cache.get( "a" ) );
+    assertEquals( Integer.valueOf( 2 ), cache.get( "b" ) );
+    assertEquals( 1, cache.size() );
+    assertEquals( 1, cache.getStatistics().getExpirations() );
+  }
+
+  @Test
+  public void testRemoveExpired() {
+    AtomicLong time = new AtomicLong();
+    LookupCache<String, Integer> cache = LookupCache.<String, Integer>builder()
+      .expireAfterWrite( 10, TimeUnit.SECONDS ).ticker( time::get ).build();
+    cache.put( "a", 1 );
+    time.addAndGet( TimeUnit.SECONDS.toNanos( 5 ) );
+    cache.put( "b", 2 );
+    time.addAndGet( TimeUnit.SECONDS.toNanos( 5 ) );
+
+    assertTrue( cache.isExpired( "a" ) );
+    assertFalse( cache.isExpired( "b" ) );
+    assertFalse( cache.isExpired( "c" ) );
+    cache.removeExpired();
+
+    assertEquals( 1, cache.size() );
+    assertEquals( Integer.valueOf( 2 ), cache.get( "b" ) );
+    assertEquals( 1, cache.getStatistics().getExpirations() );
+    assertEquals( 1, cache.getStatistics().getHits() );
+    assertEquals( 0, cache.getStatistics().getMisses() );
+  }
+
+  @Test
+  public void testInvalidationTurnsTheHitIntoAMiss() {
+    LookupCache<String, Integer> cache = LookupCache.<String, Integer>builder().build();
+    cache.put( "a", 1 );
+    assertEquals( Integer.valueOf( 1 ), cache.get( "a" ) );
+    cache.getStatistics().recordInvalidation();
+
+    assertEquals( 1, cache.size() );
+    assertEquals( 0, cache.getStatistics().getHits() );
+    assertEquals( 1, cache.getStatistics().getMisses() );
+  }
+
+  @Test
+  public void testUnboundedCacheKeepsEverything() {
+    LookupCache<Integer, Integer> cache =
+      LookupCache.<Integer, Integer>builder().policy( EvictionPolicy.W_TINY_LFU ).build();
+    for ( int i = 0; i < 1000; i++ ) {
+      cache.put( i, i );
+    }
+    assertEquals( 1000, cache.size() );
+    assertEquals( 0, cache.getStatistics().getEvictions() );
+  }
+
+  @Test
+  public void testTinyLfuKeepsPopularKeysDuringAScan() {
+    int hotKeys = 100;
+    LookupCache<Integer, Integer> lru = createCache( EvictionPolicy.LRU, 200 );
+    LookupCache<Integer, Integer> tinyLfu = createCache( EvictionPolicy.W_TINY_LFU, 200 );
+
+    // every other lookup is a popular key, the others are never seen again
+    Random random = new Random( 42 );
+    int scanKey = 1000;
+    for ( int i = 0; i < 100000; i++ ) {
+      int key = i % 2 == 0 ? random.nextInt( hotKeys ) : scanKey++;
+      lookup( lru, key );
+      lookup( tinyLfu, key );
+    }
+
+    assertTrue( tinyLfu.getStatistics().getHitRatio() > lru.getStatistics().getHitRatio() );
+    assertTrue( tinyLfu.getStatistics().getHitRatio() > 0.45 );
+    assertTrue( tinyLfu.size() <= 200 );
+  }
+
+  @Test
+  public void testTinyLfuRespectsTheBudget() {
+    LookupCache<Integer, Integer> cache = createCache( EvictionPolicy.W_TINY_LFU, 50 );
+    Random random = new Random( 1 );
+    for ( int i = 0; i < 10000; i++ ) {
+      lookup( cache, random.nextInt( 500 ) );
+      assertTrue( cache.size() <= 50 );
+    }
+    LookupCacheStatistics statistics = cache.getStatistics();
+    assertEquals( 10000, statistics.getHits() + statistics.getMisses() );
+    assertEquals( statistics.getMisses() - cache.size(), statistics.getEvictions() );
+  }
+
+  private static LookupCache<Integer, Integer> createCache( EvictionPolicy policy, int maximumRows ) {
+    return LookupCache.<Integer, Integer>builder().policy( policy ).maximumRows( maximumRows ).build();
+  }
+
+  private static void lookup( LookupCache<Integer, Integer> cache, int key ) {
+    if ( cache.get( key ) == null ) {
+      cache.put( key, key );
+    }
+  }
+}
@@ -0,0 +1,146 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.hash;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaInternetAddress;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RowHashIndexTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  @SafeVarargs
+  private static RowMetaInterface rowMeta( Function<String, ValueMetaInterface>... constructors ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    for ( int i = 0; i < constructors.length; i++ ) {
+      rowMeta.addValueMeta( constructors[ i ].apply( "field" + i ) );
+    }
+    return rowMeta;
+  }
+
+  @Test
+  public void testIntegerKeys() throws KettleValueException {
+    for ( boolean pack : new boolean[] { false, true } ) {
+      RowHashIndex index = new RowHashIndex( rowMeta( ValueMetaInteger::new ), rowMeta( ValueMetaString::new ), pack );
+      for ( long i = 0; i < 10000; i++ ) {
+        assertEquals( i, index.put( new Object[] { i * 7919 }, new Object[] { "value" + i } ) );
+      }
+      index.put( new Object[] { null }, new Object[] { "null" } );
+      assertEquals( 10001, index.size() );
+
+      for ( long i = 0; i < 10000; i++ ) {
+        assertArrayEquals( new Object[] { "value" + i }, index.get( new Object[] { i * 7919 } ) );
+      }
+      assertNull( index.get( new Object[] { 1L } ) );
+      assertArrayEquals( new Object[] { "null" }, index.get( new Object[] { null } ) );
+
+      // Replaces the value of the entry
+      assertEquals( 3, index.put( new Object[] { 3L * 7919 }, new Object[] { "other" } ) );
+      assertEquals( 10001, index.size() );
+      assertArrayEquals( new Object[] { "other" }, index.getValue( 3 ) );
+    }
+  }
+
+  @Test
+  public void testCompositeKeys() throws KettleValueException {
+    RowMetaInterface keyMeta = rowMeta( ValueMetaString::new, ValueMetaNumber::new, ValueMetaDate::new );
+    RowMetaInterface valueMeta = rowMeta( ValueMetaInteger::new, ValueMetaString::new );
+    for ( boolean pack : new boolean[] { false, true } ) {
+      RowHashIndex index = new RowHashIndex( keyMeta, valueMeta, pack );
+      Map<String, Object[]> expected = new HashMap<>();
+      Random random = new Random( 42 );
+      for ( int i = 0; i < 20000; i++ ) {
+        String string = random.nextInt( 20 ) == 0 ? null : "key\u00E9\uD83D\uDE00" + random.nextInt( 5000 );
+        Double number = (double) random.nextInt( 3 );
+        Date date = new Date( 1000L * random.nextInt( 2 ) );
+        Object[] value = { (long) i, random.nextBoolean() ? null : "v" + i };
+        index.put( new Object[] { string, number, date }, value );
+        expected.put( string + "|" + number + "|" + date.getTime(), value );
+      }
+      assertEquals( expected.size(), index.size() );
+      for ( Map.Entry<String, Object[]> entry : expected.entrySet() ) {
+        String[] parts = entry.getKey().split( "\\|" );
+        Object[] key = { "null".equals( parts[ 0 ] ) ? null : parts[ 0 ], Double.valueOf( parts[ 1 ] ),
+          new Date( Long.parseLong( parts[ 2 ] ) ) };
+        assertArrayEquals( entry.getValue(), index.get( key ) );
+      }
+      assertNull( index.get( new Object[] { "key", 0.0, new Date( 0L ) } ) );
+    }
+  }
+
+  @Test
+  public void testKeysInRow() throws KettleValueException {
+    RowMetaInterface keyMeta = rowMeta( ValueMetaInteger::new, ValueMetaString::new );
+    RowHashIndex index = new RowHashIndex( keyMeta, rowMeta( ValueMetaString::new ), false );
+    index.put( new Object[] { 1L, "a" }, new Object[] { "first" } );
+    index.put( new Object[] { 1L, "b" }, new Object[] { "second" } );
+
+    RowMetaInterface rowMeta = rowMeta( ValueMetaString::new, ValueMetaString::new, ValueMetaInteger::new );
+    int[] keyIndexes = { 2, 0 };
+    assertArrayEquals( new Object[] { "second" }, index.get( rowMeta, new Object[] { "b", "x", 1L }, keyIndexes ) );
+    assertEquals( 0, index.find( rowMeta, new Object[] { "a", "x", 1L }, keyIndexes ) );
+    assertEquals( -1, index.find( rowMeta, new Object[] { "a", "x", 2L }, keyIndexes ) );
+  }
+
+  @Test
+  public void testEqualNumbers() throws KettleValueException {
+    RowMetaInterface keyMeta = rowMeta( ValueMetaNumber::new, ValueMetaBigNumber::new );
+    RowHashIndex index = new RowHashIndex( keyMeta, rowMeta( ValueMetaString::new ), false );
+    index.put( new Object[] { 0.0, new BigDecimal( "1.0" ) }, new Object[] { "zero" } );
+    assertArrayEquals( new Object[] { "zero" }, index.get( new Object[] { -0.0, new BigDecimal( "1.000" ) } ) );
+  }
+
+  @Test
+  public void testEmptyStringIsNull() throws KettleValueException {
+    RowHashIndex index = new RowHashIndex( rowMeta( ValueMetaString::new ), rowMeta( ValueMetaString::new ), false );
+    index.put( new Object[] { "" }, new Object[] { "empty" } );
+    assertArrayEquals( new Object[] { "empty" }, index.get( new Object[] { null } ) );
+  }
+
+  @Test
+  public void testIsSupported() {
+    assertTrue( RowHashIndex.isSupported( rowMeta( ValueMetaInteger::new, ValueMetaBigNumber::new ) ) );
+    assertFalse( RowHashIndex.isSupported( rowMeta( ValueMetaString::new, ValueMetaInternetAddress::new ) ) );
+    assertFalse( RowHashIndex.isSupported( new RowMeta() ) );
+  }
+
+  @Test( expected = KettleValueException.class )
+  public void testWrongKeyType() throws KettleValueException {
+    RowHashIndex index = new RowHashIndex( rowMeta( ValueMetaString::new ), rowMeta( ValueMetaString::new ), false );
+    index.put( new Object[] { 1L }, new Object[] { "value" } );
+  }
+}
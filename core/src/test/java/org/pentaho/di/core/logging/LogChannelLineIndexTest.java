@@ -0,0 +1,74 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.logging;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class LogChannelLineIndexTest {
+
+  @Test
+  public void testGetLines() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 0 );
+    for ( int nr = 1; nr <= 200; nr += 2 ) {
+      index.add( nr );
+    }
+    assertEquals( 100, index.size() );
+    assertArrayEquals( new int[] { 1, 3, 5 }, index.getLines( 0, 5, 0 ) );
+    assertArrayEquals( new int[] { 11, 13 }, index.getLines( 10, 14, 0 ) );
+    assertArrayEquals( new int[] { 197, 199 }, index.getLines( 0, 1000, 2 ) );
+    assertArrayEquals( new int[] { 7, 9 }, index.getLines( 0, 10, 2 ) );
+    assertArrayEquals( new int[ 0 ], index.getLines( 200, 1000, 0 ) );
+    assertArrayEquals( new int[ 0 ], index.getLines( 8, 8, 0 ) );
+  }
+
+  @Test
+  public void testOutOfOrder() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 0 );
+    index.add( 1 );
+    index.add( 4 );
+    index.add( 3 );
+    index.add( 5 );
+    index.add( 2 );
+    assertArrayEquals( new int[] { 1, 2, 3, 4, 5 }, index.getLines( 0, Integer.MAX_VALUE, 0 ) );
+  }
+
+  @Test
+  public void testMaxSize() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 100 );
+    for ( int nr = 1; nr <= 1000; nr++ ) {
+      index.add( nr );
+    }
+    assertEquals( 100, index.size() );
+    int[] lines = index.getLines( 0, Integer.MAX_VALUE, 0 );
+    assertEquals( 901, lines[ 0 ] );
+    assertEquals( 1000, lines[ 99 ] );
+  }
+
+  @Test
+  public void testRemoveBefore() {
+    LogChannelLineIndex index = new LogChannelLineIndex( 10 );
+    for ( int nr = 1; nr <= 15; nr++ ) {
+      index.add( nr );
+    }
+    index.removeBefore( 12 );
+    assertArrayEquals( new int[] { 12, 13, 14, 15 }, index.getLines( 0, Integer.MAX_VALUE, 0 ) );
+    index.add( 16 );
+    assertArrayEquals( new int[] { 15, 16 }, index.getLines( 15, 20, 0 ) );
+    index.removeBefore( 100 );
+    assertEquals( 0, index.size() );
+  }
+}
@@ -20,6 +20,7 @@ import org.junit.Test;
 import org.pentaho.di.core.Const;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -179,4 +180,81 @@ public class LoggingBufferTest {
     Assert.assertEquals( 10, loggingBuffer.size() );
   }
 
+  @Test
+  public void testChannelLogBufferFromTo() {
+    LoggingRegistry registry = LoggingRegistry.getInstance();
+    SimpleLoggingObject trans = new SimpleLoggingObject( "trans", LoggingObjectType.TRANS, null );
+    String transId = registry.registerLoggingSource( trans );
+    trans.setLogChannelId( transId );
+    String stepId =
+      registry.registerLoggingSource( new SimpleLoggingObject( "step", LoggingObjectType.STEP, trans ) );
+    String otherId =
+      registry.registerLoggingSource( new SimpleLoggingObject( "other", LoggingObjectType.TRANS, null ) );
+
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 100 );
+    int first = loggingBuffer.getLastBufferLineNr() + 1;
+    for ( int i = 0; i < 30; i++ ) {
+      String channelId = i % 3 == 0 ? transId : i % 3 == 1 ? stepId : otherId;
+      loggingBuffer.addLogggingEvent( new KettleLoggingEvent( new LogMessage( "line " + i, channelId,
+        LogLevel.BASIC ), i, LogLevel.BASIC ) );
+    }
+    int last = loggingBuffer.getLastBufferLineNr();
+
+    List<KettleLoggingEvent> events = loggingBuffer.getLogBufferFromTo( transId, false, first, last );
+    Assert.assertEquals( 20, events.size() );
+    Assert.assertEquals( events, loggingBuffer.getLogBufferFromTo( registry.getLogChannelChildren( transId ), false,
+      first, last ) );
+    Assert.assertEquals( 10, loggingBuffer.getLogBufferFromTo( stepId, false, first, last ).size() );
+    Assert.assertEquals( 10, loggingBuffer.getLogBufferFromTo( otherId, false, first, last ).size() );
+
+    // Only the lines after the cursor
+    List<KettleLoggingEvent> tail = loggingBuffer.getLogBufferFromTo( transId, false, last - 2, last );
+    Assert.assertEquals( 2, tail.size() );
+    Assert.assertEquals( "line 28", ( (LogMessage) tail.get( 1 ).getMessage() ).getMessage() );
+    Assert.assertEquals( 5, loggingBuffer.getLogBufferFromTo( transId, false, first, last, 5 ).size() );
+    Assert.assertTrue( loggingBuffer.getLogBufferFromTo( transId, false, last + 1, last ).isEmpty() );
+
+    // Removed lines are no longer returned
+    loggingBuffer.removeChannelFromBuffer( stepId );
+    Assert.assertEquals( 10, loggingBuffer.getLogBufferFromTo( transId, false, first, last ).size() );
+    Assert.assertTrue( loggingBuffer.getLogBufferFromTo( stepId, false, first, last ).isEmpty() );
+
+    registry.removeIncludingChildren( transId );
+    registry.removeIncludingChildren( otherId );
+  }
+
+  @Test
+  public void testChannelLinesWithConcurrentAppends() throws Exception {
+    LoggingRegistry registry = LoggingRegistry.getInstance();
+    SimpleLoggingObject trans = new SimpleLoggingObject( "trans", LoggingObjectType.TRANS, null );
+    String transId = registry.registerLoggingSource( trans );
+    trans.setLogChannelId( transId );
+    String stepId =
+      registry.registerLoggingSource( new SimpleLoggingObject( "step", LoggingObjectType.STEP, trans ) );
+
+    LoggingBuffer loggingBuffer = new LoggingBuffer( 50 );
+    int first = loggingBuffer.getLastBufferLineNr() + 1;
+    Thread[] threads = new Thread[ 4 ];
+    for ( int t = 0; t < threads.length; t++ ) {
+      threads[ t ] = new Thread( () -> {
+        for ( int i = 0; i < 1000; i++ ) {
+          loggingBuffer.addLogggingEvent( new KettleLoggingEvent( new LogMessage( "line " + i, stepId,
+            LogLevel.BASIC ), i, LogLevel.BASIC ) );
+        }
+      } );
+      threads[ t ].start();
+    }
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+    int last = loggingBuffer.getLastBufferLineNr();
+
+    // Every line still in the buffer is found through the index of the step and the one of its parent
+    Assert.assertEquals( 50, loggingBuffer.size() );
+    Assert.assertEquals( 50, loggingBuffer.getLogBufferFromTo( stepId, false, first, last ).size() );
+    Assert.assertEquals( 50, loggingBuffer.getLogBufferFromTo( transId, false, first, last ).size() );
+
+    registry.removeIncludingChildren( transId );
+  }
+
 }
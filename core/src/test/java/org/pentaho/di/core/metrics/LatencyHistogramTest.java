@@ -0,0 +1,60 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void testBucketsAreContiguous() {
+    for ( long value = 0; value < 100000; value++ ) {
+      int index = LatencyHistogram.indexOf( value );
+      assertTrue( LatencyHistogram.lowerBoundOf( index ) <= value );
+      assertTrue( LatencyHistogram.lowerBoundOf( index + 1 ) > value );
+    }
+    assertEquals( Long.MAX_VALUE, LatencyHistogram.lowerBoundOf( LatencyHistogram.indexOf( Long.MAX_VALUE ) + 1 ) );
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals( 0, histogram.getValueAtPercentile( 99 ) );
+    for ( int value = 1; value <= 1000; value++ ) {
+      histogram.record( value );
+    }
+    assertEquals( 1000, histogram.getCount() );
+    assertEquals( 1000, histogram.getMaximum() );
+    assertWithinError( 500, histogram.getValueAtPercentile( 50 ) );
+    assertWithinError( 990, histogram.getValueAtPercentile( 99 ) );
+    assertEquals( 1000, histogram.getValueAtPercentile( 100 ) );
+    assertEquals( 1, histogram.getValueAtPercentile( 0 ) );
+  }
+
+  @Test
+  public void testNegativeValuesCountAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record( -5 );
+    assertEquals( 1, histogram.getCount() );
+    assertEquals( 0, histogram.getValueAtPercentile( 50 ) );
+  }
+
+  private static void assertWithinError( long expected, long actual ) {
+    assertTrue( "expected about " + expected + " but was " + actual,
+      actual >= expected && actual <= expected + expected / 8 );
+  }
+}
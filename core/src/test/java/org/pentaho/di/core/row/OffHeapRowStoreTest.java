@@ -0,0 +1,142 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row;
+
+import java.util.Date;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OffHeapRowStoreTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    return rowMeta;
+  }
+
+  @Test
+  public void testAddAndGetRows() throws Exception {
+    // A budget of one page: the rest is mapped from a temporary file
+    try ( OffHeapRowStore store = new OffHeapRowStore( createRowMeta(), OffHeapRowStore.PAGE_SIZE ) ) {
+      long[] addresses = new long[ 200000 ];
+      for ( int i = 0; i < addresses.length; i++ ) {
+        addresses[ i ] = store.addRow( new Object[] { (long) i, i % 10 == 0 ? null : "name " + i, new Date( i ) } );
+      }
+      assertEquals( addresses.length, store.size() );
+      assertEquals( OffHeapRowStore.PAGE_SIZE, store.getDirectBytes() );
+      assertTrue( store.getMappedBytes() > 0 );
+
+      for ( int i = 0; i < addresses.length; i++ ) {
+        Object[] row = store.getRow( addresses[ i ] );
+        assertEquals( (long) i, row[ 0 ] );
+        assertEquals( i % 10 == 0 ? null : "name " + i, row[ 1 ] );
+        assertEquals( new Date( i ), row[ 2 ] );
+        assertEquals( addresses[ i ], store.getAddress( i ) );
+      }
+    }
+  }
+
+  @Test
+  public void testHashIndex() throws Exception {
+    try ( OffHeapRowStore store = new OffHeapRowStore( createRowMeta(), 64L * 1024 * 1024 ) ) {
+      OffHeapRowStore.HashIndex index = store.createHashIndex( new int[] { 1, 0 } );
+      for ( long i = 0; i < 10000; i++ ) {
+        index.put( new Object[] { i % 100, "name " + ( i / 100 ), new Date( i ) } );
+      }
+      assertEquals( 10000, index.size() );
+      assertEquals( new Date( 4321 ), index.get( new Object[] { "name 43", 21L } )[ 2 ] );
+      assertNull( index.get( new Object[] { "name 43", 121L } ) );
+
+      // The last row with a key wins
+      index.put( new Object[] { 21L, "name 43", new Date( 0 ) } );
+      assertEquals( 10000, index.size() );
+      assertEquals( new Date( 0 ), index.get( new Object[] { "name 43", 21L } )[ 2 ] );
+
+      assertFalse( index.putIfAbsent( new Object[] { 21L, "name 43", new Date( 1 ) } ) );
+      assertTrue( index.putIfAbsent( new Object[] { 21L, null, new Date( 1 ) } ) );
+      assertEquals( new Date( 1 ), index.get( new Object[] { null, 21L } )[ 2 ] );
+      assertEquals( 10002, store.size() );
+    }
+  }
+
+  @Test
+  public void testSortedIndex() throws Exception {
+    try ( OffHeapRowStore store = new OffHeapRowStore( createRowMeta(), 64L * 1024 * 1024 ) ) {
+      for ( long i = 0; i < 1000; i++ ) {
+        store.addRow( new Object[] { ( i * 7919 ) % 1000, "name " + i, null } );
+      }
+      OffHeapRowStore.SortedIndex index = store.createSortedIndex( new int[] { 0 } );
+      assertEquals( 1000, index.size() );
+      for ( int i = 0; i < 1000; i++ ) {
+        assertEquals( (long) i, index.getRow( i )[ 0 ] );
+      }
+      assertEquals( 500, index.lowerBound( new Object[] { 500L } ) );
+      assertEquals( 1000, index.lowerBound( new Object[] { 5000L } ) );
+      assertEquals( 7L, index.get( new Object[] { 7L } )[ 0 ] );
+      assertNull( index.get( new Object[] { -7L } ) );
+    }
+  }
+
+  @Test
+  public void testSortedIndexOverSeveralChunks() throws Exception {
+    int nrRows = 2 * OffHeapRowStore.SORT_CHUNK_SIZE + 1000;
+    try ( OffHeapRowStore store = new OffHeapRowStore( createRowMeta(), 64L * 1024 * 1024 ) ) {
+      for ( int i = 0; i < nrRows; i++ ) {
+        // Every key twice, in the order of the names
+        store.addRow( new Object[] { (long) ( ( i * 7919L ) % ( nrRows / 2 ) ), "name " + i, null } );
+      }
+      OffHeapRowStore.SortedIndex index = store.createSortedIndex( new int[] { 0 } );
+      assertEquals( nrRows, index.size() );
+      Object[] previous = index.getRow( 0 );
+      for ( int i = 1; i < nrRows; i++ ) {
+        Object[] row = index.getRow( i );
+        assertTrue( (long) previous[ 0 ] <= (long) row[ 0 ] );
+        if ( previous[ 0 ].equals( row[ 0 ] ) ) {
+          // Rows with the same key stay in the order they were added
+          assertTrue( Integer.parseInt( ( (String) previous[ 1 ] ).substring( 5 ) )
+            < Integer.parseInt( ( (String) row[ 1 ] ).substring( 5 ) ) );
+        }
+        previous = row;
+      }
+      assertEquals( 1000L, index.get( new Object[] { 1000L } )[ 0 ] );
+    }
+  }
+
+  @Test
+  public void testClose() throws Exception {
+    OffHeapRowStore store = new OffHeapRowStore( createRowMeta(), OffHeapRowStore.PAGE_SIZE );
+    for ( int i = 0; i < 200000; i++ ) {
+      store.addRow( new Object[] { (long) i, "name " + i, null } );
+    }
+    store.close();
+    assertEquals( 0, store.size() );
+    assertEquals( 0, store.getDirectBytes() );
+    assertEquals( 0, store.getMappedBytes() );
+    // Closing twice is fine
+    store.close();
+  }
+}
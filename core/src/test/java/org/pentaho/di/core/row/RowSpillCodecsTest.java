@@ -0,0 +1,185 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+package org.pentaho.di.core.row;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBinary;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.row.value.ValueMetaTimestamp;
+import org.pentaho.di.junit.rules.RestorePDIEnvironment;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RowSpillCodecsTest {
+  @ClassRule public static RestorePDIEnvironment env = new RestorePDIEnvironment();
+
+  private RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaString( "string" ) );
+    rowMeta.addValueMeta( new ValueMetaInteger( "integer" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "number" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "date" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "boolean" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "bignumber" ) );
+    rowMeta.addValueMeta( new ValueMetaBinary( "binary" ) );
+    rowMeta.addValueMeta( new ValueMetaTimestamp( "timestamp" ) );
+    return rowMeta;
+  }
+
+  private List<Object[]> createRows( int nrRows ) {
+    Random random = new Random( 42 );
+    String[] words = { "", "alpha", "alphabet", "beta", "\uD83D\uDE00 smile", "\uD83D\uDE01 grin" };
+    List<Object[]> rows = new ArrayList<>();
+    long key = 0;
+    for ( int i = 0; i < nrRows; i++ ) {
+      key += random.nextInt( 100 ) - 20;
+      Timestamp timestamp = new Timestamp( 1600000000000L + random.nextInt() );
+      timestamp.setNanos( random.nextInt( 1000000000 ) );
+      rows.add( new Object[] {
+        random.nextInt( 10 ) == 0 ? null : words[ random.nextInt( words.length ) ] + ( i / 7 ),
+        random.nextInt( 9 ) == 0 ? null : random.nextBoolean() ? key : key * ( Long.MAX_VALUE / 1000 ),
+        random.nextInt( 8 ) == 0 ? null : random.nextGaussian(),
+        random.nextInt( 7 ) == 0 ? null : new Date( 1600000000000L + random.nextInt() ),
+        random.nextInt( 6 ) == 0 ? null : random.nextBoolean(),
+        random.nextInt( 5 ) == 0 ? null : new BigDecimal( random.nextLong() ).movePointLeft( random.nextInt( 40 ) - 20 ),
+        random.nextInt( 4 ) == 0 ? null : new byte[] { (byte) i, (byte) ( i >> 8 ) },
+        random.nextInt( 3 ) == 0 ? null : timestamp, } );
+    }
+    return rows;
+  }
+
+  private byte[] write( RowSpillCodec codec, RowMetaInterface rowMeta, List<Object[]> rows ) throws Exception {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    try ( RowSpillWriter writer = codec.createWriter( rowMeta, outputStream ) ) {
+      for ( Object[] row : rows ) {
+        writer.writeRow( row );
+      }
+    }
+    return outputStream.toByteArray();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> allRows = createRows( 10000 );
+
+    for ( String code : RowSpillCodecs.getCodes() ) {
+      RowSpillCodec codec = RowSpillCodecs.getCodec( code );
+      for ( int nrRows : new int[] { 0, 1, BlockRowSpillCodec.BLOCK_ROWS, BlockRowSpillCodec.BLOCK_ROWS + 1, 10000 } ) {
+        List<Object[]> rows = allRows.subList( 0, nrRows );
+        byte[] file = write( codec, rowMeta, rows );
+
+        try ( RowSpillReader reader = codec.createReader( rowMeta, new ByteArrayInputStream( file ) ) ) {
+          for ( int i = 0; i < nrRows; i++ ) {
+            Object[] row = reader.readRow();
+            assertEquals( code + " row " + i, rowMeta.size(), row.length );
+            assertTrue( code + " row " + i, Arrays.deepEquals( rows.get( i ), row ) );
+          }
+          assertNull( reader.readRow() );
+          assertNull( reader.readRow() );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testBlockIsSmaller() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    List<Object[]> rows = createRows( 10000 );
+
+    int none = write( RowSpillCodecs.getCodec( RowSpillCodecs.NONE ), rowMeta, rows ).length;
+    int block = write( RowSpillCodecs.getCodec( RowSpillCodecs.BLOCK ), rowMeta, rows ).length;
+    int lz4 = write( RowSpillCodecs.getCodec( RowSpillCodecs.BLOCK_LZ4 ), rowMeta, rows ).length;
+    assertTrue( block < none );
+    assertTrue( lz4 < block );
+  }
+
+  @Test
+  public void testRowsWithoutFields() throws Exception {
+    RowMetaInterface rowMeta = new RowMeta();
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < 5000; i++ ) {
+      rows.add( new Object[ 0 ] );
+    }
+    for ( String code : RowSpillCodecs.getCodes() ) {
+      RowSpillCodec codec = RowSpillCodecs.getCodec( code );
+      byte[] file = write( codec, rowMeta, rows );
+      int nrRows = 0;
+      try ( RowSpillReader reader = codec.createReader( rowMeta, new ByteArrayInputStream( file ) ) ) {
+        while ( reader.readRow() != null ) {
+          nrRows++;
+        }
+      }
+      assertEquals( code, rows.size(), nrRows );
+    }
+  }
+
+  @Test
+  public void testGetCodec() {
+    assertEquals( RowSpillCodecs.BLOCK_LZ4, RowSpillCodecs.getCodec( " block_lz4 " ).getCode() );
+    assertEquals( RowSpillCodecs.GZIP, RowSpillCodecs.getCodec( "", true ).getCode() );
+    assertEquals( RowSpillCodecs.NONE, RowSpillCodecs.getCodec( null, false ).getCode() );
+    assertEquals( RowSpillCodecs.BLOCK, RowSpillCodecs.getCodec( "Block", true ).getCode() );
+    assertNull( RowSpillCodecs.getCodec( "unknown" ) );
+  }
+
+  @Test
+  public void testLZ4() throws Exception {
+    Random random = new Random( 7 );
+    LZ4BlockCompressor compressor = new LZ4BlockCompressor();
+    for ( int t = 0; t < 200; t++ ) {
+      byte[] data = new byte[ random.nextInt( 100000 ) ];
+      for ( int i = 0; i < data.length; i++ ) {
+        // Mix of random bytes and repeats of recent bytes
+        data[ i ] = i > 16 && random.nextInt( 4 ) > 0 ? data[ i - 1 - random.nextInt( 16 ) ] : (byte) random.nextInt();
+      }
+      byte[] compressed = new byte[ LZ4BlockCompressor.maxCompressedLength( data.length ) ];
+      int length = compressor.compress( data, data.length, compressed );
+
+      byte[] decompressed = new byte[ data.length ];
+      LZ4BlockCompressor.decompress( compressed, length, decompressed, data.length );
+      assertArrayEquals( data, decompressed );
+    }
+
+    byte[] data = "hello hello hello hello hello hello".getBytes();
+    byte[] compressed = new byte[ LZ4BlockCompressor.maxCompressedLength( data.length ) ];
+    int length = compressor.compress( data, data.length, compressed );
+    try {
+      LZ4BlockCompressor.decompress( compressed, length - 3, new byte[ data.length ], data.length );
+      fail( "Truncated block should fail" );
+    } catch ( IOException e ) {
+      // expected
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import org.junit.Test;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DateMaskConverterTest {
+
+  private static SimpleDateFormat format( String mask, String timeZone, boolean lenient ) {
+    SimpleDateFormat format = new SimpleDateFormat( mask, Locale.US );
+    format.setTimeZone( TimeZone.getTimeZone( timeZone ) );
+    format.setLenient( lenient );
+    return format;
+  }
+
+  private static void assertParsesLike( SimpleDateFormat format, String string ) {
+    DateMaskConverter converter = DateMaskConverter.getInstance( format );
+    ParsePosition expectedPosition = new ParsePosition( 0 );
+    ParsePosition actualPosition = new ParsePosition( 0 );
+    Date expected = ( (SimpleDateFormat) format.clone() ).parse( string, expectedPosition );
+    Date actual = converter.parse( string, actualPosition );
+    assertEquals( string, expected, actual );
+    assertEquals( string, expectedPosition.getIndex(), actualPosition.getIndex() );
+    assertEquals( string, expectedPosition.getErrorIndex(), actualPosition.getErrorIndex() );
+  }
+
+  @Test
+  public void testSharedPerFormat() {
+    SimpleDateFormat format = format( "yyyy/MM/dd HH:mm:ss.SSS", "UTC", false );
+    assertSame( DateMaskConverter.getInstance( format ),
+      DateMaskConverter.getInstance( (SimpleDateFormat) format.clone() ) );
+    assertNotSame( DateMaskConverter.getInstance( format ),
+      DateMaskConverter.getInstance( format( "yyyy/MM/dd HH:mm:ss.SSS", "UTC", true ) ) );
+  }
+
+  @Test
+  public void testFastPathOnlyForFixedWidthMasks() {
+    assertTrue( DateMaskConverter.getInstance( format( "yyyy/MM/dd HH:mm:ss.SSS", "UTC", false ) ).hasFastPath() );
+    assertTrue( DateMaskConverter.getInstance( format( "yyyyMMdd", "Europe/Brussels", true ) ).hasFastPath() );
+    assertFalse( DateMaskConverter.getInstance( format( "dd MMM yyyy", "UTC", false ) ).hasFastPath() );
+    assertFalse( DateMaskConverter.getInstance( format( "yyyy-MM-dd'T'HH:mm", "UTC", false ) ).hasFastPath() );
+  }
+
+  @Test
+  public void testParseLikeSimpleDateFormat() {
+    String[] zones = { "UTC", "Europe/Brussels", "America/New_York" };
+    String[] values = {
+      "2024/03/31 02:30:00.000", "2024/03/10 02:30:00.000", "2024/10/27 02:30:00.000", "2024/11/03 01:30:00.000",
+      "2024/02/29 23:59:59.999", "2023/02/29 12:00:00.000", "2024/13/01 00:00:00.000", "2024/01/01 24:00:00.000",
+      "1599/12/31 00:00:00.000", "2024/01/01 00:00:00.000x", "2024/01/01 00:00:00", "2024-01-01 00:00:00.000",
+      "2024/01/01 00:0a:00.000", "",
+    };
+    for ( String zone : zones ) {
+      for ( boolean lenient : new boolean[] { false, true } ) {
+        SimpleDateFormat format = format( "yyyy/MM/dd HH:mm:ss.SSS", zone, lenient );
+        for ( String value : values ) {
+          assertParsesLike( format, value );
+        }
+      }
+    }
+    assertParsesLike( format( "yyyyMMdd", "Europe/Brussels", false ), "20240229" );
+    assertParsesLike( format( "yyyyMMdd", "Europe/Brussels", true ), "20240230" );
+  }
+
+  @Test
+  public void testFormatLikeSimpleDateFormat() {
+    long[] times = { 0L, -1L, 1711846800000L, 1730000000123L, -12219292800000L, 253402300799999L };
+    for ( String zone : new String[] { "UTC", "Europe/Brussels", "Asia/Kolkata" } ) {
+      SimpleDateFormat format = format( "yyyy/MM/dd HH:mm:ss.SSS", zone, false );
+      DateMaskConverter converter = DateMaskConverter.getInstance( format );
+      for ( long time : times ) {
+        assertEquals( format.format( new Date( time ) ), converter.format( new Date( time ) ) );
+      }
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.core.row.value;
+
+import org.junit.Test;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParsePosition;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class NumberMaskConverterTest {
+
+  private static DecimalFormat format( String mask, Locale locale ) {
+    return new DecimalFormat( mask, DecimalFormatSymbols.getInstance( locale ) );
+  }
+
+  private static void assertParsesLike( DecimalFormat format, String string ) {
+    NumberMaskConverter converter = NumberMaskConverter.getInstance( format );
+    ParsePosition expectedPosition = new ParsePosition( 0 );
+    ParsePosition actualPosition = new ParsePosition( 0 );
+    Number expected = ( (DecimalFormat) format.clone() ).parse( string, expectedPosition );
+    Number actual = converter.parse( string, actualPosition );
+    assertEquals( string, expected, actual );
+    assertEquals( string, expectedPosition.getIndex(), actualPosition.getIndex() );
+    assertEquals( string, expectedPosition.getErrorIndex(), actualPosition.getErrorIndex() );
+  }
+
+  @Test
+  public void testFastPathDetection() {
+    assertTrue( NumberMaskConverter.getInstance( format( "#.#", Locale.US ) ).hasFastParse() );
+    assertTrue( NumberMaskConverter.getInstance( format( "#.#", Locale.GERMANY ) ).hasFastParse() );
+    assertFalse( NumberMaskConverter.getInstance( format( "#%", Locale.US ) ).hasFastParse() );
+    assertFalse( NumberMaskConverter.getInstance( format( "0.###E0", Locale.US ) ).hasFastParse() );
+    assertTrue( NumberMaskConverter.getInstance( format( "####################0", Locale.US ) )
+      .hasFastIntegerFormat() );
+    assertFalse( NumberMaskConverter.getInstance( format( "#,##0", Locale.US ) ).hasFastIntegerFormat() );
+  }
+
+  @Test
+  public void testParseLikeDecimalFormat() {
+    String[] values = {
+      "0", "1", "-1", "1.0", "1.5", "-0", "-0.0", "0.25", "123456789012345678", "1234567890123456789",
+      "99999999999999999999", "1,000", "1.000,5", "1e5", "1.", ".5", "-", "", "12a", "1.2.3", "--1",
+      "9223372036854775807", "-9223372036854775808",
+    };
+    for ( Locale locale : new Locale[] { Locale.US, Locale.GERMANY, Locale.FRANCE } ) {
+      for ( String mask : new String[] { "#.#", "###############0.00", "#,##0.###" } ) {
+        DecimalFormat format = format( mask, locale );
+        for ( String value : values ) {
+          assertParsesLike( format, value );
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testFormatLikeDecimalFormat() {
+    long[] values = { 0L, 1L, -1L, 1234567L, Long.MAX_VALUE, Long.MIN_VALUE };
+    for ( String mask : new String[] { "####################0", "####################0.###", "#,##0", "000" } ) {
+      DecimalFormat format = format( mask, Locale.US );
+      NumberMaskConverter converter = NumberMaskConverter.getInstance( format );
+      for ( long value : values ) {
+        assertEquals( format.format( value ), converter.format( value ) );
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.Main;
+import org.pentaho.di.version.BuildVersion;
+
+/**
+ * Runs the JMH benchmarks of this module. It takes the regular JMH command line options (-h lists them). Unless
+ * other options are given, the results are written as JSON to jmh-result-[version].json. This way the results of
+ * different releases can be kept side by side and compared.
+ *
+ * @since 11.0
+ */
+public class BenchmarkRunner {
+
+  public static void main( String[] args ) throws Exception {
+    List<String> arguments = new ArrayList<>( Arrays.asList( args ) );
+    if ( !arguments.contains( "-rf" ) ) {
+      arguments.add( "-rf" );
+      arguments.add( "json" );
+    }
+    if ( !arguments.contains( "-rff" ) ) {
+      arguments.add( "-rff" );
+      arguments.add( "jmh-result-" + BuildVersion.getInstance().getVersion() + "." + resultExtension( arguments ) );
+    }
+    Main.main( arguments.toArray( new String[ 0 ] ) );
+  }
+
+  private static String resultExtension( List<String> arguments ) {
+    int format = arguments.indexOf( "-rf" );
+    return format + 1 < arguments.size() ? arguments.get( format + 1 ).toLowerCase() : "json";
+  }
+}
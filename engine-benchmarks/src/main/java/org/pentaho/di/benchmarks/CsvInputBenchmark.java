@@ -0,0 +1,149 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.csvinput.CsvInputMeta;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.textfileinput.TextFileInputField;
+
+/**
+ * Reads a generated CSV file with CSV Input, with lazy conversion, into a dummy step. The file is written once per
+ * trial in the temporary directory and removed afterwards. The default size is small enough for a quick run, use
+ * <code>-p sizeMb=10240</code> for the 10GB scan.
+ *
+ * @since 11.0
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 2 )
+@Measurement( iterations = 5 )
+@Fork( 1 )
+public class CsvInputBenchmark {
+
+  @Param( "64" )
+  public long sizeMb;
+
+  @Param( { "false", "true" } )
+  public boolean memoryMapped;
+
+  @Param( { "ISO-8859-1", "UTF-16LE" } )
+  public String encoding;
+
+  @Param( "50000" )
+  public String bufferSize;
+
+  private File file;
+  private TransMeta transMeta;
+
+  @Setup
+  public void setUp() throws IOException, KettleException {
+    KettleEnvironment.init();
+    file = File.createTempFile( "csv-input-benchmark", ".csv" );
+    writeFile();
+    transMeta = createTransformation();
+  }
+
+  @TearDown
+  public void tearDown() {
+    if ( file != null ) {
+      file.delete();
+    }
+  }
+
+  private void writeFile() throws IOException {
+    Random random = new Random( 42 );
+    long size = sizeMb * 1024 * 1024;
+    int width = "\n".getBytes( encoding ).length;
+    long written = 0;
+    StringBuilder line = new StringBuilder();
+    try ( Writer writer =
+            new BufferedWriter( new OutputStreamWriter( new FileOutputStream( file ), encoding ), 1024 * 1024 ) ) {
+      writer.write( "id,name,amount,date\n" );
+      while ( written < size ) {
+        line.setLength( 0 );
+        line.append( random.nextInt( 1000000 ) ).append( ',' )
+          .append( "\"customer " ).append( random.nextInt( 100000 ) ).append( "\"," )
+          .append( random.nextInt( 100000 ) / 100.0 ).append( ',' )
+          .append( "2024/01/" ).append( 10 + random.nextInt( 18 ) ).append( '\n' );
+        writer.append( line );
+        written += (long) line.length() * width;
+      }
+    }
+  }
+
+  private TransMeta createTransformation() {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "csv input" );
+
+    CsvInputMeta csvInput = new CsvInputMeta();
+    csvInput.setDefault();
+    csvInput.setFilename( file.getAbsolutePath() );
+    csvInput.setDelimiter( "," );
+    csvInput.setEnclosure( "\"" );
+    csvInput.setHeaderPresent( true );
+    csvInput.setLazyConversionActive( true );
+    csvInput.setBufferSize( bufferSize );
+    csvInput.setEncoding( encoding );
+    csvInput.setMemoryMapped( memoryMapped );
+    csvInput.setInputFields( new TextFileInputField[] {
+      field( "id", ValueMetaInterface.TYPE_INTEGER, "#" ),
+      field( "name", ValueMetaInterface.TYPE_STRING, null ),
+      field( "amount", ValueMetaInterface.TYPE_NUMBER, "#.#" ),
+      field( "date", ValueMetaInterface.TYPE_DATE, "yyyy/MM/dd" ) } );
+    StepMeta step = Transformations.addStep( transMeta, null, "csv input", csvInput );
+
+    Transformations.addStep( transMeta, step, Transformations.OUTPUT, new DummyTransMeta() );
+    return transMeta;
+  }
+
+  private static TextFileInputField field( String name, int type, String format ) {
+    TextFileInputField field = new TextFileInputField( name, -1, -1 );
+    field.setType( type );
+    field.setFormat( format );
+    field.setTrimType( ValueMetaInterface.TRIM_TYPE_NONE );
+    return field;
+  }
+
+  @Benchmark
+  public long read() throws KettleException {
+    return Transformations.run( transMeta );
+  }
+}
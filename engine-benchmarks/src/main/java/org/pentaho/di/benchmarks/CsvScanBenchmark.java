@@ -0,0 +1,135 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.trans.steps.csvinput.SwarByteScanner;
+
+/**
+ * Finding the delimiters and line ends in a buffer of CSV data, the inner loop of CSV Input: testing byte by byte
+ * against scanning eight bytes at a time with {@link SwarByteScanner}. Both count the same positions.<br>
+ * <br>
+ * For UTF-16 the byte by byte scan compares every two byte character, the SWAR scan looks for the byte of the
+ * delimiter and line end that isn't zero and then checks the other byte and the alignment. CSV Input only uses the
+ * SWAR scan for single byte encodings, this shows what it would bring for UTF-16.
+ *
+ * @since 11.0
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CsvScanBenchmark {
+
+  @Param( { "ISO-8859-1", "UTF-16LE" } )
+  public String encoding;
+
+  /** The size of the CSV Input read buffer */
+  @Param( "50000" )
+  public int bufferSize;
+
+  private byte[] buffer;
+  private byte[] delimiter;
+  private byte[] lineEnd;
+  private int width;
+  private SwarByteScanner scanner;
+
+  @Setup
+  public void setUp() {
+    Charset charset = Charset.forName( encoding );
+    StringBuilder csv = new StringBuilder();
+    Random random = new Random( 42 );
+    while ( csv.length() < bufferSize ) {
+      csv.append( random.nextInt( 1000000 ) ).append( ',' )
+        .append( "customer name " ).append( random.nextInt( 100000 ) ).append( ',' )
+        .append( random.nextInt( 100000 ) / 100.0 ).append( ',' )
+        .append( "2024/01/" ).append( 10 + random.nextInt( 18 ) ).append( '\n' );
+    }
+    buffer = csv.toString().getBytes( charset );
+    delimiter = ",".getBytes( charset );
+    lineEnd = "\n".getBytes( charset );
+    width = delimiter.length;
+
+    // for UTF-16 look for the byte that is not zero, in little endian that is the first one
+    scanner = new SwarByteScanner( delimiter[ 0 ], lineEnd[ 0 ] );
+  }
+
+  @Benchmark
+  public int byteByByte() {
+    int count = 0;
+    if ( width == 1 ) {
+      byte d = delimiter[ 0 ];
+      byte l = lineEnd[ 0 ];
+      for ( byte b : buffer ) {
+        if ( b == d || b == l ) {
+          count++;
+        }
+      }
+    } else {
+      for ( int i = 0; i + width <= buffer.length; i += width ) {
+        if ( matches( delimiter, i ) || matches( lineEnd, i ) ) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+
+  @Benchmark
+  public int swar() {
+    int count = 0;
+    int index = 0;
+    int end = buffer.length;
+    while ( ( index = scanner.indexOf( buffer, index, end ) ) < end ) {
+      if ( width == 1 ) {
+        count++;
+        index++;
+      } else if ( index % width == 0 && ( matches( delimiter, index ) || matches( lineEnd, index ) ) ) {
+        count++;
+        index += width;
+      } else {
+        index++;
+      }
+    }
+    return count;
+  }
+
+  private boolean matches( byte[] value, int index ) {
+    if ( index + value.length > buffer.length ) {
+      return false;
+    }
+    for ( int i = 0; i < value.length; i++ ) {
+      if ( buffer[ index + i ] != value[ i ] ) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,148 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBigNumber;
+import org.pentaho.di.core.row.value.ValueMetaBoolean;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Serialization, comparison and hashing of rows through {@link RowMeta}, as used by sorting, grouping, lookups and
+ * remote steps. Each operation handles one row out of a set of random rows with a typical mix of data types.
+ *
+ * @since 11.0
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RowMetaBenchmark {
+  private static final int NR_ROWS = 1024;
+
+  private RowMetaInterface rowMeta;
+  private Object[][] rows;
+  private int[] keyNrs;
+  private int index;
+
+  private ByteArrayOutputStream bytes;
+  private DataOutputStream output;
+  private ByteArrayInputStream serialized;
+  private DataInputStream input;
+
+  @Setup
+  public void setUp() throws Exception {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "amount" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "created" ) );
+    rowMeta.addValueMeta( new ValueMetaBoolean( "active" ) );
+    rowMeta.addValueMeta( new ValueMetaBigNumber( "balance" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "city" ) );
+    keyNrs = new int[] { 6, 1 };
+
+    Random random = new Random( 42 );
+    rows = new Object[ NR_ROWS ][];
+    for ( int i = 0; i < NR_ROWS; i++ ) {
+      rows[ i ] = new Object[] {
+        (long) random.nextInt( 1000000 ),
+        "customer " + random.nextInt( 100000 ),
+        random.nextDouble() * 10000,
+        new Date( 1500000000000L + random.nextInt( Integer.MAX_VALUE ) * 1000L ),
+        random.nextBoolean(),
+        BigDecimal.valueOf( random.nextLong() % 100000000L, 2 ),
+        // a few nulls, like in real data
+        random.nextInt( 10 ) == 0 ? null : "city " + random.nextInt( 100 ) };
+    }
+
+    bytes = new ByteArrayOutputStream( 1024 * 1024 );
+    output = new DataOutputStream( bytes );
+    for ( Object[] row : rows ) {
+      rowMeta.writeData( output, row );
+    }
+    output.flush();
+    serialized = new ByteArrayInputStream( bytes.toByteArray() );
+    input = new DataInputStream( serialized );
+  }
+
+  private Object[] nextRow() {
+    index = ( index + 1 ) & ( NR_ROWS - 1 );
+    return rows[ index ];
+  }
+
+  @Benchmark
+  public int writeData() throws Exception {
+    if ( bytes.size() > 512 * 1024 ) {
+      bytes.reset();
+    }
+    rowMeta.writeData( output, nextRow() );
+    return bytes.size();
+  }
+
+  @Benchmark
+  public Object[] readData() throws Exception {
+    if ( serialized.available() == 0 ) {
+      serialized.reset();
+    }
+    return rowMeta.readData( input );
+  }
+
+  @Benchmark
+  public int compare() throws Exception {
+    Object[] row = nextRow();
+    return rowMeta.compare( row, rows[ ( index * 31 ) & ( NR_ROWS - 1 ) ] );
+  }
+
+  @Benchmark
+  public int compareKeys() throws Exception {
+    Object[] row = nextRow();
+    return rowMeta.compare( row, rows[ ( index * 31 ) & ( NR_ROWS - 1 ) ], keyNrs );
+  }
+
+  @Benchmark
+  public int hashCodeOfRow() throws Exception {
+    return rowMeta.hashCode( nextRow() );
+  }
+
+  @Benchmark
+  public int convertedValuesHashCode() throws Exception {
+    return rowMeta.convertedValuesHashCode( nextRow() );
+  }
+}
@@ -0,0 +1,181 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.BlockingBatchingRowSet;
+import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.RingBufferRowSet;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * Row throughput of the row set implementations between step copies. Every row set has one writing and one reading
+ * thread, like a hop in a running transformation:
+ * <ul>
+ * <li>oneToOne: a step copy writing to a single next step copy</li>
+ * <li>oneToMany: a step copy distributing its rows round robin over 3 copies of the next step</li>
+ * <li>manyToOne: 3 step copies writing to a single copy of the next step, which reads them round robin</li>
+ * </ul>
+ * The writers and readers give up after a millisecond of waiting so that no thread hangs at the end of an iteration.
+ *
+ * @since 11.0
+ */
+@State( Scope.Group )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class RowSetBenchmark {
+  private static final int NR_COPIES = 3;
+  private static final long TIMEOUT = 1;
+
+  @Param( { "BlockingRowSet", "RingBufferRowSet", "BlockingBatchingRowSet" } )
+  public String rowSetType;
+
+  /** The default row set size of a transformation */
+  @Param( "10000" )
+  public int rowSetSize;
+
+  private RowMetaInterface rowMeta;
+  private Object[] row;
+
+  private RowSet oneToOne;
+  private RowSet[] oneToMany;
+  private RowSet[] manyToOne;
+
+  /** Hands out the row sets of the oneToMany and manyToOne groups to their threads */
+  private final AtomicInteger oneToManyReaders = new AtomicInteger();
+  private final AtomicInteger manyToOneWriters = new AtomicInteger();
+
+  /**
+   * The row set(s) of a single thread in a group.
+   */
+  @State( Scope.Thread )
+  public static class Copy {
+    int rowSetNr = -1;
+    int next;
+  }
+
+  @Setup( Level.Trial )
+  public void setUpRows() {
+    rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    row = new Object[] { 42L, "some name" };
+  }
+
+  @Setup( Level.Iteration )
+  public void setUpRowSets() {
+    oneToOne = createRowSet();
+    oneToMany = new RowSet[ NR_COPIES ];
+    manyToOne = new RowSet[ NR_COPIES ];
+    for ( int i = 0; i < NR_COPIES; i++ ) {
+      oneToMany[ i ] = createRowSet();
+      manyToOne[ i ] = createRowSet();
+    }
+  }
+
+  private RowSet createRowSet() {
+    switch ( rowSetType ) {
+      case "RingBufferRowSet":
+        return new RingBufferRowSet( rowSetSize );
+      case "BlockingBatchingRowSet":
+        return new BlockingBatchingRowSet( rowSetSize );
+      default:
+        return new BlockingRowSet( rowSetSize );
+    }
+  }
+
+  private static int rowSetNr( Copy copy, AtomicInteger threads ) {
+    if ( copy.rowSetNr < 0 ) {
+      copy.rowSetNr = threads.getAndIncrement() % NR_COPIES;
+    }
+    return copy.rowSetNr;
+  }
+
+  @Benchmark
+  @Group( "oneToOne" )
+  @GroupThreads( 1 )
+  public boolean oneToOneWrite() {
+    return oneToOne.putRowWait( rowMeta, row, TIMEOUT, TimeUnit.MILLISECONDS );
+  }
+
+  @Benchmark
+  @Group( "oneToOne" )
+  @GroupThreads( 1 )
+  public Object[] oneToOneRead() {
+    return oneToOne.getRowWait( TIMEOUT, TimeUnit.MILLISECONDS );
+  }
+
+  @Benchmark
+  @Group( "oneToMany" )
+  @GroupThreads( 1 )
+  public boolean oneToManyWrite( Copy copy ) {
+    RowSet rowSet = oneToMany[ copy.next ];
+    copy.next = ( copy.next + 1 ) % NR_COPIES;
+    return rowSet.putRowWait( rowMeta, row, TIMEOUT, TimeUnit.MILLISECONDS );
+  }
+
+  @Benchmark
+  @Group( "oneToMany" )
+  @GroupThreads( NR_COPIES )
+  public Object[] oneToManyRead( Copy copy ) {
+    return oneToMany[ rowSetNr( copy, oneToManyReaders ) ].getRowWait( TIMEOUT, TimeUnit.MILLISECONDS );
+  }
+
+  @Benchmark
+  @Group( "manyToOne" )
+  @GroupThreads( NR_COPIES )
+  public boolean manyToOneWrite( Copy copy ) {
+    return manyToOne[ rowSetNr( copy, manyToOneWriters ) ].putRowWait(
+      rowMeta, row, TIMEOUT, TimeUnit.MILLISECONDS );
+  }
+
+  @Benchmark
+  @Group( "manyToOne" )
+  @GroupThreads( 1 )
+  public Object[] manyToOneRead( Copy copy ) {
+    // Like BaseStep.getRow(): take what is available from the next row set, only wait when they are all empty
+    for ( int i = 0; i < NR_COPIES; i++ ) {
+      RowSet rowSet = manyToOne[ copy.next ];
+      copy.next = ( copy.next + 1 ) % NR_COPIES;
+      Object[] rowData = rowSet.getRowImmediate();
+      if ( rowData != null ) {
+        return rowData;
+      }
+    }
+    return manyToOne[ copy.next ].getRowWait( TIMEOUT, TimeUnit.MILLISECONDS );
+  }
+}
@@ -0,0 +1,193 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.trans.steps.sort.RowLoserTree;
+
+/**
+ * The merge phase of the Sort Rows step: the old sorted list frontier (binary search and insert for every row) against
+ * the {@link RowLoserTree}, for 50, 200 and 1000 spill files. The sorted runs are generated on the fly so only the
+ * cost of picking the next row is measured, not the disk I/O. It also compares the sequential and the parallel sort
+ * of an in-memory buffer.
+ *
+ * @since 11.0
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 1 )
+public class SortRowsMergeBenchmark {
+
+  private static final Comparator<Object[]> COMPARATOR = ( a, b ) -> Long.compare( (Long) a[0], (Long) b[0] );
+
+  /**
+   * The spill files to merge.
+   */
+  @State( Scope.Thread )
+  public static class Merge {
+    @Param( { "50", "200", "1000" } )
+    public int nrFiles;
+
+    @Param( "1000000" )
+    public long totalRows;
+  }
+
+  /**
+   * The in-memory buffer to sort, copied before every sort.
+   */
+  @State( Scope.Thread )
+  public static class Buffer {
+    /** The default sort size of Sort Rows */
+    @Param( "1000000" )
+    public int bufferRows;
+
+    private Object[][] rows;
+    private Object[][] copy;
+
+    @Setup( Level.Trial )
+    public void setUpRows() {
+      Random random = new Random( 123 );
+      rows = new Object[ bufferRows ][];
+      for ( int i = 0; i < bufferRows; i++ ) {
+        rows[ i ] = new Object[] { random.nextLong() };
+      }
+    }
+
+    @Setup( Level.Invocation )
+    public void setUpCopy() {
+      copy = rows.clone();
+    }
+  }
+
+  /**
+   * A sorted run of rows with random gaps between the keys, like a spilled temp file.
+   */
+  private static class Run {
+    private final Random random;
+    private long remaining;
+    private long key;
+
+    Run( long nrRows, long seed ) {
+      this.random = new Random( seed );
+      this.remaining = nrRows;
+    }
+
+    Object[] next() {
+      if ( remaining-- <= 0 ) {
+        return null;
+      }
+      key += random.nextInt( 1000 );
+      return new Object[] { key };
+    }
+  }
+
+  private static Run[] createRuns( Merge merge ) {
+    Run[] runs = new Run[ merge.nrFiles ];
+    for ( int i = 0; i < merge.nrFiles; i++ ) {
+      runs[ i ] = new Run( merge.totalRows / merge.nrFiles, i );
+    }
+    return runs;
+  }
+
+  private static final class Head {
+    final Object[] row;
+    final int run;
+
+    Head( Object[] row, int run ) {
+      this.row = row;
+      this.run = run;
+    }
+  }
+
+  /**
+   * The merge as it was done before: a sorted list of the current row of every run.
+   */
+  @Benchmark
+  public long mergeSortedList( Merge merge ) {
+    Run[] runs = createRuns( merge );
+    Comparator<Head> comparator = ( a, b ) -> COMPARATOR.compare( a.row, b.row );
+    List<Head> heads = new ArrayList<>();
+    for ( int i = 0; i < runs.length; i++ ) {
+      Object[] row = runs[ i ].next();
+      if ( row != null ) {
+        heads.add( new Head( row, i ) );
+      }
+    }
+    Collections.sort( heads, comparator );
+
+    long checksum = 0;
+    while ( !heads.isEmpty() ) {
+      Head head = heads.remove( 0 );
+      checksum += (Long) head.row[0];
+      Object[] row = runs[ head.run ].next();
+      if ( row != null ) {
+        Head extra = new Head( row, head.run );
+        int index = Collections.binarySearch( heads, extra, comparator );
+        heads.add( index < 0 ? -index - 1 : index, extra );
+      }
+    }
+    return checksum;
+  }
+
+  @Benchmark
+  public long mergeLoserTree( Merge merge ) {
+    Run[] runs = createRuns( merge );
+    Object[][] heads = new Object[ runs.length ][];
+    for ( int i = 0; i < runs.length; i++ ) {
+      heads[ i ] = runs[ i ].next();
+    }
+    RowLoserTree tree = new RowLoserTree( heads, COMPARATOR );
+
+    long checksum = 0;
+    for ( int winner = tree.getWinner(); winner >= 0; winner = tree.getWinner() ) {
+      checksum += (Long) tree.getWinnerRow()[0];
+      tree.replaceWinner( runs[ winner ].next() );
+    }
+    return checksum;
+  }
+
+  @Benchmark
+  public Object[][] sortSequential( Buffer buffer ) {
+    Arrays.sort( buffer.copy, COMPARATOR );
+    return buffer.copy;
+  }
+
+  @Benchmark
+  public Object[][] sortParallel( Buffer buffer ) {
+    Arrays.parallelSort( buffer.copy, COMPARATOR );
+    return buffer.copy;
+  }
+}
@@ -0,0 +1,158 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.Condition;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.ValueMetaAndData;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.calculator.CalculatorMeta;
+import org.pentaho.di.trans.steps.calculator.CalculatorMetaFunction;
+import org.pentaho.di.trans.steps.dummytrans.DummyTransMeta;
+import org.pentaho.di.trans.steps.filterrows.FilterRowsMeta;
+import org.pentaho.di.trans.steps.groupby.GroupByMeta;
+import org.pentaho.di.trans.steps.randomvalue.RandomValueMeta;
+import org.pentaho.di.trans.steps.rowgenerator.RowGeneratorMeta;
+import org.pentaho.di.trans.steps.sort.SortRowsMeta;
+
+/**
+ * Complete transformations run through {@link org.pentaho.di.trans.Trans}, including the getRow() and putRow() of
+ * every step and the row sets between them:
+ * <ul>
+ * <li>pipeline: generate rows, add a random value, calculate, filter, sort and group by</li>
+ * <li>hops: generate rows and pass them through a chain of dummy steps, mostly getRow() and putRow()</li>
+ * </ul>
+ *
+ * @since 11.0
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 5 )
+@Measurement( iterations = 5, time = 5 )
+@Fork( 1 )
+public class TransformationBenchmark {
+
+  @Param( "1000000" )
+  public int rows;
+
+  private TransMeta pipeline;
+  private TransMeta hops;
+
+  @Setup
+  public void setUp() throws KettleException {
+    KettleEnvironment.init();
+    pipeline = createPipeline();
+    hops = createHops();
+  }
+
+  private StepMeta addGenerator( TransMeta transMeta ) {
+    RowGeneratorMeta generator = new RowGeneratorMeta();
+    generator.setDefault();
+    generator.allocate( 2 );
+    generator.setFieldName( new String[] { "groups", "name" } );
+    generator.setFieldType( new String[] { "Integer", "String" } );
+    generator.setValue( new String[] { "1000", "some name" } );
+    generator.setFieldLength( new int[] { -1, -1 } );
+    generator.setFieldPrecision( new int[] { -1, -1 } );
+    generator.setRowLimit( String.valueOf( rows ) );
+    return Transformations.addStep( transMeta, null, "generate", generator );
+  }
+
+  private TransMeta createPipeline() throws KettleException {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "pipeline" );
+    StepMeta step = addGenerator( transMeta );
+
+    RandomValueMeta random = new RandomValueMeta();
+    random.allocate( 1 );
+    random.setFieldName( new String[] { "random" } );
+    random.setFieldType( new int[] { RandomValueMeta.TYPE_RANDOM_INTEGER } );
+    step = Transformations.addStep( transMeta, step, "random", random );
+
+    CalculatorMeta calculator = new CalculatorMeta();
+    calculator.setCalculation( new CalculatorMetaFunction[] {
+      new CalculatorMetaFunction( "key", CalculatorMetaFunction.CALC_REMAINDER, "random", "groups", null,
+        ValueMetaInterface.TYPE_INTEGER, -1, -1, false, null, null, null, null ),
+      new CalculatorMetaFunction( "amount", CalculatorMetaFunction.CALC_ADD, "random", "groups", null,
+        ValueMetaInterface.TYPE_NUMBER, -1, -1, false, null, null, null, null ) } );
+    step = Transformations.addStep( transMeta, step, "calculate", calculator );
+
+    FilterRowsMeta filter = new FilterRowsMeta();
+    filter.setDefault();
+    filter.setCondition( new Condition( "key", Condition.FUNC_LARGER, null, new ValueMetaAndData( "zero", 0L ) ) );
+    step = Transformations.addStep( transMeta, step, "filter", filter );
+
+    SortRowsMeta sort = new SortRowsMeta();
+    sort.setDefault();
+    sort.allocate( 1 );
+    sort.setFieldName( new String[] { "key" } );
+    sort.setAscending( new boolean[] { true } );
+    sort.setCaseSensitive( new boolean[] { true } );
+    sort.setCollatorEnabled( new boolean[] { false } );
+    sort.setCollatorStrength( new int[] { 0 } );
+    sort.setPreSortedField( new boolean[] { false } );
+    step = Transformations.addStep( transMeta, step, "sort", sort );
+
+    GroupByMeta groupBy = new GroupByMeta();
+    groupBy.setDefault();
+    groupBy.allocate( 1, 2 );
+    groupBy.setGroupField( new String[] { "key" } );
+    groupBy.setAggregateField( new String[] { "total", "count" } );
+    groupBy.setSubjectField( new String[] { "amount", "amount" } );
+    groupBy.setAggregateType( new int[] { GroupByMeta.TYPE_GROUP_SUM, GroupByMeta.TYPE_GROUP_COUNT_ALL } );
+    groupBy.setValueField( new String[] { null, null } );
+    step = Transformations.addStep( transMeta, step, "group by", groupBy );
+
+    Transformations.addStep( transMeta, step, Transformations.OUTPUT, new DummyTransMeta() );
+    return transMeta;
+  }
+
+  private TransMeta createHops() {
+    TransMeta transMeta = new TransMeta();
+    transMeta.setName( "hops" );
+    StepMeta step = addGenerator( transMeta );
+    for ( int i = 1; i <= 4; i++ ) {
+      step = Transformations.addStep( transMeta, step, "dummy " + i, new DummyTransMeta() );
+    }
+    Transformations.addStep( transMeta, step, Transformations.OUTPUT, new DummyTransMeta() );
+    return transMeta;
+  }
+
+  @Benchmark
+  public long pipeline() throws KettleException {
+    return Transformations.run( pipeline );
+  }
+
+  @Benchmark
+  public long hops() throws KettleException {
+    return Transformations.run( hops );
+  }
+}
@@ -0,0 +1,63 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.plugins.PluginRegistry;
+import org.pentaho.di.core.plugins.StepPluginType;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransHopMeta;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.step.StepMetaInterface;
+
+/**
+ * Builds and runs the transformations of the benchmarks in process.
+ *
+ * @since 11.0
+ */
+class Transformations {
+  static final String OUTPUT = "output";
+
+  private Transformations() {
+  }
+
+  /**
+   * Adds a step after the previous one, which can be null for the first step.
+   */
+  static StepMeta addStep( TransMeta transMeta, StepMeta previous, String name, StepMetaInterface meta ) {
+    StepMeta stepMeta =
+      new StepMeta( PluginRegistry.getInstance().getPluginId( StepPluginType.class, meta ), name, meta );
+    transMeta.addStep( stepMeta );
+    if ( previous != null ) {
+      transMeta.addTransHop( new TransHopMeta( previous, stepMeta ) );
+    }
+    return stepMeta;
+  }
+
+  /**
+   * Runs a transformation to the end.
+   *
+   * @return the number of rows that reached the step called {@link #OUTPUT}
+   */
+  static long run( TransMeta transMeta ) throws KettleException {
+    Trans trans = new Trans( transMeta );
+    trans.execute( null );
+    trans.waitUntilFinished();
+    if ( trans.getErrors() > 0 ) {
+      throw new KettleException( "Transformation " + transMeta.getName() + " finished with errors" );
+    }
+    return trans.findRunThread( OUTPUT ).getLinesRead();
+  }
+}
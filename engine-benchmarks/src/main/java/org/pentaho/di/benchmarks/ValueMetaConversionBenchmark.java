@@ -0,0 +1,178 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.benchmarks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaFactory;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+/**
+ * The data conversions of ValueMetaBase every text input and output step goes through: strings to and from dates,
+ * numbers and integers with conversion masks, and the lazy conversion of binary strings as read by CSV Input.
+ *
+ * @since 11.0
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ValueMetaConversionBenchmark {
+  private static final int NR_VALUES = 1024;
+
+  private static final String DATE_MASK = "yyyy/MM/dd HH:mm:ss.SSS";
+  private static final String NUMBER_MASK = "#,##0.00";
+
+  private ValueMetaInterface dateMeta;
+  private ValueMetaInterface dateStringMeta;
+  private ValueMetaInterface numberMeta;
+  private ValueMetaInterface numberStringMeta;
+  private ValueMetaInterface integerStringMeta;
+  private ValueMetaInterface lazyStringMeta;
+  private ValueMetaInterface lazyIntegerMeta;
+  private ValueMetaInterface lazyDateMeta;
+
+  private Date[] dates;
+  private String[] dateStrings;
+  private Double[] numbers;
+  private String[] numberStrings;
+  private String[] integerStrings;
+  private byte[][] binaryStrings;
+  private byte[][] binaryIntegers;
+  private byte[][] binaryDates;
+  private int index;
+
+  @Setup
+  public void setUp() throws KettleException {
+    // the value meta plugins are needed to clone a value as a string
+    KettleClientEnvironment.init();
+
+    dateMeta = new ValueMetaDate( "date" );
+    dateMeta.setConversionMask( DATE_MASK );
+    dateStringMeta = new ValueMetaString( "date" );
+    dateStringMeta.setConversionMask( DATE_MASK );
+    numberMeta = new ValueMetaNumber( "number" );
+    numberMeta.setConversionMask( NUMBER_MASK );
+    numberMeta.setDecimalSymbol( "." );
+    numberMeta.setGroupingSymbol( "," );
+    numberStringMeta = new ValueMetaString( "number" );
+    numberStringMeta.setConversionMask( NUMBER_MASK );
+    numberStringMeta.setDecimalSymbol( "." );
+    numberStringMeta.setGroupingSymbol( "," );
+    integerStringMeta = new ValueMetaString( "integer" );
+    lazyStringMeta = lazy( new ValueMetaString( "string" ) );
+    lazyIntegerMeta = lazy( new ValueMetaInteger( "integer" ) );
+    lazyDateMeta = lazy( dateMeta.clone() );
+
+    Random random = new Random( 42 );
+    dates = new Date[ NR_VALUES ];
+    dateStrings = new String[ NR_VALUES ];
+    numbers = new Double[ NR_VALUES ];
+    numberStrings = new String[ NR_VALUES ];
+    integerStrings = new String[ NR_VALUES ];
+    binaryStrings = new byte[ NR_VALUES ][];
+    binaryIntegers = new byte[ NR_VALUES ][];
+    binaryDates = new byte[ NR_VALUES ][];
+    for ( int i = 0; i < NR_VALUES; i++ ) {
+      dates[ i ] = new Date( 1500000000000L + random.nextInt( Integer.MAX_VALUE ) * 1000L );
+      dateStrings[ i ] = dateMeta.getString( dates[ i ] );
+      numbers[ i ] = random.nextDouble() * 1000000;
+      numberStrings[ i ] = numberMeta.getString( numbers[ i ] );
+      integerStrings[ i ] = String.valueOf( random.nextInt() );
+      binaryStrings[ i ] = ( "some text " + i ).getBytes( StandardCharsets.UTF_8 );
+      binaryIntegers[ i ] = integerStrings[ i ].getBytes( StandardCharsets.UTF_8 );
+      binaryDates[ i ] = dateStrings[ i ].getBytes( StandardCharsets.UTF_8 );
+    }
+  }
+
+  /**
+   * Sets up a value the way CSV Input does with lazy conversion: stored as the bytes read from the file and converted
+   * through a string copy of itself.
+   */
+  private static ValueMetaInterface lazy( ValueMetaInterface valueMeta ) throws KettleException {
+    valueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_BINARY_STRING );
+    valueMeta.setStringEncoding( "UTF-8" );
+    ValueMetaInterface storageMetadata = ValueMetaFactory.cloneValueMeta( valueMeta, ValueMetaInterface.TYPE_STRING );
+    storageMetadata.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+    storageMetadata.setLength( -1, -1 );
+    valueMeta.setStorageMetadata( storageMetadata );
+    return valueMeta;
+  }
+
+  private int next() {
+    index = ( index + 1 ) & ( NR_VALUES - 1 );
+    return index;
+  }
+
+  @Benchmark
+  public String dateToString() throws KettleException {
+    return dateMeta.getString( dates[ next() ] );
+  }
+
+  @Benchmark
+  public Date stringToDate() throws KettleException {
+    return dateStringMeta.getDate( dateStrings[ next() ] );
+  }
+
+  @Benchmark
+  public String numberToString() throws KettleException {
+    return numberMeta.getString( numbers[ next() ] );
+  }
+
+  @Benchmark
+  public Double stringToNumber() throws KettleException {
+    return numberStringMeta.getNumber( numberStrings[ next() ] );
+  }
+
+  @Benchmark
+  public Long stringToInteger() throws KettleException {
+    return integerStringMeta.getInteger( integerStrings[ next() ] );
+  }
+
+  @Benchmark
+  public String lazyBinaryToString() throws KettleException {
+    return lazyStringMeta.getString( binaryStrings[ next() ] );
+  }
+
+  @Benchmark
+  public Long lazyBinaryToInteger() throws KettleException {
+    return lazyIntegerMeta.getInteger( binaryIntegers[ next() ] );
+  }
+
+  @Benchmark
+  public Date lazyBinaryToDate() throws KettleException {
+    return lazyDateMeta.getDate( binaryDates[ next() ] );
+  }
+}
@@ -79,6 +79,9 @@ public class ClusterSchema extends ChangedFlag implements Cloneable, SharedObjec
   /** flag to compress data over the sockets or not */
   private boolean socketsCompressed;
 
+  /** The wire format of the sockets, see RemoteStepCodec. Empty means the classic (GZIP) row stream. */
+  private String socketsCodec;
+
   /**
    * Flag to indicate that this cluster schema is dynamic.<br>
    * This means that the slave server configuration is taken from one of the defined master servers.<br>
@@ -125,6 +128,7 @@ public class ClusterSchema extends ChangedFlag implements Cloneable, SharedObjec
     this.basePort = clusterSchema.basePort;
     this.socketsBufferSize = clusterSchema.socketsBufferSize;
     this.socketsCompressed = clusterSchema.socketsCompressed;
+    this.socketsCodec = clusterSchema.socketsCodec;
     this.socketsFlushInterval = clusterSchema.socketsFlushInterval;
     this.dynamic = clusterSchema.dynamic;
 
@@ -161,6 +165,7 @@ public class ClusterSchema extends ChangedFlag implements Cloneable, SharedObjec
     xml.append( "        " ).append( XMLHandler.addTagValue( "sockets_buffer_size", socketsBufferSize ) );
     xml.append( "        " ).append( XMLHandler.addTagValue( "sockets_flush_interval", socketsFlushInterval ) );
     xml.append( "        " ).append( XMLHandler.addTagValue( "sockets_compressed", socketsCompressed ) );
+    xml.append( "        " ).append( XMLHandler.addTagValue( "sockets_codec", socketsCodec ) );
     xml.append( "        " ).append( XMLHandler.addTagValue( "dynamic", dynamic ) );
     appendObjectId( xml );
 
@@ -182,6 +187,7 @@ public class ClusterSchema extends ChangedFlag implements Cloneable, SharedObjec
     socketsBufferSize = XMLHandler.getTagValue( clusterSchemaNode, "sockets_buffer_size" );
     socketsFlushInterval = XMLHandler.getTagValue( clusterSchemaNode, "sockets_flush_interval" );
     socketsCompressed = "Y".equalsIgnoreCase( XMLHandler.getTagValue( clusterSchemaNode, "sockets_compressed" ) );
+    socketsCodec = XMLHandler.getTagValue( clusterSchemaNode, "sockets_codec" );
     dynamic = "Y".equalsIgnoreCase( XMLHandler.getTagValue( clusterSchemaNode, "dynamic" ) );
 
     readObjectId( clusterSchemaNode );
@@ -340,6 +346,21 @@ public class ClusterSchema extends ChangedFlag implements Cloneable, SharedObjec
     this.socketsCompressed = socketsCompressed;
   }
 
+  /**
+   * @return the code of the wire format used by the sockets, empty for the classic (GZIP) row stream
+   */
+  public String getSocketsCodec() {
+    return socketsCodec;
+  }
+
+  /**
+   * @param socketsCodec
+   *          the code of the wire format to use for the sockets: gzip, none, snappy, deflate or lz4
+   */
+  public void setSocketsCodec( String socketsCodec ) {
+    this.socketsCodec = socketsCodec;
+  }
+
   public SlaveServer findSlaveServer( String slaveServerName ) {
     for ( int i = 0; i < slaveServers.size(); i++ ) {
       SlaveServer slaveServer = slaveServers.get( i );
@@ -49,7 +49,9 @@ public class PerformanceLogTable extends BaseLogTable implements Cloneable, LogT
       "STEPNAME" ), STEP_COPY( "STEP_COPY" ), LINES_READ( "LINES_READ" ), LINES_WRITTEN( "LINES_WRITTEN" ),
       LINES_UPDATED( "LINES_UPDATED" ), LINES_INPUT( "LINES_INPUT" ), LINES_OUTPUT( "LINES_OUTPUT" ),
       LINES_REJECTED( "LINES_REJECTED" ), ERRORS( "ERRORS" ), INPUT_BUFFER_ROWS( "INPUT_BUFFER_ROWS" ),
-      OUTPUT_BUFFER_ROWS( "OUTPUT_BUFFER_ROWS" );
+      OUTPUT_BUFFER_ROWS( "OUTPUT_BUFFER_ROWS" ), PROCESS_TIME( "PROCESS_TIME" ), INPUT_WAIT_TIME(
+      "INPUT_WAIT_TIME" ), OUTPUT_WAIT_TIME( "OUTPUT_WAIT_TIME" ), CPU_TIME( "CPU_TIME" ), ALLOCATED_BYTES(
+      "ALLOCATED_BYTES" );
 
     private String id;
 
@@ -151,6 +153,11 @@ public class PerformanceLogTable extends BaseLogTable implements Cloneable, LogT
     table.fields.add( new LogTableField( ID.ERRORS.id, true, false, "ERRORS", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.Errors" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.Errors" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
     table.fields.add( new LogTableField( ID.INPUT_BUFFER_ROWS.id, true, false, "INPUT_BUFFER_ROWS", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.InputBufferRows" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.InputBufferRows" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
     table.fields.add( new LogTableField( ID.OUTPUT_BUFFER_ROWS.id, true, false, "OUTPUT_BUFFER_ROWS", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.OutputBufferRows" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.OutputBufferRows" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
+    table.fields.add( new LogTableField( ID.PROCESS_TIME.id, false, false, "PROCESS_TIME", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.ProcessTime" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.ProcessTime" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
+    table.fields.add( new LogTableField( ID.INPUT_WAIT_TIME.id, false, false, "INPUT_WAIT_TIME", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.InputWaitTime" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.InputWaitTime" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
+    table.fields.add( new LogTableField( ID.OUTPUT_WAIT_TIME.id, false, false, "OUTPUT_WAIT_TIME", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.OutputWaitTime" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.OutputWaitTime" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
+    table.fields.add( new LogTableField( ID.CPU_TIME.id, false, false, "CPU_TIME", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.CpuTime" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.CpuTime" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
+    table.fields.add( new LogTableField( ID.ALLOCATED_BYTES.id, false, false, "ALLOCATED_BYTES", BaseMessages.getString( PKG, "PerformanceLogTable.FieldName.AllocatedBytes" ), BaseMessages.getString( PKG, "PerformanceLogTable.FieldDescription.AllocatedBytes" ), ValueMetaInterface.TYPE_INTEGER, 18 ) );
 
     table.findField( ID.ID_BATCH.id ).setKey( true );
     table.findField( ID.LOGDATE.id ).setLogDateField( true );
@@ -246,6 +253,21 @@ public class PerformanceLogTable extends BaseLogTable implements Cloneable, LogT
               case OUTPUT_BUFFER_ROWS:
                 value = new Long( snapShot.getOutputBufferSize() );
                 break;
+              case PROCESS_TIME:
+                value = snapShot.getProcessTime();
+                break;
+              case INPUT_WAIT_TIME:
+                value = snapShot.getInputWaitTime();
+                break;
+              case OUTPUT_WAIT_TIME:
+                value = snapShot.getOutputWaitTime();
+                break;
+              case CPU_TIME:
+                value = snapShot.getCpuTime() < 0 ? null : snapShot.getCpuTime();
+                break;
+              case ALLOCATED_BYTES:
+                value = snapShot.getAllocatedBytes() < 0 ? null : snapShot.getAllocatedBytes();
+                break;
               default:
                 break;
             }
@@ -1064,9 +1064,13 @@ public class JobEntryTrans extends JobEntryBase implements Cloneable, JobEntryIn
           // Now start the monitoring...
           //
           SlaveServerTransStatus transStatus = null;
+          int startLogLineNr = 0;
           while ( !parentJob.isStopped() && waitingToFinish ) {
             try {
-              transStatus = remoteSlaveServer.getTransStatus( transMeta.getName(), carteObjectId, 0 );
+              // Only the log lines after the last poll are needed to check on the status
+              //
+              transStatus = remoteSlaveServer.getTransStatus( transMeta.getName(), carteObjectId, startLogLineNr );
+              startLogLineNr = transStatus.getLastLoggingLineNr() + 1;
               if ( !transStatus.isRunning() ) {
                 // The transformation is finished, get the result...
                 //
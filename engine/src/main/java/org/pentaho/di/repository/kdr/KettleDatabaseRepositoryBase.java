@@ -322,6 +322,7 @@ public abstract class KettleDatabaseRepositoryBase extends AbstractRepository {
   public static final String FIELD_CLUSTER_SOCKETS_FLUSH_INTERVAL = "SOCKETS_FLUSH_INTERVAL";
   public static final String FIELD_CLUSTER_SOCKETS_COMPRESSED = "SOCKETS_COMPRESSED";
   public static final String FIELD_CLUSTER_DYNAMIC = "DYNAMIC_CLUSTER";
+  public static final String FIELD_CLUSTER_SOCKETS_CODEC = "SOCKETS_CODEC";
 
   public static final String TABLE_R_SLAVE = "R_SLAVE";
   public static final String FIELD_SLAVE_ID_SLAVE = "ID_SLAVE";
@@ -436,6 +437,8 @@ public abstract class KettleDatabaseRepositoryBase extends AbstractRepository {
   public static final String TRANS_ATTRIBUTE_LOG_SIZE_LIMIT = "LOG_SIZE_LIMIT";
   public static final String TRANS_ATTRIBUTE_LOG_INTERVAL = "LOG_INTERVAL";
   public static final String TRANS_ATTRIBUTE_TRANSFORMATION_TYPE = "TRANSFORMATION_TYPE";
+  public static final String TRANS_ATTRIBUTE_ROW_WAIT_MODE = "ROW_WAIT_MODE";
+  public static final String TRANS_ATTRIBUTE_STEP_THREAD_MODE = "STEP_THREAD_MODE";
   public static final String TRANS_ATTRIBUTE_SLEEP_TIME_EMPTY = "SLEEP_TIME_EMPTY";
   public static final String TRANS_ATTRIBUTE_SLEEP_TIME_FULL = "SLEEP_TIME_FULL";
   public static final String TRANS_ATTRIBUTE_DATA_SERVICE_NAME = "DATA_SERVICE_NAME";
@@ -1145,6 +1145,9 @@ public class KettleDatabaseRepositoryCreationHelper {
       KettleDatabaseRepository.FIELD_CLUSTER_SOCKETS_COMPRESSED, 0, 0 ) );
     table.addValueMeta( new ValueMetaBoolean(
       KettleDatabaseRepository.FIELD_CLUSTER_DYNAMIC, 0, 0 ) );
+    table.addValueMeta( new ValueMetaString(
+      KettleDatabaseRepository.FIELD_CLUSTER_SOCKETS_CODEC,
+      KettleDatabaseRepository.REP_STRING_CODE_LENGTH, 0 ) );
     sql =
       database
         .getDDL( schemaTable, table, null, false, KettleDatabaseRepository.FIELD_CLUSTER_ID_CLUSTER, false );
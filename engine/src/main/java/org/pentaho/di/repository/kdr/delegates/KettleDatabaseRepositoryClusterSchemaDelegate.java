@@ -63,6 +63,7 @@ public class KettleDatabaseRepositoryClusterSchemaDelegate extends KettleDatabas
     clusterSchema.setSocketsCompressed( row.getBoolean(
       KettleDatabaseRepository.FIELD_CLUSTER_SOCKETS_COMPRESSED, true ) );
     clusterSchema.setDynamic( row.getBoolean( KettleDatabaseRepository.FIELD_CLUSTER_DYNAMIC, true ) );
+    clusterSchema.setSocketsCodec( row.getString( KettleDatabaseRepository.FIELD_CLUSTER_SOCKETS_CODEC, null ) );
 
     ObjectId[] pids = repository.getClusterSlaveIDs( id_cluster_schema );
     for ( int i = 0; i < pids.length; i++ ) {
@@ -175,6 +176,9 @@ public class KettleDatabaseRepositoryClusterSchemaDelegate extends KettleDatabas
     table.addValue(
       new ValueMetaBoolean( KettleDatabaseRepository.FIELD_CLUSTER_DYNAMIC ), Boolean
         .valueOf( clusterSchema.isDynamic() ) );
+    table.addValue(
+      new ValueMetaString( KettleDatabaseRepository.FIELD_CLUSTER_SOCKETS_CODEC ),
+      clusterSchema.getSocketsCodec() );
 
     repository.connectionDelegate.getDatabase().prepareInsert(
       table.getRowMeta(), KettleDatabaseRepository.TABLE_R_CLUSTER );
@@ -212,6 +216,9 @@ public class KettleDatabaseRepositoryClusterSchemaDelegate extends KettleDatabas
     table.addValue(
       new ValueMetaBoolean( KettleDatabaseRepository.FIELD_CLUSTER_DYNAMIC ), Boolean
         .valueOf( clusterSchema.isDynamic() ) );
+    table.addValue(
+      new ValueMetaString( KettleDatabaseRepository.FIELD_CLUSTER_SOCKETS_CODEC ),
+      clusterSchema.getSocketsCodec() );
 
     repository.connectionDelegate.updateTableRow(
       KettleDatabaseRepository.TABLE_R_CLUSTER, KettleDatabaseRepository.FIELD_CLUSTER_ID_CLUSTER, table,
@@ -64,7 +64,7 @@ public class KettleDatabaseRepositoryConnectionDelegate extends KettleDatabaseRe
     "Database repository", LoggingObjectType.REPOSITORY, null );
 
   public static final int REQUIRED_MAJOR_VERSION = 5;
-  public static final int REQUIRED_MINOR_VERSION = 0;
+  public static final int REQUIRED_MINOR_VERSION = 1;
 
   protected static final int[] KEY_POSITIONS = new int[] { 0, 1, 2 };
 
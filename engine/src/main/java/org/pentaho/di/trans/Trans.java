@@ -39,6 +39,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -63,6 +65,7 @@ import org.pentaho.di.core.KettleEnvironment;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
+import org.pentaho.di.core.RingBufferRowSet;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.SingleRowRowSet;
@@ -132,6 +135,8 @@ import org.pentaho.di.trans.step.StepListener;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaDataCombi;
 import org.pentaho.di.trans.step.StepPartitioningMeta;
+import org.pentaho.di.trans.step.StepProfile;
+import org.pentaho.di.trans.step.StepThreadFactory;
 import org.pentaho.di.trans.steps.mappinginput.MappingInput;
 import org.pentaho.di.trans.steps.mappingoutput.MappingOutput;
 import org.pentaho.di.www.CarteSingleton;
@@ -395,6 +400,17 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   private AtomicInteger status;
 
+  /**
+   * Creates the threads to initialize and run the steps on, platform or virtual threads.
+   */
+  private StepThreadFactory stepThreadFactory = new StepThreadFactory( false );
+
+  /**
+   * The lock and condition that signal the start of the transformation.
+   */
+  private final ReentrantLock runningLock = new ReentrantLock();
+  private final Condition runningCondition = runningLock.newCondition();
+
   /**
    * <p>This enum stores bit masks which are used to manipulate with
    * statuses over field {@link Trans#status}
@@ -970,18 +986,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
             RowSet rowSet;
             switch ( transMeta.getTransformationType() ) {
               case Normal:
-                // This is a temporary patch until the batching rowset has proven
-                // to be working in all situations.
-                // Currently there are stalling problems when dealing with small
-                // amounts of rows.
-                //
-                Boolean batchingRowSet =
-                  ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_BATCHING_ROWSET ) );
-                if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
-                  rowSet = new BlockingBatchingRowSet( transMeta.getSizeRowset() );
-                } else {
-                  rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
-                }
+                rowSet = createNormalRowSet();
                 break;
 
               case SerialSingleThreaded:
@@ -1026,7 +1031,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           // distribution...
           for ( int s = 0; s < thisCopies; s++ ) {
             for ( int t = 0; t < nextCopies; t++ ) {
-              BlockingRowSet rowSet = new BlockingRowSet( transMeta.getSizeRowset() );
+              RowSet rowSet = createNormalRowSet();
               rowSet.setThreadNameFromToCopy( thisStep.getName(), s, nextStep.getName(), t );
               rowsets.add( rowSet );
               if ( log.isDetailed() ) {
@@ -1231,6 +1236,15 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
       log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.InitialisingSteps", String.valueOf( steps.size() ) ) );
     }
 
+    // Decide on the kind of threads to run the steps on
+    //
+    stepThreadFactory = StepThreadFactory.getFactory( transMeta.getStepThreadMode() );
+    if ( StepThreadFactory.isVirtualRequested( transMeta.getStepThreadMode() ) && !stepThreadFactory.isVirtual() ) {
+      log.logBasic( BaseMessages.getString( PKG, "Trans.Log.VirtualThreadsNotSupported" ) );
+    } else if ( stepThreadFactory.isVirtual() && log.isDetailed() ) {
+      log.logDetailed( BaseMessages.getString( PKG, "Trans.Log.UsingVirtualThreads" ) );
+    }
+
     StepInitThread[] initThreads = new StepInitThread[ steps.size() ];
     Thread[] threads = new Thread[ steps.size() ];
 
@@ -1248,7 +1262,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
 
         // Put it in a separate thread!
         //
-        threads[ i ] = new Thread( initThreads[ i ] );
+        threads[ i ] = stepThreadFactory.newThread( initThreads[ i ], sid.meta );
         threads[ i ].setName( "init of " + sid.stepname + "." + sid.copy + " (" + threads[ i ].getName() + ")" );
 
         ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeInitialize.id, initThreads[ i ] );
@@ -1346,6 +1360,36 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
     setReadyToStart( true );
   }
 
+  /**
+   * Creates the row set for a hop between two step copies in a normal (multi-threaded) transformation. Every row set
+   * allocated in prepareExecution() connects exactly one source copy with exactly one target copy, so a single thread
+   * writes to it and a single thread reads from it. That allows us to use a lock-free {@link RingBufferRowSet} when it
+   * is enabled with the KETTLE_RING_BUFFER_ROWSET variable. It is not the default because a step plugin that calls
+   * putRow() from several threads of its own would corrupt the ring instead of failing. Row sets that are shared
+   * differently (mappings, row producers, remote steps) are allocated elsewhere and keep using a
+   * {@link BlockingRowSet}.
+   *
+   * @return the new row set
+   */
+  private RowSet createNormalRowSet() {
+    // This is a temporary patch until the batching rowset has proven
+    // to be working in all situations.
+    // Currently there are stalling problems when dealing with small
+    // amounts of rows.
+    //
+    Boolean batchingRowSet =
+      ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_BATCHING_ROWSET ) );
+    if ( batchingRowSet != null && batchingRowSet.booleanValue() ) {
+      return new BlockingBatchingRowSet( transMeta.getSizeRowset() );
+    }
+    Boolean ringBufferRowSet =
+      ValueMetaString.convertStringToBoolean( System.getProperty( Const.KETTLE_RING_BUFFER_ROWSET ) );
+    if ( ringBufferRowSet != null && ringBufferRowSet.booleanValue() ) {
+      return new RingBufferRowSet( transMeta.getSizeRowset() );
+    }
+    return new BlockingRowSet( transMeta.getSizeRowset() );
+  }
+
   @SuppressWarnings ( "deprecation" )
   private void checkCompatibility() {
     // If we don't have a previous result and transMeta does have one, someone has been using a deprecated method.
@@ -1551,7 +1595,7 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
         for ( int i = 0; i < steps.size(); i++ ) {
           final StepMetaDataCombi combi = steps.get( i );
           RunThread runThread = new RunThread( combi );
-          Thread thread = new Thread( runThread );
+          Thread thread = stepThreadFactory.newThread( runThread, combi.meta );
           thread.setName( getName() + " - " + combi.stepname );
           ExtensionPointHandler.callExtensionPoint( log, KettleExtensionPoint.StepBeforeStart.id, combi );
           // Call an extension point at the end of the step
@@ -1724,6 +1768,14 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
           new StepPerformanceSnapShot( seqNr, getBatchId(), new Date(), getName(), stepMeta.getName(), step.getCopy(),
             step.getLinesRead(), step.getLinesWritten(), step.getLinesInput(), step.getLinesOutput(), step
             .getLinesUpdated(), step.getLinesRejected(), step.getErrors() );
+        StepProfile profile = step.getProfile();
+        if ( profile != null ) {
+          snapShot.setTotalProcessTime( profile.getProcessTime() );
+          snapShot.setTotalInputWaitTime( profile.getInputWaitTime() );
+          snapShot.setTotalOutputWaitTime( profile.getOutputWaitTime() );
+          snapShot.setTotalCpuTime( profile.getCpuTime() );
+          snapShot.setTotalAllocatedBytes( profile.getAllocatedBytes() );
+        }
 
         synchronized ( stepPerformanceSnapShots ) {
           List<StepPerformanceSnapShot> snapShotList = stepPerformanceSnapShots.get( step.toString() );
@@ -3725,6 +3777,48 @@ public class Trans implements VariableSpace, NamedParams, HasLogChannelInterface
    */
   public void setRunning( boolean running ) {
     status.updateAndGet( v -> running ? v | RUNNING.mask : ( BIT_STATUS_SUM ^ RUNNING.mask ) & v );
+    if ( running ) {
+      runningLock.lock();
+      try {
+        runningCondition.signalAll();
+      } finally {
+        runningLock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Wait until the transformation is running or until the timeout expires. Steps use this instead of polling
+   * {@link #isRunning()} when the transformation uses the {@link TransMeta.RowWaitMode#Notification} row wait mode.
+   *
+   * @param timeout the maximum time to wait
+   * @param unit    the unit of the timeout
+   * @return true if the transformation is running, false if the timeout expired first
+   * @throws InterruptedException in case the waiting thread is interrupted
+   */
+  public boolean waitUntilRunning( long timeout, TimeUnit unit ) throws InterruptedException {
+    long remaining = unit.toNanos( timeout );
+    // A lock rather than a monitor so virtual step threads don't pin their carrier thread while they wait
+    //
+    runningLock.lock();
+    try {
+      while ( !isRunning() ) {
+        if ( remaining <= 0 ) {
+          return false;
+        }
+        remaining = runningCondition.awaitNanos( remaining );
+      }
+    } finally {
+      runningLock.unlock();
+    }
+    return true;
+  }
+
+  /**
+   * @return true if the steps of this transformation run on virtual threads, see {@link TransMeta.StepThreadMode}.
+   */
+  public boolean isUsingVirtualThreads() {
+    return stepThreadFactory.isVirtual();
   }
 
   /**
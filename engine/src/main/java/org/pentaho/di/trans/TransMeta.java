@@ -404,6 +404,163 @@ public class TransMeta extends AbstractMeta
   /** The transformation type. */
   protected TransformationType transformationType;
 
+  /**
+   * The way the step threads of a (normal) transformation wait for rows, for room in an output row set, for a paused
+   * step to resume or for the transformation to start running.
+   */
+  public enum RowWaitMode {
+
+    /** Sleep or block for a short time and check again. */
+    Polling( "Polling", BaseMessages.getString( PKG, "TransMeta.RowWaitMode.Polling" ) ),
+
+      /** Park the step thread until a row set, the transformation or a resume wakes it up. */
+      Notification( "Notification", BaseMessages.getString( PKG, "TransMeta.RowWaitMode.Notification" ) );
+
+    /** The code corresponding to the row wait mode. */
+    private final String code;
+
+    /** The description of the row wait mode. */
+    private final String description;
+
+    RowWaitMode( String code, String description ) {
+      this.code = code;
+      this.description = description;
+    }
+
+    /**
+     * Gets the code corresponding to the row wait mode.
+     *
+     * @return the code
+     */
+    public String getCode() {
+      return code;
+    }
+
+    /**
+     * Gets the description of the row wait mode.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+      return description;
+    }
+
+    /**
+     * Gets the row wait mode by code.
+     *
+     * @param rowWaitModeCode
+     *          the row wait mode code
+     * @return the row wait mode, Polling if the code is not known
+     */
+    public static RowWaitMode getRowWaitModeByCode( String rowWaitModeCode ) {
+      if ( rowWaitModeCode != null ) {
+        for ( RowWaitMode mode : values() ) {
+          if ( mode.code.equalsIgnoreCase( rowWaitModeCode ) ) {
+            return mode;
+          }
+        }
+      }
+      return Polling;
+    }
+
+    /**
+     * Gets the row wait mode descriptions.
+     *
+     * @return the row wait mode descriptions
+     */
+    public static String[] getRowWaitModeDescriptions() {
+      String[] desc = new String[values().length];
+      for ( int i = 0; i < values().length; i++ ) {
+        desc[i] = values()[i].getDescription();
+      }
+      return desc;
+    }
+  }
+
+  /** The row wait mode. */
+  protected RowWaitMode rowWaitMode;
+
+  /**
+   * The kind of threads the steps of a (normal) transformation run on.
+   */
+  public enum StepThreadMode {
+
+    /** Use the mode set in the KETTLE_STEP_THREAD_MODE variable, platform threads if it isn't set. */
+    Default( "Default", BaseMessages.getString( PKG, "TransMeta.StepThreadMode.Default" ) ),
+
+      /** Run every step copy on its own platform (operating system) thread. */
+      Platform( "Platform", BaseMessages.getString( PKG, "TransMeta.StepThreadMode.Platform" ) ),
+
+      /**
+       * Run every step copy on a virtual thread, sharing a limited number of carrier threads. Steps using a database
+       * connection still run on platform threads.
+       */
+      Virtual( "Virtual", BaseMessages.getString( PKG, "TransMeta.StepThreadMode.Virtual" ) );
+
+    /** The code corresponding to the step thread mode. */
+    private final String code;
+
+    /** The description of the step thread mode. */
+    private final String description;
+
+    StepThreadMode( String code, String description ) {
+      this.code = code;
+      this.description = description;
+    }
+
+    /**
+     * Gets the code corresponding to the step thread mode.
+     *
+     * @return the code
+     */
+    public String getCode() {
+      return code;
+    }
+
+    /**
+     * Gets the description of the step thread mode.
+     *
+     * @return the description
+     */
+    public String getDescription() {
+      return description;
+    }
+
+    /**
+     * Gets the step thread mode by code.
+     *
+     * @param stepThreadModeCode
+     *          the step thread mode code
+     * @return the step thread mode, Default if the code is not known
+     */
+    public static StepThreadMode getStepThreadModeByCode( String stepThreadModeCode ) {
+      if ( stepThreadModeCode != null ) {
+        for ( StepThreadMode mode : values() ) {
+          if ( mode.code.equalsIgnoreCase( stepThreadModeCode ) ) {
+            return mode;
+          }
+        }
+      }
+      return Default;
+    }
+
+    /**
+     * Gets the step thread mode descriptions.
+     *
+     * @return the step thread mode descriptions
+     */
+    public static String[] getStepThreadModeDescriptions() {
+      String[] desc = new String[values().length];
+      for ( int i = 0; i < values().length; i++ ) {
+        desc[i] = values()[i].getDescription();
+      }
+      return desc;
+    }
+  }
+
+  /** The step thread mode. */
+  protected StepThreadMode stepThreadMode;
+
   // //////////////////////////////////////////////////////////////////////////
 
   /** A list of localized strings corresponding to string descriptions of the undo/redo actions. */
@@ -722,6 +879,8 @@ public class TransMeta extends AbstractMeta
     loopCache = new HashMap<>();
     previousStepCache = new HashMap<>();
     transformationType = TransformationType.Normal;
+    rowWaitMode = RowWaitMode.Polling;
+    stepThreadMode = StepThreadMode.Default;
 
     log = LogChannel.GENERAL;
   }
@@ -2515,6 +2674,8 @@ public class TransMeta extends AbstractMeta
     retval.append( "    " ).append( XMLHandler.addTagValue( "feedback_shown", feedbackShown ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "feedback_size", feedbackSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "using_thread_priorities", usingThreadPriorityManagment ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "row_wait_mode", rowWaitMode.getCode() ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "step_thread_mode", stepThreadMode.getCode() ) );
 
     // Performance monitoring
     //
@@ -3583,6 +3744,9 @@ public class TransMeta extends AbstractMeta
         feedbackSize = Const.toInt( XMLHandler.getTagValue( infonode, "feedback_size" ), Const.ROWS_UPDATE );
         usingThreadPriorityManagment =
             !"N".equalsIgnoreCase( XMLHandler.getTagValue( infonode, "using_thread_priorities" ) );
+        rowWaitMode = RowWaitMode.getRowWaitModeByCode( XMLHandler.getTagValue( infonode, "row_wait_mode" ) );
+        stepThreadMode =
+            StepThreadMode.getStepThreadModeByCode( XMLHandler.getTagValue( infonode, "step_thread_mode" ) );
 
         // Performance monitoring for steps...
         //
@@ -6469,6 +6633,44 @@ public class TransMeta extends AbstractMeta
     this.transformationType = transformationType;
   }
 
+  /**
+   * Gets the way the step threads wait for rows, room in row sets, resume and the start of the transformation.
+   *
+   * @return the rowWaitMode
+   */
+  public RowWaitMode getRowWaitMode() {
+    return rowWaitMode;
+  }
+
+  /**
+   * Sets the way the step threads wait for rows, room in row sets, resume and the start of the transformation.
+   *
+   * @param rowWaitMode
+   *          the rowWaitMode to set
+   */
+  public void setRowWaitMode( RowWaitMode rowWaitMode ) {
+    this.rowWaitMode = rowWaitMode;
+  }
+
+  /**
+   * Gets the kind of threads the steps run on.
+   *
+   * @return the stepThreadMode
+   */
+  public StepThreadMode getStepThreadMode() {
+    return stepThreadMode;
+  }
+
+  /**
+   * Sets the kind of threads the steps run on.
+   *
+   * @param stepThreadMode
+   *          the stepThreadMode to set
+   */
+  public void setStepThreadMode( StepThreadMode stepThreadMode ) {
+    this.stepThreadMode = stepThreadMode;
+  }
+
   /**
    * Utility method to write the XML of this transformation to a file, mostly for testing purposes.
    *
@@ -30,6 +30,11 @@ public class StepPerformanceSnapShot {
   private long totalLinesUpdated;
   private long totalLinesRejected;
   private long totalErrors;
+  private long totalProcessTime;
+  private long totalInputWaitTime;
+  private long totalOutputWaitTime;
+  private long totalCpuTime;
+  private long totalAllocatedBytes;
 
   private long timeDifference;
   private long linesRead;
@@ -39,6 +44,11 @@ public class StepPerformanceSnapShot {
   private long linesUpdated;
   private long linesRejected;
   private long errors;
+  private long processTime;
+  private long inputWaitTime;
+  private long outputWaitTime;
+  private long cpuTime;
+  private long allocatedBytes;
 
   private long inputBufferSize;
   private long outputBufferSize;
@@ -86,6 +96,11 @@ public class StepPerformanceSnapShot {
       linesUpdated = totalLinesUpdated;
       linesRejected = totalLinesRejected;
       errors = totalErrors;
+      processTime = totalProcessTime;
+      inputWaitTime = totalInputWaitTime;
+      outputWaitTime = totalOutputWaitTime;
+      cpuTime = totalCpuTime;
+      allocatedBytes = totalAllocatedBytes;
     } else {
       timeDifference = date.getTime() - previous.date.getTime();
       linesRead = totalLinesRead - previous.totalLinesRead;
@@ -95,6 +110,12 @@ public class StepPerformanceSnapShot {
       linesUpdated = totalLinesUpdated - previous.totalLinesUpdated;
       linesRejected = totalLinesRejected - previous.totalLinesRejected;
       errors = totalErrors - previous.totalErrors;
+      processTime = totalProcessTime - previous.totalProcessTime;
+      inputWaitTime = totalInputWaitTime - previous.totalInputWaitTime;
+      outputWaitTime = totalOutputWaitTime - previous.totalOutputWaitTime;
+      cpuTime = totalCpuTime < 0 || previous.totalCpuTime < 0 ? -1L : totalCpuTime - previous.totalCpuTime;
+      allocatedBytes = totalAllocatedBytes < 0 || previous.totalAllocatedBytes < 0
+        ? -1L : totalAllocatedBytes - previous.totalAllocatedBytes;
     }
   }
 
@@ -443,4 +464,155 @@ public class StepPerformanceSnapShot {
     this.transName = transName;
   }
 
+  /**
+   * @return the time spent in processRow() in milliseconds, since the start of the step
+   */
+  public long getTotalProcessTime() {
+    return totalProcessTime;
+  }
+
+  /**
+   * @param totalProcessTime
+   *          the totalProcessTime to set
+   */
+  public void setTotalProcessTime( long totalProcessTime ) {
+    this.totalProcessTime = totalProcessTime;
+  }
+
+  /**
+   * @return the time spent waiting for input rows in milliseconds, since the start of the step
+   */
+  public long getTotalInputWaitTime() {
+    return totalInputWaitTime;
+  }
+
+  /**
+   * @param totalInputWaitTime
+   *          the totalInputWaitTime to set
+   */
+  public void setTotalInputWaitTime( long totalInputWaitTime ) {
+    this.totalInputWaitTime = totalInputWaitTime;
+  }
+
+  /**
+   * @return the time spent waiting for room in the output buffers in milliseconds, since the start of the step
+   */
+  public long getTotalOutputWaitTime() {
+    return totalOutputWaitTime;
+  }
+
+  /**
+   * @param totalOutputWaitTime
+   *          the totalOutputWaitTime to set
+   */
+  public void setTotalOutputWaitTime( long totalOutputWaitTime ) {
+    this.totalOutputWaitTime = totalOutputWaitTime;
+  }
+
+  /**
+   * @return the CPU time used by the step thread in milliseconds, since the start of the step
+   */
+  public long getTotalCpuTime() {
+    return totalCpuTime;
+  }
+
+  /**
+   * @param totalCpuTime
+   *          the totalCpuTime to set
+   */
+  public void setTotalCpuTime( long totalCpuTime ) {
+    this.totalCpuTime = totalCpuTime;
+  }
+
+  /**
+   * @return the number of bytes allocated by the step thread, since the start of the step
+   */
+  public long getTotalAllocatedBytes() {
+    return totalAllocatedBytes;
+  }
+
+  /**
+   * @param totalAllocatedBytes
+   *          the totalAllocatedBytes to set
+   */
+  public void setTotalAllocatedBytes( long totalAllocatedBytes ) {
+    this.totalAllocatedBytes = totalAllocatedBytes;
+  }
+
+  /**
+   * @return the time spent in processRow() in milliseconds, since the previous snapshot
+   */
+  public long getProcessTime() {
+    return processTime;
+  }
+
+  /**
+   * @param processTime
+   *          the processTime to set
+   */
+  public void setProcessTime( long processTime ) {
+    this.processTime = processTime;
+  }
+
+  /**
+   * @return the time spent waiting for input rows in milliseconds, since the previous snapshot
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  /**
+   * @param inputWaitTime
+   *          the inputWaitTime to set
+   */
+  public void setInputWaitTime( long inputWaitTime ) {
+    this.inputWaitTime = inputWaitTime;
+  }
+
+  /**
+   * @return the time spent waiting for room in the output buffers in milliseconds, since the previous snapshot
+   */
+  public long getOutputWaitTime() {
+    return outputWaitTime;
+  }
+
+  /**
+   * @param outputWaitTime
+   *          the outputWaitTime to set
+   */
+  public void setOutputWaitTime( long outputWaitTime ) {
+    this.outputWaitTime = outputWaitTime;
+  }
+
+  /**
+   * @return the CPU time used by the step thread in milliseconds, since the previous snapshot. -1 if the JVM can't
+   *         measure it
+   */
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  /**
+   * @param cpuTime
+   *          the cpuTime to set
+   */
+  public void setCpuTime( long cpuTime ) {
+    this.cpuTime = cpuTime;
+  }
+
+  /**
+   * @return the number of bytes allocated by the step thread, since the previous snapshot. -1 if the JVM can't
+   *         measure it
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  /**
+   * @param allocatedBytes
+   *          the allocatedBytes to set
+   */
+  public void setAllocatedBytes( long allocatedBytes ) {
+    this.allocatedBytes = allocatedBytes;
+  }
 }
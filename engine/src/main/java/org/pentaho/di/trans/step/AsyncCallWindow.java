@@ -0,0 +1,210 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.logging.Metrics;
+import org.pentaho.di.core.metrics.LatencyHistogram;
+
+/**
+ * Runs the remote calls of a step, for example HTTP requests, on a pool of threads so a number of rows can wait for
+ * their answer at the same time. The step prepares every call on its own thread, submits it and passes the completed
+ * calls on to the next steps.<br>
+ * <br>
+ * The number of calls that are submitted but not handed back to the step is bounded by the concurrency:
+ * {@link #submit(Object[], Callable)} blocks until a call completes when the window is full. Since the step only
+ * submits the next call after it wrote the completed ones with putRow(), a full output row set also slows down the
+ * calls. Completed calls are handed back in submit order, or in the order they complete when the row order doesn't
+ * need to be preserved.
+ *
+ * @param <T> the result of a call
+ * @since 11.0
+ */
+public class AsyncCallWindow<T> implements AutoCloseable {
+
+  /**
+   * A completed call: the row it was made for and its result or the exception it failed with.
+   */
+  public static class Call<T> {
+    private final Object[] row;
+    private final Callable<T> callable;
+
+    private T result;
+    private Exception exception;
+    private long latencyNanos;
+
+    Call( Object[] row, Callable<T> callable ) {
+      this.row = row;
+      this.callable = callable;
+    }
+
+    public Object[] getRow() {
+      return row;
+    }
+
+    public T getResult() {
+      return result;
+    }
+
+    public boolean isFailed() {
+      return exception != null;
+    }
+
+    public Exception getException() {
+      return exception;
+    }
+
+    public long getLatencyNanos() {
+      return latencyNanos;
+    }
+  }
+
+  private final int concurrency;
+  private final ExecutorService executor;
+  private final InFlightQueue<Call<T>> calls;
+
+  private final AtomicInteger running = new AtomicInteger();
+  private final AtomicInteger maximumRunning = new AtomicInteger();
+  private final LatencyHistogram latencies = new LatencyHistogram();
+
+  /**
+   * @param concurrency   the maximum number of calls submitted but not handed back yet, and the number of threads
+   * @param preserveOrder hand completed calls back in the order they were submitted
+   * @param threadName    the name prefix of the threads
+   */
+  public AsyncCallWindow( int concurrency, boolean preserveOrder, String threadName ) {
+    this.concurrency = Math.max( 1, concurrency );
+    this.calls = new InFlightQueue<>( preserveOrder );
+
+    AtomicInteger threadNr = new AtomicInteger( 1 );
+    executor = Executors.newFixedThreadPool( this.concurrency, runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( threadName + " call " + threadNr.getAndIncrement() );
+      return thread;
+    } );
+  }
+
+  /**
+   * Start a call for a row. Blocks while the window is full.
+   *
+   * @return the calls that completed in the meantime, possibly failed
+   */
+  public List<Call<T>> submit( Object[] row, Callable<T> callable ) throws KettleException {
+    List<Call<T>> completed = new ArrayList<>();
+    collectCompleted( completed, false );
+    while ( calls.getInFlight() >= concurrency ) {
+      collectCompleted( completed, true );
+    }
+    Call<T> call = new Call<>( row, callable );
+    long sequenceNr = calls.register();
+    executor.execute( () -> execute( sequenceNr, call ) );
+    return completed;
+  }
+
+  /**
+   * Wait for all submitted calls to complete.
+   *
+   * @return the calls that were not handed back yet
+   */
+  public List<Call<T>> finish() throws KettleException {
+    List<Call<T>> completed = new ArrayList<>();
+    while ( calls.getInFlight() > 0 ) {
+      collectCompleted( completed, true );
+    }
+    return completed;
+  }
+
+  /**
+   * @return the number of calls submitted but not handed back yet
+   */
+  public int getInFlight() {
+    return calls.getInFlight();
+  }
+
+  /**
+   * @return the highest number of calls that were waiting for an answer at the same time
+   */
+  public int getMaximumRunning() {
+    return maximumRunning.get();
+  }
+
+  /**
+   * @return the latencies of the completed calls in microseconds
+   */
+  public LatencyHistogram getLatencies() {
+    return latencies;
+  }
+
+  /**
+   * Write the most calls in flight and the median and 99th percentile latency as step metrics.
+   */
+  public void snapMetrics( LogChannelInterface log ) {
+    long median = TimeUnit.MICROSECONDS.toMillis( latencies.getValueAtPercentile( 50 ) );
+    long p99 = TimeUnit.MICROSECONDS.toMillis( latencies.getValueAtPercentile( 99 ) );
+    log.snap( Metrics.METRIC_STEP_CALLS_MAX_IN_FLIGHT, getMaximumRunning() );
+    log.snap( Metrics.METRIC_STEP_CALL_LATENCY_P50, median );
+    log.snap( Metrics.METRIC_STEP_CALL_LATENCY_P99, p99 );
+    if ( log.isDetailed() ) {
+      log.logDetailed( latencies.getCount() + " calls, at most " + getMaximumRunning() + " in flight, latency "
+        + median + " ms median, " + p99 + " ms 99th percentile" );
+    }
+  }
+
+  /**
+   * Interrupt the running calls and stop the threads. Calls that didn't complete are not handed back.
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination( 10, TimeUnit.SECONDS );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void collectCompleted( List<Call<T>> completed, boolean wait ) throws KettleException {
+    try {
+      calls.collect( completed, wait );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while waiting for a call to complete", e );
+    }
+  }
+
+  private void execute( long sequenceNr, Call<T> call ) {
+    maximumRunning.accumulateAndGet( running.incrementAndGet(), Math::max );
+    long start = System.nanoTime();
+    try {
+      call.result = call.callable.call();
+    } catch ( Exception e ) {
+      call.exception = e;
+    } finally {
+      call.latencyNanos = System.nanoTime() - start;
+      latencies.record( TimeUnit.NANOSECONDS.toMicros( call.latencyNanos ) );
+      running.decrementAndGet();
+      calls.complete( sequenceNr, call );
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.List;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
+
+/**
+ * Base class of the steps that make a remote call per row, for example an HTTP request, either one at a time or a
+ * number at the same time through an {@link AsyncCallWindow}. Both ways pass the rows on the same way: the rows of
+ * the calls that succeeded to the next steps, the rows of the failed calls to the error handling of the step. Without
+ * error handling a failed call stops the transformation.
+ *
+ * @since 11.0
+ */
+public abstract class BaseCallStep extends BaseStep {
+
+  protected BaseCallStep( StepMeta stepMeta, StepDataInterface stepDataInterface, int copyNr, TransMeta transMeta,
+                          Trans trans ) {
+    super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
+  }
+
+  /**
+   * @return the message logged in front of the error of a call that stops the step
+   */
+  protected abstract String getCallErrorMessage();
+
+  /**
+   * @return the error code of the rows sent to the error handling of the step
+   */
+  protected abstract String getCallErrorCode();
+
+  /**
+   * @return the message logged in front of the number of rows read
+   */
+  protected abstract String getLineNumberMessage();
+
+  /**
+   * @return true to log the stack trace of an error that stops the step
+   */
+  protected boolean isLoggingCallStackTrace() {
+    return true;
+  }
+
+  /**
+   * Pass the result row of a call on to the next steps.
+   */
+  protected void putCallResult( RowMetaInterface outputRowMeta, Object[] outputRow ) throws KettleStepException {
+    putRow( outputRowMeta, outputRow );
+    if ( checkFeedback( getLinesRead() ) && isDetailed() ) {
+      logDetailed( getLineNumberMessage() + getLinesRead() );
+    }
+  }
+
+  /**
+   * Pass the calls handed back by an {@link AsyncCallWindow} on, in the order they were handed back.
+   *
+   * @return false if the step has to stop because an error is not handled
+   */
+  protected boolean putCompletedCalls( RowMetaInterface outputRowMeta, List<AsyncCallWindow.Call<Object[]>> calls )
+    throws KettleException {
+    for ( AsyncCallWindow.Call<Object[]> call : calls ) {
+      if ( call.isFailed() ) {
+        KettleException e = call.getException() instanceof KettleException
+          ? (KettleException) call.getException() : new KettleException( call.getException() );
+        if ( !handleCallError( call.getRow(), e ) ) {
+          return false;
+        }
+      } else {
+        putCallResult( outputRowMeta, call.getResult() );
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Send the row of a failed call to the error handling of the step, or stop the transformation without it.
+   *
+   * @return false if the step has to stop because the error is not handled
+   */
+  protected boolean handleCallError( Object[] r, KettleException e ) throws KettleException {
+    if ( !getStepMeta().isDoingErrorHandling() ) {
+      logError( getCallErrorMessage() + e.getMessage() );
+      setErrors( 1 );
+      if ( isLoggingCallStackTrace() ) {
+        logError( Const.getStackTracker( e ) );
+      }
+      stopAll();
+      setOutputDone(); // signal end to receiver(s)
+      return false;
+    }
+    // Simply add this row to the error row
+    putError( getInputRowMeta(), r, 1, e.toString(), null, getCallErrorCode() );
+    return true;
+  }
+}
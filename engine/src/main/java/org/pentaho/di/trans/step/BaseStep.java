@@ -32,6 +32,7 @@ import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -45,6 +46,7 @@ import org.pentaho.di.core.ExtensionDataInterface;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleRowException;
 import org.pentaho.di.core.exception.KettleStepException;
@@ -54,6 +56,7 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.logging.LogLevel;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.logging.LoggingObjectType;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -158,7 +161,27 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   private Trans trans;
 
-  private final Object statusCountersLock = new Object();
+  /*
+   * The status counters. The step thread updates them for every row while Carte, the performance snapshot timer and
+   * the UI read them from other threads. LongAdders keep both sides free of locks.
+   *
+   * The incrementLinesX() methods return the new value for compatibility, which costs a sum() of the counter on top of
+   * the increment. While only the step thread updates a counter the sum is two volatile reads; once several threads
+   * update it, it also reads every stripe. The setLinesX() methods are meant for the step thread: they add the
+   * difference with the current value, so a reader never sees the counter drop to zero in between and an increment
+   * from another thread is kept on top of the new value.
+   */
+  private final LongAdder linesReadCounter = new LongAdder();
+  private final LongAdder linesWrittenCounter = new LongAdder();
+  private final LongAdder linesInputCounter = new LongAdder();
+  private final LongAdder linesOutputCounter = new LongAdder();
+  private final LongAdder linesUpdatedCounter = new LongAdder();
+  private final LongAdder linesSkippedCounter = new LongAdder();
+  private final LongAdder linesRejectedCounter = new LongAdder();
+
+  // The public counters below are no longer updated by BaseStep itself. The getters add them to the counters above so
+  // that steps which still update them directly keep reporting the right numbers.
+  //
 
   /**
    * nr of lines read from previous step(s)
@@ -397,6 +420,22 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   private int lowerBufferBoundary;
 
+  /**
+   * The maximum time in ms to park the step thread when waiting for notifications. The row sets wake the step thread
+   * up, this is only a safety net.
+   */
+  private static final long NOTIFICATION_PARK_MILLIS = 100;
+
+  /**
+   * True if the step thread parks until it is woken up instead of polling, see {@link TransMeta.RowWaitMode}
+   */
+  private boolean waitingForNotifications;
+
+  /**
+   * Parks the step thread in the notification row wait mode
+   */
+  private final StepThreadParker threadParker = new StepThreadParker();
+
   /**
    * maximum number of errors to allow
    */
@@ -434,6 +473,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
   protected Map<String, Object> extensionDataMap;
 
+  /**
+   * Where the step thread spends its time, see {@link StepProfile}
+   */
+  private final StepProfile profile = new StepProfile();
+
   /**
    * rowHandler handles getting/putting rows and putting errors.
    * Default implementation defers to corresponding methods in this class.
@@ -479,16 +523,6 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     init = false;
 
-    synchronized ( statusCountersLock ) {
-      linesRead = 0L; // new AtomicLong(0L); // Keep some statistics!
-      linesWritten = 0L; // new AtomicLong(0L);
-      linesUpdated = 0L; // new AtomicLong(0L);
-      linesSkipped = 0L; // new AtomicLong(0L);
-      linesRejected = 0L; // new AtomicLong(0L);
-      linesInput = 0L; // new AtomicLong(0L);
-      linesOutput = 0L; // new AtomicLong(0L);
-    }
-
     inputRowSets = null;
     outputRowSets = null;
     nextSteps = null;
@@ -556,6 +590,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     upperBufferBoundary = (int) ( transMeta.getSizeRowset() * 0.99 );
     lowerBufferBoundary = (int) ( transMeta.getSizeRowset() * 0.01 );
+
+    waitingForNotifications = transMeta.getRowWaitMode() == TransMeta.RowWaitMode.Notification
+      && transMeta.getTransformationType() == TransMeta.TransformationType.Normal;
   }
 
   /*
@@ -811,6 +848,13 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    LookupCacheStatistics cacheStatistics = getCacheStatistics();
+    if ( cacheStatistics != null && log != null ) {
+      log.snap( Metrics.METRIC_STEP_CACHE_HITS, cacheStatistics.getHits() );
+      log.snap( Metrics.METRIC_STEP_CACHE_MISSES, cacheStatistics.getMisses() );
+      log.snap( Metrics.METRIC_STEP_CACHE_EVICTIONS, cacheStatistics.getEvictions() );
+    }
+    threadParker.stopListening();
     sdi.setStatus( StepExecutionStatus.STATUS_DISPOSED );
   }
 
@@ -905,9 +949,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return linesRead;
-    }
+    return linesReadCounter.sum() + linesRead;
   }
 
   /**
@@ -916,9 +958,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRead;
-    }
+    linesReadCounter.increment();
+    return getLinesRead();
   }
 
   /**
@@ -927,18 +968,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesRead() {
-    synchronized ( statusCountersLock ) {
-      return --linesRead;
-    }
+    linesReadCounter.decrement();
+    return getLinesRead();
   }
 
   /**
    * @param newLinesReadValue the new number of lines read from previous steps
    */
   public void setLinesRead( long newLinesReadValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRead = newLinesReadValue;
-    }
+    setCounter( linesReadCounter, newLinesReadValue );
+    linesRead = 0L;
   }
 
   /**
@@ -946,9 +985,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return linesInput;
-    }
+    return linesInputCounter.sum() + linesInput;
   }
 
   /**
@@ -957,18 +994,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesInput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesInput;
-    }
+    linesInputCounter.increment();
+    return getLinesInput();
   }
 
   /**
    * @param newLinesInputValue the new number of lines read from an input source: database, file, socket, etc.
    */
   public void setLinesInput( long newLinesInputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesInput = newLinesInputValue;
-    }
+    setCounter( linesInputCounter, newLinesInputValue );
+    linesInput = 0L;
   }
 
   /**
@@ -976,9 +1011,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return linesOutput;
-    }
+    return linesOutputCounter.sum() + linesOutput;
   }
 
   /**
@@ -987,18 +1020,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesOutput() {
-    synchronized ( statusCountersLock ) {
-      return ++linesOutput;
-    }
+    linesOutputCounter.increment();
+    return getLinesOutput();
   }
 
   /**
    * @param newLinesOutputValue the new number of lines written to an output target: database, file, socket, etc.
    */
   public void setLinesOutput( long newLinesOutputValue ) {
-    synchronized ( statusCountersLock ) {
-      linesOutput = newLinesOutputValue;
-    }
+    setCounter( linesOutputCounter, newLinesOutputValue );
+    linesOutput = 0L;
   }
 
   /**
@@ -1006,9 +1037,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return linesWritten;
-    }
+    return linesWrittenCounter.sum() + linesWritten;
   }
 
   /**
@@ -1017,9 +1046,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long incrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return ++linesWritten;
-    }
+    linesWrittenCounter.increment();
+    return getLinesWritten();
   }
 
   /**
@@ -1028,18 +1056,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return Returns the new value
    */
   public long decrementLinesWritten() {
-    synchronized ( statusCountersLock ) {
-      return --linesWritten;
-    }
+    linesWrittenCounter.decrement();
+    return getLinesWritten();
   }
 
   /**
    * @param newLinesWrittenValue the new number of lines written to next steps
    */
   public void setLinesWritten( long newLinesWrittenValue ) {
-    synchronized ( statusCountersLock ) {
-      linesWritten = newLinesWrittenValue;
-    }
+    setCounter( linesWrittenCounter, newLinesWrittenValue );
+    linesWritten = 0L;
   }
 
   /**
@@ -1047,9 +1073,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return linesUpdated;
-    }
+    return linesUpdatedCounter.sum() + linesUpdated;
   }
 
   /**
@@ -1058,18 +1082,16 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesUpdated() {
-    synchronized ( statusCountersLock ) {
-      return ++linesUpdated;
-    }
+    linesUpdatedCounter.increment();
+    return getLinesUpdated();
   }
 
   /**
    * @param newLinesUpdatedValue the new number of lines updated in an output target: database, file, socket, etc.
    */
   public void setLinesUpdated( long newLinesUpdatedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesUpdated = newLinesUpdatedValue;
-    }
+    setCounter( linesUpdatedCounter, newLinesUpdatedValue );
+    linesUpdated = 0L;
   }
 
   /**
@@ -1077,9 +1099,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public long getLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return linesRejected;
-    }
+    return linesRejectedCounter.sum() + linesRejected;
   }
 
   /**
@@ -1088,9 +1108,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesRejected() {
-    synchronized ( statusCountersLock ) {
-      return ++linesRejected;
-    }
+    linesRejectedCounter.increment();
+    return getLinesRejected();
   }
 
   /**
@@ -1098,18 +1117,15 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   @Override
   public void setLinesRejected( long newLinesRejectedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesRejected = newLinesRejectedValue;
-    }
+    setCounter( linesRejectedCounter, newLinesRejectedValue );
+    linesRejected = 0L;
   }
 
   /**
    * @return the number of lines skipped
    */
   public long getLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return linesSkipped;
-    }
+    return linesSkippedCounter.sum() + linesSkipped;
   }
 
   /**
@@ -1118,18 +1134,23 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * @return the new incremented value
    */
   public long incrementLinesSkipped() {
-    synchronized ( statusCountersLock ) {
-      return ++linesSkipped;
-    }
+    linesSkippedCounter.increment();
+    return getLinesSkipped();
   }
 
   /**
    * @param newLinesSkippedValue lines number of lines skipped
    */
   public void setLinesSkipped( long newLinesSkippedValue ) {
-    synchronized ( statusCountersLock ) {
-      linesSkipped = newLinesSkippedValue;
-    }
+    setCounter( linesSkippedCounter, newLinesSkippedValue );
+    linesSkipped = 0L;
+  }
+
+  /**
+   * Sets a status counter by adding the difference with its current value.
+   */
+  private static void setCounter( LongAdder counter, long value ) {
+    counter.add( value - counter.sum() );
   }
 
   /*
@@ -1264,13 +1285,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   private void handlePutRow( RowMetaInterface rowMeta, Object[] row ) throws KettleStepException {
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 1 );
-      } catch ( InterruptedException e ) {
-        throw new KettleStepException( e );
-      }
-    }
+    waitWhilePaused( 1 );
 
     // Right after the pause loop we have to check if this thread is stopped or
     // not.
@@ -1289,11 +1304,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     if ( this.checkTransRunning == false ) {
       while ( !trans.isRunning() && !stopped.get() ) {
-        try {
-          Thread.sleep( 1 );
-        } catch ( InterruptedException e ) {
-          // Ignore
-        }
+        waitForTransToRun();
       }
       this.checkTransRunning = true;
     }
@@ -1517,7 +1528,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
         //
-        if ( isUsingThreadPriorityManagment() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
+        if ( isUsingThreadPriorityManagment() && !waitingForNotifications
+          && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
           try {
             Thread.sleep( 0, 1 );
           } catch ( InterruptedException e ) {
@@ -1553,7 +1565,8 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
         // To reduce stress on the locking system we are NOT going to allow
         // the buffer to grow to its full capacity.
         //
-        if ( isUsingThreadPriorityManagment() && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
+        if ( isUsingThreadPriorityManagment() && !waitingForNotifications
+          && !rs.isDone() && rs.size() >= upperBufferBoundary && !isStopped() ) {
           try {
             Thread.sleep( 0, 1 );
           } catch ( InterruptedException e ) {
@@ -1590,13 +1603,54 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       toBeSent = metaFromRs;
     }
 
-    while ( !rs.putRow( toBeSent, row ) ) {
+    while ( !offerRow( rs, toBeSent, row ) ) {
       if ( isStopped() && !safeStopped.get() ) {
         return;
       }
     }
   }
 
+  /**
+   * Offer a row to a row set, waiting a limited amount of time for room in the row set.
+   *
+   * @return true if the row was added to the row set, false if the row set was full.
+   */
+  private boolean offerRow( RowSet rowSet, RowMetaInterface rowMeta, Object[] row ) {
+    // Only a full row set is timed as waiting
+    //
+    if ( rowSet.putRowWait( rowMeta, row, 0, TimeUnit.NANOSECONDS ) ) {
+      return true;
+    }
+    if ( !waitingForNotifications ) {
+      long start = System.nanoTime();
+      try {
+        return rowSet.putRow( rowMeta, row );
+      } finally {
+        profile.addOutputWaitTime( System.nanoTime() - start );
+      }
+    }
+
+    // The row set is full: park until the reading step takes a row
+    //
+    long waitStart = System.nanoTime();
+    threadParker.startWaiting();
+    try {
+      boolean listening = threadParker.listenTo( rowSet );
+      if ( rowSet.putRowWait( rowMeta, row, 0, TimeUnit.NANOSECONDS ) ) {
+        return true;
+      }
+      if ( !listening ) {
+        // This row set doesn't tell us when there is room, wait the classic way
+        return rowSet.putRow( rowMeta, row );
+      }
+      threadParker.park( NOTIFICATION_PARK_MILLIS, TimeUnit.MILLISECONDS );
+    } finally {
+      threadParker.stopWaiting();
+      profile.addOutputWaitTime( System.nanoTime() - waitStart );
+    }
+    return false;
+  }
+
   /**
    * putRowTo is used to put a row in a certain specific RowSet.
    *
@@ -1613,13 +1667,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 1 );
-      } catch ( InterruptedException e ) {
-        throw new KettleStepException( e );
-      }
-    }
+    waitWhilePaused( 1 );
 
     // call all row listeners...
     //
@@ -1646,7 +1694,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     // Don't distribute or anything, only go to this rowset!
     //
-    while ( !rowSet.putRow( rowMeta, row ) ) {
+    while ( !offerRow( rowSet, rowMeta, row ) ) {
       if ( isStopped() ) {
         break;
       }
@@ -1705,7 +1753,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     }
 
     if ( errorRowSet != null ) {
-      while ( !errorRowSet.putRow( errorRowMeta, errorRowData ) ) {
+      while ( !offerRow( errorRowSet, errorRowMeta, errorRowData ) ) {
         if ( isStopped() ) {
           break;
         }
@@ -1798,16 +1846,108 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     //
     if ( this.checkTransRunning == false ) {
       while ( !trans.isRunning() && !stopped.get() ) {
+        waitForTransToRun();
+      }
+      this.checkTransRunning = true;
+    }
+  }
+
+  /**
+   * Wait a little while for the transformation to start running.
+   */
+  private void waitForTransToRun() {
+    try {
+      if ( waitingForNotifications ) {
+        trans.waitUntilRunning( NOTIFICATION_PARK_MILLIS, TimeUnit.MILLISECONDS );
+      } else {
+        Thread.sleep( 1 );
+      }
+    } catch ( InterruptedException e ) {
+      // Ignore sleep interruption exception
+    }
+  }
+
+  /**
+   * Stall while this step is paused, until it is resumed or stopped.
+   *
+   * @param pollMillis the time to sleep between checks when polling
+   * @throws KettleStepException in case the step thread is interrupted
+   */
+  private void waitWhilePaused( long pollMillis ) throws KettleStepException {
+    while ( paused.get() && !stopped.get() ) {
+      if ( waitingForNotifications ) {
+        threadParker.startWaiting();
         try {
-          Thread.sleep( 1 );
+          if ( paused.get() && !stopped.get() ) {
+            threadParker.park( NOTIFICATION_PARK_MILLIS, TimeUnit.MILLISECONDS );
+          }
+        } finally {
+          threadParker.stopWaiting();
+        }
+        if ( Thread.interrupted() ) {
+          throw new KettleStepException( new InterruptedException() );
+        }
+      } else {
+        try {
+          Thread.sleep( pollMillis );
         } catch ( InterruptedException e ) {
-          // Ignore sleep interruption exception
+          throw new KettleStepException( e );
         }
       }
-      this.checkTransRunning = true;
     }
   }
 
+  /**
+   * Park the step thread until one of the input row sets receives a row or is done. The listener is registered on the
+   * row sets before they are checked so we can't miss a row that arrives while we go to sleep.
+   */
+  private void parkUntilRowsAvailable() {
+    threadParker.startWaiting();
+    try {
+      boolean listening = true;
+      for ( RowSet rowSet : inputRowSets ) {
+        listening &= threadParker.listenTo( rowSet );
+        if ( rowSet.size() > 0 || rowSet.isDone() ) {
+          return;
+        }
+      }
+      // Without a listener on all row sets we only park briefly, just like polling would
+      //
+      threadParker.park( listening ? NOTIFICATION_PARK_MILLIS : 1, TimeUnit.MILLISECONDS );
+    } finally {
+      threadParker.stopWaiting();
+    }
+  }
+
+  /**
+   * Get a row from the given row set, parking the step thread until a row arrives, the row set is done or a limited
+   * amount of time passed.
+   *
+   * @return the row or null if no row arrived.
+   */
+  private Object[] waitForRow( RowSet rowSet ) {
+    Object[] row = rowSet.getRowImmediate();
+    if ( row != null ) {
+      return row;
+    }
+    threadParker.startWaiting();
+    try {
+      boolean listening = threadParker.listenTo( rowSet );
+      row = rowSet.getRowImmediate();
+      if ( row == null && !rowSet.isDone() ) {
+        if ( !listening ) {
+          // This row set doesn't tell us when there are rows, wait the classic way
+          return rowSet.getRow();
+        }
+        threadParker.park( NOTIFICATION_PARK_MILLIS, TimeUnit.MILLISECONDS );
+        row = rowSet.getRowImmediate();
+      }
+    } finally {
+      threadParker.stopWaiting();
+    }
+    return row;
+  }
+
 
   /**
    * In case of getRow, we receive data from previous steps through the input rowset. In case we split the stream, we
@@ -1823,13 +1963,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 100 );
-      } catch ( InterruptedException e ) {
-        throw new KettleStepException( e );
-      }
-    }
+    waitWhilePaused( 100 );
 
     if ( stopped.get() ) {
       if ( log.isDebug() ) {
@@ -1883,7 +2017,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       // The buffer to grow beyond "a few" entries.
       // We'll only do that if the previous step has not ended...
       //
-      if ( isUsingThreadPriorityManagment()
+      if ( isUsingThreadPriorityManagment() && !waitingForNotifications
         && !inputRowSet.isDone() && inputRowSet.size() <= lowerBufferBoundary && !isStopped() ) {
         try {
           Thread.sleep( 0, 1 );
@@ -1904,12 +2038,31 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       // rowset, then switch to another etc.
       // We can use timeouts to switch from one to another...
       //
+      // Only start the clock for the input wait time once the current row set turns out to be empty
+      //
+      long waitStart = 0L;
+      if ( row == null && !isStopped() ) {
+        row = inputRowSet.getRowImmediate();
+        if ( row != null ) {
+          incrementLinesRead();
+          blockPointer++;
+        } else {
+          waitStart = System.nanoTime();
+        }
+      }
+
+      int emptyRowSets = 0;
       while ( row == null && !isStopped() ) {
         // Get a row from the input in row set ...
         // Timeout immediately if nothing is there to read.
         // We will then switch to the next row set to read from...
+        // When waiting for notifications we only park once all row sets turned out to be empty.
         //
-        row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+        if ( waitingForNotifications ) {
+          row = inputRowSet.getRowImmediate();
+        } else {
+          row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+        }
         if ( row != null ) {
           incrementLinesRead();
           blockPointer++;
@@ -1920,7 +2073,11 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
           // the input stream and move on to the next one...
           //
           if ( inputRowSet.isDone() ) {
-            row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+            if ( waitingForNotifications ) {
+              row = inputRowSet.getRowImmediate();
+            } else {
+              row = inputRowSet.getRowWait( 1, TimeUnit.MILLISECONDS );
+            }
             if ( row == null ) {
 
               // Must release the read lock before acquisition of the write lock to prevent deadlocks.
@@ -1944,11 +2101,17 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
             } else {
               incrementLinesRead();
             }
+          } else if ( waitingForNotifications && ++emptyRowSets >= inputRowSets.size() ) {
+            parkUntilRowsAvailable();
+            emptyRowSets = 0;
           }
           nextInputStream();
           inputRowSet = currentInputStream();
         }
       }
+      if ( waitStart != 0L ) {
+        profile.addInputWaitTime( System.nanoTime() - waitStart );
+      }
 
       // This rowSet is perhaps no longer giving back rows?
       //
@@ -1995,6 +2158,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     return row;
   }
 
+  /**
+   * @return where the step thread spends its time
+   */
+  @Override
+  public StepProfile getProfile() {
+    return profile;
+  }
+
   /**
    * RowHandler controls how getRow/putRow are handled.
    * The default RowHandler will simply call
@@ -2212,24 +2383,14 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   public Object[] handleGetRowFrom( RowSet rowSet ) throws KettleStepException {
     // Are we pausing the step? If so, stall forever...
     //
-    while ( paused.get() && !stopped.get() ) {
-      try {
-        Thread.sleep( 10 );
-      } catch ( InterruptedException e ) {
-        throw new KettleStepException( e );
-      }
-    }
+    waitWhilePaused( 10 );
 
     // Have all threads started?
     // Are we running yet? If not, wait a bit until all threads have been
     // started.
     if ( this.checkTransRunning == false ) {
       while ( !trans.isRunning() && !stopped.get() ) {
-        try {
-          Thread.sleep( 1 );
-        } catch ( InterruptedException e ) {
-          // Ignore sleep interruption exception
-        }
+        waitForTransToRun();
       }
       this.checkTransRunning = true;
     }
@@ -2239,7 +2400,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     // The buffer to grow beyond "a few" entries.
     // We'll only do that if the previous step has not ended...
     //
-    if ( isUsingThreadPriorityManagment()
+    if ( isUsingThreadPriorityManagment() && !waitingForNotifications
       && !rowSet.isDone() && rowSet.size() <= lowerBufferBoundary && !isStopped() ) {
       try {
         Thread.sleep( 0, 1 );
@@ -2250,16 +2411,21 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
 
     // Grab a row... If nothing received after a timeout, try again.
     //
-    rowData = rowSet.getRow();
-    while ( rowData == null && !rowSet.isDone() && !stopped.get() ) {
-      rowData = rowSet.getRow();
-
-      // Verify deadlocks!
-      //
-      /*
-       * if (rowData==null) { if (getInputRowSets().size()>1 && getLinesRead()==deadLockCounter) {
-       * verifyInputDeadLock(); } deadLockCounter=getLinesRead(); }
-       */
+    rowData = rowSet.getRowImmediate();
+    if ( rowData == null ) {
+      long waitStart = System.nanoTime();
+      rowData = waitingForNotifications ? waitForRow( rowSet ) : rowSet.getRow();
+      while ( rowData == null && !rowSet.isDone() && !stopped.get() ) {
+        rowData = waitingForNotifications ? waitForRow( rowSet ) : rowSet.getRow();
+
+        // Verify deadlocks!
+        //
+        /*
+         * if (rowData==null) { if (getInputRowSets().size()>1 && getLinesRead()==deadLockCounter) {
+         * verifyInputDeadLock(); } deadLockCounter=getLinesRead(); }
+         */
+      }
+      profile.addInputWaitTime( System.nanoTime() - waitStart );
     }
 
     // Still nothing: no more rows to be had?
@@ -2268,7 +2434,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
       // Try one more time to get a row to make sure we don't get a
       // race-condition between the get and the isDone()
       //
-      rowData = rowSet.getRow();
+      rowData = waitingForNotifications ? rowSet.getRowImmediate() : rowSet.getRow();
     }
 
     if ( stopped.get() ) {
@@ -2282,7 +2448,7 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
     if ( rowData == null && rowSet.isDone() ) {
       // Try one more time...
       //
-      rowData = rowSet.getRow();
+      rowData = waitingForNotifications ? rowSet.getRowImmediate() : rowSet.getRow();
       if ( rowData == null ) {
 
         // Must release the read lock before acquisition of the write lock to prevent deadlocks.
@@ -3042,6 +3208,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
   @Override
   public void setStopped( boolean stopped ) {
     this.stopped.set( stopped );
+    if ( stopped ) {
+      threadParker.wakeUp();
+    }
   }
 
   @Override
@@ -3091,6 +3260,9 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    */
   public void setPaused( boolean paused ) {
     this.paused.set( paused );
+    if ( !paused ) {
+      threadParker.wakeUp();
+    }
   }
 
   /**
@@ -3380,22 +3552,20 @@ public class BaseStep implements VariableSpace, StepInterface, LoggingObjectInte
    * Log summary.
    */
   public void logSummary() {
-    synchronized ( statusCountersLock ) {
-      long li = getLinesInput();
-      long lo = getLinesOutput();
-      long lr = getLinesRead();
-      long lw = getLinesWritten();
-      long lu = getLinesUpdated();
-      long lj = getLinesRejected();
-      if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
-        logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      } else {
-        logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
-          .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
-          .valueOf( errors + lj ) ) );
-      }
+    long li = getLinesInput();
+    long lo = getLinesOutput();
+    long lr = getLinesRead();
+    long lw = getLinesWritten();
+    long lu = getLinesUpdated();
+    long lj = getLinesRejected();
+    if ( li > 0 || lo > 0 || lr > 0 || lw > 0 || lu > 0 || lj > 0 || errors > 0 ) {
+      logBasic( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
+    } else {
+      logDetailed( BaseMessages.getString( PKG, "BaseStep.Log.SummaryInfo", String.valueOf( li ), String
+        .valueOf( lo ), String.valueOf( lr ), String.valueOf( lw ), String.valueOf( lw ), String
+        .valueOf( errors + lj ) ) );
     }
   }
 
@@ -0,0 +1,109 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Hands the work items a step submitted to a pool of threads back to the step thread once they are done: in the order
+ * they were submitted, or in the order they complete when the row order doesn't need to be preserved. It also counts
+ * the items in flight, so the step can bound them.<br>
+ * <br>
+ * {@link #register()} and {@link #collect(List, boolean)} are called by the step thread,
+ * {@link #complete(long, Object)} by the thread that did the work.
+ *
+ * @param <T> the work item
+ * @since 11.0
+ */
+public class InFlightQueue<T> {
+
+  private static class Completed<T> {
+    private final long sequenceNr;
+    private final T item;
+
+    Completed( long sequenceNr, T item ) {
+      this.sequenceNr = sequenceNr;
+      this.item = item;
+    }
+  }
+
+  private final boolean preserveOrder;
+  private final BlockingQueue<Completed<T>> completed = new LinkedBlockingQueue<>();
+
+  /** Completed items that wait for an earlier item when the order is preserved */
+  private final Map<Long, T> completedOutOfOrder = new HashMap<>();
+  private long submitted;
+  private long handedBack;
+
+  /**
+   * @param preserveOrder hand completed items back in the order they were submitted
+   */
+  public InFlightQueue( boolean preserveOrder ) {
+    this.preserveOrder = preserveOrder;
+  }
+
+  /**
+   * Count a new item in flight.
+   *
+   * @return the sequence number to complete the item with
+   */
+  public long register() {
+    return submitted++;
+  }
+
+  /**
+   * Mark an item as done, from any thread.
+   *
+   * @param sequenceNr the number {@link #register()} gave the item
+   */
+  public void complete( long sequenceNr, T item ) {
+    completed.add( new Completed<>( sequenceNr, item ) );
+  }
+
+  /**
+   * Add the items that can be handed back to the list.
+   *
+   * @param wait block until at least one item completed
+   * @throws InterruptedException when interrupted while waiting
+   */
+  public void collect( List<T> target, boolean wait ) throws InterruptedException {
+    Completed<T> done = wait ? completed.take() : completed.poll();
+    while ( done != null ) {
+      if ( preserveOrder ) {
+        completedOutOfOrder.put( done.sequenceNr, done.item );
+        T next = completedOutOfOrder.remove( handedBack );
+        while ( next != null ) {
+          target.add( next );
+          handedBack++;
+          next = completedOutOfOrder.remove( handedBack );
+        }
+      } else {
+        target.add( done.item );
+        handedBack++;
+      }
+      done = completed.poll();
+    }
+  }
+
+  /**
+   * @return the number of items registered but not handed back yet
+   */
+  public int getInFlight() {
+    return (int) ( submitted - handedBack );
+  }
+}
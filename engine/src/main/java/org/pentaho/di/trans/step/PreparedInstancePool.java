@@ -0,0 +1,202 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.pentaho.di.core.exception.KettleException;
+
+/**
+ * Keeps a number of instances, for example sub-transformations of an executor step, prepared ahead of the moment the
+ * step needs them. The instances are created one after the other on a single background thread while the step is busy
+ * with the previous one. {@link #take()} hands them out in the order they were prepared and schedules a replacement.<br>
+ * <br>
+ * An instance is handed out only once: the pool doesn't take instances back. The instances that were prepared but
+ * never taken are given to the disposer when the pool is closed.
+ *
+ * @param <T> the prepared instance
+ * @since 11.0
+ */
+public class PreparedInstancePool<T> implements AutoCloseable {
+
+  /**
+   * Creates and initializes a new instance. Called on the background thread of the pool.
+   */
+  public interface Preparer<T> {
+    T prepare() throws KettleException;
+  }
+
+  /**
+   * Releases the resources of an instance that was prepared but never handed out.
+   */
+  public interface Disposer<T> {
+    void dispose( T instance );
+  }
+
+  private final int size;
+  private final Preparer<T> preparer;
+  private final Disposer<T> disposer;
+  private final ExecutorService executor;
+  private final Deque<Future<T>> prepared = new ArrayDeque<>();
+  private boolean closed;
+
+  private long taken;
+  private long waited;
+  private long waitNanos;
+
+  /**
+   * @param size       the number of instances to keep prepared, at least 1
+   * @param threadName the name of the background thread
+   * @param preparer   creates a new instance
+   * @param disposer   releases an instance that is not used
+   */
+  public PreparedInstancePool( int size, String threadName, Preparer<T> preparer, Disposer<T> disposer ) {
+    this.size = Math.max( 1, size );
+    this.preparer = preparer;
+    this.disposer = disposer;
+
+    executor = Executors.newSingleThreadExecutor( runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( threadName + " prepare" );
+      return thread;
+    } );
+  }
+
+  /**
+   * Schedule the preparation of the instances up to the size of the pool.
+   */
+  public synchronized void start() {
+    while ( !closed && prepared.size() < size ) {
+      prepared.add( executor.submit( preparer::prepare ) );
+    }
+  }
+
+  /**
+   * Hand out the next prepared instance, waiting for its preparation to finish if needed, and schedule the preparation
+   * of a replacement.
+   *
+   * @return the prepared instance
+   * @throws KettleException in case the instance couldn't be prepared or the pool is closed
+   */
+  public T take() throws KettleException {
+    Future<T> next;
+    synchronized ( this ) {
+      if ( closed ) {
+        throw new KettleException( "The pool of prepared instances is closed" );
+      }
+      if ( prepared.isEmpty() ) {
+        start();
+      }
+      next = prepared.poll();
+    }
+
+    try {
+      if ( !next.isDone() ) {
+        long startNanos = System.nanoTime();
+        try {
+          return next.get();
+        } finally {
+          waited++;
+          waitNanos += System.nanoTime() - startNanos;
+        }
+      }
+      return next.get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while waiting for a prepared instance", e );
+    } catch ( CancellationException e ) {
+      throw new KettleException( "The preparation of the instance was cancelled", e );
+    } catch ( ExecutionException e ) {
+      Throwable cause = e.getCause();
+      if ( cause instanceof KettleException ) {
+        throw (KettleException) cause;
+      }
+      throw new KettleException( "Unable to prepare an instance", cause );
+    } finally {
+      taken++;
+      start();
+    }
+  }
+
+  /**
+   * Stop preparing instances and dispose the instances that were prepared but not handed out. Waits for the
+   * preparation that is running, if any, to finish so its instance can be disposed too.
+   */
+  @Override
+  public void close() {
+    Deque<Future<T>> leftOver;
+    synchronized ( this ) {
+      if ( closed ) {
+        return;
+      }
+      closed = true;
+      leftOver = new ArrayDeque<>( prepared );
+      prepared.clear();
+    }
+    executor.shutdown();
+
+    for ( Future<T> future : leftOver ) {
+      if ( future.cancel( false ) ) {
+        continue;
+      }
+      try {
+        T instance = future.get();
+        if ( instance != null ) {
+          disposer.dispose( instance );
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch ( ExecutionException | CancellationException e ) {
+        // Nothing was prepared, so there is nothing to dispose
+      }
+    }
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public synchronized boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * @return the number of instances handed out
+   */
+  public long getTaken() {
+    return taken;
+  }
+
+  /**
+   * @return the number of times {@link #take()} had to wait for the preparation of an instance to finish
+   */
+  public long getWaited() {
+    return waited;
+  }
+
+  /**
+   * @return the time in nanoseconds spent waiting for the preparation of instances to finish
+   */
+  public long getWaitNanos() {
+    return waitNanos;
+  }
+}
@@ -41,6 +41,7 @@ import org.pentaho.di.core.encryption.CertificateGenEncryptUtil;
 import org.pentaho.di.core.exception.KettleEOFException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.xml.XMLHandler;
@@ -96,6 +97,9 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
   private int bufferSize;
   private boolean compressingStreams;
 
+  /** The code of the wire format to use, see {@link RemoteStepCodec}. Empty means the classic row stream. */
+  private String compressionCodec;
+
   private boolean encryptingStreams;
   private byte[] key;
   private CipherInputStream cipherInputStream;
@@ -171,6 +175,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     xml.append( XMLHandler.addTagValue( "port", port, false ) );
     xml.append( XMLHandler.addTagValue( "buffer_size", bufferSize, false ) );
     xml.append( XMLHandler.addTagValue( "compressed_streams", compressingStreams, false ) );
+    xml.append( XMLHandler.addTagValue( "compression_codec", compressionCodec, false ) );
 
     xml.append( XMLHandler.addTagValue( "source_step_name", sourceStep, false ) );
     xml.append( XMLHandler.addTagValue( "source_step_copy", sourceStepCopyNr, false ) );
@@ -204,6 +209,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     port = XMLHandler.getTagValue( node, "port" );
     bufferSize = Integer.parseInt( XMLHandler.getTagValue( node, "buffer_size" ) );
     compressingStreams = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "compressed_streams" ) );
+    compressionCodec = XMLHandler.getTagValue( node, "compression_codec" );
 
     sourceStep = XMLHandler.getTagValue( node, "source_step_name" );
     sourceStepCopyNr = Integer.parseInt( XMLHandler.getTagValue( node, "source_step_copy" ) );
@@ -259,6 +265,21 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     this.hostname = hostname;
   }
 
+  /**
+   * @return the code of the wire format to use, see {@link RemoteStepCodec}
+   */
+  public String getCompressionCodec() {
+    return compressionCodec;
+  }
+
+  /**
+   * @param compressionCodec
+   *          the code of the wire format to use, see {@link RemoteStepCodec}. Empty means the classic row stream.
+   */
+  public void setCompressionCodec( String compressionCodec ) {
+    this.compressionCodec = compressionCodec;
+  }
+
   /**
    * int
    *
@@ -347,7 +368,8 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
           // Create the output stream...
           OutputStream socketOut = socket.getOutputStream();
 
-          if ( compressingStreams ) {
+          RemoteStepCodec codec = getEffectiveCodec();
+          if ( !codec.isFramed() && compressingStreams ) {
             gzipOutputStream = new GZIPOutputStream( socketOut, 50000 );
             bufferedOutputStream = new BufferedOutputStream( gzipOutputStream, bufferSize );
           } else {
@@ -384,8 +406,14 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
           // get a row of data...
           Object[] rowData = baseStep.getRowFrom( rowSet );
+          RowBlockWriter blockWriter = null;
+          long startTime = System.currentTimeMillis();
           if ( rowData != null ) {
             rowSet.getRowMeta().writeMeta( outputStream );
+            if ( codec.isFramed() ) {
+              blockWriter =
+                new RowBlockWriter( outputStream, rowSet.getRowMeta(), codec, RowBlockWriter.DEFAULT_BLOCK_SIZE );
+            }
           }
 
           // Send that row to the remote step
@@ -397,7 +425,11 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
             // Write the row to the remote step via the output stream....
             //
-            rowSet.getRowMeta().writeData( outputStream, rowData );
+            if ( blockWriter != null ) {
+              blockWriter.writeRow( rowData );
+            } else {
+              rowSet.getRowMeta().writeData( outputStream, rowData );
+            }
             baseStep.incrementLinesOutput();
 
             if ( baseStep.log.isDebug() ) {
@@ -406,7 +438,15 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
             rowData = baseStep.getRowFrom( rowSet );
           }
 
-          if ( compressingStreams ) {
+          if ( blockWriter != null ) {
+            blockWriter.finish();
+            logBlockTransfer( "Sent", blockWriter.getRows(), blockWriter.getBlocks(), blockWriter.getRawBytes(),
+              blockWriter.getWireBytes(), System.currentTimeMillis() - startTime );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_ROWS_SENT, blockWriter.getRows() );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_RAW_BYTES_SENT, blockWriter.getRawBytes() );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_WIRE_BYTES_SENT, blockWriter.getWireBytes() );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_ENCODE_TIME, blockWriter.getEncodeTime() );
+          } else if ( compressingStreams && gzipOutputStream != null ) {
             outputStream.flush();
             gzipOutputStream.finish();
           } else {
@@ -521,7 +561,14 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     }
   }
 
-  private Object[] getRowOfData( RowMetaInterface rowMeta ) throws KettleFileException {
+  private Object[] getRowOfData( RowMetaInterface rowMeta, RowBlockReader blockReader ) throws KettleFileException,
+    IOException {
+    if ( blockReader != null ) {
+      // A block is decoded in one go, null marks the end of the stream
+      //
+      return baseStep.isStopped() ? null : blockReader.readRow();
+    }
+
     Object[] rowData = null;
 
     while ( !baseStep.isStopped() && rowData == null ) {
@@ -535,6 +582,28 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
     return rowData;
   }
 
+  /**
+   * @return the wire format to use: framed codecs send uncompressed blocks if the streams are not to be compressed
+   */
+  private RemoteStepCodec getEffectiveCodec() {
+    RemoteStepCodec codec = RemoteStepCodec.getCodecByCode( baseStep.environmentSubstitute( compressionCodec ) );
+    if ( codec.isFramed() && !compressingStreams ) {
+      return RemoteStepCodec.NONE;
+    }
+    return codec;
+  }
+
+  private void logBlockTransfer( String action, long rows, long blocks, long rawBytes, long wireBytes, long millis ) {
+    if ( !baseStep.log.isBasic() ) {
+      return;
+    }
+    double ratio = wireBytes == 0 ? 1.0 : (double) rawBytes / wireBytes;
+    double megaBytesPerSecond = millis <= 0 ? 0.0 : ( rawBytes / 1048576.0 ) / ( millis / 1000.0 );
+    baseStep.logBasic( String.format( "%s %d rows in %d blocks on port %s: %d bytes of row data, %d bytes on the wire"
+      + " (compression ratio %.2f, %.1f MB/s)", action, rows, blocks, port, rawBytes, wireBytes, ratio,
+      megaBytesPerSecond ) );
+  }
+
   public synchronized BlockingRowSet openReaderSocket( final BaseStep baseStep ) throws IOException,
     KettleException {
     this.baseStep = baseStep;
@@ -574,7 +643,7 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
         connected = true;
 
         InputStream socketStream = socket.getInputStream();
-        if ( compressingStreams ) {
+        if ( !getEffectiveCodec().isFramed() && compressingStreams ) {
           gzipInputStream = new GZIPInputStream( socketStream );
           bufferedInputStream = new BufferedInputStream( gzipInputStream, bufferSize );
         } else {
@@ -677,9 +746,17 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
             throw new KettleEOFException(); // leave now.
           }
 
+          // Framed codecs send the rows in blocks after the row metadata
+          //
+          long startTime = System.currentTimeMillis();
+          RowBlockReader blockReader = null;
+          if ( getEffectiveCodec().isFramed() ) {
+            blockReader = new RowBlockReader( inputStream, rowMeta );
+          }
+
           // And a first row of data...
           //
-          Object[] rowData = getRowOfData( rowMeta );
+          Object[] rowData = getRowOfData( rowMeta, blockReader );
 
           // Now get the data itself, row by row...
           //
@@ -693,7 +770,15 @@ public class RemoteStep implements Cloneable, XMLInterface, Comparable<RemoteSte
 
             baseStep.putRowTo( rowMeta, rowData, rowSet );
             baseStep.decrementLinesWritten();
-            rowData = getRowOfData( rowMeta );
+            rowData = getRowOfData( rowMeta, blockReader );
+          }
+
+          if ( blockReader != null ) {
+            logBlockTransfer( "Received", blockReader.getRows(), blockReader.getBlocks(), blockReader.getRawBytes(),
+              blockReader.getWireBytes(), System.currentTimeMillis() - startTime );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_ROWS_RECEIVED, blockReader.getRows() );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_WIRE_BYTES_RECEIVED, blockReader.getWireBytes() );
+            baseStep.log.snap( Metrics.METRIC_REMOTE_STEP_DECODE_TIME, blockReader.getDecodeTime() );
           }
         } catch ( KettleEOFException e ) {
           // Nothing, we're simply done reading...
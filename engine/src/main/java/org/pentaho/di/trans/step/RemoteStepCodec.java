@@ -0,0 +1,212 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.pentaho.di.core.row.LZ4BlockCompressor;
+import org.pentaho.di.core.util.Utils;
+import org.xerial.snappy.Snappy;
+
+/**
+ * The wire formats a remote step can use to ship rows between slave servers.<br>
+ * <br>
+ * {@link #GZIP} is the classic row by row stream, optionally wrapped in a GZIP stream. The other codecs send rows in
+ * length-prefixed blocks (see {@link RowBlockWriter}) where each block is compressed on its own. That way the receiver
+ * can decode a whole block in one go into buffers it re-uses.
+ *
+ * @since 11.0
+ */
+public enum RemoteStepCodec {
+
+  /** Row by row stream, GZIP compressed if the cluster schema asks for compressed sockets. */
+  GZIP( "gzip", 0 ),
+
+  /** Framed blocks, not compressed. */
+  NONE( "none", 1 ),
+
+  /** Framed blocks compressed with Snappy: a fast LZ77 style codec. */
+  SNAPPY( "snappy", 2 ),
+
+  /** Framed blocks compressed with Deflate at its fastest setting. */
+  DEFLATE( "deflate", 3 ),
+
+  /** Framed blocks compressed with LZ4, the block codec the row spill files use. */
+  LZ4( "lz4", 4 );
+
+  private final String code;
+  private final int id;
+
+  RemoteStepCodec( String code, int id ) {
+    this.code = code;
+    this.id = id;
+  }
+
+  /**
+   * @return the code used to store the codec in XML and in repositories
+   */
+  public String getCode() {
+    return code;
+  }
+
+  /**
+   * @return the identifier written in front of every compressed block
+   */
+  public int getId() {
+    return id;
+  }
+
+  /**
+   * @return true if rows are sent in length-prefixed blocks, false for the classic row stream
+   */
+  public boolean isFramed() {
+    return this != GZIP;
+  }
+
+  /**
+   * @return the codec codes, in the order of the enumeration
+   */
+  public static String[] getCodes() {
+    RemoteStepCodec[] codecs = values();
+    String[] codes = new String[codecs.length];
+    for ( int i = 0; i < codecs.length; i++ ) {
+      codes[i] = codecs[i].code;
+    }
+    return codes;
+  }
+
+  /**
+   * Look up a codec by its code. An empty or unknown code gives the classic {@link #GZIP} stream.
+   *
+   * @param code
+   *          the code to look for
+   * @return the codec, never null
+   */
+  public static RemoteStepCodec getCodecByCode( String code ) {
+    if ( !Utils.isEmpty( code ) ) {
+      for ( RemoteStepCodec codec : values() ) {
+        if ( codec.code.equalsIgnoreCase( code.trim() ) ) {
+          return codec;
+        }
+      }
+    }
+    return GZIP;
+  }
+
+  static RemoteStepCodec getCodecById( int id ) throws IOException {
+    for ( RemoteStepCodec codec : values() ) {
+      if ( codec.id == id && codec.isFramed() ) {
+        return codec;
+      }
+    }
+    throw new IOException( "Unknown remote step block codec id " + id );
+  }
+
+  /**
+   * @return the largest number of bytes {@link #compress} can produce for the given input length
+   */
+  int maxCompressedLength( int length ) {
+    switch ( this ) {
+      case SNAPPY:
+        return Snappy.maxCompressedLength( length );
+      case DEFLATE:
+        // Stored blocks add 5 bytes per 16k, plus the zlib header and trailer
+        return length + ( length >> 12 ) + ( length >> 14 ) + 64;
+      case LZ4:
+        return LZ4BlockCompressor.maxCompressedLength( length );
+      default:
+        return length;
+    }
+  }
+
+  /**
+   * Compress a block.
+   *
+   * @param deflater
+   *          the deflater of the calling writer, only used by {@link #DEFLATE}
+   * @param lz4
+   *          the LZ4 compressor of the calling writer, only used by {@link #LZ4}
+   * @return the number of compressed bytes written in the target buffer
+   */
+  int compress( byte[] source, int length, byte[] target, Deflater deflater, LZ4BlockCompressor lz4 )
+    throws IOException {
+    switch ( this ) {
+      case SNAPPY:
+        return Snappy.compress( source, 0, length, target, 0 );
+      case LZ4:
+        return lz4.compress( source, length, target );
+      case DEFLATE:
+        deflater.reset();
+        deflater.setInput( source, 0, length );
+        deflater.finish();
+        int size = 0;
+        while ( !deflater.finished() && size < target.length ) {
+          size += deflater.deflate( target, size, target.length - size );
+        }
+        if ( !deflater.finished() ) {
+          throw new IOException( "Compressed block doesn't fit in " + target.length + " bytes" );
+        }
+        return size;
+      default:
+        System.arraycopy( source, 0, target, 0, length );
+        return length;
+    }
+  }
+
+  /**
+   * Uncompress a block in the target buffer which is at least the raw length of the block.
+   *
+   * @param inflater
+   *          the inflater of the calling reader, only used by {@link #DEFLATE}
+   */
+  void uncompress( byte[] source, int length, byte[] target, int rawLength, Inflater inflater ) throws IOException {
+    int size;
+    switch ( this ) {
+      case SNAPPY:
+        size = Snappy.uncompress( source, 0, length, target, 0 );
+        break;
+      case LZ4:
+        // Checks the decoded length itself
+        LZ4BlockCompressor.decompress( source, length, target, rawLength );
+        size = rawLength;
+        break;
+      case DEFLATE:
+        inflater.reset();
+        inflater.setInput( source, 0, length );
+        try {
+          size = 0;
+          while ( size < rawLength && !inflater.finished() ) {
+            int n = inflater.inflate( target, size, rawLength - size );
+            if ( n == 0 && ( inflater.needsInput() || inflater.needsDictionary() ) ) {
+              break;
+            }
+            size += n;
+          }
+        } catch ( DataFormatException e ) {
+          throw new IOException( "Corrupt deflate block received from remote step", e );
+        }
+        break;
+      default:
+        System.arraycopy( source, 0, target, 0, length );
+        size = length;
+        break;
+    }
+    if ( size != rawLength ) {
+      throw new IOException( "Remote step block decoded to " + size + " bytes, expected " + rawLength );
+    }
+  }
+}
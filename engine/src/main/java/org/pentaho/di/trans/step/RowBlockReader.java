@@ -0,0 +1,192 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.zip.Inflater;
+
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Reads the blocks sent by a {@link RowBlockWriter}. Every block is read and decoded in one go into buffers that are
+ * re-used for the next block, the rows are then handed out one by one.
+ *
+ * @since 11.0
+ */
+public class RowBlockReader {
+
+  private final DataInputStream inputStream;
+  private final RowMetaInterface rowMeta;
+
+  private final BlockInputStream block;
+  private final DataInputStream blockInputStream;
+  private Inflater inflater;
+
+  private byte[] payload = new byte[ 0 ];
+  private byte[] raw = new byte[ 0 ];
+
+  private int blockRows;
+  private boolean finished;
+
+  private long rows;
+  private long blocks;
+  private long rawBytes;
+  private long wireBytes;
+  private long decodeNanos;
+
+  /**
+   * @param inputStream
+   *          the stream to read the frames from
+   * @param rowMeta
+   *          the layout of the rows sent
+   */
+  public RowBlockReader( DataInputStream inputStream, RowMetaInterface rowMeta ) {
+    this.inputStream = inputStream;
+    this.rowMeta = rowMeta;
+    this.block = new BlockInputStream();
+    this.blockInputStream = new DataInputStream( block );
+  }
+
+  /**
+   * Read the next row, reading and decoding a new block when the current one is exhausted.
+   *
+   * @return the next row or null once the end of stream marker is received
+   */
+  public Object[] readRow() throws KettleFileException, IOException {
+    while ( blockRows == 0 ) {
+      if ( finished || !readBlock() ) {
+        return null;
+      }
+    }
+    blockRows--;
+    rows++;
+    return rowMeta.readData( blockInputStream );
+  }
+
+  private boolean readBlock() throws IOException {
+    int nrRows = inputStream.readInt();
+    if ( nrRows == 0 ) {
+      finished = true;
+      wireBytes += 4;
+      release();
+      return false;
+    }
+    if ( nrRows < 0 ) {
+      throw new IOException( "Invalid remote step block header: " + nrRows + " rows" );
+    }
+    long start = System.nanoTime();
+    RemoteStepCodec codec = RemoteStepCodec.getCodecById( inputStream.readUnsignedByte() );
+    int rawLength = inputStream.readInt();
+    int payloadLength = inputStream.readInt();
+    if ( rawLength < 0 || payloadLength < 0 ) {
+      throw new IOException( "Invalid remote step block header: " + rawLength + "/" + payloadLength + " bytes" );
+    }
+
+    if ( codec == RemoteStepCodec.NONE ) {
+      raw = ensureCapacity( raw, rawLength );
+      inputStream.readFully( raw, 0, rawLength );
+    } else {
+      payload = ensureCapacity( payload, payloadLength );
+      inputStream.readFully( payload, 0, payloadLength );
+      raw = ensureCapacity( raw, rawLength );
+      if ( codec == RemoteStepCodec.DEFLATE && inflater == null ) {
+        inflater = new Inflater();
+      }
+      codec.uncompress( payload, payloadLength, raw, rawLength, inflater );
+    }
+    block.reset( raw, rawLength );
+
+    blockRows = nrRows;
+    blocks++;
+    rawBytes += rawLength;
+    wireBytes += payloadLength + 13;
+    decodeNanos += System.nanoTime() - start;
+    return true;
+  }
+
+  private static byte[] ensureCapacity( byte[] buffer, int length ) {
+    if ( buffer.length >= length ) {
+      return buffer;
+    }
+    return new byte[ Math.max( length, buffer.length + buffer.length / 2 ) ];
+  }
+
+  private void release() {
+    if ( inflater != null ) {
+      inflater.end();
+      inflater = null;
+    }
+  }
+
+  /**
+   * @return true if the end of stream marker was received
+   */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /**
+   * @return the number of rows read
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * @return the number of blocks received
+   */
+  public long getBlocks() {
+    return blocks;
+  }
+
+  /**
+   * @return the number of serialized row bytes received, after decompression
+   */
+  public long getRawBytes() {
+    return rawBytes;
+  }
+
+  /**
+   * @return the number of bytes received over the wire, frame headers included
+   */
+  public long getWireBytes() {
+    return wireBytes;
+  }
+
+  /**
+   * @return the time spent reading and decoding blocks in milliseconds, not counting the wait for a block to start
+   */
+  public long getDecodeTime() {
+    return decodeNanos / 1000000L;
+  }
+
+  /**
+   * A byte array input stream that can be pointed at a new block without allocating.
+   */
+  static class BlockInputStream extends ByteArrayInputStream {
+    BlockInputStream() {
+      super( new byte[ 0 ] );
+    }
+
+    void reset( byte[] buffer, int length ) {
+      this.buf = buffer;
+      this.pos = 0;
+      this.count = length;
+      this.mark = 0;
+    }
+  }
+}
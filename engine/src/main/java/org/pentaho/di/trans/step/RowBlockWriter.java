@@ -0,0 +1,208 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.LZ4BlockCompressor;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+/**
+ * Writes rows to a remote step in length-prefixed blocks.<br>
+ * <br>
+ * Rows are serialized into a re-used buffer. Once the buffer holds at least the block size, it is compressed as a
+ * whole and sent as one frame:
+ *
+ * <pre>
+ * int  number of rows in the block (0 marks the end of the stream)
+ * byte codec id of the payload
+ * int  length of the serialized rows
+ * int  length of the payload
+ * byte[] payload
+ * </pre>
+ *
+ * A block that doesn't get smaller by compressing it is sent as is.
+ *
+ * @since 11.0
+ */
+public class RowBlockWriter {
+
+  public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+  private final DataOutputStream outputStream;
+  private final RowMetaInterface rowMeta;
+  private final RemoteStepCodec codec;
+  private final int blockSize;
+
+  private final BlockBuffer block;
+  private final DataOutputStream blockOutputStream;
+  private final Deflater deflater;
+  private final LZ4BlockCompressor lz4;
+  private byte[] compressed;
+
+  private int blockRows;
+
+  private long rows;
+  private long blocks;
+  private long rawBytes;
+  private long wireBytes;
+  private long encodeNanos;
+
+  /**
+   * @param outputStream
+   *          the stream to write the frames to
+   * @param rowMeta
+   *          the layout of the rows to write
+   * @param codec
+   *          the (framed) codec to compress the blocks with
+   * @param blockSize
+   *          the number of serialized bytes after which a block is sent
+   */
+  public RowBlockWriter( DataOutputStream outputStream, RowMetaInterface rowMeta, RemoteStepCodec codec,
+    int blockSize ) {
+    if ( !codec.isFramed() ) {
+      throw new IllegalArgumentException( "Codec " + codec.getCode() + " doesn't send rows in blocks" );
+    }
+    this.outputStream = outputStream;
+    this.rowMeta = rowMeta;
+    this.codec = codec;
+    this.blockSize = blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+    this.block = new BlockBuffer( this.blockSize + this.blockSize / 4 );
+    this.blockOutputStream = new DataOutputStream( block );
+    this.deflater = codec == RemoteStepCodec.DEFLATE ? new Deflater( Deflater.BEST_SPEED ) : null;
+    this.lz4 = codec == RemoteStepCodec.LZ4 ? new LZ4BlockCompressor() : null;
+  }
+
+  /**
+   * Add a row to the current block, sending the block if it's full.
+   */
+  public void writeRow( Object[] row ) throws KettleFileException, IOException {
+    rowMeta.writeData( blockOutputStream, row );
+    blockRows++;
+    rows++;
+    if ( block.size() >= blockSize ) {
+      flushBlock();
+    }
+  }
+
+  /**
+   * Send the rows collected so far as a block, if there are any.
+   */
+  public void flushBlock() throws IOException {
+    if ( blockRows == 0 ) {
+      return;
+    }
+    long start = System.nanoTime();
+    int rawLength = block.size();
+    byte[] payload = block.getBuffer();
+    int payloadLength = rawLength;
+    RemoteStepCodec payloadCodec = RemoteStepCodec.NONE;
+
+    if ( codec != RemoteStepCodec.NONE ) {
+      int maxLength = codec.maxCompressedLength( rawLength );
+      if ( compressed == null || compressed.length < maxLength ) {
+        compressed = new byte[ maxLength ];
+      }
+      int compressedLength = codec.compress( payload, rawLength, compressed, deflater, lz4 );
+      if ( compressedLength < rawLength ) {
+        payload = compressed;
+        payloadLength = compressedLength;
+        payloadCodec = codec;
+      }
+    }
+
+    outputStream.writeInt( blockRows );
+    outputStream.writeByte( payloadCodec.getId() );
+    outputStream.writeInt( rawLength );
+    outputStream.writeInt( payloadLength );
+    outputStream.write( payload, 0, payloadLength );
+
+    blocks++;
+    rawBytes += rawLength;
+    wireBytes += payloadLength + 13;
+    encodeNanos += System.nanoTime() - start;
+
+    block.reset();
+    blockRows = 0;
+  }
+
+  /**
+   * Send the last block followed by the end of stream marker and flush the output stream.
+   */
+  public void finish() throws IOException {
+    flushBlock();
+    outputStream.writeInt( 0 );
+    outputStream.flush();
+    wireBytes += 4;
+    if ( deflater != null ) {
+      deflater.end();
+    }
+  }
+
+  public RemoteStepCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * @return the number of rows written
+   */
+  public long getRows() {
+    return rows;
+  }
+
+  /**
+   * @return the number of blocks sent
+   */
+  public long getBlocks() {
+    return blocks;
+  }
+
+  /**
+   * @return the number of serialized row bytes sent, before compression
+   */
+  public long getRawBytes() {
+    return rawBytes;
+  }
+
+  /**
+   * @return the number of bytes sent over the wire, frame headers included
+   */
+  public long getWireBytes() {
+    return wireBytes;
+  }
+
+  /**
+   * @return the time spent compressing and sending blocks in milliseconds
+   */
+  public long getEncodeTime() {
+    return encodeNanos / 1000000L;
+  }
+
+  /**
+   * A byte array output stream which hands out its buffer instead of a copy.
+   */
+  static class BlockBuffer extends ByteArrayOutputStream {
+    BlockBuffer( int size ) {
+      super( size );
+    }
+
+    byte[] getBuffer() {
+      return buf;
+    }
+  }
+}
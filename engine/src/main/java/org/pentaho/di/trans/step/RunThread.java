@@ -41,6 +41,7 @@ public class RunThread implements Runnable {
   }
 
   public void run() {
+    StepProfile profile = step.getProfile();
     try {
       step.setRunning( true );
       step.getLogChannel().snap( Metrics.METRIC_STEP_EXECUTION_START );
@@ -51,9 +52,22 @@ public class RunThread implements Runnable {
       }
 
       // Wait
-      while ( step.processRow( meta, data ) ) {
-        if ( step.isStopped() ) {
-          break;
+      if ( profile == null ) {
+        while ( step.processRow( meta, data ) ) {
+          if ( step.isStopped() ) {
+            break;
+          }
+        }
+      } else {
+        profile.startRunning();
+        boolean more = true;
+        while ( more ) {
+          long start = System.nanoTime();
+          more = step.processRow( meta, data );
+          profile.addProcessTime( System.nanoTime() - start );
+          if ( step.isStopped() ) {
+            break;
+          }
         }
       }
     } catch ( Throwable t ) {
@@ -86,6 +100,9 @@ public class RunThread implements Runnable {
         step.stopAll();
       }
     } finally {
+      if ( profile != null ) {
+        profile.stopRunning();
+      }
       step.afterFinishProcessing( meta, data );
       step.dispose( meta, data );
       step.getLogChannel().snap( Metrics.METRIC_STEP_EXECUTION_STOP );
@@ -21,6 +21,7 @@ import java.util.Map;
 import org.json.simple.JSONObject;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.HasLogChannelInterface;
@@ -500,6 +501,20 @@ public interface StepInterface extends VariableSpace, HasLogChannelInterface {
     return Collections.emptyList();
   }
 
+  /**
+   * @return the hit, miss and eviction counters of the lookup cache of the step, null if the step has no cache
+   */
+  default LookupCacheStatistics getCacheStatistics() {
+    return null;
+  }
+
+  /**
+   * @return where the step thread spends its time, null if the step doesn't keep track of that
+   */
+  default StepProfile getProfile() {
+    return null;
+  }
+
   default void addRowSetToInputRowSets( RowSet rowSet ) {
     getInputRowSets().add( rowSet );
   }
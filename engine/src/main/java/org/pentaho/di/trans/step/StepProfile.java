@@ -0,0 +1,170 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where the thread of a step spends its time: in processRow(), waiting for rows to arrive in getRow(), waiting for
+ * room in an output row set in putRow(), and how much CPU time it used and memory it allocated.<br>
+ * <br>
+ * The wait times are only measured once a row set turned out to be empty or full, so the fast path of getRow() and
+ * putRow() is not slowed down. CPU time and allocated bytes come from the {@link ThreadMXBean} and are only read when
+ * somebody asks for them. They are -1 when the JVM can't measure them, for example for virtual threads.
+ *
+ * @since 11.0
+ */
+public class StepProfile {
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  private volatile long processNanos;
+  private final AtomicLong inputWaitNanos = new AtomicLong();
+  private final AtomicLong outputWaitNanos = new AtomicLong();
+
+  private long threadId = -1L;
+  private long cpuNanos;
+  private long allocatedBytes;
+  private long threadCpuStart;
+  private long threadAllocatedStart;
+  private boolean cpuUnknown;
+  private boolean allocatedUnknown;
+
+  /**
+   * Start measuring the CPU time and allocations of the calling thread.
+   */
+  public synchronized void startRunning() {
+    threadId = Thread.currentThread().getId();
+    threadCpuStart = threadCpuTime( threadId );
+    threadAllocatedStart = threadAllocatedBytes( threadId );
+    cpuUnknown |= threadCpuStart < 0;
+    allocatedUnknown |= threadAllocatedStart < 0;
+  }
+
+  /**
+   * Stop measuring the thread that called {@link #startRunning()}. Must be called on that same thread.
+   */
+  public synchronized void stopRunning() {
+    if ( threadId < 0 ) {
+      return;
+    }
+    long cpuEnd = threadCpuTime( threadId );
+    long allocatedEnd = threadAllocatedBytes( threadId );
+    cpuUnknown |= cpuEnd < 0;
+    allocatedUnknown |= allocatedEnd < 0;
+    cpuNanos += elapsed( threadCpuStart, cpuEnd );
+    allocatedBytes += elapsed( threadAllocatedStart, allocatedEnd );
+    threadId = -1L;
+  }
+
+  /**
+   * Add the time of one processRow() call. Only called by the thread running the step.
+   */
+  public void addProcessTime( long nanos ) {
+    processNanos += nanos;
+  }
+
+  public void addInputWaitTime( long nanos ) {
+    inputWaitNanos.addAndGet( nanos );
+  }
+
+  public void addOutputWaitTime( long nanos ) {
+    outputWaitNanos.addAndGet( nanos );
+  }
+
+  /**
+   * @return the time spent in processRow(), waiting included, in milliseconds
+   */
+  public long getProcessTime() {
+    return TimeUnit.NANOSECONDS.toMillis( processNanos );
+  }
+
+  /**
+   * @return the time spent waiting for rows from the previous steps, in milliseconds
+   */
+  public long getInputWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis( inputWaitNanos.get() );
+  }
+
+  /**
+   * @return the time spent waiting for room in the output buffers, in milliseconds
+   */
+  public long getOutputWaitTime() {
+    return TimeUnit.NANOSECONDS.toMillis( outputWaitNanos.get() );
+  }
+
+  /**
+   * @return the CPU time used by the step thread in milliseconds, -1 if it can't be measured
+   */
+  public synchronized long getCpuTime() {
+    if ( !isCpuTimeSupported() || cpuUnknown ) {
+      return -1L;
+    }
+    long nanos = cpuNanos;
+    if ( threadId >= 0 ) {
+      long now = threadCpuTime( threadId );
+      if ( now < 0 ) {
+        return -1L;
+      }
+      nanos += elapsed( threadCpuStart, now );
+    }
+    return TimeUnit.NANOSECONDS.toMillis( nanos );
+  }
+
+  /**
+   * @return the number of bytes allocated by the step thread, -1 if it can't be measured
+   */
+  public synchronized long getAllocatedBytes() {
+    if ( !isAllocatedBytesSupported() || allocatedUnknown ) {
+      return -1L;
+    }
+    long bytes = allocatedBytes;
+    if ( threadId >= 0 ) {
+      long now = threadAllocatedBytes( threadId );
+      if ( now < 0 ) {
+        return -1L;
+      }
+      bytes += elapsed( threadAllocatedStart, now );
+    }
+    return bytes;
+  }
+
+  private static long elapsed( long start, long end ) {
+    return start < 0 || end < 0 ? 0L : Math.max( 0L, end - start );
+  }
+
+  private static boolean isCpuTimeSupported() {
+    return THREADS.isThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled();
+  }
+
+  private static boolean isAllocatedBytesSupported() {
+    if ( THREADS instanceof com.sun.management.ThreadMXBean ) {
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+      return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+    return false;
+  }
+
+  private static long threadCpuTime( long id ) {
+    return isCpuTimeSupported() ? THREADS.getThreadCpuTime( id ) : -1L;
+  }
+
+  private static long threadAllocatedBytes( long id ) {
+    return isAllocatedBytesSupported()
+      ? ( (com.sun.management.ThreadMXBean) THREADS ).getThreadAllocatedBytes( id ) : -1L;
+  }
+}
@@ -24,6 +24,7 @@ import jakarta.xml.bind.annotation.XmlRootElement;
 
 import org.owasp.encoder.Encode;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -52,6 +53,14 @@ public class StepStatus {
   private boolean stopped;
   private boolean paused;
   private long accumlatedRuntime;
+  private long cacheHits;
+  private long cacheMisses;
+  private long cacheEvictions;
+  private long processTime;
+  private long inputWaitTime;
+  private long outputWaitTime;
+  private long cpuTime;
+  private long allocatedBytes;
 
   private RowMetaInterface sampleRowMeta;
   private List<Object[]> sampleRows;
@@ -80,6 +89,22 @@ public class StepStatus {
     this.accumlatedRuntime = accumlatedRuntime + baseStep.getRuntime();
     this.statusDescription = baseStep.getStatus().getDescription();
 
+    LookupCacheStatistics cacheStatistics = baseStep.getCacheStatistics();
+    if ( cacheStatistics != null ) {
+      this.cacheHits = cacheHits + cacheStatistics.getHits();
+      this.cacheMisses = cacheMisses + cacheStatistics.getMisses();
+      this.cacheEvictions = cacheEvictions + cacheStatistics.getEvictions();
+    }
+
+    StepProfile profile = baseStep.getProfile();
+    if ( profile != null ) {
+      this.processTime = processTime + profile.getProcessTime();
+      this.inputWaitTime = inputWaitTime + profile.getInputWaitTime();
+      this.outputWaitTime = outputWaitTime + profile.getOutputWaitTime();
+      this.cpuTime = addMeasurement( cpuTime, profile.getCpuTime() );
+      this.allocatedBytes = addMeasurement( allocatedBytes, profile.getAllocatedBytes() );
+    }
+
     long in_proc = Math.max( linesInput, linesRead );
     long out_proc = Math.max( linesOutput + linesUpdated, linesWritten + linesRejected );
 
@@ -102,6 +127,13 @@ public class StepStatus {
     this.paused = baseStep.isPaused();
   }
 
+  /**
+   * Adds up measurements that are -1 when they can't be measured: once one is unknown, the total is unknown too.
+   */
+  private static long addMeasurement( long total, long value ) {
+    return total < 0 || value < 0 ? -1L : total + value;
+  }
+
   public String getHTMLTableRow( boolean urlInStepname ) {
     return "<tr> " + "<th>"
       + ( urlInStepname ? stepname : Encode.forHtml( stepname ) ) + "</th> " + "<th>" + copy + "</th> "
@@ -132,6 +164,14 @@ public class StepStatus {
       xml.append( XMLHandler.addTagValue( "priority", priority, false ) );
       xml.append( XMLHandler.addTagValue( "stopped", stopped, false ) );
       xml.append( XMLHandler.addTagValue( "paused", paused, false ) );
+      xml.append( XMLHandler.addTagValue( "cacheHits", cacheHits, false ) );
+      xml.append( XMLHandler.addTagValue( "cacheMisses", cacheMisses, false ) );
+      xml.append( XMLHandler.addTagValue( "cacheEvictions", cacheEvictions, false ) );
+      xml.append( XMLHandler.addTagValue( "processTime", processTime, false ) );
+      xml.append( XMLHandler.addTagValue( "inputWaitTime", inputWaitTime, false ) );
+      xml.append( XMLHandler.addTagValue( "outputWaitTime", outputWaitTime, false ) );
+      xml.append( XMLHandler.addTagValue( "cpuTime", cpuTime, false ) );
+      xml.append( XMLHandler.addTagValue( "allocatedBytes", allocatedBytes, false ) );
 
       if ( sampleRowMeta != null ) {
         xml.append( XMLHandler.openTag( "samples" ) );
@@ -173,6 +213,16 @@ public class StepStatus {
     priority = XMLHandler.getTagValue( node, "priority" );
     stopped = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "stopped" ) );
     paused = "Y".equalsIgnoreCase( XMLHandler.getTagValue( node, "paused" ) );
+    // older servers don't send the cache counters
+    cacheHits = Const.toLong( XMLHandler.getTagValue( node, "cacheHits" ), 0L );
+    cacheMisses = Const.toLong( XMLHandler.getTagValue( node, "cacheMisses" ), 0L );
+    cacheEvictions = Const.toLong( XMLHandler.getTagValue( node, "cacheEvictions" ), 0L );
+    // nor the step profile
+    processTime = Const.toLong( XMLHandler.getTagValue( node, "processTime" ), 0L );
+    inputWaitTime = Const.toLong( XMLHandler.getTagValue( node, "inputWaitTime" ), 0L );
+    outputWaitTime = Const.toLong( XMLHandler.getTagValue( node, "outputWaitTime" ), 0L );
+    cpuTime = Const.toLong( XMLHandler.getTagValue( node, "cpuTime" ), 0L );
+    allocatedBytes = Const.toLong( XMLHandler.getTagValue( node, "allocatedBytes" ), 0L );
 
     Node samplesNode = XMLHandler.getSubNode( node, "samples" );
     if ( samplesNode != null ) {
@@ -483,6 +533,94 @@ public class StepStatus {
     this.paused = paused;
   }
 
+  /**
+   * @return the number of lookups found in the cache of the step
+   */
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
+  public void setCacheHits( long cacheHits ) {
+    this.cacheHits = cacheHits;
+  }
+
+  /**
+   * @return the number of lookups not found in the cache of the step
+   */
+  public long getCacheMisses() {
+    return cacheMisses;
+  }
+
+  public void setCacheMisses( long cacheMisses ) {
+    this.cacheMisses = cacheMisses;
+  }
+
+  /**
+   * @return the number of entries evicted from the cache of the step
+   */
+  public long getCacheEvictions() {
+    return cacheEvictions;
+  }
+
+  public void setCacheEvictions( long cacheEvictions ) {
+    this.cacheEvictions = cacheEvictions;
+  }
+
+  /**
+   * @return the time spent in processRow() in milliseconds, waiting for input and output included
+   */
+  public long getProcessTime() {
+    return processTime;
+  }
+
+  public void setProcessTime( long processTime ) {
+    this.processTime = processTime;
+  }
+
+  /**
+   * @return the time spent waiting for rows from the previous steps in milliseconds
+   */
+  public long getInputWaitTime() {
+    return inputWaitTime;
+  }
+
+  public void setInputWaitTime( long inputWaitTime ) {
+    this.inputWaitTime = inputWaitTime;
+  }
+
+  /**
+   * @return the time spent waiting for room in the output buffers in milliseconds
+   */
+  public long getOutputWaitTime() {
+    return outputWaitTime;
+  }
+
+  public void setOutputWaitTime( long outputWaitTime ) {
+    this.outputWaitTime = outputWaitTime;
+  }
+
+  /**
+   * @return the CPU time used by the step thread in milliseconds, -1 if the JVM can't measure it
+   */
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  public void setCpuTime( long cpuTime ) {
+    this.cpuTime = cpuTime;
+  }
+
+  /**
+   * @return the number of bytes allocated by the step thread, -1 if the JVM can't measure it
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public void setAllocatedBytes( long allocatedBytes ) {
+    this.allocatedBytes = allocatedBytes;
+  }
+
   public RowMetaInterface getSampleRowMeta() {
     return sampleRowMeta;
   }
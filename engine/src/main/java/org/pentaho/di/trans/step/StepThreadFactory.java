@@ -0,0 +1,191 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.trans.TransMeta.StepThreadMode;
+
+/**
+ * Creates the threads that initialize and run the step copies of a transformation ({@link StepInitThread} and
+ * {@link RunThread}).<br>
+ * <br>
+ * In the {@link StepThreadMode#Virtual} mode the steps run on virtual threads. These are cheap to create and don't
+ * hold on to an operating system thread while they wait for rows or for room in a row set. The JVM runs them on a
+ * small pool of carrier threads. Its size is a JVM startup option, for example
+ * -Djdk.virtualThreadScheduler.parallelism=4 in the options of the Kettle or Carte start script: the pool is created
+ * once, so it can't be changed while Kettle runs. Virtual threads are looked up at runtime so Kettle still runs on a
+ * JVM without them: it falls back to platform threads in that case.<br>
+ * <br>
+ * Steps that use a database connection always run on platform threads. JDBC drivers and {@link
+ * org.pentaho.di.core.database.Database} block inside synchronized code, which keeps a virtual thread on its carrier
+ * thread for the whole call and would take the carrier away from the other steps.<br>
+ * <br>
+ * The number of step threads running on virtual threads is available through
+ * {@link #getActiveVirtualStepThreads()}.
+ *
+ * @since 11.0
+ */
+public class StepThreadFactory {
+
+  private static final AtomicInteger activeVirtualStepThreads = new AtomicInteger();
+  private static final AtomicInteger peakVirtualStepThreads = new AtomicInteger();
+  private static final AtomicInteger virtualThreadNr = new AtomicInteger();
+
+  private static volatile boolean initialized;
+  private static Method ofVirtualMethod;
+  private static Method builderNameMethod;
+  private static Method builderUnstartedMethod;
+
+  private final boolean virtual;
+
+  /**
+   * @param virtual
+   *          true to create virtual threads. Ignored if the JVM doesn't support virtual threads.
+   */
+  public StepThreadFactory( boolean virtual ) {
+    this.virtual = virtual && isVirtualThreadSupported();
+  }
+
+  /**
+   * Create the factory for a transformation with the given step thread mode.
+   *
+   * @param mode
+   *          the step thread mode of the transformation, Default uses the KETTLE_STEP_THREAD_MODE variable
+   * @return the factory
+   */
+  public static StepThreadFactory getFactory( StepThreadMode mode ) {
+    return new StepThreadFactory( isVirtualRequested( mode ) );
+  }
+
+  /**
+   * @param mode
+   *          the step thread mode of a transformation
+   * @return true if the mode, or the KETTLE_STEP_THREAD_MODE variable for the Default mode, asks for virtual threads.
+   */
+  public static boolean isVirtualRequested( StepThreadMode mode ) {
+    if ( mode == null || mode == StepThreadMode.Default ) {
+      mode = StepThreadMode.getStepThreadModeByCode( System.getProperty( Const.KETTLE_STEP_THREAD_MODE ) );
+    }
+    return mode == StepThreadMode.Virtual;
+  }
+
+  /**
+   * @return true if this JVM can run the steps on virtual threads.
+   */
+  public static boolean isVirtualThreadSupported() {
+    if ( !initialized ) {
+      initialize();
+    }
+    return ofVirtualMethod != null;
+  }
+
+  private static synchronized void initialize() {
+    if ( initialized ) {
+      return;
+    }
+    try {
+      Method ofVirtual = Thread.class.getMethod( "ofVirtual" );
+      Class<?> builderClass = Class.forName( "java.lang.Thread$Builder" );
+      Method name = builderClass.getMethod( "name", String.class );
+      Method unstarted = builderClass.getMethod( "unstarted", Runnable.class );
+
+      // Fails when virtual threads are a preview feature that isn't enabled
+      //
+      unstarted.invoke( ofVirtual.invoke( null ), (Runnable) () -> { } );
+
+      ofVirtualMethod = ofVirtual;
+      builderNameMethod = name;
+      builderUnstartedMethod = unstarted;
+    } catch ( Exception | LinkageError e ) {
+      ofVirtualMethod = null;
+    }
+    initialized = true;
+  }
+
+  /**
+   * @return true if this factory creates virtual threads.
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * @param stepMeta
+   *          the metadata of the step to run, null if unknown
+   * @return true if the step would run on a virtual thread: it doesn't use a database connection.
+   */
+  public boolean isVirtual( StepMetaInterface stepMeta ) {
+    if ( !virtual ) {
+      return false;
+    }
+    if ( stepMeta != null ) {
+      DatabaseMeta[] databases = stepMeta.getUsedDatabaseConnections();
+      if ( databases != null && databases.length > 0 ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Create a new, unstarted thread for a step. It has the default name of its kind of thread, like Thread-12 or
+   * VirtualThread-12.
+   *
+   * @param runnable
+   *          the code to run
+   * @param stepMeta
+   *          the metadata of the step to run, steps using a database connection get a platform thread
+   * @return the thread
+   */
+  public Thread newThread( Runnable runnable, StepMetaInterface stepMeta ) {
+    if ( isVirtual( stepMeta ) ) {
+      try {
+        Object builder = builderNameMethod.invoke( ofVirtualMethod.invoke( null ),
+          "VirtualThread-" + virtualThreadNr.incrementAndGet() );
+        return (Thread) builderUnstartedMethod.invoke( builder, (Runnable) () -> runCounted( runnable ) );
+      } catch ( ReflectiveOperationException e ) {
+        // Shouldn't happen since it worked when we checked the support, use a platform thread.
+      }
+    }
+    return new Thread( runnable );
+  }
+
+  private static void runCounted( Runnable runnable ) {
+    int active = activeVirtualStepThreads.incrementAndGet();
+    peakVirtualStepThreads.accumulateAndGet( active, Math::max );
+    try {
+      runnable.run();
+    } finally {
+      activeVirtualStepThreads.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return the number of step threads currently running on virtual threads in this JVM.
+   */
+  public static int getActiveVirtualStepThreads() {
+    return activeVirtualStepThreads.get();
+  }
+
+  /**
+   * @return the highest number of step threads that ran on virtual threads at the same time in this JVM.
+   */
+  public static int getPeakVirtualStepThreads() {
+    return peakVirtualStepThreads.get();
+  }
+}
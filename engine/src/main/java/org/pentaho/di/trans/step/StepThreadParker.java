@@ -0,0 +1,144 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.lang.invoke.VarHandle;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.RowSetListener;
+
+/**
+ * Parks the thread of a step while it waits for rows, for room in an output row set or for a paused step to resume, and
+ * wakes it up again when one of the row sets it listens to changes or when {@link #wakeUp()} is called.<br>
+ * <br>
+ * The waiting thread needs to use the following pattern to make sure it doesn't miss a wake up:
+ *
+ * <pre>
+ * parker.startWaiting();
+ * try {
+ *   parker.listenTo( rowSet );
+ *   if ( !conditionMet() ) {
+ *     parker.park( timeout, unit );
+ *   }
+ * } finally {
+ *   parker.stopWaiting();
+ * }
+ * </pre>
+ *
+ * A wake up that arrives between startWaiting() and park() makes park() return immediately. Spurious wake ups are
+ * possible, so the condition has to be checked again afterwards.<br>
+ * <br>
+ * No wake up is lost: the waiting thread registers itself and the listener, then a full fence orders those writes
+ * before it checks the condition. The row sets change the condition and then read the listeners and the waiting thread
+ * in sequentially consistent order: the blocking row sets through their locks, the
+ * {@link org.pentaho.di.core.RingBufferRowSet} through volatile counter writes. Either the waiting thread sees the
+ * change, or the row set sees the waiting thread and unparks it. The timeout of park() is only a safety net.<br>
+ * <br>
+ * The parker registers itself once with every row set it listens to and stays registered: while no thread waits, a
+ * notification only reads the waiting thread. {@link #stopListening()} removes it from the row sets when the step is
+ * done.
+ *
+ * @since 11.0
+ */
+public class StepThreadParker implements RowSetListener {
+
+  private volatile Thread waitingThread;
+
+  /**
+   * The row sets we registered with, and whether they inform listeners. Only used by the waiting thread.
+   */
+  private final Map<RowSet, Boolean> rowSets = new IdentityHashMap<>();
+
+  /**
+   * Register the calling thread as the thread to wake up.
+   */
+  public void startWaiting() {
+    waitingThread = Thread.currentThread();
+    // Make sure the registration is visible before the caller checks its wait condition
+    VarHandle.fullFence();
+  }
+
+  /**
+   * Wake up the waiting thread when the given row set changes. The parker registers with a row set the first time only.
+   *
+   * @param rowSet
+   *          the row set to listen to
+   * @return false if the row set doesn't inform listeners
+   */
+  public boolean listenTo( RowSet rowSet ) {
+    Boolean listening = rowSets.get( rowSet );
+    if ( listening == null ) {
+      listening = rowSet.addRowSetListener( this );
+      rowSets.put( rowSet, listening );
+      // Make sure the new listener is visible before the caller checks its wait condition
+      VarHandle.fullFence();
+    }
+    return listening;
+  }
+
+  /**
+   * Park the calling thread until it is woken up, until the timeout expires or until it is interrupted.
+   *
+   * @param timeout
+   *          the maximum time to park
+   * @param unit
+   *          the unit of the timeout
+   */
+  public void park( long timeout, TimeUnit unit ) {
+    LockSupport.parkNanos( this, unit.toNanos( timeout ) );
+  }
+
+  /**
+   * The calling thread no longer needs to be woken up. The parker stays registered with the row sets.
+   */
+  public void stopWaiting() {
+    waitingThread = null;
+  }
+
+  /**
+   * Remove the parker from all the row sets it listens to. Call this from the step thread once it no longer waits.
+   */
+  public void stopListening() {
+    for ( Map.Entry<RowSet, Boolean> entry : rowSets.entrySet() ) {
+      if ( entry.getValue() ) {
+        entry.getKey().removeRowSetListener( this );
+      }
+    }
+    rowSets.clear();
+  }
+
+  /**
+   * Wake up the waiting thread, if there is one.
+   */
+  public void wakeUp() {
+    Thread thread = waitingThread;
+    if ( thread != null ) {
+      LockSupport.unpark( thread );
+    }
+  }
+
+  @Override
+  public void rowsAvailable( RowSet rowSet ) {
+    wakeUp();
+  }
+
+  @Override
+  public void spaceAvailable( RowSet rowSet ) {
+    wakeUp();
+  }
+}
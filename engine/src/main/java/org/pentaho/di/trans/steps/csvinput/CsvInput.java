@@ -356,7 +356,9 @@ public class CsvInput extends BaseStep implements StepInterface, CsvInputAwareSt
       }
 
       data.fc = data.fis.getChannel();
-      data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+      if ( !data.memoryMapped ) {
+        data.bb = ByteBuffer.allocateDirect( data.preferredBufferSize );
+      }
 
       // If we are running in parallel and we need to skip bytes in the first file, let's do so here.
       //
@@ -673,7 +675,7 @@ public class CsvInput extends BaseStep implements StepInterface, CsvInputAwareSt
               enclosureFound = true;
               boolean keepGoing;
               do {
-                if ( data.moveEndBufferPointer() ) {
+                if ( data.moveEndBufferPointerToEnclosure() ) {
                   enclosureFound = false;
                   break;
                 }
@@ -708,7 +710,7 @@ public class CsvInput extends BaseStep implements StepInterface, CsvInputAwareSt
               ignoreEnclosuresInField = true;
             }
           } else {
-            if ( data.moveEndBufferPointer() ) {
+            if ( data.moveEndBufferPointerToFieldEnd() ) {
               endOfBuffer = true;
               break;
             }
@@ -968,6 +970,22 @@ public class CsvInput extends BaseStep implements StepInterface, CsvInputAwareSt
           break;
       }
 
+      // With a single byte encoding, skip over the plain bytes of a field a word at a time.
+      // Only the first byte of a multi-byte delimiter or enclosure is looked for, the matchers check the rest.
+      //
+      data.fieldScanner = null;
+      data.enclosureScanner = null;
+      if ( data.encodingType == EncodingType.SINGLE && data.delimiter.length > 0 ) {
+        if ( data.enclosure == null ) {
+          data.fieldScanner = new SwarByteScanner( data.delimiter[0], (byte) '\r', (byte) '\n' );
+        } else {
+          data.fieldScanner = new SwarByteScanner( data.delimiter[0], data.enclosure[0], (byte) '\r', (byte) '\n' );
+          data.enclosureScanner = new SwarByteScanner( data.enclosure[0] );
+        }
+      }
+
+      data.memoryMapped = meta.isMemoryMapped();
+
       return true;
 
     }
@@ -16,6 +16,7 @@ package org.pentaho.di.trans.steps.csvinput;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.List;
 
@@ -30,8 +31,21 @@ import org.pentaho.di.trans.steps.textfileinput.EncodingType;
  * @since 24-jan-2005
  */
 public class CsvInputData extends BaseStepData implements StepDataInterface {
+  /**
+   * The size of the part of a file that is mapped at once in memory mapped mode.
+   */
+  static final long MAPPED_WINDOW_SIZE = 64L * 1024 * 1024;
+
   public FileChannel fc;
   public ByteBuffer bb;
+
+  /**
+   * Read the files through a read-only memory mapping instead of copying them into a direct buffer first.
+   */
+  public boolean memoryMapped;
+  long mappedWindowSize = MAPPED_WINDOW_SIZE;
+  private MappedByteBuffer mappedBuffer;
+  private long mappedPosition;
   public RowMetaInterface convertRowMeta;
   public RowMetaInterface outputRowMeta;
 
@@ -74,6 +88,16 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
 
   public FieldsMapping fieldsMapping;
 
+  /**
+   * Finds the bytes that can start a delimiter, enclosure or line end, null for multi-byte encodings.
+   */
+  public SwarByteScanner fieldScanner;
+
+  /**
+   * Finds the bytes that can start an enclosure, null for multi-byte encodings or without an enclosure.
+   */
+  public SwarByteScanner enclosureScanner;
+
   /**
    * Data class for CsvInput step
    *
@@ -110,6 +134,10 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
   }
 
   private int readBufferFromFile() throws IOException {
+    if ( memoryMapped ) {
+      return readBufferFromMappedFile();
+    }
+
     // See if the line is not longer than the buffer.
     // In that case we need to increase the size of the byte buffer.
     // Since this method doesn't get called every other character, I'm sure we can spend a bit of time here without
@@ -144,6 +172,41 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
     return n;
   }
 
+  /**
+   * Copies the next block of the file straight from a read-only mapping into the byte array. This saves the copy
+   * into the direct byte buffer and a read system call per block. The file is mapped in windows of
+   * {@link #MAPPED_WINDOW_SIZE} bytes, so files larger than 2GB can be read as well.<br>
+   * The file channel position is kept up to date so that positioning the channel keeps working.
+   */
+  private int readBufferFromMappedFile() throws IOException {
+    long position = fc.position();
+    long size = fc.size();
+    if ( position >= size ) {
+      return -1;
+    }
+    if ( mappedBuffer == null || position < mappedPosition
+      || position >= mappedPosition + mappedBuffer.capacity() ) {
+      mappedPosition = position;
+      mappedBuffer = fc.map( FileChannel.MapMode.READ_ONLY, position, Math.min( mappedWindowSize, size - position ) );
+    }
+    mappedBuffer.position( (int) ( position - mappedPosition ) );
+
+    if ( byteBuffer.length - endBuffer <= 0 ) {
+      byte[] newByteBuffer = new byte[endBuffer + preferredBufferSize];
+      System.arraycopy( byteBuffer, 0, newByteBuffer, 0, endBuffer );
+      byteBuffer = newByteBuffer;
+    }
+    int n = Math.min( byteBuffer.length - endBuffer, mappedBuffer.remaining() );
+    mappedBuffer.get( byteBuffer, endBuffer, n );
+    fc.position( position + n );
+
+    // adjust the highest used position...
+    //
+    bufferSize = endBuffer + n;
+
+    return n;
+  }
+
   private void resizeByteBuffer( int newSize ) {
     ByteBuffer newBuffer = ByteBuffer.allocateDirect( newSize ); // Increase by 50%
     newBuffer.position( 0 );
@@ -192,6 +255,41 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
     return moveEndBufferPointer( true );
   }
 
+  /**
+   * Moves the endBuffer pointer by one, and then over all following bytes that can't start a delimiter, enclosure or
+   * line end. This is the same as calling {@link #moveEndBufferPointer()} for each of these bytes, since none of them
+   * would be matched by the pattern matchers.
+   *
+   * @return true if we reached the end of the byte buffer.
+   * @throws IOException
+   *           In case we get an error reading from the input file.
+   */
+  boolean moveEndBufferPointerToFieldEnd() throws IOException {
+    return moveEndBufferPointerTo( fieldScanner );
+  }
+
+  /**
+   * Moves the endBuffer pointer by one, and then over all following bytes that can't start an enclosure.
+   *
+   * @return true if we reached the end of the byte buffer.
+   * @throws IOException
+   *           In case we get an error reading from the input file.
+   * @see #moveEndBufferPointerToFieldEnd()
+   */
+  boolean moveEndBufferPointerToEnclosure() throws IOException {
+    return moveEndBufferPointerTo( enclosureScanner );
+  }
+
+  private boolean moveEndBufferPointerTo( SwarByteScanner scanner ) throws IOException {
+    if ( scanner == null || endBuffer + 1 >= bufferSize ) {
+      return moveEndBufferPointer();
+    }
+    int next = scanner.indexOf( byteBuffer, endBuffer + 1, bufferSize );
+    totalBytesRead += next - endBuffer;
+    endBuffer = next;
+    return resizeBufferIfNeeded();
+  }
+
   void moveEndBufferPointerXTimes( int xTimes ) throws IOException {
     for ( int i = 0; i < xTimes; i++ ) {
       moveEndBufferPointer( true );
@@ -258,6 +356,8 @@ public class CsvInputData extends BaseStepData implements StepDataInterface {
   }
 
   void closeFile() throws KettleException {
+    // the mapping itself is released once it is garbage collected
+    mappedBuffer = null;
     try {
       if ( fc != null ) {
         fc.close();
@@ -0,0 +1,83 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Finds the next occurrence of any of a few byte values in a byte array, testing eight bytes at a time (SWAR: SIMD
+ * within a register).<br>
+ * <br>
+ * For every byte value the word is XOR-ed with the value repeated eight times, which turns matching bytes into zero
+ * bytes. The classic {@code (v - 0x01..01) & ~v & 0x80..80} test then sets the high bit of every zero byte. Borrows
+ * can only cause false hits above the first real one, so the lowest set bit always gives the first match.
+ *
+ * @since 11.0
+ */
+public class SwarByteScanner {
+
+  private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+
+  private static final long ONES = 0x0101010101010101L;
+  private static final long HIGHS = 0x8080808080808080L;
+
+  private final byte[] values;
+  private final long[] patterns;
+
+  /**
+   * @param values
+   *          the byte values to look for
+   */
+  public SwarByteScanner( byte... values ) {
+    this.values = values.clone();
+    this.patterns = new long[values.length];
+    for ( int i = 0; i < values.length; i++ ) {
+      patterns[i] = ( values[i] & 0xFFL ) * ONES;
+    }
+  }
+
+  /**
+   * @param buffer
+   *          the bytes to scan
+   * @param from
+   *          the first index to look at
+   * @param to
+   *          the index to stop at (exclusive)
+   * @return the index of the first byte in [from, to[ with one of the values, to if there is none
+   */
+  public int indexOf( byte[] buffer, int from, int to ) {
+    int index = from;
+    for ( ; index + Long.BYTES <= to; index += Long.BYTES ) {
+      long word = (long) LONGS.get( buffer, index );
+      long found = 0L;
+      for ( long pattern : patterns ) {
+        long v = word ^ pattern;
+        found |= ( v - ONES ) & ~v & HIGHS;
+      }
+      if ( found != 0L ) {
+        return index + ( Long.numberOfTrailingZeros( found ) >>> 3 );
+      }
+    }
+    for ( ; index < to; index++ ) {
+      for ( byte value : values ) {
+        if ( buffer[index] == value ) {
+          return index;
+        }
+      }
+    }
+    return to;
+  }
+}
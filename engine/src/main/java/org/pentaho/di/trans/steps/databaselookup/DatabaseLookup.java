@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.databaselookup;
 
+import java.io.IOException;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
@@ -25,6 +26,8 @@ import com.google.common.annotations.VisibleForTesting;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
@@ -33,6 +36,7 @@ import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.logging.LoggingObjectType;
 import org.pentaho.di.core.logging.SimpleLoggingObject;
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -49,6 +53,7 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.steps.databaselookup.intervalcache.IntervalIndexCache;
 import org.pentaho.di.trans.steps.databaselookup.readallcache.ReadAllCache;
 
 /**
@@ -411,7 +416,7 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       }
 
       if ( meta.isCached() ) {
-        data.cache = DefaultCache.newCache( data, meta.getCacheSize() );
+        data.cache = createDefaultCache();
       }
 
       determineFieldsTypesQueryingDb();
@@ -468,6 +473,27 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     return true;
   }
 
+  private DefaultCache createDefaultCache() {
+    DefaultCache cache;
+    if ( meta.isLoadingAllDataInCache() ) {
+      // all rows have to stay in the cache, a row that is not found is not looked up in the database
+      cache = DefaultCache.newCache( data, 0 );
+    } else {
+      long memoryLimit = Const.toLong( environmentSubstitute( meta.getCacheMemoryLimit() ), 0L );
+      long timeToLive = Const.toLong( environmentSubstitute( meta.getCacheTimeToLive() ), 0L );
+      cache = DefaultCache.newCache( data, meta.getCacheSize(),
+        EvictionPolicy.getPolicyByCode( environmentSubstitute( meta.getCacheEvictionPolicy() ) ),
+        memoryLimit * 1024 * 1024, timeToLive );
+    }
+    data.cacheStatistics = cache.getStatistics();
+    return cache;
+  }
+
+  @Override
+  public LookupCacheStatistics getCacheStatistics() {
+    return data == null ? null : data.cacheStatistics;
+  }
+
   private void loadAllTableDataIntoTheCache() throws KettleException {
     DatabaseMeta dbMeta = meta.getDatabaseMeta();
 
@@ -504,10 +530,13 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
       // Now that we have the SQL constructed, let's store the rows...
       //
 
-      if ( data.allEquals ) {
+      // The off-heap storage is only available in the read-only cache, it handles equality conditions too
+      //
+      long offHeapBudget = Const.toLong( environmentSubstitute( meta.getOffHeapBudget() ), 0L );
+      if ( data.allEquals && offHeapBudget <= 0 ) {
         putToDefaultCache( db, sql.toString() );
       } else {
-        putToReadOnlyCache( db, db.getRows( sql.toString(), 0 ) );
+        putToReadOnlyCache( db, db.getRows( sql.toString(), 0 ), offHeapBudget );
       }
     } catch ( Exception e ) {
       throw new KettleException( e );
@@ -559,18 +588,45 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     return result;
   }
 
-  private void putToReadOnlyCache( Database db, List<Object[]> rows ) {
-    ReadAllCache.Builder cacheBuilder = new ReadAllCache.Builder( data, rows.size() );
-
+  private void putToReadOnlyCache( Database db, List<Object[]> rows, long offHeapBudget ) throws KettleException {
     // all keys have the same row meta,
     // it is useless to re-create it each time
     RowMetaInterface returnRowMeta = db.getReturnRowMeta();
+    final int keysAmount = meta.getStreamKeyField1().length;
+    // the read-only caches don't count hits and misses
+    data.cacheStatistics = null;
+
+    if ( offHeapBudget > 0 ) {
+      // the data rows are serialized with the metadata of the values returned by the database
+      //
+      RowMetaInterface valuesMeta = new RowMeta();
+      for ( int i = keysAmount; i < returnRowMeta.size(); i++ ) {
+        valuesMeta.addValueMeta( returnRowMeta.getValueMeta( i ).clone() );
+      }
+      data.offHeapStore = new OffHeapRowStore( valuesMeta, offHeapBudget * 1024 * 1024 );
+    }
+
+    final int valuesAmount = data.returnMeta.size();
+
+    // Range conditions get a sorted index, the other cache filters all rows for every lookup
+    //
+    if ( IntervalIndexCache.isApplicable( data.conditions ) ) {
+      IntervalIndexCache.Builder cacheBuilder = new IntervalIndexCache.Builder( data, rows.size(), data.offHeapStore );
+      cacheBuilder.setKeysMeta( returnRowMeta.clone() );
+      for ( Object[] row : rows ) {
+        cacheBuilder.add( Arrays.copyOfRange( row, 0, keysAmount ),
+          Arrays.copyOfRange( row, keysAmount, keysAmount + valuesAmount ) );
+        incrementLinesInput();
+      }
+      data.cache = cacheBuilder.build();
+      return;
+    }
+
+    ReadAllCache.Builder cacheBuilder = new ReadAllCache.Builder( data, rows.size(), data.offHeapStore );
     cacheBuilder.setKeysMeta( returnRowMeta.clone() );
 
-    final int keysAmount = meta.getStreamKeyField1().length;
     // Copy the data into 2 parts: key and value...
     //
-    final int valuesAmount = data.returnMeta.size();
     for ( Object[] row : rows ) {
       Object[] keyData = new Object[ keysAmount ];
       System.arraycopy( row, 0, keyData, 0, keysAmount );
@@ -655,6 +711,14 @@ public class DatabaseLookup extends BaseStep implements StepInterface {
     // Recover memory immediately, allow in-memory data to be garbage collected
     //
     data.cache = null;
+    if ( data.offHeapStore != null ) {
+      try {
+        data.offHeapStore.close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "DatabaseLookup.Log.UnableToCloseOffHeapStore" ), e );
+      }
+      data.offHeapStore = null;
+    }
 
     super.dispose( smi, sdi );
   }
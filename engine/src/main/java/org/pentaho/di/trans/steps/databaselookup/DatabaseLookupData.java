@@ -13,8 +13,10 @@
 
 package org.pentaho.di.trans.steps.databaselookup;
 
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -40,6 +42,12 @@ public class DatabaseLookupData extends BaseStepData implements StepDataInterfac
   public int[] conditions;
   public boolean hasDBCondition;
 
+  /** Keeps the data rows of the read-only cache outside of the heap, null to keep them on the heap */
+  public OffHeapRowStore offHeapStore;
+
+  /** The hit, miss and eviction counters of the cache, null if the cache doesn't keep them */
+  public LookupCacheStatistics cacheStatistics;
+
   public DatabaseLookupData() {
     super();
 
@@ -22,6 +22,7 @@ import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.ProvidesModelerMeta;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
@@ -55,6 +56,9 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   private static final String TAG_CACHE = "cache";
   private static final String TAG_CACHE_LOAD_ALL = "cache_load_all";
   private static final String TAG_CACHE_SIZE = "cache_size";
+  private static final String TAG_CACHE_EVICTION_POLICY = "cache_eviction_policy";
+  private static final String TAG_CACHE_MEMORY_LIMIT = "cache_memory_limit";
+  private static final String TAG_CACHE_TIME_TO_LIVE = "cache_time_to_live";
   private static final String TAG_CONDITION = "condition";
   private static final String TAG_CONNECTION = "connection";
   private static final String TAG_DEFAULT = "default";
@@ -71,6 +75,7 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   private static final String TAG_LOOKUP_SCHEMA = "lookup_schema";
   private static final String TAG_LOOKUP_TABLE = "lookup_table";
   private static final String TAG_NAME = "name";
+  private static final String TAG_OFF_HEAP_BUDGET = "off_heap_budget";
   private static final String TAG_NAME2 = "name2";
   private static final String TAG_ORDERBY = "orderby";
   private static final String TAG_RENAME = "rename";
@@ -142,9 +147,21 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
   /** Limit the cache size to this! */
   private int cacheSize;
 
+  /** The code of the eviction policy of the cache: lru or w-tinylfu */
+  private String cacheEvictionPolicy;
+
+  /** Limit the estimated size of the cache to this number of MB, empty for no limit */
+  private String cacheMemoryLimit;
+
+  /** The number of seconds a row stays in the cache, empty to keep rows until they are evicted */
+  private String cacheTimeToLive;
+
   /** Flag to make it load all data into the cache at startup */
   private boolean loadingAllDataInCache;
 
+  /** The memory budget in MB to keep the data loaded in the cache outside of the heap, empty to keep it on the heap */
+  private String offHeapBudget;
+
   /** Have the lookup fail if multiple results were found, renders the orderByClause useless */
   private boolean failingOnMultipleResults;
 
@@ -423,6 +440,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE ) );
       loadingAllDataInCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, TAG_CACHE_LOAD_ALL ) );
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, TAG_CACHE_SIZE ), 0 );
+      offHeapBudget = XMLHandler.getTagValue( stepnode, TAG_OFF_HEAP_BUDGET );
+      cacheEvictionPolicy = XMLHandler.getTagValue( stepnode, TAG_CACHE_EVICTION_POLICY );
+      cacheMemoryLimit = XMLHandler.getTagValue( stepnode, TAG_CACHE_MEMORY_LIMIT );
+      cacheTimeToLive = XMLHandler.getTagValue( stepnode, TAG_CACHE_TIME_TO_LIVE );
       schemaName = XMLHandler.getTagValue( stepnode, TAG_LOOKUP, TAG_SCHEMA );
       tablename = XMLHandler.getTagValue( stepnode, TAG_LOOKUP, TAG_TABLE );
 
@@ -475,6 +496,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     databaseMeta = null;
     cached = false;
     cacheSize = 0;
+    offHeapBudget = null;
+    cacheEvictionPolicy = EvictionPolicy.LRU.getCode();
+    cacheMemoryLimit = null;
+    cacheTimeToLive = null;
     schemaName = "";
     tablename = BaseMessages.getString( PKG, "DatabaseLookupMeta.Default.TableName" );
 
@@ -521,6 +546,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE, cached ) );
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_LOAD_ALL, loadingAllDataInCache ) );
     retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_SIZE, cacheSize ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_OFF_HEAP_BUDGET, offHeapBudget ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_EVICTION_POLICY, cacheEvictionPolicy ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_MEMORY_LIMIT, cacheMemoryLimit ) );
+    retval.append( SPACES4 ).append( XMLHandler.addTagValue( TAG_CACHE_TIME_TO_LIVE, cacheTimeToLive ) );
     retval.append( "    <lookup>" ).append( Const.CR );
     retval.append( SPACES6 ).append( XMLHandler.addTagValue( TAG_SCHEMA, schemaName ) );
     retval.append( SPACES6 ).append( XMLHandler.addTagValue( TAG_TABLE, tablename ) );
@@ -560,6 +589,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       cached = rep.getStepAttributeBoolean( id_step, TAG_CACHE );
       loadingAllDataInCache = rep.getStepAttributeBoolean( id_step, TAG_CACHE_LOAD_ALL );
       cacheSize = (int) rep.getStepAttributeInteger( id_step, TAG_CACHE_SIZE );
+      offHeapBudget = rep.getStepAttributeString( id_step, TAG_OFF_HEAP_BUDGET );
+      cacheEvictionPolicy = rep.getStepAttributeString( id_step, TAG_CACHE_EVICTION_POLICY );
+      cacheMemoryLimit = rep.getStepAttributeString( id_step, TAG_CACHE_MEMORY_LIMIT );
+      cacheTimeToLive = rep.getStepAttributeString( id_step, TAG_CACHE_TIME_TO_LIVE );
       schemaName = rep.getStepAttributeString( id_step, TAG_LOOKUP_SCHEMA );
       tablename = rep.getStepAttributeString( id_step, TAG_LOOKUP_TABLE );
       orderByClause = rep.getStepAttributeString( id_step, TAG_LOOKUP_ORDERBY );
@@ -598,6 +631,10 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE, cached );
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_LOAD_ALL, loadingAllDataInCache );
       rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_SIZE, cacheSize );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_OFF_HEAP_BUDGET, offHeapBudget );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_EVICTION_POLICY, cacheEvictionPolicy );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_MEMORY_LIMIT, cacheMemoryLimit );
+      rep.saveStepAttribute( idTransformation, idStep, TAG_CACHE_TIME_TO_LIVE, cacheTimeToLive );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_SCHEMA, schemaName );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_TABLE, tablename );
       rep.saveStepAttribute( idTransformation, idStep, TAG_LOOKUP_ORDERBY, orderByClause );
@@ -881,6 +918,67 @@ public class DatabaseLookupMeta extends BaseStepMeta implements StepMetaInterfac
     this.loadingAllDataInCache = loadingAllDataInCache;
   }
 
+  /**
+   * @return the memory budget in MB to keep the data loaded in the cache outside of the heap, empty to keep it on the
+   *         heap
+   */
+  public String getOffHeapBudget() {
+    return offHeapBudget;
+  }
+
+  /**
+   * @param offHeapBudget
+   *          the memory budget in MB to keep the data loaded in the cache outside of the heap
+   */
+  public void setOffHeapBudget( String offHeapBudget ) {
+    this.offHeapBudget = offHeapBudget;
+  }
+
+  /**
+   * @return the code of the eviction policy of the cache: lru or w-tinylfu
+   */
+  public String getCacheEvictionPolicy() {
+    return cacheEvictionPolicy;
+  }
+
+  /**
+   * @param cacheEvictionPolicy
+   *          the code of the eviction policy of the cache: lru or w-tinylfu
+   */
+  public void setCacheEvictionPolicy( String cacheEvictionPolicy ) {
+    this.cacheEvictionPolicy = cacheEvictionPolicy;
+  }
+
+  /**
+   * @return the maximum estimated size of the cache in MB, empty for no limit
+   */
+  public String getCacheMemoryLimit() {
+    return cacheMemoryLimit;
+  }
+
+  /**
+   * @param cacheMemoryLimit
+   *          the maximum estimated size of the cache in MB, empty for no limit
+   */
+  public void setCacheMemoryLimit( String cacheMemoryLimit ) {
+    this.cacheMemoryLimit = cacheMemoryLimit;
+  }
+
+  /**
+   * @return the number of seconds a row stays in the cache, empty to keep rows until they are evicted
+   */
+  public String getCacheTimeToLive() {
+    return cacheTimeToLive;
+  }
+
+  /**
+   * @param cacheTimeToLive
+   *          the number of seconds a row stays in the cache, empty to keep rows until they are evicted
+   */
+  public void setCacheTimeToLive( String cacheTimeToLive ) {
+    this.cacheTimeToLive = cacheTimeToLive;
+  }
+
   @Override
   public RowMeta getRowMeta( StepDataInterface stepData ) {
     return (RowMeta) ( (DatabaseLookupData) stepData ).returnMeta;
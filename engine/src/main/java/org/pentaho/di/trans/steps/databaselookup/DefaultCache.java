@@ -14,48 +14,75 @@
 package org.pentaho.di.trans.steps.databaselookup;
 
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.cache.LookupCache;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
+import org.pentaho.di.core.cache.RowSizeEstimator;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Old code, copied from {@linkplain DatabaseLookup}
+ * Old code, copied from {@linkplain DatabaseLookup}. The rows are kept in a {@linkplain LookupCache} that evicts the
+ * least recently used (LRU) or least frequently used (W-TinyLFU) rows when the row or byte budget is exceeded.
  *
  * @author Andrey Khayrutdinov
  */
 public class DefaultCache implements DatabaseLookupData.Cache {
 
   public static DefaultCache newCache( DatabaseLookupData data, int cacheSize ) {
-    return new DefaultCache( data, Math.max( 16, (int) ( cacheSize * 1.5 ) ) );
+    return newCache( data, cacheSize, EvictionPolicy.LRU, 0L, 0L );
+  }
+
+  /**
+   * @param cacheSize    the maximum number of rows, 0 or less for no limit
+   * @param policy       decides which rows are evicted
+   * @param maximumBytes the maximum estimated size of the rows, 0 or less for no limit
+   * @param timeToLive   the number of seconds a row stays valid, 0 or less to keep rows until they are evicted
+   */
+  public static DefaultCache newCache( DatabaseLookupData data, int cacheSize, EvictionPolicy policy,
+                                       long maximumBytes, long timeToLive ) {
+    LookupCache.Builder<RowMetaAndData, Object[]> builder = LookupCache.<RowMetaAndData, Object[]>builder()
+      .policy( policy )
+      .maximumRows( cacheSize )
+      .expireAfterWrite( timeToLive, TimeUnit.SECONDS );
+    if ( maximumBytes > 0 ) {
+      builder.maximumBytes( maximumBytes ).weigher( DefaultCache::estimateSize );
+    }
+    return new DefaultCache( data, builder.build() );
+  }
+
+  private static long estimateSize( RowMetaAndData key, Object[] value ) {
+    return RowSizeEstimator.estimate( key.getData() ) + RowSizeEstimator.estimate( value );
   }
 
   private final DatabaseLookupData data;
-  private final LinkedHashMap<RowMetaAndData, Object[]> map;
+  private final LookupCache<RowMetaAndData, Object[]> cache;
 
-  DefaultCache( DatabaseLookupData data, int capacity ) {
+  DefaultCache( DatabaseLookupData data, LookupCache<RowMetaAndData, Object[]> cache ) {
     this.data = data;
-    map = new LinkedHashMap<>( capacity );
+    this.cache = cache;
+  }
+
+  public LookupCacheStatistics getStatistics() {
+    return cache.getStatistics();
   }
 
   @Override
   public Object[] getRowFromCache( RowMetaInterface lookupMeta, Object[] lookupRow ) throws KettleException {
     if ( data.allEquals ) {
       // only do the map lookup when all equals otherwise conditions >, <, <> will give wrong results
-      Object[] row = map.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
-      if ( row != null ) {
-        return row;
-      }
+      return cache.get( new RowMetaAndData( data.lookupMeta, lookupRow ) );
     } else { // special handling of conditions <,>, <> etc.
       if ( !data.hasDBCondition ) { // e.g. LIKE not handled by this routine, yet
         // TODO: find an alternative way to look up the data based on the condition.
         // Not all conditions are "=" so we are going to have to evaluate row by row
         // A sorted list or index might be a good solution here...
         //
-        for ( Map.Entry<RowMetaAndData, Object[]> entry : map.entrySet() ) {
-          final RowMetaAndData key = entry.getKey();
+        boolean expired = false;
+        for ( RowMetaAndData key : cache.keys() ) {
           // Now verify that the key is matching our conditions...
           //
           boolean match = true;
@@ -111,26 +138,27 @@ public class DefaultCache implements DatabaseLookupData.Cache {
             lookupIndex++;
           }
           if ( match ) {
-            Object[] row = entry.getValue();
-            if ( row != null ) {
-              return row;
+            if ( !cache.isExpired( key ) ) {
+              return cache.get( key );
             }
+            // keep looking for a live row, the expired ones are removed once the scan is done
+            expired = true;
           }
         }
+        if ( expired ) {
+          cache.removeExpired();
+        }
       }
     }
+    cache.getStatistics().recordMiss();
     return null;
   }
 
   @Override
   public void storeRowInCache( DatabaseLookupMeta meta, RowMetaInterface lookupMeta, Object[] lookupRow,
                                Object[] add ) {
-    map.computeIfAbsent( new RowMetaAndData( lookupMeta, lookupRow ), k -> add );
-
-    // DEinspanjer 2009-02-01: If you had previously set a cache size and then turned on load all, this
-    // method would throw out entries if the previous cache size wasn't big enough.
-    if ( !meta.isLoadingAllDataInCache() && meta.getCacheSize() > 0 && map.size() > meta.getCacheSize() ) {
-      map.remove( map.entrySet().iterator().next().getKey() );
-    }
+    // The budget is set when the cache is created. A cache that loads all data has none, otherwise rows would be
+    // thrown out when a previous cache size wasn't big enough (DEinspanjer 2009-02-01)
+    cache.putIfAbsent( new RowMetaAndData( lookupMeta, lookupRow ), add );
   }
 }
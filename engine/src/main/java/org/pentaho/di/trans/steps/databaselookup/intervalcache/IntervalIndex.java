@@ -0,0 +1,212 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup.intervalcache;
+
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.ValueMetaInterface;
+
+import java.util.Arrays;
+
+/**
+ * The rows of one partition of an {@linkplain IntervalIndexCache}, sorted on the primary range column. On top of the
+ * sorted rows sits a tree over blocks of {@value #BLOCK_SIZE} rows keeping the smallest row number and the smallest and
+ * largest value of the secondary range column of every node. A search walks down the tree and skips every node that
+ * can't hold a match or only holds rows that come after the best match found so far.
+ */
+class IntervalIndex {
+
+  static final int BLOCK_SIZE = 16;
+
+  /**
+   * Checks the conditions that the tree can't rule out for a single row.
+   */
+  interface RowMatcher {
+    boolean matches( int row ) throws KettleValueException;
+  }
+
+  /**
+   * Tells if a node with the given smallest and largest secondary value can hold a match.
+   */
+  interface RangeFilter {
+    boolean mayMatch( Object minKey, Object maxKey ) throws KettleValueException;
+  }
+
+  private final int[] rows;
+  private final Object[] primaryKeys;
+  private final ValueMetaInterface primaryMeta;
+
+  // node 1 is the root, the children of node n are 2n and 2n+1, the leaves are the blocks
+  private final int leaves;
+  private final int[] minRow;
+  private final Object[] minKey;
+  private final Object[] maxKey;
+
+  /**
+   * @param rows         the row numbers of the partition, sorted on the primary column and then on row number
+   * @param keys         the keys of all rows of the cache
+   * @param primary      the primary range column
+   * @param primaryMeta  the metadata of the primary column
+   * @param secondary    the secondary range column or -1 if there is none
+   * @param secondaryMeta the metadata of the secondary column, null if there is none
+   */
+  IntervalIndex( int[] rows, Object[][] keys, int primary, ValueMetaInterface primaryMeta, int secondary,
+                 ValueMetaInterface secondaryMeta ) throws KettleValueException {
+    this.rows = rows;
+    this.primaryMeta = primaryMeta;
+    this.primaryKeys = new Object[ rows.length ];
+    for ( int i = 0; i < rows.length; i++ ) {
+      primaryKeys[ i ] = keys[ rows[ i ] ][ primary ];
+    }
+
+    int blocks = Math.max( 1, ( rows.length + BLOCK_SIZE - 1 ) / BLOCK_SIZE );
+    int size = Integer.highestOneBit( blocks );
+    if ( size < blocks ) {
+      size <<= 1;
+    }
+    leaves = size;
+    minRow = new int[ 2 * size ];
+    Arrays.fill( minRow, Integer.MAX_VALUE );
+    minKey = secondary < 0 ? null : new Object[ 2 * size ];
+    maxKey = secondary < 0 ? null : new Object[ 2 * size ];
+
+    for ( int block = 0; block < blocks; block++ ) {
+      int node = size + block;
+      int end = Math.min( rows.length, ( block + 1 ) * BLOCK_SIZE );
+      for ( int i = block * BLOCK_SIZE; i < end; i++ ) {
+        minRow[ node ] = Math.min( minRow[ node ], rows[ i ] );
+        if ( secondary >= 0 ) {
+          Object key = keys[ rows[ i ] ][ secondary ];
+          if ( i == block * BLOCK_SIZE ) {
+            minKey[ node ] = key;
+            maxKey[ node ] = key;
+          } else {
+            minKey[ node ] = min( secondaryMeta, minKey[ node ], key );
+            maxKey[ node ] = max( secondaryMeta, maxKey[ node ], key );
+          }
+        }
+      }
+    }
+    for ( int node = size - 1; node > 0; node-- ) {
+      int left = 2 * node;
+      int right = left + 1;
+      minRow[ node ] = Math.min( minRow[ left ], minRow[ right ] );
+      if ( secondary >= 0 ) {
+        if ( minRow[ right ] == Integer.MAX_VALUE ) {
+          // the right child holds no rows
+          minKey[ node ] = minKey[ left ];
+          maxKey[ node ] = maxKey[ left ];
+        } else {
+          minKey[ node ] = min( secondaryMeta, minKey[ left ], minKey[ right ] );
+          maxKey[ node ] = max( secondaryMeta, maxKey[ left ], maxKey[ right ] );
+        }
+      }
+    }
+  }
+
+  private static Object min( ValueMetaInterface meta, Object a, Object b ) throws KettleValueException {
+    return meta.compare( a, b ) <= 0 ? a : b;
+  }
+
+  private static Object max( ValueMetaInterface meta, Object a, Object b ) throws KettleValueException {
+    return meta.compare( a, b ) >= 0 ? a : b;
+  }
+
+  int size() {
+    return rows.length;
+  }
+
+  /**
+   * @return the first position with a primary value that is not smaller than the lookup value
+   */
+  int lowerBound( ValueMetaInterface lookupMeta, Object lookupValue ) throws KettleValueException {
+    int low = 0;
+    int high = primaryKeys.length;
+    while ( low < high ) {
+      int mid = ( low + high ) >>> 1;
+      if ( primaryMeta.compare( primaryKeys[ mid ], lookupMeta, lookupValue ) < 0 ) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * @return the first position with a primary value that is larger than the lookup value
+   */
+  int upperBound( ValueMetaInterface lookupMeta, Object lookupValue ) throws KettleValueException {
+    int low = 0;
+    int high = primaryKeys.length;
+    while ( low < high ) {
+      int mid = ( low + high ) >>> 1;
+      if ( primaryMeta.compare( primaryKeys[ mid ], lookupMeta, lookupValue ) <= 0 ) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Find the smallest row number between the given positions that passes the filter and the matcher.
+   *
+   * @param from    the first position
+   * @param to      the position after the last one
+   * @param filter  rules out nodes on the secondary column, null if there is no secondary column
+   * @param matcher checks the remaining conditions of a row
+   * @return the row number or -1 if no row matches
+   */
+  int findFirst( int from, int to, RangeFilter filter, RowMatcher matcher ) throws KettleValueException {
+    if ( from >= to ) {
+      return -1;
+    }
+    int best = search( 1, 0, leaves * BLOCK_SIZE, from, to, filter, matcher, Integer.MAX_VALUE );
+    return best == Integer.MAX_VALUE ? -1 : best;
+  }
+
+  private int search( int node, int nodeFrom, int nodeTo, int from, int to, RangeFilter filter, RowMatcher matcher,
+                      int best ) throws KettleValueException {
+    if ( nodeTo <= from || nodeFrom >= to || minRow[ node ] >= best ) {
+      return best;
+    }
+    if ( filter != null && !filter.mayMatch( minKey[ node ], maxKey[ node ] ) ) {
+      return best;
+    }
+    if ( node >= leaves ) {
+      int end = Math.min( Math.min( to, nodeTo ), rows.length );
+      for ( int i = Math.max( from, nodeFrom ); i < end; i++ ) {
+        int row = rows[ i ];
+        if ( row < best && matcher.matches( row ) ) {
+          best = row;
+        }
+      }
+      return best;
+    }
+
+    // visit the child holding the smallest row number first, it is the most likely to give the best match
+    int left = 2 * node;
+    int right = left + 1;
+    int middle = ( nodeFrom + nodeTo ) >>> 1;
+    if ( minRow[ left ] <= minRow[ right ] ) {
+      best = search( left, nodeFrom, middle, from, to, filter, matcher, best );
+      best = search( right, middle, nodeTo, from, to, filter, matcher, best );
+    } else {
+      best = search( right, middle, nodeTo, from, to, filter, matcher, best );
+      best = search( left, nodeFrom, middle, from, to, filter, matcher, best );
+    }
+    return best;
+  }
+}
@@ -0,0 +1,394 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup.intervalcache;
+
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.OffHeapRowStore;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.trans.steps.databaselookup.DatabaseLookupData;
+import org.pentaho.di.trans.steps.databaselookup.DatabaseLookupMeta;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only cache for {@linkplain org.pentaho.di.trans.steps.databaselookup.DatabaseLookup DatabaseLookup} with
+ * "Load All Data In Cache" selected and range conditions ({@code <}, {@code <=}, {@code >}, {@code >=},
+ * {@code BETWEEN}) in the lookup, like the date ranges of a slowly changing dimension.<br>
+ * <br>
+ * The rows are partitioned on the values of the equality conditions with a hash map. Within a partition they are
+ * sorted on the column of the first range condition, so a binary search finds the rows matching that condition. A
+ * second range condition is used to skip blocks of rows through an {@linkplain IntervalIndex}. The other conditions
+ * are checked row by row on what is left. Like the other caches it returns the first matching row in load order.
+ *
+ * @since 11.0
+ */
+public class IntervalIndexCache implements DatabaseLookupData.Cache {
+
+  private final Object[][] keys;
+  private final RowMetaInterface keysMeta;
+
+  private final Object[][] data;
+  private final long[] dataAddresses;
+  private final OffHeapRowStore dataStore;
+
+  private final int[] conditions;
+  // the position in the lookup row of the (first) stream value of each condition, BETWEEN takes two values
+  private final int[] lookupIndexes;
+
+  private final int[] eqColumns;
+  private final RowMetaInterface eqMeta;
+  private final int primary;
+  private final int secondary;
+  // the conditions checked row by row: everything but the equality conditions and the primary one
+  private final int[] checkedColumns;
+
+  private final Map<RowMetaAndData, IntervalIndex> partitions;
+
+  IntervalIndexCache( DatabaseLookupData stepData, Object[][] keys, RowMetaInterface keysMeta, Object[][] data,
+                      long[] dataAddresses, OffHeapRowStore dataStore ) throws KettleValueException {
+    this.keys = keys;
+    this.keysMeta = keysMeta;
+    this.data = data;
+    this.dataAddresses = dataAddresses;
+    this.dataStore = dataStore;
+    this.conditions = stepData.conditions.clone();
+
+    lookupIndexes = new int[ conditions.length ];
+    List<Integer> eq = new ArrayList<>();
+    List<Integer> range = new ArrayList<>();
+    List<Integer> checked = new ArrayList<>();
+    for ( int i = 0, lookupIndex = 0; i < conditions.length; i++ ) {
+      // the lookup row only holds the stream fields that were found, IS (NOT) NULL doesn't need one
+      lookupIndexes[ i ] = lookupIndex;
+      if ( stepData.keynrs == null || stepData.keynrs[ i ] >= 0 ) {
+        lookupIndex++;
+      }
+      if ( stepData.keynrs2 == null ? conditions[ i ] == DatabaseLookupMeta.CONDITION_BETWEEN
+        : stepData.keynrs2[ i ] >= 0 ) {
+        lookupIndex++;
+      }
+      if ( conditions[ i ] == DatabaseLookupMeta.CONDITION_EQ ) {
+        eq.add( i );
+      } else {
+        if ( isRangeCondition( conditions[ i ] ) ) {
+          range.add( i );
+        }
+        checked.add( i );
+      }
+    }
+    primary = range.get( 0 );
+    secondary = range.size() > 1 ? range.get( 1 ) : -1;
+    checked.remove( Integer.valueOf( primary ) );
+    eqColumns = toArray( eq );
+    checkedColumns = toArray( checked );
+
+    eqMeta = new RowMeta();
+    for ( int column : eqColumns ) {
+      eqMeta.addValueMeta( keysMeta.getValueMeta( column ) );
+    }
+
+    partitions = createPartitions();
+  }
+
+  private static int[] toArray( List<Integer> list ) {
+    int[] array = new int[ list.size() ];
+    for ( int i = 0; i < array.length; i++ ) {
+      array[ i ] = list.get( i );
+    }
+    return array;
+  }
+
+  private static boolean isRangeCondition( int condition ) {
+    switch ( condition ) {
+      case DatabaseLookupMeta.CONDITION_LT:
+      case DatabaseLookupMeta.CONDITION_LE:
+      case DatabaseLookupMeta.CONDITION_GT:
+      case DatabaseLookupMeta.CONDITION_GE:
+      case DatabaseLookupMeta.CONDITION_BETWEEN:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Tells if this cache can handle the given lookup conditions: at least one range condition and no {@code LIKE}.
+   *
+   * @param conditions the conditions of the lookup, see {@linkplain DatabaseLookupMeta#conditionStrings}
+   * @return true if the conditions can be handled
+   */
+  public static boolean isApplicable( int[] conditions ) {
+    boolean hasRange = false;
+    for ( int condition : conditions ) {
+      if ( condition == DatabaseLookupMeta.CONDITION_LIKE || condition < 0
+        || condition > DatabaseLookupMeta.CONDITION_IS_NOT_NULL ) {
+        return false;
+      }
+      hasRange |= isRangeCondition( condition );
+    }
+    return hasRange;
+  }
+
+  private Map<RowMetaAndData, IntervalIndex> createPartitions() throws KettleValueException {
+    // number the partitions in the order of their first row, then bucket the row numbers per partition
+    //
+    Map<RowMetaAndData, Integer> numbers = new HashMap<>();
+    List<RowMetaAndData> partitionKeys = new ArrayList<>();
+    int[] partitionOf = new int[ keys.length ];
+    for ( int row = 0; row < keys.length; row++ ) {
+      RowMetaAndData key = new RowMetaAndData( eqMeta, eqValues( keys[ row ] ) );
+      Integer number = numbers.get( key );
+      if ( number == null ) {
+        number = partitionKeys.size();
+        numbers.put( key, number );
+        partitionKeys.add( key );
+      }
+      partitionOf[ row ] = number;
+    }
+
+    int[] starts = new int[ partitionKeys.size() + 1 ];
+    for ( int partition : partitionOf ) {
+      starts[ partition + 1 ]++;
+    }
+    for ( int i = 1; i < starts.length; i++ ) {
+      starts[ i ] += starts[ i - 1 ];
+    }
+    Integer[] sorted = new Integer[ keys.length ];
+    int[] next = Arrays.copyOf( starts, partitionKeys.size() );
+    for ( int row = 0; row < keys.length; row++ ) {
+      sorted[ next[ partitionOf[ row ] ]++ ] = row;
+    }
+
+    final ValueMetaInterface primaryMeta = keysMeta.getValueMeta( primary );
+    final ValueMetaInterface secondaryMeta = secondary < 0 ? null : keysMeta.getValueMeta( secondary );
+    Map<RowMetaAndData, IntervalIndex> result = new HashMap<>( Math.max( 16, partitionKeys.size() * 2 ) );
+    for ( int partition = 0; partition < partitionKeys.size(); partition++ ) {
+      Integer[] rows = Arrays.copyOfRange( sorted, starts[ partition ], starts[ partition + 1 ] );
+      // sort on the primary column, then on the row number
+      Arrays.sort( rows, ( a, b ) -> {
+        int c;
+        try {
+          c = primaryMeta.compare( keys[ a ][ primary ], keys[ b ][ primary ] );
+        } catch ( KettleValueException e ) {
+          throw new RuntimeException( e );
+        }
+        return ( c == 0 ) ? Integer.compare( a, b ) : c;
+      } );
+      int[] partitionRows = new int[ rows.length ];
+      for ( int i = 0; i < rows.length; i++ ) {
+        partitionRows[ i ] = rows[ i ];
+      }
+      result.put( partitionKeys.get( partition ),
+        new IntervalIndex( partitionRows, keys, primary, primaryMeta, secondary, secondaryMeta ) );
+    }
+    return result;
+  }
+
+  private Object[] eqValues( Object[] row ) {
+    Object[] values = new Object[ eqColumns.length ];
+    for ( int i = 0; i < eqColumns.length; i++ ) {
+      values[ i ] = row[ eqColumns[ i ] ];
+    }
+    return values;
+  }
+
+  @Override
+  public Object[] getRowFromCache( RowMetaInterface lookupMeta, Object[] lookupRow ) throws KettleException {
+    Object[] eqLookup = new Object[ eqColumns.length ];
+    for ( int i = 0; i < eqColumns.length; i++ ) {
+      eqLookup[ i ] = lookupRow[ lookupIndexes[ eqColumns[ i ] ] ];
+    }
+    // the partition keys compare the lookup values with the metadata of the table keys
+    IntervalIndex index = partitions.get( new RowMetaAndData( eqMeta, eqLookup ) );
+    if ( index == null ) {
+      return null;
+    }
+
+    int lookupIndex = lookupIndexes[ primary ];
+    ValueMetaInterface cmpMeta = lookupMeta.getValueMeta( lookupIndex );
+    Object cmpData = lookupRow[ lookupIndex ];
+    int from = 0;
+    int to = index.size();
+    switch ( conditions[ primary ] ) {
+      case DatabaseLookupMeta.CONDITION_LT:
+        to = index.lowerBound( cmpMeta, cmpData );
+        break;
+      case DatabaseLookupMeta.CONDITION_LE:
+        to = index.upperBound( cmpMeta, cmpData );
+        break;
+      case DatabaseLookupMeta.CONDITION_GT:
+        from = index.upperBound( cmpMeta, cmpData );
+        break;
+      case DatabaseLookupMeta.CONDITION_GE:
+        from = index.lowerBound( cmpMeta, cmpData );
+        break;
+      default: // BETWEEN
+        from = index.lowerBound( cmpMeta, cmpData );
+        to = index.upperBound( lookupMeta.getValueMeta( lookupIndex + 1 ), lookupRow[ lookupIndex + 1 ] );
+        break;
+    }
+
+    int row = index.findFirst( from, to, createFilter( lookupMeta, lookupRow ),
+      candidate -> matches( keys[ candidate ], lookupMeta, lookupRow ) );
+    if ( row < 0 ) {
+      return null;
+    }
+    return dataStore == null ? data[ row ] : dataStore.getRow( dataAddresses[ row ] );
+  }
+
+  private IntervalIndex.RangeFilter createFilter( RowMetaInterface lookupMeta, Object[] lookupRow ) {
+    if ( secondary < 0 ) {
+      return null;
+    }
+    final ValueMetaInterface keyMeta = keysMeta.getValueMeta( secondary );
+    final int lookupIndex = lookupIndexes[ secondary ];
+    final ValueMetaInterface cmpMeta = lookupMeta.getValueMeta( lookupIndex );
+    final Object cmpData = lookupRow[ lookupIndex ];
+    switch ( conditions[ secondary ] ) {
+      case DatabaseLookupMeta.CONDITION_LT:
+        return ( min, max ) -> keyMeta.compare( min, cmpMeta, cmpData ) < 0;
+      case DatabaseLookupMeta.CONDITION_LE:
+        return ( min, max ) -> keyMeta.compare( min, cmpMeta, cmpData ) <= 0;
+      case DatabaseLookupMeta.CONDITION_GT:
+        return ( min, max ) -> keyMeta.compare( max, cmpMeta, cmpData ) > 0;
+      case DatabaseLookupMeta.CONDITION_GE:
+        return ( min, max ) -> keyMeta.compare( max, cmpMeta, cmpData ) >= 0;
+      default: // BETWEEN
+        final ValueMetaInterface cmpMeta2 = lookupMeta.getValueMeta( lookupIndex + 1 );
+        final Object cmpData2 = lookupRow[ lookupIndex + 1 ];
+        return ( min, max ) -> keyMeta.compare( max, cmpMeta, cmpData ) >= 0
+          && keyMeta.compare( min, cmpMeta2, cmpData2 ) <= 0;
+    }
+  }
+
+  private boolean matches( Object[] key, RowMetaInterface lookupMeta, Object[] lookupRow )
+    throws KettleValueException {
+    for ( int column : checkedColumns ) {
+      ValueMetaInterface keyMeta = keysMeta.getValueMeta( column );
+      Object keyData = key[ column ];
+      int lookupIndex = lookupIndexes[ column ];
+
+      boolean match;
+      switch ( conditions[ column ] ) {
+        case DatabaseLookupMeta.CONDITION_IS_NULL:
+          match = keyMeta.isNull( keyData );
+          break;
+        case DatabaseLookupMeta.CONDITION_IS_NOT_NULL:
+          match = !keyMeta.isNull( keyData );
+          break;
+        case DatabaseLookupMeta.CONDITION_BETWEEN:
+          // Between key >= cmp && key <= cmp2
+          match = keyMeta.compare( keyData, lookupMeta.getValueMeta( lookupIndex ), lookupRow[ lookupIndex ] ) >= 0;
+          if ( match ) {
+            lookupIndex++;
+            match = keyMeta.compare( keyData, lookupMeta.getValueMeta( lookupIndex ), lookupRow[ lookupIndex ] ) <= 0;
+          }
+          break;
+        default:
+          int c = keyMeta.compare( keyData, lookupMeta.getValueMeta( lookupIndex ), lookupRow[ lookupIndex ] );
+          match = matchesComparison( conditions[ column ], c );
+          break;
+      }
+      if ( !match ) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean matchesComparison( int condition, int c ) {
+    switch ( condition ) {
+      case DatabaseLookupMeta.CONDITION_NE:
+        return c != 0;
+      case DatabaseLookupMeta.CONDITION_LT:
+        return c < 0;
+      case DatabaseLookupMeta.CONDITION_LE:
+        return c <= 0;
+      case DatabaseLookupMeta.CONDITION_GT:
+        return c > 0;
+      case DatabaseLookupMeta.CONDITION_GE:
+        return c >= 0;
+      default:
+        return false;
+    }
+  }
+
+  @Override
+  public void storeRowInCache( DatabaseLookupMeta meta, RowMetaInterface lookupMeta, Object[] lookupRow,
+                               Object[] add ) {
+    throw new UnsupportedOperationException( "This cache is read-only" );
+  }
+
+
+  /**
+   * Builder class for {@linkplain IntervalIndexCache}. Note, it does no checks or verifications!
+   */
+  public static class Builder {
+    private final DatabaseLookupData stepData;
+    private final Object[][] keys;
+    private final Object[][] data;
+    private final long[] dataAddresses;
+    private final OffHeapRowStore dataStore;
+
+    private RowMetaInterface keysMeta;
+
+    private int current;
+
+    public Builder( DatabaseLookupData stepData, int amount ) {
+      this( stepData, amount, null );
+    }
+
+    /**
+     * @param dataStore the store to keep the data rows in, null to keep them on the heap
+     */
+    public Builder( DatabaseLookupData stepData, int amount, OffHeapRowStore dataStore ) {
+      this.stepData = stepData;
+      this.dataStore = dataStore;
+      keys = new Object[ amount ][];
+      if ( dataStore == null ) {
+        data = new Object[ amount ][];
+        dataAddresses = null;
+      } else {
+        data = null;
+        dataAddresses = new long[ amount ];
+      }
+    }
+
+    public void setKeysMeta( RowMetaInterface keysMeta ) {
+      this.keysMeta = keysMeta;
+    }
+
+    public void add( Object[] keys, Object[] data ) throws KettleValueException {
+      this.keys[ current ] = keys;
+      if ( dataStore == null ) {
+        this.data[ current ] = data;
+      } else {
+        dataAddresses[ current ] = dataStore.addRow( data );
+      }
+      current++;
+    }
+
+    public IntervalIndexCache build() throws KettleValueException {
+      return new IntervalIndexCache( stepData, keys, keysMeta, data, dataAddresses, dataStore );
+    }
+  }
+}
@@ -14,6 +14,8 @@
 package org.pentaho.di.trans.steps.databaselookup.readallcache;
 
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.trans.steps.databaselookup.DatabaseLookupData;
@@ -27,7 +29,8 @@ import java.util.PriorityQueue;
 /**
  * This is a read-only array-based cache to be used in
  * {@linkplain org.pentaho.di.trans.steps.databaselookup.DatabaseLookup DatabaseLookup} when "Load All Data In Cache"
- * checkbox is selected. Internally, it uses some optimizations to reduce memory consumption.
+ * checkbox is selected. Internally, it uses some optimizations to reduce memory consumption. The data rows can be kept
+ * in an {@link OffHeapRowStore}, outside of the heap.
  *
  * @author Andrey Khayrutdinov
  */
@@ -40,6 +43,10 @@ public class ReadAllCache implements DatabaseLookupData.Cache {
 
   private final Object[][] data;
 
+  // the addresses of the data rows when they are kept in dataStore
+  private final long[] dataAddresses;
+  private final OffHeapRowStore dataStore;
+
   private final Index[] indexes;
 
   // this is an array of pairs (column; condition),
@@ -47,10 +54,17 @@ public class ReadAllCache implements DatabaseLookupData.Cache {
   private final int[][] otherConditions;
 
   ReadAllCache( DatabaseLookupData stepData, Object[][] keys, RowMetaInterface keysMeta, Object[][] data ) {
+    this( stepData, keys, keysMeta, data, null, null );
+  }
+
+  ReadAllCache( DatabaseLookupData stepData, Object[][] keys, RowMetaInterface keysMeta, Object[][] data,
+                long[] dataAddresses, OffHeapRowStore dataStore ) {
     this.stepData = stepData;
     this.keys = keys;
     this.keysMeta = keysMeta;
     this.data = data;
+    this.dataAddresses = dataAddresses;
+    this.dataStore = dataStore;
 
     Object[] pair = createIndexes( stepData, keysMeta, keys );
     indexes = (Index[]) pair[ 0 ];
@@ -176,7 +190,7 @@ public class ReadAllCache implements DatabaseLookupData.Cache {
         }
       }
       if ( matches ) {
-        return data[ candidate ];
+        return dataStore == null ? data[ candidate ] : dataStore.getRow( dataAddresses[ candidate ] );
       } else {
         candidate = candidates.nextSetBit( candidate + 1 );
       }
@@ -198,29 +212,49 @@ public class ReadAllCache implements DatabaseLookupData.Cache {
     private final DatabaseLookupData stepData;
     private final Object[][] keys;
     private final Object[][] data;
+    private final long[] dataAddresses;
+    private final OffHeapRowStore dataStore;
 
     private RowMetaInterface keysMeta;
 
     private int current;
 
     public Builder( DatabaseLookupData stepData, int amount ) {
+      this( stepData, amount, null );
+    }
+
+    /**
+     * @param dataStore the store to keep the data rows in, null to keep them on the heap
+     */
+    public Builder( DatabaseLookupData stepData, int amount, OffHeapRowStore dataStore ) {
       this.stepData = stepData;
+      this.dataStore = dataStore;
       keys = new Object[ amount ][];
-      data = new Object[ amount ][];
+      if ( dataStore == null ) {
+        data = new Object[ amount ][];
+        dataAddresses = null;
+      } else {
+        data = null;
+        dataAddresses = new long[ amount ];
+      }
     }
 
     public void setKeysMeta( RowMetaInterface keysMeta ) {
       this.keysMeta = keysMeta;
     }
 
-    public void add( Object[] keys, Object[] data ) {
+    public void add( Object[] keys, Object[] data ) throws KettleValueException {
       this.keys[ current ] = keys;
-      this.data[ current ] = data;
+      if ( dataStore == null ) {
+        this.data[ current ] = data;
+      } else {
+        dataAddresses[ current ] = dataStore.addRow( data );
+      }
       current++;
     }
 
     public ReadAllCache build() {
-      return new ReadAllCache( stepData, keys, keysMeta, data );
+      return new ReadAllCache( stepData, keys, keysMeta, data, dataAddresses, dataStore );
     }
   }
 }
@@ -0,0 +1,991 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * A compact, read-only form of the pre-loaded dimension cache. Instead of keeping the rows of the dimension table
+ * around, the versions are sorted on natural key and start date and stored in a few primitive arrays: the technical
+ * keys and the date ranges as longs, the distinct natural keys as longs (a single integer key) or as packed bytes, and
+ * the retrieved fields as packed bytes.
+ *
+ * A lookup is a binary search on the natural key followed by one on the start dates of the versions of that key. The
+ * natural key to look for is encoded in a reusable {@link Probe}, so a lookup doesn't allocate anything until the
+ * fields of the version found are decoded.
+ *
+ * The arrays live either on the heap or in a memory mapped file. A cache in a file can be shared by the steps that
+ * pre-load the same dimension at the same time, see {@link #acquire(String, String, Loader)}.
+ *
+ * @since 11.0
+ */
+public class CompactDimensionCache {
+  private static Class<?> PKG = DimensionLookupMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+  /**
+   * The cache files in use or being loaded, by absolute file name. Loading happens outside of the lock.
+   */
+  private static final Map<String, SharedCache> sharedCaches = new HashMap<>();
+
+  /**
+   * Loads a cache into the memory mapped file it is given.
+   */
+  public interface Loader {
+    /**
+     * @param fileName
+     *          the file to map the cache in
+     * @return the loaded cache or null if the dimension can't be stored in a compact cache
+     * @throws KettleException
+     *           in case there is a database or file problem
+     */
+    CompactDimensionCache load( String fileName ) throws KettleException;
+  }
+
+  private final RowMetaInterface keyRowMeta;
+  private final RowMetaInterface fieldRowMeta;
+  private final RowMetaInterface returnRowMeta;
+  private final ValueMetaInterface fromDateMeta;
+  private final ValueMetaInterface toDateMeta;
+
+  private final int size;
+  private final int keyCount;
+
+  /** true if the natural key is a single integer, kept in longKeyValues */
+  private final boolean longKeys;
+
+  /** true if the first distinct natural key is the null key (long keys only) */
+  private final boolean nullKey;
+
+  private final LongBuffer technicalKeys;
+  private final LongBuffer dateFrom;
+  private final LongBuffer dateTo;
+
+  /** The index of the first version of each distinct natural key, followed by the number of versions */
+  private final IntBuffer keyVersions;
+
+  private final LongBuffer longKeyValues;
+  private final ByteBuffer keyBytes;
+  private final IntBuffer keyOffsets;
+
+  private final ByteBuffer fieldBytes;
+  private final IntBuffer fieldOffsets;
+
+  private String sharedFileName;
+  private SharedCache shared;
+
+  private CompactDimensionCache( Builder builder, int size, int keyCount, boolean nullKey, LongBuffer technicalKeys,
+    LongBuffer dateFrom, LongBuffer dateTo, IntBuffer keyVersions, LongBuffer longKeyValues, ByteBuffer keyBytes,
+    IntBuffer keyOffsets, ByteBuffer fieldBytes, IntBuffer fieldOffsets ) {
+    this.keyRowMeta = builder.keyRowMeta;
+    this.fieldRowMeta = builder.fieldRowMeta;
+    this.fromDateMeta = builder.fromDateMeta;
+    this.toDateMeta = builder.toDateMeta;
+    this.longKeys = builder.longKeys;
+    this.size = size;
+    this.keyCount = keyCount;
+    this.nullKey = nullKey;
+    this.technicalKeys = technicalKeys;
+    this.dateFrom = dateFrom;
+    this.dateTo = dateTo;
+    this.keyVersions = keyVersions;
+    this.longKeyValues = longKeyValues;
+    this.keyBytes = keyBytes;
+    this.keyOffsets = keyOffsets;
+    this.fieldBytes = fieldBytes;
+    this.fieldOffsets = fieldOffsets;
+
+    // The returned rows look like the rows of the database lookup: technical key, version, fields, from, to
+    //
+    returnRowMeta = new RowMeta();
+    returnRowMeta.addValueMeta( builder.technicalKeyMeta );
+    returnRowMeta.addValueMeta( new ValueMetaInteger( "version" ) );
+    returnRowMeta.addRowMeta( fieldRowMeta );
+    returnRowMeta.addValueMeta( fromDateMeta );
+    returnRowMeta.addValueMeta( toDateMeta );
+  }
+
+  /**
+   * Gets the cache mapped in the specified file, loading it if no other step is using it right now. Every cache
+   * acquired this way has to be given back with {@link #release()}.
+   *
+   * @param fileName
+   *          the absolute name of the file to map the cache in
+   * @param signature
+   *          describes the dimension (connection, table, columns) so that a file is never shared between dimensions
+   * @param loader
+   *          loads the cache when it isn't in use yet, on the calling thread. Other steps acquiring the same file wait
+   *          for the load to finish, steps acquiring other files don't.
+   * @return the shared cache or null if the loader couldn't store the dimension in a compact cache
+   * @throws KettleException
+   *           in case the file is in use for another dimension or the cache couldn't be loaded
+   */
+  public static CompactDimensionCache acquire( String fileName, String signature, Loader loader )
+    throws KettleException {
+    SharedCache shared;
+    boolean loading = false;
+    synchronized ( sharedCaches ) {
+      shared = sharedCaches.get( fileName );
+      if ( shared == null ) {
+        shared = new SharedCache( signature );
+        sharedCaches.put( fileName, shared );
+        loading = true;
+      } else if ( !shared.signature.equals( signature ) ) {
+        throw new KettleException( BaseMessages.getString( PKG, "DimensionLookup.Exception.PreloadCacheFileInUse",
+          fileName ) );
+      }
+      shared.references++;
+    }
+
+    if ( loading ) {
+      CompactDimensionCache cache = null;
+      try {
+        cache = loader.load( fileName );
+        if ( cache != null ) {
+          cache.sharedFileName = fileName;
+          cache.shared = shared;
+        }
+      } catch ( KettleException | RuntimeException e ) {
+        shared.cache.completeExceptionally( e );
+        throw e;
+      } finally {
+        if ( cache == null ) {
+          // Nothing to share: the next step to acquire the file loads it again
+          synchronized ( sharedCaches ) {
+            sharedCaches.remove( fileName, shared );
+          }
+          shared.cache.complete( null );
+        }
+      }
+      shared.cache.complete( cache );
+      return cache;
+    }
+
+    try {
+      return shared.cache.get();
+    } catch ( ExecutionException e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "DimensionLookup.Exception.PreloadCacheNotLoaded",
+        fileName ), e.getCause() );
+    } catch ( InterruptedException e ) {
+      release( fileName, shared );
+      Thread.currentThread().interrupt();
+      throw new KettleException( BaseMessages.getString( PKG, "DimensionLookup.Exception.PreloadCacheNotLoaded",
+        fileName ), e );
+    }
+  }
+
+  private static void release( String fileName, SharedCache shared ) {
+    synchronized ( sharedCaches ) {
+      shared.references--;
+      if ( shared.references == 0 && sharedCaches.get( fileName ) == shared ) {
+        sharedCaches.remove( fileName );
+      }
+    }
+  }
+
+  /**
+   * Gives back a cache obtained with {@link #acquire(String, String, Loader)}. The next step to acquire the file after
+   * the last one released it loads the dimension again.
+   */
+  public void release() {
+    if ( shared != null ) {
+      release( sharedFileName, shared );
+    }
+  }
+
+  /**
+   * @return the number of steps using this cache right now, 0 if it isn't shared
+   */
+  public int getReferences() {
+    if ( shared == null ) {
+      return 0;
+    }
+    synchronized ( sharedCaches ) {
+      return shared.references;
+    }
+  }
+
+  /**
+   * A cache file in use by one or more steps. The references are guarded by {@link #sharedCaches}.
+   */
+  private static final class SharedCache {
+    private final String signature;
+    private final CompletableFuture<CompactDimensionCache> cache = new CompletableFuture<>();
+    private int references;
+
+    private SharedCache( String signature ) {
+      this.signature = signature;
+    }
+  }
+
+  /**
+   * @param rowMeta
+   *          the description of the rows read from the dimension table
+   * @return true if all values in the rows can be stored in a compact cache
+   */
+  public static boolean isSupported( RowMetaInterface rowMeta ) {
+    for ( int i = 0; i < rowMeta.size(); i++ ) {
+      switch ( rowMeta.getValueMeta( i ).getType() ) {
+        case ValueMetaInterface.TYPE_STRING:
+        case ValueMetaInterface.TYPE_INTEGER:
+        case ValueMetaInterface.TYPE_NUMBER:
+        case ValueMetaInterface.TYPE_DATE:
+        case ValueMetaInterface.TYPE_TIMESTAMP:
+        case ValueMetaInterface.TYPE_BOOLEAN:
+        case ValueMetaInterface.TYPE_BIGNUMBER:
+        case ValueMetaInterface.TYPE_BINARY:
+          break;
+        default:
+          return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @return a new probe to look up natural keys with. A probe is reused from lookup to lookup but it can't be used by
+   *         several threads at once.
+   */
+  public Probe newProbe() {
+    return new Probe();
+  }
+
+  /**
+   * Looks up the version of a natural key that is valid on a certain date.
+   *
+   * @param probe
+   *          the probe holding the natural key
+   * @param date
+   *          the lookup date, null is before any date
+   * @return the index of the version found or -1 if there is none
+   */
+  public int lookup( Probe probe, Date date ) {
+    int key = longKeys ? findLongKey( probe ) : findBytesKey( probe );
+    if ( key < 0 ) {
+      return -1;
+    }
+    long time = date == null ? Long.MIN_VALUE : date.getTime();
+
+    // The last version starting on or before the lookup date...
+    //
+    int low = keyVersions.get( key );
+    int high = keyVersions.get( key + 1 ) - 1;
+    int found = -1;
+    while ( low <= high ) {
+      int middle = ( low + high ) >>> 1;
+      if ( dateFrom.get( middle ) <= time ) {
+        found = middle;
+        low = middle + 1;
+      } else {
+        high = middle - 1;
+      }
+    }
+
+    // ... if it hasn't ended yet.
+    //
+    if ( found >= 0 && time < dateTo.get( found ) ) {
+      return found;
+    }
+    return -1;
+  }
+
+  private int findLongKey( Probe probe ) {
+    if ( probe.nullKey ) {
+      return nullKey ? 0 : -1;
+    }
+    int low = nullKey ? 1 : 0;
+    int high = keyCount - 1;
+    while ( low <= high ) {
+      int middle = ( low + high ) >>> 1;
+      long value = longKeyValues.get( middle );
+      if ( value < probe.longKey ) {
+        low = middle + 1;
+      } else if ( value > probe.longKey ) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  private int findBytesKey( Probe probe ) {
+    byte[] key = probe.key.data;
+    int length = probe.key.length;
+    int low = 0;
+    int high = keyCount - 1;
+    while ( low <= high ) {
+      int middle = ( low + high ) >>> 1;
+      int start = keyOffsets.get( middle );
+      int end = keyOffsets.get( middle + 1 );
+      int cmp = 0;
+      for ( int i = 0; cmp == 0 && i < length && start + i < end; i++ ) {
+        cmp = Integer.compare( keyBytes.get( start + i ) & 0xFF, key[ i ] & 0xFF );
+      }
+      if ( cmp == 0 ) {
+        cmp = Integer.compare( end - start, length );
+      }
+      if ( cmp < 0 ) {
+        low = middle + 1;
+      } else if ( cmp > 0 ) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @param index
+   *          the index of a version
+   * @return the technical key of the version
+   */
+  public long getTechnicalKey( int index ) {
+    return technicalKeys.get( index );
+  }
+
+  /**
+   * Builds the row a lookup returns for a version: technical key, an empty version, the retrieved fields and the date
+   * range, described by {@link #getReturnRowMeta()}.
+   *
+   * @param index
+   *          the index of a version
+   * @return a new row with the values of the version
+   * @throws KettleValueException
+   *           in case a field can't be decoded
+   */
+  public Object[] getReturnRow( int index ) throws KettleValueException {
+    Object[] row = new Object[ returnRowMeta.size() ];
+    row[ 0 ] = technicalKeys.get( index );
+    if ( fieldBytes != null ) {
+      int[] position = new int[] { fieldOffsets.get( index ) };
+      for ( int i = 0; i < fieldRowMeta.size(); i++ ) {
+        row[ 2 + i ] = readValue( fieldBytes, position, fieldRowMeta.getValueMeta( i ) );
+      }
+    }
+    row[ row.length - 2 ] = toDate( fromDateMeta, dateFrom.get( index ), Long.MIN_VALUE );
+    row[ row.length - 1 ] = toDate( toDateMeta, dateTo.get( index ), Long.MAX_VALUE );
+    return row;
+  }
+
+  private static Date toDate( ValueMetaInterface meta, long time, long nullTime ) {
+    if ( time == nullTime ) {
+      return null;
+    }
+    return meta.getType() == ValueMetaInterface.TYPE_TIMESTAMP ? new Timestamp( time ) : new Date( time );
+  }
+
+  /**
+   * @return the description of the rows returned by {@link #getReturnRow(int)}
+   */
+  public RowMetaInterface getReturnRowMeta() {
+    return returnRowMeta;
+  }
+
+  /**
+   * @return the description of the natural key as stored in the dimension table
+   */
+  public RowMetaInterface getKeyRowMeta() {
+    return keyRowMeta;
+  }
+
+  /**
+   * @return the number of versions in the cache
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of distinct natural keys in the cache
+   */
+  public int getKeyCount() {
+    return keyCount;
+  }
+
+  /**
+   * @return true if the natural key is a single integer stored as a long
+   */
+  public boolean isLongKeys() {
+    return longKeys;
+  }
+
+  /**
+   * Holds the encoded natural key to look up. The buffer is reused so a lookup doesn't allocate.
+   */
+  public class Probe {
+    private final PackedBytes key = new PackedBytes( 64 );
+    private boolean nullKey;
+    private long longKey;
+
+    private Probe() {
+    }
+
+    /**
+     * Sets the natural key to look up, converted to the data types of the dimension table.
+     *
+     * @param rowMeta
+     *          the description of the row
+     * @param row
+     *          the row holding the natural key values
+     * @param indexes
+     *          the indexes of the natural key values in the row, in the order of the key in the dimension table
+     * @throws KettleValueException
+     *           in case a key value can't be converted
+     */
+    public void setKey( RowMetaInterface rowMeta, Object[] row, int[] indexes ) throws KettleValueException {
+      if ( longKeys ) {
+        ValueMetaInterface keyMeta = keyRowMeta.getValueMeta( 0 );
+        Object value = keyMeta.convertData( rowMeta.getValueMeta( indexes[ 0 ] ), row[ indexes[ 0 ] ] );
+        nullKey = keyMeta.isNull( value );
+        longKey = nullKey ? 0L : keyMeta.getInteger( value );
+      } else {
+        key.length = 0;
+        for ( int i = 0; i < indexes.length; i++ ) {
+          ValueMetaInterface keyMeta = keyRowMeta.getValueMeta( i );
+          Object value = keyMeta.convertData( rowMeta.getValueMeta( indexes[ i ] ), row[ indexes[ i ] ] );
+          writeValue( key, keyMeta, value, true );
+        }
+      }
+    }
+  }
+
+  /**
+   * Collects the rows of the dimension table and sorts them into a compact cache.
+   */
+  public static class Builder {
+    private final RowMetaInterface rowMeta;
+    private final int technicalKeyIndex;
+    private final int[] keyIndexes;
+    private final int[] fieldIndexes;
+    private final int fromDateIndex;
+    private final int toDateIndex;
+
+    private final ValueMetaInterface technicalKeyMeta;
+    private final RowMetaInterface keyRowMeta;
+    private final RowMetaInterface fieldRowMeta;
+    private final ValueMetaInterface fromDateMeta;
+    private final ValueMetaInterface toDateMeta;
+    private final boolean longKeys;
+
+    private int size;
+    private long[] technicalKeys = new long[ 1024 ];
+    private long[] dateFrom = new long[ 1024 ];
+    private long[] dateTo = new long[ 1024 ];
+    private long[] longKeyValues;
+    private boolean[] nullKeys;
+    private PackedBytes keyBytes;
+    private int[] keyOffsets;
+    private PackedBytes fieldBytes;
+    private int[] fieldOffsets;
+
+    /**
+     * @param rowMeta
+     *          the description of the rows read from the dimension table
+     * @param technicalKeyIndex
+     *          the index of the technical key
+     * @param keyIndexes
+     *          the indexes of the natural key (in that order)
+     * @param fieldIndexes
+     *          the indexes of the fields to retrieve
+     * @param fromDateIndex
+     *          the index of the start of the date range
+     * @param toDateIndex
+     *          the index of the end of the date range
+     */
+    public Builder( RowMetaInterface rowMeta, int technicalKeyIndex, int[] keyIndexes, int[] fieldIndexes,
+      int fromDateIndex, int toDateIndex ) {
+      this.rowMeta = rowMeta;
+      this.technicalKeyIndex = technicalKeyIndex;
+      this.keyIndexes = keyIndexes;
+      this.fieldIndexes = fieldIndexes;
+      this.fromDateIndex = fromDateIndex;
+      this.toDateIndex = toDateIndex;
+
+      technicalKeyMeta = new ValueMetaInteger( rowMeta.getValueMeta( technicalKeyIndex ).getName() );
+      keyRowMeta = new RowMeta();
+      for ( int keyIndex : keyIndexes ) {
+        keyRowMeta.addValueMeta( rowMeta.getValueMeta( keyIndex ).clone() );
+      }
+      fieldRowMeta = new RowMeta();
+      for ( int fieldIndex : fieldIndexes ) {
+        fieldRowMeta.addValueMeta( rowMeta.getValueMeta( fieldIndex ).clone() );
+      }
+      fromDateMeta = rowMeta.getValueMeta( fromDateIndex ).clone();
+      toDateMeta = rowMeta.getValueMeta( toDateIndex ).clone();
+
+      longKeys = keyIndexes.length == 1 && keyRowMeta.getValueMeta( 0 ).isInteger();
+      if ( longKeys ) {
+        longKeyValues = new long[ 1024 ];
+        nullKeys = new boolean[ 1024 ];
+      } else {
+        keyBytes = new PackedBytes( 16 * 1024 );
+        keyOffsets = new int[ 1025 ];
+      }
+      if ( fieldIndexes.length > 0 ) {
+        fieldBytes = new PackedBytes( 16 * 1024 );
+        fieldOffsets = new int[ 1025 ];
+      }
+    }
+
+    /**
+     * Adds a row read from the dimension table.
+     *
+     * @param row
+     *          the row to add
+     * @throws KettleValueException
+     *           in case a value can't be stored or the cache grows too large
+     */
+    public void addRow( Object[] row ) throws KettleValueException {
+      if ( size == MAX_ARRAY_SIZE ) {
+        throw new KettleValueException( "The dimension has too many rows to pre-load in a compact cache" );
+      }
+      if ( size == technicalKeys.length ) {
+        int capacity = (int) Math.min( MAX_ARRAY_SIZE, 2L * size );
+        technicalKeys = Arrays.copyOf( technicalKeys, capacity );
+        dateFrom = Arrays.copyOf( dateFrom, capacity );
+        dateTo = Arrays.copyOf( dateTo, capacity );
+        if ( longKeys ) {
+          longKeyValues = Arrays.copyOf( longKeyValues, capacity );
+          nullKeys = Arrays.copyOf( nullKeys, capacity );
+        } else {
+          keyOffsets = Arrays.copyOf( keyOffsets, capacity + 1 );
+        }
+        if ( fieldOffsets != null ) {
+          fieldOffsets = Arrays.copyOf( fieldOffsets, capacity + 1 );
+        }
+      }
+
+      Long technicalKey = rowMeta.getInteger( row, technicalKeyIndex );
+      if ( technicalKey == null ) {
+        throw new KettleValueException( "A null technical key can't be pre-loaded in the cache" );
+      }
+      technicalKeys[ size ] = technicalKey;
+      Date from = rowMeta.getDate( row, fromDateIndex );
+      dateFrom[ size ] = from == null ? Long.MIN_VALUE : from.getTime();
+      Date to = rowMeta.getDate( row, toDateIndex );
+      dateTo[ size ] = to == null ? Long.MAX_VALUE : to.getTime();
+
+      if ( longKeys ) {
+        ValueMetaInterface keyMeta = keyRowMeta.getValueMeta( 0 );
+        Object value = row[ keyIndexes[ 0 ] ];
+        nullKeys[ size ] = keyMeta.isNull( value );
+        longKeyValues[ size ] = nullKeys[ size ] ? 0L : keyMeta.getInteger( value );
+      } else {
+        for ( int i = 0; i < keyIndexes.length; i++ ) {
+          writeValue( keyBytes, keyRowMeta.getValueMeta( i ), row[ keyIndexes[ i ] ], true );
+        }
+        keyOffsets[ size + 1 ] = keyBytes.length;
+      }
+      if ( fieldBytes != null ) {
+        for ( int i = 0; i < fieldIndexes.length; i++ ) {
+          writeValue( fieldBytes, fieldRowMeta.getValueMeta( i ), row[ fieldIndexes[ i ] ], false );
+        }
+        fieldOffsets[ size + 1 ] = fieldBytes.length;
+      }
+      size++;
+    }
+
+    /**
+     * Sorts the rows added into a cache on the heap.
+     *
+     * @return the cache
+     * @throws KettleException
+     *           in case the cache grows too large
+     */
+    public CompactDimensionCache build() throws KettleException {
+      return build( null );
+    }
+
+    /**
+     * Sorts the rows added into a cache.
+     *
+     * @param file
+     *          the file to map the cache in, null to keep it on the heap
+     * @return the cache
+     * @throws KettleException
+     *           in case there is a problem writing the file or the cache grows too large
+     */
+    public CompactDimensionCache build( File file ) throws KettleException {
+      int[] order = sort();
+
+      // Lay the versions out in sorted order and collect the distinct natural keys...
+      //
+      long[] sortedTechnicalKeys = new long[ size ];
+      long[] sortedDateFrom = new long[ size ];
+      long[] sortedDateTo = new long[ size ];
+      int[] sortedKeyVersions = new int[ size + 1 ];
+      long[] sortedLongKeys = longKeys ? new long[ size ] : null;
+      PackedBytes sortedKeyBytes = longKeys ? null : new PackedBytes( Math.max( 16, keyBytes.length ) );
+      int[] sortedKeyOffsets = longKeys ? null : new int[ size + 1 ];
+      PackedBytes sortedFieldBytes = fieldBytes == null ? null : new PackedBytes( Math.max( 16, fieldBytes.length ) );
+      int[] sortedFieldOffsets = fieldBytes == null ? null : new int[ size + 1 ];
+
+      int keyCount = 0;
+      for ( int i = 0; i < size; i++ ) {
+        int row = order[ i ];
+        sortedTechnicalKeys[ i ] = technicalKeys[ row ];
+        sortedDateFrom[ i ] = dateFrom[ row ];
+        sortedDateTo[ i ] = dateTo[ row ];
+        if ( i == 0 || compareKeys( order[ i - 1 ], row ) != 0 ) {
+          sortedKeyVersions[ keyCount ] = i;
+          if ( longKeys ) {
+            sortedLongKeys[ keyCount ] = longKeyValues[ row ];
+          } else {
+            sortedKeyBytes.write( keyBytes.data, keyOffsets[ row ], keyOffsets[ row + 1 ] - keyOffsets[ row ] );
+            sortedKeyOffsets[ keyCount + 1 ] = sortedKeyBytes.length;
+          }
+          keyCount++;
+        }
+        if ( sortedFieldBytes != null ) {
+          sortedFieldBytes.write( fieldBytes.data, fieldOffsets[ row ], fieldOffsets[ row + 1 ] - fieldOffsets[ row ] );
+          sortedFieldOffsets[ i + 1 ] = sortedFieldBytes.length;
+        }
+      }
+      sortedKeyVersions[ keyCount ] = size;
+      boolean nullKey = longKeys && size > 0 && nullKeys[ order[ 0 ] ];
+
+      // The unsorted rows aren't needed anymore
+      //
+      order = null;
+      technicalKeys = dateFrom = dateTo = longKeyValues = null;
+      nullKeys = null;
+      keyBytes = fieldBytes = null;
+      keyOffsets = fieldOffsets = null;
+
+      if ( file == null ) {
+        return new CompactDimensionCache( this, size, keyCount, nullKey,
+          LongBuffer.wrap( sortedTechnicalKeys ), LongBuffer.wrap( sortedDateFrom ), LongBuffer.wrap( sortedDateTo ),
+          IntBuffer.wrap( sortedKeyVersions, 0, keyCount + 1 ),
+          longKeys ? LongBuffer.wrap( sortedLongKeys, 0, keyCount ) : null,
+          longKeys ? null : ByteBuffer.wrap( sortedKeyBytes.data, 0, sortedKeyBytes.length ),
+          longKeys ? null : IntBuffer.wrap( sortedKeyOffsets, 0, keyCount + 1 ),
+          sortedFieldBytes == null ? null : ByteBuffer.wrap( sortedFieldBytes.data, 0, sortedFieldBytes.length ),
+          sortedFieldBytes == null ? null : IntBuffer.wrap( sortedFieldOffsets ) );
+      }
+
+      try ( FileChannel channel = FileChannel.open( file.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE ) ) {
+        MappedSections sections = new MappedSections( channel );
+        return new CompactDimensionCache( this, size, keyCount, nullKey,
+          sections.map( sortedTechnicalKeys, size ), sections.map( sortedDateFrom, size ),
+          sections.map( sortedDateTo, size ), sections.map( sortedKeyVersions, keyCount + 1 ),
+          longKeys ? sections.map( sortedLongKeys, keyCount ) : null,
+          longKeys ? null : sections.map( sortedKeyBytes.data, sortedKeyBytes.length ),
+          longKeys ? null : sections.map( sortedKeyOffsets, keyCount + 1 ),
+          sortedFieldBytes == null ? null : sections.map( sortedFieldBytes.data, sortedFieldBytes.length ),
+          sortedFieldBytes == null ? null : sections.map( sortedFieldOffsets, size + 1 ) );
+      } catch ( IOException e ) {
+        throw new KettleException( "Unable to write the pre-loaded cache to file '" + file + "'", e );
+      }
+    }
+
+    /**
+     * @return the row indexes sorted on natural key and start date, using a merge sort on the primitive indexes
+     */
+    private int[] sort() {
+      int[] order = new int[ size ];
+      for ( int i = 0; i < size; i++ ) {
+        order[ i ] = i;
+      }
+      int[] buffer = new int[ size ];
+      for ( int width = 1; width < size; width *= 2 ) {
+        for ( int low = 0; low < size - width; low += 2 * width ) {
+          int middle = low + width;
+          int high = (int) Math.min( size, (long) low + 2 * width );
+          if ( compareRows( order[ middle - 1 ], order[ middle ] ) <= 0 ) {
+            continue; // already in order
+          }
+          System.arraycopy( order, low, buffer, low, high - low );
+          int left = low;
+          int right = middle;
+          for ( int i = low; i < high; i++ ) {
+            if ( right >= high || ( left < middle && compareRows( buffer[ left ], buffer[ right ] ) <= 0 ) ) {
+              order[ i ] = buffer[ left++ ];
+            } else {
+              order[ i ] = buffer[ right++ ];
+            }
+          }
+        }
+      }
+      return order;
+    }
+
+    private int compareRows( int row1, int row2 ) {
+      int cmp = compareKeys( row1, row2 );
+      if ( cmp != 0 ) {
+        return cmp;
+      }
+      return Long.compare( dateFrom[ row1 ], dateFrom[ row2 ] );
+    }
+
+    private int compareKeys( int row1, int row2 ) {
+      if ( longKeys ) {
+        if ( nullKeys[ row1 ] || nullKeys[ row2 ] ) {
+          return Boolean.compare( !nullKeys[ row1 ], !nullKeys[ row2 ] );
+        }
+        return Long.compare( longKeyValues[ row1 ], longKeyValues[ row2 ] );
+      }
+      int start1 = keyOffsets[ row1 ];
+      int start2 = keyOffsets[ row2 ];
+      int length1 = keyOffsets[ row1 + 1 ] - start1;
+      int length2 = keyOffsets[ row2 + 1 ] - start2;
+      byte[] data = keyBytes.data;
+      for ( int i = 0; i < length1 && i < length2; i++ ) {
+        int cmp = Integer.compare( data[ start1 + i ] & 0xFF, data[ start2 + i ] & 0xFF );
+        if ( cmp != 0 ) {
+          return cmp;
+        }
+      }
+      return Integer.compare( length1, length2 );
+    }
+  }
+
+  /**
+   * Writes the arrays of a cache one after the other in a file and maps them back in.
+   */
+  private static class MappedSections {
+    private final FileChannel channel;
+    private long position;
+
+    MappedSections( FileChannel channel ) {
+      this.channel = channel;
+    }
+
+    private MappedByteBuffer map( long bytes ) throws IOException {
+      if ( bytes > Integer.MAX_VALUE ) {
+        throw new IOException( "A section of the pre-loaded cache is larger than 2GB" );
+      }
+      MappedByteBuffer buffer = channel.map( MapMode.READ_WRITE, position, bytes );
+      position += bytes;
+      return buffer;
+    }
+
+    LongBuffer map( long[] values, int count ) throws IOException {
+      MappedByteBuffer buffer = map( 8L * count );
+      buffer.order( ByteOrder.nativeOrder() );
+      buffer.asLongBuffer().put( values, 0, count );
+      return buffer.asLongBuffer().asReadOnlyBuffer();
+    }
+
+    IntBuffer map( int[] values, int count ) throws IOException {
+      MappedByteBuffer buffer = map( 4L * count );
+      buffer.order( ByteOrder.nativeOrder() );
+      buffer.asIntBuffer().put( values, 0, count );
+      return buffer.asIntBuffer().asReadOnlyBuffer();
+    }
+
+    ByteBuffer map( byte[] values, int count ) throws IOException {
+      MappedByteBuffer buffer = map( count );
+      buffer.put( values, 0, count );
+      return buffer.asReadOnlyBuffer();
+    }
+  }
+
+  /**
+   * A growing byte array the keys and fields are encoded in.
+   */
+  static class PackedBytes {
+    byte[] data;
+    int length;
+
+    PackedBytes( int capacity ) {
+      data = new byte[ capacity ];
+    }
+
+    private void ensure( int extra ) throws KettleValueException {
+      long needed = (long) length + extra;
+      if ( needed > data.length ) {
+        if ( needed > MAX_ARRAY_SIZE ) {
+          throw new KettleValueException( "The dimension is too large to pre-load in a compact cache" );
+        }
+        data = Arrays.copyOf( data, (int) Math.min( MAX_ARRAY_SIZE, Math.max( needed, 2L * data.length ) ) );
+      }
+    }
+
+    void writeByte( int value ) throws KettleValueException {
+      ensure( 1 );
+      data[ length++ ] = (byte) value;
+    }
+
+    void writeInt( int value ) throws KettleValueException {
+      ensure( 4 );
+      for ( int shift = 24; shift >= 0; shift -= 8 ) {
+        data[ length++ ] = (byte) ( value >>> shift );
+      }
+    }
+
+    void writeLong( long value ) throws KettleValueException {
+      ensure( 8 );
+      for ( int shift = 56; shift >= 0; shift -= 8 ) {
+        data[ length++ ] = (byte) ( value >>> shift );
+      }
+    }
+
+    void write( byte[] bytes, int offset, int count ) throws KettleValueException {
+      ensure( count );
+      System.arraycopy( bytes, offset, data, length, count );
+      length += count;
+    }
+  }
+
+  /**
+   * Encodes a value. Natural keys are encoded so that values the value metadata considers equal encode to the same
+   * bytes: big numbers without trailing zeros and case insensitive strings in upper case.
+   */
+  static void writeValue( PackedBytes out, ValueMetaInterface meta, Object value, boolean key )
+    throws KettleValueException {
+    if ( meta.isNull( value ) ) {
+      out.writeByte( 0 );
+      return;
+    }
+    out.writeByte( 1 );
+    switch ( meta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        String string = meta.getString( value );
+        boolean upperCase = key && meta.isCaseInsensitive();
+        out.writeInt( string.length() );
+        out.ensure( 2 * string.length() );
+        for ( int i = 0; i < string.length(); i++ ) {
+          char c = upperCase ? Character.toUpperCase( string.charAt( i ) ) : string.charAt( i );
+          out.data[ out.length++ ] = (byte) ( c >>> 8 );
+          out.data[ out.length++ ] = (byte) c;
+        }
+        break;
+      case ValueMetaInterface.TYPE_INTEGER:
+        out.writeLong( meta.getInteger( value ) );
+        break;
+      case ValueMetaInterface.TYPE_NUMBER:
+        out.writeLong( Double.doubleToLongBits( meta.getNumber( value ) ) );
+        break;
+      case ValueMetaInterface.TYPE_DATE:
+        out.writeLong( meta.getDate( value ).getTime() );
+        break;
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        Date date = meta.getDate( value );
+        out.writeLong( date.getTime() );
+        out.writeInt( date instanceof Timestamp ? ( (Timestamp) date ).getNanos() % 1000000 : 0 );
+        break;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        out.writeByte( meta.getBoolean( value ) ? 1 : 0 );
+        break;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        BigDecimal number = meta.getBigNumber( value );
+        if ( key ) {
+          number = number.signum() == 0 ? BigDecimal.ZERO : number.stripTrailingZeros();
+        }
+        byte[] unscaled = number.unscaledValue().toByteArray();
+        out.writeInt( number.scale() );
+        out.writeInt( unscaled.length );
+        out.write( unscaled, 0, unscaled.length );
+        break;
+      case ValueMetaInterface.TYPE_BINARY:
+        byte[] binary = meta.getBinary( value );
+        out.writeInt( binary.length );
+        out.write( binary, 0, binary.length );
+        break;
+      default:
+        throw new KettleValueException( "Values of type " + meta.getTypeDesc()
+          + " can't be stored in a compact cache" );
+    }
+  }
+
+  static Object readValue( ByteBuffer in, int[] position, ValueMetaInterface meta ) throws KettleValueException {
+    if ( in.get( position[ 0 ]++ ) == 0 ) {
+      return null;
+    }
+    switch ( meta.getType() ) {
+      case ValueMetaInterface.TYPE_STRING:
+        int length = readInt( in, position );
+        char[] chars = new char[ length ];
+        for ( int i = 0; i < length; i++ ) {
+          chars[ i ] = (char) ( ( ( in.get( position[ 0 ] ) & 0xFF ) << 8 ) | ( in.get( position[ 0 ] + 1 ) & 0xFF ) );
+          position[ 0 ] += 2;
+        }
+        return new String( chars );
+      case ValueMetaInterface.TYPE_INTEGER:
+        return readLong( in, position );
+      case ValueMetaInterface.TYPE_NUMBER:
+        return Double.longBitsToDouble( readLong( in, position ) );
+      case ValueMetaInterface.TYPE_DATE:
+        return new Date( readLong( in, position ) );
+      case ValueMetaInterface.TYPE_TIMESTAMP:
+        Timestamp timestamp = new Timestamp( readLong( in, position ) );
+        timestamp.setNanos( timestamp.getNanos() + readInt( in, position ) );
+        return timestamp;
+      case ValueMetaInterface.TYPE_BOOLEAN:
+        return in.get( position[ 0 ]++ ) != 0;
+      case ValueMetaInterface.TYPE_BIGNUMBER:
+        int scale = readInt( in, position );
+        return new BigDecimal( new BigInteger( readBytes( in, position ) ), scale );
+      case ValueMetaInterface.TYPE_BINARY:
+        return readBytes( in, position );
+      default:
+        throw new KettleValueException( "Values of type " + meta.getTypeDesc()
+          + " can't be stored in a compact cache" );
+    }
+  }
+
+  private static int readInt( ByteBuffer in, int[] position ) {
+    int value = 0;
+    for ( int i = 0; i < 4; i++ ) {
+      value = ( value << 8 ) | ( in.get( position[ 0 ]++ ) & 0xFF );
+    }
+    return value;
+  }
+
+  private static long readLong( ByteBuffer in, int[] position ) {
+    long value = 0;
+    for ( int i = 0; i < 8; i++ ) {
+      value = ( value << 8 ) | ( in.get( position[ 0 ]++ ) & 0xFF );
+    }
+    return value;
+  }
+
+  private static byte[] readBytes( ByteBuffer in, int[] position ) {
+    byte[] bytes = new byte[ readInt( in, position ) ];
+    for ( int i = 0; i < bytes.length; i++ ) {
+      bytes[ i ] = in.get( position[ 0 ]++ );
+    }
+    return bytes;
+  }
+}
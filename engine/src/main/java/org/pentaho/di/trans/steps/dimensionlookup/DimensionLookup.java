@@ -13,23 +13,38 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.cache.LookupCache;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleDatabaseException;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
-import org.pentaho.di.core.hash.ByteArrayHashMap;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
@@ -55,6 +70,19 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
   private static final int CREATION_METHOD_SEQUENCE = 2;
   private static final int CREATION_METHOD_TABLEMAX = 3;
 
+  /** The estimated size of a cache entry without the key and value bytes: the entry objects and array headers */
+  private static final int CACHE_ENTRY_OVERHEAD = 128;
+
+  /** The maximum number of parameters in one batch lookup query, most databases limit this to 1000 or 2100 */
+  private static final int MAX_BATCH_LOOKUP_PARAMETERS = 1000;
+
+  // The order in which the statements of a batch are executed: inserts, updates by technical key, the closing of the
+  // previous versions and the punch through updates
+  private static final int BATCH_ORDER_INSERT = 0;
+  private static final int BATCH_ORDER_DIMENSION_UPDATE = 1;
+  private static final int BATCH_ORDER_VERSION_UPDATE = 2;
+  private static final int BATCH_ORDER_PUNCH_THROUGH = 3;
+
   private int techKeyCreation;
 
   private DimensionLookupMeta meta;
@@ -102,6 +130,16 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.batchRows != null && !data.batchRows.isEmpty() ) {
+        try {
+          processBatch();
+        } catch ( KettleException e ) {
+          logError( BaseMessages.getString( PKG, "DimensionLookup.Log.StepCanNotContinueForErrors", e.getMessage() ) );
+          logError( Const.getStackTracker( e ) );
+          setErrors( 1 );
+          stopAll();
+        }
+      }
 
       setOutputDone(); // signal end to receiver(s)
       return false;
@@ -181,8 +219,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
             data.cacheKeyRowMeta.addValueMeta( key.clone() );
           }
 
-          data.cache =
-            new ByteArrayHashMap( meta.getCacheSize() > 0 ? meta.getCacheSize() : 5000, data.cacheKeyRowMeta );
+          data.cache = createCache();
         }
       }
 
@@ -206,6 +243,18 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       }
 
       setDimLookup( data.outputRowMeta );
+
+      if ( isBatching() && isAutoIncrement() && !meta.getDatabaseMeta().supportsAutoGeneratedKeys() ) {
+        // Without the generated keys the rows of a batch can't find the entries inserted before them
+        logBasic( BaseMessages.getString( PKG, "DimensionLookup.Log.BatchWithoutGeneratedKeys" ) );
+        data.batchSize = 0;
+      }
+      if ( isBatching() ) {
+        data.batchRows = new ArrayList<>( data.batchSize );
+        data.batchPendingOrders = new HashMap<>();
+        data.batchPendingCounts = new int[ BATCH_ORDER_PUNCH_THROUGH + 1 ];
+        data.batchStatements = !data.db.isAutoCommit() && data.db.getUseBatchInsert( true );
+      }
     }
 
     // convert row to normal storage...
@@ -216,8 +265,15 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
 
     try {
-      Object[] outputRow = lookupValues( data.inputRowMeta, r ); // add new values to the row in rowset[0].
-      putRow( data.outputRowMeta, outputRow ); // copy row to output rowset(s);
+      if ( isBatching() ) {
+        data.batchRows.add( r );
+        if ( data.batchRows.size() >= data.batchSize ) {
+          processBatch();
+        }
+      } else {
+        Object[] outputRow = lookupValues( data.inputRowMeta, r ); // add new values to the row in rowset[0].
+        putRow( data.outputRowMeta, outputRow ); // copy row to output rowset(s);
+      }
 
       if ( checkFeedback( getLinesRead() ) ) {
         if ( log.isBasic() ) {
@@ -282,6 +338,46 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       sql += " FROM " + data.schemaTable;
       logDetailed( "Pre-loading cache by reading from database with: " + Const.CR + sql + Const.CR );
 
+      // Also see what indexes to take to populate the lookup row...
+      // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
+      //
+      data.preloadIndexes = new ArrayList<Integer>();
+      data.preloadStreamIndexes = new int[ meta.getKeyStream().length ];
+      for ( int i = 0; i < meta.getKeyStream().length; i++ ) {
+        int index = data.inputRowMeta.indexOfValue( meta.getKeyStream()[ i ] );
+        if ( index < 0 ) {
+          // Just to be safe...
+          //
+          throw new KettleStepException( BaseMessages.getString(
+            PKG, "DimensionLookup.Exception.KeyFieldNotFound", meta.getFieldStream()[ i ] ) );
+        }
+        data.preloadIndexes.add( index );
+        data.preloadStreamIndexes[ i ] = index;
+      }
+
+      // Store the dimension in sorted primitive arrays if we can, on the heap or in a shared memory mapped file
+      //
+      final String preloadSql = sql;
+      String cacheFile = environmentSubstitute( meta.getPreloadCacheFile() );
+      if ( Utils.isEmpty( cacheFile ) ) {
+        data.compactCache = loadCompactCache( preloadSql, null );
+      } else {
+        String fileName = new File( cacheFile ).getAbsolutePath();
+        String signature = databaseMeta.getName() + Const.CR + preloadSql;
+        boolean[] loaded = new boolean[ 1 ];
+        data.compactCache = CompactDimensionCache.acquire( fileName, signature, file -> {
+          loaded[ 0 ] = true;
+          return loadCompactCache( preloadSql, new File( file ) );
+        } );
+        if ( data.compactCache != null && !loaded[ 0 ] ) {
+          logBasic( BaseMessages.getString( PKG, "DimensionLookup.Log.PreloadCacheShared", fileName ) );
+        }
+      }
+      if ( data.compactCache != null ) {
+        data.preloadProbe = data.compactCache.newProbe();
+        return;
+      }
+
       List<Object[]> rows = data.db.getRows( sql, -1 );
       RowMetaInterface rowMeta = data.db.getReturnRowMeta();
 
@@ -300,27 +396,58 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       data.preloadCache.sortRows();
       logDetailed( "Sorting of cached rows finished." );
 
-      // Also see what indexes to take to populate the lookup row...
-      // We only ever compare indexes and the lookup date in the cache, the rest is not needed...
-      //
-      data.preloadIndexes = new ArrayList<Integer>();
-      for ( int i = 0; i < meta.getKeyStream().length; i++ ) {
-        int index = data.inputRowMeta.indexOfValue( meta.getKeyStream()[ i ] );
-        if ( index < 0 ) {
-          // Just to be safe...
-          //
-          throw new KettleStepException( BaseMessages.getString(
-            PKG, "DimensionLookup.Exception.KeyFieldNotFound", meta.getFieldStream()[ i ] ) );
-        }
-        data.preloadIndexes.add( index );
-      }
-
       // This is all for now...
     } catch ( Exception e ) {
       throw new KettleException( "Error encountered during cache pre-load", e );
     }
   }
 
+  /**
+   * Reads the dimension table into a compact cache, one row at a time.
+   *
+   * @param sql the pre-load query: technical key, natural keys, retrieval fields, start and end of the date range
+   * @param file the file to map the cache in, null to keep it on the heap
+   * @return the cache or null if the table has columns that can't be stored in a compact cache
+   * @throws KettleException in case there is a database or file problem.
+   */
+  private CompactDimensionCache loadCompactCache( String sql, File file ) throws KettleException {
+    ResultSet resultSet = data.db.openQuery( sql );
+    try {
+      RowMetaInterface rowMeta = data.db.getReturnRowMeta();
+      if ( !CompactDimensionCache.isSupported( rowMeta ) ) {
+        return null;
+      }
+
+      // The columns are in the order of the query
+      //
+      int nrKeys = meta.getKeyLookup().length;
+      int[] keyIndexes = new int[ nrKeys ];
+      for ( int i = 0; i < nrKeys; i++ ) {
+        keyIndexes[ i ] = 1 + i;
+      }
+      int[] fieldIndexes = new int[ meta.getFieldLookup().length ];
+      for ( int i = 0; i < fieldIndexes.length; i++ ) {
+        fieldIndexes[ i ] = 1 + nrKeys + i;
+      }
+      CompactDimensionCache.Builder builder =
+        new CompactDimensionCache.Builder( rowMeta, 0, keyIndexes, fieldIndexes, rowMeta.size() - 2,
+          rowMeta.size() - 1 );
+
+      Object[] row;
+      while ( ( row = data.db.getRow( resultSet ) ) != null ) {
+        builder.addRow( row );
+      }
+
+      logDetailed( "Sorting the cache rows..." );
+      CompactDimensionCache cache = builder.build( file );
+      logDetailed( "Sorting of cached rows finished: " + cache.size() + " versions of " + cache.getKeyCount()
+        + " natural keys." );
+      return cache;
+    } finally {
+      data.db.closeQuery( resultSet );
+    }
+  }
+
   private synchronized Object[] lookupValues( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     Object[] outputRow = new Object[ data.outputRowMeta.size() ];
 
@@ -341,7 +468,18 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     //
     valueDate = determineDimensionUpdatedDate( row );
 
-    if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
+    if ( !meta.isUpdate() && meta.isPreloadingCache() && data.compactCache != null ) {
+      // Obtain a result row from the compact pre-load cache, without building a lookup row
+      //
+      data.returnRowMeta = data.compactCache.getReturnRowMeta();
+      lookupRowMeta = data.compactCache.getKeyRowMeta();
+      lookupRow = null;
+
+      data.preloadProbe.setKey( rowMeta, row, data.preloadStreamIndexes );
+      int index = data.compactCache.lookup( data.preloadProbe, valueDate );
+      returnRow = index < 0 ? null : data.compactCache.getReturnRow( index );
+
+    } else if ( !meta.isUpdate() && meta.isPreloadingCache() ) {
       // Obtain a result row from the pre-load cache...
       //
       // Create a row to compare with
@@ -424,14 +562,17 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       // Do the lookup and see if we can find anything in the database.
       // But before that, let's see if we can find anything in the cache
       //
-      if ( meta.getCacheSize() >= 0 ) {
+      if ( isBatching() ) {
+        // All the versions of the natural keys in the batch were read up front
+        returnRow = getFromBatch( row, valueDate );
+      } else if ( meta.getCacheSize() >= 0 ) {
         returnRow = getFromCache( lookupRow, valueDate );
       }
 
       // Nothing found in the cache?
       // Perform the lookup in the database...
       //
-      if ( returnRow == null ) {
+      if ( returnRow == null && !isBatching() ) {
         data.db.setValues( data.lookupRowMeta, lookupRow, data.prepStatementLookup );
         returnRow = data.db.getLookup( data.prepStatementLookup );
         data.returnRowMeta = data.db.getReturnRowMeta();
@@ -684,7 +825,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
             incrementLinesUpdated();
 
             // We need to capture this change in the cache as well...
-            if ( meta.getCacheSize() >= 0 ) {
+            if ( meta.getCacheSize() >= 0 && !isBatching() ) {
               Object[] values =
                 getCacheValues( rowMeta, row, technicalKey, valueVersion, valueDateFrom, valueDateTo );
               addToCache( lookupRow, values );
@@ -735,7 +876,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
           incrementLinesOutput();
 
           // We need to capture this change in the cache as well...
-          if ( meta.getCacheSize() >= 0 ) {
+          if ( meta.getCacheSize() >= 0 && !isBatching() ) {
             Object[] values =
               getCacheValues( rowMeta, row, technicalKey, valueNewVersion, valueDateFrom, valueDateTo );
             addToCache( lookupRow, values );
@@ -872,9 +1013,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     String dateFromField = databaseMeta.quoteField( meta.getDateFrom() );
     String dateToField = databaseMeta.quoteField( meta.getDateTo() );
 
-    if ( meta.isUsingStartDateAlternative()
-      && ( meta.getStartDateAlternative() == DimensionLookupMeta.START_DATE_ALTERNATIVE_NULL )
-      || ( meta.getStartDateAlternative() == DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE ) ) {
+    if ( isStartDateNullable() ) {
       // Null as a start date is possible...
       //
       sql += " AND ( " + dateFromField + " IS NULL OR " + dateFromField + " <= ? )" + Const.CR;
@@ -907,6 +1046,12 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  private boolean isStartDateNullable() {
+    return meta.isUsingStartDateAlternative()
+      && ( meta.getStartDateAlternative() == DimensionLookupMeta.START_DATE_ALTERNATIVE_NULL )
+      || ( meta.getStartDateAlternative() == DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE );
+  }
+
   protected boolean isAutoIncrement() {
     return techKeyCreation == CREATION_METHOD_AUTOINC;
   }
@@ -1104,30 +1249,32 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     // on if newEntry == true
     insertRow[ insertIndex++ ] = versionNr;
 
+    Date insertDateFrom;
     switch ( data.startDateChoice ) {
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_NONE:
-        insertRow[ insertIndex++ ] = dateFrom;
+        insertDateFrom = dateFrom;
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_SYSDATE:
         // use the time the step execution begins as the date from (passed in as dateFrom).
         // before, the current system time was used. this caused an exclusion of the row in the
         // lookup portion of the step that uses this 'valueDate' and not the current time.
         // the result was multiple inserts for what should have been 1 [PDI-4317]
-        insertRow[ insertIndex++ ] = dateFrom;
+        insertDateFrom = dateFrom;
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_START_OF_TRANS:
-        insertRow[ insertIndex++ ] = getTrans().getStartDate();
+        insertDateFrom = getTrans().getStartDate();
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_NULL:
-        insertRow[ insertIndex++ ] = null;
+        insertDateFrom = null;
         break;
       case DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE:
-        insertRow[ insertIndex++ ] = inputRowMeta.getDate( row, data.startDateFieldIndex );
+        insertDateFrom = inputRowMeta.getDate( row, data.startDateFieldIndex );
         break;
       default:
         throw new KettleStepException( BaseMessages.getString(
           PKG, "DimensionLookup.Exception.IllegalStartDateSelection", Integer.toString( data.startDateChoice ) ) );
     }
+    insertRow[ insertIndex++ ] = insertDateFrom;
 
     insertRow[ insertIndex++ ] = dateTo;
 
@@ -1162,8 +1309,9 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
 
     // INSERT NEW VALUE!
-    data.db.setValues( data.insertRowMeta, insertRow, data.prepStatementInsert );
-    data.db.insertRow( data.prepStatementInsert );
+    // An auto-generated key has to be read back right away, so that insert can't wait in a batch
+    //
+    writeRow( row, BATCH_ORDER_INSERT, data.prepStatementInsert, data.insertRowMeta, insertRow, technicalKey == null );
 
     if ( isDebug() ) {
       logDebug( "Row inserted!" );
@@ -1191,26 +1339,28 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       Object[] updateRow = new Object[ data.updateRowMeta.size() ];
       int updateIndex = 0;
 
+      Date updateDateTo;
       switch ( data.startDateChoice ) {
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_NONE:
-          updateRow[ updateIndex++ ] = dateFrom;
+          updateDateTo = dateFrom;
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_SYSDATE:
-          updateRow[ updateIndex++ ] = new Date();
+          updateDateTo = new Date();
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_START_OF_TRANS:
-          updateRow[ updateIndex++ ] = getTrans().getCurrentDate();
+          updateDateTo = getTrans().getCurrentDate();
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_NULL:
-          updateRow[ updateIndex++ ] = null;
+          updateDateTo = null;
           break;
         case DimensionLookupMeta.START_DATE_ALTERNATIVE_COLUMN_VALUE:
-          updateRow[ updateIndex++ ] = inputRowMeta.getDate( row, data.startDateFieldIndex );
+          updateDateTo = inputRowMeta.getDate( row, data.startDateFieldIndex );
           break;
         default:
           throw new KettleStepException( BaseMessages.getString(
             "DimensionLookup.Exception.IllegalStartDateSelection", Integer.toString( data.startDateChoice ) ) );
       }
+      updateRow[ updateIndex++ ] = updateDateTo;
 
       // The special update fields...
       //
@@ -1244,14 +1394,20 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
 
       // set values for update
       //
-      data.db.setValues( data.updateRowMeta, updateRow, data.prepStatementUpdate );
-      if ( isDebug() ) {
-        logDebug( "Values set for update (" + data.updateRowMeta.size() + ")" );
-      }
-      data.db.insertRow( data.prepStatementUpdate ); // do the actual update
+      writeRow( row, BATCH_ORDER_VERSION_UPDATE, data.prepStatementUpdate, data.updateRowMeta, updateRow, false );
       if ( isDebug() ) {
         logDebug( "Row updated!" );
       }
+      if ( isBatching() ) {
+        Object[] previousVersion = getBatchVersion( row, versionNr - 1, null );
+        if ( previousVersion != null ) {
+          previousVersion[ previousVersion.length - 1 ] = updateDateTo;
+        }
+      }
+    }
+
+    if ( isBatching() && technicalKey != null ) {
+      addBatchVersion( row, technicalKey, versionNr, insertDateFrom, dateTo );
     }
 
     return technicalKey;
@@ -1356,8 +1512,15 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
     dimensionUpdateRow[ updateIndex++ ] = dimkey;
 
-    data.db.setValues( data.dimensionUpdateRowMeta, dimensionUpdateRow, data.prepStatementDimensionUpdate );
-    data.db.insertRow( data.prepStatementDimensionUpdate );
+    writeRow( row, BATCH_ORDER_DIMENSION_UPDATE, data.prepStatementDimensionUpdate, data.dimensionUpdateRowMeta,
+      dimensionUpdateRow, false );
+
+    if ( isBatching() ) {
+      Object[] version = getBatchVersion( row, null, dimkey );
+      if ( version != null ) {
+        setBatchFieldValues( row, version, false );
+      }
+    }
   }
 
   // This updates all versions of a dimension entry.
@@ -1445,9 +1608,17 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     }
 
     // UPDATE VALUES
-    data.db.setValues( data.punchThroughRowMeta, punchThroughRow, data.prepStatementPunchThrough ); // set values for
-    // update
-    data.db.insertRow( data.prepStatementPunchThrough ); // do the actual punch through update
+    writeRow( row, BATCH_ORDER_PUNCH_THROUGH, data.prepStatementPunchThrough, data.punchThroughRowMeta,
+      punchThroughRow, false ); // do the actual punch through update
+
+    if ( isBatching() ) {
+      List<Object[]> versions = data.batchVersions.get( getBatchKeyForWrite( row ) );
+      if ( versions != null ) {
+        for ( Object[] version : versions ) {
+          setBatchFieldValues( row, version, true );
+        }
+      }
+    }
   }
 
   /**
@@ -1507,75 +1678,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
     // store it in the cache if needed.
     byte[] keyPart = RowMeta.extractData( data.cacheKeyRowMeta, keyValues );
     byte[] valuePart = RowMeta.extractData( data.cacheValueRowMeta, returnValues );
-    data.cache.put( keyPart, valuePart );
-
-    // check if the size is not too big...
-    // Allow for a buffer overrun of 20% and then remove those 20% in one go.
-    // Just to keep performance in track.
-    //
-    int tenPercent = meta.getCacheSize() / 10;
-    if ( meta.getCacheSize() > 0 && data.cache.size() > meta.getCacheSize() + tenPercent ) {
-      // Which cache entries do we delete here?
-      // We delete those with the lowest technical key...
-      // Those would arguably be the "oldest" dimension entries.
-      // Oh well... Nothing is going to be perfect here...
-      //
-      // Getting the lowest 20% requires some kind of sorting algorithm and I'm not sure we want to do that.
-      // Sorting is slow and even in the best case situation we need to do 2 passes over the cache entries...
-      //
-      // Perhaps we should get 20% random values and delete everything below the lowest but one TK.
-      //
-      List<byte[]> keys = data.cache.getKeys();
-      int sizeBefore = keys.size();
-      List<Long> samples = new ArrayList<Long>();
-
-      // Take 10 sample technical keys....
-      int stepsize = keys.size() / 5;
-      if ( stepsize < 1 ) {
-        stepsize = 1; // make shure we have no endless loop
-      }
-      for ( int i = 0; i < keys.size(); i += stepsize ) {
-        byte[] key = keys.get( i );
-        byte[] value = data.cache.get( key );
-        if ( value != null ) {
-          Object[] values = RowMeta.getRow( data.cacheValueRowMeta, value );
-          Long tk = data.cacheValueRowMeta.getInteger( values, 0 );
-          samples.add( tk );
-        }
-      }
-      // Sort these 5 elements...
-      Collections.sort( samples );
-
-      // What is the smallest?
-      // Take the second, not the fist in the list, otherwise we would be removing a single entry = not good.
-      if ( samples.size() > 1 ) {
-        data.smallestCacheKey = samples.get( 1 );
-      } else if ( !samples.isEmpty() ) { // except when there is only one sample
-        data.smallestCacheKey = samples.get( 0 );
-      } else {
-        // If no samples found nothing to remove, we're done
-        return;
-      }
-
-      // Remove anything in the cache <= smallest.
-      // This makes it almost single pass...
-      // This algorithm is not 100% correct, but I guess it beats sorting the whole cache all the time.
-      //
-      for ( int i = 0; i < keys.size(); i++ ) {
-        byte[] key = keys.get( i );
-        byte[] value = data.cache.get( key );
-        if ( value != null ) {
-          Object[] values = RowMeta.getRow( data.cacheValueRowMeta, value );
-          long tk = data.cacheValueRowMeta.getInteger( values, 0 ).longValue();
-          if ( tk <= data.smallestCacheKey ) {
-            data.cache.remove( key ); // this one has to go.
-          }
-        }
-      }
-
-      int sizeAfter = data.cache.size();
-      logDetailed( "Reduced the lookup cache from " + sizeBefore + " to " + sizeAfter + " rows." );
-    }
+    data.cache.put( ByteBuffer.wrap( keyPart ), valuePart );
 
     if ( isRowLevel() ) {
       logRowlevel(
@@ -1608,7 +1711,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
       data.cacheValueRowMeta = assembleCacheValueRowMeta();
     }
 
-    byte[] key = RowMeta.extractData( data.cacheKeyRowMeta, keyValues );
+    ByteBuffer key = ByteBuffer.wrap( RowMeta.extractData( data.cacheKeyRowMeta, keyValues ) );
     byte[] value = data.cache.get( key );
     if ( value != null ) {
       Object[] row = RowMeta.getRow( data.cacheValueRowMeta, value );
@@ -1625,10 +1728,420 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
         }
         return row;
       }
+      // another version of the dimension entry, it is looked up in the database
+      data.cache.getStatistics().recordInvalidation();
+    }
+    return null;
+  }
+
+  /**
+   * The cache of the natural keys: the serialized keys map to the serialized values of the cache value row metadata.
+   * The number of rows is limited by the cache size, 0 means cache everything.
+   */
+  private LookupCache<ByteBuffer, byte[]> createCache() {
+    long memoryLimit = Const.toLong( environmentSubstitute( meta.getCacheMemoryLimit() ), 0L );
+    long timeToLive = Const.toLong( environmentSubstitute( meta.getCacheTimeToLive() ), 0L );
+    LookupCache.Builder<ByteBuffer, byte[]> builder = LookupCache.<ByteBuffer, byte[]>builder()
+      .policy( EvictionPolicy.getPolicyByCode( environmentSubstitute( meta.getCacheEvictionPolicy() ) ) )
+      .maximumRows( meta.getCacheSize() )
+      .expireAfterWrite( timeToLive, TimeUnit.SECONDS );
+    if ( memoryLimit > 0 ) {
+      builder.maximumBytes( memoryLimit * 1024 * 1024 )
+        .weigher( ( key, value ) -> CACHE_ENTRY_OVERHEAD + key.capacity() + value.length );
+    }
+    return builder.build();
+  }
+
+  private boolean isBatching() {
+    return data.batchSize > 0;
+  }
+
+  /**
+   * Looks up and writes the rows of the current batch: the versions of all its natural keys are read with a few
+   * set-based queries, the rows are handled against those versions in order and the resulting inserts and updates go to
+   * the database as JDBC batches before the rows are passed on.
+   *
+   * @throws KettleException in case there is a database or conversion problem.
+   */
+  private void processBatch() throws KettleException {
+    List<Object[]> rows = data.batchRows;
+    data.batchRows = new ArrayList<>( data.batchSize );
+
+    lookupBatch( rows );
+
+    List<Object[]> outputRows = new ArrayList<>( rows.size() );
+    for ( Object[] row : rows ) {
+      outputRows.add( lookupValues( data.inputRowMeta, row ) );
+    }
+    flushBatch();
+    data.batchVersions = null;
+
+    for ( Object[] outputRow : outputRows ) {
+      putRow( data.outputRowMeta, outputRow ); // copy row to output rowset(s);
+    }
+  }
+
+  /**
+   * Reads all the versions of the natural keys in the given rows from the dimension table.
+   */
+  private void lookupBatch( List<Object[]> rows ) throws KettleException {
+    data.batchVersions = new HashMap<>();
+
+    // The distinct natural keys, a key with a null value never matches a row in the dimension
+    //
+    Map<ByteBuffer, Object[]> keys = new LinkedHashMap<>();
+    for ( Object[] row : rows ) {
+      Object[] keyValues = new Object[ data.keynrs.length ];
+      boolean hasNull = false;
+      for ( int i = 0; i < data.keynrs.length; i++ ) {
+        keyValues[ i ] = row[ data.keynrs[ i ] ];
+        hasNull |= keyValues[ i ] == null;
+      }
+      if ( !hasNull ) {
+        keys.putIfAbsent( ByteBuffer.wrap( RowMeta.extractData( data.cacheKeyRowMeta, keyValues ) ), keyValues );
+      }
+    }
+
+    int keysPerQuery = Math.max( 1, MAX_BATCH_LOOKUP_PARAMETERS / data.keynrs.length );
+    List<Object[]> queryKeys = new ArrayList<>( Math.min( keysPerQuery, keys.size() ) );
+    for ( Object[] keyValues : keys.values() ) {
+      queryKeys.add( keyValues );
+      if ( queryKeys.size() == keysPerQuery ) {
+        lookupBatchKeys( queryKeys );
+        queryKeys.clear();
+      }
+    }
+    if ( !queryKeys.isEmpty() || data.returnRowMeta == null ) {
+      lookupBatchKeys( queryKeys );
+    }
+
+    for ( List<Object[]> versions : data.batchVersions.values() ) {
+      versions.sort( Comparator.comparingLong( version -> version[ 1 ] == null ? 0L : (Long) version[ 1 ] ) );
+    }
+  }
+
+  /**
+   * SELECT tk, version, ... , datefrom, dateto, key1, key2 FROM table WHERE ( key1 = ? AND key2 = ? ) OR ( ... )
+   */
+  private void lookupBatchKeys( List<Object[]> keys ) throws KettleException {
+    DatabaseMeta databaseMeta = meta.getDatabaseMeta();
+
+    if ( data.batchLookupSql == null ) {
+      StringBuilder sql = new StringBuilder( "SELECT " );
+      sql.append( databaseMeta.quoteField( meta.getKeyField() ) ).append( ", " );
+      sql.append( databaseMeta.quoteField( meta.getVersionField() ) );
+      for ( int i = 0; i < meta.getFieldLookup().length; i++ ) {
+        // Don't retrieve the fields without input
+        if ( !Utils.isEmpty( meta.getFieldLookup()[ i ] )
+          && !DimensionLookupMeta.isUpdateTypeWithoutArgument( meta.isUpdate(), meta.getFieldUpdate()[ i ] ) ) {
+          sql.append( ", " ).append( databaseMeta.quoteField( meta.getFieldLookup()[ i ] ) );
+          if ( !Utils.isEmpty( meta.getFieldStream()[ i ] )
+            && !meta.getFieldLookup()[ i ].equals( meta.getFieldStream()[ i ] ) ) {
+            sql.append( " AS " ).append( databaseMeta.quoteField( meta.getFieldStream()[ i ] ) );
+          }
+        }
+      }
+      sql.append( ", " ).append( databaseMeta.quoteField( meta.getDateFrom() ) );
+      sql.append( ", " ).append( databaseMeta.quoteField( meta.getDateTo() ) );
+      for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+        sql.append( ", " ).append( databaseMeta.quoteField( meta.getKeyLookup()[ i ] ) );
+      }
+      sql.append( " FROM " ).append( data.schemaTable ).append( " WHERE " );
+      data.batchLookupSql = sql.toString();
+    }
+
+    StringBuilder sql = new StringBuilder( data.batchLookupSql );
+    RowMetaInterface parameterRowMeta = new RowMeta();
+    Object[] parameters = new Object[ keys.size() * data.keynrs.length ];
+    if ( keys.isEmpty() ) {
+      sql.append( "1 = 0" );
+    } else if ( data.keynrs.length == 1 ) {
+      sql.append( databaseMeta.quoteField( meta.getKeyLookup()[ 0 ] ) ).append( " IN (" );
+      for ( int k = 0; k < keys.size(); k++ ) {
+        sql.append( k == 0 ? " ?" : ", ?" );
+      }
+      sql.append( " )" );
+    } else {
+      for ( int k = 0; k < keys.size(); k++ ) {
+        sql.append( k == 0 ? "( " : " OR ( " );
+        for ( int i = 0; i < meta.getKeyLookup().length; i++ ) {
+          if ( i > 0 ) {
+            sql.append( " AND " );
+          }
+          sql.append( databaseMeta.quoteField( meta.getKeyLookup()[ i ] ) ).append( " = ?" );
+        }
+        sql.append( " )" );
+      }
+    }
+    int parameterIndex = 0;
+    for ( Object[] keyValues : keys ) {
+      for ( int i = 0; i < data.keynrs.length; i++ ) {
+        parameterRowMeta.addValueMeta( data.cacheKeyRowMeta.getValueMeta( i ).clone() );
+        parameters[ parameterIndex++ ] = keyValues[ i ];
+      }
+    }
+
+    if ( isDebug() ) {
+      logDebug( "Looking up " + keys.size() + " natural keys with [" + sql + "]" );
+    }
+    List<Object[]> rows =
+      data.db.getRows( databaseMeta.stripCR( sql.toString() ), parameterRowMeta, parameters, ResultSet.FETCH_FORWARD,
+        false, 0, null );
+    RowMetaInterface rowMeta = data.db.getReturnRowMeta();
+    setLinesInput( getLinesInput() + keys.size() );
+
+    int nrValues = rowMeta.size() - data.keynrs.length;
+    if ( data.returnRowMeta == null ) {
+      // The technical key and version are always kept as an Integer, the rest comes from the dimension as is
+      //
+      RowMetaInterface returnRowMeta = new RowMeta();
+      returnRowMeta.addValueMeta( new ValueMetaInteger( meta.getKeyField() ) );
+      returnRowMeta.addValueMeta( new ValueMetaInteger( meta.getVersionField() ) );
+      for ( int i = 2; i < nrValues; i++ ) {
+        returnRowMeta.addValueMeta( rowMeta.getValueMeta( i ).clone() );
+      }
+      data.returnRowMeta = returnRowMeta;
+
+      // The natural keys of the batch are compared the way the dimension returns them
+      //
+      data.batchKeyRowMeta = new RowMeta();
+      for ( int i = 0; i < data.keynrs.length; i++ ) {
+        data.batchKeyRowMeta.addValueMeta( rowMeta.getValueMeta( nrValues + i ).clone() );
+      }
+
+      // The stream field for each of the returned fields, to keep the versions up to date
+      //
+      data.batchFieldIndexes = new int[ nrValues ];
+      Arrays.fill( data.batchFieldIndexes, -1 );
+      for ( int j = 2; meta.isUpdate() && j < nrValues - 2; j++ ) {
+        String name = returnRowMeta.getValueMeta( j ).getName();
+        for ( int i = 0; i < meta.getFieldStream().length; i++ ) {
+          if ( data.fieldnrs[ i ] >= 0 && name != null && name.equalsIgnoreCase( meta.getFieldStream()[ i ] ) ) {
+            data.batchFieldIndexes[ j ] = i;
+            break;
+          }
+        }
+      }
+    }
+
+    List<ByteBuffer> queryKeys = new ArrayList<>( keys.size() );
+    for ( Object[] keyValues : keys ) {
+      queryKeys.add( toBatchKey( keyValues ) );
+    }
+
+    Set<ByteBuffer> queryKeySet = new HashSet<>( queryKeys );
+    boolean unmatched = false;
+    for ( Object[] row : rows ) {
+      Object[] version = Arrays.copyOf( row, nrValues );
+      version[ 0 ] = rowMeta.getInteger( row, 0 );
+      version[ 1 ] = rowMeta.getInteger( row, 1 );
+
+      ByteBuffer key;
+      if ( keys.size() == 1 ) {
+        key = queryKeys.get( 0 );
+      } else {
+        Object[] keyValues = new Object[ data.keynrs.length ];
+        for ( int i = 0; i < keyValues.length; i++ ) {
+          keyValues[ i ] = row[ nrValues + i ];
+        }
+        key = ByteBuffer.wrap( RowMeta.extractData( data.batchKeyRowMeta, keyValues ) );
+        if ( !queryKeySet.contains( key ) ) {
+          // The database matched a key that isn't exactly the same, think of padding or a case insensitive collation
+          unmatched = true;
+          continue;
+        }
+      }
+      data.batchVersions.computeIfAbsent( key, k -> new ArrayList<>() ).add( version );
+    }
+
+    // Let the database decide which entries belong to the keys that weren't matched exactly, one key at a time
+    //
+    if ( unmatched ) {
+      for ( int k = 0; k < keys.size(); k++ ) {
+        if ( !data.batchVersions.containsKey( queryKeys.get( k ) ) ) {
+          lookupBatchKeys( Collections.singletonList( keys.get( k ) ) );
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the serialized natural key in the way the dimension returns it, null if the key holds a null value.
+   */
+  private ByteBuffer toBatchKey( Object[] streamKeyValues ) throws KettleValueException {
+    Object[] keyValues = new Object[ streamKeyValues.length ];
+    for ( int i = 0; i < keyValues.length; i++ ) {
+      if ( streamKeyValues[ i ] == null ) {
+        return null;
+      }
+      keyValues[ i ] = data.batchKeyRowMeta.getValueMeta( i )
+        .convertData( data.cacheKeyRowMeta.getValueMeta( i ), streamKeyValues[ i ] );
+    }
+    return ByteBuffer.wrap( RowMeta.extractData( data.batchKeyRowMeta, keyValues ) );
+  }
+
+  private ByteBuffer getBatchKey( Object[] row ) throws KettleValueException {
+    Object[] keyValues = new Object[ data.keynrs.length ];
+    for ( int i = 0; i < data.keynrs.length; i++ ) {
+      keyValues[ i ] = row[ data.keynrs[ i ] ];
+    }
+    return toBatchKey( keyValues );
+  }
+
+  /**
+   * @return the version of the natural key of the row that is valid on the given date, null if there is none.
+   */
+  private Object[] getFromBatch( Object[] row, Date dateValue ) throws KettleValueException {
+    List<Object[]> versions = data.batchVersions.get( getBatchKey( row ) );
+    if ( versions == null ) {
+      return null;
+    }
+
+    // The same conditions as the lookup query
+    //
+    long time = dateValue.getTime();
+    boolean startDateNullable = isStartDateNullable();
+    for ( Object[] version : versions ) {
+      Date from = (Date) version[ version.length - 2 ];
+      Date to = (Date) version[ version.length - 1 ];
+      if ( ( from == null ? startDateNullable : from.getTime() <= time ) && to != null && time < to.getTime() ) {
+        return version;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the version of the natural key of the row with the given version number or technical key.
+   */
+  private Object[] getBatchVersion( Object[] row, Long versionNr, Long technicalKey ) throws KettleDatabaseException {
+    List<Object[]> versions = data.batchVersions.get( getBatchKeyForWrite( row ) );
+    if ( versions != null ) {
+      for ( Object[] version : versions ) {
+        if ( versionNr != null ? versionNr.equals( version[ 1 ] ) : technicalKey.equals( version[ 0 ] ) ) {
+          return version;
+        }
+      }
     }
     return null;
   }
 
+  /**
+   * Remembers a version inserted in this batch, so that the next rows of the batch with the same natural key find it.
+   */
+  private void addBatchVersion( Object[] row, Long technicalKey, Long versionNr, Date dateFrom, Date dateTo )
+    throws KettleDatabaseException {
+    ByteBuffer key = getBatchKeyForWrite( row );
+    if ( key == null ) {
+      return; // never found by a lookup
+    }
+    Object[] version = new Object[ data.returnRowMeta.size() ];
+    version[ 0 ] = technicalKey;
+    version[ 1 ] = versionNr;
+    setBatchFieldValues( row, version, false );
+    version[ version.length - 2 ] = dateFrom;
+    version[ version.length - 1 ] = dateTo;
+    data.batchVersions.computeIfAbsent( key, k -> new ArrayList<>() ).add( version );
+  }
+
+  /**
+   * Copies the field values of the row to a version of the batch, only the punch through fields if asked.
+   */
+  private void setBatchFieldValues( Object[] row, Object[] version, boolean punchThroughOnly )
+    throws KettleDatabaseException {
+    try {
+      for ( int j = 2; j < version.length - 2; j++ ) {
+        int i = data.batchFieldIndexes[ j ];
+        if ( i >= 0
+          && ( !punchThroughOnly || meta.getFieldUpdate()[ i ] == DimensionLookupMeta.TYPE_UPDATE_DIM_PUNCHTHROUGH ) ) {
+          ValueMetaInterface valueMeta = data.outputRowMeta.getValueMeta( data.fieldnrs[ i ] );
+          version[ j ] = data.returnRowMeta.getValueMeta( j ).convertData( valueMeta, row[ data.fieldnrs[ i ] ] );
+        }
+      }
+    } catch ( KettleValueException e ) {
+      throw new KettleDatabaseException( "Unable to keep the dimension entry of the batch up to date", e );
+    }
+  }
+
+  private ByteBuffer getBatchKeyForWrite( Object[] row ) throws KettleDatabaseException {
+    try {
+      return getBatchKey( row );
+    } catch ( KettleValueException e ) {
+      throw new KettleDatabaseException( "Unable to convert the natural key of row " + Arrays.toString( row ), e );
+    }
+  }
+
+  /**
+   * Executes an insert or update, or adds it to the batch of its statement. A statement that runs later in the batch
+   * than one already waiting for the same natural key first sends the waiting statements to the database, so that the
+   * changes to a dimension entry always happen in the order of the rows.
+   */
+  private void writeRow( Object[] row, int order, PreparedStatement statement, RowMetaInterface rowMeta,
+                         Object[] values, boolean immediately ) throws KettleDatabaseException {
+    if ( !isBatching() ) {
+      data.db.setValues( rowMeta, values, statement );
+      data.db.insertRow( statement );
+      return;
+    }
+
+    // A new version doesn't touch the existing ones, it only has to wait for their punch through updates
+    //
+    ByteBuffer key = getBatchKeyForWrite( row );
+    Integer pendingOrder = key == null ? null : data.batchPendingOrders.get( key );
+    int conflictingOrder = order == BATCH_ORDER_INSERT ? BATCH_ORDER_PUNCH_THROUGH : order + 1;
+    if ( pendingOrder != null && pendingOrder >= conflictingOrder ) {
+      flushBatch();
+    }
+
+    data.db.setValues( rowMeta, values, statement );
+    if ( immediately ) {
+      data.db.insertRow( statement, false, false );
+      data.batchWritten++;
+    } else {
+      data.db.insertRow( statement, data.batchStatements, false );
+      data.batchPendingCounts[ order ]++;
+      if ( key != null ) {
+        data.batchPendingOrders.merge( key, order, Integer::max );
+      }
+    }
+  }
+
+  /**
+   * Sends the waiting inserts and updates to the database and commits every commit size rows.
+   */
+  private void flushBatch() throws KettleDatabaseException {
+    PreparedStatement[] statements = {
+      data.prepStatementInsert, data.prepStatementDimensionUpdate, data.prepStatementUpdate,
+      data.prepStatementPunchThrough };
+    for ( int order = 0; order < statements.length; order++ ) {
+      if ( data.batchPendingCounts[ order ] > 0 ) {
+        if ( data.batchStatements ) {
+          try {
+            statements[ order ].executeBatch();
+            statements[ order ].clearBatch();
+          } catch ( BatchUpdateException e ) {
+            throw Database.createKettleDatabaseBatchException( "Error updating batch", e );
+          } catch ( SQLException e ) {
+            throw new KettleDatabaseException( "Error updating batch", e );
+          }
+        }
+        data.batchWritten += data.batchPendingCounts[ order ];
+        data.batchPendingCounts[ order ] = 0;
+      }
+    }
+    data.batchPendingOrders.clear();
+
+    if ( !data.db.isAutoCommit() && data.batchWritten > 0 && data.batchWritten >= meta.getCommitSize() ) {
+      data.db.commit();
+      data.batchWritten = 0;
+    }
+  }
+
+  @Override
+  public LookupCacheStatistics getCacheStatistics() {
+    return data == null || data.cache == null ? null : data.cache.getStatistics();
+  }
+
   public void checkDimZero() throws KettleException {
     // Don't insert anything when running in lookup mode.
     //
@@ -1698,6 +2211,7 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
         data.startDateChoice = meta.getStartDateAlternative();
       }
       data.db.setCommitSize( meta.getCommitSize() );
+      data.batchSize = meta.isUpdate() || !meta.isPreloadingCache() ? Math.max( 0, meta.getBatchSize() ) : 0;
 
       return true;
     }
@@ -1726,6 +2240,10 @@ public class DimensionLookup extends BaseDatabaseStep implements StepInterface {
         logError( BaseMessages.getString( PKG, "DimensionLookup.Log.ErrorOccurredInProcessing" ) + e.getMessage() );
       }
     }
+    if ( data.compactCache != null ) {
+      data.compactCache.release();
+      data.compactCache = null;
+    }
     super.dispose( smi, sdi );
   }
 }
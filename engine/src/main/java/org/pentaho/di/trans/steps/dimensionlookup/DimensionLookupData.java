@@ -13,12 +13,14 @@
 
 package org.pentaho.di.trans.steps.dimensionlookup;
 
+import java.nio.ByteBuffer;
 import java.sql.PreparedStatement;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
+import org.pentaho.di.core.cache.LookupCache;
 import org.pentaho.di.core.database.Database;
-import org.pentaho.di.core.hash.ByteArrayHashMap;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseDatabaseStepData;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -39,9 +41,8 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
   public int[] fieldnrs; // nrs in row of the fields
   public int datefieldnr; // Nr of datefield field in row
 
-  public ByteArrayHashMap cache;
-
-  public long smallestCacheKey;
+  /** The serialized natural keys mapped to the serialized cache values */
+  public LookupCache<ByteBuffer, byte[]> cache;
 
   public Long notFoundTk;
 
@@ -82,8 +83,47 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
 
   public List<Integer> preloadIndexes;
 
+  /** The indexes of the natural key in the input rows, for the compact pre-load cache */
+  public int[] preloadStreamIndexes;
+
+  /** The pre-loaded cache in sorted primitive arrays, null if the rows are kept in preloadCache instead */
+  public CompactDimensionCache compactCache;
+
+  /** Holds the natural key to look up in the compact cache */
+  public CompactDimensionCache.Probe preloadProbe;
+
   public List<Integer> lazyList;
 
+  /** The number of rows to look up and write together, 0 to handle the rows one at a time */
+  public int batchSize;
+
+  /** The rows of the batch that is being collected */
+  public List<Object[]> batchRows;
+
+  /** The serialized natural keys of the batch mapped to all their versions, as return rows */
+  public Map<ByteBuffer, List<Object[]>> batchVersions;
+
+  /** The natural keys as the dimension returns them */
+  public RowMetaInterface batchKeyRowMeta;
+
+  /** The index in the stream fields for each field of the return row, -1 if there is none */
+  public int[] batchFieldIndexes;
+
+  /** The select and from clause of the batch lookup query */
+  public String batchLookupSql;
+
+  /** The natural keys with waiting statements mapped to the latest order of those statements */
+  public Map<ByteBuffer, Integer> batchPendingOrders;
+
+  /** The number of waiting statements per order */
+  public int[] batchPendingCounts;
+
+  /** True if the statements of a batch are sent to the database as JDBC batches */
+  public boolean batchStatements;
+
+  /** The number of rows written since the last commit */
+  public int batchWritten;
+
   /**
    * The input row metadata, but converted to normal storage type
    */
@@ -94,7 +134,6 @@ public class DimensionLookupData extends BaseDatabaseStepData implements StepDat
 
     db = null;
     valueDateNow = null;
-    smallestCacheKey = -1;
     realTableName = null;
     realSchemaName = null;
   }
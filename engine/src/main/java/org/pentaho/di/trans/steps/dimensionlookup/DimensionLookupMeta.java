@@ -20,6 +20,7 @@ import java.util.Date;
 import java.util.List;
 
 import org.pentaho.di.core.bowl.Bowl;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
 import org.pentaho.di.core.CheckResult;
 import org.pentaho.di.core.CheckResultInterface;
 import org.pentaho.di.core.Const;
@@ -191,6 +192,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
   /** Flag to indicate the use of batch updates, default disabled for backward compatibility */
   private boolean useBatchUpdate;
 
+  /** The number of rows to look up and write together, 0 to handle the rows one at a time */
+  @Injection( name = "BATCH_SIZE" )
+  private int batchSize;
+
   /** The year to use as minus infinity in the dimensions date range */
   @Injection( name = "MIN_YEAR" )
   private int minYear;
@@ -211,6 +216,18 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
   @Injection( name = "CACHE_SIZE" )
   private int cacheSize;
 
+  /** The code of the eviction policy of the cache: lru or w-tinylfu */
+  @Injection( name = "CACHE_EVICTION_POLICY" )
+  private String cacheEvictionPolicy;
+
+  /** Limit the estimated size of the cache to this number of MB, empty for no limit */
+  @Injection( name = "CACHE_MEMORY_LIMIT" )
+  private String cacheMemoryLimit;
+
+  /** The number of seconds a row stays in the cache, empty to keep rows until they are evicted */
+  @Injection( name = "CACHE_TIME_TO_LIVE" )
+  private String cacheTimeToLive;
+
   /** Flag to indicate we're going to use an alternative start date */
   @Injection( name = "USE_ALTERNATIVE_START_DATE" )
   private boolean usingStartDateAlternative;
@@ -226,6 +243,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
   @Injection( name = "PRELOAD_CACHE" )
   private boolean preloadingCache;
 
+  /** The file to memory map the pre-loaded cache in, shared by the steps reading the same dimension */
+  @Injection( name = "PRELOAD_CACHE_FILE" )
+  private String preloadCacheFile;
+
   public DimensionLookupMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -695,6 +716,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     tableName = BaseMessages.getString( PKG, "DimensionLookupMeta.DefualtTableName" );
     databaseMeta = null;
     commitSize = 100;
+    batchSize = 0;
     update = true;
 
     nrkeys = 0;
@@ -729,7 +751,11 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     versionField = "version";
 
     cacheSize = 5000;
+    cacheEvictionPolicy = EvictionPolicy.LRU.getCode();
+    cacheMemoryLimit = null;
+    cacheTimeToLive = null;
     preloadingCache = false;
+    preloadCacheFile = null;
   }
 
   @Override
@@ -869,6 +895,10 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "cache_size", cacheSize ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache", preloadingCache ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "preload_cache_file", preloadCacheFile ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "cache_eviction_policy", cacheEvictionPolicy ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "cache_memory_limit", cacheMemoryLimit ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "cache_time_to_live", cacheTimeToLive ) );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "use_start_date_alternative",
         usingStartDateAlternative ) );
@@ -876,6 +906,7 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
         startDateAlternative ) ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "start_date_field_name", startDateFieldName ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "useBatch", useBatchUpdate ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "batch_size", batchSize ) );
 
     return retval.toString();
   }
@@ -948,7 +979,12 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = Const.toInt( XMLHandler.getTagValue( stepnode, "cache_size" ), -1 );
       preloadingCache = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preload_cache" ) );
+      preloadCacheFile = XMLHandler.getTagValue( stepnode, "preload_cache_file" );
+      cacheEvictionPolicy = XMLHandler.getTagValue( stepnode, "cache_eviction_policy" );
+      cacheMemoryLimit = XMLHandler.getTagValue( stepnode, "cache_memory_limit" );
+      cacheTimeToLive = XMLHandler.getTagValue( stepnode, "cache_time_to_live" );
       useBatchUpdate = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "useBatch" ) );
+      batchSize = Const.toInt( XMLHandler.getTagValue( stepnode, "batch_size" ), 0 );
 
       usingStartDateAlternative =
           "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "use_start_date_alternative" ) );
@@ -1008,7 +1044,12 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       cacheSize = (int) rep.getStepAttributeInteger( id_step, "cache_size" );
       preloadingCache = rep.getStepAttributeBoolean( id_step, "preload_cache" );
+      preloadCacheFile = rep.getStepAttributeString( id_step, "preload_cache_file" );
+      cacheEvictionPolicy = rep.getStepAttributeString( id_step, "cache_eviction_policy" );
+      cacheMemoryLimit = rep.getStepAttributeString( id_step, "cache_memory_limit" );
+      cacheTimeToLive = rep.getStepAttributeString( id_step, "cache_time_to_live" );
       useBatchUpdate = rep.getStepAttributeBoolean( id_step, "useBatch" );
+      batchSize = (int) rep.getStepAttributeInteger( id_step, "batch_size" );
 
       usingStartDateAlternative = rep.getStepAttributeBoolean( id_step, "use_start_date_alternative" );
       startDateAlternative = getStartDateAlternative( rep.getStepAttributeString( id_step, "start_date_alternative" ) );
@@ -1063,7 +1104,12 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
 
       rep.saveStepAttribute( id_transformation, id_step, "cache_size", cacheSize );
       rep.saveStepAttribute( id_transformation, id_step, "preload_cache", preloadingCache );
+      rep.saveStepAttribute( id_transformation, id_step, "preload_cache_file", preloadCacheFile );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_eviction_policy", cacheEvictionPolicy );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_memory_limit", cacheMemoryLimit );
+      rep.saveStepAttribute( id_transformation, id_step, "cache_time_to_live", cacheTimeToLive );
       rep.saveStepAttribute( id_transformation, id_step, "useBatch", useBatchUpdate );
+      rep.saveStepAttribute( id_transformation, id_step, "batch_size", batchSize );
 
       rep.saveStepAttribute( id_transformation, id_step, "use_start_date_alternative", usingStartDateAlternative );
       rep.saveStepAttribute( id_transformation, id_step, "start_date_alternative", getStartDateAlternativeCode(
@@ -1822,6 +1868,51 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     this.cacheSize = cacheSize;
   }
 
+  /**
+   * @return the code of the eviction policy of the cache: lru or w-tinylfu
+   */
+  public String getCacheEvictionPolicy() {
+    return cacheEvictionPolicy;
+  }
+
+  /**
+   * @param cacheEvictionPolicy
+   *          the code of the eviction policy of the cache: lru or w-tinylfu
+   */
+  public void setCacheEvictionPolicy( String cacheEvictionPolicy ) {
+    this.cacheEvictionPolicy = cacheEvictionPolicy;
+  }
+
+  /**
+   * @return the maximum estimated size of the cache in MB, empty for no limit
+   */
+  public String getCacheMemoryLimit() {
+    return cacheMemoryLimit;
+  }
+
+  /**
+   * @param cacheMemoryLimit
+   *          the maximum estimated size of the cache in MB, empty for no limit
+   */
+  public void setCacheMemoryLimit( String cacheMemoryLimit ) {
+    this.cacheMemoryLimit = cacheMemoryLimit;
+  }
+
+  /**
+   * @return the number of seconds a row stays in the cache, empty to keep rows until they are evicted
+   */
+  public String getCacheTimeToLive() {
+    return cacheTimeToLive;
+  }
+
+  /**
+   * @param cacheTimeToLive
+   *          the number of seconds a row stays in the cache, empty to keep rows until they are evicted
+   */
+  public void setCacheTimeToLive( String cacheTimeToLive ) {
+    this.cacheTimeToLive = cacheTimeToLive;
+  }
+
   /**
    * @return the usingStartDateAlternative
    */
@@ -1882,6 +1973,21 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     this.preloadingCache = preloadingCache;
   }
 
+  /**
+   * @return the file to memory map the pre-loaded cache in, empty to keep it on the heap
+   */
+  public String getPreloadCacheFile() {
+    return preloadCacheFile;
+  }
+
+  /**
+   * @param preloadCacheFile
+   *          the file to memory map the pre-loaded cache in, empty to keep it on the heap
+   */
+  public void setPreloadCacheFile( String preloadCacheFile ) {
+    this.preloadCacheFile = preloadCacheFile;
+  }
+
   /**
    * @return the useBatchUpdate
    */
@@ -1897,6 +2003,21 @@ public class DimensionLookupMeta extends BaseDatabaseStepMeta implements StepMet
     this.useBatchUpdate = useBatchUpdate;
   }
 
+  /**
+   * @return the number of rows to look up and write together, 0 to handle the rows one at a time
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @param batchSize
+   *          the number of rows to look up and write together, 0 to handle the rows one at a time
+   */
+  public void setBatchSize( int batchSize ) {
+    this.batchSize = batchSize;
+  }
+
   protected RowMetaInterface getDatabaseTableFields( Database db, String schemaName, String tableName )
     throws KettleDatabaseException {
     // First try without connecting to the database... (can be S L O W)
@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.fileinput.text;
 
+import java.io.BufferedInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.ArrayList;
@@ -22,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -42,6 +44,8 @@ import org.pentaho.di.core.logging.LogChannelInterface;
 import org.pentaho.di.core.playlist.FilePlayListAll;
 import org.pentaho.di.core.playlist.FilePlayListReplay;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaBase;
+import org.pentaho.di.core.util.EnvUtil;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -107,9 +111,184 @@ public class TextFileInput extends BaseFileInputStep<TextFileInputMeta, TextFile
       return false;
     }
 
+    data.parallel = false;
+    data.splitter = null;
+    if ( meta.content.runningInParallel ) {
+      data.stepNumber = getUniqueStepNrAcrossSlaves();
+      data.totalNumberOfSteps = getUniqueStepCountAcrossSlaves();
+      if ( data.totalNumberOfSteps > 1 ) {
+        initParallelReading();
+      }
+    }
+
     return true;
   }
 
+  private void initParallelReading() {
+    String restriction = getParallelRestriction();
+    if ( restriction != null ) {
+      logBasic( BaseMessages.getString( PKG, "TextFileInput.Log.ParallelDisabled", restriction ) );
+      return;
+    }
+    data.parallel = true;
+
+    restriction = getSplitRestriction();
+    if ( restriction != null ) {
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TextFileInput.Log.SplittingDisabled", restriction ) );
+      }
+      return;
+    }
+    // The reader doesn't join lines on enclosures in lenient mode, so neither may the splitter
+    boolean lenientEnclosureHandling = ValueMetaBase.convertStringToBoolean( Const.NVL( EnvUtil.getSystemProperty(
+      Const.KETTLE_COMPATIBILITY_TEXT_FILE_INPUT_USE_LENIENT_ENCLOSURE_HANDLING ), "N" ) );
+    data.splitter =
+      new TextFileInputSplitter( data.fileFormatType, lenientEnclosureHandling ? null : meta.getEnclosure(),
+        meta.getEscapeCharacter(), meta.content.header ? meta.content.nrHeaderLines : 0 );
+  }
+
+  /**
+   * @return the reason why the step copies can't share the files, null if they can
+   */
+  String getParallelRestriction() {
+    if ( meta.inputFiles.acceptingFilenames ) {
+      return BaseMessages.getString( PKG, "TextFileInput.ParallelRestriction.AcceptingFilenames" );
+    }
+    if ( meta.content.rowLimit > 0 ) {
+      return BaseMessages.getString( PKG, "TextFileInput.ParallelRestriction.RowLimit" );
+    }
+    return null;
+  }
+
+  /**
+   * @return the reason why a file can't be cut into ranges for the step copies, null if it can
+   */
+  String getSplitRestriction() {
+    if ( !"None".equalsIgnoreCase( Const.NVL( meta.content.fileCompression, "None" ) ) ) {
+      return BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.Compressed" );
+    }
+    if ( meta.content.layoutPaged || meta.content.lineWrapped || meta.content.footer ) {
+      return BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.Layout" );
+    }
+    if ( meta.content.includeRowNumber && meta.content.rowNumberByFile ) {
+      return BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.RowNumberByFile" );
+    }
+    for ( TextFileFilter filter : meta.getFilter() ) {
+      if ( filter.isFilterLastLine() ) {
+        return BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.StopFilter" );
+      }
+    }
+    if ( !TextFileInputSplitter.isSplittable( meta.getEncoding(), meta.getEnclosure(), meta.getEscapeCharacter() ) ) {
+      return BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.Encoding" );
+    }
+    return null;
+  }
+
+  /**
+   * When reading in parallel, skips the files (or the parts of files) read by the other step copies.
+   */
+  @Override
+  protected boolean openNextFile() {
+    data.fileRange = null;
+    if ( data.parallel ) {
+      while ( data.currentFileIndex < data.files.nrOfFiles() && !assignFileRange() ) {
+        data.currentFileIndex++;
+      }
+    }
+    return super.openNextFile();
+  }
+
+  /**
+   * Decides which part of the file at the current index is read by this step copy. A file that can't be split is
+   * read as a whole by one copy, picked round robin by file index.
+   *
+   * @return true if this copy reads (a part of) the file
+   */
+  boolean assignFileRange() {
+    FileObject file = data.files.getFile( data.currentFileIndex );
+    String restriction = null;
+    if ( data.splitter != null ) {
+      try {
+        long size = file.getContent().getSize();
+        if ( size < TextFileInputSplitter.MIN_RANGE_SIZE * data.totalNumberOfSteps ) {
+          restriction = BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.TooSmall" );
+        } else {
+          data.fileRange = findFileRange( file, size );
+          if ( data.fileRange == null ) {
+            restriction = BaseMessages.getString( PKG, "TextFileInput.SplitRestriction.ByteOrderMark" );
+          }
+        }
+      } catch ( Exception e ) {
+        // let the copy that owns the file as a whole report the problem when opening it
+        restriction = e.toString();
+      }
+      if ( data.fileRange != null ) {
+        if ( log.isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "TextFileInput.Log.FileRange", String.valueOf(
+            data.fileRange[0] ), String.valueOf( data.fileRange[1] ), file.getName().getFriendlyURI() ) );
+        }
+        return data.fileRange[0] < data.fileRange[1];
+      }
+    }
+
+    int owner = data.currentFileIndex % data.totalNumberOfSteps;
+    if ( restriction != null && owner == data.stepNumber && log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "TextFileInput.Log.FileNotSplit", file.getName().getFriendlyURI(),
+        restriction ) );
+    }
+    return owner == data.stepNumber;
+  }
+
+  /**
+   * @return the range of the file read by this copy, null if the file has a byte order mark
+   */
+  private long[] findFileRange( FileObject file, long size ) throws Exception {
+    if ( !data.splitter.isScanningFromStart() ) {
+      try ( BufferedInputStream in = new BufferedInputStream( KettleVFS.getInputStream( file ) ) ) {
+        if ( new BOMDetector( in ).bomExist() ) {
+          return null;
+        }
+        return data.splitter.findRange( in, size, data.totalNumberOfSteps, data.stepNumber );
+      }
+    }
+
+    // The file is read from the start up to the last range, so only scan it once for all copies. Copies running on
+    // other servers can't share the scan and each scan the file themselves.
+    //
+    CompletableFuture<long[]> boundaries = new CompletableFuture<>();
+    CompletableFuture<long[]> shared = shareBoundaries( file.getName().getURI(), boundaries );
+    if ( shared == null ) {
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TextFileInput.Log.ScanningFile", file.getName().getFriendlyURI(),
+          String.valueOf( data.totalNumberOfSteps ) ) );
+      }
+      try ( BufferedInputStream in = new BufferedInputStream( KettleVFS.getInputStream( file ) ) ) {
+        boundaries.complete( new BOMDetector( in ).bomExist() ? null
+          : data.splitter.findBoundaries( in, size, data.totalNumberOfSteps ) );
+      } catch ( Exception e ) {
+        boundaries.completeExceptionally( e );
+        throw e;
+      }
+      shared = boundaries;
+    }
+    long[] found = shared.get();
+    return found == null ? null : new long[] { found[data.stepNumber], found[data.stepNumber + 1] };
+  }
+
+  /**
+   * Shares the range boundaries of a file with the other local copies through the first copy.
+   *
+   * @return the boundaries registered by another copy, null if this copy has to find them
+   */
+  private CompletableFuture<long[]> shareBoundaries( String uri, CompletableFuture<long[]> boundaries ) {
+    StepInterface firstCopy = getTrans().findStepInterface( getStepname(), 0 );
+    if ( !( firstCopy instanceof TextFileInput )
+      || getTrans().findStepInterfaces( getStepname() ).size() != data.totalNumberOfSteps ) {
+      return null;
+    }
+    return ( (TextFileInput) firstCopy ).data.sharedBoundaries.putIfAbsent( uri, boundaries );
+  }
+
   @SuppressWarnings( "java:S1144" ) // Using reflection this method is being invoked
   public JSONObject setMinimalWidthAction( Map<String, String> queryParams ) throws JsonProcessingException {
     JSONObject jsonObject = new JSONObject();
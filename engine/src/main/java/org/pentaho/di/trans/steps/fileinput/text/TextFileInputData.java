@@ -15,6 +15,9 @@ package org.pentaho.di.trans.steps.fileinput.text;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.pentaho.di.core.playlist.FilePlayList;
 import org.pentaho.di.trans.steps.file.BaseFileInputStepData;
@@ -62,6 +65,32 @@ public class TextFileInputData extends BaseFileInputStepData {
 
   public EncodingType encodingType;
 
+  /**
+   * The step copies split the input files between them
+   */
+  public boolean parallel;
+
+  public int stepNumber;
+
+  public int totalNumberOfSteps;
+
+  /**
+   * Cuts the files into ranges for the step copies, null when the files are read as a whole by one copy each
+   */
+  public TextFileInputSplitter splitter;
+
+  /**
+   * The start (inclusive) and end (exclusive) offset of the part of the current file read by this copy, null to read
+   * the whole file
+   */
+  public long[] fileRange;
+
+  /**
+   * Only used in the first copy: the range boundaries per file URI of the files that have to be scanned from the start,
+   * found once by the first copy to get there. A null boundaries array means the file has a byte order mark.
+   */
+  public final Map<String, CompletableFuture<long[]>> sharedBoundaries = new ConcurrentHashMap<>();
+
   public TextFileInputData() {
     // linked list is better, as usually .remove(0) is applied to this list
     lineBuffer = new LinkedList<TextFileLine>();
@@ -198,6 +198,10 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
     @Injection( name = "LENGTH" )
     public String length;
 
+    /** Flag indicating that the step copies split the input files between them */
+    @Injection( name = "RUNNING_IN_PARALLEL" )
+    public boolean runningInParallel;
+
   }
 
   /** The filters to use... */
@@ -291,6 +295,7 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
 
       String nempty = XMLHandler.getTagValue( stepnode, "noempty" );
       content.noEmptyLines = YES.equalsIgnoreCase( nempty ) || nempty == null;
+      content.runningInParallel = YES.equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "parallel" ) );
       content.includeFilename = YES.equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "include" ) );
       content.filenameField = XMLHandler.getTagValue( stepnode, "include_field" );
       content.includeRowNumber = YES.equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "rownum" ) );
@@ -484,6 +489,7 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
     content.nrLinesDocHeader = 0;
     content.fileCompression = "None";
     content.noEmptyLines = true;
+    content.runningInParallel = false;
     content.fileFormat = "DOS";
     content.fileType = "CSV";
     content.includeFilename = false;
@@ -706,6 +712,7 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
     retval.append( "    " ).append( XMLHandler.addTagValue( "nr_lines_per_page", content.nrLinesPerPage ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "nr_lines_doc_header", content.nrLinesDocHeader ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "noempty", content.noEmptyLines ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "parallel", content.runningInParallel ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "include", content.includeFilename ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "include_field", content.filenameField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "rownum", content.includeRowNumber ) );
@@ -870,6 +877,7 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
       content.nrLinesPerPage = (int) rep.getStepAttributeInteger( id_step, "nr_lines_per_page" );
       content.nrLinesDocHeader = (int) rep.getStepAttributeInteger( id_step, "nr_lines_doc_header" );
       content.noEmptyLines = rep.getStepAttributeBoolean( id_step, "noempty" );
+      content.runningInParallel = rep.getStepAttributeBoolean( id_step, "parallel" );
 
       content.includeFilename = rep.getStepAttributeBoolean( id_step, "include" );
       content.filenameField = rep.getStepAttributeString( id_step, "include_field" );
@@ -1010,6 +1018,7 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
       rep.saveStepAttribute( id_transformation, id_step, "nr_lines_doc_header", content.nrLinesDocHeader );
 
       rep.saveStepAttribute( id_transformation, id_step, "noempty", content.noEmptyLines );
+      rep.saveStepAttribute( id_transformation, id_step, "parallel", content.runningInParallel );
 
       rep.saveStepAttribute( id_transformation, id_step, "include", content.includeFilename );
       rep.saveStepAttribute( id_transformation, id_step, "include_field", content.filenameField );
@@ -1328,6 +1337,21 @@ public class TextFileInputMeta extends BaseFileInputMeta<BaseFileInputAdditional
     content.length = length;
   }
 
+  /**
+   * @return true if the step copies split the input files between them
+   */
+  public boolean isRunningInParallel() {
+    return content.runningInParallel;
+  }
+
+  /**
+   * @param runningInParallel
+   *          true if the step copies should split the input files between them
+   */
+  public void setRunningInParallel( boolean runningInParallel ) {
+    content.runningInParallel = runningInParallel;
+  }
+
   /**
    * Required for the Data Lineage.
    */
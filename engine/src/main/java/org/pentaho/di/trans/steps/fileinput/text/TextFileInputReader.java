@@ -14,8 +14,11 @@
 package org.pentaho.di.trans.steps.fileinput.text;
 
 import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.compress.CompressionInputStream;
 import org.pentaho.di.core.compress.CompressionProvider;
@@ -69,14 +72,23 @@ public class TextFileInputReader implements IBaseFileInputReader {
       log.logDetailed( "This is a compressed file being handled by the " + provider.getName() + " provider" );
     }
 
-    in = provider.createInputStream( KettleVFS.getInputStream( file ) );
+    InputStream fileStream = KettleVFS.getInputStream( file );
+    long[] range = data.fileRange;
+    if ( range != null ) {
+      // another step copy reads the rest of the file
+      IOUtils.skipFully( fileStream, range[0] );
+      fileStream = BoundedInputStream.builder().setInputStream( fileStream ).setMaxCount( range[1] - range[0] ).get();
+    }
+
+    in = provider.createInputStream( fileStream );
 
     in.nextEntry();
 
     BufferedInputStream inStream = new BufferedInputStream( in, BUFFER_SIZE_INPUT_STREAM );
-    BOMDetector bom = new BOMDetector( inStream );
+    // a byte order mark can only be found at the start of the file
+    BOMDetector bom = range == null || range[0] == 0 ? new BOMDetector( inStream ) : null;
 
-    if ( bom.bomExist() ) {
+    if ( bom != null && bom.bomExist() ) {
       // if BOM exist, use it instead defined charset
       isr = new BufferedInputStreamReader( new InputStreamReader( inStream, bom.getCharset() ) );
     } else if ( meta.getEncoding() != null && meta.getEncoding().length() > 0 ) {
@@ -92,7 +104,8 @@ public class TextFileInputReader implements IBaseFileInputReader {
   }
 
   protected void readInitial() throws Exception {
-    data.doneWithHeader = !meta.content.header;
+    // the header is only found at the start of the file
+    data.doneWithHeader = !meta.content.header || ( data.fileRange != null && data.fileRange[0] > 0 );
     // /////////////////////////////////////////////////////////////////////////////
     // Read the first lines...
 
@@ -105,7 +118,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
      * OK, read a number of lines in the buffer: The header rows The nr rows in the page : optional The footer rows
      */
     int bufferSize = 1;
-    bufferSize += meta.content.header ? meta.content.nrHeaderLines : 0;
+    bufferSize += !data.doneWithHeader ? meta.content.nrHeaderLines : 0;
     bufferSize +=
         meta.content.layoutPaged ? meta.content.nrLinesPerPage * ( Math.max( 0, meta.content.nrWraps ) + 1 ) : Math.max(
             0, meta.content.nrWraps ); // it helps when we have wrapped input w/o header
@@ -119,7 +132,7 @@ public class TextFileInputReader implements IBaseFileInputReader {
     }
 
     for ( int i = 0; i < bufferSize && !data.doneReading; i++ ) {
-      boolean wasNotFiltered = tryToReadLine( !meta.content.header || i >= meta.content.nrHeaderLines );
+      boolean wasNotFiltered = tryToReadLine( data.doneWithHeader || i >= meta.content.nrHeaderLines );
       if ( !wasNotFiltered ) {
         // grab another line, this one got filtered
         bufferSize++;
@@ -0,0 +1,292 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fileinput.text;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Locale;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Cuts an uncompressed text file into byte ranges that start on record boundaries, so that the copies of a Text File
+ * Input step can each read a part of the same file.<br>
+ * <br>
+ * A record ends on a line terminator outside of an enclosure. To know whether a terminator is enclosed, the enclosures
+ * are counted from the start of the file the same way {@link TextFileInputUtils#checkPattern(String, String, String)}
+ * does it for a single record. Without an enclosure every terminator ends a record, and the scan skips straight to
+ * the wanted offsets.<br>
+ * <br>
+ * When the file has to be scanned from the start ({@link #isScanningFromStart()}) use
+ * {@link #findBoundaries(InputStream, long, int)} once for all copies rather than {@link #findRange} for every copy:
+ * the copy of the last range would read the whole file otherwise.
+ *
+ * @since 11.0
+ */
+public class TextFileInputSplitter {
+
+  /**
+   * The smallest range worth reading on its own. Smaller files are read as a whole by one copy.
+   */
+  public static final long MIN_RANGE_SIZE = 1024L * 1024L;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final int fileFormatType;
+  private final int enclosure;
+  private final int escape;
+  private final int nrHeaderLines;
+
+  /**
+   * @param fileFormatType
+   *          one of the TextFileInputMeta.FILE_FORMAT_* values
+   * @param enclosure
+   *          the enclosure, null or blank when fields are not enclosed or enclosures are handled leniently
+   * @param escapeCharacter
+   *          the escape character, null or empty if there is none
+   * @param nrHeaderLines
+   *          the number of header lines at the start of the file, which always stay in the first range
+   */
+  public TextFileInputSplitter( int fileFormatType, String enclosure, String escapeCharacter, int nrHeaderLines ) {
+    this.fileFormatType = fileFormatType;
+    this.enclosure = StringUtils.isBlank( enclosure ) ? -1 : enclosure.charAt( 0 );
+    this.escape =
+      StringUtils.isEmpty( escapeCharacter ) || escapeCharacter.equals( enclosure ) ? -1 : escapeCharacter.charAt( 0 );
+    this.nrHeaderLines = Math.max( 0, nrHeaderLines );
+  }
+
+  /**
+   * Checks whether records can be found by looking at single bytes: the encoding has to store the line terminators,
+   * enclosure and escape character as the plain ASCII bytes and never use those bytes inside other characters.
+   *
+   * @return true if files read with these settings can be split
+   */
+  public static boolean isSplittable( String encoding, String enclosure, String escapeCharacter ) {
+    if ( !isSingleAscii( enclosure ) || !isSingleAscii( escapeCharacter ) ) {
+      return false;
+    }
+    String name;
+    try {
+      name = StringUtils.isEmpty( encoding ) ? Charset.defaultCharset().name() : Charset.forName( encoding ).name();
+    } catch ( IllegalArgumentException e ) {
+      return false;
+    }
+    name = name.toUpperCase( Locale.ROOT );
+    return name.equals( "UTF-8" ) || name.equals( "US-ASCII" ) || name.startsWith( "ISO-8859-" )
+      || name.startsWith( "WINDOWS-125" );
+  }
+
+  private static boolean isSingleAscii( String value ) {
+    return StringUtils.isEmpty( value ) || ( value.length() == 1 && value.charAt( 0 ) < 0x80 );
+  }
+
+  /**
+   * @return true if the file is scanned from the start to find the ranges: with an enclosure (a terminator can be
+   *         enclosed) or DOS line terminators (landing between the two bytes of a terminator would find a false one)
+   */
+  public boolean isScanningFromStart() {
+    return enclosure >= 0 || fileFormatType == TextFileInputMeta.FILE_FORMAT_DOS;
+  }
+
+  /**
+   * Finds the byte ranges of all copies in a single pass over the file. See {@link #findRange} for the ranges.
+   *
+   * @param in
+   *          the file content, positioned at the start of the file
+   * @param size
+   *          the size of the file in bytes
+   * @param nrRanges
+   *          the number of ranges (copies)
+   * @return the start offset of every range followed by the size of the file: range i runs from element i (inclusive)
+   *         to element i+1 (exclusive)
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public long[] findBoundaries( InputStream in, long size, int nrRanges ) throws IOException {
+    Scanner scanner = new Scanner( in );
+    long headerEnd = skipHeader( scanner, size );
+
+    long[] boundaries = new long[ nrRanges + 1 ];
+    for ( int i = 1; i < nrRanges; i++ ) {
+      boundaries[ i ] = recordStartFrom( scanner, Math.max( headerEnd, size * i / nrRanges ), size );
+    }
+    boundaries[ nrRanges ] = size;
+    return boundaries;
+  }
+
+  /**
+   * Finds the byte range of a file read by one of several copies. The ranges of all copies follow each other without
+   * gaps or overlaps, the first one starts at 0 and holds the header lines, the last one ends at the end of the file.
+   * A range can be empty.
+   *
+   * @param in
+   *          the file content, positioned at the start of the file
+   * @param size
+   *          the size of the file in bytes
+   * @param nrRanges
+   *          the number of ranges (copies)
+   * @param rangeNr
+   *          the range to find, from 0 to nrRanges-1
+   * @return the start (inclusive) and end (exclusive) offset of the range
+   * @throws IOException
+   *           in case the file can't be read
+   */
+  public long[] findRange( InputStream in, long size, int nrRanges, int rangeNr ) throws IOException {
+    Scanner scanner = new Scanner( in );
+    long headerEnd = skipHeader( scanner, size );
+
+    long start = 0;
+    if ( rangeNr > 0 ) {
+      start = recordStartFrom( scanner, Math.max( headerEnd, size * rangeNr / nrRanges ), size );
+    }
+    long end = size;
+    if ( rangeNr < nrRanges - 1 ) {
+      end = recordStartFrom( scanner, Math.max( headerEnd, size * ( rangeNr + 1 ) / nrRanges ), size );
+    }
+    return new long[] { start, end };
+  }
+
+  /**
+   * @return the offset right after the header lines
+   */
+  private long skipHeader( Scanner scanner, long size ) throws IOException {
+    long headerEnd = 0;
+    for ( int i = 0; i < nrHeaderLines; i++ ) {
+      headerEnd = scanner.nextRecordStart();
+      if ( headerEnd < 0 ) {
+        return size;
+      }
+    }
+    return headerEnd;
+  }
+
+  /**
+   * @return the first record start at or after the offset
+   */
+  private long recordStartFrom( Scanner scanner, long offset, long size ) throws IOException {
+    if ( offset >= size ) {
+      return size;
+    }
+    if ( scanner.recordStart >= offset ) {
+      return scanner.recordStart;
+    }
+    if ( !isScanningFromStart() ) {
+      scanner.skipTo( offset - 1 );
+    }
+    long recordStart;
+    do {
+      recordStart = scanner.nextRecordStart();
+    } while ( recordStart >= 0 && recordStart < offset );
+    return recordStart < 0 ? size : Math.min( recordStart, size );
+  }
+
+  private class Scanner {
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int length;
+    private int index;
+    private long position;
+    private long recordStart;
+    private boolean enclosed;
+    private boolean escaped;
+
+    Scanner( InputStream in ) {
+      this.in = in;
+    }
+
+    /**
+     * @return the offset right after the next record, -1 at the end of the file
+     */
+    long nextRecordStart() throws IOException {
+      int b;
+      while ( ( b = read() ) >= 0 ) {
+        if ( b == '\n' || b == '\r' ) {
+          if ( fileFormatType == TextFileInputMeta.FILE_FORMAT_DOS ) {
+            read();
+          } else if ( fileFormatType == TextFileInputMeta.FILE_FORMAT_MIXED && b == '\r' && peek() == '\n' ) {
+            read();
+          }
+          escaped = false;
+          if ( !enclosed ) {
+            recordStart = position;
+            return recordStart;
+          }
+        } else if ( b == escape ) {
+          if ( peek() == escape ) {
+            // an escaped escape character doesn't escape anything
+            read();
+          } else {
+            escaped = true;
+          }
+        } else {
+          if ( b == enclosure && !escaped ) {
+            enclosed = !enclosed;
+          }
+          escaped = false;
+        }
+      }
+      return -1;
+    }
+
+    void skipTo( long offset ) throws IOException {
+      long toSkip = offset - position;
+      if ( toSkip <= 0 ) {
+        return;
+      }
+      if ( toSkip <= length - index ) {
+        index += (int) toSkip;
+      } else {
+        long remaining = toSkip - ( length - index );
+        index = length;
+        while ( remaining > 0 ) {
+          long skipped = in.skip( remaining );
+          if ( skipped <= 0 ) {
+            if ( in.read() < 0 ) {
+              break;
+            }
+            skipped = 1;
+          }
+          remaining -= skipped;
+        }
+      }
+      position = offset;
+    }
+
+    private int read() throws IOException {
+      if ( index == length && !fill() ) {
+        return -1;
+      }
+      position++;
+      return buffer[index++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+      if ( index == length && !fill() ) {
+        return -1;
+      }
+      return buffer[index] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+      int n = in.read( buffer, 0, buffer.length );
+      if ( n <= 0 ) {
+        return false;
+      }
+      length = n;
+      index = 0;
+      return true;
+    }
+  }
+}
@@ -38,6 +38,9 @@ import org.pentaho.di.trans.step.errorhandling.StreamInterface;
 public class FilterRows extends BaseStep implements StepInterface {
   private static Class<?> PKG = FilterRowsMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** The most compiled conditions kept, in case the previous step doesn't re-use its row metadata */
+  private static final int MAX_COMPILED_CONDITIONS = 32;
+
   private FilterRowsMeta meta;
   private FilterRowsData data;
 
@@ -48,7 +51,21 @@ public class FilterRows extends BaseStep implements StepInterface {
 
   private synchronized boolean keepRow( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     try {
-      return meta.getCondition().evaluate( rowMeta, row );
+      if ( data.condition == null || data.condition.getRowMeta() != rowMeta ) {
+        data.condition = data.conditions.get( rowMeta );
+        if ( data.condition == null ) {
+          if ( data.conditions.size() >= MAX_COMPILED_CONDITIONS ) {
+            data.conditions.clear();
+          }
+          data.condition = meta.getCondition().compile( rowMeta );
+          data.conditions.put( rowMeta, data.condition );
+          if ( log.isDetailed() ) {
+            logDetailed( BaseMessages.getString( PKG, "FilterRows.Log.ConditionCompiled",
+              data.condition.getNrSpecialized(), data.condition.getNrInterpreted() ) );
+          }
+        }
+      }
+      return data.condition.evaluate( row );
     } catch ( Exception e ) {
       String message =
         BaseMessages.getString( PKG, "FilterRows.Exception.UnexpectedErrorFoundInEvaluationFuction" );
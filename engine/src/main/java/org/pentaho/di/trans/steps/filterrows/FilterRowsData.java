@@ -13,6 +13,10 @@
 
 package org.pentaho.di.trans.steps.filterrows;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.pentaho.di.core.CompiledCondition;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
@@ -31,6 +35,10 @@ public class FilterRowsData extends BaseStepData implements StepDataInterface {
   public boolean chosesTargetSteps;
   public String trueStepname;
   public String falseStepname;
+  /** The filter condition, compiled for the input row layout of the last row */
+  public CompiledCondition condition;
+  /** The filter condition compiled per input row layout: every input hop has its own row metadata */
+  public final Map<RowMetaInterface, CompiledCondition> conditions = new IdentityHashMap<>();
 
   public FilterRowsData() {
     super();
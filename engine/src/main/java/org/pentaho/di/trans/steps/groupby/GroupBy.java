@@ -13,13 +13,10 @@
 
 package org.pentaho.di.trans.steps.groupby;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -40,6 +37,8 @@ import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.RowSpillCodec;
+import org.pentaho.di.core.row.RowSpillCodecs;
 import org.pentaho.di.core.row.ValueDataUtil;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaBase;
@@ -276,6 +275,8 @@ public class GroupBy extends BaseStep implements StepInterface {
         calcAggregate( data.previous );
         addToBuffer( data.previous );
       }
+      // The spill writer may still hold rows
+      closeOutput();
       data.groupResult = getAggregateResult();
 
       Object[] row = getRowFromBuffer();
@@ -791,9 +792,12 @@ public class GroupBy extends BaseStep implements StepInterface {
           // try to resolve as Apache VFS file
           pathToTmp = retrieveVfsPath( pathToTmp );
         }
+        if ( data.spillCodec == null ) {
+          data.spillCodec = getSpillCodec();
+        }
         data.tempFile = File.createTempFile( getMeta().getPrefix(), ".tmp", new File( pathToTmp ) );
         data.fosToTempFile = new FileOutputStream( data.tempFile );
-        data.dosToTempFile = new DataOutputStream( data.fosToTempFile );
+        data.spillWriter = data.spillCodec.createWriter( data.inputRowMeta, data.fosToTempFile );
         data.firstRead = true;
       } catch ( IOException e ) {
         throw new KettleFileException( BaseMessages.getString( PKG, "GroupBy.Exception.UnableToCreateTemporaryFile" ),
@@ -801,12 +805,27 @@ public class GroupBy extends BaseStep implements StepInterface {
       }
       // OK, save the oldest rows to disk!
       Object[] oldest = data.bufferList.get( 0 );
-      data.inputRowMeta.writeData( data.dosToTempFile, oldest );
+      data.spillWriter.writeRow( oldest );
       data.bufferList.remove( 0 );
       data.rowsOnFile++;
     }
   }
 
+  /**
+   * @return the codec of the temporary file, set with the KETTLE_SPILL_CODEC variable
+   */
+  private RowSpillCodec getSpillCodec() throws KettleFileException {
+    String code = getVariable( Const.KETTLE_SPILL_CODEC );
+    if ( Utils.isEmpty( code ) ) {
+      code = RowSpillCodecs.BLOCK_LZ4;
+    }
+    RowSpillCodec codec = RowSpillCodecs.getCodec( code );
+    if ( codec == null ) {
+      throw new KettleFileException( BaseMessages.getString( PKG, "GroupBy.Exception.UnknownSpillCodec", code ) );
+    }
+    return codec;
+  }
+
   // Method is defined as public in order to be accessible by unit tests
   public String retrieveVfsPath( String pathToTmp ) throws KettleFileException {
     FileObject vfsFile = KettleVFS.getInstance( getTransMeta().getBowl() ).getFileObject( pathToTmp );
@@ -820,7 +839,7 @@ public class GroupBy extends BaseStep implements StepInterface {
         // Open the inputstream first...
         try {
           data.fisToTmpFile = new FileInputStream( data.tempFile );
-          data.disToTmpFile = new DataInputStream( data.fisToTmpFile );
+          data.spillReader = data.spillCodec.createReader( data.inputRowMeta, data.fisToTmpFile );
           data.firstRead = false;
         } catch ( IOException e ) {
           throw new KettleFileException( BaseMessages.getString(
@@ -829,11 +848,10 @@ public class GroupBy extends BaseStep implements StepInterface {
       }
 
       // Read one row from the file!
-      Object[] row;
-      try {
-        row = data.inputRowMeta.readData( data.disToTmpFile );
-      } catch ( SocketTimeoutException e ) {
-        throw new KettleFileException( e ); // Shouldn't happen on files
+      Object[] row = data.spillReader.readRow();
+      if ( row == null ) {
+        throw new KettleFileException( BaseMessages.getString(
+            PKG, "GroupBy.Exception.UnableToReadBackRowFromTemporaryFile" ) );
       }
       data.rowsOnFile--;
 
@@ -851,9 +869,9 @@ public class GroupBy extends BaseStep implements StepInterface {
 
   private void closeOutput() throws KettleFileException {
     try {
-      if ( data.dosToTempFile != null ) {
-        data.dosToTempFile.close();
-        data.dosToTempFile = null;
+      if ( data.spillWriter != null ) {
+        data.spillWriter.close();
+        data.spillWriter = null;
       }
       if ( data.fosToTempFile != null ) {
         data.fosToTempFile.close();
@@ -872,9 +890,9 @@ public class GroupBy extends BaseStep implements StepInterface {
         data.fisToTmpFile.close();
         data.fisToTmpFile = null;
       }
-      if ( data.disToTmpFile != null ) {
-        data.disToTmpFile.close();
-        data.disToTmpFile = null;
+      if ( data.spillReader != null ) {
+        data.spillReader.close();
+        data.spillReader = null;
       }
     } catch ( IOException e ) {
       throw new KettleFileException(
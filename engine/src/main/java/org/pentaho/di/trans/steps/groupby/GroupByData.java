@@ -13,8 +13,6 @@
 
 package org.pentaho.di.trans.steps.groupby;
 
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -23,6 +21,9 @@ import java.util.List;
 import java.util.Set;
 
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.RowSpillCodec;
+import org.pentaho.di.core.row.RowSpillReader;
+import org.pentaho.di.core.row.RowSpillWriter;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -59,14 +60,16 @@ public class GroupByData extends BaseStepData implements StepDataInterface {
 
   public FileOutputStream fosToTempFile;
 
-  public DataOutputStream dosToTempFile;
+  public RowSpillCodec spillCodec;
+
+  public RowSpillWriter spillWriter;
 
   public int rowsOnFile;
 
   public boolean firstRead;
 
   public FileInputStream fisToTmpFile;
-  public DataInputStream disToTmpFile;
+  public RowSpillReader spillReader;
 
   public Object[] groupResult;
 
@@ -29,12 +29,14 @@ import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.util.HttpClientManager;
@@ -42,12 +44,14 @@ import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
-import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.AsyncCallWindow;
+import org.pentaho.di.trans.step.BaseCallStep;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 
+import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.UnknownHostException;
@@ -60,7 +64,7 @@ import java.util.List;
  * @author Matt
  * @since 26-apr-2003
  */
-public class HTTP extends BaseStep implements StepInterface {
+public class HTTP extends BaseCallStep implements StepInterface {
   private static Class<?> PKG = HTTPMeta.class; // for i18n purposes, needed by Translator2!! $NON-NLS-1$
 
   private HTTPMeta meta;
@@ -73,23 +77,32 @@ public class HTTP extends BaseStep implements StepInterface {
   private Object[] execHttp( RowMetaInterface rowMeta, Object[] row ) throws KettleException {
     if ( first ) {
       first = false;
-      data.argnrs = new int[ meta.getArgumentField().length ];
-
-      for ( int i = 0; i < meta.getArgumentField().length; i++ ) {
-        data.argnrs[ i ] = rowMeta.indexOfValue( meta.getArgumentField()[ i ] );
-        if ( data.argnrs[ i ] < 0 ) {
-          logError( BaseMessages.getString( PKG, "HTTP.Log.ErrorFindingField" ) + meta.getArgumentField()[ i ] + "]" );
-          throw new KettleStepException( BaseMessages.getString( PKG, "HTTP.Exception.CouldnotFindField", meta
-            .getArgumentField()[ i ] ) );
-        }
-      }
+      lookupArguments( rowMeta );
     }
 
     return callHttpService( rowMeta, row );
   }
 
+  private void lookupArguments( RowMetaInterface rowMeta ) throws KettleStepException {
+    data.argnrs = new int[ meta.getArgumentField().length ];
+
+    for ( int i = 0; i < meta.getArgumentField().length; i++ ) {
+      data.argnrs[ i ] = rowMeta.indexOfValue( meta.getArgumentField()[ i ] );
+      if ( data.argnrs[ i ] < 0 ) {
+        logError( BaseMessages.getString( PKG, "HTTP.Log.ErrorFindingField" ) + meta.getArgumentField()[ i ] + "]" );
+        throw new KettleStepException( BaseMessages.getString( PKG, "HTTP.Exception.CouldnotFindField", meta
+          .getArgumentField()[ i ] ) );
+      }
+    }
+  }
+
   @VisibleForTesting
   Object[] callHttpService( RowMetaInterface rowMeta, Object[] rowData ) throws KettleException {
+    CloseableHttpClient httpClient = data.httpClient != null ? data.httpClient : createHttpClient();
+    return sendRequest( httpClient, createRequest( rowMeta, rowData ), rowMeta.size(), rowData );
+  }
+
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
 
     if ( data.realConnectionTimeout > -1 ) {
@@ -105,9 +118,13 @@ public class HTTP extends BaseStep implements StepInterface {
       clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
 
-    // Prepare HTTP get
+  /**
+   * Prepare the HTTP get of a row. This reads the values of the row, so it runs on the step thread.
+   */
+  private HttpGet createRequest( RowMetaInterface rowMeta, Object[] rowData ) throws KettleException {
     URI uri = null;
     try {
       URIBuilder uriBuilder = constructUrlBuilder( rowMeta, rowData );
@@ -127,7 +144,20 @@ public class HTTP extends BaseStep implements StepInterface {
           }
         }
       }
+      return method;
+    } catch ( Exception e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "HTTP.Log.UnableGetResult", uri ), e );
+    }
+  }
 
+  /**
+   * Execute the HTTP get of a row and add the result fields. In asynchronous mode this runs on a thread of the call
+   * window, so it doesn't use the row metadata.
+   */
+  private Object[] sendRequest( CloseableHttpClient httpClient, HttpGet method, int inputRowSize,
+                                Object[] rowData ) throws KettleException {
+    URI uri = method.getURI();
+    try {
       Object[] newRow = null;
       if ( rowData != null ) {
         newRow = rowData.clone();
@@ -207,7 +237,7 @@ public class HTTP extends BaseStep implements StepInterface {
         }
         String headerString = json.toJSONString();
 
-        int returnFieldsOffset = rowMeta.size();
+        int returnFieldsOffset = inputRowSize;
         if ( !Utils.isEmpty( meta.getFieldName() ) ) {
           newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, body );
           returnFieldsOffset++;
@@ -285,6 +315,9 @@ public class HTTP extends BaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.calls != null && !putCompletedCalls( data.outputRowMeta, data.calls.finish() ) ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -344,36 +377,62 @@ public class HTTP extends BaseStep implements StepInterface {
 
     } // end if first
 
+    if ( data.calls != null ) {
+      return submitCall( r );
+    }
+
     try {
       Object[] outputRowData = execHttp( getInputRowMeta(), r ); // add new values to the row
-      putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
-
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "HTTP.LineNumber" ) + getLinesRead() );
-        }
-      }
+      putCallResult( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
     } catch ( KettleException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
+      return handleCallError( r, e );
+    }
 
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "HTTP.ErrorInStepRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTP001" );
+    return true;
+  }
+
+  /**
+   * Prepare the request of the row and hand it to the call window, then pass on the rows of which the request
+   * completed. Blocks while the maximum number of requests is in flight.
+   */
+  private boolean submitCall( Object[] r ) throws KettleException {
+    HttpGet method;
+    try {
+      if ( first ) {
+        first = false;
+        lookupArguments( getInputRowMeta() );
       }
+      method = createRequest( getInputRowMeta(), r );
+    } catch ( KettleException e ) {
+      return handleCallError( r, e );
+    }
+    PoolStats poolStats = HttpClientManager.getInstance().getPoolStats();
+    if ( poolStats != null ) {
+      data.maximumPoolPending = Math.max( data.maximumPoolPending, poolStats.getPending() );
     }
+    int inputRowSize = getInputRowMeta().size();
+    return putCompletedCalls( data.outputRowMeta,
+      data.calls.submit( r, () -> sendRequest( data.httpClient, method, inputRowSize, r ) ) );
+  }
 
-    return true;
+  @Override
+  protected String getCallErrorMessage() {
+    return BaseMessages.getString( PKG, "HTTP.ErrorInStepRunning" );
+  }
+
+  @Override
+  protected String getCallErrorCode() {
+    return "HTTP001";
+  }
+
+  @Override
+  protected String getLineNumberMessage() {
+    return BaseMessages.getString( PKG, "HTTP.LineNumber" );
+  }
+
+  @Override
+  protected boolean isLoggingCallStackTrace() {
+    return false;
   }
 
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
@@ -390,6 +449,17 @@ public class HTTP extends BaseStep implements StepInterface {
       data.realSocketTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
       data.realConnectionTimeout = Const.toInt( environmentSubstitute( meta.getSocketTimeout() ), -1 );
 
+      // one client for all rows, the connections are pooled by HttpClientManager
+      data.httpClient = createHttpClient();
+      if ( meta.isAsynchronous() ) {
+        int concurrentRequests =
+          Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ), HTTPMeta.DEFAULT_CONCURRENT_REQUESTS );
+        data.calls = new AsyncCallWindow<>( concurrentRequests, meta.isPreserveOrder(), getStepname() );
+        if ( isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "HTTP.Log.AsynchronousRequests", concurrentRequests ) );
+        }
+      }
+
       return true;
     }
     return false;
@@ -399,6 +469,21 @@ public class HTTP extends BaseStep implements StepInterface {
     meta = (HTTPMeta) smi;
     data = (HTTPData) sdi;
 
+    if ( data.calls != null ) {
+      data.calls.close();
+      data.calls.snapMetrics( log );
+      log.snap( Metrics.METRIC_STEP_CALLS_POOL_PENDING, data.maximumPoolPending );
+      data.calls = null;
+    }
+    if ( data.httpClient != null ) {
+      try {
+        data.httpClient.close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "HTTP.Log.UnableToCloseClient" ), e );
+      }
+      data.httpClient = null;
+    }
+
     super.dispose( smi, sdi );
   }
 
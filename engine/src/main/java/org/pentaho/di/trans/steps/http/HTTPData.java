@@ -14,7 +14,9 @@
 package org.pentaho.di.trans.steps.http;
 
 import org.apache.http.NameValuePair;
+import org.apache.http.impl.client.CloseableHttpClient;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.AsyncCallWindow;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
@@ -40,6 +42,13 @@ public class HTTPData extends BaseStepData implements StepDataInterface {
   public int realConnectionTimeout;
   public int realcloseIdleConnectionsTime;
 
+  /** The client of all requests of the step, it uses the shared connection pool of HttpClientManager */
+  public CloseableHttpClient httpClient;
+  /** The requests in flight in asynchronous mode, null otherwise */
+  public AsyncCallWindow<Object[]> calls;
+  /** The most requests that waited for a pooled connection */
+  public int maximumPoolPending;
+
   /**
    * Default constructor.
    */
@@ -60,6 +60,9 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
   // the time to wait till a connection is closed (milliseconds)? -1 is no not close.
   public static final int DEFAULT_CLOSE_CONNECTIONS_TIME = -1;
 
+  /** Default number of requests that wait for an answer at the same time in asynchronous mode */
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 8;
+
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
@@ -98,6 +101,15 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
   private String[] headerParameter;
   private String[] headerField;
 
+  /** Send the requests of a number of rows at the same time */
+  private boolean asynchronous;
+
+  /** The number of requests that wait for an answer at the same time in asynchronous mode */
+  private String concurrentRequests;
+
+  /** Pass the rows on in the order they came in, not in the order the answers come back */
+  private boolean preserveOrder;
+
   public HTTPMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -132,6 +144,51 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
     this.closeIdleConnectionsTime = closeIdleConnectionsTime;
   }
 
+  /**
+   * @return true if the requests of a number of rows are sent at the same time
+   */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /**
+   * @param asynchronous
+   *          send the requests of a number of rows at the same time
+   */
+  public void setAsynchronous( boolean asynchronous ) {
+    this.asynchronous = asynchronous;
+  }
+
+  /**
+   * @return the number of requests that wait for an answer at the same time in asynchronous mode
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests
+   *          the number of requests that wait for an answer at the same time in asynchronous mode
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return true if the rows are passed on in the order they came in
+   */
+  public boolean isPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /**
+   * @param preserveOrder
+   *          pass the rows on in the order they came in, not in the order the answers come back
+   */
+  public void setPreserveOrder( boolean preserveOrder ) {
+    this.preserveOrder = preserveOrder;
+  }
+
   /**
    * @return Returns the socketTimeout.
    */
@@ -296,6 +353,9 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
     socketTimeout = String.valueOf( DEFAULT_SOCKET_TIMEOUT );
     connectionTimeout = String.valueOf( DEFAULT_CONNECTION_TIMEOUT );
     closeIdleConnectionsTime = String.valueOf( DEFAULT_CLOSE_CONNECTIONS_TIME );
+    asynchronous = false;
+    concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    preserveOrder = true;
     int i;
     int nrargs;
     int nrquery;
@@ -365,6 +425,9 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "socketTimeout", socketTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "connectionTimeout", connectionTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "closeIdleConnectionsTime", closeIdleConnectionsTime ) );
+    retval.append( "    " + XMLHandler.addTagValue( "asynchronous", asynchronous ) );
+    retval.append( "    " + XMLHandler.addTagValue( "concurrentRequests", concurrentRequests ) );
+    retval.append( "    " + XMLHandler.addTagValue( "preserveOrder", preserveOrder ) );
 
     retval.append( "    <lookup>" ).append( Const.CR );
 
@@ -409,6 +472,10 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
       socketTimeout = XMLHandler.getTagValue( stepnode, "socketTimeout" );
       connectionTimeout = XMLHandler.getTagValue( stepnode, "connectionTimeout" );
       closeIdleConnectionsTime = XMLHandler.getTagValue( stepnode, "closeIdleConnectionsTime" );
+      asynchronous = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "asynchronous" ) );
+      concurrentRequests = Const.NVL( XMLHandler.getTagValue( stepnode, "concurrentRequests" ),
+        String.valueOf( DEFAULT_CONCURRENT_REQUESTS ) );
+      preserveOrder = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserveOrder" ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
       nrargs = XMLHandler.countNodes( lookup, "arg" );
@@ -452,6 +519,10 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
       socketTimeout = rep.getStepAttributeString( id_step, "socketTimeout" );
       connectionTimeout = rep.getStepAttributeString( id_step, "connectionTimeout" );
       closeIdleConnectionsTime = rep.getStepAttributeString( id_step, "closeIdleConnectionsTime" );
+      asynchronous = rep.getStepAttributeBoolean( id_step, "asynchronous" );
+      concurrentRequests = Const.NVL( rep.getStepAttributeString( id_step, "concurrentRequests" ),
+        String.valueOf( DEFAULT_CONCURRENT_REQUESTS ) );
+      preserveOrder = rep.getStepAttributeBoolean( id_step, 0, "preserveOrder", true );
 
       int nrargs = rep.countNrStepAttributes( id_step, "arg_name" );
       int nrheaders = rep.countNrStepAttributes( id_step, "header_name" );
@@ -491,6 +562,9 @@ public class HTTPMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, "socketTimeout", socketTimeout );
       rep.saveStepAttribute( id_transformation, id_step, "connectionTimeout", connectionTimeout );
       rep.saveStepAttribute( id_transformation, id_step, "closeIdleConnectionsTime", closeIdleConnectionsTime );
+      rep.saveStepAttribute( id_transformation, id_step, "asynchronous", asynchronous );
+      rep.saveStepAttribute( id_transformation, id_step, "concurrentRequests", concurrentRequests );
+      rep.saveStepAttribute( id_transformation, id_step, "preserveOrder", preserveOrder );
 
       for ( int i = 0; i < argumentField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "arg_name", argumentField[i] );
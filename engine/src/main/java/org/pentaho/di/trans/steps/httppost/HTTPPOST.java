@@ -36,11 +36,13 @@ import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.util.EntityUtils;
 import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.util.HttpClientManager;
 import org.pentaho.di.core.util.StringUtil;
@@ -49,16 +51,20 @@ import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.step.AsyncCallWindow;
+import org.pentaho.di.trans.step.BaseCallStep;
 import org.pentaho.di.trans.step.BaseStep;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.HttpURLConnection;
+import java.net.URI;
 import java.net.URLEncoder;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
@@ -74,7 +80,7 @@ import static org.pentaho.di.trans.steps.httppost.HTTPPOSTMeta.DEFAULT_ENCODING;
  * @since 15-jan-2009
  */
 
-public class HTTPPOST extends BaseStep implements StepInterface {
+public class HTTPPOST extends BaseCallStep implements StepInterface {
 
   private static Class<?> PKG = HTTPPOSTMeta.class; // for i18n purposes, needed by Translator2!! $NON-NLS-1$
 
@@ -84,12 +90,32 @@ public class HTTPPOST extends BaseStep implements StepInterface {
   private HTTPPOSTMeta meta;
   private HTTPPOSTData data;
 
+  /**
+   * A prepared HTTP post, with the file it streams if a file is posted.
+   */
+  private static class PostRequest {
+    private final HttpPost post;
+    private final InputStream fis;
+    private final String url;
+
+    PostRequest( HttpPost post, InputStream fis, String url ) {
+      this.post = post;
+      this.fis = fis;
+      this.url = url;
+    }
+  }
+
   public HTTPPOST( StepMeta stepMeta, StepDataInterface stepDataInterface,
                    int copyNr, TransMeta transMeta, Trans trans ) {
     super( stepMeta, stepDataInterface, copyNr, transMeta, trans );
   }
 
   private Object[] callHTTPPOST( Object[] rowData ) throws KettleException {
+    CloseableHttpClient httpClient = data.httpClient != null ? data.httpClient : createHttpClient();
+    return sendRequest( httpClient, createRequest( rowData ), data.inputRowMeta.size(), rowData );
+  }
+
+  private CloseableHttpClient createHttpClient() {
     HttpClientManager.HttpClientBuilderFacade clientBuilder = HttpClientManager.getInstance().createBuilder();
 
     if ( data.realConnectionTimeout > -1 ) {
@@ -105,8 +131,13 @@ public class HTTPPOST extends BaseStep implements StepInterface {
       clientBuilder.setProxy( data.realProxyHost, data.realProxyPort );
     }
 
-    CloseableHttpClient httpClient = clientBuilder.build();
+    return clientBuilder.build();
+  }
 
+  /**
+   * Prepare the HTTP post of a row. This reads the values of the row, so it runs on the step thread.
+   */
+  private PostRequest createRequest( Object[] rowData ) throws KettleException {
     // get dynamic url ?
     if ( meta.isUrlInField() ) {
       data.realUrl = data.inputRowMeta.getString( rowData, data.indexOfUrlField );
@@ -206,6 +237,24 @@ public class HTTPPOST extends BaseStep implements StepInterface {
         }
       }
 
+      return new PostRequest( post, fis, data.realUrl );
+    } catch ( Exception e ) {
+      if ( fis != null ) {
+        BaseStep.closeQuietly( fis );
+      }
+      throw new KettleException( BaseMessages.getString( PKG, "HTTPPOST.Error.CanNotReadURL", data.realUrl ), e );
+    }
+  }
+
+  /**
+   * Execute the HTTP post of a row and add the result fields. In asynchronous mode this runs on a thread of the call
+   * window, so it doesn't use the row metadata.
+   */
+  private Object[] sendRequest( CloseableHttpClient httpClient, PostRequest request, int inputRowSize,
+                                Object[] rowData ) throws KettleException {
+    HttpPost post = request.post;
+    String url = request.url;
+    try {
       // Execute request
       Object[] newRow = null;
       if ( rowData != null ) {
@@ -216,7 +265,8 @@ public class HTTPPOST extends BaseStep implements StepInterface {
         // used for calculating the responseTime
         long startTime = System.currentTimeMillis();
 
-        HttpHost target = new HttpHost( uriBuilder.getHost(), uriBuilder.getPort(), uriBuilder.getScheme() );
+        URI uri = post.getURI();
+        HttpHost target = new HttpHost( uri.getHost(), uri.getPort(), uri.getScheme() );
         // Create AuthCache instance
         AuthCache authCache = new BasicAuthCache();
         // Generate BASIC scheme object and add it to the local
@@ -239,7 +289,7 @@ public class HTTPPOST extends BaseStep implements StepInterface {
         long responseTime = System.currentTimeMillis() - startTime;
 
         if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseTime", responseTime, data.realUrl ) );
+          logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseTime", responseTime, url ) );
         }
 
         // Display status code
@@ -252,10 +302,10 @@ public class HTTPPOST extends BaseStep implements StepInterface {
         switch ( statusCode ) {
           case HttpURLConnection.HTTP_UNAUTHORIZED:
             throw new KettleStepException( BaseMessages
-              .getString( PKG, "HTTPPOST.Exception.Authentication", data.realUrl ) );
+              .getString( PKG, "HTTPPOST.Exception.Authentication", url ) );
           case -1:
             throw new KettleStepException( BaseMessages
-              .getString( PKG, "HTTPPOST.Exception.IllegalStatusCode", data.realUrl ) );
+              .getString( PKG, "HTTPPOST.Exception.IllegalStatusCode", url ) );
           case HttpURLConnection.HTTP_NO_CONTENT:
             body = "";
             break;
@@ -292,7 +342,7 @@ public class HTTPPOST extends BaseStep implements StepInterface {
           logDebug( BaseMessages.getString( PKG, "HTTPPOST.Log.ResponseBody", body ) );
         }
 
-        int returnFieldsOffset = data.inputRowMeta.size();
+        int returnFieldsOffset = inputRowSize;
         if ( !Utils.isEmpty( meta.getFieldName() ) ) {
           newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, body );
           returnFieldsOffset++;
@@ -321,11 +371,10 @@ public class HTTPPOST extends BaseStep implements StepInterface {
       throw new KettleException( BaseMessages.getString( PKG,
         "HTTPPOST.Error.UnknownHostException", uhe.getMessage() ) );
     } catch ( Exception e ) {
-      throw new KettleException( BaseMessages.getString( PKG, "HTTPPOST.Error.CanNotReadURL", data.realUrl ), e );
-
+      throw new KettleException( BaseMessages.getString( PKG, "HTTPPOST.Error.CanNotReadURL", url ), e );
     } finally {
-      if ( fis != null ) {
-        BaseStep.closeQuietly( fis );
+      if ( request.fis != null ) {
+        BaseStep.closeQuietly( request.fis );
       }
     }
   }
@@ -352,6 +401,9 @@ public class HTTPPOST extends BaseStep implements StepInterface {
 
     Object[] r = getRow(); // Get row from input rowset & set row busy!
     if ( r == null ) { // no more input to be expected...
+      if ( data.calls != null && !putCompletedCalls( data.outputRowMeta, data.calls.finish() ) ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -462,39 +514,53 @@ public class HTTPPOST extends BaseStep implements StepInterface {
       data.realEncoding = environmentSubstitute( meta.getEncoding() );
     } // end if first
 
+    if ( data.calls != null ) {
+      return submitCall( r );
+    }
+
     try {
       Object[] outputRowData = callHTTPPOST( r );
-      putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
-
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "HTTPPOST.LineNumber" ) + getLinesRead() );
-        }
-      }
+      putCallResult( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
     } catch ( KettleException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "HTTPPOST.ErrorInStepRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        logError( Const.getStackTracker( e ) );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
+      return handleCallError( r, e );
+    }
 
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "HTTPPOST001" );
-      }
+    return true;
+  }
 
+  /**
+   * Prepare the request of the row and hand it to the call window, then pass on the rows of which the request
+   * completed. Blocks while the maximum number of requests is in flight.
+   */
+  private boolean submitCall( Object[] r ) throws KettleException {
+    PostRequest request;
+    try {
+      request = createRequest( r );
+    } catch ( KettleException e ) {
+      return handleCallError( r, e );
     }
+    PoolStats poolStats = HttpClientManager.getInstance().getPoolStats();
+    if ( poolStats != null ) {
+      data.maximumPoolPending = Math.max( data.maximumPoolPending, poolStats.getPending() );
+    }
+    int inputRowSize = data.inputRowMeta.size();
+    return putCompletedCalls( data.outputRowMeta,
+      data.calls.submit( r, () -> sendRequest( data.httpClient, request, inputRowSize, r ) ) );
+  }
 
-    return true;
+  @Override
+  protected String getCallErrorMessage() {
+    return BaseMessages.getString( PKG, "HTTPPOST.ErrorInStepRunning" );
+  }
+
+  @Override
+  protected String getCallErrorCode() {
+    return "HTTPPOST001";
+  }
+
+  @Override
+  protected String getLineNumberMessage() {
+    return BaseMessages.getString( PKG, "HTTPPOST.LineNumber" );
   }
 
   @VisibleForTesting
@@ -537,6 +603,17 @@ public class HTTPPOST extends BaseStep implements StepInterface {
       data.realcloseIdleConnectionsTime =
         Const.toInt( environmentSubstitute( meta.getCloseIdleConnectionsTime() ), -1 );
 
+      // one client for all rows, the connections are pooled by HttpClientManager
+      data.httpClient = createHttpClient();
+      if ( meta.isAsynchronous() ) {
+        int concurrentRequests = Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ),
+          HTTPPOSTMeta.DEFAULT_CONCURRENT_REQUESTS );
+        data.calls = new AsyncCallWindow<>( concurrentRequests, meta.isPreserveOrder(), getStepname() );
+        if ( isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "HTTPPOST.Log.AsynchronousRequests", concurrentRequests ) );
+        }
+      }
+
       return true;
     }
     return false;
@@ -546,6 +623,21 @@ public class HTTPPOST extends BaseStep implements StepInterface {
     meta = (HTTPPOSTMeta) smi;
     data = (HTTPPOSTData) sdi;
 
+    if ( data.calls != null ) {
+      data.calls.close();
+      data.calls.snapMetrics( log );
+      log.snap( Metrics.METRIC_STEP_CALLS_POOL_PENDING, data.maximumPoolPending );
+      data.calls = null;
+    }
+    if ( data.httpClient != null ) {
+      try {
+        data.httpClient.close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "HTTPPOST.Log.UnableToCloseClient" ), e );
+      }
+      data.httpClient = null;
+    }
+
     super.dispose( smi, sdi );
   }
 }
@@ -63,6 +63,9 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
 
   public static final String DEFAULT_ENCODING = "UTF-8";
 
+  /** Default number of requests that wait for an answer at the same time in asynchronous mode */
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 8;
+
   private String socketTimeout;
   private String connectionTimeout;
   private String closeIdleConnectionsTime;
@@ -108,6 +111,15 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
 
   private String responseTimeFieldName;
 
+  /** Send the requests of a number of rows at the same time */
+  private boolean asynchronous;
+
+  /** The number of requests that wait for an answer at the same time in asynchronous mode */
+  private String concurrentRequests;
+
+  /** Pass the rows on in the order they came in, not in the order the answers come back */
+  private boolean preserveOrder;
+
   public HTTPPOSTMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -180,6 +192,51 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
     this.closeIdleConnectionsTime = closeIdleConnectionsTime;
   }
 
+  /**
+   * @return true if the requests of a number of rows are sent at the same time
+   */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /**
+   * @param asynchronous
+   *          send the requests of a number of rows at the same time
+   */
+  public void setAsynchronous( boolean asynchronous ) {
+    this.asynchronous = asynchronous;
+  }
+
+  /**
+   * @return the number of requests that wait for an answer at the same time in asynchronous mode
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests
+   *          the number of requests that wait for an answer at the same time in asynchronous mode
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return true if the rows are passed on in the order they came in
+   */
+  public boolean isPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /**
+   * @param preserveOrder
+   *          pass the rows on in the order they came in, not in the order the answers come back
+   */
+  public void setPreserveOrder( boolean preserveOrder ) {
+    this.preserveOrder = preserveOrder;
+  }
+
   /**
    * @return Returns the socketTimeout.
    */
@@ -370,6 +427,9 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
     socketTimeout = String.valueOf( DEFAULT_SOCKET_TIMEOUT );
     connectionTimeout = String.valueOf( DEFAULT_CONNECTION_TIMEOUT );
     closeIdleConnectionsTime = String.valueOf( DEFAULT_CLOSE_CONNECTIONS_TIME );
+    asynchronous = false;
+    concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    preserveOrder = true;
   }
 
   @Override
@@ -416,6 +476,9 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    " + XMLHandler.addTagValue( "socketTimeout", socketTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "connectionTimeout", connectionTimeout ) );
     retval.append( "    " + XMLHandler.addTagValue( "closeIdleConnectionsTime", closeIdleConnectionsTime ) );
+    retval.append( "    " + XMLHandler.addTagValue( "asynchronous", asynchronous ) );
+    retval.append( "    " + XMLHandler.addTagValue( "concurrentRequests", concurrentRequests ) );
+    retval.append( "    " + XMLHandler.addTagValue( "preserveOrder", preserveOrder ) );
 
     retval.append( "    <lookup>" + Const.CR );
 
@@ -461,6 +524,10 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
       socketTimeout = XMLHandler.getTagValue( stepnode, "socketTimeout" );
       connectionTimeout = XMLHandler.getTagValue( stepnode, "connectionTimeout" );
       closeIdleConnectionsTime = XMLHandler.getTagValue( stepnode, "closeIdleConnectionsTime" );
+      asynchronous = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "asynchronous" ) );
+      concurrentRequests = Const.NVL( XMLHandler.getTagValue( stepnode, "concurrentRequests" ),
+        String.valueOf( DEFAULT_CONCURRENT_REQUESTS ) );
+      preserveOrder = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserveOrder" ) );
 
       Node lookup = XMLHandler.getSubNode( stepnode, "lookup" );
 
@@ -509,6 +576,10 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
       socketTimeout = rep.getStepAttributeString( id_step, "socketTimeout" );
       connectionTimeout = rep.getStepAttributeString( id_step, "connectionTimeout" );
       closeIdleConnectionsTime = rep.getStepAttributeString( id_step, "closeIdleConnectionsTime" );
+      asynchronous = rep.getStepAttributeBoolean( id_step, "asynchronous" );
+      concurrentRequests = Const.NVL( rep.getStepAttributeString( id_step, "concurrentRequests" ),
+        String.valueOf( DEFAULT_CONCURRENT_REQUESTS ) );
+      preserveOrder = rep.getStepAttributeBoolean( id_step, 0, "preserveOrder", true );
 
       int nrargs = rep.countNrStepAttributes( id_step, "arg_name" );
       allocate( nrargs );
@@ -554,6 +625,9 @@ public class HTTPPOSTMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, "socketTimeout", socketTimeout );
       rep.saveStepAttribute( id_transformation, id_step, "connectionTimeout", connectionTimeout );
       rep.saveStepAttribute( id_transformation, id_step, "closeIdleConnectionsTime", closeIdleConnectionsTime );
+      rep.saveStepAttribute( id_transformation, id_step, "asynchronous", asynchronous );
+      rep.saveStepAttribute( id_transformation, id_step, "concurrentRequests", concurrentRequests );
+      rep.saveStepAttribute( id_transformation, id_step, "preserveOrder", preserveOrder );
 
       for ( int i = 0; i < argumentField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "arg_name", argumentField[i] );
@@ -45,6 +45,7 @@ import org.pentaho.di.trans.StepWithMappingMeta;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.PreparedInstancePool;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
@@ -91,6 +92,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
         if ( !data.groupBuffer.isEmpty() ) {
           executeJob();
         }
+        closePreparedJobPool();
         setOutputDone();
         return false;
       }
@@ -187,14 +189,17 @@ public class JobExecutor extends BaseStep implements StepInterface {
       discardLogLines( data );
     }
 
-    data.executorJob = createJob( meta.getRepository(), data.executorJobMeta, this );
+    // Take a job that was created ahead, if that is enabled
+    //
+    Job executorJob = takePreparedJob();
+    if ( executorJob == null ) {
+      executorJob = prepareJob();
+    }
+    data.executorJob = executorJob;
 
     data.executorJob.shareVariablesWith( data.executorJobMeta );
-    data.executorJob.setParentTrans( getTrans() );
-    data.executorJob.setLogLevel( getLogLevel() );
     data.executorJob.setInternalKettleVariables( this );
     data.executorJob.copyParametersFrom( data.executorJobMeta );
-    data.executorJob.setArguments( getTrans().getArguments() );
 
     // data.executorJob.setInteractive(); TODO: pass interactivity through the transformation too for drill-down.
 
@@ -348,6 +353,65 @@ public class JobExecutor extends BaseStep implements StepInterface {
     return new Job( repository, jobMeta, parentLogging );
   }
 
+  /**
+   * Create a job and set everything that doesn't depend on the variables. The variables and parameters are set on the
+   * step thread right before the job runs, since all the jobs share the variables of the job metadata.
+   */
+  @VisibleForTesting
+  Job prepareJob() {
+    Job executorJob = createJob( meta.getRepository(), data.executorJobMeta, this );
+    executorJob.setParentTrans( getTrans() );
+    executorJob.setLogLevel( getLogLevel() );
+    executorJob.setArguments( getTrans().getArguments() );
+    return executorJob;
+  }
+
+  /**
+   * Hand out the next job of the pool of jobs created ahead, creating the pool the first time. The jobs in the pool are
+   * created in the background while the previous one runs.
+   *
+   * @return the prepared job, or null if the job needs to be created for this group of rows
+   */
+  @VisibleForTesting
+  Job takePreparedJob() {
+    if ( data.preparedInstances <= 0 ) {
+      return null;
+    }
+    if ( data.preparedJobPool == null ) {
+      data.preparedJobPool = new PreparedInstancePool<>( data.preparedInstances, getStepname(), this::prepareJob,
+        this::disposePreparedJob );
+      data.preparedJobPool.start();
+    }
+
+    try {
+      return data.preparedJobPool.take();
+    } catch ( KettleException e ) {
+      if ( !isStopped() ) {
+        logError( BaseMessages.getString( PKG, "JobExecutor.Log.PreparedJobFailed" ), e );
+      }
+      closePreparedJobPool();
+      data.preparedInstances = 0;
+      return null;
+    }
+  }
+
+  private void disposePreparedJob( Job executorJob ) {
+    KettleLogStore.discardLines( executorJob.getLogChannelId(), true );
+  }
+
+  @VisibleForTesting
+  void closePreparedJobPool() {
+    PreparedInstancePool<Job> pool = data.preparedJobPool;
+    if ( pool != null && !pool.isClosed() ) {
+      pool.close();
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "JobExecutor.Log.PreparedJobStatistics",
+          String.valueOf( pool.getTaken() ), String.valueOf( pool.getWaited() ),
+          String.valueOf( pool.getWaitNanos() / 1000000L ) ) );
+      }
+    }
+  }
+
   @VisibleForTesting
   void discardLogLines( JobExecutorData data ) {
     // Keep the strain on the logging back-end conservative.
@@ -421,6 +485,13 @@ public class JobExecutor extends BaseStep implements StepInterface {
             data.groupField = environmentSubstitute( meta.getGroupField() );
           }
 
+          // How many jobs do we create ahead?
+          //
+          data.preparedInstances = 0;
+          if ( !Utils.isEmpty( meta.getPreparedInstances() ) ) {
+            data.preparedInstances = Const.toInt( environmentSubstitute( meta.getPreparedInstances() ), 0 );
+          }
+
           // That's all for now...
           return true;
         } else {
@@ -436,6 +507,7 @@ public class JobExecutor extends BaseStep implements StepInterface {
   }
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    closePreparedJobPool();
     data.groupBuffer = null;
 
     super.dispose( smi, sdi );
@@ -448,6 +520,9 @@ public class JobExecutor extends BaseStep implements StepInterface {
   }
 
   public void stopAll() {
+    // Don't create any more jobs
+    closePreparedJobPool();
+
     // Stop the job execution.
     if ( data.executorJob != null ) {
       data.executorJob.stopAll();
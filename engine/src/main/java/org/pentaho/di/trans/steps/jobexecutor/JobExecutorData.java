@@ -22,6 +22,7 @@ import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.job.Job;
 import org.pentaho.di.job.JobMeta;
 import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.PreparedInstancePool;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 /**
@@ -45,6 +46,8 @@ public class JobExecutorData extends BaseStepData implements StepDataInterface {
   public int groupFieldIndex;
   public ValueMetaInterface groupFieldMeta;
   public Object prevGroupFieldData;
+  public int preparedInstances;
+  public PreparedInstancePool<Job> preparedJobPool;
   public RowSet resultRowsRowSet;
   public RowSet resultFilesRowSet;
   public RowSet executionResultRowSet;
@@ -105,6 +105,12 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
    */
   private String groupTime;
 
+  /**
+   * Optional number of jobs that are created and initialized ahead, in the background, while the current one
+   * runs (empty default, "0": prepare every job when a group of rows is complete)
+   */
+  private String preparedInstances;
+
   private JobExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -218,6 +224,7 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "prepared_instances", preparedInstances ) );
 
     // Add the mapping parameters too
     //
@@ -290,6 +297,7 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      preparedInstances = XMLHandler.getTagValue( stepnode, "prepared_instances" );
 
       // Load the mapping parameters too..
       //
@@ -353,6 +361,7 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     groupSize = rep.getStepAttributeString( id_step, "group_size" );
     groupField = rep.getStepAttributeString( id_step, "group_field" );
     groupTime = rep.getStepAttributeString( id_step, "group_time" );
+    preparedInstances = rep.getStepAttributeString( id_step, "prepared_instances" );
 
     parameters = new JobExecutorParameters( rep, id_step );
 
@@ -404,6 +413,7 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     rep.saveStepAttribute( id_transformation, id_step, "group_size", groupSize );
     rep.saveStepAttribute( id_transformation, id_step, "group_field", groupField );
     rep.saveStepAttribute( id_transformation, id_step, "group_time", groupTime );
+    rep.saveStepAttribute( id_transformation, id_step, "prepared_instances", preparedInstances );
 
     // save the mapping parameters too
     //
@@ -465,6 +475,7 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    preparedInstances = "";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1347,6 +1358,20 @@ public class JobExecutorMeta extends BaseStepMeta implements StepMetaInterface,
     this.groupTime = groupTime;
   }
 
+  /**
+   * @return the number of jobs to prepare ahead
+   */
+  public String getPreparedInstances() {
+    return preparedInstances;
+  }
+
+  /**
+   * @param preparedInstances the number of jobs to prepare ahead
+   */
+  public void setPreparedInstances( String preparedInstances ) {
+    this.preparedInstances = preparedInstances;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
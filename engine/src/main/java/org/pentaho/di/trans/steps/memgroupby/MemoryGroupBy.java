@@ -14,10 +14,15 @@
 package org.pentaho.di.trans.steps.memgroupby;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.math.stat.descriptive.rank.Percentile;
@@ -34,6 +39,7 @@ import org.pentaho.di.core.row.value.ValueMetaBase;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaNumber;
 import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -43,6 +49,7 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByData.HashEntry;
+import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByData.PartialAggregates;
 
 /**
  * Groups information based on aggregation rules. (sum, count, ...)
@@ -76,12 +83,15 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
     Object[] r = getRow(); // get row!
 
-    if ( first ) {
-      if ( ( r == null ) && ( !meta.isAlwaysGivingBackOneRow() ) ) {
-        setOutputDone();
-        return false;
-      }
+    if ( r == null && data.mergingCopies && getCopy() > 0 ) {
+      // The first copy outputs the groups of all copies, hand over what we have
+      //
+      handOverPartialAggregates();
+      setOutputDone();
+      return false;
+    }
 
+    if ( first ) {
       String val = getVariable( Const.KETTLE_AGGREGATION_ALL_NULLS_ARE_ZERO, "N" );
       allNullsAreZero = ValueMetaBase.convertStringToBoolean( val );
       val = getVariable( Const.KETTLE_AGGREGATION_MIN_NULL_IS_VALUED, "N" );
@@ -89,6 +99,29 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
       compatibilityMode = ValueMetaBase.convertStringToBoolean(
         getVariable( Const.KETTLE_COMPATIBILITY_MEMORY_GROUP_BY_SUM_AVERAGE_RETURN_NUMBER_TYPE, "N" ) );
 
+      if ( r == null && data.mergingCopies ) {
+        // We didn't get any rows ourselves but the other copies might have.
+        // In that case we take the layout from one of those.
+        //
+        if ( !waitForPartialAggregates() ) {
+          return false;
+        }
+        if ( adoptPartialAggregatesLayout() ) {
+          first = false;
+          mergePartialAggregates();
+          updateValueMeta();
+          handleLastOfGroup();
+
+          setOutputDone();
+          return false;
+        }
+      }
+
+      if ( ( r == null ) && ( !meta.isAlwaysGivingBackOneRow() ) ) {
+        setOutputDone();
+        return false;
+      }
+
       // What is the output looking like?
       //
       data.inputRowMeta = getInputRowMeta();
@@ -168,6 +201,13 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     //
     if ( r == null ) { // no more input to be expected... (or none received in the first place)
 
+      if ( data.mergingCopies ) {
+        if ( !waitForPartialAggregates() ) {
+          return false;
+        }
+        mergePartialAggregates();
+      }
+
       updateValueMeta();
       handleLastOfGroup();
 
@@ -192,27 +232,24 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
   }
 
   private void handleLastOfGroup() throws KettleException {
-    // Dump the content of the map...
-    //
-    for ( HashEntry entry : data.map.keySet() ) {
-      Aggregate aggregate = data.map.get( entry );
-      Object[] aggregateResult = getAggregateResult( aggregate );
+    boolean hasGroups = !data.map.isEmpty();
 
-      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
-      int index = 0;
-      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
-        outputRowData[index++] = data.groupMeta.getValueMeta( i ).convertToNormalStorageType( entry.getGroupData()[i] );
-      }
-      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
-        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
-      }
-      putRow( data.outputRowMeta, outputRowData );
+    if ( data.spills.isEmpty() ) {
+      // Dump the content of the map...
+      //
+      outputGroups( data.map );
+    } else {
+      // Part of the groups is on disk: write the rest as well and aggregate one partition at a time
+      //
+      hasGroups = true;
+      spillGroups();
+      outputSpilledGroups();
     }
 
     // What if we always need to give back one row?
     // This means we give back 0 for count all, count distinct, null for everything else
     //
-    if ( data.map.isEmpty() && meta.isAlwaysGivingBackOneRow() ) {
+    if ( !hasGroups && meta.isAlwaysGivingBackOneRow() ) {
       Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
       int index = 0;
       for ( int i = 0; i < data.groupMeta.size(); i++ ) {
@@ -231,6 +268,202 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
     }
   }
 
+  private void outputGroups( Map<HashEntry, Aggregate> groups ) throws KettleException {
+    for ( Map.Entry<HashEntry, Aggregate> group : groups.entrySet() ) {
+      Object[] aggregateResult = getAggregateResult( group.getValue() );
+
+      Object[] outputRowData = RowDataUtil.allocateRowData( data.outputRowMeta.size() );
+      int index = 0;
+      for ( int i = 0; i < data.groupMeta.size(); i++ ) {
+        outputRowData[index++] =
+          data.groupMeta.getValueMeta( i ).convertToNormalStorageType( group.getKey().getGroupData()[i] );
+      }
+      for ( int i = 0; i < data.aggMeta.size(); i++ ) {
+        outputRowData[index++] = data.aggMeta.getValueMeta( i ).convertToNormalStorageType( aggregateResult[i] );
+      }
+      putRow( data.outputRowMeta, outputRowData );
+    }
+  }
+
+  /**
+   * Writes the groups in memory to disk when there are more of them than the configured maximum.
+   */
+  private void spillGroupsWhenFull() throws KettleException {
+    if ( data.maxGroupsInMemory > 0 && data.map.size() >= data.maxGroupsInMemory ) {
+      spillGroups();
+    }
+  }
+
+  private void spillGroups() throws KettleException {
+    if ( data.spill == null ) {
+      data.spill = createSpill( 0 );
+      data.spills.add( data.spill );
+    }
+    spillGroups( data.map, data.spill );
+  }
+
+  private void spillGroups( Map<HashEntry, Aggregate> groups, MemoryGroupBySpill spill ) throws KettleException {
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.SpillingGroups", String.valueOf( groups
+        .size() ) ) );
+    }
+    for ( Map.Entry<HashEntry, Aggregate> group : groups.entrySet() ) {
+      spill.write( group.getKey(), group.getValue() );
+    }
+    groups.clear();
+  }
+
+  private MemoryGroupBySpill createSpill( int level ) {
+    return new MemoryGroupBySpill( KettleVFS.getInstance( getTransMeta().getBowl() ),
+      environmentSubstitute( meta.getDirectory() ), environmentSubstitute( meta.getPrefix() ), getTransMeta(), level );
+  }
+
+  private void outputSpilledGroups() throws KettleException {
+    try {
+      outputSpilledGroups( data.spills );
+    } finally {
+      data.spills.clear();
+      data.spill = null;
+    }
+  }
+
+  /**
+   * Aggregates the spilled groups one partition at a time. A group is in the same partition in every spill so only
+   * the groups of one partition need to be kept in memory. A partition that holds more groups than fit in memory is
+   * split over the partitions of a new spill on the next level first. The spills are removed afterwards.
+   */
+  private void outputSpilledGroups( List<MemoryGroupBySpill> spills ) throws KettleException {
+    Map<HashEntry, Aggregate> groups = new HashMap<>();
+    int level = spills.get( 0 ).getLevel();
+    try {
+      for ( int partition = 0; partition < MemoryGroupBySpill.NR_PARTITIONS && !isStopped(); partition++ ) {
+        long nrGroups = 0L;
+        for ( MemoryGroupBySpill groupSpill : spills ) {
+          nrGroups += groupSpill.getNrGroups( partition );
+        }
+        MemoryGroupBySpill split = null;
+        if ( data.maxGroupsInMemory > 0 && nrGroups > data.maxGroupsInMemory && level < MemoryGroupBySpill.MAX_LEVEL ) {
+          split = createSpill( level + 1 );
+        }
+        for ( MemoryGroupBySpill groupSpill : spills ) {
+          MemoryGroupBySpill target = split;
+          groupSpill.read( partition, ( groupData, aggregate ) -> {
+            HashEntry entry = data.getHashEntry( groupData );
+            Aggregate existing = groups.get( entry );
+            if ( existing == null ) {
+              groups.put( entry, aggregate );
+              if ( target != null && groups.size() >= data.maxGroupsInMemory ) {
+                spillGroups( groups, target );
+              }
+            } else {
+              mergeAggregate( existing, aggregate );
+            }
+          } );
+          groupSpill.delete( partition );
+        }
+        if ( split == null ) {
+          outputGroups( groups );
+          groups.clear();
+        } else {
+          spillGroups( groups, split );
+          outputSpilledGroups( Collections.singletonList( split ) );
+        }
+      }
+    } finally {
+      for ( MemoryGroupBySpill groupSpill : spills ) {
+        groupSpill.delete();
+      }
+    }
+  }
+
+  /**
+   * Hands the groups of this copy over to the first copy, which outputs the groups of all copies.
+   */
+  private void handOverPartialAggregates() throws KettleException {
+    StepInterface firstCopy = getTrans().findStepInterface( getStepname(), 0 );
+    if ( !( firstCopy instanceof MemoryGroupBy ) ) {
+      throw new KettleException( BaseMessages.getString( PKG, "MemoryGroupBy.Exception.FirstCopyNotFound" ) );
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MemoryGroupBy.Log.HandingOverGroups", String.valueOf( data.map
+        .size() ) ) );
+    }
+    ( (MemoryGroupBy) firstCopy ).receivePartialAggregates( new PartialAggregates( getCopy(), data, !first ) );
+
+    // The first copy owns our spilled groups now
+    //
+    data.spills.clear();
+    data.spill = null;
+  }
+
+  void receivePartialAggregates( PartialAggregates partial ) {
+    data.partials.add( partial );
+  }
+
+  /**
+   * Waits until all other copies handed over their groups.
+   *
+   * @return false if the transformation was stopped while waiting
+   */
+  private boolean waitForPartialAggregates() {
+    while ( data.receivedPartials.size() < data.nrCopies - 1 ) {
+      if ( isStopped() ) {
+        return false;
+      }
+      try {
+        PartialAggregates partial = data.partials.poll( 100, TimeUnit.MILLISECONDS );
+        if ( partial != null ) {
+          data.receivedPartials.add( partial );
+        }
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+        return false;
+      }
+    }
+    // Merge in copy order, that is as close as we get to the row order for first, last and concatenations
+    //
+    data.receivedPartials.sort( Comparator.comparingInt( partial -> partial.copyNr ) );
+    return true;
+  }
+
+  /**
+   * When this copy received no rows it has no layout to work with, take it from a copy that did.
+   */
+  private boolean adoptPartialAggregatesLayout() {
+    for ( PartialAggregates partial : data.receivedPartials ) {
+      if ( partial.hasRows ) {
+        data.inputRowMeta = partial.data.inputRowMeta;
+        data.outputRowMeta = partial.data.outputRowMeta;
+        data.subjectnrs = partial.data.subjectnrs;
+        data.groupnrs = partial.data.groupnrs;
+        data.groupMeta = partial.data.groupMeta;
+        data.entryMeta = partial.data.entryMeta;
+        data.aggMeta = partial.data.aggMeta;
+        data.groupAggMeta = partial.data.groupAggMeta;
+        data.valueMetaInteger = partial.data.valueMetaInteger;
+        data.valueMetaNumber = partial.data.valueMetaNumber;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void mergePartialAggregates() throws KettleException {
+    for ( PartialAggregates partial : data.receivedPartials ) {
+      for ( Map.Entry<HashEntry, Aggregate> group : partial.map.entrySet() ) {
+        Aggregate aggregate = data.map.get( group.getKey() );
+        if ( aggregate == null ) {
+          data.map.put( group.getKey(), group.getValue() );
+          spillGroupsWhenFull();
+        } else {
+          mergeAggregate( aggregate, group.getValue() );
+        }
+      }
+      data.spills.addAll( partial.spills );
+    }
+    data.receivedPartials.clear();
+  }
+
   @VisibleForTesting
   void updateValueMeta() throws KettleException {
 
@@ -402,6 +635,130 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
           break;
       }
     }
+
+    spillGroupsWhenFull();
+  }
+
+  /**
+   * Combines the partial aggregate of a group, built from another part of the rows, into the aggregate of the group.
+   * Used when merging the groups of several step copies and when reading back spilled groups.
+   *
+   * @param aggregate
+   * @param partial
+   * @throws KettleException
+   */
+  @SuppressWarnings( "unchecked" ) void mergeAggregate( Aggregate aggregate, Aggregate partial ) throws KettleException {
+    for ( int i = 0; i < data.subjectnrs.length; i++ ) {
+      Object value = aggregate.agg[i];
+      Object other = partial.agg[i];
+      ValueMetaInterface valueMeta = data.aggMeta.getValueMeta( i );
+
+      switch ( meta.getAggregateType()[i] ) {
+        case MemoryGroupByMeta.TYPE_GROUP_SUM:
+          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, valueMeta, other );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_AVERAGE:
+          aggregate.agg[i] = ValueDataUtil.sum( valueMeta, value, valueMeta, other );
+          aggregate.counts[i] += partial.counts[i];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MEDIAN:
+        case MemoryGroupByMeta.TYPE_GROUP_PERCENTILE:
+          // Exact: all values of the group are kept. The maximum groups in memory doesn't limit the size of these lists
+          ( (List<Double>) value ).addAll( (List<Double>) other );
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION:
+          // Combine the running means and sums of squared differences (Chan et al.)
+          long countA = aggregate.counts[i];
+          long countB = partial.counts[i];
+          if ( countB == 0 ) {
+            break;
+          }
+          if ( aggregate.mean == null ) {
+            aggregate.mean = new double[meta.getSubjectField().length];
+          }
+          if ( countA == 0 ) {
+            aggregate.agg[i] = other;
+            aggregate.mean[i] = partial.mean[i];
+            aggregate.counts[i] = countB;
+            break;
+          }
+          double count = countA + countB;
+          double delta = partial.mean[i] - aggregate.mean[i];
+          double sumA = value == null ? 0.0 : (Double) value;
+          double sumB = other == null ? 0.0 : (Double) other;
+
+          aggregate.mean[i] = aggregate.mean[i] + delta * countB / count;
+          aggregate.agg[i] = sumA + sumB + delta * delta * countA * countB / count;
+          aggregate.counts[i] = countA + countB;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT:
+          if ( partial.distinctObjs != null && partial.distinctObjs[i] != null ) {
+            if ( aggregate.distinctObjs == null ) {
+              aggregate.distinctObjs = new Set[meta.getSubjectField().length];
+            }
+            if ( aggregate.distinctObjs[i] == null ) {
+              aggregate.distinctObjs[i] = new TreeSet<>();
+            }
+            aggregate.distinctObjs[i].addAll( partial.distinctObjs[i] );
+            aggregate.counts[i] = aggregate.distinctObjs[i].size();
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL:
+        case MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY:
+          aggregate.counts[i] += partial.counts[i];
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MIN:
+          boolean otherIsNull = valueMeta.isNull( other );
+          boolean valueIsNull = valueMeta.isNull( value );
+          if ( minNullIsValued || ( !otherIsNull && !valueIsNull ) ) {
+            aggregate.agg[i] = valueMeta.compare( other, valueMeta, value ) < 0 ? other : value;
+          } else if ( valueIsNull && !otherIsNull ) {
+            aggregate.agg[i] = other;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_MAX:
+          if ( valueMeta.compare( other, valueMeta, value ) > 0 ) {
+            aggregate.agg[i] = other;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST:
+          if ( !valueMeta.isNull( other ) && value == null ) {
+            aggregate.agg[i] = other;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_LAST:
+          if ( !valueMeta.isNull( other ) ) {
+            aggregate.agg[i] = other;
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_FIRST_INCL_NULL:
+          if ( aggregate.counts[i] == 0 && partial.counts[i] > 0 ) {
+            aggregate.agg[i] = other;
+            aggregate.counts[i] = partial.counts[i];
+          }
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_LAST_INCL_NULL:
+          aggregate.agg[i] = other;
+          break;
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA:
+        case MemoryGroupByMeta.TYPE_GROUP_CONCAT_STRING:
+          StringBuilder sb = (StringBuilder) value;
+          StringBuilder otherSb = (StringBuilder) other;
+          if ( otherSb.length() > 0 ) {
+            if ( sb.length() > 0 ) {
+              if ( meta.getAggregateType()[i] == MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA ) {
+                sb.append( ", " );
+              } else if ( !Utils.isEmpty( meta.getValueField()[i] ) ) {
+                sb.append( environmentSubstitute( meta.getValueField()[i] ) );
+              }
+            }
+            sb.append( otherSb );
+          }
+          break;
+        default:
+          break;
+      }
+    }
   }
 
   /**
@@ -575,6 +932,16 @@ public class MemoryGroupBy extends BaseStep implements StepInterface {
 
     if ( super.init( smi, sdi ) ) {
       data.map = new HashMap<HashEntry, Aggregate>( 5000 );
+
+      data.maxGroupsInMemory = Const.toInt( environmentSubstitute( meta.getSpillSize() ), 0 );
+      if ( meta.isMergingCopies() ) {
+        List<StepInterface> copies = getTrans().findStepInterfaces( getStepname() );
+        data.nrCopies = copies == null ? 1 : copies.size();
+        data.mergingCopies = data.nrCopies > 1;
+        if ( data.mergingCopies && getCopy() == 0 ) {
+          data.partials = new LinkedBlockingQueue<>();
+        }
+      }
       return true;
     }
     return false;
@@ -13,7 +13,11 @@
 
 package org.pentaho.di.trans.steps.memgroupby;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
 
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
@@ -90,6 +94,39 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
 
   public boolean newBatch;
 
+  /** True if the step copies merge their groups in the first copy, see MemoryGroupByMeta#isMergingCopies() */
+  public boolean mergingCopies;
+  public int nrCopies;
+
+  /** The partial aggregates handed over by the other copies, only used in the first copy */
+  BlockingQueue<PartialAggregates> partials;
+  List<PartialAggregates> receivedPartials = new ArrayList<>();
+
+  /** Spill groups to disk once there are this many in memory, 0 to never spill */
+  public int maxGroupsInMemory;
+  MemoryGroupBySpill spill;
+  List<MemoryGroupBySpill> spills = new ArrayList<>();
+
+  /**
+   * The groups one step copy built from its share of the input rows, handed over to the first copy when all its rows
+   * are read.
+   */
+  static class PartialAggregates {
+    final int copyNr;
+    final MemoryGroupByData data;
+    final Map<HashEntry, Aggregate> map;
+    final List<MemoryGroupBySpill> spills;
+    final boolean hasRows;
+
+    PartialAggregates( int copyNr, MemoryGroupByData data, boolean hasRows ) {
+      this.copyNr = copyNr;
+      this.data = data;
+      this.map = data.map;
+      this.spills = new ArrayList<>( data.spills );
+      this.hasRows = hasRows;
+    }
+  }
+
   public MemoryGroupByData() {
     super();
 
@@ -104,5 +141,18 @@ public class MemoryGroupByData extends BaseStepData implements StepDataInterface
    */
   public void clear() {
     map = new HashMap<MemoryGroupByData.HashEntry, Aggregate>();
+
+    if ( partials != null ) {
+      partials.drainTo( receivedPartials );
+    }
+    for ( PartialAggregates partial : receivedPartials ) {
+      spills.addAll( partial.spills );
+    }
+    receivedPartials.clear();
+    for ( MemoryGroupBySpill groupSpill : spills ) {
+      groupSpill.delete();
+    }
+    spills.clear();
+    spill = null;
   }
 }
@@ -138,6 +138,22 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   /** Flag to indicate that we always give back one row. Defaults to true for existing transformations. */
   private boolean alwaysGivingBackOneRow;
 
+  @Injection( name = "MERGING_COPIES" )
+  /** Flag to indicate that the copies of the step aggregate their share of the rows and merge the groups afterwards */
+  private boolean mergingCopies;
+
+  @Injection( name = "SPILL_SIZE" )
+  /** The maximum number of groups kept in memory before they are written to disk, empty for no maximum */
+  private String spillSize;
+
+  @Injection( name = "DIRECTORY" )
+  /** Directory to store the spilled groups in */
+  private String directory;
+
+  @Injection( name = "PREFIX" )
+  /** Prefix of the temporary files holding spilled groups */
+  private String prefix;
+
   public MemoryGroupByMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -281,6 +297,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       } else {
         alwaysGivingBackOneRow = "Y".equalsIgnoreCase( giveBackRow );
       }
+
+      mergingCopies = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "merge_copies" ) );
+      spillSize = XMLHandler.getTagValue( stepnode, "spill_size" );
+      directory = Const.NVL( XMLHandler.getTagValue( stepnode, "directory" ), "%%java.io.tmpdir%%" );
+      prefix = Const.NVL( XMLHandler.getTagValue( stepnode, "prefix" ), "grp" );
     } catch ( Exception e ) {
       throw new KettleXMLException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnableToLoadStepInfoFromXML" ), e );
@@ -321,6 +342,11 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     int nrfields = 0;
 
     allocate( sizegroup, nrfields );
+
+    mergingCopies = false;
+    spillSize = null;
+    directory = "%%java.io.tmpdir%%";
+    prefix = "grp";
   }
 
   @Override
@@ -437,6 +463,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     StringBuilder retval = new StringBuilder( 500 );
 
     retval.append( "      " ).append( XMLHandler.addTagValue( "give_back_row", alwaysGivingBackOneRow ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "merge_copies", mergingCopies ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "spill_size", spillSize ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "directory", directory ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "prefix", prefix ) );
 
     retval.append( "      <group>" ).append( Const.CR );
     for ( int i = 0; i < groupField.length; i++ ) {
@@ -486,6 +516,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
       }
 
       alwaysGivingBackOneRow = rep.getStepAttributeBoolean( id_step, 0, "give_back_row", hasNumberOfValues );
+      mergingCopies = rep.getStepAttributeBoolean( id_step, "merge_copies" );
+      spillSize = rep.getStepAttributeString( id_step, "spill_size" );
+      directory = Const.NVL( rep.getStepAttributeString( id_step, "directory" ), "%%java.io.tmpdir%%" );
+      prefix = Const.NVL( rep.getStepAttributeString( id_step, "prefix" ), "grp" );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString(
         PKG, "MemoryGroupByMeta.Exception.UnexpectedErrorInReadingStepInfoFromRepository" ), e );
@@ -496,6 +530,10 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
   public void saveRep( Repository rep, IMetaStore metaStore, ObjectId id_transformation, ObjectId id_step ) throws KettleException {
     try {
       rep.saveStepAttribute( id_transformation, id_step, "give_back_row", alwaysGivingBackOneRow );
+      rep.saveStepAttribute( id_transformation, id_step, "merge_copies", mergingCopies );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_size", spillSize );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
+      rep.saveStepAttribute( id_transformation, id_step, "prefix", prefix );
 
       for ( int i = 0; i < groupField.length; i++ ) {
         rep.saveStepAttribute( id_transformation, id_step, i, "group_name", groupField[i] );
@@ -531,6 +569,36 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
           PKG, "MemoryGroupByMeta.CheckResult.NoInputError" ), stepMeta );
       remarks.add( cr );
     }
+
+    if ( mergingCopies ) {
+      for ( int type : aggregateType ) {
+        if ( isOrderDependent( type ) ) {
+          cr =
+            new CheckResult( CheckResultInterface.TYPE_RESULT_WARNING, BaseMessages.getString(
+              PKG, "MemoryGroupByMeta.CheckResult.OrderDependentMerge" ), stepMeta );
+          remarks.add( cr );
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * @return true if the result of the aggregation type depends on the order of the rows: first, last and concatenation.
+   *         When the step copies merge their groups these follow the order of the copies, not of the rows.
+   */
+  public static boolean isOrderDependent( int aggregateType ) {
+    switch ( aggregateType ) {
+      case TYPE_GROUP_FIRST:
+      case TYPE_GROUP_LAST:
+      case TYPE_GROUP_FIRST_INCL_NULL:
+      case TYPE_GROUP_LAST_INCL_NULL:
+      case TYPE_GROUP_CONCAT_COMMA:
+      case TYPE_GROUP_CONCAT_STRING:
+        return true;
+      default:
+        return false;
+    }
   }
 
   @Override
@@ -559,6 +627,68 @@ public class MemoryGroupByMeta extends BaseStepMeta implements StepMetaInterface
     this.alwaysGivingBackOneRow = alwaysGivingBackOneRow;
   }
 
+  /**
+   * @return true if the copies of the step each aggregate their share of the rows, after which the first copy merges
+   *         the groups of all copies and outputs them. This avoids repartitioning the rows on the group fields.
+   */
+  public boolean isMergingCopies() {
+    return mergingCopies;
+  }
+
+  /**
+   * @param mergingCopies
+   *          true to have the first copy merge the groups of all copies of the step
+   */
+  public void setMergingCopies( boolean mergingCopies ) {
+    this.mergingCopies = mergingCopies;
+  }
+
+  /**
+   * @return the maximum number of groups kept in memory before they are written to disk, empty or 0 to keep all groups
+   *         in memory
+   */
+  public String getSpillSize() {
+    return spillSize;
+  }
+
+  /**
+   * @param spillSize
+   *          the maximum number of groups kept in memory before they are written to disk
+   */
+  public void setSpillSize( String spillSize ) {
+    this.spillSize = spillSize;
+  }
+
+  /**
+   * @return the directory to store the spilled groups in
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory
+   *          the directory to store the spilled groups in
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the prefix of the temporary files holding spilled groups
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @param prefix
+   *          the prefix of the temporary files holding spilled groups
+   */
+  public void setPrefix( String prefix ) {
+    this.prefix = prefix;
+  }
+
   /**
    * If we use injection we can have different arrays lengths.
    * We need synchronize them for consistency behavior with UI
@@ -0,0 +1,207 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Set;
+
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.IKettleVFS;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByData.HashEntry;
+
+/**
+ * Keeps the groups that no longer fit in memory in temporary files. The groups are spread over a fixed number of
+ * partitions by the hash code of their group key, so every spill of every step copy writes a given group to the same
+ * partition. Once all input is read the partitions can be aggregated one at a time, each needing only a fraction of
+ * the memory of the complete set of groups.<br>
+ * <br>
+ * A partition with more groups than fit in memory is spilled again on the next level, which spreads the groups on the
+ * next bits of their hash code. The last level uses the last bits: groups with the same hash code can't be split.
+ *
+ * @since 11.0
+ */
+class MemoryGroupBySpill {
+  private static Class<?> PKG = MemoryGroupByMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private static final int PARTITION_BITS = 4;
+
+  static final int NR_PARTITIONS = 1 << PARTITION_BITS;
+
+  static final int MAX_LEVEL = Integer.SIZE / PARTITION_BITS - 1;
+
+  /**
+   * Receives the groups read back from a partition.
+   */
+  interface GroupHandler {
+    void handle( Object[] groupData, Aggregate aggregate ) throws KettleException;
+  }
+
+  private final IKettleVFS vfs;
+  private final String directory;
+  private final String prefix;
+  private final VariableSpace space;
+  private final int level;
+
+  private final FileObject[] files = new FileObject[ NR_PARTITIONS ];
+  private final ObjectOutputStream[] outputs = new ObjectOutputStream[ NR_PARTITIONS ];
+  private final long[] nrGroups = new long[ NR_PARTITIONS ];
+
+  MemoryGroupBySpill( IKettleVFS vfs, String directory, String prefix, VariableSpace space ) {
+    this( vfs, directory, prefix, space, 0 );
+  }
+
+  /**
+   * @param level
+   *          0 for the groups spilled while reading the input, higher to split the partition of a lower level
+   */
+  MemoryGroupBySpill( IKettleVFS vfs, String directory, String prefix, VariableSpace space, int level ) {
+    this.vfs = vfs;
+    this.directory = directory;
+    this.prefix = prefix;
+    this.space = space;
+    this.level = level;
+  }
+
+  static int getPartition( HashEntry entry ) {
+    return getPartition( entry, 0 );
+  }
+
+  static int getPartition( HashEntry entry, int level ) {
+    // use the high bits of a scrambled hash first: the low bits still have to spread the groups of one partition in a
+    // map
+    int hash = ( entry.hashCode() * 0x9E3779B9 ) << ( level * PARTITION_BITS );
+    return hash >>> ( 32 - PARTITION_BITS );
+  }
+
+  int getLevel() {
+    return level;
+  }
+
+  /**
+   * Appends a group with its (partial) aggregate to the partition of the group. All groups have to be written before
+   * the first partition is read back.
+   */
+  void write( HashEntry entry, Aggregate aggregate ) throws KettleException {
+    int partition = getPartition( entry, level );
+    try {
+      ObjectOutputStream output = outputs[ partition ];
+      if ( output == null ) {
+        files[ partition ] = vfs.createTempFile( prefix, ".tmp", directory, space );
+        output = new ObjectOutputStream( new BufferedOutputStream(
+          vfs.getOutputStream( files[ partition ], false ), 50000 ) );
+        outputs[ partition ] = output;
+      }
+      output.writeObject( entry.getGroupData() );
+      output.writeObject( aggregate.agg );
+      output.writeObject( aggregate.counts );
+      output.writeObject( aggregate.distinctObjs );
+      output.writeObject( aggregate.mean );
+      // don't let the stream hold on to everything that was written
+      output.reset();
+      nrGroups[ partition ]++;
+    } catch ( IOException e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "MemoryGroupBy.Exception.UnableToSpillGroups" ), e );
+    }
+  }
+
+  /**
+   * Reads back all groups of a partition, in the order in which they were written.
+   */
+  @SuppressWarnings( "unchecked" )
+  void read( int partition, GroupHandler handler ) throws KettleException {
+    if ( files[ partition ] == null ) {
+      return;
+    }
+    closeOutput( partition );
+    try ( ObjectInputStream input = new ObjectInputStream(
+      new BufferedInputStream( KettleVFS.getInputStream( files[ partition ] ), 50000 ) ) ) {
+      for ( long i = 0; i < nrGroups[ partition ]; i++ ) {
+        Object[] groupData = (Object[]) input.readObject();
+        Aggregate aggregate = new Aggregate();
+        aggregate.agg = (Object[]) input.readObject();
+        aggregate.counts = (long[]) input.readObject();
+        aggregate.distinctObjs = (Set<Object>[]) input.readObject();
+        aggregate.mean = (double[]) input.readObject();
+        handler.handle( groupData, aggregate );
+      }
+    } catch ( IOException | ClassNotFoundException e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "MemoryGroupBy.Exception.UnableToReadSpilledGroups", files[ partition ].getName().getURI() ), e );
+    }
+  }
+
+  /**
+   * @return the number of groups written to a partition, a group spilled more than once counts more than once
+   */
+  long getNrGroups( int partition ) {
+    return nrGroups[ partition ];
+  }
+
+  long getNrGroups() {
+    long total = 0L;
+    for ( long nr : nrGroups ) {
+      total += nr;
+    }
+    return total;
+  }
+
+  private void closeOutput( int partition ) throws KettleException {
+    if ( outputs[ partition ] != null ) {
+      try {
+        outputs[ partition ].close();
+      } catch ( IOException e ) {
+        throw new KettleException( BaseMessages.getString( PKG, "MemoryGroupBy.Exception.UnableToSpillGroups" ), e );
+      } finally {
+        outputs[ partition ] = null;
+      }
+    }
+  }
+
+  /**
+   * Closes and removes all temporary files.
+   */
+  void delete() {
+    for ( int partition = 0; partition < NR_PARTITIONS; partition++ ) {
+      delete( partition );
+    }
+  }
+
+  /**
+   * Closes and removes the temporary file of a partition that was read back.
+   */
+  void delete( int partition ) {
+    try {
+      closeOutput( partition );
+    } catch ( KettleException e ) {
+      // we're throwing the file away anyway
+    }
+    if ( files[ partition ] != null ) {
+      try {
+        files[ partition ].delete();
+      } catch ( IOException e ) {
+        // best effort, the file lives in a temporary folder
+      }
+      files[ partition ] = null;
+    }
+    nrGroups[ partition ] = 0L;
+  }
+}
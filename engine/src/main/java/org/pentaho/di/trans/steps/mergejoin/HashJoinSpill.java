@@ -0,0 +1,157 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.mergejoin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.commons.vfs2.FileObject;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleFileException;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.variables.VariableSpace;
+import org.pentaho.di.core.vfs.IKettleVFS;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.i18n.BaseMessages;
+
+/**
+ * Keeps the rows of both inputs of a hash join in temporary files once they no longer fit in memory. The rows are
+ * spread over a fixed number of partitions by the hash code of their join key, so matching rows of both inputs always
+ * end up in the same partition. Once all input is read the partitions can be joined one at a time, each needing only
+ * a fraction of the memory of the complete inputs.
+ *
+ * @since 11.0
+ */
+class HashJoinSpill {
+  private static Class<?> PKG = MergeJoinMeta.class; // for i18n purposes, needed by Translator2!!
+
+  private static final int PARTITION_BITS = 4;
+
+  static final int NR_PARTITIONS = 1 << PARTITION_BITS;
+
+  /**
+   * Receives the rows read back from a partition.
+   */
+  interface RowHandler {
+    void handle( Object[] row ) throws KettleException;
+  }
+
+  private final IKettleVFS vfs;
+  private final String directory;
+  private final String prefix;
+  private final VariableSpace space;
+
+  private final FileObject[][] files = new FileObject[ 2 ][ NR_PARTITIONS ];
+  private final DataOutputStream[][] outputs = new DataOutputStream[ 2 ][ NR_PARTITIONS ];
+  private final long[][] nrRows = new long[ 2 ][ NR_PARTITIONS ];
+
+  HashJoinSpill( IKettleVFS vfs, String directory, String prefix, VariableSpace space ) {
+    this.vfs = vfs;
+    this.directory = directory;
+    this.prefix = prefix;
+    this.space = space;
+  }
+
+  static int getPartition( int hashCode ) {
+    // use the high bits of a scrambled hash: the low bits already picked the step copy owning the key
+    return ( hashCode * 0x9E3779B9 ) >>> ( 32 - PARTITION_BITS );
+  }
+
+  /**
+   * Appends a row of one of the inputs to the partition of its join key. All rows have to be written before the first
+   * partition is read back.
+   *
+   * @param side
+   *          0 for the first input, 1 for the second
+   */
+  void write( int side, int hashCode, RowMetaInterface rowMeta, Object[] row ) throws KettleException {
+    int partition = getPartition( hashCode );
+    try {
+      DataOutputStream output = outputs[ side ][ partition ];
+      if ( output == null ) {
+        files[ side ][ partition ] = vfs.createTempFile( prefix, ".tmp", directory, space );
+        output = new DataOutputStream( new BufferedOutputStream(
+          vfs.getOutputStream( files[ side ][ partition ], false ), 50000 ) );
+        outputs[ side ][ partition ] = output;
+      }
+      rowMeta.writeData( output, row );
+      nrRows[ side ][ partition ]++;
+    } catch ( IOException | KettleFileException e ) {
+      throw new KettleException( BaseMessages.getString( PKG, "MergeJoin.Exception.UnableToSpillRows" ), e );
+    }
+  }
+
+  /**
+   * Reads back the rows of one input in a partition, in the order in which they were written.
+   */
+  void read( int side, int partition, RowMetaInterface rowMeta, RowHandler handler ) throws KettleException {
+    FileObject file = files[ side ][ partition ];
+    if ( file == null ) {
+      return;
+    }
+    closeOutput( side, partition );
+    try ( DataInputStream input = new DataInputStream(
+      new BufferedInputStream( KettleVFS.getInputStream( file ), 50000 ) ) ) {
+      for ( long i = 0; i < nrRows[ side ][ partition ]; i++ ) {
+        handler.handle( rowMeta.readData( input ) );
+      }
+    } catch ( IOException | KettleFileException e ) {
+      throw new KettleException( BaseMessages.getString(
+        PKG, "MergeJoin.Exception.UnableToReadSpilledRows", file.getName().getURI() ), e );
+    }
+  }
+
+  long getNrRows( int side, int partition ) {
+    return nrRows[ side ][ partition ];
+  }
+
+  private void closeOutput( int side, int partition ) throws KettleException {
+    if ( outputs[ side ][ partition ] != null ) {
+      try {
+        outputs[ side ][ partition ].close();
+      } catch ( IOException e ) {
+        throw new KettleException( BaseMessages.getString( PKG, "MergeJoin.Exception.UnableToSpillRows" ), e );
+      } finally {
+        outputs[ side ][ partition ] = null;
+      }
+    }
+  }
+
+  /**
+   * Closes and removes all temporary files.
+   */
+  void delete() {
+    for ( int side = 0; side < 2; side++ ) {
+      for ( int partition = 0; partition < NR_PARTITIONS; partition++ ) {
+        try {
+          closeOutput( side, partition );
+        } catch ( KettleException e ) {
+          // we're throwing the file away anyway
+        }
+        if ( files[ side ][ partition ] != null ) {
+          try {
+            files[ side ][ partition ].delete();
+          } catch ( IOException e ) {
+            // best effort, the file lives in a temporary folder
+          }
+          files[ side ][ partition ] = null;
+        }
+        nrRows[ side ][ partition ] = 0L;
+      }
+    }
+  }
+}
@@ -13,20 +13,27 @@
 
 package org.pentaho.di.trans.steps.mergejoin;
 
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -35,7 +42,11 @@ import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
+import org.pentaho.di.trans.step.StepThreadParker;
 import org.pentaho.di.trans.step.errorhandling.StreamInterface;
+import org.pentaho.di.trans.steps.mergejoin.MergeJoinData.HashJoinBucket;
+import org.pentaho.di.trans.steps.mergejoin.MergeJoinData.HashJoinInput;
+import org.pentaho.di.trans.steps.mergejoin.MergeJoinData.HashJoinKey;
 
 /**
  * Merge rows from 2 sorted streams and output joined rows with matched key fields. Use this instead of hash join is
@@ -54,6 +65,9 @@ import org.pentaho.di.trans.step.errorhandling.StreamInterface;
 public class MergeJoin extends BaseStep implements StepInterface {
   private static Class<?> PKG = MergeJoinMeta.class; // for i18n purposes, needed by Translator2!!
 
+  /** The longest a hash join waits for rows before it checks its inputs again */
+  private static final long HASH_JOIN_PARK_MILLIS = 100;
+
   private MergeJoinMeta meta;
   private MergeJoinData data;
 
@@ -67,6 +81,10 @@ public class MergeJoin extends BaseStep implements StepInterface {
     data = (MergeJoinData) sdi;
     int compare;
 
+    if ( meta.isHashJoin() ) {
+      return processHashJoinRow();
+    }
+
     if ( first ) {
       first = false;
 
@@ -389,6 +407,392 @@ public class MergeJoin extends BaseStep implements StepInterface {
     return true;
   }
 
+  /**
+   * Joins the inputs through a hash table instead of merging them, see MergeJoinMeta#isHashJoin(). Both inputs are
+   * read at the same pace until one of them has all its rows: that input, normally the smaller one, becomes the build
+   * side of the hash table and the rows of the other input are probed against it as they come in.<br>
+   * When more rows are read than fit in memory, the rows of both inputs are partitioned to disk by the hash of their
+   * key and the partitions are joined one at a time once all rows are read.<br>
+   * With several step copies, every copy joins the keys hashing to its copy number. The rows of other keys are handed
+   * over to the copy owning them, so the inputs don't have to be partitioned.
+   */
+  private boolean processHashJoinRow() throws KettleException {
+    if ( first ) {
+      first = false;
+      initHashJoin();
+    }
+
+    if ( data.buildInput == null ) {
+      // Read both inputs until either of them is complete
+      //
+      boolean read = false;
+      for ( int i = 0; i < 2 && !read; i++ ) {
+        HashJoinInput input = data.hashInputs[ ( data.nextHashInput + i ) % 2 ];
+        Object[] row = readHashJoinRow( input );
+        if ( row != null ) {
+          bufferHashJoinRow( input, row );
+          read = true;
+        }
+      }
+      data.nextHashInput = ( data.nextHashInput + 1 ) % 2;
+
+      HashJoinInput one = data.hashInputs[ 0 ];
+      HashJoinInput two = data.hashInputs[ 1 ];
+      if ( data.spill != null && one.complete && two.complete ) {
+        joinSpilledPartitions();
+        setOutputDone();
+        return false;
+      } else if ( data.spill == null && ( one.complete || two.complete ) ) {
+        startProbing( !two.complete || ( one.complete && one.nrRows <= two.nrRows ) ? one : two );
+      } else if ( !read ) {
+        waitForHashJoinRows( data.hashInputs );
+      }
+    } else {
+      Object[] row = readHashJoinRow( data.probeInput );
+      if ( row != null ) {
+        probeHashJoinRow( data.probeInput, row );
+      } else if ( data.probeInput.complete ) {
+        putUnmatchedHashJoinRows( data.buildInput );
+        data.clear();
+        setOutputDone();
+        return false;
+      } else {
+        waitForHashJoinRows( data.probeInput );
+      }
+    }
+
+    if ( checkFeedback( getLinesRead() ) ) {
+      logBasic( BaseMessages.getString( PKG, "MergeJoin.LineNumber" ) + getLinesRead() );
+    }
+    return true;
+  }
+
+  private void initHashJoin() throws KettleException {
+    List<StreamInterface> infoStreams = meta.getStepIOMeta().getInfoStreams();
+    String[][] keyFields = { meta.getKeyFields1(), meta.getKeyFields2() };
+    if ( keyFields[ 0 ].length != keyFields[ 1 ].length ) {
+      throw new KettleStepException( BaseMessages.getString( PKG, "MergeJoin.Exception.KeyCountMismatch",
+        String.valueOf( keyFields[ 0 ].length ), String.valueOf( keyFields[ 1 ].length ) ) );
+    }
+
+    for ( HashJoinInput input : data.hashInputs ) {
+      String stepname = infoStreams.get( input.side ).getStepname();
+      for ( RowSet rowSet : getInputRowSets() ) {
+        if ( rowSet.getOriginStepName().equalsIgnoreCase( stepname ) ) {
+          input.rowSets.add( rowSet );
+        }
+      }
+      if ( input.rowSets.isEmpty() ) {
+        throw new KettleException( BaseMessages.getString(
+          PKG, "MergeJoin.Exception.UnableToFindSpecifiedStep", stepname ) );
+      }
+
+      // The layout is replaced by the one of the row sets as soon as rows arrive
+      //
+      input.rowMeta = getTransMeta().getStepFields( stepname );
+      input.keyNrs = new int[ keyFields[ input.side ].length ];
+      for ( int i = 0; i < input.keyNrs.length; i++ ) {
+        input.keyNrs[ i ] = input.rowMeta.indexOfValue( keyFields[ input.side ][ i ] );
+        if ( input.keyNrs[ i ] < 0 ) {
+          String message = BaseMessages.getString(
+            PKG, "MergeJoin.Exception.UnableToFindFieldInReferenceStream", keyFields[ input.side ][ i ] );
+          logError( message );
+          throw new KettleStepException( message );
+        }
+      }
+    }
+
+    // The keys of both inputs are compared and hashed as the key fields of the first input
+    //
+    data.hashKeyMeta = new RowMeta();
+    for ( int keyNr : data.hashInputs[ 0 ].keyNrs ) {
+      ValueMetaInterface keyMeta = data.hashInputs[ 0 ].rowMeta.getValueMeta( keyNr ).clone();
+      keyMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+      data.hashKeyMeta.addValueMeta( keyMeta );
+    }
+
+    data.copies = new MergeJoin[ data.nrCopies ];
+    for ( int copy = 0; copy < data.nrCopies; copy++ ) {
+      data.copies[ copy ] = (MergeJoin) getTrans().findStepInterface( getStepname(), copy );
+    }
+  }
+
+  private HashJoinKey getHashJoinKey( HashJoinInput input, Object[] row ) throws KettleValueException {
+    Object[] keyData = new Object[ input.keyNrs.length ];
+    for ( int i = 0; i < keyData.length; i++ ) {
+      ValueMetaInterface keyMeta = data.hashKeyMeta.getValueMeta( i );
+      ValueMetaInterface valueMeta = input.rowMeta.getValueMeta( input.keyNrs[ i ] );
+      Object value = row[ input.keyNrs[ i ] ];
+      if ( valueMeta.getType() == keyMeta.getType() ) {
+        keyData[ i ] = valueMeta.convertToNormalStorageType( value );
+      } else {
+        keyData[ i ] = keyMeta.convertData( valueMeta, value );
+      }
+      if ( keyData[ i ] instanceof BigDecimal ) {
+        // 1.0 and 1.00 are the same key, they have to hash the same as well
+        keyData[ i ] = ( (BigDecimal) keyData[ i ] ).stripTrailingZeros();
+      }
+    }
+    return data.getHashJoinKey( keyData );
+  }
+
+  /**
+   * Reads the next row of an input that belongs to this step copy, without waiting for rows to arrive. The input is
+   * complete once this copy and all other copies read all their rows of it.
+   *
+   * @return the row or null if there is no row available right now
+   */
+  private Object[] readHashJoinRow( HashJoinInput input ) throws KettleException {
+    while ( !input.complete && !isStopped() ) {
+      Object[] row = input.exchange.poll();
+      if ( row == MergeJoinData.END_OF_ROWS ) {
+        input.copiesDone++;
+      } else if ( row != null ) {
+        input.rowMeta = input.exchangeRowMeta;
+        return row;
+      } else if ( input.localDone ) {
+        // waiting for the other copies to hand over their rows
+        return null;
+      } else {
+        row = readLocalHashJoinRow( input );
+        if ( row != null ) {
+          if ( data.nrCopies == 1 ) {
+            return row;
+          }
+          int owner = Math.floorMod( getHashJoinKey( input, row ).hashCode(), data.nrCopies );
+          if ( owner == getCopy() ) {
+            return row;
+          }
+          data.copies[ owner ].receiveHashJoinRow( input.side, input.rowMeta, row );
+        } else if ( input.localDone ) {
+          for ( int copy = 0; copy < data.nrCopies; copy++ ) {
+            if ( copy != getCopy() ) {
+              data.copies[ copy ].receiveHashJoinRow( input.side, null, MergeJoinData.END_OF_ROWS );
+            }
+          }
+        } else {
+          return null;
+        }
+      }
+      input.complete = input.localDone && input.copiesDone == data.nrCopies - 1;
+    }
+    return null;
+  }
+
+  /**
+   * Reads a row from the first row set of an input that has one available.
+   */
+  private Object[] readLocalHashJoinRow( HashJoinInput input ) throws KettleException {
+    int tried = 0;
+    while ( tried < input.rowSets.size() ) {
+      int index = input.nextRowSet % input.rowSets.size();
+      RowSet rowSet = input.rowSets.get( index );
+      if ( rowSet.size() > 0 || rowSet.isDone() ) {
+        Object[] row = getRowFrom( rowSet );
+        if ( row != null ) {
+          input.rowMeta = rowSet.getRowMeta();
+          input.nextRowSet = index;
+          return row;
+        }
+        input.rowSets.remove( index );
+      } else {
+        input.nextRowSet = index + 1;
+        tried++;
+      }
+    }
+    input.localDone = input.rowSets.isEmpty();
+    return null;
+  }
+
+  /**
+   * Receives a row another step copy read, but whose key belongs to this copy.
+   */
+  void receiveHashJoinRow( int side, RowMetaInterface rowMeta, Object[] row ) {
+    HashJoinInput input = data.hashInputs[ side ];
+    if ( rowMeta != null && input.exchangeRowMeta == null ) {
+      input.exchangeRowMeta = rowMeta;
+    }
+    input.exchange.add( row );
+    data.hashJoinParker.wakeUp();
+  }
+
+  /**
+   * Parks the step thread until one of the inputs receives a row from a previous step or from another step copy, or
+   * until a row set is done. The parker listens before the inputs are checked so a row that arrives in between isn't
+   * missed.
+   */
+  private void waitForHashJoinRows( HashJoinInput... inputs ) {
+    StepThreadParker parker = data.hashJoinParker;
+    parker.startWaiting();
+    try {
+      boolean listening = true;
+      for ( HashJoinInput input : inputs ) {
+        for ( RowSet rowSet : input.rowSets ) {
+          listening &= parker.listenTo( rowSet );
+          if ( rowSet.size() > 0 || rowSet.isDone() ) {
+            return;
+          }
+        }
+        if ( !input.exchange.isEmpty() ) {
+          return;
+        }
+      }
+      // Without a listener on all row sets we only park briefly, just like polling would
+      //
+      parker.park( listening ? HASH_JOIN_PARK_MILLIS : 1, TimeUnit.MILLISECONDS );
+    } finally {
+      parker.stopWaiting();
+    }
+  }
+
+  /**
+   * @return the number of rows other step copies handed to this copy that it didn't read yet
+   */
+  private long getExchangedRows() {
+    long rows = 0;
+    for ( HashJoinInput input : data.hashInputs ) {
+      rows += input.exchange.size();
+    }
+    return rows;
+  }
+
+  private void bufferHashJoinRow( HashJoinInput input, Object[] row ) throws KettleException {
+    input.nrRows++;
+    if ( data.spill != null ) {
+      spillHashJoinRow( input, row );
+      return;
+    }
+    input.rows.add( row );
+    data.rowsInMemory++;
+    if ( data.maxRowsInMemory > 0 && data.rowsInMemory + getExchangedRows() > data.maxRowsInMemory ) {
+      spillHashJoinRows();
+    }
+  }
+
+  private void spillHashJoinRow( HashJoinInput input, Object[] row ) throws KettleException {
+    data.spill.write( input.side, getHashJoinKey( input, row ).hashCode(), input.rowMeta, row );
+  }
+
+  /**
+   * Writes all rows read so far to disk, all following rows go to disk as well.
+   */
+  private void spillHashJoinRows() throws KettleException {
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MergeJoin.Log.SpillingRows", String.valueOf( data.rowsInMemory ) ) );
+    }
+    data.spill = new HashJoinSpill( KettleVFS.getInstance( getTransMeta().getBowl() ),
+      environmentSubstitute( meta.getDirectory() ), environmentSubstitute( meta.getPrefix() ), this );
+    for ( HashJoinInput input : data.hashInputs ) {
+      for ( Object[] row : input.rows ) {
+        spillHashJoinRow( input, row );
+      }
+      input.rows = new ArrayList<>();
+    }
+    data.rowsInMemory = 0L;
+  }
+
+  /**
+   * Puts the rows of the complete input in the hash table and probes the rows the other input already read.
+   */
+  private void startProbing( HashJoinInput build ) throws KettleException {
+    data.buildInput = build;
+    data.probeInput = data.hashInputs[ 1 - build.side ];
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MergeJoin.Log.HashJoinBuildSide", String.valueOf( build.nrRows ),
+        meta.getStepIOMeta().getInfoStreams().get( build.side ).getStepname() ) );
+    }
+
+    for ( Object[] row : build.rows ) {
+      addHashJoinRow( build, row );
+    }
+    build.rows = null;
+
+    List<Object[]> probeRows = data.probeInput.rows;
+    data.probeInput.rows = null;
+    for ( Object[] row : probeRows ) {
+      probeHashJoinRow( data.probeInput, row );
+    }
+  }
+
+  private void addHashJoinRow( HashJoinInput build, Object[] row ) throws KettleException {
+    data.hashTable.computeIfAbsent( getHashJoinKey( build, row ), key -> new HashJoinBucket() ).rows.add( row );
+  }
+
+  private void probeHashJoinRow( HashJoinInput probe, Object[] row ) throws KettleException {
+    HashJoinBucket bucket = data.hashTable.get( getHashJoinKey( probe, row ) );
+    if ( bucket != null ) {
+      bucket.matched = true;
+      for ( Object[] buildRow : bucket.rows ) {
+        putHashJoinRow( probe, row, buildRow );
+      }
+    } else if ( isKeepingUnmatchedRows( probe ) ) {
+      putHashJoinRow( probe, row, null );
+    }
+  }
+
+  /**
+   * Outputs the rows of the build side that didn't match any row of the other input, for the outer joins that want
+   * them.
+   */
+  private void putUnmatchedHashJoinRows( HashJoinInput build ) throws KettleException {
+    if ( !isKeepingUnmatchedRows( build ) ) {
+      return;
+    }
+    for ( HashJoinBucket bucket : data.hashTable.values() ) {
+      if ( !bucket.matched ) {
+        for ( Object[] row : bucket.rows ) {
+          putHashJoinRow( build, row, null );
+        }
+      }
+    }
+  }
+
+  private boolean isKeepingUnmatchedRows( HashJoinInput input ) {
+    return input.side == 0 ? data.two_optional : data.one_optional;
+  }
+
+  /**
+   * Joins the partitions written to disk one by one, building the hash table on the smaller input of each partition.
+   */
+  private void joinSpilledPartitions() throws KettleException {
+    HashJoinInput one = data.hashInputs[ 0 ];
+    HashJoinInput two = data.hashInputs[ 1 ];
+    for ( int partition = 0; partition < HashJoinSpill.NR_PARTITIONS && !isStopped(); partition++ ) {
+      HashJoinInput build = data.spill.getNrRows( 0, partition ) <= data.spill.getNrRows( 1, partition ) ? one : two;
+      HashJoinInput probe = data.hashInputs[ 1 - build.side ];
+
+      data.hashTable = new HashMap<>();
+      data.spill.read( build.side, partition, build.rowMeta, row -> addHashJoinRow( build, row ) );
+      data.spill.read( probe.side, partition, probe.rowMeta, row -> probeHashJoinRow( probe, row ) );
+      putUnmatchedHashJoinRows( build );
+    }
+    data.clear();
+  }
+
+  /**
+   * Outputs a row of an input joined with a row of the other input, or with empty values when the other row is null.
+   */
+  private void putHashJoinRow( HashJoinInput input, Object[] row, Object[] other ) throws KettleStepException {
+    if ( data.outputRowMeta == null ) {
+      // The layout of both inputs is known by now: either they have rows or all of them are read
+      //
+      data.oneMeta = data.hashInputs[ 0 ].rowMeta;
+      data.twoMeta = data.hashInputs[ 1 ].rowMeta;
+      data.outputRowMeta = new RowMeta();
+      data.outputRowMeta.mergeRowMeta( data.oneMeta.clone() );
+      data.outputRowMeta.mergeRowMeta( data.twoMeta.clone() );
+      data.one_dummy = RowDataUtil.allocateRowData( data.oneMeta.size() + data.twoMeta.size() );
+      data.two_dummy = new Object[ data.twoMeta.size() ];
+    }
+    Object[] one = input.side == 0 ? row : other;
+    Object[] two = input.side == 0 ? other : row;
+
+    Object[] outputRowData =
+      RowDataUtil.createResizedCopy( one == null ? data.one_dummy : one, data.outputRowMeta.size() );
+    outputRowData = RowDataUtil.addRowData( outputRowData, data.oneMeta.size(), two == null ? data.two_dummy : two );
+    putRow( data.outputRowMeta, outputRowData );
+  }
+
   /**
    * @see StepInterface#init(org.pentaho.di.trans.step.StepMetaInterface , org.pentaho.di.trans.step.StepDataInterface)
    */
@@ -402,6 +806,14 @@ public class MergeJoin extends BaseStep implements StepInterface {
         logError( BaseMessages.getString( PKG, "MergeJoin.Log.BothTrueAndFalseNeeded" ) );
         return false;
       }
+      if ( meta.isHashJoin() ) {
+        // Allocated before any copy starts, the other copies hand over rows from the start
+        //
+        data.hashInputs = new HashJoinInput[] { new HashJoinInput( 0 ), new HashJoinInput( 1 ) };
+        List<StepInterface> copies = getTrans().findStepInterfaces( getStepname() );
+        data.nrCopies = copies == null || copies.isEmpty() ? 1 : copies.size();
+        data.maxRowsInMemory = Const.toLong( environmentSubstitute( meta.getSpillSize() ), 0L );
+      }
       String joinType = meta.getJoinType();
       for ( int i = 0; i < MergeJoinMeta.join_types.length; ++i ) {
         if ( joinType.equalsIgnoreCase( MergeJoinMeta.join_types[i] ) ) {
@@ -416,6 +828,13 @@ public class MergeJoin extends BaseStep implements StepInterface {
     return true;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    super.dispose( smi, sdi );
+    ( (MergeJoinData) sdi ).hashJoinParker.stopListening();
+    ( (MergeJoinData) sdi ).clear();
+  }
+
   /**
    * Checks whether incoming rows are join compatible. This essentially means that the keys being compared should be of
    * the same datatype and both rows should have the same number of keys specified
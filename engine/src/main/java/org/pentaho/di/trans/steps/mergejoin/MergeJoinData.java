@@ -13,12 +13,19 @@
 
 package org.pentaho.di.trans.steps.mergejoin;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
 
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
+import org.pentaho.di.trans.step.StepThreadParker;
 
 /**
  * @author Biswapesh
@@ -40,6 +47,97 @@ public class MergeJoinData extends BaseStepData implements StepDataInterface {
   public RowSet oneRowSet;
   public RowSet twoRowSet;
 
+  /** Marks the end of the rows another step copy sends to a hash join input */
+  static final Object[] END_OF_ROWS = new Object[0];
+
+  /**
+   * One of the two inputs of a hash join, see MergeJoinMeta#isHashJoin()
+   */
+  static class HashJoinInput {
+    final int side;
+
+    /** The row sets of this step copy coming from the step of this input */
+    List<RowSet> rowSets = new ArrayList<>();
+    int nextRowSet;
+
+    /** The layout of the rows, null as long as no row was read */
+    RowMetaInterface rowMeta;
+    int[] keyNrs;
+
+    /**
+     * The rows of this input other step copies read but whose keys belong to this copy. It isn't bounded: two copies
+     * handing rows to each other would wait for each other. The rows in it count as rows in memory instead.
+     */
+    final BlockingQueue<Object[]> exchange = new LinkedBlockingQueue<>();
+    volatile RowMetaInterface exchangeRowMeta;
+
+    boolean localDone;
+    int copiesDone;
+    boolean complete;
+
+    /** The rows read while it isn't known yet which input is the build side */
+    List<Object[]> rows = new ArrayList<>();
+    long nrRows;
+
+    HashJoinInput( int side ) {
+      this.side = side;
+    }
+  }
+
+  /**
+   * The join key of a row of either input, converted to the data types of the key fields of the first input.
+   */
+  class HashJoinKey {
+    private final Object[] keyData;
+    private final int hashCode;
+
+    HashJoinKey( Object[] keyData ) throws KettleValueException {
+      this.keyData = keyData;
+      this.hashCode = hashKeyMeta.hashCode( keyData );
+    }
+
+    public boolean equals( Object obj ) {
+      HashJoinKey key = (HashJoinKey) obj;
+
+      try {
+        return hashCode == key.hashCode && hashKeyMeta.compare( keyData, key.keyData ) == 0;
+      } catch ( KettleValueException e ) {
+        throw new RuntimeException( e );
+      }
+    }
+
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  /**
+   * The rows of the build side sharing a join key.
+   */
+  static class HashJoinBucket {
+    final List<Object[]> rows = new ArrayList<>( 1 );
+    boolean matched;
+  }
+
+  /** The first and second input of a hash join */
+  HashJoinInput[] hashInputs;
+  HashJoinInput buildInput, probeInput;
+  int nextHashInput;
+
+  public RowMetaInterface hashKeyMeta;
+  public int nrCopies;
+  MergeJoin[] copies;
+
+  Map<HashJoinKey, HashJoinBucket> hashTable = new HashMap<>();
+
+  /** Write the rows to disk once there are this many in memory, 0 to never spill */
+  public long maxRowsInMemory;
+  public long rowsInMemory;
+  HashJoinSpill spill;
+
+  /** Parks the step thread while no input has rows, woken up by the input row sets and the other step copies */
+  final StepThreadParker hashJoinParker = new StepThreadParker();
+
   /**
    * Default initializer
    */
@@ -57,4 +155,19 @@ public class MergeJoinData extends BaseStepData implements StepDataInterface {
     keyNrs2 = null;
   }
 
+  HashJoinKey getHashJoinKey( Object[] keyData ) throws KettleValueException {
+    return new HashJoinKey( keyData );
+  }
+
+  /**
+   * Releases the hash table and the temporary files of a hash join.
+   */
+  public void clear() {
+    hashTable = new HashMap<>();
+    if ( spill != null ) {
+      spill.delete();
+      spill = null;
+    }
+  }
+
 }
@@ -70,6 +70,20 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "KEY_FIELD2" )
   private String[] keyFields2;
 
+  /** Join the inputs through a hash table so they don't need to be sorted */
+  @Injection( name = "HASH_JOIN" )
+  private boolean hashJoin;
+
+  /** The maximum number of rows a hash join keeps in memory before partitioning the inputs to disk */
+  @Injection( name = "SPILL_SIZE" )
+  private String spillSize;
+
+  @Injection( name = "DIRECTORY" )
+  private String directory;
+
+  @Injection( name = "PREFIX" )
+  private String prefix;
+
   /**
    * The supported join types are INNER, LEFT OUTER, RIGHT OUTER and FULL OUTER
    *
@@ -116,6 +130,66 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
     this.keyFields2 = keyFields2;
   }
 
+  /**
+   * @return true if the inputs are joined through a hash table instead of merged, so that they don't need to be sorted
+   */
+  public boolean isHashJoin() {
+    return hashJoin;
+  }
+
+  /**
+   * @param hashJoin
+   *          true to join the inputs through a hash table instead of merging them
+   */
+  public void setHashJoin( boolean hashJoin ) {
+    this.hashJoin = hashJoin;
+  }
+
+  /**
+   * @return the maximum number of rows a hash join keeps in memory, empty to keep all rows in memory
+   */
+  public String getSpillSize() {
+    return spillSize;
+  }
+
+  /**
+   * @param spillSize
+   *          the maximum number of rows a hash join keeps in memory, empty to keep all rows in memory
+   */
+  public void setSpillSize( String spillSize ) {
+    this.spillSize = spillSize;
+  }
+
+  /**
+   * @return the directory to store the rows of a hash join in once they don't fit in memory
+   */
+  public String getDirectory() {
+    return directory;
+  }
+
+  /**
+   * @param directory
+   *          the directory to store the rows of a hash join in once they don't fit in memory
+   */
+  public void setDirectory( String directory ) {
+    this.directory = directory;
+  }
+
+  /**
+   * @return the prefix of the temporary files holding the rows of a hash join
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @param prefix
+   *          the prefix of the temporary files holding the rows of a hash join
+   */
+  public void setPrefix( String prefix ) {
+    this.prefix = prefix;
+  }
+
   public boolean excludeFromRowLayoutVerification() {
     return true;
   }
@@ -173,6 +247,11 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
     }
     retval.append( "    </keys_2>" + Const.CR );
 
+    retval.append( XMLHandler.addTagValue( "hash_join", hashJoin ) );
+    retval.append( XMLHandler.addTagValue( "spill_size", spillSize ) );
+    retval.append( XMLHandler.addTagValue( "directory", directory ) );
+    retval.append( XMLHandler.addTagValue( "prefix", prefix ) );
+
     return retval.toString();
   }
 
@@ -201,6 +280,11 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
       infoStreams.get( 0 ).setSubject( XMLHandler.getTagValue( stepnode, "step1" ) );
       infoStreams.get( 1 ).setSubject( XMLHandler.getTagValue( stepnode, "step2" ) );
       joinType = XMLHandler.getTagValue( stepnode, "join_type" );
+
+      hashJoin = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "hash_join" ) );
+      spillSize = XMLHandler.getTagValue( stepnode, "spill_size" );
+      directory = Const.NVL( XMLHandler.getTagValue( stepnode, "directory" ), "%%java.io.tmpdir%%" );
+      prefix = Const.NVL( XMLHandler.getTagValue( stepnode, "prefix" ), "join" );
     } catch ( Exception e ) {
       throw new KettleXMLException(
         BaseMessages.getString( PKG, "MergeJoinMeta.Exception.UnableToLoadStepInfo" ), e );
@@ -210,6 +294,10 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
   public void setDefault() {
     joinType = join_types[0];
     allocate( 0, 0 );
+    hashJoin = false;
+    spillSize = null;
+    directory = "%%java.io.tmpdir%%";
+    prefix = "join";
   }
 
   public void readRep( Repository rep, IMetaStore metaStore, ObjectId id_step, List<DatabaseMeta> databases ) throws KettleException {
@@ -230,6 +318,11 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
       infoStreams.get( 0 ).setSubject( rep.getStepAttributeString( id_step, "step1" ) );
       infoStreams.get( 1 ).setSubject( rep.getStepAttributeString( id_step, "step2" ) );
       joinType = rep.getStepAttributeString( id_step, "join_type" );
+
+      hashJoin = rep.getStepAttributeBoolean( id_step, "hash_join" );
+      spillSize = rep.getStepAttributeString( id_step, "spill_size" );
+      directory = Const.NVL( rep.getStepAttributeString( id_step, "directory" ), "%%java.io.tmpdir%%" );
+      prefix = Const.NVL( rep.getStepAttributeString( id_step, "prefix" ), "join" );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString(
         PKG, "MergeJoinMeta.Exception.UnexpectedErrorReadingStepInfo" ), e );
@@ -259,6 +352,10 @@ public class MergeJoinMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, "step1", infoStreams.get( 0 ).getStepname() );
       rep.saveStepAttribute( id_transformation, id_step, "step2", infoStreams.get( 1 ).getStepname() );
       rep.saveStepAttribute( id_transformation, id_step, "join_type", getJoinType() );
+      rep.saveStepAttribute( id_transformation, id_step, "hash_join", hashJoin );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_size", spillSize );
+      rep.saveStepAttribute( id_transformation, id_step, "directory", directory );
+      rep.saveStepAttribute( id_transformation, id_step, "prefix", prefix );
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString( PKG, "MergeJoinMeta.Exception.UnableToSaveStepInfo" )
         + id_step, e );
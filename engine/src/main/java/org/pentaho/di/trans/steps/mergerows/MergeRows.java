@@ -13,16 +13,20 @@
 
 package org.pentaho.di.trans.steps.mergerows;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleRowException;
 import org.pentaho.di.core.exception.KettleStepException;
+import org.pentaho.di.core.hash.RowHashIndex;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
@@ -120,6 +124,14 @@ public class MergeRows extends BaseStep implements StepInterface {
           }
         }
       }
+
+      if ( meta.isReferenceUnsorted() ) {
+        loadReferenceRows();
+      }
+    }
+
+    if ( meta.isReferenceUnsorted() ) {
+      return processUnsortedRow();
     }
 
     if ( log.isRowLevel() ) {
@@ -133,16 +145,7 @@ public class MergeRows extends BaseStep implements StepInterface {
     }
 
     if ( data.outputRowMeta == null ) {
-      data.outputRowMeta = new RowMeta();
-      if ( data.one != null ) {
-        meta.getFields( getTransMeta().getBowl(),
-          data.outputRowMeta, getStepname(), new RowMetaInterface[] { data.oneRowSet.getRowMeta() }, null, this,
-          repository, metaStore );
-      } else {
-        meta.getFields( getTransMeta().getBowl(),
-          data.outputRowMeta, getStepname(), new RowMetaInterface[] { data.twoRowSet.getRowMeta() }, null, this,
-          repository, metaStore );
-      }
+      initOutputRowMeta( data.one != null );
     }
 
     Object[] outputRow;
@@ -208,6 +211,25 @@ public class MergeRows extends BaseStep implements StepInterface {
       }
     }
 
+    putFlaggedRow( outputRow, outputIndex, flagField );
+
+    return true;
+  }
+
+  private void initOutputRowMeta( boolean fromReference ) throws KettleStepException {
+    data.outputRowMeta = new RowMeta();
+    if ( fromReference ) {
+      meta.getFields( getTransMeta().getBowl(),
+        data.outputRowMeta, getStepname(), new RowMetaInterface[] { data.oneRowSet.getRowMeta() }, null, this,
+        repository, metaStore );
+    } else {
+      meta.getFields( getTransMeta().getBowl(),
+        data.outputRowMeta, getStepname(), new RowMetaInterface[] { data.twoRowSet.getRowMeta() }, null, this,
+        repository, metaStore );
+    }
+  }
+
+  private void putFlaggedRow( Object[] outputRow, int outputIndex, String flagField ) throws KettleStepException {
     // send the row to the next steps...
     putRow( data.outputRowMeta, RowDataUtil.addValueData( outputRow, outputIndex, flagField ) );
 
@@ -216,6 +238,102 @@ public class MergeRows extends BaseStep implements StepInterface {
         logBasic( BaseMessages.getString( PKG, "MergeRows.LineNumber" ) + getLinesRead() );
       }
     }
+  }
+
+  /**
+   * Read all the reference rows into a hash index on the key fields. Rows with a key that is already in the index are
+   * kept aside, they are flagged as deleted at the end like the sorted merge does.
+   */
+  private void loadReferenceRows() throws KettleException {
+    data.matched = new BitSet();
+    data.duplicateReferenceRows = new ArrayList<>();
+    if ( data.one == null ) {
+      return;
+    }
+
+    RowMetaInterface referenceRowMeta = data.oneRowSet.getRowMeta();
+    RowMetaInterface keyMeta = new RowMeta();
+    for ( int keyNr : data.keyNrs ) {
+      ValueMetaInterface keyValueMeta = referenceRowMeta.getValueMeta( keyNr ).clone();
+      keyValueMeta.setStorageType( ValueMetaInterface.STORAGE_TYPE_NORMAL );
+      keyMeta.addValueMeta( keyValueMeta );
+    }
+    if ( !RowHashIndex.isSupported( keyMeta ) ) {
+      throw new KettleStepException( BaseMessages.getString( PKG, "MergeRows.Exception.KeyNotSupportedUnsorted" ) );
+    }
+    initOutputRowMeta( true );
+
+    data.referenceIndex = new RowHashIndex( keyMeta, referenceRowMeta, meta.isMemoryPreservationActive() );
+    while ( data.one != null && !isStopped() ) {
+      if ( data.referenceIndex.find( referenceRowMeta, data.one, data.keyNrs ) < 0 ) {
+        data.referenceIndex.put( referenceRowMeta, data.one, data.keyNrs, data.one );
+      } else {
+        data.duplicateReferenceRows.add( data.one );
+      }
+      data.one = getRowFrom( data.oneRowSet );
+    }
+    if ( log.isDetailed() ) {
+      logDetailed( BaseMessages.getString( PKG, "MergeRows.Log.ReferenceRowsLoaded",
+        String.valueOf( data.referenceIndex.size() ) ) );
+    }
+  }
+
+  /**
+   * Look up every compare row in the reference index. Once the compare rows are done the reference rows that didn't
+   * match any of them are flagged as deleted, in the order they were read.
+   */
+  private boolean processUnsortedRow() throws KettleException {
+    if ( data.outputRowMeta == null && data.two != null ) {
+      initOutputRowMeta( false );
+    }
+
+    Object[] outputRow;
+    int outputIndex;
+    String flagField;
+
+    if ( data.two != null ) {
+      int entry = data.referenceIndex == null ? -1
+        : data.referenceIndex.find( data.twoRowSet.getRowMeta(), data.two, data.keyNrs );
+      if ( entry < 0 || data.matched.get( entry ) ) {
+        outputRow = data.two;
+        outputIndex = data.twoRowSet.getRowMeta().size();
+        flagField = VALUE_NEW;
+      } else {
+        data.matched.set( entry );
+        Object[] reference = data.referenceIndex.getValue( entry );
+        int compareValues = data.oneRowSet.getRowMeta().compare( reference, data.two, data.valueNrs );
+        if ( compareValues == 0 ) {
+          if ( useRefWhenIdentical ) {
+            outputRow = reference;
+            outputIndex = data.oneRowSet.getRowMeta().size();
+          } else {
+            outputRow = data.two;
+            outputIndex = data.twoRowSet.getRowMeta().size();
+          }
+          flagField = VALUE_IDENTICAL;
+        } else {
+          outputRow = data.two;
+          outputIndex = data.twoRowSet.getRowMeta().size();
+          flagField = VALUE_CHANGED;
+        }
+      }
+      data.two = getRowFrom( data.twoRowSet );
+    } else {
+      int size = data.referenceIndex == null ? 0 : data.referenceIndex.size();
+      data.nextEntry = data.matched.nextClearBit( data.nextEntry );
+      if ( data.nextEntry < size ) {
+        outputRow = data.referenceIndex.getValue( data.nextEntry++ );
+      } else if ( data.nextDuplicate < data.duplicateReferenceRows.size() ) {
+        outputRow = data.duplicateReferenceRows.get( data.nextDuplicate++ );
+      } else {
+        setOutputDone();
+        return false;
+      }
+      outputIndex = data.oneRowSet.getRowMeta().size();
+      flagField = VALUE_DELETED;
+    }
+
+    putFlaggedRow( outputRow, outputIndex, flagField );
 
     return true;
   }
@@ -13,7 +13,11 @@
 
 package org.pentaho.di.trans.steps.mergerows;
 
+import java.util.BitSet;
+import java.util.List;
+
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.hash.RowHashIndex;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -33,6 +37,16 @@ public class MergeRowsData extends BaseStepData implements StepDataInterface {
   public RowSet oneRowSet;
   public RowSet twoRowSet;
 
+  /** The reference rows by key when the reference stream isn't sorted */
+  public RowHashIndex referenceIndex;
+  /** The entries of the reference index that matched a compare row */
+  public BitSet matched;
+  /** Reference rows with a key that was already in the index */
+  public List<Object[]> duplicateReferenceRows;
+  /** The next reference entry or duplicate to check once the compare rows are done */
+  public int nextEntry;
+  public int nextDuplicate;
+
   public MergeRowsData() {
     super();
   }
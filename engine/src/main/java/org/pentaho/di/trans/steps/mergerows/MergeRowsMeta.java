@@ -68,6 +68,14 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
   @Injection( name = "VALUE_FIELDS" )
   private String[] valueFields;
 
+  /** The reference stream isn't sorted: load it in a hash index and stream the compare rows past it */
+  @Injection( name = "REFERENCE_UNSORTED" )
+  private boolean referenceUnsorted;
+
+  /** Serialize the reference rows in the hash index to preserve memory */
+  @Injection( name = "PRESERVE_MEMORY" )
+  private boolean memoryPreservationActive;
+
   /**
    * @return Returns the keyFields.
    */
@@ -98,6 +106,36 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
     this.valueFields = valueFields;
   }
 
+  /**
+   * @return true if the reference rows are loaded in a hash index instead of being merged as a sorted stream
+   */
+  public boolean isReferenceUnsorted() {
+    return referenceUnsorted;
+  }
+
+  /**
+   * @param referenceUnsorted
+   *          true to load the reference rows in a hash index, the compare rows don't need to be sorted either
+   */
+  public void setReferenceUnsorted( boolean referenceUnsorted ) {
+    this.referenceUnsorted = referenceUnsorted;
+  }
+
+  /**
+   * @return true if the reference rows are serialized in the hash index to preserve memory
+   */
+  public boolean isMemoryPreservationActive() {
+    return memoryPreservationActive;
+  }
+
+  /**
+   * @param memoryPreservationActive
+   *          true to serialize the reference rows in the hash index to preserve memory
+   */
+  public void setMemoryPreservationActive( boolean memoryPreservationActive ) {
+    this.memoryPreservationActive = memoryPreservationActive;
+  }
+
   public MergeRowsMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -155,6 +193,8 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
     retval.append( "    </values>" + Const.CR );
 
     retval.append( XMLHandler.addTagValue( "flag_field", flagField ) );
+    retval.append( XMLHandler.addTagValue( "reference_unsorted", referenceUnsorted ) );
+    retval.append( XMLHandler.addTagValue( "preserve_memory", memoryPreservationActive ) );
 
     List<StreamInterface> infoStreams = getStepIOMeta().getInfoStreams();
     retval.append( XMLHandler.addTagValue( "reference", infoStreams.get( 0 ).getStepname() ) );
@@ -188,6 +228,8 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
       }
 
       flagField = XMLHandler.getTagValue( stepnode, "flag_field" );
+      referenceUnsorted = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "reference_unsorted" ) );
+      memoryPreservationActive = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserve_memory" ) );
 
       List<StreamInterface> infoStreams = getStepIOMeta().getInfoStreams();
       StreamInterface referenceStream = infoStreams.get( 0 );
@@ -204,6 +246,8 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
   @Override
   public void setDefault() {
     flagField = "flagfield";
+    referenceUnsorted = false;
+    memoryPreservationActive = false;
     allocate( 0, 0 );
   }
 
@@ -223,6 +267,8 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
       }
 
       flagField = rep.getStepAttributeString( id_step, "flag_field" );
+      referenceUnsorted = rep.getStepAttributeBoolean( id_step, "reference_unsorted" );
+      memoryPreservationActive = rep.getStepAttributeBoolean( id_step, "preserve_memory" );
 
       List<StreamInterface> infoStreams = getStepIOMeta().getInfoStreams();
       StreamInterface referenceStream = infoStreams.get( 0 );
@@ -256,6 +302,8 @@ public class MergeRowsMeta extends BaseStepMeta implements StepMetaInterface {
       }
 
       rep.saveStepAttribute( id_transformation, id_step, "flag_field", flagField );
+      rep.saveStepAttribute( id_transformation, id_step, "reference_unsorted", referenceUnsorted );
+      rep.saveStepAttribute( id_transformation, id_step, "preserve_memory", memoryPreservationActive );
 
       List<StreamInterface> infoStreams = getStepIOMeta().getInfoStreams();
       StreamInterface referenceStream = infoStreams.get( 0 );
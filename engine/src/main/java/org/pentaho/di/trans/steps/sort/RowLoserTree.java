@@ -0,0 +1,138 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.Comparator;
+
+/**
+ * A tournament (loser) tree to merge k sorted streams of rows. It keeps the current row of every stream and finds the
+ * smallest one with log2(k) comparisons each time the winning stream moves on to its next row, without moving any
+ * rows around.<br>
+ * <br>
+ * Rows that compare equal come out in the order of their stream numbers, so merging sorted runs in the order they were
+ * created keeps the sort stable.
+ */
+public class RowLoserTree {
+
+  private final Comparator<Object[]> comparator;
+
+  /** The current row of every stream, null if the stream is exhausted */
+  private final Object[][] heads;
+
+  /** Node 0 holds the winning stream, nodes 1 to k-1 the stream that lost the match at that node */
+  private final int[] tree;
+
+  private final int k;
+
+  /**
+   * Build the tree.
+   *
+   * @param heads
+   *          the first row of each stream, null for an empty stream. The array is used by the tree.
+   * @param comparator
+   *          the comparator of the rows
+   */
+  public RowLoserTree( Object[][] heads, Comparator<Object[]> comparator ) {
+    if ( heads.length == 0 ) {
+      throw new IllegalArgumentException( "Need at least one stream to merge" );
+    }
+    this.heads = heads;
+    this.comparator = comparator;
+    this.k = heads.length;
+    this.tree = new int[ k ];
+
+    // Play all the matches bottom up: the leaves of stream s are at position k+s
+    //
+    int[] winners = new int[ 2 * k ];
+    for ( int s = 0; s < k; s++ ) {
+      winners[ k + s ] = s;
+    }
+    for ( int node = k - 1; node > 0; node-- ) {
+      int left = winners[ 2 * node ];
+      int right = winners[ 2 * node + 1 ];
+      if ( beats( left, right ) ) {
+        winners[ node ] = left;
+        tree[ node ] = right;
+      } else {
+        winners[ node ] = right;
+        tree[ node ] = left;
+      }
+    }
+    tree[ 0 ] = winners[ 1 ];
+  }
+
+  /**
+   * @return the stream holding the smallest row or -1 if all streams are exhausted
+   */
+  public int getWinner() {
+    int winner = tree[ 0 ];
+    return heads[ winner ] == null ? -1 : winner;
+  }
+
+  /**
+   * @return the smallest row or null if all streams are exhausted
+   */
+  public Object[] getWinnerRow() {
+    return heads[ tree[ 0 ] ];
+  }
+
+  /**
+   * Replace the row of the winning stream with the next row of that stream and find the new winner.
+   *
+   * @param row
+   *          the next row of the winning stream, null if that stream is exhausted
+   */
+  public void replaceWinner( Object[] row ) {
+    int stream = tree[ 0 ];
+    heads[ stream ] = row;
+
+    int winner = stream;
+    for ( int node = ( k + stream ) >> 1; node > 0; node >>= 1 ) {
+      int loser = tree[ node ];
+      if ( beats( loser, winner ) ) {
+        tree[ node ] = winner;
+        winner = loser;
+      }
+    }
+    tree[ 0 ] = winner;
+  }
+
+  /**
+   * @return the number of streams
+   */
+  public int size() {
+    return k;
+  }
+
+  /**
+   * @return the current row of the given stream, null if it is exhausted
+   */
+  public Object[] getRow( int stream ) {
+    return heads[ stream ];
+  }
+
+  /**
+   * @return true if stream a comes before stream b
+   */
+  private boolean beats( int a, int b ) {
+    if ( heads[ a ] == null ) {
+      return false;
+    }
+    if ( heads[ b ] == null ) {
+      return true;
+    }
+    int cmp = comparator.compare( heads[ a ], heads[ b ] );
+    return cmp < 0 || ( cmp == 0 && a < b );
+  }
+}
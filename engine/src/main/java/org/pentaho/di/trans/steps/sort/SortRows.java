@@ -13,29 +13,25 @@
 
 package org.pentaho.di.trans.steps.sort;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.net.SocketTimeoutException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.commons.vfs2.FileObject;
 import org.apache.commons.vfs2.FileSystemException;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleFileException;
-import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.RowSpillCodecs;
+import org.pentaho.di.core.row.RowSpillReader;
+import org.pentaho.di.core.row.RowSpillWriter;
 import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.vfs.KettleVFS;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -123,25 +119,14 @@ public class SortRows extends BaseStep implements StepInterface {
     quickSort( data.buffer );
 
     // Then write them to disk...
-    DataOutputStream dos;
-    GZIPOutputStream gzos;
+    RowSpillWriter writer;
     int p;
 
     try {
-      FileObject fileObject =
-          KettleVFS.getInstance( getTransMeta().getBowl() )
-            .createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+      FileObject fileObject = createTempFile();
 
       data.files.add( fileObject ); // Remember the files!
-      OutputStream outputStream = KettleVFS.getInstance( getTransMeta().getBowl() )
-        .getOutputStream( fileObject, false );
-      if ( data.compressFiles ) {
-        gzos = new GZIPOutputStream( new BufferedOutputStream( outputStream ) );
-        dos = new DataOutputStream( gzos );
-      } else {
-        dos = new DataOutputStream( new BufferedOutputStream( outputStream, 500000 ) );
-        gzos = null;
-      }
+      writer = openTempFileOutput( fileObject );
 
       // Just write the data, nothing else
       List<Integer> duplicates = new ArrayList<Integer>();
@@ -178,7 +163,7 @@ public class SortRows extends BaseStep implements StepInterface {
           }
         }
         if ( !skip ) {
-          data.outputRowMeta.writeData( dos, data.buffer.get( p ) );
+          writer.writeRow( data.buffer.get( p ) );
         }
       }
 
@@ -199,11 +184,7 @@ public class SortRows extends BaseStep implements StepInterface {
       data.buffer.clear();
 
       // Close temp-file
-      dos.close(); // close data stream
-      if ( gzos != null ) {
-        gzos.close(); // close gzip stream
-      }
-      outputStream.close(); // close file stream
+      writer.close(); // write the last block and close the file stream
 
       // How much memory do we have left?
       //
@@ -222,24 +203,106 @@ public class SortRows extends BaseStep implements StepInterface {
     data.getBufferIndex = 0;
   }
 
-  private DataInputStream getDataInputStream( GZIPInputStream gzipInputStream ) {
-    DataInputStream result = new DataInputStream( gzipInputStream );
-    data.gzis.add( gzipInputStream );
-    return result;
+  private FileObject createTempFile() throws KettleFileException {
+    return KettleVFS.getInstance( getTransMeta().getBowl() )
+      .createTempFile( meta.getPrefix(), ".tmp", environmentSubstitute( meta.getDirectory() ), getTransMeta() );
+  }
+
+  private RowSpillWriter openTempFileOutput( FileObject fileObject ) throws KettleFileException, IOException {
+    return data.spillCodec.createWriter( data.outputRowMeta,
+      KettleVFS.getInstance( getTransMeta().getBowl() ).getOutputStream( fileObject, false ) );
+  }
+
+  private RowSpillReader openTempFileInput( FileObject fileObject ) throws KettleFileException, IOException {
+    return data.spillCodec.createReader( data.outputRowMeta, KettleVFS.getInputStream( fileObject ) );
+  }
+
+  /**
+   * Merge the temp files in groups of at most maxMergeFiles into bigger temp files until no more than maxMergeFiles
+   * are left. This keeps the number of open files and read buffers of the final merge under control.
+   */
+  void mergeTempFilesDown() throws KettleException {
+    while ( data.files.size() > data.maxMergeFiles && !isStopped() ) {
+      List<FileObject> files = new ArrayList<FileObject>( data.files );
+      List<Integer> sizes = new ArrayList<Integer>( data.bufferSizes );
+      data.files.clear();
+      data.bufferSizes.clear();
+
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.MergingTempFiles", files.size(),
+          data.maxMergeFiles ) );
+      }
+
+      // Merge consecutive files so that equal rows keep their order
+      //
+      for ( int start = 0; start < files.size(); start += data.maxMergeFiles ) {
+        int end = Math.min( files.size(), start + data.maxMergeFiles );
+        if ( end - start == 1 ) {
+          data.files.add( files.get( start ) );
+          data.bufferSizes.add( sizes.get( start ) );
+        } else {
+          mergeTempFiles( files.subList( start, end ), sizes.subList( start, end ) );
+        }
+      }
+    }
+  }
+
+  private void mergeTempFiles( List<FileObject> files, List<Integer> sizes ) throws KettleException {
+    RowSpillReader[] inputs = new RowSpillReader[ files.size() ];
+    RowSpillWriter writer = null;
+    try {
+      Object[][] heads = new Object[ files.size() ][];
+      for ( int f = 0; f < files.size(); f++ ) {
+        inputs[ f ] = openTempFileInput( files.get( f ) );
+        if ( sizes.get( f ) > 0 ) {
+          heads[ f ] = inputs[ f ].readRow();
+        }
+      }
+      RowLoserTree tree = new RowLoserTree( heads, data.rowComparator );
+
+      FileObject fileObject = createTempFile();
+      data.files.add( fileObject );
+      writer = openTempFileOutput( fileObject );
+
+      int nrRows = 0;
+      for ( int winner = tree.getWinner(); winner >= 0 && !isStopped(); winner = tree.getWinner() ) {
+        writer.writeRow( tree.getWinnerRow() );
+        nrRows++;
+        tree.replaceWinner( inputs[ winner ].readRow() );
+      }
+      writer.close();
+      writer = null;
+      data.bufferSizes.add( nrRows );
+    } catch ( IOException e ) {
+      throw new KettleException( "Error processing temp-file!", e );
+    } finally {
+      BaseStep.closeQuietly( writer );
+      for ( int f = 0; f < files.size(); f++ ) {
+        BaseStep.closeQuietly( inputs[ f ] );
+        try {
+          files.get( f ).delete();
+        } catch ( FileSystemException e ) {
+          logError( BaseMessages.getString( PKG, "SortRows.Error.UnableToCloseFile", f, files.get( f ).toString() ) );
+        }
+      }
+    }
   }
 
   // get sorted rows from available files in iterative manner.
   // that means call to this method will continue to return rows
   // till all temp files will not be read to the end.
-  Object[] getBuffer() throws KettleValueException {
+  Object[] getBuffer() throws KettleException {
     Object[] retval;
 
     // Open all files at once and read one row from each file...
-    if ( data.files.size() > 0 && ( data.dis.size() == 0 || data.fis.size() == 0 ) ) {
+    if ( data.files.size() > 0 && data.mergeTree == null ) {
+      mergeTempFilesDown();
+
       if ( log.isBasic() ) {
         logBasic( BaseMessages.getString( PKG, "SortRows.Basic.OpeningTempFiles", data.files.size() ) );
       }
 
+      Object[][] heads = new Object[ data.files.size() ][];
       try {
         for ( int f = 0; f < data.files.size() && !isStopped(); f++ ) {
           FileObject fileObject = data.files.get( f );
@@ -247,15 +310,8 @@ public class SortRows extends BaseStep implements StepInterface {
           if ( log.isDetailed() ) {
             logDetailed( BaseMessages.getString( PKG, "SortRows.Detailed.OpeningTempFile", filename ) );
           }
-          InputStream fi = KettleVFS.getInputStream( fileObject );
-          DataInputStream di;
-          data.fis.add( fi );
-          if ( data.compressFiles ) {
-            di = getDataInputStream( new GZIPInputStream( new BufferedInputStream( fi ) ) );
-          } else {
-            di = new DataInputStream( new BufferedInputStream( fi, 50000 ) );
-          }
-          data.dis.add( di );
+          RowSpillReader reader = openTempFileInput( fileObject );
+          data.readers.add( reader );
 
           // How long is the buffer?
           int buffersize = data.bufferSizes.get( f );
@@ -266,20 +322,19 @@ public class SortRows extends BaseStep implements StepInterface {
           }
 
           if ( buffersize > 0 ) {
-            Object[] row = data.outputRowMeta.readData( di );
-            data.rowbuffer.add( row ); // new row from input stream
-            data.tempRows.add( new RowTempFile( row, f ) );
+            heads[ f ] = reader.readRow(); // new row from input stream
           }
         }
-
-        // Sort the data row buffer
-        Collections.sort( data.tempRows, data.comparator );
       } catch ( Exception e ) {
         logError( BaseMessages.getString( PKG, "SortRows.Error.ErrorReadingBackTempFiles" ), e );
       }
+
+      // Play the first round of the tournament between the files
+      //
+      data.mergeTree = new RowLoserTree( heads, data.rowComparator );
     }
 
-    if ( data.files.size() == 0 ) {
+    if ( data.mergeTree == null ) {
       // read from in-memory processing
 
       if ( data.getBufferIndex < data.buffer.size() ) {
@@ -291,47 +346,34 @@ public class SortRows extends BaseStep implements StepInterface {
     } else {
       // read from disk processing
 
-      if ( data.rowbuffer.size() == 0 ) {
+      int smallest = data.mergeTree.getWinner();
+      if ( smallest < 0 ) {
         retval = null;
       } else {
-        // We now have "filenr" rows waiting: which one is the smallest?
+        // We now have "filenr" rows waiting: the tree knows which one is the smallest
         //
         if ( log.isRowLevel() ) {
-          for ( int i = 0; i < data.rowbuffer.size() && !isStopped(); i++ ) {
-            Object[] b = data.rowbuffer.get( i );
-            logRowlevel( BaseMessages
-                .getString( PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString( b ) ) );
+          for ( int i = 0; i < data.mergeTree.size() && !isStopped(); i++ ) {
+            Object[] b = data.mergeTree.getRow( i );
+            if ( b != null ) {
+              logRowlevel( BaseMessages
+                  .getString( PKG, "SortRows.RowLevel.PrintRow", i, data.outputRowMeta.getString( b ) ) );
+            }
           }
         }
 
-        RowTempFile rowTempFile = data.tempRows.remove( 0 );
-        retval = rowTempFile.row;
-        int smallest = rowTempFile.fileNumber;
+        retval = data.mergeTree.getWinnerRow();
 
         // now get another Row for position smallest
-
-        FileObject file = data.files.get( smallest );
-        DataInputStream di = data.dis.get( smallest );
-        InputStream fi = data.fis.get( smallest );
-
-        try {
-          Object[] row2 = data.outputRowMeta.readData( di );
-          RowTempFile extra = new RowTempFile( row2, smallest );
-
-          int index = Collections.binarySearch( data.tempRows, extra, data.comparator );
-          if ( index < 0 ) {
-            data.tempRows.add( index * ( -1 ) - 1, extra );
-          } else {
-            data.tempRows.add( index, extra );
-          }
-        } catch ( KettleFileException fe ) { // empty file or EOF mostly
-          GZIPInputStream gzfi = ( data.compressFiles ) ? data.gzis.get( smallest ) : null;
+        //
+        RowSpillReader reader = data.readers.get( smallest );
+        Object[] row2 = reader.readRow();
+        if ( row2 == null ) {
+          // This file is done, clean it up
+          //
+          FileObject file = data.files.get( smallest );
           try {
-            di.close();
-            fi.close();
-            if ( gzfi != null ) {
-              gzfi.close();
-            }
+            reader.close();
             file.delete();
           } catch ( IOException e ) {
             logError( BaseMessages.getString( PKG, "SortRows.Error.UnableToCloseFile", smallest, file.toString() ) );
@@ -339,26 +381,8 @@ public class SortRows extends BaseStep implements StepInterface {
             stopAll();
             return null;
           }
-
-          data.files.remove( smallest );
-          data.dis.remove( smallest );
-          data.fis.remove( smallest );
-
-          if ( gzfi != null ) {
-            data.gzis.remove( smallest );
-          }
-
-          // Also update all file numbers in in data.tempRows if they are larger
-          // than smallest.
-          //
-          for ( RowTempFile rtf : data.tempRows ) {
-            if ( rtf.fileNumber > smallest ) {
-              rtf.fileNumber--;
-            }
-          }
-        } catch ( SocketTimeoutException e ) {
-          throw new KettleValueException( e ); // should never happen on local files
         }
+        data.mergeTree.replaceWinner( row2 );
       }
     }
     return retval;
@@ -411,7 +435,6 @@ public class SortRows extends BaseStep implements StepInterface {
       data.outputRowMeta = inputRowMeta.clone();
       meta.getFields( getTransMeta().getBowl(), data.outputRowMeta, getStepname(), null, null, this, repository,
         metaStore );
-      data.comparator = new RowTemapFileComparator( data.outputRowMeta, data.fieldnrs );
 
       for ( int i = 0; i < fieldNames.length; i++ ) {
         data.fieldnrs[i] = inputRowMeta.indexOfValue( fieldNames[i] );
@@ -563,13 +586,27 @@ public class SortRows extends BaseStep implements StepInterface {
     //
     data.buffer = new ArrayList<Object[]>( 5000 );
 
-    // Buffer for reading from disk
+    // The format of the temp files: the codec of the step, or gzip when the older compress option is set
     //
-    data.rowbuffer = new ArrayList<Object[]>( 5000 );
+    boolean compressFiles = getBooleanValueOfVariable( meta.getCompressFilesVariable(), meta.getCompressFiles() );
+    String spillCodec = environmentSubstitute( meta.getSpillCodec() );
+    if ( Utils.isEmpty( spillCodec ) && !compressFiles ) {
+      spillCodec = getVariable( Const.KETTLE_SPILL_CODEC );
+    }
+    data.spillCodec = RowSpillCodecs.getCodec( spillCodec, compressFiles );
+    if ( data.spillCodec == null ) {
+      logError( BaseMessages.getString( PKG, "SortRows.Error.UnknownSpillCodec", spillCodec ) );
+      return false;
+    }
 
-    data.compressFiles = getBooleanValueOfVariable( meta.getCompressFilesVariable(), meta.getCompressFiles() );
+    // The maximum number of temp files to merge at once
+    //
+    data.maxMergeFiles =
+      Math.max( 2, Const.toInt( getVariable( Const.KETTLE_SORT_ROWS_MAX_MERGE_FILES ), SortRowsData.MAX_MERGE_FILES ) );
 
-    data.tempRows = new ArrayList<RowTempFile>();
+    // Sort large buffers with several threads? Off by default, it takes the CPU away from the other steps
+    //
+    data.parallelSortThreads = Math.max( 0, Const.toInt( getVariable( Const.KETTLE_SORT_ROWS_PARALLEL_THREADS ), 0 ) );
 
     data.minSortSize = 5000;
 
@@ -579,6 +616,10 @@ public class SortRows extends BaseStep implements StepInterface {
   @Override
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     clearBuffers();
+    if ( data.parallelSortPool != null ) {
+      data.parallelSortPool.shutdownNow();
+      data.parallelSortPool = null;
+    }
     super.dispose( smi, sdi );
   }
 
@@ -587,19 +628,14 @@ public class SortRows extends BaseStep implements StepInterface {
     // Clean out the sort buffer
     data.buffer.clear();
     data.getBufferIndex = 0;
-    data.rowbuffer.clear();
+    data.mergeTree = null;
 
-    // close any open DataInputStream objects
-    if ( ( data.dis != null ) && ( data.dis.size() > 0 ) ) {
-      for ( DataInputStream dis : data.dis ) {
-        BaseStep.closeQuietly( dis );
-      }
-    }
-    // close any open InputStream objects
-    if ( ( data.fis != null ) && ( data.fis.size() > 0 ) ) {
-      for ( InputStream is : data.fis ) {
-        BaseStep.closeQuietly( is );
+    // close any open temp file readers
+    if ( ( data.readers != null ) && ( data.readers.size() > 0 ) ) {
+      for ( RowSpillReader reader : data.readers ) {
+        BaseStep.closeQuietly( reader );
       }
+      data.readers.clear();
     }
     // remove temp files
     for ( int f = 0; f < data.files.size(); f++ ) {
@@ -612,6 +648,8 @@ public class SortRows extends BaseStep implements StepInterface {
         logError( e.getLocalizedMessage(), e );
       }
     }
+    data.files.clear();
+    data.bufferSizes.clear();
   }
 
   /**
@@ -619,7 +657,11 @@ public class SortRows extends BaseStep implements StepInterface {
    */
   void quickSort( List<Object[]> elements ) throws KettleException {
     if ( elements.size() > 0 ) {
-      Collections.sort( elements, data.rowComparator );
+      if ( data.parallelSortThreads > 1 && elements.size() >= SortRowsData.PARALLEL_SORT_MIN_ROWS ) {
+        parallelSort( elements );
+      } else {
+        elements.sort( data.rowComparator );
+      }
 
       long nrConversions = 0L;
       for ( ValueMetaInterface valueMeta : data.outputRowMeta.getValueMetaList() ) {
@@ -632,6 +674,32 @@ public class SortRows extends BaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Sort a large buffer with the threads of a pool of this step. This is a stable merge sort, just like the sequential
+   * one. Arrays.parallelSort() runs on the pool it is called from, so it doesn't take the common pool of the JVM that
+   * the rest of the server shares. It still sorts sequentially when that common pool has a single thread.
+   */
+  private void parallelSort( List<Object[]> elements ) throws KettleException {
+    if ( data.parallelSortPool == null ) {
+      data.parallelSortPool = new ForkJoinPool( data.parallelSortThreads );
+    }
+    Object[][] rows = elements.toArray( new Object[ elements.size() ][] );
+    try {
+      data.parallelSortPool.submit( () -> Arrays.parallelSort( rows, data.rowComparator ) ).get();
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( e );
+    } catch ( ExecutionException e ) {
+      if ( e.getCause() instanceof RuntimeException ) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new KettleException( e.getCause() );
+    }
+    for ( int i = 0; i < rows.length; i++ ) {
+      elements.set( i, rows[ i ] );
+    }
+  }
+
   /**
    * Calling this method will alert the step that we finished passing records to the step. Specifically for steps like
    * "Sort Rows" it means that the buffered rows can be sorted and passed on.
@@ -680,22 +748,6 @@ public class SortRows extends BaseStep implements StepInterface {
     }
   }
 
-  private class RowTemapFileComparator extends SortRowsComparator implements Comparator<RowTempFile> {
-    RowTemapFileComparator( RowMetaInterface rowMeta, int[] fieldNrs ) {
-      super( rowMeta, fieldNrs );
-    }
-
-    @Override
-    public int compare( RowTempFile o1, RowTempFile o2 ) {
-      try {
-        return rowMeta.compare( o1.row, o2.row, fieldNrs );
-      } catch ( KettleValueException e ) {
-        logError( "Error comparing rows: " + e.toString() );
-        return 0;
-      }
-    }
-  }
-
   private class RowObjectArrayComparator extends SortRowsComparator implements Comparator<Object[]> {
     RowObjectArrayComparator( RowMetaInterface rowMeta, int[] fieldNrs ) {
       super( rowMeta, fieldNrs );
@@ -13,15 +13,17 @@
 
 package org.pentaho.di.trans.steps.sort;
 
-import java.io.DataInputStream;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.zip.GZIPInputStream;
 
 import org.apache.commons.vfs2.FileObject;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.RowSpillCodec;
+import org.pentaho.di.core.row.RowSpillReader;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
@@ -30,27 +32,50 @@ import org.pentaho.di.trans.step.StepDataInterface;
  * @since 24-jan-2005
  */
 public class SortRowsData extends BaseStepData implements StepDataInterface {
+  /** The default maximum number of temp files to merge at once */
+  public static final int MAX_MERGE_FILES = 128;
+
+  /** Buffers with at least this many rows are sorted in parallel, if enabled */
+  public static final int PARALLEL_SORT_MIN_ROWS = 50000;
+
   public List<FileObject> files;
   public List<Object[]> buffer;
   public int getBufferIndex;
 
+  /** @deprecated the temp files are read through {@link #readers} */
+  @Deprecated
   public List<InputStream> fis;
+  /** @deprecated the temp files are read through {@link #readers} */
+  @Deprecated
   public List<GZIPInputStream> gzis;
-  public List<DataInputStream> dis;
+  public List<RowSpillReader> readers;
+  /** @deprecated the rows read back from the temp files are kept in {@link #mergeTree} */
+  @Deprecated
   public List<Object[]> rowbuffer;
   public List<Integer> bufferSizes;
 
-  // To store rows and file references
+  /** @deprecated the rows read back from the temp files are kept in {@link #mergeTree} */
+  @Deprecated
   public List<RowTempFile> tempRows;
 
+  // The merge of the temp files, null while sorting in memory
+  public RowLoserTree mergeTree;
+  public int maxMergeFiles;
+
+  // The number of threads to sort large buffers with, the pool is created when it is first needed
+  public int parallelSortThreads;
+  public ForkJoinPool parallelSortPool;
+
   public int[] fieldnrs; // the corresponding field numbers;
   public FileObject fil;
   public RowMetaInterface outputRowMeta;
   public int sortSize;
-  public boolean compressFiles;
+  public RowSpillCodec spillCodec;
   public int[] convertKeysToNative;
   public boolean convertAnyKeysToNative;
 
+  /** @deprecated the temp files are merged with {@link #rowComparator} */
+  @Deprecated
   Comparator<RowTempFile> comparator;
   Comparator<Object[]> rowComparator;
 
@@ -73,7 +98,7 @@ public class SortRowsData extends BaseStepData implements StepDataInterface {
     files = new ArrayList<FileObject>();
     fis = new ArrayList<InputStream>();
     gzis = new ArrayList<GZIPInputStream>();
-    dis = new ArrayList<DataInputStream>();
+    readers = new ArrayList<RowSpillReader>();
     bufferSizes = new ArrayList<Integer>();
 
     previous = null; // Heroic
@@ -34,6 +34,7 @@ import org.pentaho.di.core.exception.KettleXMLException;
 import org.pentaho.di.core.injection.Injection;
 import org.pentaho.di.core.injection.InjectionSupported;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.RowSpillCodecs;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.variables.VariableSpace;
 import org.pentaho.di.core.xml.XMLHandler;
@@ -113,6 +114,13 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
   /** The variable to use to set the compressFiles option boolean */
   private String compressFilesVariable;
 
+  /**
+   * The code of the spill codec for the temporary files, see RowSpillCodecs. If empty the compressFiles option picks
+   * the codec.
+   */
+  @Injection( name = "SPILL_CODEC" )
+  private String spillCodec;
+
   public SortRowsMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -217,6 +225,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       freeMemoryLimit = XMLHandler.getTagValue( stepnode, "free_memory" );
       compressFiles = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "compress" ) );
       compressFilesVariable = XMLHandler.getTagValue( stepnode, "compress_variable" );
+      spillCodec = XMLHandler.getTagValue( stepnode, "spill_codec" );
       onlyPassingUniqueRows = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "unique_rows" ) );
 
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
@@ -253,6 +262,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     freeMemoryLimit = null;
     compressFiles = false;
     compressFilesVariable = null;
+    spillCodec = RowSpillCodecs.BLOCK_LZ4;
     onlyPassingUniqueRows = false;
 
     int nrfields = 0;
@@ -283,6 +293,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     retval.append( "      " ).append( XMLHandler.addTagValue( "free_memory", freeMemoryLimit ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress", compressFiles ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "compress_variable", compressFilesVariable ) );
+    retval.append( "      " ).append( XMLHandler.addTagValue( "spill_codec", spillCodec ) );
     retval.append( "      " ).append( XMLHandler.addTagValue( "unique_rows", onlyPassingUniqueRows ) );
 
     retval.append( "    <fields>" ).append( Const.CR );
@@ -312,6 +323,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
 
       compressFiles = rep.getStepAttributeBoolean( id_step, "compress" );
       compressFilesVariable = rep.getStepAttributeString( id_step, "compress_variable" );
+      spillCodec = rep.getStepAttributeString( id_step, "spill_codec" );
 
       onlyPassingUniqueRows = rep.getStepAttributeBoolean( id_step, "unique_rows" );
 
@@ -365,6 +377,7 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
       rep.saveStepAttribute( id_transformation, id_step, "free_memory", freeMemoryLimit );
       rep.saveStepAttribute( id_transformation, id_step, "compress", compressFiles );
       rep.saveStepAttribute( id_transformation, id_step, "compress_variable", compressFilesVariable );
+      rep.saveStepAttribute( id_transformation, id_step, "spill_codec", spillCodec );
       rep.saveStepAttribute( id_transformation, id_step, "unique_rows", onlyPassingUniqueRows );
 
       for ( int i = 0; i < fieldName.length; i++ ) {
@@ -574,6 +587,21 @@ public class SortRowsMeta extends BaseStepMeta implements StepMetaInterface, Ser
     this.compressFilesVariable = compressFilesVariable;
   }
 
+  /**
+   * @return the code of the spill codec for the temporary files, empty to use the compress files option
+   */
+  public String getSpillCodec() {
+    return spillCodec;
+  }
+
+  /**
+   * @param spillCodec
+   *          the code of the spill codec for the temporary files, empty to use the compress files option
+   */
+  public void setSpillCodec( String spillCodec ) {
+    this.spillCodec = spillCodec;
+  }
+
   /**
    * @return the caseSensitive
    */
@@ -14,20 +14,25 @@
 package org.pentaho.di.trans.steps.streamlookup;
 
 import java.math.BigDecimal;
+import java.io.IOException;
 import java.text.DateFormat;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map;
 
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
+import org.pentaho.di.core.hash.RowHashIndex;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaFactory;
@@ -194,6 +199,10 @@ public class StreamLookup extends BaseStep implements StepInterface {
 
         data.cacheKeyMeta = cacheKeyMeta;
         data.cacheValueMeta = cacheValueMeta;
+        data.offHeapIndex = createOffHeapIndex( cacheKeyMeta, cacheValueMeta );
+        if ( data.offHeapIndex == null ) {
+          data.rowIndex = createRowIndex( cacheKeyMeta, cacheValueMeta );
+        }
       }
 
       Object[] keyData = new Object[keyNrs.length];
@@ -288,9 +297,50 @@ public class StreamLookup extends BaseStep implements StepInterface {
     return RowDataUtil.addRowData( row, rowMeta.size(), add );
   }
 
+  /**
+   * Use the open addressing row index instead of a hash map of rows, or of serialized rows to preserve memory, when the
+   * key types allow it. The sorted list and the integer pair algorithms are kept as they are.
+   */
+  private RowHashIndex createRowIndex( RowMetaInterface keyMeta, RowMetaInterface valueMeta ) {
+    if ( meta.isMemoryPreservationActive() && ( meta.isUsingSortedList() || meta.isUsingIntegerPair() ) ) {
+      return null;
+    }
+    if ( !RowHashIndex.isSupported( keyMeta ) ) {
+      return null;
+    }
+    return new RowHashIndex( keyMeta, valueMeta, meta.isMemoryPreservationActive() );
+  }
+
+  /**
+   * Keep the lookup rows, keys followed by values, outside of the heap when the step has an off-heap budget.
+   */
+  private OffHeapRowStore.HashIndex createOffHeapIndex( RowMetaInterface keyMeta, RowMetaInterface valueMeta )
+    throws KettleValueException {
+    long budget = Const.toLong( environmentSubstitute( meta.getOffHeapBudget() ), 0L );
+    if ( budget <= 0 ) {
+      return null;
+    }
+    RowMetaInterface storeMeta = keyMeta.clone();
+    storeMeta.addRowMeta( valueMeta );
+    data.offHeapStore = new OffHeapRowStore( storeMeta, budget * 1024 * 1024 );
+
+    int[] keyIndexes = new int[ keyMeta.size() ];
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      keyIndexes[ i ] = i;
+    }
+    return data.offHeapStore.createHashIndex( keyIndexes );
+  }
+
   private void addToCache( RowMetaInterface keyMeta, Object[] keyData, RowMetaInterface valueMeta,
     Object[] valueData ) throws KettleValueException {
-    if ( meta.isMemoryPreservationActive() ) {
+    if ( data.offHeapIndex != null ) {
+      Object[] row = new Object[ keyData.length + valueData.length ];
+      System.arraycopy( keyData, 0, row, 0, keyData.length );
+      System.arraycopy( valueData, 0, row, keyData.length, valueData.length );
+      data.offHeapIndex.put( row );
+    } else if ( data.rowIndex != null ) {
+      data.rowIndex.put( keyData, valueData );
+    } else if ( meta.isMemoryPreservationActive() ) {
       if ( meta.isUsingSortedList() ) {
         KeyValue keyValue = new KeyValue( keyData, valueData );
         int idx = Collections.binarySearch( data.list, keyValue, data.comparator );
@@ -332,7 +382,15 @@ public class StreamLookup extends BaseStep implements StepInterface {
   }
 
   private Object[] getFromCache( RowMetaInterface keyMeta, Object[] keyData ) throws KettleValueException {
-    if ( meta.isMemoryPreservationActive() ) {
+    if ( data.offHeapIndex != null ) {
+      Object[] row = data.offHeapIndex.get( keyData );
+      if ( row == null ) {
+        return null;
+      }
+      return Arrays.copyOfRange( row, keyMeta.size(), keyMeta.size() + data.cacheValueMeta.size() );
+    } else if ( data.rowIndex != null ) {
+      return data.rowIndex.get( keyData );
+    } else if ( meta.isMemoryPreservationActive() ) {
       if ( meta.isUsingSortedList() ) {
         KeyValue keyValue = new KeyValue( keyData, null );
         int idx = Collections.binarySearch( data.list, keyValue, data.comparator );
@@ -479,6 +537,16 @@ public class StreamLookup extends BaseStep implements StepInterface {
     data.list = null;
     data.hashIndex = null;
     data.longIndex = null;
+    data.rowIndex = null;
+    data.offHeapIndex = null;
+    if ( data.offHeapStore != null ) {
+      try {
+        data.offHeapStore.close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "StreamLookup.Log.UnableToCloseOffHeapStore" ), e );
+      }
+      data.offHeapStore = null;
+    }
 
     super.dispose( smi, sdi );
   }
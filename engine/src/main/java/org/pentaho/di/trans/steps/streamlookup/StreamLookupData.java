@@ -23,6 +23,8 @@ import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.exception.KettleValueException;
 import org.pentaho.di.core.hash.ByteArrayHashIndex;
 import org.pentaho.di.core.hash.LongHashIndex;
+import org.pentaho.di.core.hash.RowHashIndex;
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -65,6 +67,13 @@ public class StreamLookupData extends BaseStepData implements StepDataInterface
   public ByteArrayHashIndex hashIndex;
   public LongHashIndex longIndex;
 
+  /** The lookup rows by key, used instead of look or hashIndex when the key types allow it */
+  public RowHashIndex rowIndex;
+
+  /** The lookup rows outside of the heap, used instead of all the above when the step has an off-heap budget */
+  public OffHeapRowStore offHeapStore;
+  public OffHeapRowStore.HashIndex offHeapIndex;
+
   public RowMetaInterface lookupMeta;
 
   public RowMetaInterface infoMeta;
@@ -0,0 +1,348 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.exception.KettleDatabaseBatchException;
+import org.pentaho.di.core.exception.KettleDatabaseException;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.InFlightQueue;
+
+/**
+ * Executes the insert batches of Table Output on a pool of connections, so the step can fill the next batch while
+ * the previous ones are sent to the database. Every batch is committed on its own connection.<br>
+ * <br>
+ * The number of batches that are submitted but not handed back to the step is bounded: {@link #submit(Batch)} blocks
+ * until a batch is written when the limit is reached. Written batches are handed back in submit order, or in the order
+ * they finish when the row order doesn't need to be preserved.
+ *
+ * @since 11.0
+ */
+public class PipelinedTableWriter implements AutoCloseable {
+
+  private static final long RETRY_DELAY_MS = 100L;
+
+  /**
+   * The rows of one insert batch, and after writing the outcome.
+   */
+  public static class Batch {
+    private final String tableName;
+    private final List<Object[]> insertRows = new ArrayList<>();
+    private final List<Object[]> outputRows = new ArrayList<>();
+
+    private boolean failed;
+    private String errorMessage;
+    private int[] updateCounts;
+    private List<Exception> exceptions = Collections.emptyList();
+
+    public Batch( String tableName ) {
+      this.tableName = tableName;
+    }
+
+    /**
+     * @param insertRow the values to insert, in the layout of the insert row metadata
+     * @param outputRow the row to pass on to the next steps once it is written
+     */
+    public void addRow( Object[] insertRow, Object[] outputRow ) {
+      insertRows.add( insertRow );
+      outputRows.add( outputRow );
+    }
+
+    public int size() {
+      return insertRows.size();
+    }
+
+    public String getTableName() {
+      return tableName;
+    }
+
+    public List<Object[]> getOutputRows() {
+      return outputRows;
+    }
+
+    public boolean isFailed() {
+      return failed;
+    }
+
+    public String getErrorMessage() {
+      return errorMessage;
+    }
+
+    /**
+     * @return the update counts of the failed batch execution, null if the database didn't report them
+     */
+    public int[] getUpdateCounts() {
+      return updateCounts;
+    }
+
+    public List<Exception> getExceptions() {
+      return exceptions;
+    }
+
+    void fail( String errorMessage, int[] updateCounts, List<Exception> exceptions ) {
+      this.failed = true;
+      this.errorMessage = errorMessage;
+      this.updateCounts = updateCounts;
+      this.exceptions = exceptions == null ? Collections.<Exception>emptyList() : exceptions;
+    }
+  }
+
+  /**
+   * A pooled connection with its own copy of the row metadata: value conversions are not thread safe.
+   */
+  private static class WriterConnection {
+    private final Database db;
+    private final RowMetaInterface insertRowMeta;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    WriterConnection( Database db, RowMetaInterface insertRowMeta ) {
+      this.db = db;
+      this.insertRowMeta = insertRowMeta;
+    }
+  }
+
+  private final String schemaName;
+  private final int maximumInFlight;
+  private final int retries;
+  private final boolean commitPartialBatches;
+  private final LogChannelInterface log;
+
+  private final List<WriterConnection> connections = new ArrayList<>();
+  private final BlockingQueue<WriterConnection> idleConnections;
+  private final ExecutorService executor;
+  private final InFlightQueue<Batch> batches;
+
+  /**
+   * @param connections          the connected databases to write with, with auto commit disabled
+   * @param insertRowMeta        the layout of the inserted rows
+   * @param schemaName           the schema of the target tables
+   * @param preserveOrder        hand written batches back in the order they were submitted
+   * @param maximumInFlight      the maximum number of batches submitted but not handed back yet
+   * @param retries              the number of times a failing batch is rolled back and executed again
+   * @param commitPartialBatches commit the rows of a batch that failed for good which the database did accept, for
+   *                             step error handling; otherwise the batch is rolled back
+   * @param log                  the log channel of the step
+   * @param threadName           the name prefix of the writer threads
+   */
+  public PipelinedTableWriter( List<Database> connections, RowMetaInterface insertRowMeta, String schemaName,
+                               boolean preserveOrder, int maximumInFlight, int retries, boolean commitPartialBatches,
+                               LogChannelInterface log, String threadName ) {
+    this.schemaName = schemaName;
+    this.batches = new InFlightQueue<>( preserveOrder );
+    this.maximumInFlight = Math.max( 1, maximumInFlight );
+    this.retries = Math.max( 0, retries );
+    this.commitPartialBatches = commitPartialBatches;
+    this.log = log;
+
+    idleConnections = new ArrayBlockingQueue<>( connections.size() );
+    for ( Database db : connections ) {
+      WriterConnection connection = new WriterConnection( db, insertRowMeta.clone() );
+      this.connections.add( connection );
+      idleConnections.add( connection );
+    }
+
+    AtomicInteger threadNr = new AtomicInteger( 1 );
+    executor = Executors.newFixedThreadPool( connections.size(), runnable -> {
+      Thread thread = Executors.defaultThreadFactory().newThread( runnable );
+      thread.setDaemon( true );
+      thread.setName( threadName + " writer " + threadNr.getAndIncrement() );
+      return thread;
+    } );
+  }
+
+  /**
+   * Hand a full batch to the writer threads. Blocks while the maximum number of batches is in flight.
+   *
+   * @return the batches that were written in the meantime, possibly failed
+   */
+  public List<Batch> submit( Batch batch ) throws KettleException {
+    List<Batch> written = new ArrayList<>();
+    collectWritten( written, false );
+    while ( batches.getInFlight() >= maximumInFlight ) {
+      collectWritten( written, true );
+    }
+    long sequenceNr = batches.register();
+    executor.execute( () -> write( sequenceNr, batch ) );
+    return written;
+  }
+
+  /**
+   * Wait for all submitted batches to be written.
+   *
+   * @return the batches that were not handed back yet
+   */
+  public List<Batch> finish() throws KettleException {
+    List<Batch> written = new ArrayList<>();
+    while ( batches.getInFlight() > 0 ) {
+      collectWritten( written, true );
+    }
+    return written;
+  }
+
+  /**
+   * Wait for the batches in flight, then close the statements and disconnect the connections.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      // a running executeBatch() can't be interrupted, the connections are only closed when it is done
+      while ( !executor.awaitTermination( 1, TimeUnit.SECONDS ) ) {
+        if ( log.isDetailed() ) {
+          log.logDetailed( "Waiting for the batches in flight to be written" );
+        }
+      }
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+    }
+    for ( WriterConnection connection : connections ) {
+      for ( PreparedStatement statement : connection.statements.values() ) {
+        try {
+          statement.close();
+        } catch ( SQLException e ) {
+          log.logError( "Unable to close prepared statement", e );
+        }
+      }
+      connection.statements.clear();
+      connection.db.disconnect();
+    }
+  }
+
+  private void collectWritten( List<Batch> written, boolean wait ) throws KettleException {
+    try {
+      batches.collect( written, wait );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      throw new KettleException( "Interrupted while waiting for a batch to be written", e );
+    }
+  }
+
+  private void write( long sequenceNr, Batch batch ) {
+    WriterConnection connection = null;
+    try {
+      connection = idleConnections.take();
+      execute( connection, batch );
+    } catch ( InterruptedException e ) {
+      Thread.currentThread().interrupt();
+      batch.fail( "Interrupted before the batch was written", null, null );
+    } catch ( RuntimeException e ) {
+      if ( connection != null ) {
+        rollback( connection );
+      }
+      batch.fail( e.toString(), null, null );
+    } finally {
+      if ( connection != null ) {
+        idleConnections.add( connection );
+      }
+      batches.complete( sequenceNr, batch );
+    }
+  }
+
+  private void execute( WriterConnection connection, Batch batch ) throws InterruptedException {
+    for ( int attempt = 0; ; attempt++ ) {
+      PreparedStatement statement = null;
+      try {
+        statement = getStatement( connection, batch.getTableName() );
+        for ( Object[] row : batch.insertRows ) {
+          connection.db.setValues( connection.insertRowMeta, row, statement );
+          statement.addBatch();
+        }
+        statement.executeBatch();
+        connection.db.commit();
+        statement.clearBatch();
+        return;
+      } catch ( SQLException e ) {
+        KettleDatabaseBatchException be = Database.createKettleDatabaseBatchException( "Error updating batch", e );
+        clearBatch( statement );
+        if ( attempt < retries ) {
+          rollback( connection );
+          log.logBasic( "Batch of " + batch.size() + " rows into table [" + batch.getTableName() + "] failed, retry "
+            + ( attempt + 1 ) + " of " + retries + " : " + e.getMessage() );
+          Thread.sleep( RETRY_DELAY_MS * ( attempt + 1 ) );
+          continue;
+        }
+        if ( commitPartialBatches ) {
+          commit( connection );
+        } else {
+          rollback( connection );
+        }
+        batch.fail( be.toString(), be.getUpdateCounts(), be.getExceptionsList() );
+        return;
+      } catch ( KettleDatabaseException e ) {
+        // a value that can't be converted or a statement that can't be prepared: retrying won't help
+        clearBatch( statement );
+        rollback( connection );
+        batch.fail( e.toString(), null, null );
+        return;
+      }
+    }
+  }
+
+  private PreparedStatement getStatement( WriterConnection connection, String tableName )
+    throws KettleDatabaseException {
+    PreparedStatement statement = connection.statements.get( tableName );
+    if ( statement == null ) {
+      String sql = connection.db.getInsertStatement( schemaName, tableName, connection.insertRowMeta );
+      if ( log.isDetailed() ) {
+        log.logDetailed( "Prepared statement : " + sql );
+      }
+      statement = connection.db.prepareSQL( sql );
+      connection.statements.put( tableName, statement );
+    }
+    return statement;
+  }
+
+  private void clearBatch( PreparedStatement statement ) {
+    if ( statement == null ) {
+      return;
+    }
+    try {
+      statement.clearBatch();
+    } catch ( SQLException e ) {
+      log.logError( "Unable to clear batch for prepared statement", e );
+    }
+  }
+
+  private void commit( WriterConnection connection ) {
+    try {
+      connection.db.commit( true );
+    } catch ( KettleDatabaseException e ) {
+      log.logError( "Unexpected error committing the database connection.", e );
+    }
+  }
+
+  private void rollback( WriterConnection connection ) {
+    try {
+      connection.db.rollback();
+    } catch ( KettleDatabaseException e ) {
+      log.logError( "Unexpected error rolling back the database connection.", e );
+    }
+  }
+}
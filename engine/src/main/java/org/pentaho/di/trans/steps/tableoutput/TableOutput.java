@@ -37,6 +37,7 @@ import org.pentaho.di.trans.step.*;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +83,10 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
         truncateTable();
       }
       data.outputRowMeta = getInputRowMeta().clone();
+      if ( data.pipelined && !data.db.getUseBatchInsert( data.batchMode ) ) {
+        logBasic( BaseMessages.getString( PKG, "TableOutput.Log.PipelinedWritingNeedsBatchUpdates" ) );
+        data.pipelined = false;
+      }
       meta.getFields( getTransMeta().getBowl(), data.outputRowMeta, getStepname(), null, null, this, repository,
         metaStore );
 
@@ -236,6 +241,12 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       throw new KettleStepException( "The tablename is not defined (empty)" );
     }
 
+    if ( data.pipelined ) {
+      // The row is passed on once its batch is written
+      writeToPipeline( tableName, insertRowData, outputRowData );
+      return null;
+    }
+
     insertStatement = data.preparedStatements.get( tableName );
     if ( insertStatement == null ) {
       String sql =
@@ -333,16 +344,7 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       } else {
         data.db.clearBatch( insertStatement );
         data.db.rollback();
-        StringBuilder msg = new StringBuilder( "Error batch inserting rows into table [" + tableName + "]." );
-        msg.append( Const.CR );
-        msg.append( "Errors encountered (first 10):" ).append( Const.CR );
-        for ( int x = 0; x < be.getExceptionsList().size() && x < 10; x++ ) {
-          Exception exception = be.getExceptionsList().get( x );
-          if ( exception.getMessage() != null ) {
-            msg.append( exception.getMessage() ).append( Const.CR );
-          }
-        }
-        throw new KettleException( msg.toString(), be );
+        throw new KettleException( getBatchErrorMessage( tableName, be.getExceptionsList() ), be );
       }
     } catch ( KettleDatabaseException dbe ) {
       if ( getStepMeta().isDoingErrorHandling() ) {
@@ -424,18 +426,115 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     return outputRowData;
   }
 
+  /**
+   * Adds the row to the open batch of its table and hands the batch to the pipelined writer once it holds commit size
+   * rows.
+   */
+  private void writeToPipeline( String tableName, Object[] insertRowData, Object[] outputRowData )
+    throws KettleException {
+    if ( data.writer == null ) {
+      data.writer = createPipelinedWriter();
+    }
+    PipelinedTableWriter.Batch batch = data.openBatches.get( tableName );
+    if ( batch == null ) {
+      batch = new PipelinedTableWriter.Batch( tableName );
+      data.openBatches.put( tableName, batch );
+    }
+    batch.addRow( insertRowData, outputRowData );
+    if ( isRowLevel() ) {
+      logRowlevel( "Batched row: " + data.insertRowMeta.getString( insertRowData ) );
+    }
+
+    if ( batch.size() >= data.commitSize ) {
+      data.openBatches.remove( tableName );
+      processWrittenBatches( data.writer.submit( batch ) );
+    }
+  }
+
+  private PipelinedTableWriter createPipelinedWriter() throws KettleException {
+    int nrConnections = Math.max( 1, Const.toInt( environmentSubstitute( meta.getWriterConnections() ), 1 ) );
+    int maxInFlight = Const.toInt( environmentSubstitute( meta.getMaxBatchesInFlight() ), 2 * nrConnections );
+    int retries = Const.toInt( environmentSubstitute( meta.getBatchRetries() ), 0 );
+
+    List<Database> connections = new ArrayList<>( nrConnections );
+    try {
+      for ( int i = 0; i < nrConnections; i++ ) {
+        Database db = new Database( this, data.databaseMeta );
+        db.shareVariablesWith( this );
+        connections.add( db );
+        db.connect( getPartitionID() );
+        db.setCommit( data.commitSize );
+      }
+    } catch ( KettleDatabaseException e ) {
+      for ( Database db : connections ) {
+        db.disconnect();
+      }
+      throw e;
+    }
+
+    if ( log.isBasic() ) {
+      logBasic( BaseMessages.getString( PKG, "TableOutput.Log.PipelinedWriting", String.valueOf( nrConnections ),
+        String.valueOf( maxInFlight ) ) );
+    }
+    return new PipelinedTableWriter( connections, data.insertRowMeta, environmentSubstitute( meta.getSchemaName() ),
+      meta.isPreserveRowOrder(), maxInFlight, retries, getStepMeta().isDoingErrorHandling(), log, getStepname() );
+  }
+
+  /**
+   * Passes on the rows of the written batches. The rows of a failed batch go to the error handling of the step, or
+   * stop the step when there is none.
+   */
+  private void processWrittenBatches( List<PipelinedTableWriter.Batch> batches ) throws KettleException {
+    for ( PipelinedTableWriter.Batch batch : batches ) {
+      if ( !batch.isFailed() ) {
+        for ( Object[] row : batch.getOutputRows() ) {
+          putRow( data.outputRowMeta, row );
+          incrementLinesOutput();
+        }
+      } else if ( getStepMeta().isDoingErrorHandling() ) {
+        processBatchException( batch.getErrorMessage(), batch.getUpdateCounts(), batch.getExceptions(),
+          batch.getOutputRows() );
+      } else {
+        StringBuilder msg = new StringBuilder( getBatchErrorMessage( batch.getTableName(), batch.getExceptions() ) );
+        msg.append( batch.getErrorMessage() );
+        throw new KettleException( msg.toString() );
+      }
+    }
+  }
+
+  private String getBatchErrorMessage( String tableName, List<Exception> exceptionsList ) {
+    StringBuilder msg = new StringBuilder( "Error batch inserting rows into table [" + tableName + "]." );
+    msg.append( Const.CR );
+    msg.append( "Errors encountered (first 10):" ).append( Const.CR );
+    for ( int x = 0; x < exceptionsList.size() && x < 10; x++ ) {
+      Exception exception = exceptionsList.get( x );
+      if ( exception.getMessage() != null ) {
+        msg.append( exception.getMessage() ).append( Const.CR );
+      }
+    }
+    return msg.toString();
+  }
+
   public boolean isRowLevel() {
     return log.isRowLevel();
   }
 
   private void processBatchException( String errorMessage, int[] updateCounts, List<Exception> exceptionsList ) throws KettleException {
+    processBatchException( errorMessage, updateCounts, exceptionsList, data.batchBuffer );
+
+    // Clear the buffer afterwards...
+    data.batchBuffer.clear();
+  }
+
+  private void processBatchException( String errorMessage, int[] updateCounts, List<Exception> exceptionsList,
+                                      List<Object[]> rows ) throws KettleException {
     // There was an error with the commit
     // We should put all the failing rows out there...
     //
     if ( updateCounts != null ) {
       int errNr = 0;
       for ( int i = 0; i < updateCounts.length; i++ ) {
-        Object[] row = data.batchBuffer.get( i );
+        Object[] row = rows.get( i );
         if ( updateCounts[i] > 0 ) {
           // send the error foward
           putRow( data.outputRowMeta, row );
@@ -454,14 +553,11 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
       // If we don't have update counts, it probably means the DB doesn't support it.
       // In this case we don't have a choice but to consider all inserted rows to be error rows.
       //
-      for ( int i = 0; i < data.batchBuffer.size(); i++ ) {
-        Object[] row = data.batchBuffer.get( i );
+      for ( int i = 0; i < rows.size(); i++ ) {
+        Object[] row = rows.get( i );
         putError( data.outputRowMeta, row, 1L, errorMessage, null, "TOP0003" );
       }
     }
-
-    // Clear the buffer afterwards...
-    data.batchBuffer.clear();
   }
 
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
@@ -495,6 +591,12 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
             && data.commitSize > 0 && !meta.isReturningGeneratedKeys()
             && !getTransMeta().isUsingUniqueConnections() && !data.useSafePoints;
 
+        // Pipelined writing sends the batches on extra connections, so it needs batch mode
+        data.pipelined = meta.isPipelinedWriting() && data.batchMode;
+        if ( meta.isPipelinedWriting() && !data.pipelined ) {
+          logBasic( BaseMessages.getString( PKG, "TableOutput.Log.PipelinedWritingNeedsBatchUpdates" ) );
+        }
+
         // Per PDI-6211 : give a warning that batch mode operation in combination with step error handling can lead to
         // incorrectly processed rows.
         if ( getStepMeta().isDoingErrorHandling() && !dbInterface.supportsErrorHandlingOnBatchUpdates() ) {
@@ -543,6 +645,10 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
         && ( ( getCopy() == 0 && getUniqueStepNrAcrossSlaves() == 0 ) || !Utils.isEmpty( getPartitionID() ) ) ) {
         data.db.truncateTable( environmentSubstitute( meta.getSchemaName() ), environmentSubstitute( meta
           .getTableName() ) );
+        if ( data.pipelined ) {
+          // The writer connections would wait for the lock of an uncommitted truncate
+          data.db.commit();
+        }
 
       }
     }
@@ -552,6 +658,10 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     meta = (TableOutputMeta) smi;
     data = (TableOutputData) sdi;
 
+    if ( data.writer != null ) {
+      disposePipelinedWriter();
+    }
+
     if ( data.db != null ) {
       try {
         for ( String schemaTable : data.preparedStatements.keySet() ) {
@@ -609,6 +719,28 @@ public class TableOutput extends BaseDatabaseStep implements StepInterface {
     }
   }
 
+  /**
+   * Writes the batches that are not full yet and waits for all batches in flight, unless the step failed.
+   */
+  private void disposePipelinedWriter() {
+    try {
+      if ( getErrors() == 0 ) {
+        for ( PipelinedTableWriter.Batch batch : data.openBatches.values() ) {
+          processWrittenBatches( data.writer.submit( batch ) );
+        }
+        processWrittenBatches( data.writer.finish() );
+      }
+    } catch ( KettleException e ) {
+      logError( "Unexpected error writing the last batches.", e );
+      setErrors( 1 );
+      stopAll();
+    } finally {
+      data.openBatches.clear();
+      data.writer.close();
+      data.writer = null;
+    }
+  }
+
   @SuppressWarnings( "java:S1144" ) // Using reflection this method is being invoked
   public JSONObject getSQLAction( Map<String, String> queryParams ) {
     JSONObject response = new JSONObject();
@@ -69,6 +69,15 @@ public class TableOutputData extends BaseDatabaseStepData implements StepDataInt
 
   public int commitSize;
 
+  /** Write the batches on a pool of connections, see {@link PipelinedTableWriter} */
+  public boolean pipelined;
+
+  /** The pipelined writer, created when the first row is written */
+  public PipelinedTableWriter writer;
+
+  /** The batches per table that are being filled in pipelined mode */
+  public Map<String, PipelinedTableWriter.Batch> openBatches;
+
   public TableOutputData() {
     super();
 
@@ -83,6 +92,7 @@ public class TableOutputData extends BaseDatabaseStepData implements StepDataInt
 
     batchBuffer = new ArrayList<Object[]>();
     commitCounterMap = new HashMap<String, Integer>();
+    openBatches = new HashMap<String, PipelinedTableWriter.Batch>();
 
     releaseSavepoint = true;
   }
@@ -137,6 +137,34 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
   @Injection( name = "AUTO_GENERATED_KEY_FIELD" )
   private String generatedKeyField;
 
+  /**
+   * Fill the next batch while the previous ones are written on a pool of connections
+   */
+  @Injection( name = "PIPELINED_WRITING" )
+  public void metaSetPipelinedWriting( String value ) {
+    setPipelinedWriting( "Y".equalsIgnoreCase( value ) );
+  }
+  private boolean pipelinedWriting;
+
+  /** The number of connections that write batches in pipelined mode */
+  @Injection( name = "WRITER_CONNECTIONS" )
+  private String writerConnections;
+
+  /** The maximum number of batches that are written but not passed on yet in pipelined mode */
+  @Injection( name = "MAX_BATCHES_IN_FLIGHT" )
+  private String maxBatchesInFlight;
+
+  /** Pass the rows on in the order they came in, also when a later batch is written first */
+  @Injection( name = "PRESERVE_ROW_ORDER" )
+  public void metaSetPreserveRowOrder( String value ) {
+    setPreserveRowOrder( "Y".equalsIgnoreCase( value ) );
+  }
+  private boolean preserveRowOrder;
+
+  /** The number of times a failing batch is rolled back and written again in pipelined mode */
+  @Injection( name = "BATCH_RETRIES" )
+  private String batchRetries;
+
   // This follows the naming convention on TableInputMeta see
   // @See https://github.com/pentaho/pentaho-kettle/blob/285c5962c8bc73c5bec30933fe0b8fee00426043/engine/src/main/java/org/pentaho/di/trans/steps/tableinput/TableInputMeta.java#L100
   @Injection( name = "CONNECTIONNAME" )
@@ -283,10 +311,84 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     this.partitioningField = partitioningField;
   }
 
+  /**
+   * @return true if the batches are written on a pool of connections while the step fills the next batch
+   */
+  public boolean isPipelinedWriting() {
+    return pipelinedWriting;
+  }
+
+  /**
+   * @param pipelinedWriting true to write the batches on a pool of connections while the step fills the next batch
+   */
+  public void setPipelinedWriting( boolean pipelinedWriting ) {
+    this.pipelinedWriting = pipelinedWriting;
+  }
+
+  /**
+   * @return the number of connections that write batches in pipelined mode
+   */
+  public String getWriterConnections() {
+    return writerConnections;
+  }
+
+  /**
+   * @param writerConnections the number of connections that write batches in pipelined mode
+   */
+  public void setWriterConnections( String writerConnections ) {
+    this.writerConnections = writerConnections;
+  }
+
+  /**
+   * @return the maximum number of batches in flight in pipelined mode
+   */
+  public String getMaxBatchesInFlight() {
+    return maxBatchesInFlight;
+  }
+
+  /**
+   * @param maxBatchesInFlight the maximum number of batches in flight in pipelined mode
+   */
+  public void setMaxBatchesInFlight( String maxBatchesInFlight ) {
+    this.maxBatchesInFlight = maxBatchesInFlight;
+  }
+
+  /**
+   * @return true if the written rows are passed on in the order they came in
+   */
+  public boolean isPreserveRowOrder() {
+    return preserveRowOrder;
+  }
+
+  /**
+   * @param preserveRowOrder true to pass the written rows on in the order they came in
+   */
+  public void setPreserveRowOrder( boolean preserveRowOrder ) {
+    this.preserveRowOrder = preserveRowOrder;
+  }
+
+  /**
+   * @return the number of times a failing batch is written again in pipelined mode
+   */
+  public String getBatchRetries() {
+    return batchRetries;
+  }
+
+  /**
+   * @param batchRetries the number of times a failing batch is written again in pipelined mode
+   */
+  public void setBatchRetries( String batchRetries ) {
+    this.batchRetries = batchRetries;
+  }
+
   public TableOutputMeta() {
     super(); // allocate BaseStepMeta
     useBatchUpdate = true;
     commitSize = "1000";
+    writerConnections = "2";
+    maxBatchesInFlight = "4";
+    preserveRowOrder = true;
+    batchRetries = "0";
 
     fieldStream = new String[ 0 ];
     fieldDatabase = new String[ 0 ];
@@ -464,6 +566,13 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       returningGeneratedKeys = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "return_keys" ) );
       generatedKeyField = XMLHandler.getTagValue( stepnode, "return_field" );
 
+      pipelinedWriting = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "pipelined" ) );
+      writerConnections = XMLHandler.getTagValue( stepnode, "writer_connections" );
+      maxBatchesInFlight = XMLHandler.getTagValue( stepnode, "max_batches_in_flight" );
+      // If not present the order is preserved, as it always was
+      preserveRowOrder = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserve_order" ) );
+      batchRetries = XMLHandler.getTagValue( stepnode, "batch_retries" );
+
       Node fields = XMLHandler.getSubNode( stepnode, "fields" );
       int nrRows = XMLHandler.countNodes( fields, "field" );
 
@@ -493,6 +602,12 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
 
     // To be compatible with pre-v3.2 (SB)
     specifyFields = false;
+
+    pipelinedWriting = false;
+    writerConnections = "2";
+    maxBatchesInFlight = "4";
+    preserveRowOrder = true;
+    batchRetries = "0";
   }
 
   public String getXML() {
@@ -520,6 +635,12 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
     retval.append( "    " + XMLHandler.addTagValue( "return_keys", returningGeneratedKeys ) );
     retval.append( "    " + XMLHandler.addTagValue( "return_field", generatedKeyField ) );
 
+    retval.append( "    " + XMLHandler.addTagValue( "pipelined", pipelinedWriting ) );
+    retval.append( "    " + XMLHandler.addTagValue( "writer_connections", writerConnections ) );
+    retval.append( "    " + XMLHandler.addTagValue( "max_batches_in_flight", maxBatchesInFlight ) );
+    retval.append( "    " + XMLHandler.addTagValue( "preserve_order", preserveRowOrder ) );
+    retval.append( "    " + XMLHandler.addTagValue( "batch_retries", batchRetries ) );
+
     retval.append( "    <fields>" ).append( Const.CR );
 
     for ( int i = 0; i < fieldDatabase.length; i++ ) {
@@ -557,6 +678,12 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       returningGeneratedKeys = rep.getStepAttributeBoolean( id_step, "return_keys" );
       generatedKeyField = rep.getStepAttributeString( id_step, "return_field" );
 
+      pipelinedWriting = rep.getStepAttributeBoolean( id_step, "pipelined" );
+      writerConnections = rep.getStepAttributeString( id_step, "writer_connections" );
+      maxBatchesInFlight = rep.getStepAttributeString( id_step, "max_batches_in_flight" );
+      preserveRowOrder = rep.getStepAttributeBoolean( id_step, 0, "preserve_order", true );
+      batchRetries = rep.getStepAttributeString( id_step, "batch_retries" );
+
       int nrCols = rep.countNrStepAttributes( id_step, "column_name" );
       int nrStreams = rep.countNrStepAttributes( id_step, "stream_name" );
 
@@ -596,6 +723,12 @@ public class TableOutputMeta extends BaseDatabaseStepMeta implements StepMetaInt
       rep.saveStepAttribute( id_transformation, id_step, "return_keys", returningGeneratedKeys );
       rep.saveStepAttribute( id_transformation, id_step, "return_field", generatedKeyField );
 
+      rep.saveStepAttribute( id_transformation, id_step, "pipelined", pipelinedWriting );
+      rep.saveStepAttribute( id_transformation, id_step, "writer_connections", writerConnections );
+      rep.saveStepAttribute( id_transformation, id_step, "max_batches_in_flight", maxBatchesInFlight );
+      rep.saveStepAttribute( id_transformation, id_step, "preserve_order", preserveRowOrder );
+      rep.saveStepAttribute( id_transformation, id_step, "batch_retries", batchRetries );
+
       int nrRows = ( fieldDatabase.length < fieldStream.length ? fieldStream.length : fieldDatabase.length );
       for ( int idx = 0; idx < nrRows; idx++ ) {
         String columnName = ( idx < fieldDatabase.length ? fieldDatabase[ idx ] : "" );
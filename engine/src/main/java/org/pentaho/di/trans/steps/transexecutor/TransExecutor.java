@@ -13,6 +13,7 @@
 
 package org.pentaho.di.trans.steps.transexecutor;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -26,6 +27,7 @@ import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.logging.KettleLogStore;
 import org.pentaho.di.core.row.RowDataUtil;
@@ -38,11 +40,13 @@ import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransExecutionConfiguration;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.PreparedInstancePool;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.TransStepUtil;
+import org.pentaho.di.trans.steps.sql.ExecSQLMeta;
 
 /**
  * Execute a transformation for every input row, set parameters.
@@ -82,6 +86,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
       if ( row == null ) {
         executeTransformation( null );
+        closePreparedTransPool();
         setOutputDone();
         return false;
       }
@@ -197,16 +202,25 @@ public class TransExecutor extends BaseStep implements StepInterface {
       discardLogLines( transExecutorData );
     }
 
-    Trans executorTrans = createInternalTrans();
+    // Take a transformation that was prepared ahead, if that is enabled and possible.
+    // Its parameters were passed when it was prepared.
+    Trans executorTrans = takePreparedTrans();
+    boolean prepared = executorTrans != null;
+    if ( !prepared ) {
+      executorTrans = createInternalTrans();
+    }
     transExecutorData.setExecutorTrans( executorTrans );
-    if ( incomingFieldValues != null ) {
-      // Pass parameter values
-      passParametersToTrans( incomingFieldValues );
-    } else {
-      List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
-      // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
-      // If not still pass the null parameter values
-      passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty() ? lastIncomingFieldValues : incomingFieldValues );
+    if ( !prepared ) {
+      if ( incomingFieldValues != null ) {
+        // Pass parameter values
+        passParametersToTrans( incomingFieldValues );
+      } else {
+        List<String> lastIncomingFieldValues = getLastIncomingFieldValues();
+        // incomingFieldValues == null-  There are no more rows - Last Case - pass previous values if exists
+        // If not still pass the null parameter values
+        passParametersToTrans( lastIncomingFieldValues != null && !lastIncomingFieldValues.isEmpty()
+          ? lastIncomingFieldValues : incomingFieldValues );
+      }
     }
 
 
@@ -218,7 +232,9 @@ public class TransExecutor extends BaseStep implements StepInterface {
     executorTrans.setPreviousResult( result );
 
     try {
-      executorTrans.prepareExecution( getTrans().getArguments() );
+      if ( !prepared ) {
+        executorTrans.prepareExecution( getTrans().getArguments() );
+      }
 
       // run transformation
       executorTrans.startThreads();
@@ -281,6 +297,17 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   @VisibleForTesting
   void passParametersToTrans( List<String> incomingFieldValues ) throws KettleException {
+    activateParameters( getExecutorTrans(), resolveParameterValues( incomingFieldValues ) );
+  }
+
+  /**
+   * Resolve the values of the parameters of the transformation: the value of the field to use, the static input value
+   * or the value of the variable in this step, in that order.
+   *
+   * @param incomingFieldValues the values of the incoming fields, for the parameters that use a field
+   * @return the values of the parameters, in the order they are defined in
+   */
+  private String[] resolveParameterValues( List<String> incomingFieldValues ) {
     //The values of the incoming fields from the previous step.
     if ( incomingFieldValues == null ) {
       incomingFieldValues = new ArrayList<String>();
@@ -357,14 +384,190 @@ public class TransExecutor extends BaseStep implements StepInterface {
     for ( int i = 0; i < parameters.getVariable().length; i++ ) {
       inputFieldValues[i] = resolvingValuesMap.get( parameters.getVariable()[i] );
     }
+    return inputFieldValues;
+  }
+
+  private void activateParameters( Trans trans, String[] inputFieldValues ) throws KettleException {
+    TransExecutorParameters parameters = meta.getParameters();
 
-    Trans trans = getExecutorTrans();
     initializeVariablesFromParent( trans );
 
     StepWithMappingMeta
         .activateParams( trans, trans, this, trans.listParameters(), parameters.getVariable(), inputFieldValues, meta.getParameters().isInheritingAllVariables() );
   }
 
+  /**
+   * Hand out the next transformation of the pool of prepared transformations, creating the pool the first time. The
+   * transformations in the pool are created, given their parameters and initialized in the background while the
+   * previous one runs, which saves the set up time for small groups of rows.
+   *
+   * @return the prepared transformation, or null if the transformation needs to be prepared for this group of rows
+   */
+  @VisibleForTesting
+  Trans takePreparedTrans() throws KettleException {
+    TransExecutorData transExecutorData = getData();
+    if ( transExecutorData.preparedInstances <= 0 ) {
+      return null;
+    }
+    if ( transExecutorData.preparedTransPool == null ) {
+      String restriction = getPreparedTransRestriction();
+      if ( restriction != null ) {
+        logBasic( BaseMessages.getString( PKG, "TransExecutor.Log.PreparedTransDisabled", restriction ) );
+        transExecutorData.preparedInstances = 0;
+        return null;
+      }
+      transExecutorData.preparedInstances = getPreparedInstanceLimit( transExecutorData.preparedInstances );
+      if ( transExecutorData.preparedInstances <= 0 ) {
+        return null;
+      }
+
+      // None of the parameters depends on the rows, so their values are the same for every transformation
+      String[] parameterValues = resolveParameterValues( null );
+      transExecutorData.preparedTransPool = new PreparedInstancePool<>( transExecutorData.preparedInstances,
+        getStepname(), () -> prepareTrans( parameterValues ), this::disposePreparedTrans );
+      transExecutorData.preparedTransPool.start();
+    }
+
+    try {
+      return transExecutorData.preparedTransPool.take();
+    } catch ( KettleException e ) {
+      // Report the error the usual way by preparing the transformation for this group of rows
+      if ( !isStopped() ) {
+        logError( BaseMessages.getString( PKG, "TransExecutor.Log.PreparedTransFailed" ), e );
+      }
+      closePreparedTransPool();
+      transExecutorData.preparedInstances = 0;
+      return null;
+    }
+  }
+
+  /**
+   * Find out whether the transformation can be prepared ahead: its parameters can't depend on the rows and it can't
+   * change anything outside of it when it is initialized, since that happens while the previous one runs.
+   *
+   * @return the reason the transformation can't be prepared ahead, or null if it can
+   */
+  @VisibleForTesting
+  String getPreparedTransRestriction() {
+    TransExecutorParameters parameters = meta.getParameters();
+    if ( parameters.getField() != null ) {
+      for ( int i = 0; i < parameters.getField().length; i++ ) {
+        if ( !Utils.isEmpty( Const.trim( parameters.getField()[i] ) ) ) {
+          return BaseMessages.getString( PKG, "TransExecutor.PreparedTransRestriction.ParameterField",
+            parameters.getVariable()[i], parameters.getField()[i] );
+        }
+      }
+    }
+
+    TransMeta executorTransMeta = getData().getExecutorTransMeta();
+    if ( executorTransMeta.isUsingUniqueConnections() ) {
+      return BaseMessages.getString( PKG, "TransExecutor.PreparedTransRestriction.UniqueConnections" );
+    }
+    for ( StepMeta stepMeta : executorTransMeta.getSteps() ) {
+      StepMetaInterface stepMetaInterface = stepMeta.getStepMetaInterface();
+      if ( stepMetaInterface instanceof ExecSQLMeta && !( (ExecSQLMeta) stepMetaInterface ).isExecutedEachInputRow() ) {
+        return BaseMessages.getString( PKG, "TransExecutor.PreparedTransRestriction.ExecutesSQL", stepMeta.getName() );
+      }
+      if ( isOpeningFileAtInit( stepMetaInterface ) ) {
+        return BaseMessages.getString( PKG, "TransExecutor.PreparedTransRestriction.OpensFile", stepMeta.getName() );
+      }
+    }
+    return null;
+  }
+
+  /**
+   * The file output steps, also the ones of plugins like JSON, XML, Excel or Access output, tell whether they create or
+   * truncate their file when they are initialized through isDoNotOpenNewFileInit(). A prepared transformation would do
+   * that while the previous one still writes to the file.
+   *
+   * @return true if the step creates its output file when it is initialized
+   */
+  @VisibleForTesting
+  static boolean isOpeningFileAtInit( StepMetaInterface stepMetaInterface ) {
+    Method method;
+    try {
+      method = stepMetaInterface.getClass().getMethod( "isDoNotOpenNewFileInit" );
+    } catch ( NoSuchMethodException e ) {
+      return false;
+    }
+    try {
+      return !Boolean.TRUE.equals( method.invoke( stepMetaInterface ) );
+    } catch ( ReflectiveOperationException | RuntimeException e ) {
+      // We can't tell, so assume the worst
+      return true;
+    }
+  }
+
+  /**
+   * A prepared transformation keeps the database connections its steps opened when they were initialized until it
+   * runs. When a connection is pooled, the connections of the prepared transformations and of the running one all
+   * count against the maximum pool size, so no more transformations are prepared than the pools can hold.
+   *
+   * @param preparedInstances the number of transformations to prepare ahead
+   * @return the number of transformations that can be prepared ahead without exhausting a connection pool
+   */
+  @VisibleForTesting
+  int getPreparedInstanceLimit( int preparedInstances ) {
+    Map<String, DatabaseMeta> pooled = new LinkedHashMap<>();
+    Map<String, Integer> connections = new LinkedHashMap<>();
+    for ( StepMeta stepMeta : getData().getExecutorTransMeta().getSteps() ) {
+      DatabaseMeta[] databases = stepMeta.getStepMetaInterface().getUsedDatabaseConnections();
+      if ( databases == null ) {
+        continue;
+      }
+      for ( DatabaseMeta databaseMeta : databases ) {
+        if ( databaseMeta != null && databaseMeta.isUsingConnectionPool() ) {
+          // Every step copy opens its own connection
+          pooled.putIfAbsent( databaseMeta.getName(), databaseMeta );
+          connections.merge( databaseMeta.getName(), Math.max( 1, stepMeta.getCopies() ), Integer::sum );
+        }
+      }
+    }
+
+    int limit = preparedInstances;
+    for ( Map.Entry<String, Integer> entry : connections.entrySet() ) {
+      int poolSize = pooled.get( entry.getKey() ).getMaximumPoolSize();
+      // The running transformation needs its connections too
+      int fits = poolSize / entry.getValue() - 1;
+      if ( fits < limit ) {
+        limit = Math.max( 0, fits );
+        logBasic( BaseMessages.getString( PKG, "TransExecutor.Log.PreparedTransLimited", String.valueOf( limit ),
+          String.valueOf( preparedInstances ), entry.getKey(), String.valueOf( poolSize ) ) );
+      }
+    }
+    return limit;
+  }
+
+  /**
+   * Create, configure and initialize a transformation of the pool. Runs on the background thread of the pool.
+   */
+  @VisibleForTesting
+  Trans prepareTrans( String[] parameterValues ) throws KettleException {
+    Trans executorTrans = createInternalTrans();
+    activateParameters( executorTrans, parameterValues );
+    executorTrans.prepareExecution( getTrans().getArguments() );
+    return executorTrans;
+  }
+
+  private void disposePreparedTrans( Trans executorTrans ) {
+    executorTrans.cleanup();
+    KettleLogStore.discardLines( executorTrans.getLogChannelId(), true );
+  }
+
+  @VisibleForTesting
+  void closePreparedTransPool() {
+    TransExecutorData transExecutorData = getData();
+    PreparedInstancePool<Trans> pool = transExecutorData.preparedTransPool;
+    if ( pool != null && !pool.isClosed() ) {
+      pool.close();
+      if ( log.isDetailed() ) {
+        logDetailed( BaseMessages.getString( PKG, "TransExecutor.Log.PreparedTransStatistics",
+          String.valueOf( pool.getTaken() ), String.valueOf( pool.getWaited() ),
+          String.valueOf( pool.getWaitNanos() / 1000000L ) ) );
+      }
+    }
+  }
+
   /**
    * Search through the provided list for a specified value while ignoring case
    * @param list list of Strings to be searched
@@ -510,6 +713,13 @@ public class TransExecutor extends BaseStep implements StepInterface {
           if ( !Utils.isEmpty( meta.getGroupField() ) ) {
             transExecutorData.groupField = environmentSubstitute( meta.getGroupField() );
           }
+
+          // How many transformations do we prepare ahead?
+          transExecutorData.preparedInstances = 0;
+          if ( !Utils.isEmpty( meta.getPreparedInstances() ) ) {
+            transExecutorData.preparedInstances =
+              Const.toInt( environmentSubstitute( meta.getPreparedInstances() ), 0 );
+          }
           // That's all for now...
           return true;
         } else {
@@ -532,6 +742,7 @@ public class TransExecutor extends BaseStep implements StepInterface {
 
   public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
     TransExecutorData transExecutorData = getData();
+    closePreparedTransPool();
     transExecutorData.groupBuffer = null;
     super.dispose( smi, sdi );
   }
@@ -544,6 +755,9 @@ public class TransExecutor extends BaseStep implements StepInterface {
   }
 
   public void stopAll() {
+    // Don't prepare any more transformations
+    closePreparedTransPool();
+
     // Stop the transformation execution.
     if ( getData().getExecutorTrans() != null ) {
       getData().getExecutorTrans().stopAll();
@@ -22,6 +22,7 @@ import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.BaseStepData;
+import org.pentaho.di.trans.step.PreparedInstancePool;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 /**
@@ -50,6 +51,9 @@ public class TransExecutorData extends BaseStepData implements StepDataInterface
 
   public Object prevGroupFieldData;
 
+  public int preparedInstances;
+  public PreparedInstancePool<Trans> preparedTransPool;
+
   private RowSet executorStepOutputRowSet;
   private RowSet resultRowsRowSet;
   private RowSet resultFilesRowSet;
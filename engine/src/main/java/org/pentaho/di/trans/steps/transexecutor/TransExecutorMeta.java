@@ -94,6 +94,12 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
    */
   private String groupTime;
 
+  /**
+   * Optional number of transformations that are created and initialized ahead, in the background, while the current one
+   * runs (empty default, "0": prepare every transformation when a group of rows is complete)
+   */
+  private String preparedInstances;
+
   private TransExecutorParameters parameters;
 
   private String executionResultTargetStep;
@@ -263,6 +269,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_size", groupSize ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_field", groupField ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "group_time", groupTime ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "prepared_instances", preparedInstances ) );
 
     // Add the mapping parameters too
     //
@@ -331,6 +338,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
       groupSize = XMLHandler.getTagValue( stepnode, "group_size" );
       groupField = XMLHandler.getTagValue( stepnode, "group_field" );
       groupTime = XMLHandler.getTagValue( stepnode, "group_time" );
+      preparedInstances = XMLHandler.getTagValue( stepnode, "prepared_instances" );
 
       // Load the mapping parameters too..
       //
@@ -392,6 +400,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = rep.getStepAttributeString( id_step, "group_size" );
     groupField = rep.getStepAttributeString( id_step, "group_field" );
     groupTime = rep.getStepAttributeString( id_step, "group_time" );
+    preparedInstances = rep.getStepAttributeString( id_step, "prepared_instances" );
 
     parameters = new TransExecutorParameters( rep, id_step );
 
@@ -441,6 +450,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     rep.saveStepAttribute( id_transformation, id_step, "group_size", groupSize );
     rep.saveStepAttribute( id_transformation, id_step, "group_field", groupField );
     rep.saveStepAttribute( id_transformation, id_step, "group_time", groupTime );
+    rep.saveStepAttribute( id_transformation, id_step, "prepared_instances", preparedInstances );
 
     // save the mapping parameters too
     //
@@ -493,6 +503,7 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     groupSize = "1";
     groupField = "";
     groupTime = "";
+    preparedInstances = "";
 
     executionTimeField = "ExecutionTime";
     executionResultField = "ExecutionResult";
@@ -1019,6 +1030,23 @@ public class TransExecutorMeta extends StepWithMappingMeta implements StepMetaIn
     this.groupTime = groupTime;
   }
 
+  /**
+   * The prepared transformations are initialized, so they keep the database connections of their steps open until they
+   * run. The step prepares fewer transformations when those connections don't fit in a connection pool.
+   *
+   * @return the number of transformations to prepare ahead
+   */
+  public String getPreparedInstances() {
+    return preparedInstances;
+  }
+
+  /**
+   * @param preparedInstances the number of transformations to prepare ahead
+   */
+  public void setPreparedInstances( String preparedInstances ) {
+    this.preparedInstances = preparedInstances;
+  }
+
   @Override
   public boolean excludeFromCopyDistributeVerification() {
     return true;
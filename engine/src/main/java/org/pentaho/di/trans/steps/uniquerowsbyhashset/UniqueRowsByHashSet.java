@@ -13,7 +13,14 @@
 
 package org.pentaho.di.trans.steps.uniquerowsbyhashset;
 
+import java.io.IOException;
+
+import org.pentaho.di.core.Const;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.exception.KettleValueException;
+import org.pentaho.di.core.row.OffHeapRowStore;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
@@ -38,10 +45,59 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     data = (UniqueRowsByHashSetData) stepDataInterface; // create new data object.
   }
 
-  private boolean isUniqueRow( Object[] row ) {
+  private boolean isUniqueRow( Object[] row ) throws KettleValueException {
+    if ( data.offHeapIndex != null ) {
+      if ( data.fieldnrs.length == 0 ) {
+        return data.offHeapIndex.putIfAbsent( row );
+      }
+      Object[] keyFields = new Object[ data.fieldnrs.length ];
+      for ( int i = 0; i < data.fieldnrs.length; i++ ) {
+        keyFields[ i ] = row[ data.fieldnrs[ i ] ];
+      }
+      return data.offHeapIndex.putIfAbsent( keyFields );
+    }
     return data.seen.add( new RowKey( row, data ) );
   }
 
+  /**
+   * Store the compared values outside of the heap when the step has an off-heap budget. They are compared with the
+   * rules of their data types instead of their Java equality.
+   */
+  private void createOffHeapIndex() throws KettleValueException {
+    long budget = Const.toLong( environmentSubstitute( meta.getOffHeapBudget() ), 0L );
+    if ( !data.storeValues || budget <= 0 ) {
+      return;
+    }
+    RowMetaInterface keyMeta;
+    if ( data.fieldnrs.length == 0 ) {
+      keyMeta = data.inputRowMeta;
+    } else {
+      keyMeta = new RowMeta();
+      for ( int fieldnr : data.fieldnrs ) {
+        keyMeta.addValueMeta( data.inputRowMeta.getValueMeta( fieldnr ) );
+      }
+    }
+    data.offHeapStore = new OffHeapRowStore( keyMeta, budget * 1024 * 1024 );
+
+    int[] keyIndexes = new int[ keyMeta.size() ];
+    for ( int i = 0; i < keyIndexes.length; i++ ) {
+      keyIndexes[ i ] = i;
+    }
+    data.offHeapIndex = data.offHeapStore.createHashIndex( keyIndexes );
+  }
+
+  private void closeOffHeapStore() {
+    data.offHeapIndex = null;
+    if ( data.offHeapStore != null ) {
+      try {
+        data.offHeapStore.close();
+      } catch ( IOException e ) {
+        logError( BaseMessages.getString( PKG, "UniqueRowsByHashSet.Log.UnableToCloseOffHeapStore" ), e );
+      }
+      data.offHeapStore = null;
+    }
+  }
+
   public boolean processRow( StepMetaInterface smi, StepDataInterface sdi ) throws KettleException {
     meta = (UniqueRowsByHashSetMeta) smi;
     data = (UniqueRowsByHashSetData) sdi;
@@ -50,6 +106,7 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     if ( r == null ) { // no more input to be expected...
 
       data.clearHashSet();
+      closeOffHeapStore();
       setOutputDone();
       return false;
     }
@@ -85,6 +142,7 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
       if ( data.sendDuplicateRows && !Utils.isEmpty( meta.getErrorDescription() ) ) {
         data.realErrorDescription = environmentSubstitute( meta.getErrorDescription() );
       }
+      createOffHeapIndex();
     }
 
     if ( isUniqueRow( r ) ) {
@@ -119,4 +177,10 @@ public class UniqueRowsByHashSet extends BaseStep implements StepInterface {
     return false;
   }
 
+  @Override
+  public void dispose( StepMetaInterface smi, StepDataInterface sdi ) {
+    data = (UniqueRowsByHashSetData) sdi;
+    closeOffHeapStore();
+    super.dispose( smi, sdi );
+  }
 }
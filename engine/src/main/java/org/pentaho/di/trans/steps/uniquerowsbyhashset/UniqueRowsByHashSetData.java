@@ -15,6 +15,7 @@ package org.pentaho.di.trans.steps.uniquerowsbyhashset;
 
 import java.util.HashSet;
 
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowMetaInterface;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
@@ -30,6 +31,10 @@ public class UniqueRowsByHashSetData extends BaseStepData implements StepDataInt
 
   public HashSet<RowKey> seen = new HashSet<RowKey>();
 
+  /** The compared values outside of the heap, used instead of seen when the step has an off-heap budget */
+  public OffHeapRowStore offHeapStore;
+  public OffHeapRowStore.HashIndex offHeapIndex;
+
   public UniqueRowsByHashSetData() {
     super();
   }
@@ -20,6 +20,7 @@ import org.pentaho.di.core.xml.XMLHandler;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.job.Job;
 import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.step.StepThreadFactory;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -111,6 +112,7 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
    <cpu_process_time>7534848300</cpu_process_time>
    <uptime>68818403</uptime>
    <thread_count>45</thread_count>
+   <virtual_step_thread_count>0</virtual_step_thread_count>
    <load_avg>-1.0</load_avg>
    <os_name>Windows 7</os_name>
    <os_version>6.1</os_version>
@@ -1006,6 +1008,7 @@ public class GetStatusServlet extends BaseHttpServlet implements CartePluginInte
     serverStatus.setCpuProcessTime( allThreadsCpuTime );
     serverStatus.setUptime( uptime );
     serverStatus.setThreadCount( threadCount );
+    serverStatus.setVirtualStepThreadCount( StepThreadFactory.getActiveVirtualStepThreads() );
     serverStatus.setLoadAvg( loadAvg );
     serverStatus.setOsName( osName );
     serverStatus.setOsVersion( osVersion );
@@ -42,6 +42,8 @@ public class SlaveServerStatus {
 
   private int threadCount;
 
+  private int virtualStepThreadCount;
+
   private double loadAvg;
 
   private String osName;
@@ -86,6 +88,7 @@ public class SlaveServerStatus {
 
     xml.append( XMLHandler.addTagValue( "uptime", uptime ) );
     xml.append( XMLHandler.addTagValue( "thread_count", threadCount ) );
+    xml.append( XMLHandler.addTagValue( "virtual_step_thread_count", virtualStepThreadCount ) );
 
     xml.append( XMLHandler.addTagValue( "load_avg", loadAvg ) );
 
@@ -126,6 +129,7 @@ public class SlaveServerStatus {
 
     uptime = Const.toLong( XMLHandler.getTagValue( statusNode, "uptime" ), -1 );
     threadCount = Const.toInt( XMLHandler.getTagValue( statusNode, "thread_count" ), -1 );
+    virtualStepThreadCount = Const.toInt( XMLHandler.getTagValue( statusNode, "virtual_step_thread_count" ), -1 );
     loadAvg = Const.toDouble( XMLHandler.getTagValue( statusNode, "load_avg" ), -1.0 );
 
     osName = XMLHandler.getTagValue( statusNode, "os_name" );
@@ -312,6 +316,17 @@ public class SlaveServerStatus {
     return threadCount;
   }
 
+  /**
+   * @return the number of step threads running on virtual threads
+   */
+  public int getVirtualStepThreadCount() {
+    return virtualStepThreadCount;
+  }
+
+  public void setVirtualStepThreadCount( int virtualStepThreadCount ) {
+    this.virtualStepThreadCount = virtualStepThreadCount;
+  }
+
   public void setLoadAvg( double loadAvg ) {
     this.loadAvg = loadAvg;
   }
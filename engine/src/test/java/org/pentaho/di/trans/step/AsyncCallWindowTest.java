@@ -0,0 +1,90 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncCallWindowTest {
+
+  @Test
+  public void testCallsAreHandedBackInSubmitOrder() throws Exception {
+    List<Object> results = new ArrayList<>();
+    try ( AsyncCallWindow<Integer> window = new AsyncCallWindow<>( 4, true, "test" ) ) {
+      for ( int i = 0; i < 50; i++ ) {
+        int value = i;
+        // later calls complete sooner
+        for ( AsyncCallWindow.Call<Integer> call : window.submit( new Object[] { value }, () -> {
+          Thread.sleep( 5 - value % 5 );
+          return value * 2;
+        } ) ) {
+          results.add( call.getResult() );
+        }
+        assertTrue( window.getInFlight() <= 4 );
+      }
+      for ( AsyncCallWindow.Call<Integer> call : window.finish() ) {
+        results.add( call.getResult() );
+      }
+      assertEquals( 0, window.getInFlight() );
+      assertEquals( 50, window.getLatencies().getCount() );
+      assertTrue( window.getMaximumRunning() <= 4 );
+    }
+    assertEquals( 50, results.size() );
+    for ( int i = 0; i < 50; i++ ) {
+      assertEquals( i * 2, results.get( i ) );
+    }
+  }
+
+  @Test
+  public void testUnorderedCallsAreHandedBackWhenTheyComplete() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    try ( AsyncCallWindow<String> window = new AsyncCallWindow<>( 2, false, "test" ) ) {
+      window.submit( new Object[] { "slow" }, () -> {
+        release.await( 10, TimeUnit.SECONDS );
+        return "slow";
+      } );
+      window.submit( new Object[] { "fast" }, () -> "fast" );
+
+      // the window is full, the fast call is handed back while the slow one still runs
+      List<AsyncCallWindow.Call<String>> completed = window.submit( new Object[] { "next" }, () -> "next" );
+      assertEquals( 1, completed.size() );
+      assertEquals( "fast", completed.get( 0 ).getResult() );
+
+      release.countDown();
+      assertEquals( 2, window.finish().size() );
+    }
+  }
+
+  @Test
+  public void testFailedCallKeepsItsRowAndException() throws Exception {
+    try ( AsyncCallWindow<String> window = new AsyncCallWindow<>( 1, true, "test" ) ) {
+      Object[] row = new Object[] { "a" };
+      window.submit( row, () -> {
+        throw new IllegalStateException( "boom" );
+      } );
+      List<AsyncCallWindow.Call<String>> completed = window.finish();
+      assertEquals( 1, completed.size() );
+      assertTrue( completed.get( 0 ).isFailed() );
+      assertTrue( completed.get( 0 ).getException() instanceof IllegalStateException );
+      assertTrue( completed.get( 0 ).getRow() == row );
+    }
+  }
+}
@@ -23,6 +23,7 @@ import org.mockito.stubbing.Answer;
 import org.pentaho.di.core.BlockingRowSet;
 import org.pentaho.di.core.QueueRowSet;
 import org.pentaho.di.core.ResultFile;
+import org.pentaho.di.core.RingBufferRowSet;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
 import org.pentaho.di.core.SingleRowRowSet;
@@ -40,6 +41,7 @@ import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.trans.BasePartitioner;
 import org.pentaho.di.trans.Trans;
+import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.steps.mock.StepMockHelper;
 import org.pentaho.di.www.SocketRepository;
 
@@ -509,4 +511,91 @@ public class BaseStepTest {
     baseStepSpy.getRow();
     verify( mockHelper.transMeta, times( 1 ) ).checkRowMixingStatically( any( StepMeta.class ), any() );
   }
+
+  @Test( timeout = 10000 )
+  public void testGetRowWaitingForNotifications() throws Exception {
+    when( mockHelper.transMeta.getRowWaitMode() ).thenReturn( TransMeta.RowWaitMode.Notification );
+    when( mockHelper.transMeta.getTransformationType() ).thenReturn( TransMeta.TransformationType.Normal );
+    when( mockHelper.trans.isRunning() ).thenReturn( true );
+    BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    final RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    final RowSet rowSet = new RingBufferRowSet( 1 );
+    baseStep.setInputRowSets( new ArrayList<>( Collections.singletonList( rowSet ) ) );
+
+    // The writer only starts after the reader parked, it needs to wake up the reader for every row
+    //
+    Thread writer = new Thread( () -> {
+      try {
+        for ( long i = 0; i < 3; i++ ) {
+          Thread.sleep( 20 );
+          while ( !rowSet.putRow( rowMeta, new Object[] { i } ) ) {
+            // the row set is full, try again
+          }
+        }
+        Thread.sleep( 20 );
+        rowSet.setDone();
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+    } );
+    writer.start();
+
+    for ( long i = 0; i < 3; i++ ) {
+      assertEquals( i, baseStep.getRow()[ 0 ] );
+    }
+    assertNull( baseStep.getRow() );
+    writer.join();
+    assertEquals( 3, baseStep.getLinesRead() );
+  }
+
+  @Test
+  public void testStatusCounters() throws Exception {
+    final BaseStep baseStep =
+      new BaseStep( mockHelper.stepMeta, mockHelper.stepDataInterface, 0, mockHelper.transMeta, mockHelper.trans );
+
+    assertEquals( 1, baseStep.incrementLinesRead() );
+    assertEquals( 2, baseStep.incrementLinesRead() );
+    assertEquals( 1, baseStep.decrementLinesRead() );
+    assertEquals( 1, baseStep.incrementLinesWritten() );
+    assertEquals( 1, baseStep.incrementLinesInput() );
+    assertEquals( 1, baseStep.incrementLinesOutput() );
+    assertEquals( 1, baseStep.incrementLinesUpdated() );
+    assertEquals( 1, baseStep.incrementLinesSkipped() );
+    assertEquals( 1, baseStep.incrementLinesRejected() );
+
+    baseStep.setLinesWritten( 10 );
+    assertEquals( 10, baseStep.getLinesWritten() );
+
+    // Steps that still update the deprecated public fields are counted as well
+    //
+    baseStep.linesInput++;
+    assertEquals( 2, baseStep.getLinesInput() );
+
+    // Update from several threads at once while the status is read
+    //
+    Thread[] threads = new Thread[ 4 ];
+    for ( int i = 0; i < threads.length; i++ ) {
+      threads[ i ] = new Thread( () -> {
+        for ( int j = 0; j < 10000; j++ ) {
+          baseStep.incrementLinesOutput();
+        }
+      } );
+      threads[ i ].start();
+    }
+    for ( Thread thread : threads ) {
+      thread.join();
+    }
+    assertEquals( 40001, baseStep.getLinesOutput() );
+
+    // Setting a counter replaces the deprecated field as well
+    //
+    baseStep.setLinesOutput( 5 );
+    assertEquals( 5, baseStep.getLinesOutput() );
+    baseStep.setLinesInput( 7 );
+    assertEquals( 7, baseStep.getLinesInput() );
+    assertEquals( 0, baseStep.linesInput );
+  }
 }
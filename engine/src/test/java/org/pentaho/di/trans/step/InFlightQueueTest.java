@@ -0,0 +1,66 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class InFlightQueueTest {
+
+  @Test
+  public void testItemsAreHandedBackInSubmitOrder() throws Exception {
+    InFlightQueue<String> queue = new InFlightQueue<>( true );
+    long a = queue.register();
+    long b = queue.register();
+    long c = queue.register();
+    assertEquals( 3, queue.getInFlight() );
+
+    List<String> handedBack = new ArrayList<>();
+    queue.complete( c, "c" );
+    queue.complete( b, "b" );
+    queue.collect( handedBack, false );
+    assertEquals( 0, handedBack.size() );
+    assertEquals( 3, queue.getInFlight() );
+
+    queue.complete( a, "a" );
+    queue.collect( handedBack, true );
+    assertEquals( Arrays.asList( "a", "b", "c" ), handedBack );
+    assertEquals( 0, queue.getInFlight() );
+  }
+
+  @Test
+  public void testUnorderedItemsAreHandedBackWhenTheyComplete() throws Exception {
+    InFlightQueue<String> queue = new InFlightQueue<>( false );
+    long a = queue.register();
+    long b = queue.register();
+
+    List<String> handedBack = new ArrayList<>();
+    queue.complete( b, "b" );
+    queue.collect( handedBack, false );
+    assertEquals( Arrays.asList( "b" ), handedBack );
+    assertEquals( 1, queue.getInFlight() );
+
+    Thread worker = new Thread( () -> queue.complete( a, "a" ) );
+    worker.start();
+    queue.collect( handedBack, true );
+    worker.join();
+    assertEquals( Arrays.asList( "b", "a" ), handedBack );
+    assertEquals( 0, queue.getInFlight() );
+  }
+}
@@ -0,0 +1,111 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+
+public class PreparedInstancePoolTest {
+
+  @Test
+  public void testInstancesAreHandedOutInPreparationOrder() throws Exception {
+    AtomicInteger counter = new AtomicInteger();
+    List<Integer> disposed = Collections.synchronizedList( new ArrayList<>() );
+    PreparedInstancePool<Integer> pool =
+      new PreparedInstancePool<>( 3, "test", counter::incrementAndGet, disposed::add );
+    pool.start();
+    for ( int i = 1; i <= 10; i++ ) {
+      assertEquals( Integer.valueOf( i ), pool.take() );
+    }
+    assertEquals( 10, pool.getTaken() );
+    pool.close();
+
+    // the three replacements prepared after the last take are disposed
+    assertEquals( 13, counter.get() );
+    assertEquals( 3, disposed.size() );
+    assertTrue( disposed.containsAll( Arrays.asList( 11, 12, 13 ) ) );
+    assertTrue( pool.isClosed() );
+  }
+
+  @Test
+  public void testTakeWithoutStartPreparesInstances() throws Exception {
+    AtomicInteger counter = new AtomicInteger();
+    try ( PreparedInstancePool<Integer> pool =
+            new PreparedInstancePool<>( 2, "test", counter::incrementAndGet, instance -> { } ) ) {
+      assertEquals( Integer.valueOf( 1 ), pool.take() );
+      assertEquals( Integer.valueOf( 2 ), pool.take() );
+    }
+  }
+
+  @Test
+  public void testTakeWaitsForSlowPreparation() throws Exception {
+    CountDownLatch release = new CountDownLatch( 1 );
+    try ( PreparedInstancePool<String> pool = new PreparedInstancePool<>( 1, "test", () -> {
+      try {
+        release.await( 5, TimeUnit.SECONDS );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      return "prepared";
+    }, instance -> { } ) ) {
+      pool.start();
+      Thread releaser = new Thread( () -> {
+        try {
+          Thread.sleep( 50 );
+        } catch ( InterruptedException e ) {
+          Thread.currentThread().interrupt();
+        }
+        release.countDown();
+      } );
+      releaser.start();
+      assertEquals( "prepared", pool.take() );
+      assertEquals( 1, pool.getWaited() );
+      assertTrue( pool.getWaitNanos() > 0 );
+    }
+  }
+
+  @Test
+  public void testPreparationErrorIsThrownByTake() throws Exception {
+    try ( PreparedInstancePool<String> pool = new PreparedInstancePool<>( 1, "test", () -> {
+      throw new KettleException( "broken" );
+    }, instance -> { } ) ) {
+      pool.start();
+      try {
+        pool.take();
+        fail( "expected the preparation error" );
+      } catch ( KettleException e ) {
+        assertTrue( e.getMessage().contains( "broken" ) );
+      }
+    }
+  }
+
+  @Test( expected = KettleException.class )
+  public void testTakeFromClosedPool() throws Exception {
+    PreparedInstancePool<String> pool = new PreparedInstancePool<>( 1, "test", () -> "x", instance -> { } );
+    pool.close();
+    pool.take();
+  }
+}
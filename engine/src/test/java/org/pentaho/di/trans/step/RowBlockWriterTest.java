@@ -0,0 +1,156 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class RowBlockWriterTest {
+
+  private static RowMetaInterface createRowMeta() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "name" ) );
+    return rowMeta;
+  }
+
+  private static List<Object[]> createRows( int nrRows, boolean random ) {
+    Random rnd = new Random( 42 );
+    List<Object[]> rows = new ArrayList<>();
+    for ( int i = 0; i < nrRows; i++ ) {
+      String name;
+      if ( i % 7 == 0 ) {
+        name = null;
+      } else if ( random ) {
+        name = Long.toHexString( rnd.nextLong() ) + Long.toHexString( rnd.nextLong() );
+      } else {
+        name = "customer-" + ( i % 10 );
+      }
+      rows.add( new Object[] { (long) i, name } );
+    }
+    return rows;
+  }
+
+  private static List<Object[]> roundTrip( RemoteStepCodec codec, List<Object[]> rows, int blockSize,
+    RowBlockWriter[] writerHolder ) throws Exception {
+    RowMetaInterface rowMeta = createRowMeta();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream outputStream = new DataOutputStream( bytes );
+    RowBlockWriter writer = new RowBlockWriter( outputStream, rowMeta, codec, blockSize );
+    for ( Object[] row : rows ) {
+      writer.writeRow( row );
+    }
+    writer.finish();
+    writerHolder[0] = writer;
+    assertEquals( bytes.size(), writer.getWireBytes() );
+
+    RowBlockReader reader =
+      new RowBlockReader( new DataInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ), rowMeta );
+    List<Object[]> read = new ArrayList<>();
+    Object[] row = reader.readRow();
+    while ( row != null ) {
+      read.add( row );
+      row = reader.readRow();
+    }
+    assertTrue( reader.isFinished() );
+    assertNull( reader.readRow() );
+    assertEquals( writer.getRows(), reader.getRows() );
+    assertEquals( writer.getBlocks(), reader.getBlocks() );
+    assertEquals( writer.getRawBytes(), reader.getRawBytes() );
+    assertEquals( writer.getWireBytes(), reader.getWireBytes() );
+    return read;
+  }
+
+  private static void assertRoundTrip( RemoteStepCodec codec, boolean random ) throws Exception {
+    List<Object[]> rows = createRows( 5000, random );
+    RowBlockWriter[] writer = new RowBlockWriter[1];
+    List<Object[]> read = roundTrip( codec, rows, 4096, writer );
+    assertEquals( rows.size(), read.size() );
+    for ( int i = 0; i < rows.size(); i++ ) {
+      assertArrayEquals( rows.get( i ), read.get( i ) );
+    }
+    assertTrue( writer[0].getBlocks() > 1 );
+  }
+
+  @Test
+  public void testRoundTripNone() throws Exception {
+    assertRoundTrip( RemoteStepCodec.NONE, false );
+  }
+
+  @Test
+  public void testRoundTripSnappy() throws Exception {
+    assertRoundTrip( RemoteStepCodec.SNAPPY, false );
+    assertRoundTrip( RemoteStepCodec.SNAPPY, true );
+  }
+
+  @Test
+  public void testRoundTripDeflate() throws Exception {
+    assertRoundTrip( RemoteStepCodec.DEFLATE, false );
+    assertRoundTrip( RemoteStepCodec.DEFLATE, true );
+  }
+
+  @Test
+  public void testRoundTripLZ4() throws Exception {
+    assertRoundTrip( RemoteStepCodec.LZ4, false );
+    assertRoundTrip( RemoteStepCodec.LZ4, true );
+  }
+
+  @Test
+  public void testCompressesRepetitiveRows() throws Exception {
+    RowBlockWriter[] writer = new RowBlockWriter[1];
+    roundTrip( RemoteStepCodec.DEFLATE, createRows( 5000, false ), RowBlockWriter.DEFAULT_BLOCK_SIZE, writer );
+    assertTrue( writer[0].getWireBytes() * 2 < writer[0].getRawBytes() );
+  }
+
+  @Test
+  public void testEmptyStream() throws Exception {
+    RowBlockWriter[] writer = new RowBlockWriter[1];
+    List<Object[]> read = roundTrip( RemoteStepCodec.SNAPPY, new ArrayList<Object[]>(), 4096, writer );
+    assertTrue( read.isEmpty() );
+    assertEquals( 0, writer[0].getBlocks() );
+    assertEquals( 4, writer[0].getWireBytes() );
+  }
+
+  @Test
+  public void testCodecByCode() {
+    assertEquals( RemoteStepCodec.GZIP, RemoteStepCodec.getCodecByCode( null ) );
+    assertEquals( RemoteStepCodec.GZIP, RemoteStepCodec.getCodecByCode( "" ) );
+    assertEquals( RemoteStepCodec.GZIP, RemoteStepCodec.getCodecByCode( "lz77" ) );
+    assertEquals( RemoteStepCodec.SNAPPY, RemoteStepCodec.getCodecByCode( " Snappy " ) );
+    assertEquals( RemoteStepCodec.DEFLATE, RemoteStepCodec.getCodecByCode( "deflate" ) );
+    assertEquals( RemoteStepCodec.LZ4, RemoteStepCodec.getCodecByCode( "LZ4" ) );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testStreamCodecIsNotFramed() {
+    new RowBlockWriter( new DataOutputStream( new ByteArrayOutputStream() ), createRowMeta(), RemoteStepCodec.GZIP,
+      0 );
+  }
+}
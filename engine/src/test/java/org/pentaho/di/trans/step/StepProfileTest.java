@@ -0,0 +1,74 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StepProfileTest {
+
+  @Test
+  public void testWaitAndProcessTimes() {
+    StepProfile profile = new StepProfile();
+    profile.addProcessTime( TimeUnit.MILLISECONDS.toNanos( 30 ) );
+    profile.addInputWaitTime( TimeUnit.MILLISECONDS.toNanos( 10 ) );
+    profile.addInputWaitTime( TimeUnit.MILLISECONDS.toNanos( 5 ) );
+    profile.addOutputWaitTime( TimeUnit.MILLISECONDS.toNanos( 7 ) );
+
+    assertEquals( 30, profile.getProcessTime() );
+    assertEquals( 15, profile.getInputWaitTime() );
+    assertEquals( 7, profile.getOutputWaitTime() );
+  }
+
+  @Test
+  public void testThreadCountersKeepTheirValueAfterStopping() {
+    StepProfile profile = new StepProfile();
+    profile.startRunning();
+    StringBuilder work = new StringBuilder();
+    for ( int i = 0; i < 10000; i++ ) {
+      work.append( i );
+    }
+    long cpuWhileRunning = profile.getCpuTime();
+    long allocatedWhileRunning = profile.getAllocatedBytes();
+    profile.stopRunning();
+
+    assertTrue( work.length() > 0 );
+    assertTrue( profile.getCpuTime() >= cpuWhileRunning );
+    assertTrue( profile.getAllocatedBytes() >= allocatedWhileRunning );
+    assertTrue( profile.getAllocatedBytes() == -1L || profile.getAllocatedBytes() > 0L );
+
+    // Stopping again adds nothing
+    long cpu = profile.getCpuTime();
+    long allocated = profile.getAllocatedBytes();
+    profile.stopRunning();
+    assertEquals( cpu, profile.getCpuTime() );
+    assertEquals( allocated, profile.getAllocatedBytes() );
+  }
+
+  @Test
+  public void testUnmeasurableThreadReportsMinusOne() throws Exception {
+    // The JVM can't measure a thread that ended, just like it can't measure a virtual thread
+    StepProfile profile = new StepProfile();
+    Thread thread = new Thread( profile::startRunning );
+    thread.start();
+    thread.join();
+
+    assertEquals( -1L, profile.getCpuTime() );
+    assertEquals( -1L, profile.getAllocatedBytes() );
+  }
+}
@@ -13,8 +13,14 @@
 package org.pentaho.di.trans.step;
 
 import org.junit.Test;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
+import org.pentaho.di.core.xml.XMLHandler;
+
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class StepStatusTest {
 
@@ -25,4 +31,51 @@ public class StepStatusTest {
     String[] overrides = status.getTransLogFields( "Override" );
     assertEquals( "Override", overrides[10] );
   }
+
+  @Test
+  public void testCacheStatistics() throws Exception {
+    LookupCacheStatistics statistics = new LookupCacheStatistics();
+    statistics.recordHit();
+    statistics.recordHit();
+    statistics.recordMiss();
+    statistics.recordEviction();
+
+    StepInterface step = mock( StepInterface.class );
+    when( step.getStatus() ).thenReturn( BaseStepData.StepExecutionStatus.STATUS_RUNNING );
+    when( step.getCacheStatistics() ).thenReturn( statistics );
+
+    StepStatus status = new StepStatus( step );
+    assertEquals( 2, status.getCacheHits() );
+    assertEquals( 1, status.getCacheMisses() );
+    assertEquals( 1, status.getCacheEvictions() );
+
+    StepStatus copy = new StepStatus( XMLHandler.loadXMLString( status.getXML(), StepStatus.XML_TAG ) );
+    assertEquals( 2, copy.getCacheHits() );
+    assertEquals( 1, copy.getCacheMisses() );
+    assertEquals( 1, copy.getCacheEvictions() );
+  }
+
+  @Test
+  public void testProfile() throws Exception {
+    StepProfile profile = new StepProfile();
+    profile.addProcessTime( TimeUnit.MILLISECONDS.toNanos( 100 ) );
+    profile.addInputWaitTime( TimeUnit.MILLISECONDS.toNanos( 40 ) );
+    profile.addOutputWaitTime( TimeUnit.MILLISECONDS.toNanos( 20 ) );
+
+    StepInterface step = mock( StepInterface.class );
+    when( step.getStatus() ).thenReturn( BaseStepData.StepExecutionStatus.STATUS_RUNNING );
+    when( step.getProfile() ).thenReturn( profile );
+
+    StepStatus status = new StepStatus( step );
+    assertEquals( 100, status.getProcessTime() );
+    assertEquals( 40, status.getInputWaitTime() );
+    assertEquals( 20, status.getOutputWaitTime() );
+
+    StepStatus copy = new StepStatus( XMLHandler.loadXMLString( status.getXML(), StepStatus.XML_TAG ) );
+    assertEquals( 100, copy.getProcessTime() );
+    assertEquals( 40, copy.getInputWaitTime() );
+    assertEquals( 20, copy.getOutputWaitTime() );
+    assertEquals( status.getCpuTime(), copy.getCpuTime() );
+    assertEquals( status.getAllocatedBytes(), copy.getAllocatedBytes() );
+  }
 }
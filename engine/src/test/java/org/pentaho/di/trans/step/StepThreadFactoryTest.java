@@ -0,0 +1,94 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.pentaho.di.core.Const;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.TransMeta.StepThreadMode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StepThreadFactoryTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @After
+  public void tearDown() {
+    System.clearProperty( Const.KETTLE_STEP_THREAD_MODE );
+  }
+
+  @Test
+  public void testVirtualRequested() {
+    assertFalse( StepThreadFactory.isVirtualRequested( StepThreadMode.Platform ) );
+    assertTrue( StepThreadFactory.isVirtualRequested( StepThreadMode.Virtual ) );
+    assertFalse( StepThreadFactory.isVirtualRequested( StepThreadMode.Default ) );
+
+    System.setProperty( Const.KETTLE_STEP_THREAD_MODE, "Virtual" );
+    assertTrue( StepThreadFactory.isVirtualRequested( StepThreadMode.Default ) );
+    assertTrue( StepThreadFactory.isVirtualRequested( null ) );
+    assertFalse( StepThreadFactory.isVirtualRequested( StepThreadMode.Platform ) );
+  }
+
+  @Test
+  public void testPlatformThread() throws Exception {
+    StepThreadFactory factory = StepThreadFactory.getFactory( StepThreadMode.Platform );
+    assertFalse( factory.isVirtual() );
+
+    AtomicBoolean ran = new AtomicBoolean();
+    Thread thread = factory.newThread( () -> ran.set( true ), null );
+    assertTrue( thread.getName().startsWith( "Thread-" ) );
+    thread.start();
+    thread.join();
+    assertTrue( ran.get() );
+  }
+
+  @Test
+  public void testVirtualThread() throws Exception {
+    StepThreadFactory factory = StepThreadFactory.getFactory( StepThreadMode.Virtual );
+    // Falls back to platform threads on a Java version without virtual threads
+    assertEquals( StepThreadFactory.isVirtualThreadSupported(), factory.isVirtual() );
+
+    AtomicBoolean ran = new AtomicBoolean();
+    Thread thread = factory.newThread( () -> ran.set( true ), null );
+    assertEquals( factory.isVirtual() ? "VirtualThread-" : "Thread-", thread.getName().replaceAll( "[0-9]+$", "" ) );
+    thread.start();
+    thread.join();
+    assertTrue( ran.get() );
+    assertEquals( 0, StepThreadFactory.getActiveVirtualStepThreads() );
+    if ( factory.isVirtual() ) {
+      assertTrue( StepThreadFactory.getPeakVirtualStepThreads() >= 1 );
+    }
+  }
+
+  @Test
+  public void testDatabaseStepOnPlatformThread() throws Exception {
+    StepThreadFactory factory = new StepThreadFactory( true );
+    StepMetaInterface stepMeta = mock( StepMetaInterface.class );
+    when( stepMeta.getUsedDatabaseConnections() ).thenReturn( new DatabaseMeta[ 0 ] );
+    assertEquals( factory.isVirtual(), factory.isVirtual( stepMeta ) );
+
+    when( stepMeta.getUsedDatabaseConnections() ).thenReturn( new DatabaseMeta[] { mock( DatabaseMeta.class ) } );
+    assertFalse( factory.isVirtual( stepMeta ) );
+    assertTrue( factory.newThread( () -> { }, stepMeta ).getName().startsWith( "Thread-" ) );
+  }
+}
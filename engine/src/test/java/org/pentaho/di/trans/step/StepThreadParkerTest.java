@@ -0,0 +1,143 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.step;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+import org.pentaho.di.core.BlockingRowSet;
+import org.pentaho.di.core.QueueRowSet;
+import org.pentaho.di.core.RingBufferRowSet;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.RowSetListener;
+import org.pentaho.di.core.row.RowMeta;
+
+public class StepThreadParkerTest {
+
+  @Test( timeout = 10000 )
+  public void testWakeUpByRowSet() throws Exception {
+    final StepThreadParker parker = new StepThreadParker();
+    final RowSet rowSet = new BlockingRowSet( 10 );
+
+    Thread writer = new Thread( () -> {
+      try {
+        Thread.sleep( 20 );
+      } catch ( InterruptedException e ) {
+        Thread.currentThread().interrupt();
+      }
+      rowSet.putRow( new RowMeta(), new Object[] {} );
+    } );
+
+    parker.startWaiting();
+    try {
+      assertTrue( parker.listenTo( rowSet ) );
+      writer.start();
+      while ( rowSet.size() == 0 ) {
+        parker.park( 1, TimeUnit.MINUTES );
+      }
+    } finally {
+      parker.stopWaiting();
+    }
+    writer.join();
+    assertEquals( 1, rowSet.size() );
+  }
+
+  @Test
+  public void testListensOncePerRowSet() {
+    final List<RowSetListener> added = new ArrayList<>();
+    final List<RowSetListener> removed = new ArrayList<>();
+    RowSet rowSet = new BlockingRowSet( 10 ) {
+      @Override
+      public synchronized boolean addRowSetListener( RowSetListener listener ) {
+        added.add( listener );
+        return super.addRowSetListener( listener );
+      }
+
+      @Override
+      public synchronized void removeRowSetListener( RowSetListener listener ) {
+        removed.add( listener );
+        super.removeRowSetListener( listener );
+      }
+    };
+    StepThreadParker parker = new StepThreadParker();
+
+    for ( int i = 0; i < 3; i++ ) {
+      parker.startWaiting();
+      assertTrue( parker.listenTo( rowSet ) );
+      parker.stopWaiting();
+    }
+    assertEquals( Collections.singletonList( parker ), added );
+    assertTrue( removed.isEmpty() );
+
+    parker.stopListening();
+    assertEquals( Collections.singletonList( parker ), removed );
+    parker.stopListening();
+    assertEquals( 1, removed.size() );
+  }
+
+  @Test( timeout = 60000 )
+  public void testNoMissedWakeUpFromRingBuffer() throws Exception {
+    final int nrRows = 100000;
+    final RingBufferRowSet rowSet = new RingBufferRowSet( 1 );
+    final StepThreadParker parker = new StepThreadParker();
+
+    Thread writer = new Thread( () -> {
+      for ( int i = 0; i < nrRows; i++ ) {
+        while ( !rowSet.putRowWait( new RowMeta(), new Object[] { i }, 1, TimeUnit.MINUTES ) ) {
+          // try again
+        }
+      }
+    } );
+    writer.start();
+
+    // A missed wake up would park the reader for the full minute
+    //
+    for ( int i = 0; i < nrRows; i++ ) {
+      Object[] row = rowSet.getRowImmediate();
+      while ( row == null ) {
+        parker.startWaiting();
+        try {
+          parker.listenTo( rowSet );
+          row = rowSet.getRowImmediate();
+          if ( row == null ) {
+            parker.park( 1, TimeUnit.MINUTES );
+          }
+        } finally {
+          parker.stopWaiting();
+        }
+      }
+      assertEquals( i, row[ 0 ] );
+    }
+    writer.join();
+    parker.stopListening();
+  }
+
+  @Test
+  public void testRowSetWithoutListeners() {
+    StepThreadParker parker = new StepThreadParker();
+    parker.startWaiting();
+    try {
+      assertFalse( parker.listenTo( new QueueRowSet() ) );
+    } finally {
+      parker.stopWaiting();
+    }
+  }
+}
@@ -13,11 +13,24 @@
 
 package org.pentaho.di.trans.steps.csvinput;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class CsvInputDataTest {
+  @Rule
+  public TemporaryFolder tempFolder = new TemporaryFolder();
+
   @Test
   public void testRemoveEscapedEnclosuresWithOneEscapedInMiddle() {
     CsvInputData csvInputData = new CsvInputData();
@@ -57,4 +70,79 @@ public class CsvInputDataTest {
     String result = new String( csvInputData.removeEscapedEnclosures( "345\"\"1\"\"abc".getBytes(), 2 ) );
     assertEquals( "345\"1\"abc", result );
   }
+
+  @Test
+  public void testMemoryMappedReadOverSeveralWindows() throws Exception {
+    StringBuilder content = new StringBuilder();
+    for ( int i = 0; i < 1000; i++ ) {
+      content.append( "row " ).append( i ).append( ";value " ).append( i * 7 ).append( '\n' );
+    }
+    byte[] bytes = content.toString().getBytes();
+
+    CsvInputData csvInputData = openFile( bytes );
+    csvInputData.memoryMapped = true;
+    csvInputData.mappedWindowSize = 1000;
+    try {
+      assertFalse( csvInputData.resizeBufferIfNeeded() );
+      while ( !csvInputData.moveEndBufferPointer() ) {
+        // read all of the file
+      }
+      assertArrayEquals( bytes, csvInputData.getField( false, false, false, true ) );
+      assertEquals( bytes.length, csvInputData.totalBytesRead );
+    } finally {
+      csvInputData.closeFile();
+    }
+  }
+
+  @Test
+  public void testMoveEndBufferPointerToFieldEnd() throws Exception {
+    byte[] bytes = "first field;\"enclosed; field\";last\nnext line".getBytes();
+
+    CsvInputData csvInputData = openFile( bytes );
+    csvInputData.delimiter = ";".getBytes();
+    csvInputData.enclosure = "\"".getBytes();
+    csvInputData.fieldScanner = new SwarByteScanner( (byte) ';', (byte) '"', (byte) '\r', (byte) '\n' );
+    csvInputData.enclosureScanner = new SwarByteScanner( (byte) '"' );
+    try {
+      assertFalse( csvInputData.resizeBufferIfNeeded() );
+
+      assertFalse( csvInputData.moveEndBufferPointerToFieldEnd() );
+      assertEquals( 11, csvInputData.getEndBuffer() );
+      assertEquals( 11, csvInputData.totalBytesRead );
+      assertTrue( csvInputData.delimiterFound() );
+
+      assertFalse( csvInputData.moveEndBufferPointerToFieldEnd() );
+      assertEquals( 12, csvInputData.getEndBuffer() );
+      assertTrue( csvInputData.enclosureFound() );
+
+      assertFalse( csvInputData.moveEndBufferPointerToEnclosure() );
+      assertEquals( 28, csvInputData.getEndBuffer() );
+      assertTrue( csvInputData.enclosureFound() );
+
+      csvInputData.moveEndBufferPointer();
+      assertFalse( csvInputData.moveEndBufferPointerToFieldEnd() );
+      assertEquals( 34, csvInputData.getEndBuffer() );
+      assertTrue( csvInputData.newLineFound() );
+
+      assertTrue( csvInputData.moveEndBufferPointerToFieldEnd() );
+      assertEquals( bytes.length, csvInputData.totalBytesRead );
+    } finally {
+      csvInputData.closeFile();
+    }
+  }
+
+  private CsvInputData openFile( byte[] bytes ) throws Exception {
+    File file = tempFolder.newFile();
+    Files.write( file.toPath(), bytes );
+
+    CsvInputData csvInputData = new CsvInputData();
+    csvInputData.preferredBufferSize = 100;
+    csvInputData.crLfMatcher = new SingleByteCrLfMatcher();
+    csvInputData.delimiterMatcher = new SingleBytePatternMatcher();
+    csvInputData.enclosureMatcher = new SingleBytePatternMatcher();
+    csvInputData.fis = new FileInputStream( file );
+    csvInputData.fc = csvInputData.fis.getChannel();
+    csvInputData.bb = ByteBuffer.allocateDirect( csvInputData.preferredBufferSize );
+    return csvInputData;
+  }
 }
@@ -0,0 +1,73 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.csvinput;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SwarByteScannerTest {
+
+  @Test
+  public void testFindsFirstOfSeveralValues() {
+    SwarByteScanner scanner = new SwarByteScanner( (byte) ';', (byte) '"', (byte) '\r', (byte) '\n' );
+    byte[] line = "abcdefghijklmnop;qrst\"uv\nwx".getBytes();
+
+    assertEquals( 16, scanner.indexOf( line, 0, line.length ) );
+    assertEquals( 21, scanner.indexOf( line, 17, line.length ) );
+    assertEquals( 24, scanner.indexOf( line, 22, line.length ) );
+    assertEquals( line.length, scanner.indexOf( line, 25, line.length ) );
+    assertEquals( 10, scanner.indexOf( line, 0, 10 ) );
+  }
+
+  @Test
+  public void testHighBytes() {
+    SwarByteScanner scanner = new SwarByteScanner( (byte) 0xE9 );
+    byte[] bytes = { (byte) 0xFF, (byte) 0x80, 0x00, 0x01, (byte) 0xE8, (byte) 0xEA, 0x7F, (byte) 0x69, (byte) 0xE9 };
+
+    assertEquals( 8, scanner.indexOf( bytes, 0, bytes.length ) );
+  }
+
+  @Test
+  public void testSameAsByteByByte() {
+    Random random = new Random( 42 );
+    byte[] values = { ',', '\'', '\n' };
+    SwarByteScanner scanner = new SwarByteScanner( values );
+    byte[] buffer = new byte[4096];
+    for ( int i = 0; i < buffer.length; i++ ) {
+      // mostly bytes that differ in a single bit from the values, to trip up borrows
+      buffer[i] = random.nextInt( 50 ) == 0 ? values[random.nextInt( values.length )]
+        : (byte) ( values[random.nextInt( values.length )] ^ ( 1 << random.nextInt( 8 ) ) );
+    }
+
+    for ( int from = 0; from < 200; from++ ) {
+      for ( int to = from; to < buffer.length; to += 1 + random.nextInt( 97 ) ) {
+        assertEquals( indexOf( values, buffer, from, to ), scanner.indexOf( buffer, from, to ) );
+      }
+    }
+  }
+
+  private static int indexOf( byte[] values, byte[] buffer, int from, int to ) {
+    for ( int i = from; i < to; i++ ) {
+      for ( byte value : values ) {
+        if ( buffer[i] == value ) {
+          return i;
+        }
+      }
+    }
+    return to;
+  }
+}
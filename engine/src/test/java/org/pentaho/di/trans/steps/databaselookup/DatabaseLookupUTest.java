@@ -45,6 +45,8 @@ import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepMeta;
+import org.pentaho.di.trans.steps.databaselookup.intervalcache.IntervalIndexCache;
+import org.pentaho.di.trans.steps.databaselookup.readallcache.ReadAllCache;
 import org.pentaho.di.trans.steps.mock.StepMockHelper;
 import org.pentaho.metastore.api.IMetaStore;
 
@@ -327,13 +329,32 @@ public class DatabaseLookupUTest {
     assertNotNull( data );
   }
 
+  @Test
+  public void createsIntervalIndexCache_WhenReadAll_AndRangeCondition() throws Exception {
+    DatabaseLookupData data = getCreatedData( false );
+    assertTrue( data.cache instanceof IntervalIndexCache );
+  }
+
   @Test
   public void createsReadDefaultCache_WhenReadAll_AndAllEquals() throws Exception {
     DatabaseLookupData data = getCreatedData( true );
     assertNotNull( data );
   }
 
+  @Test
+  public void createsOffHeapReadOnlyCache_WhenReadAll_AndOffHeapBudgetIsSet() throws Exception {
+    DatabaseLookupData data = getCreatedData( true, "1" );
+    assertTrue( data.cache instanceof ReadAllCache );
+    assertNotNull( data.offHeapStore );
+    assertEquals( 1, data.offHeapStore.size() );
+    data.offHeapStore.close();
+  }
+
   private DatabaseLookupData getCreatedData( boolean allEquals ) throws Exception {
+    return getCreatedData( allEquals, null );
+  }
+
+  private DatabaseLookupData getCreatedData( boolean allEquals, String offHeapBudget ) throws Exception {
     Database db = mock( Database.class );
     when( db.getRows( anyString(), anyInt() ) )
       .thenReturn( Collections.singletonList( new Object[] { 1L } ) );
@@ -343,6 +364,7 @@ public class DatabaseLookupUTest {
     when( db.getReturnRowMeta() ).thenReturn( returnRowMeta );
 
     DatabaseLookupMeta meta = createTestMeta();
+    meta.setOffHeapBudget( offHeapBudget );
     DatabaseLookupData data = new DatabaseLookupData();
 
     DatabaseLookup step = createSpiedStep( db, mockHelper, meta );
@@ -14,15 +14,19 @@ package org.pentaho.di.trans.steps.databaselookup;
 
 import org.junit.Test;
 import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.cache.LookupCache;
+import org.pentaho.di.core.cache.LookupCacheStatistics;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.mockito.Mockito.mock;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.when;
 import static org.pentaho.test.util.InternalState.getInternalState;
 import static org.pentaho.test.util.InternalState.setInternalState;
@@ -34,7 +38,7 @@ public class DefaultCacheTest {
   public void storeRowInCacheSameIdTest() {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     //Several inserts with the same key and different values
     RowMeta rowMeta1 = new RowMeta(  );
     RowMeta rowMeta2 = new RowMeta(  );
@@ -42,34 +46,36 @@ public class DefaultCacheTest {
     defaultCache.storeRowInCache( databaseLookupMeta, rowMeta1, new Object[]{1}, new Object[]{ 100 } );
     defaultCache.storeRowInCache( databaseLookupMeta, rowMeta2, new Object[]{1}, new Object[]{ 200 } );
     defaultCache.storeRowInCache( databaseLookupMeta, rowMeta3, new Object[]{1}, new Object[]{ 300 } );
-    LinkedHashMap<RowMetaAndData, Object[]> map = (LinkedHashMap<RowMetaAndData, Object[]>) getInternalState( defaultCache, "map" );
+    LookupCache<RowMetaAndData, Object[]> cache =
+      (LookupCache<RowMetaAndData, Object[]>) getInternalState( defaultCache, "cache" );
     //Only one entry expected
-    assertEquals( 1, map.size() );
+    assertEquals( 1, cache.size() );
     //The value expected is the first one inserted
-    assertEquals( 100, map.get( new RowMetaAndData( rowMeta1, new Object[]{1} ) )[0] );
+    assertEquals( 100, cache.get( new RowMetaAndData( rowMeta1, new Object[]{1} ) )[0] );
   }
 
   @Test
   public void storeRowInCacheTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     RowMeta rowMeta = new RowMeta();
     //Several inserts with different key and different values
     for ( int i = 1; i <= 10; ++i ) {
       defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{i}, new Object[]{ i * 100 } );
     }
-    LinkedHashMap<RowMetaAndData, Object[]> map = (LinkedHashMap<RowMetaAndData, Object[]>) getInternalState( defaultCache, "map" );
+    LookupCache<RowMetaAndData, Object[]> cache =
+      (LookupCache<RowMetaAndData, Object[]>) getInternalState( defaultCache, "cache" );
     //All inserted entries expected
-    assertEquals( 10, map.size() );
+    assertEquals( 10, cache.size() );
   }
 
   @Test
   public void storeRowInCacheMaxSizeTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 3 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 3 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( false );
     when( databaseLookupMeta.getCacheSize() ).thenReturn( 3 );
     RowMeta rowMeta = new RowMeta();
@@ -77,20 +83,44 @@ public class DefaultCacheTest {
     for ( int i = 1; i <= 10; ++i ) {
       defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{i}, new Object[]{ i * 100 } );
     }
-    LinkedHashMap<RowMetaAndData, Object[]> map = (LinkedHashMap<RowMetaAndData, Object[]>) getInternalState( defaultCache, "map" );
+    LookupCache<RowMetaAndData, Object[]> cache =
+      (LookupCache<RowMetaAndData, Object[]>) getInternalState( defaultCache, "cache" );
     //Max capacity of cache is 3, so in the end we can only have 3 entries
-    assertEquals( 3, map.size() );
+    assertEquals( 3, cache.size() );
     //The cache eliminates the older entries when new ones are inserted, so in the end only expect the last 3 entries inserted
-    assertEquals( 800, map.get( new RowMetaAndData( rowMeta, new Object[]{8} ) )[0] );
-    assertEquals( 900, map.get( new RowMetaAndData( rowMeta, new Object[]{9} ) )[0] );
-    assertEquals( 1000, map.get( new RowMetaAndData( rowMeta, new Object[]{10} ) )[0] );
+    assertEquals( 800, cache.get( new RowMetaAndData( rowMeta, new Object[]{8} ) )[0] );
+    assertEquals( 900, cache.get( new RowMetaAndData( rowMeta, new Object[]{9} ) )[0] );
+    assertEquals( 1000, cache.get( new RowMetaAndData( rowMeta, new Object[]{10} ) )[0] );
+  }
+
+  @Test
+  public void storeRowInCacheEvictsLeastRecentlyUsedTest() throws Exception {
+    DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
+    DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 3 );
+    setInternalState( databaseLookupData, "allEquals", true );
+    RowMeta rowMeta = new RowMeta();
+    setInternalState( databaseLookupData, "lookupMeta", rowMeta );
+    for ( int i = 1; i <= 3; ++i ) {
+      defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{i}, new Object[]{ i * 100 } );
+    }
+    //The oldest entry was used recently, so the second one is evicted
+    assertEquals( 100, defaultCache.getRowFromCache( rowMeta, new Object[]{1} )[0] );
+    defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{4}, new Object[]{ 400 } );
+    assertNull( defaultCache.getRowFromCache( rowMeta, new Object[]{2} ) );
+    assertEquals( 100, defaultCache.getRowFromCache( rowMeta, new Object[]{1} )[0] );
+
+    LookupCacheStatistics statistics = defaultCache.getStatistics();
+    assertEquals( 2, statistics.getHits() );
+    assertEquals( 1, statistics.getMisses() );
+    assertEquals( 1, statistics.getEvictions() );
   }
 
   @Test
   public void getRowFromCacheAllEqualConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", true );
     RowMeta rowMeta = new RowMeta();
@@ -109,7 +139,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheEqualConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -132,7 +162,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheNotEqualConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -155,7 +185,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheLessConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -178,7 +208,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheLessOrEqualConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -201,7 +231,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheGreaterConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -224,7 +254,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheGreaterOrEqualConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -247,7 +277,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheIsNullConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -266,7 +296,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheNotNullConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -289,7 +319,7 @@ public class DefaultCacheTest {
   public void getRowFromCacheInBetweenConditionTest() throws Exception {
     DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
     DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
-    DefaultCache defaultCache = new DefaultCache( databaseLookupData, 10 );
+    DefaultCache defaultCache = DefaultCache.newCache( databaseLookupData, 10 );
     when( databaseLookupMeta.isLoadingAllDataInCache() ).thenReturn( true );
     setInternalState( databaseLookupData, "allEquals", false );
     RowMeta rowMeta = new RowMeta();
@@ -308,4 +338,36 @@ public class DefaultCacheTest {
       assertEquals( new Object[]{ i * 100 }[0], result[0] );
     }
   }
+
+  @Test
+  public void getRowFromCacheSkipsExpiredRowsTest() throws Exception {
+    DatabaseLookupData databaseLookupData = mock( DatabaseLookupData.class );
+    DatabaseLookupMeta databaseLookupMeta = mock( DatabaseLookupMeta.class );
+    AtomicLong time = new AtomicLong();
+    LookupCache<RowMetaAndData, Object[]> cache = LookupCache.<RowMetaAndData, Object[]>builder()
+      .expireAfterWrite( 10, TimeUnit.SECONDS ).ticker( time::get ).build();
+    DefaultCache defaultCache = new DefaultCache( databaseLookupData, cache );
+    setInternalState( databaseLookupData, "allEquals", false );
+    RowMeta rowMeta = new RowMeta();
+    ArrayList<ValueMetaInterface> valueMetaList = new ArrayList<>(  );
+    valueMetaList.add( new ValueMetaInteger( ) );
+    rowMeta.setValueMetaList( valueMetaList );
+    setInternalState( databaseLookupData, "lookupMeta", rowMeta );
+    setInternalState( databaseLookupData, "conditions", new int[]{ DatabaseLookupMeta.CONDITION_LT } );
+    defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ 1L }, new Object[]{ 100L } );
+    time.addAndGet( TimeUnit.SECONDS.toNanos( 5 ) );
+    defaultCache.storeRowInCache( databaseLookupMeta, rowMeta, new Object[]{ 2L }, new Object[]{ 200L } );
+    time.addAndGet( TimeUnit.SECONDS.toNanos( 5 ) );
+
+    //The first matching row expired, so the scan goes on to the next live one
+    assertEquals( 200L, defaultCache.getRowFromCache( rowMeta, new Object[]{ 5L } )[0] );
+    //Only the expired row matches: that is a miss and the expired row is removed
+    assertNull( defaultCache.getRowFromCache( rowMeta, new Object[]{ 2L } ) );
+    assertEquals( 1, cache.size() );
+
+    LookupCacheStatistics statistics = defaultCache.getStatistics();
+    assertEquals( 1, statistics.getHits() );
+    assertEquals( 1, statistics.getMisses() );
+    assertEquals( 1, statistics.getExpirations() );
+  }
 }
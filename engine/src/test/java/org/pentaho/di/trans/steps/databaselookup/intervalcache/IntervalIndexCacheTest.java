@@ -0,0 +1,151 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.databaselookup.intervalcache;
+
+import org.junit.Test;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.ValueMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.steps.databaselookup.DatabaseLookupData;
+import org.pentaho.di.trans.steps.databaselookup.DatabaseLookupMeta;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalIndexCacheTest {
+
+  private static IntervalIndexCache buildCache( int[] conditions, RowMetaInterface keysMeta, Object[][] keys,
+                                                Object[][] data ) throws Exception {
+    DatabaseLookupData stepData = new DatabaseLookupData();
+    stepData.conditions = conditions;
+    IntervalIndexCache.Builder builder = new IntervalIndexCache.Builder( stepData, keys.length );
+    builder.setKeysMeta( keysMeta );
+    for ( int i = 0; i < keys.length; i++ ) {
+      builder.add( keys[ i ], data[ i ] );
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testIsApplicable() {
+    assertTrue( IntervalIndexCache.isApplicable( new int[] {
+      DatabaseLookupMeta.CONDITION_EQ, DatabaseLookupMeta.CONDITION_LE, DatabaseLookupMeta.CONDITION_GT } ) );
+    assertTrue( IntervalIndexCache.isApplicable( new int[] { DatabaseLookupMeta.CONDITION_BETWEEN } ) );
+    assertFalse( IntervalIndexCache.isApplicable( new int[] { DatabaseLookupMeta.CONDITION_EQ } ) );
+    assertFalse( IntervalIndexCache.isApplicable( new int[] {
+      DatabaseLookupMeta.CONDITION_NE, DatabaseLookupMeta.CONDITION_IS_NULL } ) );
+    assertFalse( IntervalIndexCache.isApplicable( new int[] {
+      DatabaseLookupMeta.CONDITION_LT, DatabaseLookupMeta.CONDITION_LIKE } ) );
+  }
+
+  @Test
+  public void testSlowlyChangingDimensionLookup() throws Exception {
+    // natural key = stream key, date_from <= stream date, date_to > stream date
+    int[] conditions =
+      { DatabaseLookupMeta.CONDITION_EQ, DatabaseLookupMeta.CONDITION_LE, DatabaseLookupMeta.CONDITION_GT };
+    RowMeta keysMeta = new RowMeta();
+    keysMeta.addValueMeta( new ValueMetaString( "natural_key" ) );
+    keysMeta.addValueMeta( new ValueMetaInteger( "date_from" ) );
+    keysMeta.addValueMeta( new ValueMetaInteger( "date_to" ) );
+
+    Object[][] keys = {
+      { "a", 0L, 10L },
+      { "b", 0L, 5L },
+      { "a", 10L, 20L },
+      { "b", 5L, 100L },
+      { "a", 20L, 100L },
+    };
+    Object[][] data = { { 1L }, { 2L }, { 3L }, { 4L }, { 5L } };
+    IntervalIndexCache cache = buildCache( conditions, keysMeta, keys, data );
+
+    RowMeta lookupMeta = keysMeta.clone();
+    assertSame( data[ 0 ], cache.getRowFromCache( lookupMeta, new Object[] { "a", 0L, 0L } ) );
+    assertSame( data[ 2 ], cache.getRowFromCache( lookupMeta, new Object[] { "a", 10L, 10L } ) );
+    assertSame( data[ 4 ], cache.getRowFromCache( lookupMeta, new Object[] { "a", 99L, 99L } ) );
+    assertSame( data[ 3 ], cache.getRowFromCache( lookupMeta, new Object[] { "b", 7L, 7L } ) );
+    assertNull( cache.getRowFromCache( lookupMeta, new Object[] { "a", 100L, 100L } ) );
+    assertNull( cache.getRowFromCache( lookupMeta, new Object[] { "c", 1L, 1L } ) );
+  }
+
+  @Test
+  public void testBetweenShiftsTheLookupValues() throws Exception {
+    int[] conditions = { DatabaseLookupMeta.CONDITION_BETWEEN, DatabaseLookupMeta.CONDITION_EQ };
+    RowMeta keysMeta = new RowMeta();
+    keysMeta.addValueMeta( new ValueMetaInteger( "value" ) );
+    keysMeta.addValueMeta( new ValueMetaString( "code" ) );
+
+    Object[][] keys = { { 5L, "x" }, { 15L, "y" }, { 25L, "x" } };
+    Object[][] data = { { "first" }, { "second" }, { "third" } };
+    IntervalIndexCache cache = buildCache( conditions, keysMeta, keys, data );
+
+    RowMeta lookupMeta = new RowMeta();
+    lookupMeta.addValueMeta( new ValueMetaInteger( "low" ) );
+    lookupMeta.addValueMeta( new ValueMetaInteger( "high" ) );
+    lookupMeta.addValueMeta( new ValueMetaString( "code" ) );
+    assertArrayEquals( data[ 2 ], cache.getRowFromCache( lookupMeta, new Object[] { 10L, 30L, "x" } ) );
+    assertArrayEquals( data[ 1 ], cache.getRowFromCache( lookupMeta, new Object[] { 10L, 30L, "y" } ) );
+    assertNull( cache.getRowFromCache( lookupMeta, new Object[] { 6L, 14L, "x" } ) );
+  }
+
+  @Test
+  public void testReturnsTheFirstMatchLikeAFullScan() throws Exception {
+    int[] conditions = {
+      DatabaseLookupMeta.CONDITION_EQ, DatabaseLookupMeta.CONDITION_GE, DatabaseLookupMeta.CONDITION_LT,
+      DatabaseLookupMeta.CONDITION_NE, DatabaseLookupMeta.CONDITION_IS_NOT_NULL };
+    RowMeta keysMeta = new RowMeta();
+    for ( int i = 0; i < conditions.length; i++ ) {
+      keysMeta.addValueMeta( new ValueMetaInteger( "key" + i ) );
+    }
+
+    Random random = new Random( 42 );
+    Object[][] keys = new Object[ 5000 ][];
+    Object[][] data = new Object[ keys.length ][];
+    for ( int i = 0; i < keys.length; i++ ) {
+      keys[ i ] = new Object[] {
+        (long) random.nextInt( 5 ), (long) random.nextInt( 1000 ), (long) random.nextInt( 1000 ),
+        (long) random.nextInt( 3 ), random.nextInt( 10 ) == 0 ? null : 1L };
+      data[ i ] = new Object[] { (long) i };
+    }
+    IntervalIndexCache cache = buildCache( conditions, keysMeta, keys, data );
+
+    for ( int lookup = 0; lookup < 2000; lookup++ ) {
+      Object[] lookupRow = {
+        (long) random.nextInt( 6 ), (long) random.nextInt( 1000 ), (long) random.nextInt( 1000 ),
+        (long) random.nextInt( 3 ), null };
+      Object[] expected = null;
+      for ( int i = 0; i < keys.length && expected == null; i++ ) {
+        if ( matches( keysMeta, keys[ i ], lookupRow ) ) {
+          expected = data[ i ];
+        }
+      }
+      assertSame( expected, cache.getRowFromCache( keysMeta, lookupRow ) );
+    }
+  }
+
+  private static boolean matches( RowMetaInterface meta, Object[] key, Object[] lookup ) throws Exception {
+    ValueMetaInterface v = meta.getValueMeta( 0 );
+    return v.compare( key[ 0 ], lookup[ 0 ] ) == 0
+      && v.compare( key[ 1 ], lookup[ 1 ] ) >= 0
+      && v.compare( key[ 2 ], lookup[ 2 ] ) < 0
+      && v.compare( key[ 3 ], lookup[ 3 ] ) != 0
+      && key[ 4 ] != null;
+  }
+}
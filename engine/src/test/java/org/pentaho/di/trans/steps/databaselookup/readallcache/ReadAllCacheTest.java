@@ -16,6 +16,7 @@ package org.pentaho.di.trans.steps.databaselookup.readallcache;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.pentaho.di.core.row.OffHeapRowStore;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.value.ValueMetaDate;
 import org.pentaho.di.core.row.value.ValueMetaInteger;
@@ -190,4 +191,27 @@ public class ReadAllCacheTest {
     Object[] found = cache.getRowFromCache( new RowMeta(), new Object[ 0 ] );
     assertArrayEquals( "(keys[1] == 1L) --> row 2", new Object[] { "one" }, found );
   }
+
+  @Test
+  public void lookup_ReturnsDataFromOffHeapStore() throws Exception {
+    stepData = new DatabaseLookupData();
+    stepData.conditions = new int[] { DatabaseLookupMeta.CONDITION_EQ };
+
+    RowMeta dataMeta = new RowMeta();
+    dataMeta.addValueMeta( new ValueMetaString( "value" ) );
+    try ( OffHeapRowStore store = new OffHeapRowStore( dataMeta, 1024 * 1024 ) ) {
+      ReadAllCache.Builder builder = new ReadAllCache.Builder( stepData, 2, store );
+      RowMeta keysMeta = new RowMeta();
+      keysMeta.addValueMeta( new ValueMetaInteger() );
+      builder.setKeysMeta( keysMeta );
+      builder.add( new Object[] { 1L }, new Object[] { "one" } );
+      builder.add( new Object[] { 2L }, new Object[] { "two" } );
+      ReadAllCache cache = builder.build();
+
+      RowMeta lookupMeta = new RowMeta();
+      lookupMeta.addValueMeta( new ValueMetaInteger() );
+      assertArrayEquals( new Object[] { "two" }, cache.getRowFromCache( lookupMeta, new Object[] { 2L } ) );
+      assertNull( cache.getRowFromCache( lookupMeta, new Object[] { 3L } ) );
+    }
+  }
 }
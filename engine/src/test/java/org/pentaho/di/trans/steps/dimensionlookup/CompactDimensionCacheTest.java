@@ -0,0 +1,323 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.row.value.ValueMetaString;
+
+public class CompactDimensionCacheTest {
+
+  private static final long DAY = 24L * 3600L * 1000L;
+
+  private static RowMetaInterface createRowMeta( boolean compositeKey ) {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "TK" ) );
+    if ( compositeKey ) {
+      rowMeta.addValueMeta( new ValueMetaString( "COUNTRY" ) );
+    }
+    rowMeta.addValueMeta( new ValueMetaInteger( "ID" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "NAME" ) );
+    rowMeta.addValueMeta( new ValueMetaNumber( "SCORE" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DATE_FROM" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "DATE_TO" ) );
+    return rowMeta;
+  }
+
+  private static CompactDimensionCache.Builder createBuilder( RowMetaInterface rowMeta ) {
+    int nrKeys = rowMeta.size() - 5;
+    int[] keyIndexes = new int[ nrKeys ];
+    for ( int i = 0; i < nrKeys; i++ ) {
+      keyIndexes[ i ] = 1 + i;
+    }
+    return new CompactDimensionCache.Builder( rowMeta, 0, keyIndexes, new int[] { nrKeys + 1, nrKeys + 2 },
+      nrKeys + 3, nrKeys + 4 );
+  }
+
+  private static Date day( int day ) {
+    return new Date( day * DAY );
+  }
+
+  @Test
+  public void testLookupIntegerKey() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta( false );
+    CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+    builder.addRow( new Object[] { 3L, 1L, "Ann", 1.5, day( 10 ), day( 20 ) } );
+    builder.addRow( new Object[] { 1L, 1L, "Anna", 2.5, null, day( 10 ) } );
+    builder.addRow( new Object[] { 4L, 1L, "Anne", null, day( 20 ), null } );
+    builder.addRow( new Object[] { 2L, 7L, "Bob", 3.5, null, null } );
+    builder.addRow( new Object[] { 5L, null, "Nobody", 0.0, null, null } );
+    CompactDimensionCache cache = builder.build();
+
+    assertTrue( cache.isLongKeys() );
+    assertEquals( 5, cache.size() );
+    assertEquals( 3, cache.getKeyCount() );
+
+    assertEquals( 1L, lookup( cache, rowMeta, day( 5 ), 1L ) );
+    assertEquals( 3L, lookup( cache, rowMeta, day( 10 ), 1L ) );
+    assertEquals( 3L, lookup( cache, rowMeta, day( 19 ), 1L ) );
+    assertEquals( 4L, lookup( cache, rowMeta, day( 20 ), 1L ) );
+    assertEquals( 2L, lookup( cache, rowMeta, day( 100 ), 7L ) );
+    assertEquals( 5L, lookup( cache, rowMeta, day( 100 ), (Object) null ) );
+    assertEquals( -1L, lookup( cache, rowMeta, day( 100 ), 2L ) );
+    assertEquals( -1L, lookup( cache, rowMeta, day( 100 ), 8L ) );
+
+    // technical key, version, fields, from, to
+    //
+    CompactDimensionCache.Probe probe = cache.newProbe();
+    probe.setKey( rowMeta, new Object[] { null, 1L }, new int[] { 1 } );
+    Object[] row = cache.getReturnRow( cache.lookup( probe, day( 15 ) ) );
+    assertEquals( 6, cache.getReturnRowMeta().size() );
+    assertEquals( 3L, row[ 0 ] );
+    assertNull( row[ 1 ] );
+    assertEquals( "Ann", row[ 2 ] );
+    assertEquals( 1.5, row[ 3 ] );
+    assertEquals( day( 10 ), row[ 4 ] );
+    assertEquals( day( 20 ), row[ 5 ] );
+
+    row = cache.getReturnRow( cache.lookup( probe, day( 25 ) ) );
+    assertNull( row[ 3 ] );
+    assertNull( row[ 5 ] );
+  }
+
+  @Test
+  public void testLookupCompositeKey() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta( true );
+    CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+    builder.addRow( new Object[] { 1L, "BE", 1L, "Ann", 1.0, null, day( 10 ) } );
+    builder.addRow( new Object[] { 2L, "BE", 1L, "Anne", 2.0, day( 10 ), null } );
+    builder.addRow( new Object[] { 3L, "NL", 1L, "Ann", 3.0, null, null } );
+    builder.addRow( new Object[] { 4L, "B", 11L, "Bob", 4.0, null, null } );
+    CompactDimensionCache cache = builder.build();
+
+    assertFalse( cache.isLongKeys() );
+    assertEquals( 3, cache.getKeyCount() );
+
+    assertEquals( 1L, lookup( cache, rowMeta, day( 1 ), "BE", 1L ) );
+    assertEquals( 2L, lookup( cache, rowMeta, day( 11 ), "BE", 1L ) );
+    assertEquals( 3L, lookup( cache, rowMeta, day( 11 ), "NL", 1L ) );
+    assertEquals( 4L, lookup( cache, rowMeta, day( 11 ), "B", 11L ) );
+    assertEquals( -1L, lookup( cache, rowMeta, day( 11 ), "BE", 11L ) );
+    assertEquals( -1L, lookup( cache, rowMeta, day( 11 ), "B", 1L ) );
+    assertEquals( -1L, lookup( cache, rowMeta, day( 11 ), null, 1L ) );
+  }
+
+  @Test
+  public void testLookupMatchesLinearScan() throws Exception {
+    RowMetaInterface rowMeta = createRowMeta( true );
+    CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+    List<Object[]> rows = new ArrayList<>();
+    Random random = new Random( 42 );
+    long tk = 1;
+    for ( int key = 0; key < 500; key++ ) {
+      String country = random.nextInt( 10 ) == 0 ? null : "C" + random.nextInt( 5 );
+      long id = random.nextInt( 200 );
+      boolean duplicate = false;
+      for ( Object[] row : rows ) {
+        duplicate |= row[ 2 ].equals( id ) && ( country == null ? row[ 1 ] == null : country.equals( row[ 1 ] ) );
+      }
+      if ( duplicate ) {
+        continue;
+      }
+      // Consecutive versions with gaps in between
+      //
+      int from = random.nextInt( 10 );
+      for ( int version = random.nextInt( 4 ); version >= 0; version-- ) {
+        int to = from + 1 + random.nextInt( 10 );
+        Object[] row = new Object[] { tk++, country, id, "N" + tk, (double) tk, day( from ), day( to ) };
+        rows.add( row );
+        builder.addRow( row );
+        from = to + random.nextInt( 3 );
+      }
+    }
+    CompactDimensionCache cache = builder.build();
+
+    for ( int i = 0; i < 20000; i++ ) {
+      String country = random.nextInt( 10 ) == 0 ? null : "C" + random.nextInt( 6 );
+      long id = random.nextInt( 210 );
+      Date date = day( random.nextInt( 60 ) );
+      long expected = -1L;
+      for ( Object[] row : rows ) {
+        if ( row[ 2 ].equals( id ) && ( country == null ? row[ 1 ] == null : country.equals( row[ 1 ] ) )
+          && !date.before( (Date) row[ 5 ] ) && date.before( (Date) row[ 6 ] ) ) {
+          expected = (Long) row[ 0 ];
+        }
+      }
+      assertEquals( expected, lookup( cache, rowMeta, date, country, id ) );
+    }
+  }
+
+  @Test
+  public void testSharedMappedFile() throws Exception {
+    final RowMetaInterface rowMeta = createRowMeta( false );
+    File file = File.createTempFile( "dimension", ".cache" );
+    file.deleteOnExit();
+    final int[] loads = new int[ 1 ];
+    CompactDimensionCache.Loader loader = fileName -> {
+      loads[ 0 ]++;
+      CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+      builder.addRow( new Object[] { 1L, 1L, "Ann", 1.0, null, day( 10 ) } );
+      builder.addRow( new Object[] { 2L, 1L, "Anne", 2.0, day( 10 ), null } );
+      builder.addRow( new Object[] { 3L, 2L, "Bob", 3.0, null, null } );
+      return builder.build( new File( fileName ) );
+    };
+    String fileName = file.getAbsolutePath();
+
+    CompactDimensionCache cache1 = CompactDimensionCache.acquire( fileName, "dim", loader );
+    CompactDimensionCache cache2 = CompactDimensionCache.acquire( fileName, "dim", loader );
+    assertSame( cache1, cache2 );
+    assertEquals( 1, loads[ 0 ] );
+    assertEquals( 2, cache1.getReferences() );
+    assertTrue( file.length() > 0 );
+
+    assertEquals( 1L, lookup( cache1, rowMeta, day( 5 ), 1L ) );
+    assertEquals( 2L, lookup( cache1, rowMeta, day( 15 ), 1L ) );
+    assertEquals( 3L, lookup( cache1, rowMeta, day( 15 ), 2L ) );
+    assertEquals( "Anne", cache1.getReturnRow( 1 )[ 2 ] );
+
+    try {
+      CompactDimensionCache.acquire( fileName, "other dim", loader );
+      fail( "A file in use can't be shared with another dimension" );
+    } catch ( KettleException e ) {
+      // expected
+    }
+
+    cache1.release();
+    cache2.release();
+    assertEquals( 0, cache1.getReferences() );
+
+    CompactDimensionCache cache3 = CompactDimensionCache.acquire( fileName, "other dim", loader );
+    assertEquals( 2, loads[ 0 ] );
+    cache3.release();
+  }
+
+  @Test( timeout = 10000 )
+  public void testLoadingDoesNotBlockOtherFiles() throws Exception {
+    final RowMetaInterface rowMeta = createRowMeta( false );
+    File file1 = File.createTempFile( "dimension", ".cache" );
+    file1.deleteOnExit();
+    File file2 = File.createTempFile( "dimension", ".cache" );
+    file2.deleteOnExit();
+    final CountDownLatch loading = new CountDownLatch( 1 );
+    final CountDownLatch otherFileLoaded = new CountDownLatch( 1 );
+    final AtomicInteger loads = new AtomicInteger();
+    CompactDimensionCache.Loader slowLoader = fileName -> {
+      loads.incrementAndGet();
+      loading.countDown();
+      try {
+        // Only finishes once another file was acquired while this one is loading
+        otherFileLoaded.await();
+      } catch ( InterruptedException e ) {
+        throw new KettleException( e );
+      }
+      CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+      builder.addRow( new Object[] { 1L, 1L, "Ann", 1.0, null, null } );
+      return builder.build( new File( fileName ) );
+    };
+    CompactDimensionCache.Loader loader = fileName -> {
+      CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+      builder.addRow( new Object[] { 2L, 2L, "Bob", 2.0, null, null } );
+      return builder.build( new File( fileName ) );
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool( 2 );
+    try {
+      Future<CompactDimensionCache> first =
+        executor.submit( () -> CompactDimensionCache.acquire( file1.getAbsolutePath(), "dim", slowLoader ) );
+      loading.await();
+      // The same file waits for the load in progress instead of loading it again
+      Future<CompactDimensionCache> second =
+        executor.submit( () -> CompactDimensionCache.acquire( file1.getAbsolutePath(), "dim", slowLoader ) );
+
+      CompactDimensionCache other = CompactDimensionCache.acquire( file2.getAbsolutePath(), "dim", loader );
+      assertEquals( 2L, lookup( other, rowMeta, day( 1 ), 2L ) );
+      otherFileLoaded.countDown();
+
+      CompactDimensionCache cache1 = first.get();
+      CompactDimensionCache cache2 = second.get();
+      assertSame( cache1, cache2 );
+      assertEquals( 1, loads.get() );
+      assertEquals( 2, cache1.getReferences() );
+      assertEquals( 1L, lookup( cache1, rowMeta, day( 1 ), 1L ) );
+
+      cache1.release();
+      cache2.release();
+      other.release();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testFailedLoadIsRetried() throws Exception {
+    final RowMetaInterface rowMeta = createRowMeta( false );
+    File file = File.createTempFile( "dimension", ".cache" );
+    file.deleteOnExit();
+    String fileName = file.getAbsolutePath();
+
+    try {
+      CompactDimensionCache.acquire( fileName, "dim", name -> {
+        throw new KettleException( "database down" );
+      } );
+      fail( "The load failed" );
+    } catch ( KettleException e ) {
+      // expected
+    }
+
+    CompactDimensionCache cache = CompactDimensionCache.acquire( fileName, "dim", name -> {
+      CompactDimensionCache.Builder builder = createBuilder( rowMeta );
+      builder.addRow( new Object[] { 1L, 1L, "Ann", 1.0, null, null } );
+      return builder.build( new File( name ) );
+    } );
+    assertEquals( 1, cache.getReferences() );
+    cache.release();
+  }
+
+  private static long lookup( CompactDimensionCache cache, RowMetaInterface rowMeta, Date date, Object... key )
+    throws KettleException {
+    Object[] row = new Object[ rowMeta.size() ];
+    int[] indexes = new int[ key.length ];
+    for ( int i = 0; i < key.length; i++ ) {
+      indexes[ i ] = 1 + i;
+      row[ 1 + i ] = key[ i ];
+    }
+    CompactDimensionCache.Probe probe = cache.newProbe();
+    probe.setKey( rowMeta, row, indexes );
+    int index = cache.lookup( probe, date );
+    return index < 0 ? -1L : cache.getTechnicalKey( index );
+  }
+}
@@ -0,0 +1,186 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.dimensionlookup;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.pentaho.di.core.KettleEnvironment;
+import org.pentaho.di.core.RowMetaAndData;
+import org.pentaho.di.core.database.DatabaseMeta;
+import org.pentaho.di.core.database.H2DatabaseMeta;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaDate;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaString;
+import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransTestFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Runs the same rows through a dimension row by row and in batches and compares the resulting dimensions.
+ */
+public class DimensionLookupBatchTest {
+  private static final String STEP_NAME = "dimension";
+  private static final long DAY = 24L * 60 * 60 * 1000;
+
+  private static Connection connection;
+  private static DatabaseMeta databaseMeta;
+
+  @BeforeClass
+  public static void setUpClass() throws Exception {
+    KettleEnvironment.init( false );
+    connection = DriverManager.getConnection( "jdbc:h2:mem:DIMBATCH;DB_CLOSE_DELAY=-1" );
+
+    databaseMeta = new DatabaseMeta();
+    databaseMeta.setDatabaseInterface( new H2DatabaseMeta() );
+    databaseMeta.setName( "mem:DIMBATCH" );
+    databaseMeta.setDBName( "mem:DIMBATCH" );
+    databaseMeta.setDatabaseType( "H2" );
+  }
+
+  @AfterClass
+  public static void tearDownClass() throws SQLException {
+    connection.close();
+  }
+
+  private static void createDimension( String table ) throws SQLException {
+    try ( Statement statement = connection.createStatement() ) {
+      statement.execute( "CREATE TABLE " + table + " (TK BIGINT, VERSION_NR INTEGER, DATE_FROM TIMESTAMP, "
+        + "DATE_TO TIMESTAMP, CUSTOMER_ID BIGINT, COUNTRY VARCHAR(10), CUSTOMER_NAME VARCHAR(50), "
+        + "CITY VARCHAR(50), SEGMENT VARCHAR(50))" );
+    }
+  }
+
+  private static List<String> readDimension( String table ) throws SQLException {
+    List<String> rows = new ArrayList<>();
+    try ( Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery( "SELECT TK, VERSION_NR, DATE_FROM, DATE_TO, CUSTOMER_ID, "
+            + "COUNTRY, CUSTOMER_NAME, CITY, SEGMENT FROM " + table + " ORDER BY TK" ) ) {
+      while ( resultSet.next() ) {
+        StringBuilder row = new StringBuilder();
+        for ( int i = 1; i <= 9; i++ ) {
+          row.append( resultSet.getObject( i ) ).append( '|' );
+        }
+        rows.add( row.toString() );
+      }
+    }
+    return rows;
+  }
+
+  private static List<RowMetaAndData> createInput() {
+    RowMetaInterface rowMeta = new RowMeta();
+    rowMeta.addValueMeta( new ValueMetaInteger( "customer_id" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "country" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "customer_name" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "city" ) );
+    rowMeta.addValueMeta( new ValueMetaString( "segment" ) );
+    rowMeta.addValueMeta( new ValueMetaDate( "load_date" ) );
+
+    Object[][] rows = {
+      { 1L, "BE", "Ann", "Ghent", "A" },
+      { 2L, "BE", "Bob", "Leuven", "B" },
+      { 1L, "BE", "Ann", "Ghent", "A" }, // identical
+      { 1L, "BE", "Anne", "Ghent", "A" }, // new version in the same batch
+      { 1L, "NL", "Ann", "Delft", "A" }, // other country
+      { 2L, "BE", "Bob", "Brussels", "B" }, // type 1 update
+      { 2L, "BE", "Bob", "Brussels", "C" }, // punch through
+      { null, "BE", "Nobody", "Nowhere", "A" },
+      { 3L, "BE", "Cid", "Mons", "A" },
+      { 3L, "BE", "Cyd", "Mons", "B" }, // new version and punch through
+      { 1L, "BE", "Anne", "Antwerp", "A" }, // type 1 update of a version from an earlier batch
+      { null, "BE", "Nobody", "Nowhere", "A" },
+      { 2L, "BE", "Bobby", "Brussels", "C" },
+      { 3L, "BE", "Cyd", "Mons", "D" },
+    };
+    List<RowMetaAndData> input = new ArrayList<>();
+    for ( int i = 0; i < rows.length; i++ ) {
+      Object[] row = Arrays.copyOf( rows[ i ], rowMeta.size() );
+      row[ rowMeta.size() - 1 ] = new Date( 1700000000000L + i * DAY );
+      input.add( new RowMetaAndData( rowMeta, row ) );
+    }
+    return input;
+  }
+
+  private static List<Long> runDimension( String table, String[] keys, int batchSize ) throws Exception {
+    DimensionLookupMeta meta = new DimensionLookupMeta();
+    meta.setDefault();
+    meta.setDatabaseMeta( databaseMeta );
+    meta.setTableName( table );
+    meta.setUpdate( true );
+    meta.allocate( keys.length, 3 );
+    for ( int i = 0; i < keys.length; i++ ) {
+      meta.getKeyStream()[ i ] = keys[ i ];
+      meta.getKeyLookup()[ i ] = keys[ i ].toUpperCase();
+    }
+    meta.setFieldStream( new String[] { "customer_name", "city", "segment" } );
+    meta.setFieldLookup( new String[] { "CUSTOMER_NAME", "CITY", "SEGMENT" } );
+    meta.setFieldUpdate( new int[] { DimensionLookupMeta.TYPE_UPDATE_DIM_INSERT,
+      DimensionLookupMeta.TYPE_UPDATE_DIM_UPDATE, DimensionLookupMeta.TYPE_UPDATE_DIM_PUNCHTHROUGH } );
+    meta.setDateField( "load_date" );
+    meta.setDateFrom( "DATE_FROM" );
+    meta.setDateTo( "DATE_TO" );
+    meta.setKeyField( "TK" );
+    meta.setVersionField( "VERSION_NR" );
+    meta.setTechKeyCreation( DimensionLookupMeta.CREATION_METHOD_TABLEMAX );
+    meta.setCacheSize( -1 );
+    meta.setBatchSize( batchSize );
+
+    TransMeta transMeta = TransTestFactory.generateTestTransformation( null, meta, STEP_NAME );
+    List<RowMetaAndData> result =
+      TransTestFactory.executeTestTransformation( transMeta, TransTestFactory.INJECTOR_STEPNAME, STEP_NAME,
+        TransTestFactory.DUMMY_STEPNAME, createInput() );
+
+    List<Long> technicalKeys = new ArrayList<>();
+    for ( RowMetaAndData row : result ) {
+      technicalKeys.add( row.getInteger( "TK" ) );
+    }
+    return technicalKeys;
+  }
+
+  private static void assertSameDimension( String[] keys, String rowTable, String batchTable ) throws Exception {
+    createDimension( rowTable );
+    createDimension( batchTable );
+
+    List<Long> rowKeys = runDimension( rowTable, keys, 0 );
+    List<Long> batchKeys = runDimension( batchTable, keys, 3 );
+
+    assertFalse( rowKeys.isEmpty() );
+    assertEquals( rowKeys, batchKeys );
+    assertEquals( readDimension( rowTable ), readDimension( batchTable ) );
+  }
+
+  @Test
+  public void testBatchesMatchRowByRow() throws Exception {
+    assertSameDimension( new String[] { "customer_id" }, "DIM_SINGLE_ROW", "DIM_SINGLE_BATCH" );
+  }
+
+  @Test
+  public void testBatchesMatchRowByRowWithCompositeKey() throws Exception {
+    assertSameDimension( new String[] { "customer_id", "country" }, "DIM_COMPOSITE_ROW", "DIM_COMPOSITE_BATCH" );
+  }
+}
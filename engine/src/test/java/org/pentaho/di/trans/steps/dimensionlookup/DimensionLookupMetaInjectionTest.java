@@ -123,6 +123,12 @@ public class DimensionLookupMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.getCommitSize();
       }
     } );
+    check( "BATCH_SIZE", new IntGetter() {
+      @Override
+      public int get() {
+        return meta.getBatchSize();
+      }
+    } );
     check( "MIN_YEAR", new IntGetter() {
       @Override
       public int get() {
@@ -165,6 +171,30 @@ public class DimensionLookupMetaInjectionTest extends BaseMetadataInjectionTest<
         return meta.isPreloadingCache();
       }
     } );
+    check( "PRELOAD_CACHE_FILE", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getPreloadCacheFile();
+      }
+    } );
+    check( "CACHE_EVICTION_POLICY", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getCacheEvictionPolicy();
+      }
+    } );
+    check( "CACHE_MEMORY_LIMIT", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getCacheMemoryLimit();
+      }
+    } );
+    check( "CACHE_TIME_TO_LIVE", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getCacheTimeToLive();
+      }
+    } );
     check( "CONNECTION_NAME", new StringGetter() {
       public String get() {
         return "My Connection";
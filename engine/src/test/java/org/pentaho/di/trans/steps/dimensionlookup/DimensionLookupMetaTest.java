@@ -82,9 +82,10 @@ public class DimensionLookupMetaTest implements InitializerInterface<StepMetaInt
   public void setUpLoadSave() throws Exception {
     List<String> attributes =
         Arrays.asList( "schemaName", "tableName", "update", "dateField", "dateFrom", "dateTo", "keyField", "keyRename",
-            "autoIncrement", "versionField", "commitSize", "useBatchUpdate", "minYear", "maxYear", "techKeyCreation",
-            "cacheSize", "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "keyStream",
-            "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName" );
+            "autoIncrement", "versionField", "commitSize", "useBatchUpdate", "batchSize", "minYear", "maxYear", "techKeyCreation",
+            "cacheSize", "cacheEvictionPolicy", "cacheMemoryLimit", "cacheTimeToLive",
+            "usingStartDateAlternative", "startDateAlternative", "startDateFieldName", "preloadingCache", "preloadCacheFile",
+            "keyStream", "keyLookup", "fieldStream", "fieldLookup", "fieldUpdate", "databaseMeta", "sequenceName" );
 
     Map<String, String> getterMap = new HashMap<>() {
       {
@@ -47,7 +47,8 @@ public class TextFileInputMetaLoadSaveTest {
       "errorCountField",
       "errorFieldsField",
       "errorTextField",
-      "length" );
+      "length",
+      "runningInParallel" );
     List<String> xmlAttributes = Collections.emptyList();
     List<String> repoAttributes = Collections.emptyList();
 
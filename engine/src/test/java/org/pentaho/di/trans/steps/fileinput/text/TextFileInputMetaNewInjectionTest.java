@@ -182,6 +182,12 @@ public class TextFileInputMetaNewInjectionTest extends BaseMetadataInjectionTest
       }
     } );
 
+    check( "RUNNING_IN_PARALLEL", new BooleanGetter() {
+      public boolean get() {
+        return meta.content.runningInParallel;
+      }
+    } );
+
     check( "DATE_FORMAT_LENIENT", new BooleanGetter() {
       public boolean get() {
         return meta.content.dateFormatLenient;
@@ -0,0 +1,147 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.fileinput.text;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TextFileInputSplitterTest {
+
+  @Test
+  public void testRangesStartOnLines() throws Exception {
+    List<String> records = new ArrayList<>();
+    for ( int i = 0; i < 1000; i++ ) {
+      records.add( "line" + i + ";" + i * 31 + "\n" );
+    }
+    assertRanges( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, null, null, 0 ), records, 7 );
+    assertRanges( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_MIXED, null, null, 0 ), records, 3 );
+  }
+
+  @Test
+  public void testRangesKeepEnclosedLineBreaks() throws Exception {
+    List<String> records = new ArrayList<>();
+    for ( int i = 0; i < 1000; i++ ) {
+      records.add( i % 3 == 0 ? "\"multi\nline\n" + i + "\";x\n" : "\"single " + i + "\";y\n" );
+    }
+    assertRanges( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, "\"", null, 0 ), records, 5 );
+  }
+
+  @Test
+  public void testRangesRespectEscapedEnclosures() throws Exception {
+    List<String> records = new ArrayList<>();
+    for ( int i = 0; i < 1000; i++ ) {
+      records.add( i % 2 == 0 ? "\"a \\\" quote\nin " + i + "\";x\n" : "\"b \\\\\";\"" + i + "\"\n" );
+    }
+    assertRanges( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, "\"", "\\", 0 ), records, 6 );
+  }
+
+  @Test
+  public void testRangesWithDosLineEnds() throws Exception {
+    List<String> records = new ArrayList<>();
+    for ( int i = 0; i < 1000; i++ ) {
+      records.add( "\"" + i + "\r\n\";dos\r\n" );
+    }
+    assertRanges( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_DOS, "\"", null, 0 ), records, 4 );
+  }
+
+  @Test
+  public void testHeaderStaysInFirstRange() throws Exception {
+    List<String> records = new ArrayList<>();
+    records.add( "\"first\nheader\";h\n" );
+    records.add( "second header\n" );
+    for ( int i = 0; i < 10; i++ ) {
+      records.add( "row" + i + "\n" );
+    }
+    TextFileInputSplitter splitter = new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, "\"", null, 2 );
+    long headerEnd = records.get( 0 ).length() + records.get( 1 ).length();
+
+    long[] starts = assertRanges( splitter, records, 20 );
+    for ( int i = 1; i < starts.length; i++ ) {
+      assertTrue( starts[i] >= headerEnd );
+    }
+  }
+
+  @Test
+  public void testLastRecordWithoutLineBreak() throws Exception {
+    List<String> records = new ArrayList<>();
+    for ( int i = 0; i < 100; i++ ) {
+      records.add( "row" + i + "\n" );
+    }
+    records.add( "last" );
+    assertRanges( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, null, null, 0 ), records, 8 );
+  }
+
+  @Test
+  public void testIsSplittable() {
+    assertTrue( TextFileInputSplitter.isSplittable( "UTF-8", "\"", "\\" ) );
+    assertTrue( TextFileInputSplitter.isSplittable( "ISO-8859-1", "", null ) );
+    assertTrue( TextFileInputSplitter.isSplittable( "windows-1252", "'", "" ) );
+    assertFalse( TextFileInputSplitter.isSplittable( "UTF-16", "\"", null ) );
+    assertFalse( TextFileInputSplitter.isSplittable( "UTF-8", "\"\"", null ) );
+    assertFalse( TextFileInputSplitter.isSplittable( "UTF-8", "«", null ) );
+    assertFalse( TextFileInputSplitter.isSplittable( "no-such-encoding", "\"", null ) );
+  }
+
+  @Test
+  public void testIsScanningFromStart() {
+    assertFalse( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, null, null, 0 ).isScanningFromStart() );
+    assertFalse( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_MIXED, "", "\\", 1 ).isScanningFromStart() );
+    assertTrue( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_UNIX, "\"", null, 0 ).isScanningFromStart() );
+    assertTrue( new TextFileInputSplitter( TextFileInputMeta.FILE_FORMAT_DOS, null, null, 0 ).isScanningFromStart() );
+  }
+
+  /**
+   * Checks that the ranges of all copies follow each other and only start where a record starts, and that a single
+   * pass finds the same ranges.
+   *
+   * @return the start offsets of the ranges
+   */
+  private long[] assertRanges( TextFileInputSplitter splitter, List<String> records, int nrRanges )
+    throws Exception {
+    StringBuilder content = new StringBuilder();
+    List<Long> recordStarts = new ArrayList<>();
+    for ( String record : records ) {
+      recordStarts.add( (long) content.length() );
+      content.append( record );
+    }
+    byte[] bytes = content.toString().getBytes( StandardCharsets.US_ASCII );
+    recordStarts.add( (long) bytes.length );
+
+    long[] boundaries = splitter.findBoundaries( new ByteArrayInputStream( bytes ), bytes.length, nrRanges );
+    assertEquals( nrRanges + 1, boundaries.length );
+
+    long[] starts = new long[nrRanges];
+    long previousEnd = 0;
+    for ( int i = 0; i < nrRanges; i++ ) {
+      long[] range = splitter.findRange( new ByteArrayInputStream( bytes ), bytes.length, nrRanges, i );
+      assertEquals( boundaries[i], range[0] );
+      assertEquals( boundaries[i + 1], range[1] );
+      assertEquals( previousEnd, range[0] );
+      assertTrue( range[0] <= range[1] );
+      assertTrue( "Range " + i + " starts inside a record at " + range[0], recordStarts.contains( range[0] ) );
+      starts[i] = range[0];
+      previousEnd = range[1];
+    }
+    assertEquals( bytes.length, previousEnd );
+    return starts;
+  }
+}
@@ -43,7 +43,8 @@ public class HTTPMetaLoadSaveTest {
         Arrays.asList( "url", "urlInField", "urlField", "encoding", "httpLogin", "httpPassword", "proxyHost",
             "proxyPort", "socketTimeout", "connectionTimeout", "closeIdleConnectionsTime", "argumentField",
             "argumentParameter", "headerField", "headerParameter", "fieldName", "resultCodeFieldName",
-            "responseTimeFieldName", "responseHeaderFieldName" );
+            "responseTimeFieldName", "responseHeaderFieldName", "asynchronous", "concurrentRequests",
+            "preserveOrder" );
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
         new HashMap<String, FieldLoadSaveValidator<?>>();
 
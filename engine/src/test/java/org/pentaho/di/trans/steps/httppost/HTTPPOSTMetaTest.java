@@ -47,7 +47,8 @@ public class HTTPPOSTMetaTest {
         Arrays.asList( "postAFile", "encoding", "url", "urlInField", "urlField", "requestEntity", "httpLogin",
             "httpPassword", "proxyHost", "proxyPort", "socketTimeout", "connectionTimeout",
             "closeIdleConnectionsTime", "argumentField", "argumentParameter", "argumentHeader", "queryField",
-            "queryParameter", "fieldName", "resultCodeFieldName", "responseTimeFieldName", "responseHeaderFieldName" );
+            "queryParameter", "fieldName", "resultCodeFieldName", "responseTimeFieldName", "responseHeaderFieldName",
+            "asynchronous", "concurrentRequests", "preserveOrder" );
 
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
         new HashMap<String, FieldLoadSaveValidator<?>>();
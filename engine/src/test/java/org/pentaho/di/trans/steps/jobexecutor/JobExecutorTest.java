@@ -30,6 +30,7 @@ import org.pentaho.di.repository.Repository;
 import org.pentaho.di.trans.steps.StepMockUtil;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doNothing;
@@ -168,6 +169,33 @@ public class JobExecutorTest {
     assertEquals( 0, data.groupBuffer.size() );
   }
 
+  /**
+   * Given a job executor that creates jobs ahead.
+   * <br/>
+   * When job executor is processing rows of an input data,
+   * then every group of rows should run in a job taken from the pool.
+   */
+  @Test
+  public void shouldRunJobsCreatedAhead() throws KettleException {
+    prepareMultipleRowsForExecutor();
+
+    data.groupSize = 1;
+    data.preparedInstances = 2;
+    executor.init( meta, data );
+
+    when( executor.getExecutorJob() ).thenReturn( mock( Job.class ) );
+    when( executor.getExecutorJob().getJobMeta() ).thenReturn( mock( JobMeta.class ) );
+
+    while ( executor.processRow( meta, data ) ) {
+      // process all rows
+    }
+
+    assertEquals( 0, data.groupBuffer.size() );
+    assertEquals( 7, data.preparedJobPool.getTaken() );
+    // the jobs that were created ahead but not used are released at the end
+    assertTrue( data.preparedJobPool.isClosed() );
+  }
+
   // values to be grouped
   private void prepareMultipleRowsForExecutor() throws KettleException {
     doReturn( new Object[] { "value1" } )
@@ -0,0 +1,221 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.memgroupby;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.pentaho.di.core.bowl.DefaultBowl;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LoggingObjectInterface;
+import org.pentaho.di.core.row.RowMeta;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
+import org.pentaho.di.core.row.value.ValueMetaNumber;
+import org.pentaho.di.core.variables.Variables;
+import org.pentaho.di.core.vfs.KettleVFS;
+import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.steps.mock.StepMockHelper;
+
+/**
+ * Checks that aggregating two halves of the rows and merging the partial aggregates gives the same results as
+ * aggregating all rows, as the step copies and the spilled groups rely on that.
+ */
+public class MemoryGroupByMergeTest {
+  @ClassRule public static RestorePDIEngineEnvironment env = new RestorePDIEngineEnvironment();
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static final int[] TYPES = {
+    MemoryGroupByMeta.TYPE_GROUP_SUM, MemoryGroupByMeta.TYPE_GROUP_AVERAGE, MemoryGroupByMeta.TYPE_GROUP_MEDIAN,
+    MemoryGroupByMeta.TYPE_GROUP_MIN, MemoryGroupByMeta.TYPE_GROUP_MAX, MemoryGroupByMeta.TYPE_GROUP_COUNT_ALL,
+    MemoryGroupByMeta.TYPE_GROUP_COUNT_ANY, MemoryGroupByMeta.TYPE_GROUP_COUNT_DISTINCT,
+    MemoryGroupByMeta.TYPE_GROUP_STANDARD_DEVIATION, MemoryGroupByMeta.TYPE_GROUP_CONCAT_COMMA, };
+
+  static StepMockHelper<MemoryGroupByMeta, MemoryGroupByData> mockHelper;
+
+  private MemoryGroupBy step;
+  private MemoryGroupByData data;
+
+  @BeforeClass
+  public static void setUpBeforeClass() throws Exception {
+    mockHelper = new StepMockHelper<>( "Memory Group By", MemoryGroupByMeta.class, MemoryGroupByData.class );
+    when( mockHelper.logChannelInterfaceFactory.create( any(), any( LoggingObjectInterface.class ) ) ).thenReturn(
+      mockHelper.logChannelInterface );
+  }
+
+  @AfterClass
+  public static void cleanUp() {
+    mockHelper.cleanUp();
+  }
+
+  @Before
+  public void setUp() throws Exception {
+    MemoryGroupByMeta meta = new MemoryGroupByMeta();
+    meta.allocate( 1, TYPES.length );
+    meta.getGroupField()[0] = "key";
+    for ( int i = 0; i < TYPES.length; i++ ) {
+      meta.getAggregateField()[i] = "agg" + i;
+      meta.getSubjectField()[i] = "value";
+      meta.getAggregateType()[i] = TYPES[i];
+    }
+    when( mockHelper.stepMeta.getStepMetaInterface() ).thenReturn( meta );
+
+    data = new MemoryGroupByData();
+    data.inputRowMeta = new RowMeta();
+    data.inputRowMeta.addValueMeta( new ValueMetaInteger( "key" ) );
+    data.inputRowMeta.addValueMeta( new ValueMetaNumber( "value" ) );
+    data.groupMeta = new RowMeta();
+    data.groupMeta.addValueMeta( data.inputRowMeta.getValueMeta( 0 ) );
+    data.groupnrs = new int[] { 0 };
+    data.subjectnrs = new int[ TYPES.length ];
+    Arrays.fill( data.subjectnrs, 1 );
+
+    step = new MemoryGroupBy( mockHelper.stepMeta, data, 0, mockHelper.transMeta, mockHelper.trans );
+    step.newAggregate( null, null );
+  }
+
+  @Test
+  public void testMergeGivesSameResultAsOnePass() throws KettleException {
+    List<Object[]> rows = new ArrayList<>();
+    double[] values = { 3.0, -1.5, 8.25, 3.0, 0.0, 12.0, 7.5, -4.0, 3.0 };
+    for ( double value : values ) {
+      rows.add( new Object[] { 1L, value } );
+    }
+
+    Object[] expected = step.getAggregateResult( aggregate( rows ) );
+
+    Aggregate first = aggregate( rows.subList( 0, 4 ) );
+    step.mergeAggregate( first, aggregate( rows.subList( 4, rows.size() ) ) );
+    Object[] merged = step.getAggregateResult( first );
+
+    for ( int i = 0; i < TYPES.length; i++ ) {
+      if ( expected[i] instanceof Double ) {
+        assertEquals( "agg" + i, (Double) expected[i], (Double) merged[i], 1e-9 );
+      } else {
+        assertEquals( "agg" + i, expected[i], merged[i] );
+      }
+    }
+  }
+
+  @Test
+  public void testMergeWithEmptyHalf() throws KettleException {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add( new Object[] { 1L, 2.0 } );
+    rows.add( new Object[] { 1L, 5.0 } );
+
+    Object[] expected = step.getAggregateResult( aggregate( rows ) );
+
+    Aggregate first = aggregate( rows.subList( 0, 1 ) );
+    step.mergeAggregate( first, aggregate( rows.subList( 1, 2 ) ) );
+
+    assertEquals( Arrays.asList( expected ), Arrays.asList( step.getAggregateResult( first ) ) );
+  }
+
+  @Test
+  public void testSpilledGroupsReadBack() throws KettleException {
+    MemoryGroupBySpill spill = new MemoryGroupBySpill( KettleVFS.getInstance( DefaultBowl.getInstance() ),
+      tempFolder.getRoot().getAbsolutePath(), "grp", new Variables() );
+    try {
+      HashMap<MemoryGroupByData.HashEntry, Aggregate> groups = new HashMap<>();
+      for ( long key = 0; key < 100; key++ ) {
+        Aggregate aggregate = aggregate( Arrays.asList( new Object[] { key, (double) key }, new Object[] { key,
+          key * 0.5 } ) );
+        groups.put( data.getHashEntry( new Object[] { key } ), aggregate );
+        spill.write( data.getHashEntry( new Object[] { key } ), aggregate );
+      }
+      assertEquals( 100L, spill.getNrGroups() );
+
+      HashMap<MemoryGroupByData.HashEntry, Aggregate> readBack = new HashMap<>();
+      for ( int partition = 0; partition < MemoryGroupBySpill.NR_PARTITIONS; partition++ ) {
+        int expectedPartition = partition;
+        spill.read( partition, ( groupData, aggregate ) -> {
+          MemoryGroupByData.HashEntry entry = data.getHashEntry( groupData );
+          assertEquals( expectedPartition, MemoryGroupBySpill.getPartition( entry ) );
+          readBack.put( entry, aggregate );
+        } );
+      }
+
+      assertEquals( groups.size(), readBack.size() );
+      for ( MemoryGroupByData.HashEntry entry : groups.keySet() ) {
+        assertEquals( Arrays.asList( step.getAggregateResult( groups.get( entry ) ) ),
+          Arrays.asList( step.getAggregateResult( readBack.get( entry ) ) ) );
+      }
+    } finally {
+      spill.delete();
+    }
+  }
+
+  @Test
+  public void testPartitionSplitOnNextLevel() throws KettleException {
+    MemoryGroupBySpill spill = new MemoryGroupBySpill( KettleVFS.getInstance( DefaultBowl.getInstance() ),
+      tempFolder.getRoot().getAbsolutePath(), "grp", new Variables(), 1 );
+    try {
+      // The groups of one partition of the first level are spread over the partitions of the next level
+      //
+      Set<Integer> partitions = new HashSet<>();
+      long written = 0;
+      for ( long key = 0; key < 10000; key++ ) {
+        MemoryGroupByData.HashEntry entry = data.getHashEntry( new Object[] { key } );
+        if ( MemoryGroupBySpill.getPartition( entry ) == 0 ) {
+          spill.write( entry, aggregate( Collections.singletonList( new Object[] { key, 1.0 } ) ) );
+          partitions.add( MemoryGroupBySpill.getPartition( entry, 1 ) );
+          written++;
+        }
+      }
+      assertEquals( MemoryGroupBySpill.NR_PARTITIONS, partitions.size() );
+      assertEquals( written, spill.getNrGroups() );
+
+      long readBack = 0;
+      for ( int partition = 0; partition < MemoryGroupBySpill.NR_PARTITIONS; partition++ ) {
+        long[] nrRead = new long[ 1 ];
+        int expectedPartition = partition;
+        spill.read( partition, ( groupData, aggregate ) -> {
+          assertEquals( expectedPartition, MemoryGroupBySpill.getPartition( data.getHashEntry( groupData ), 1 ) );
+          nrRead[ 0 ]++;
+        } );
+        assertEquals( spill.getNrGroups( partition ), nrRead[ 0 ] );
+        readBack += nrRead[ 0 ];
+        spill.delete( partition );
+        assertEquals( 0L, spill.getNrGroups( partition ) );
+      }
+      assertEquals( written, readBack );
+    } finally {
+      spill.delete();
+    }
+  }
+
+  private Aggregate aggregate( List<Object[]> rows ) throws KettleException {
+    data.map = new HashMap<>();
+    for ( Object[] row : rows ) {
+      step.addToAggregate( row );
+    }
+    return data.map.values().iterator().next();
+  }
+}
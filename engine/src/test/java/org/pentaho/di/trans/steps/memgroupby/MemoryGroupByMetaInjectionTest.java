@@ -63,5 +63,29 @@ public class MemoryGroupByMetaInjectionTest extends BaseMetadataInjectionTest<Me
           return meta.isAlwaysGivingBackOneRow();
         }
       } );
+    check( "MERGING_COPIES", new BooleanGetter() {
+      @Override
+      public boolean get() {
+        return meta.isMergingCopies();
+      }
+    } );
+    check( "SPILL_SIZE", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getSpillSize();
+      }
+    } );
+    check( "DIRECTORY", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getDirectory();
+      }
+    } );
+    check( "PREFIX", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getPrefix();
+      }
+    } );
   }
 }
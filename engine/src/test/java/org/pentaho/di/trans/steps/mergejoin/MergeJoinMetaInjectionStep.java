@@ -43,5 +43,25 @@ public class MergeJoinMetaInjectionStep extends BaseMetadataInjectionTest<MergeJ
         return meta.getKeyFields2()[0];
       }
     } );
+    check( "HASH_JOIN", new BooleanGetter() {
+      public boolean get() {
+        return meta.isHashJoin();
+      }
+    } );
+    check( "SPILL_SIZE", new StringGetter() {
+      public String get() {
+        return meta.getSpillSize();
+      }
+    } );
+    check( "DIRECTORY", new StringGetter() {
+      public String get() {
+        return meta.getDirectory();
+      }
+    } );
+    check( "PREFIX", new StringGetter() {
+      public String get() {
+        return meta.getPrefix();
+      }
+    } );
   }
 }
@@ -1,6 +1,10 @@
 package org.pentaho.di.trans.steps.mergejoin;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 
 import org.json.simple.JSONObject;
 import org.junit.After;
@@ -9,14 +13,19 @@ import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.pentaho.di.core.BlockingRowSet;
 import org.pentaho.di.core.KettleClientEnvironment;
+import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.bowl.DefaultBowl;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.LoggingObjectInterface;
 import org.pentaho.di.core.row.RowMeta;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.value.ValueMetaInteger;
 import org.pentaho.di.core.row.value.ValueMetaString;
 import org.pentaho.di.junit.rules.RestorePDIEngineEnvironment;
+import org.pentaho.di.trans.step.RowAdapter;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.steps.mock.StepMockHelper;
@@ -91,4 +100,95 @@ public class MergeJoinTest {
     assertEquals( StepInterface.FAILURE_RESPONSE, response.get( StepInterface.ACTION_STATUS ) );
   }
 
+  @Test
+  public void testHashJoin() throws Exception {
+    List<String> inner = Arrays.asList( "[2, b, 2, x]", "[2, b2, 2, x]", "[3, c, 3, y]", "[3, c, 3, y2]",
+      "[null, n, null, m]" );
+    List<String> left = new ArrayList<>( inner );
+    left.add( "[1, a, null, null]" );
+    List<String> right = new ArrayList<>( inner );
+    right.add( "[null, null, 4, z]" );
+    List<String> full = new ArrayList<>( left );
+    full.add( "[null, null, 4, z]" );
+
+    assertEquals( sorted( inner ), hashJoin( "INNER", null ) );
+    assertEquals( sorted( left ), hashJoin( "LEFT OUTER", null ) );
+    assertEquals( sorted( right ), hashJoin( "RIGHT OUTER", null ) );
+    assertEquals( sorted( full ), hashJoin( "FULL OUTER", null ) );
+  }
+
+  @Test
+  public void testHashJoinSpillsToDisk() throws Exception {
+    List<String> full = new ArrayList<>( Arrays.asList( "[2, b, 2, x]", "[2, b2, 2, x]", "[3, c, 3, y]",
+      "[3, c, 3, y2]", "[null, n, null, m]", "[1, a, null, null]", "[null, null, 4, z]" ) );
+
+    assertEquals( sorted( full ), hashJoin( "FULL OUTER", "3" ) );
+  }
+
+  private List<String> hashJoin( String joinType, String spillSize ) throws Exception {
+    RowMetaInterface rowMeta1 = new RowMeta();
+    rowMeta1.addValueMeta( new ValueMetaInteger( "id" ) );
+    rowMeta1.addValueMeta( new ValueMetaString( "name" ) );
+    RowMetaInterface rowMeta2 = new RowMeta();
+    rowMeta2.addValueMeta( new ValueMetaInteger( "ref" ) );
+    rowMeta2.addValueMeta( new ValueMetaString( "city" ) );
+
+    MergeJoinMeta meta = new MergeJoinMeta();
+    meta.setDefault();
+    meta.setJoinType( joinType );
+    meta.setHashJoin( true );
+    meta.setSpillSize( spillSize );
+    meta.setKeyFields1( new String[] { "id" } );
+    meta.setKeyFields2( new String[] { "ref" } );
+    StepMeta stepMeta1 = new StepMeta();
+    stepMeta1.setName( "left" );
+    StepMeta stepMeta2 = new StepMeta();
+    stepMeta2.setName( "right" );
+    meta.getStepIOMeta().getInfoStreams().get( 0 ).setStepMeta( stepMeta1 );
+    meta.getStepIOMeta().getInfoStreams().get( 1 ).setStepMeta( stepMeta2 );
+    when( mockHelper.transMeta.getStepFields( "left" ) ).thenReturn( rowMeta1 );
+    when( mockHelper.transMeta.getStepFields( "right" ) ).thenReturn( rowMeta2 );
+    when( mockHelper.transMeta.getBowl() ).thenReturn( DefaultBowl.getInstance() );
+
+    MergeJoinData data = new MergeJoinData();
+    MergeJoin step =
+      new MergeJoin( mockHelper.stepMeta, data, 0, mockHelper.transMeta, mockHelper.trans );
+    step.addRowSetToInputRowSets( rowSet( "left", rowMeta1,
+      new Object[] { 1L, "a" }, new Object[] { 2L, "b" }, new Object[] { 2L, "b2" }, new Object[] { 3L, "c" },
+      new Object[] { null, "n" } ) );
+    step.addRowSetToInputRowSets( rowSet( "right", rowMeta2,
+      new Object[] { 2L, "x" }, new Object[] { 3L, "y" }, new Object[] { 3L, "y2" }, new Object[] { 4L, "z" },
+      new Object[] { null, "m" } ) );
+
+    List<String> output = new ArrayList<>();
+    step.addRowListener( new RowAdapter() {
+      @Override
+      public void rowWrittenEvent( RowMetaInterface rowMeta, Object[] row ) {
+        output.add( Arrays.toString( Arrays.copyOf( row, rowMeta.size() ) ) );
+      }
+    } );
+
+    step.init( meta, data );
+    while ( step.processRow( meta, data ) ) {
+      // keep on joining
+    }
+    step.dispose( meta, data );
+    return sorted( output );
+  }
+
+  private static RowSet rowSet( String stepname, RowMetaInterface rowMeta, Object[]... rows ) {
+    RowSet rowSet = new BlockingRowSet( rows.length + 1 );
+    rowSet.setThreadNameFromToCopy( stepname, 0, "MergeJoinTest", 0 );
+    for ( Object[] row : rows ) {
+      rowSet.putRow( rowMeta, row );
+    }
+    rowSet.setDone();
+    return rowSet;
+  }
+
+  private static List<String> sorted( List<String> rows ) {
+    List<String> copy = new ArrayList<>( rows );
+    Collections.sort( copy );
+    return copy;
+  }
 }
@@ -43,5 +43,15 @@ public class MergeRowsMetaInjectionTest extends BaseMetadataInjectionTest<MergeR
         return meta.getValueFields()[0];
       }
     } );
+    check( "REFERENCE_UNSORTED", new BooleanGetter() {
+      public boolean get() {
+        return meta.isReferenceUnsorted();
+      }
+    } );
+    check( "PRESERVE_MEMORY", new BooleanGetter() {
+      public boolean get() {
+        return meta.isMemoryPreservationActive();
+      }
+    } );
   }
 }
@@ -43,7 +43,7 @@ public class MergeRowsMetaTest implements InitializerInterface<StepMetaInterface
     KettleEnvironment.init();
     PluginRegistry.init( false );
     List<String> attributes =
-        Arrays.asList( "flagField", "keyFields", "valueFields" );
+        Arrays.asList( "flagField", "keyFields", "valueFields", "referenceUnsorted", "memoryPreservationActive" );
 
     FieldLoadSaveValidator<String[]> stringArrayLoadSaveValidator =
         new ArrayLoadSaveValidator<String>( new StringLoadSaveValidator(), 5 );
@@ -0,0 +1,107 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.sort;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RowLoserTreeTest {
+
+  private static final Comparator<Object[]> COMPARATOR = ( a, b ) -> Long.compare( (Long) a[0], (Long) b[0] );
+
+  /**
+   * Merge the runs, rows are { key, run number }.
+   */
+  private List<Object[]> merge( List<List<Object[]>> runs ) {
+    List<Iterator<Object[]>> iterators = new ArrayList<>();
+    Object[][] heads = new Object[ runs.size() ][];
+    for ( int i = 0; i < runs.size(); i++ ) {
+      Iterator<Object[]> iterator = runs.get( i ).iterator();
+      iterators.add( iterator );
+      heads[ i ] = iterator.hasNext() ? iterator.next() : null;
+    }
+
+    RowLoserTree tree = new RowLoserTree( heads, COMPARATOR );
+    assertEquals( runs.size(), tree.size() );
+
+    List<Object[]> result = new ArrayList<>();
+    for ( int winner = tree.getWinner(); winner >= 0; winner = tree.getWinner() ) {
+      result.add( tree.getWinnerRow() );
+      Iterator<Object[]> iterator = iterators.get( winner );
+      tree.replaceWinner( iterator.hasNext() ? iterator.next() : null );
+    }
+    assertNull( tree.getWinnerRow() );
+    return result;
+  }
+
+  private List<List<Object[]>> createRuns( int nrRuns, int maxRunSize, int maxKey, Random random ) {
+    List<List<Object[]>> runs = new ArrayList<>();
+    for ( int r = 0; r < nrRuns; r++ ) {
+      List<Object[]> run = new ArrayList<>();
+      int size = random.nextInt( maxRunSize + 1 );
+      for ( int i = 0; i < size; i++ ) {
+        run.add( new Object[] { (long) random.nextInt( maxKey ), (long) r } );
+      }
+      run.sort( COMPARATOR );
+      runs.add( run );
+    }
+    return runs;
+  }
+
+  @Test
+  public void testMergeIsSortedAndStable() {
+    Random random = new Random( 42 );
+    for ( int nrRuns : new int[] { 1, 2, 3, 7, 8, 9, 64, 100 } ) {
+      List<List<Object[]>> runs = createRuns( nrRuns, 50, 20, random );
+
+      List<Object[]> expected = new ArrayList<>();
+      for ( List<Object[]> run : runs ) {
+        expected.addAll( run );
+      }
+      // A stable sort keeps the run order for equal keys
+      Collections.sort( expected, COMPARATOR );
+
+      List<Object[]> merged = merge( runs );
+      assertEquals( expected.size(), merged.size() );
+      for ( int i = 0; i < expected.size(); i++ ) {
+        assertEquals( expected.get( i )[0], merged.get( i )[0] );
+        assertEquals( expected.get( i )[1], merged.get( i )[1] );
+      }
+    }
+  }
+
+  @Test
+  public void testEmptyRuns() {
+    List<List<Object[]>> runs = new ArrayList<>();
+    for ( int i = 0; i < 5; i++ ) {
+      runs.add( new ArrayList<>() );
+    }
+    assertEquals( 0, merge( runs ).size() );
+    assertEquals( -1, new RowLoserTree( new Object[3][], COMPARATOR ).getWinner() );
+  }
+
+  @Test( expected = IllegalArgumentException.class )
+  public void testNoRuns() {
+    new RowLoserTree( new Object[0][], COMPARATOR );
+  }
+}
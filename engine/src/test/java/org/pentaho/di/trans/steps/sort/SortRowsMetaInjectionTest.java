@@ -64,6 +64,12 @@ public class SortRowsMetaInjectionTest extends BaseMetadataInjectionTest<SortRow
         return meta.getCompressFiles();
       }
     } );
+    check( "SPILL_CODEC", new StringGetter() {
+      @Override
+      public String get() {
+        return meta.getSpillCodec();
+      }
+    } );
     check( "NAME", new StringGetter() {
       @Override
       public String get() {
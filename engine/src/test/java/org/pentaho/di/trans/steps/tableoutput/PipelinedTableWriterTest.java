@@ -0,0 +1,173 @@
+/*! ******************************************************************************
+ *
+ * Pentaho
+ *
+ * Copyright (C) 2024 by Hitachi Vantara, LLC : http://www.pentaho.com
+ *
+ * Use of this software is governed by the Business Source License included
+ * in the LICENSE.TXT file.
+ *
+ * Change Date: 2029-07-20
+ ******************************************************************************/
+
+
+package org.pentaho.di.trans.steps.tableoutput;
+
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+import org.pentaho.di.core.database.Database;
+import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.LogChannelInterface;
+import org.pentaho.di.core.row.RowMetaInterface;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PipelinedTableWriterTest {
+
+  private final RowMetaInterface rowMeta = mock( RowMetaInterface.class );
+  private final LogChannelInterface log = mock( LogChannelInterface.class );
+
+  @Test
+  public void testBatchesAreHandedBackInSubmitOrder() throws Exception {
+    CountDownLatch firstBatchMayFinish = new CountDownLatch( 1 );
+    PreparedStatement slowStatement = mock( PreparedStatement.class );
+    when( slowStatement.executeBatch() ).thenAnswer( invocation -> {
+      firstBatchMayFinish.await();
+      return new int[] { 1 };
+    } );
+    Database slow = mockDatabase( slowStatement );
+    PreparedStatement fastStatement = mock( PreparedStatement.class );
+    Database fast = mockDatabase( fastStatement );
+
+    PipelinedTableWriter writer = createWriter( Arrays.asList( slow, fast ), true, 4, 0, false );
+    List<PipelinedTableWriter.Batch> written = new ArrayList<>();
+    written.addAll( writer.submit( createBatch( "first" ) ) );
+    // wait until the slow connection is busy so the second batch goes to the fast one
+    verify( slowStatement, timeout( 5000 ) ).executeBatch();
+    written.addAll( writer.submit( createBatch( "second" ) ) );
+    verify( fast, timeout( 5000 ) ).commit();
+    assertTrue( written.isEmpty() );
+
+    firstBatchMayFinish.countDown();
+    written.addAll( writer.finish() );
+    writer.close();
+
+    assertEquals( 2, written.size() );
+    assertEquals( "first", written.get( 0 ).getOutputRows().get( 0 )[ 0 ] );
+    assertEquals( "second", written.get( 1 ).getOutputRows().get( 0 )[ 0 ] );
+    assertFalse( written.get( 0 ).isFailed() );
+    verify( slow ).disconnect();
+    verify( fast ).disconnect();
+  }
+
+  @Test
+  public void testFailedBatchIsRetried() throws Exception {
+    PreparedStatement statement = mock( PreparedStatement.class );
+    when( statement.executeBatch() ).thenThrow( new BatchUpdateException( "deadlock", new int[ 0 ] ) )
+      .thenReturn( new int[] { 1 } );
+    Database db = mockDatabase( statement );
+
+    PipelinedTableWriter writer = createWriter( Arrays.asList( db ), true, 1, 1, false );
+    writer.submit( createBatch( "row" ) );
+    List<PipelinedTableWriter.Batch> written = writer.finish();
+    writer.close();
+
+    assertEquals( 1, written.size() );
+    assertFalse( written.get( 0 ).isFailed() );
+    verify( statement, times( 2 ) ).executeBatch();
+    verify( db ).rollback();
+    verify( db ).commit();
+  }
+
+  @Test
+  public void testFailedBatchReportsTheUpdateCounts() throws Exception {
+    PreparedStatement statement = mock( PreparedStatement.class );
+    when( statement.executeBatch() ).thenThrow( new BatchUpdateException( "duplicate key", new int[] { 1, 0 } ) );
+    Database db = mockDatabase( statement );
+
+    PipelinedTableWriter writer = createWriter( Arrays.asList( db ), false, 2, 0, true );
+    PipelinedTableWriter.Batch batch = createBatch( "good" );
+    batch.addRow( new Object[] { "bad" }, new Object[] { "bad" } );
+    writer.submit( batch );
+    List<PipelinedTableWriter.Batch> written = writer.finish();
+    writer.close();
+
+    assertEquals( 1, written.size() );
+    assertTrue( written.get( 0 ).isFailed() );
+    assertArrayEquals( new int[] { 1, 0 }, written.get( 0 ).getUpdateCounts() );
+    // the accepted row is kept for the error handling of the step
+    verify( db ).commit( true );
+    verify( db, never() ).rollback();
+  }
+
+  @Test
+  public void testSubmitBlocksWhenTheMaximumIsInFlight() throws Exception {
+    CountDownLatch mayFinish = new CountDownLatch( 1 );
+    PreparedStatement statement = mock( PreparedStatement.class );
+    when( statement.executeBatch() ).thenAnswer( invocation -> {
+      mayFinish.await();
+      return new int[] { 1 };
+    } );
+    Database db = mockDatabase( statement );
+    PipelinedTableWriter writer = createWriter( Arrays.asList( db ), true, 1, 0, false );
+    writer.submit( createBatch( "first" ) );
+
+    Thread submitter = new Thread( () -> {
+      try {
+        writer.submit( createBatch( "second" ) );
+      } catch ( KettleException e ) {
+        throw new IllegalStateException( e );
+      }
+    } );
+    submitter.start();
+    submitter.join( 200 );
+    assertTrue( submitter.isAlive() );
+
+    mayFinish.countDown();
+    submitter.join( 5000 );
+    assertFalse( submitter.isAlive() );
+    writer.finish();
+    writer.close();
+  }
+
+  private PipelinedTableWriter createWriter( List<Database> connections, boolean preserveOrder, int maximumInFlight,
+                                             int retries, boolean commitPartialBatches ) {
+    when( rowMeta.clone() ).thenReturn( rowMeta );
+    return new PipelinedTableWriter( connections, rowMeta, null, preserveOrder, maximumInFlight, retries,
+      commitPartialBatches, log, "test" );
+  }
+
+  private static Database mockDatabase( PreparedStatement statement ) throws Exception {
+    Database db = mock( Database.class );
+    doReturn( "INSERT" ).when( db ).getInsertStatement( any(), anyString(), any( RowMetaInterface.class ) );
+    doReturn( statement ).when( db ).prepareSQL( anyString() );
+    doAnswer( invocation -> null ).when( db ).setValues( any( RowMetaInterface.class ), any( Object[].class ),
+      any( PreparedStatement.class ) );
+    return db;
+  }
+
+  private static PipelinedTableWriter.Batch createBatch( String value ) {
+    PipelinedTableWriter.Batch batch = new PipelinedTableWriter.Batch( "table" );
+    batch.addRow( new Object[] { value }, new Object[] { value } );
+    return batch;
+  }
+}
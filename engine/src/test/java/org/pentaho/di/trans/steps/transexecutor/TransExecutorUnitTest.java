@@ -14,6 +14,7 @@
 package org.pentaho.di.trans.steps.transexecutor;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 
 import org.json.simple.JSONArray;
@@ -31,6 +32,7 @@ import org.pentaho.di.core.Result;
 import org.pentaho.di.core.ResultFile;
 import org.pentaho.di.core.RowMetaAndData;
 import org.pentaho.di.core.RowSet;
+import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.exception.KettleStepException;
 import org.pentaho.di.core.logging.LogChannel;
@@ -50,6 +52,9 @@ import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
 import org.pentaho.di.trans.step.StepMetaInterface;
 import org.pentaho.di.trans.steps.StepMockUtil;
+import org.pentaho.di.trans.steps.sql.ExecSQLMeta;
+import org.pentaho.di.trans.steps.tableoutput.TableOutputMeta;
+import org.pentaho.di.trans.steps.textfileoutput.TextFileOutputMeta;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -341,6 +346,94 @@ public class TransExecutorUnitTest {
     assertEquals( 0, data.groupBuffer.size() );
   }
 
+  @Test
+  public void usesPreparedTransformationsWhenEnabled() throws Exception {
+    prepareMultipleRowsForExecutor();
+
+    meta.setGroupSize( "1" );
+    meta.setPreparedInstances( "2" );
+    doReturn( internalTrans ).when( executor ).prepareTrans( any() );
+
+    Trans parent = new Trans();
+    Mockito.when( executor.getTrans() ).thenReturn( parent );
+
+    executor.init( meta, data );
+    while ( executor.processRow( meta, data ) ) {
+      // process all rows
+    }
+
+    // every group of rows ran in a prepared transformation
+    verify( executor, never() ).createInternalTrans();
+    verify( internalTrans, never() ).prepareExecution( nullable( String[].class ) );
+    verify( internalTrans, times( 7 ) ).startThreads();
+    assertTrue( data.preparedTransPool.isClosed() );
+    assertEquals( 7, data.preparedTransPool.getTaken() );
+  }
+
+  @Test
+  public void preparedTransformationsAreDisabledForParametersFromFields() throws Exception {
+    executor.init( meta, data );
+    assertNull( executor.getPreparedTransRestriction() );
+
+    meta.getParameters().setVariable( new String[] { "param" } );
+    meta.getParameters().setField( new String[] { "field" } );
+    meta.getParameters().setInput( new String[] { "" } );
+    assertNotNull( executor.getPreparedTransRestriction() );
+  }
+
+  @Test
+  public void preparedTransformationsAreDisabledForSqlExecutedAtInit() throws Exception {
+    executor.init( meta, data );
+
+    ExecSQLMeta execSQLMeta = new ExecSQLMeta();
+    execSQLMeta.setExecutedEachInputRow( false );
+    StepMeta stepMeta = new StepMeta( "Execute SQL", execSQLMeta );
+    when( data.getExecutorTransMeta().getSteps() ).thenReturn( Collections.singletonList( stepMeta ) );
+    assertNotNull( executor.getPreparedTransRestriction() );
+
+    execSQLMeta.setExecutedEachInputRow( true );
+    assertNull( executor.getPreparedTransRestriction() );
+  }
+
+  @Test
+  public void preparedTransformationsAreDisabledForFilesOpenedAtInit() throws Exception {
+    executor.init( meta, data );
+
+    TextFileOutputMeta textFileOutputMeta = new TextFileOutputMeta();
+    textFileOutputMeta.setDoNotOpenNewFileInit( false );
+    StepMeta stepMeta = new StepMeta( "Text file output", textFileOutputMeta );
+    when( data.getExecutorTransMeta().getSteps() ).thenReturn( Collections.singletonList( stepMeta ) );
+    assertNotNull( executor.getPreparedTransRestriction() );
+
+    textFileOutputMeta.setDoNotOpenNewFileInit( true );
+    assertNull( executor.getPreparedTransRestriction() );
+
+    // Steps without the option don't open a file
+    assertFalse( TransExecutor.isOpeningFileAtInit( new ExecSQLMeta() ) );
+  }
+
+  @Test
+  public void preparedTransformationsFitInTheConnectionPool() throws Exception {
+    executor.init( meta, data );
+
+    DatabaseMeta databaseMeta = mock( DatabaseMeta.class );
+    when( databaseMeta.getName() ).thenReturn( "db" );
+    when( databaseMeta.isUsingConnectionPool() ).thenReturn( true );
+    when( databaseMeta.getMaximumPoolSize() ).thenReturn( 10 );
+    TableOutputMeta tableOutputMeta = new TableOutputMeta();
+    tableOutputMeta.setDatabaseMeta( databaseMeta );
+    StepMeta stepMeta = new StepMeta( "Table output", tableOutputMeta );
+    stepMeta.setCopies( 2 );
+    when( data.getExecutorTransMeta().getSteps() ).thenReturn( Collections.singletonList( stepMeta ) );
+
+    // 2 connections for the running transformation and for each of the 4 prepared ones
+    assertEquals( 4, executor.getPreparedInstanceLimit( 8 ) );
+    assertEquals( 3, executor.getPreparedInstanceLimit( 3 ) );
+
+    when( databaseMeta.isUsingConnectionPool() ).thenReturn( false );
+    assertEquals( 8, executor.getPreparedInstanceLimit( 8 ) );
+  }
+
   @Test
   public void testCollectTransResultsDisabledHop() throws KettleException {
     StepMeta outputRowsSourceStepMeta = mock( StepMeta.class );
@@ -40,6 +40,8 @@ import org.pentaho.di.shared.SharedObjectInterface;
 import org.pentaho.di.trans.TransDependency;
 import org.pentaho.di.trans.TransHopMeta;
 import org.pentaho.di.trans.TransMeta;
+import org.pentaho.di.trans.TransMeta.RowWaitMode;
+import org.pentaho.di.trans.TransMeta.StepThreadMode;
 import org.pentaho.di.trans.TransMeta.TransformationType;
 import org.pentaho.di.trans.step.RowDistributionInterface;
 import org.pentaho.di.trans.step.RowDistributionPluginType;
@@ -83,6 +85,10 @@ public class TransDelegate extends AbstractDelegate implements ITransformer, ISh
 
   private static final String PROP_TRANSFORMATION_TYPE = "TRANSFORMATION_TYPE";
 
+  private static final String PROP_ROW_WAIT_MODE = "ROW_WAIT_MODE";
+
+  private static final String PROP_STEP_THREAD_MODE = "STEP_THREAD_MODE";
+
   public static final String PROP_TRANS_DATA_SERVICE_NAME = "DATA_SERVICE_NAME";
 
   private static final String PROP_STEP_PERFORMANCE_LOG_TABLE = "STEP_PERFORMANCE_LOG_TABLE";
@@ -558,6 +564,9 @@ public class TransDelegate extends AbstractDelegate implements ITransformer, ISh
     transMeta.setUsingThreadPriorityManagment( usingThreadPriorityManagement );
     String transTypeCode = getString( rootNode, PROP_TRANSFORMATION_TYPE );
     transMeta.setTransformationType( TransformationType.getTransformationTypeByCode( transTypeCode ) );
+    transMeta.setRowWaitMode( RowWaitMode.getRowWaitModeByCode( getString( rootNode, PROP_ROW_WAIT_MODE ) ) );
+    transMeta.setStepThreadMode(
+      StepThreadMode.getStepThreadModeByCode( getString( rootNode, PROP_STEP_THREAD_MODE ) ) );
 
     // Performance monitoring for steps...
     //
@@ -813,6 +822,8 @@ public class TransDelegate extends AbstractDelegate implements ITransformer, ISh
     rootNode.setProperty( PROP_LOG_INTERVAL, transMeta.getTransLogTable().getLogInterval() );
 
     rootNode.setProperty( PROP_TRANSFORMATION_TYPE, transMeta.getTransformationType().getCode() );
+    rootNode.setProperty( PROP_ROW_WAIT_MODE, transMeta.getRowWaitMode().getCode() );
+    rootNode.setProperty( PROP_STEP_THREAD_MODE, transMeta.getStepThreadMode().getCode() );
 
     // Save the logging tables too..
     //
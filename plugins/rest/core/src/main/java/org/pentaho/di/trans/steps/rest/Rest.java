@@ -17,6 +17,13 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriBuilder;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.NoopHostnameVerifier;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
 import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.ClientProperties;
@@ -29,12 +36,14 @@ import org.json.simple.JSONObject;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.core.encryption.Encr;
 import org.pentaho.di.core.exception.KettleException;
+import org.pentaho.di.core.logging.Metrics;
 import org.pentaho.di.core.row.RowDataUtil;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.Trans;
 import org.pentaho.di.trans.TransMeta;
-import org.pentaho.di.trans.step.BaseStep;
+import org.pentaho.di.trans.step.AsyncCallWindow;
+import org.pentaho.di.trans.step.BaseCallStep;
 import org.pentaho.di.trans.step.StepDataInterface;
 import org.pentaho.di.trans.step.StepInterface;
 import org.pentaho.di.trans.step.StepMeta;
@@ -61,13 +70,14 @@ import java.security.cert.CertificateException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * @author Samatar
  * @since 16-jan-2011
  */
 
-public class Rest extends BaseStep implements StepInterface {
+public class Rest extends BaseCallStep implements StepInterface {
   private static Class<?> PKG = RestMeta.class; // for i18n purposes, needed by Translator2!! $NON-NLS-1$
 
   private RestMeta meta;
@@ -83,11 +93,12 @@ public class Rest extends BaseStep implements StepInterface {
     try {
       client = getClient( rowData );
       WebTarget target = buildRequest( client, rowData );
-      return invokeRequest( target, rowData );
+      return prepareRequest( target, rowData ).call();
     } catch ( Exception e ) {
       throw new KettleException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", data.realUrl ), e );
     } finally {
-      if ( client != null ) {
+      // the client of the step is closed when the step is disposed
+      if ( client != null && client != data.client ) {
         client.close();
       }
     }
@@ -105,10 +116,17 @@ public class Rest extends BaseStep implements StepInterface {
         throw new KettleException( BaseMessages.getString( PKG, "Rest.Error.MethodMissing" ) );
       }
     }
-    Client client = null;
     if ( isDetailed() ) {
       logDetailed( BaseMessages.getString( PKG, "Rest.Log.ConnectingToURL", data.realUrl ) );
     }
+    if ( data.client != null ) {
+      return data.client;
+    }
+    return createClient();
+  }
+
+  private Client createClient() {
+    Client client = null;
     //      // Register a custom StringMessageBodyWriter to solve PDI-17423
     ClientBuilder clientBuilder = ClientBuilder.newBuilder();
     clientBuilder
@@ -162,15 +180,11 @@ public class Rest extends BaseStep implements StepInterface {
     return target;
   }
 
-  private Object[] invokeRequest( WebTarget target, Object[] rowData ) throws KettleException {
-    Object[] newRow = null;
-    if ( rowData != null ) {
-      newRow = rowData.clone();
-    }
-
-    // used for calculating the responseTime
-    long startTime = System.currentTimeMillis();
-
+  /**
+   * Read the headers and the body of the row and prepare the request. This reads the values of the row, so it runs on
+   * the step thread. In asynchronous mode the returned request runs on a thread of the call window.
+   */
+  private Callable<Object[]> prepareRequest( WebTarget target, Object[] rowData ) throws KettleException {
     Invocation.Builder invocationBuilder = target.request();
 
     String contentType = null; // media type override, if not null
@@ -190,7 +204,6 @@ public class Rest extends BaseStep implements StepInterface {
       }
     }
 
-    Response response;
     String entityString = "";
     if ( data.useBody ) {
       // Set Http request entity
@@ -199,30 +212,50 @@ public class Rest extends BaseStep implements StepInterface {
         logDebug( BaseMessages.getString( PKG, "Rest.Log.BodyValue", entityString ) );
       }
     }
+    String method = data.method;
+    String requestContentType = contentType;
+    String requestEntity = entityString;
+    int inputRowSize = data.inputRowMeta.size();
+    return () -> invokeRequest( target, invocationBuilder, method, requestContentType, requestEntity, inputRowSize,
+      rowData );
+  }
+
+  private Object[] invokeRequest( WebTarget target, Invocation.Builder invocationBuilder, String method,
+                                  String contentType, String entityString, int inputRowSize, Object[] rowData )
+    throws KettleException {
+    Object[] newRow = null;
+    if ( rowData != null ) {
+      newRow = rowData.clone();
+    }
+
+    // used for calculating the responseTime
+    long startTime = System.currentTimeMillis();
+
+    Response response;
     boolean debug = true;
     try {
-      if ( data.method.equals( RestMeta.HTTP_METHOD_GET ) ) {
+      if ( method.equals( RestMeta.HTTP_METHOD_GET ) ) {
         response = invocationBuilder.get( Response.class );
-      } else if ( data.method.equals( RestMeta.HTTP_METHOD_POST ) ) {
+      } else if ( method.equals( RestMeta.HTTP_METHOD_POST ) ) {
         if ( null != contentType ) {
           response = invocationBuilder.post( Entity.entity( entityString, contentType ) );
         } else {
           //            response = builder.type( data.mediaType ).post( ClientResponse.class, entityString );
           response = invocationBuilder.post( Entity.entity( entityString, data.mediaType ) );
         }
-      } else if ( data.method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
+      } else if ( method.equals( RestMeta.HTTP_METHOD_PUT ) ) {
         if ( null != contentType ) {
           response = invocationBuilder.put( Entity.entity( entityString, contentType ) );
         } else {
           response = invocationBuilder.put( Entity.entity( entityString, data.mediaType ) );
         }
-      } else if ( data.method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
+      } else if ( method.equals( RestMeta.HTTP_METHOD_DELETE ) ) {
         response = invocationBuilder.delete();
-      } else if ( data.method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
+      } else if ( method.equals( RestMeta.HTTP_METHOD_HEAD ) ) {
         response = invocationBuilder.head();
-      } else if ( data.method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
+      } else if ( method.equals( RestMeta.HTTP_METHOD_OPTIONS ) ) {
         response = invocationBuilder.options();
-      } else if ( data.method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
+      } else if ( method.equals( RestMeta.HTTP_METHOD_PATCH ) ) {
         if ( null != contentType ) {
           response =
             invocationBuilder.method(
@@ -233,7 +266,7 @@ public class Rest extends BaseStep implements StepInterface {
                 RestMeta.HTTP_METHOD_PATCH, Entity.entity( entityString, data.mediaType ) );
         }
       } else {
-        throw new KettleException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", data.method ) );
+        throw new KettleException( BaseMessages.getString( PKG, "Rest.Error.UnknownMethod", method ) );
       }
     } catch ( Exception e ) {
       throw new KettleException( "Request could not be processed", e );
@@ -242,7 +275,7 @@ public class Rest extends BaseStep implements StepInterface {
     long responseTime = System.currentTimeMillis() - startTime;
     if ( isDetailed() ) {
       logDetailed(
-          BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), data.realUrl ) );
+          BaseMessages.getString( PKG, "Rest.Log.ResponseTime", String.valueOf( responseTime ), target.getUri() ) );
     }
 
     // Get status
@@ -274,7 +307,7 @@ public class Rest extends BaseStep implements StepInterface {
     }
     headerString = json.toJSONString();
     // for output
-    int returnFieldsOffset = data.inputRowMeta.size();
+    int returnFieldsOffset = inputRowSize;
     // add response to output
     if ( !Utils.isEmpty( data.resultFieldName ) ) {
       newRow = RowDataUtil.addValueData( newRow, returnFieldsOffset, body );
@@ -327,10 +360,33 @@ public class Rest extends BaseStep implements StepInterface {
       if ( meta.isIgnoreSsl() ) {
         setTrustAll();
       }
+      if ( data.concurrentRequests > 0 ) {
+        // the default pool of the connector only has a few connections per host
+        data.connectionManager = createConnectionManager();
+        data.config.property( ApacheClientProperties.CONNECTION_MANAGER, data.connectionManager );
+      }
 
     }
   }
 
+  /**
+   * A connection pool for the concurrent requests of the step. The connector doesn't apply the SSL settings of the
+   * client to a pool it didn't create, so they are applied here.
+   */
+  private PoolingHttpClientConnectionManager createConnectionManager() {
+    RegistryBuilder<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+      .register( "http", PlainConnectionSocketFactory.getSocketFactory() );
+    if ( data.sslContext != null ) {
+      registry.register( "https", new SSLConnectionSocketFactory( data.sslContext, NoopHostnameVerifier.INSTANCE ) );
+    } else {
+      registry.register( "https", SSLConnectionSocketFactory.getSocketFactory() );
+    }
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager( registry.build() );
+    connectionManager.setDefaultMaxPerRoute( data.concurrentRequests );
+    connectionManager.setMaxTotal( data.concurrentRequests );
+    return connectionManager;
+  }
+
   private void setTrustAll() throws KettleException {
     try {
       SSLContext ctx = HttpClientManager.getTrustAllSslContext();
@@ -411,6 +467,9 @@ public class Rest extends BaseStep implements StepInterface {
 
     if ( r == null ) {
       // no more input to be expected...
+      if ( data.calls != null && !putCompletedCalls( data.outputRowMeta, data.calls.finish() ) ) {
+        return false;
+      }
       setOutputDone();
       return false;
     }
@@ -527,36 +586,61 @@ public class Rest extends BaseStep implements StepInterface {
         }
       }
     } // end if first
+    if ( data.calls != null ) {
+      return submitCall( r );
+    }
     try {
       Object[] outputRowData = callRest( r );
-      putRow( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
-      if ( checkFeedback( getLinesRead() ) ) {
-        if ( isDetailed() ) {
-          logDetailed( BaseMessages.getString( PKG, "Rest.LineNumber" ) + getLinesRead() );
-        }
-      }
+      putCallResult( data.outputRowMeta, outputRowData ); // copy row to output rowset(s);
     } catch ( KettleException e ) {
-      boolean sendToErrorRow = false;
-      String errorMessage = null;
-      if ( getStepMeta().isDoingErrorHandling() ) {
-        sendToErrorRow = true;
-        errorMessage = e.toString();
-      } else {
-        logError( BaseMessages.getString( PKG, "Rest.ErrorInStepRunning" ) + e.getMessage() );
-        setErrors( 1 );
-        logError( Const.getStackTracker( e ) );
-        stopAll();
-        setOutputDone(); // signal end to receiver(s)
-        return false;
-      }
-      if ( sendToErrorRow ) {
-        // Simply add this row to the error row
-        putError( getInputRowMeta(), r, 1, errorMessage, null, "Rest001" );
-      }
+      return handleCallError( r, e );
     }
     return true;
   }
 
+  /**
+   * Prepare the request of the row and hand it to the call window, then pass on the rows of which the request
+   * completed. Blocks while the maximum number of requests is in flight.
+   */
+  private boolean submitCall( Object[] r ) throws KettleException {
+    Callable<Object[]> request;
+    String url;
+    try {
+      WebTarget target = buildRequest( getClient( r ), r );
+      url = String.valueOf( target.getUri() );
+      request = prepareRequest( target, r );
+    } catch ( Exception e ) {
+      return handleCallError( r,
+        new KettleException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", data.realUrl ), e ) );
+    }
+    if ( data.connectionManager != null ) {
+      data.maximumPoolPending =
+        Math.max( data.maximumPoolPending, data.connectionManager.getTotalStats().getPending() );
+    }
+    return putCompletedCalls( data.outputRowMeta, data.calls.submit( r, () -> {
+      try {
+        return request.call();
+      } catch ( Exception e ) {
+        throw new KettleException( BaseMessages.getString( PKG, "Rest.Error.CanNotReadURL", url ), e );
+      }
+    } ) );
+  }
+
+  @Override
+  protected String getCallErrorMessage() {
+    return BaseMessages.getString( PKG, "Rest.ErrorInStepRunning" );
+  }
+
+  @Override
+  protected String getCallErrorCode() {
+    return "Rest001";
+  }
+
+  @Override
+  protected String getLineNumberMessage() {
+    return BaseMessages.getString( PKG, "Rest.LineNumber" );
+  }
+
   public boolean init( StepMetaInterface smi, StepDataInterface sdi ) {
     meta = (RestMeta) smi;
     data = (RestData) sdi;
@@ -606,12 +690,24 @@ public class Rest extends BaseStep implements StepInterface {
       } else {
         data.mediaType = MediaType.TEXT_PLAIN_TYPE;
       }
+      if ( meta.isAsynchronous() ) {
+        data.concurrentRequests =
+          Const.toInt( environmentSubstitute( meta.getConcurrentRequests() ), RestMeta.DEFAULT_CONCURRENT_REQUESTS );
+      }
       try {
         setConfig();
+        // one client for all rows, its connections are pooled
+        data.client = createClient();
       } catch ( Exception e ) {
         logError( BaseMessages.getString( PKG, "Rest.Error.Config" ), e );
         return false;
       }
+      if ( meta.isAsynchronous() ) {
+        data.calls = new AsyncCallWindow<>( data.concurrentRequests, meta.isPreserveOrder(), getStepname() );
+        if ( isDetailed() ) {
+          logDetailed( BaseMessages.getString( PKG, "Rest.Log.AsynchronousRequests", data.concurrentRequests ) );
+        }
+      }
       return true;
     }
     return false;
@@ -621,6 +717,18 @@ public class Rest extends BaseStep implements StepInterface {
     meta = (RestMeta) smi;
     data = (RestData) sdi;
 
+    if ( data.calls != null ) {
+      data.calls.close();
+      data.calls.snapMetrics( log );
+      log.snap( Metrics.METRIC_STEP_CALLS_POOL_PENDING, data.maximumPoolPending );
+      data.calls = null;
+    }
+    if ( data.client != null ) {
+      // also closes the connection manager of the client
+      data.client.close();
+      data.client = null;
+    }
+    data.connectionManager = null;
     data.config = null;
     data.headerNames = null;
     data.indexOfHeaderFields = null;
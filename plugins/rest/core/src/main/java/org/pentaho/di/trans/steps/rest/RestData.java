@@ -13,13 +13,16 @@
 
 package org.pentaho.di.trans.steps.rest;
 
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.client.authentication.HttpAuthenticationFeature;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.trans.step.AsyncCallWindow;
 import org.pentaho.di.trans.step.BaseStepData;
 import org.pentaho.di.trans.step.StepDataInterface;
 
 import javax.net.ssl.SSLContext;
+import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.core.MediaType;
 
 /**
@@ -118,6 +121,20 @@ public class RestData extends BaseStepData implements StepDataInterface {
 
   public MediaType mediaType;
 
+  /**
+   * The client of all requests of the step
+   **/
+  public Client client;
+
+  /**
+   * Asynchronous requests: the number of concurrent requests, the pool of their connections and the calls in flight.
+   * The number is 0 and the others are null when the requests are sent one by one.
+   **/
+  public int concurrentRequests;
+  public PoolingHttpClientConnectionManager connectionManager;
+  public AsyncCallWindow<Object[]> calls;
+  public int maximumPoolPending;
+
   public SSLContext sslContext;
 
   public RestData() {
@@ -81,6 +81,9 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
   public static final String HTTP_METHOD_OPTIONS = "OPTIONS";
   public static final String HTTP_METHOD_PATCH = "PATCH";
 
+  /** Default number of requests that wait for an answer at the same time in asynchronous mode */
+  public static final int DEFAULT_CONCURRENT_REQUESTS = 8;
+
   /** URL / service to be called */
   private String url;
   private boolean urlInField;
@@ -124,6 +127,16 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
   private String trustStorePassword;
 
   private boolean ignoreSsl;
+
+  /** Send the requests of a number of rows at the same time */
+  private boolean asynchronous;
+
+  /** The number of requests that wait for an answer at the same time in asynchronous mode */
+  private String concurrentRequests;
+
+  /** Pass the rows on in the order they came in, not in the order the answers come back */
+  private boolean preserveOrder;
+
   public RestMeta() {
     super(); // allocate BaseStepMeta
   }
@@ -360,6 +373,51 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
     this.ignoreSsl = ignoreSsl;
   }
 
+  /**
+   * @return true if the requests of a number of rows are sent at the same time
+   */
+  public boolean isAsynchronous() {
+    return asynchronous;
+  }
+
+  /**
+   * @param asynchronous
+   *          send the requests of a number of rows at the same time
+   */
+  public void setAsynchronous( boolean asynchronous ) {
+    this.asynchronous = asynchronous;
+  }
+
+  /**
+   * @return the number of requests that wait for an answer at the same time in asynchronous mode
+   */
+  public String getConcurrentRequests() {
+    return concurrentRequests;
+  }
+
+  /**
+   * @param concurrentRequests
+   *          the number of requests that wait for an answer at the same time in asynchronous mode
+   */
+  public void setConcurrentRequests( String concurrentRequests ) {
+    this.concurrentRequests = concurrentRequests;
+  }
+
+  /**
+   * @return true if the rows are passed on in the order they came in
+   */
+  public boolean isPreserveOrder() {
+    return preserveOrder;
+  }
+
+  /**
+   * @param preserveOrder
+   *          pass the rows on in the order they came in, not in the order the answers come back
+   */
+  public void setPreserveOrder( boolean preserveOrder ) {
+    this.preserveOrder = preserveOrder;
+  }
+
   @Override
   public void loadXML( Node stepnode, List<DatabaseMeta> databases, IMetaStore metaStore ) throws KettleXMLException {
     readData( stepnode, databases );
@@ -413,6 +471,9 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
     this.trustStoreFile = null;
     this.trustStorePassword = null;
     this.applicationType = APPLICATION_TYPE_TEXT_PLAIN;
+    this.asynchronous = false;
+    this.concurrentRequests = String.valueOf( DEFAULT_CONCURRENT_REQUESTS );
+    this.preserveOrder = true;
   }
 
   @Override
@@ -467,6 +528,9 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
 
     retval.append( "    " ).append( XMLHandler.addTagValue( "trustStoreFile", trustStoreFile ) );
     retval.append( "    " ).append( XMLHandler.addTagValue( "ignoreSsl", ignoreSsl ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "asynchronous", asynchronous ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "concurrentRequests", concurrentRequests ) );
+    retval.append( "    " ).append( XMLHandler.addTagValue( "preserveOrder", preserveOrder ) );
     retval.append( "    " ).append(
         XMLHandler.addTagValue( "trustStorePassword", Encr.encryptPasswordIfNotUsingVariables( trustStorePassword ) ) );
 
@@ -526,6 +590,10 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
       preemptive = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preemptive" ) );
 
       ignoreSsl = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "ignoreSsl" ) );
+      asynchronous = "Y".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "asynchronous" ) );
+      concurrentRequests = Const.NVL( XMLHandler.getTagValue( stepnode, "concurrentRequests" ),
+        String.valueOf( DEFAULT_CONCURRENT_REQUESTS ) );
+      preserveOrder = !"N".equalsIgnoreCase( XMLHandler.getTagValue( stepnode, "preserveOrder" ) );
       trustStoreFile = XMLHandler.getTagValue( stepnode, "trustStoreFile" );
       trustStorePassword =
           Encr.decryptPasswordOptionallyEncrypted( XMLHandler.getTagValue( stepnode, "trustStorePassword" ) );
@@ -584,6 +652,10 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
 
       trustStoreFile = rep.getStepAttributeString( id_step, "trustStoreFile" );
       ignoreSsl = "Y".equalsIgnoreCase( rep.getStepAttributeString( id_step, "ignoreSsl") );
+      asynchronous = rep.getStepAttributeBoolean( id_step, "asynchronous" );
+      concurrentRequests = Const.NVL( rep.getStepAttributeString( id_step, "concurrentRequests" ),
+        String.valueOf( DEFAULT_CONCURRENT_REQUESTS ) );
+      preserveOrder = rep.getStepAttributeBoolean( id_step, 0, "preserveOrder", true );
       trustStorePassword =
           Encr.decryptPasswordOptionallyEncrypted( rep.getStepAttributeString( id_step, "trustStorePassword" ) );
 
@@ -636,6 +708,9 @@ public class RestMeta extends BaseStepMeta implements StepMetaInterface {
       rep.saveStepAttribute( id_transformation, id_step, "proxyPort", proxyPort );
 
       rep.saveStepAttribute( id_transformation, id_step, "ignoreSsl", ignoreSsl );
+      rep.saveStepAttribute( id_transformation, id_step, "asynchronous", asynchronous );
+      rep.saveStepAttribute( id_transformation, id_step, "concurrentRequests", concurrentRequests );
+      rep.saveStepAttribute( id_transformation, id_step, "preserveOrder", preserveOrder );
       rep.saveStepAttribute( id_transformation, id_step, "trustStoreFile", trustStoreFile );
       rep.saveStepAttribute( id_transformation, id_step, "trustStorePassword", Encr
           .encryptPasswordIfNotUsingVariables( trustStorePassword ) );
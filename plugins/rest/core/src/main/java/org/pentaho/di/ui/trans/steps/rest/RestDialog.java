@@ -187,6 +187,15 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
 
   protected Group gSSLTrustStore;
 
+  private Label wlAsynchronous;
+  private Button wAsynchronous;
+
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+
+  private Label wlPreserveOrder;
+  private Button wPreserveOrder;
+
 
   public RestDialog( Shell parent, Object in, TransMeta transMeta, String sname ) {
     super( parent, (BaseStepMeta) in, transMeta, sname );
@@ -481,6 +490,69 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
       }
     } );
 
+    wlAsynchronous = new Label( gSettings, SWT.RIGHT );
+    wlAsynchronous.setText( BaseMessages.getString( PKG, "RestDialog.Asynchronous.Label" ) );
+    props.setLook( wlAsynchronous );
+    FormData fdlAsynchronous = new FormData();
+    fdlAsynchronous.top = new FormAttachment( wApplicationType, 2 * margin );
+    fdlAsynchronous.left = new FormAttachment( 0, 0 );
+    fdlAsynchronous.right = new FormAttachment( middle, -margin );
+    wlAsynchronous.setLayoutData( fdlAsynchronous );
+    wAsynchronous = new Button( gSettings, SWT.CHECK );
+    wAsynchronous.setToolTipText( BaseMessages.getString( PKG, "RestDialog.Asynchronous.Tooltip" ) );
+    props.setLook( wAsynchronous );
+    FormData fdAsynchronous = new FormData();
+    fdAsynchronous.top = new FormAttachment( wApplicationType, 2 * margin );
+    fdAsynchronous.left = new FormAttachment( middle, 0 );
+    fdAsynchronous.right = new FormAttachment( 100, -margin );
+    wAsynchronous.setLayoutData( fdAsynchronous );
+    wAsynchronous.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        activeAsynchronous();
+      }
+    } );
+
+    wlConcurrentRequests = new Label( gSettings, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "RestDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.top = new FormAttachment( wAsynchronous, 2 * margin );
+    fdlConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlConcurrentRequests.setLayoutData( fdlConcurrentRequests );
+    wConcurrentRequests = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.addModifyListener( lsMod );
+    wConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "RestDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment( wAsynchronous, 2 * margin );
+    fdConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdConcurrentRequests.right = new FormAttachment( 100, -margin );
+    wConcurrentRequests.setLayoutData( fdConcurrentRequests );
+
+    wlPreserveOrder = new Label( gSettings, SWT.RIGHT );
+    wlPreserveOrder.setText( BaseMessages.getString( PKG, "RestDialog.PreserveOrder.Label" ) );
+    props.setLook( wlPreserveOrder );
+    FormData fdlPreserveOrder = new FormData();
+    fdlPreserveOrder.top = new FormAttachment( wConcurrentRequests, 2 * margin );
+    fdlPreserveOrder.left = new FormAttachment( 0, 0 );
+    fdlPreserveOrder.right = new FormAttachment( middle, -margin );
+    wlPreserveOrder.setLayoutData( fdlPreserveOrder );
+    wPreserveOrder = new Button( gSettings, SWT.CHECK );
+    wPreserveOrder.setToolTipText( BaseMessages.getString( PKG, "RestDialog.PreserveOrder.Tooltip" ) );
+    props.setLook( wPreserveOrder );
+    FormData fdPreserveOrder = new FormData();
+    fdPreserveOrder.top = new FormAttachment( wConcurrentRequests, 2 * margin );
+    fdPreserveOrder.left = new FormAttachment( middle, 0 );
+    fdPreserveOrder.right = new FormAttachment( 100, -margin );
+    wPreserveOrder.setLayoutData( fdPreserveOrder );
+    wPreserveOrder.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, 0 );
     fdSettings.right = new FormAttachment( 100, 0 );
@@ -1173,6 +1245,7 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
     getData();
     activeUrlInfield();
     activeMethodInfield();
+    activeAsynchronous();
     setMethod();
     setSsl();
     input.setChanged( changed );
@@ -1258,6 +1331,14 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
     }
   }
 
+  private void activeAsynchronous() {
+    boolean asynchronous = wAsynchronous.getSelection();
+    wlConcurrentRequests.setEnabled( asynchronous );
+    wConcurrentRequests.setEnabled( asynchronous );
+    wlPreserveOrder.setEnabled( asynchronous );
+    wPreserveOrder.setEnabled( asynchronous );
+  }
+
   private void activeUrlInfield() {
     wlUrlField.setEnabled( wUrlInField.getSelection() );
     wUrlField.setEnabled( wUrlInField.getSelection() );
@@ -1360,6 +1441,9 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
     }
 
     wApplicationType.setText( Const.NVL( input.getApplicationType(), "" ) );
+    wAsynchronous.setSelection( input.isAsynchronous() );
+    wConcurrentRequests.setText( Const.NVL( input.getConcurrentRequests(), "" ) );
+    wPreserveOrder.setSelection( input.isPreserveOrder() );
 
     wFields.setRowNums();
     wFields.optWidth( true );
@@ -1426,6 +1510,9 @@ public class RestDialog extends BaseStepDialog implements StepDialogInterface {
     input.setTrustStorePassword( wTrustStorePassword.getText() );
     input.setIgnoreSsl( wIgnoreSSL.getSelection() );
     input.setApplicationType( wApplicationType.getText() );
+    input.setAsynchronous( wAsynchronous.getSelection() );
+    input.setConcurrentRequests( wConcurrentRequests.getText() );
+    input.setPreserveOrder( wPreserveOrder.getSelection() );
     stepname = wStepname.getText(); // return value
 
     setAdditionalFieldsInMeta();
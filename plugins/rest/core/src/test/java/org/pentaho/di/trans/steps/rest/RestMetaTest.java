@@ -67,7 +67,8 @@ public class RestMetaTest {
         "urlField", "bodyField", "httpLogin", "httpPassword", "proxyHost", "proxyPort", "preemptive",
         "trustStoreFile", "trustStorePassword", "ignoreSsl", "headerField", "headerName", "parameterField",
         "parameterName", "matrixParameterField", "matrixParameterName", "fieldName", "resultCodeFieldName",
-        "responseTimeFieldName", "responseHeaderFieldName" );
+        "responseTimeFieldName", "responseHeaderFieldName", "asynchronous", "concurrentRequests",
+        "preserveOrder" );
 
     Map<String, FieldLoadSaveValidator<?>> fieldLoadSaveValidatorAttributeMap =
       new HashMap<String, FieldLoadSaveValidator<?>>();
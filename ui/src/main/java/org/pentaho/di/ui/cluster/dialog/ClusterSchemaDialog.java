@@ -41,11 +41,13 @@ import org.pentaho.di.cluster.ClusterSchema;
 import org.pentaho.di.cluster.SlaveServer;
 import org.pentaho.di.core.Const;
 import org.pentaho.di.i18n.BaseMessages;
+import org.pentaho.di.trans.step.RemoteStepCodec;
 import org.pentaho.di.ui.core.PropsUI;
 import org.pentaho.di.ui.core.dialog.EnterSelectionDialog;
 import org.pentaho.di.ui.core.gui.GUIResource;
 import org.pentaho.di.ui.core.gui.WindowProperty;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
+import org.pentaho.di.ui.core.widget.ComboVar;
 import org.pentaho.di.ui.core.widget.TableView;
 import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
@@ -100,6 +102,8 @@ public class ClusterSchemaDialog extends Dialog {
 
   private Button wCompressed;
 
+  private ComboVar wCodec;
+
   private Button wDynamic;
 
   private List<SlaveServer> slaveServers;
@@ -250,13 +254,35 @@ public class ClusterSchemaDialog extends Dialog {
     fdCompressed.right = new FormAttachment( 95, 0 );
     wCompressed.setLayoutData( fdCompressed );
 
+    // Which wire format do the sockets use?
+    Label wlCodec = new Label( shell, SWT.RIGHT );
+    wlCodec.setToolTipText( BaseMessages.getString( PKG, "ClusterSchemaDialog.SocketCodec.Tooltip" ) );
+    props.setLook( wlCodec );
+    wlCodec.setText( BaseMessages.getString( PKG, "ClusterSchemaDialog.SocketCodec.Label" ) );
+    FormData fdlCodec = new FormData();
+    fdlCodec.top = new FormAttachment( wCompressed, margin );
+    fdlCodec.left = new FormAttachment( 0, 0 ); // First one in the left top corner
+    fdlCodec.right = new FormAttachment( middle, 0 );
+    wlCodec.setLayoutData( fdlCodec );
+
+    wCodec = new ComboVar( clusterSchema, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wCodec.setToolTipText( BaseMessages.getString( PKG, "ClusterSchemaDialog.SocketCodec.Tooltip" ) );
+    wCodec.setItems( RemoteStepCodec.getCodes() );
+    props.setLook( wCodec );
+    wCodec.addModifyListener( lsMod );
+    FormData fdCodec = new FormData();
+    fdCodec.top = new FormAttachment( wCompressed, margin );
+    fdCodec.left = new FormAttachment( middle, margin ); // To the right of the label
+    fdCodec.right = new FormAttachment( 95, 0 );
+    wCodec.setLayoutData( fdCodec );
+
     // What are the sockets buffer sizes??
     Label wlDynamic = new Label( shell, SWT.RIGHT );
     wlDynamic.setToolTipText( BaseMessages.getString( PKG, "ClusterSchemaDialog.DynamicCluster.Tooltip" ) );
     props.setLook( wlDynamic );
     wlDynamic.setText( BaseMessages.getString( PKG, "ClusterSchemaDialog.DynamicCluster.Label" ) );
     FormData fdlDynamic = new FormData();
-    fdlDynamic.top = new FormAttachment( wCompressed, margin );
+    fdlDynamic.top = new FormAttachment( wCodec, margin );
     fdlDynamic.left = new FormAttachment( 0, 0 ); // First one in the left top corner
     fdlDynamic.right = new FormAttachment( middle, 0 );
     wlDynamic.setLayoutData( fdlDynamic );
@@ -265,7 +291,7 @@ public class ClusterSchemaDialog extends Dialog {
     wDynamic.setToolTipText( BaseMessages.getString( PKG, "ClusterSchemaDialog.DynamicCluster.Tooltip" ) );
     props.setLook( wDynamic );
     FormData fdDynamic = new FormData();
-    fdDynamic.top = new FormAttachment( wCompressed, margin );
+    fdDynamic.top = new FormAttachment( wCodec, margin );
     fdDynamic.left = new FormAttachment( middle, margin ); // To the right of the label
     fdDynamic.right = new FormAttachment( 95, 0 );
     wDynamic.setLayoutData( fdDynamic );
@@ -412,6 +438,7 @@ public class ClusterSchemaDialog extends Dialog {
     wBufferSize.setText( Const.NVL( clusterSchema.getSocketsBufferSize(), "" ) );
     wFlushInterval.setText( Const.NVL( clusterSchema.getSocketsFlushInterval(), "" ) );
     wCompressed.setSelection( clusterSchema.isSocketsCompressed() );
+    wCodec.setText( Const.NVL( clusterSchema.getSocketsCodec(), RemoteStepCodec.GZIP.getCode() ) );
     wDynamic.setSelection( clusterSchema.isDynamic() );
 
     refreshSlaveServers();
@@ -463,6 +490,7 @@ public class ClusterSchemaDialog extends Dialog {
     originalSchema.setSocketsBufferSize( clusterSchema.getSocketsBufferSize() );
     originalSchema.setSocketsFlushInterval( clusterSchema.getSocketsFlushInterval() );
     originalSchema.setSocketsCompressed( clusterSchema.isSocketsCompressed() );
+    originalSchema.setSocketsCodec( clusterSchema.getSocketsCodec() );
     originalSchema.setDynamic( clusterSchema.isDynamic() );
     originalSchema.setSlaveServers( clusterSchema.getSlaveServers() );
     originalSchema.setChanged();
@@ -491,6 +519,7 @@ public class ClusterSchemaDialog extends Dialog {
     clusterSchema.setSocketsBufferSize( wBufferSize.getText() );
     clusterSchema.setSocketsFlushInterval( wFlushInterval.getText() );
     clusterSchema.setSocketsCompressed( wCompressed.getSelection() );
+    clusterSchema.setSocketsCodec( wCodec.getText() );
     clusterSchema.setDynamic( wDynamic.getSelection() );
 
     String[] names = SlaveServer.getSlaveServerNames( slaveServers );
@@ -118,6 +118,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
   private Button wAddResult;
   private boolean isReceivingInput;
   private Button wRunningInParallel;
+  private Button wMemoryMapped;
   private Button wNewlinePossible;
   private ComboVar wEncoding;
   private CCombo wFormat;
@@ -451,6 +452,25 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wRunningInParallel.setLayoutData( fdRunningInParallel );
     lastControl = wRunningInParallel;
 
+    // read the file through a memory mapping?
+    //
+    Label wlMemoryMapped = new Label( shell, SWT.RIGHT );
+    wlMemoryMapped.setText( BaseMessages.getString( PKG, inputMeta.getDescription( "MEMORY_MAPPED" ) ) );
+    props.setLook( wlMemoryMapped );
+    FormData fdlMemoryMapped = new FormData();
+    fdlMemoryMapped.top = new FormAttachment( lastControl, margin );
+    fdlMemoryMapped.left = new FormAttachment( 0, 0 );
+    fdlMemoryMapped.right = new FormAttachment( middle, -margin );
+    wlMemoryMapped.setLayoutData( fdlMemoryMapped );
+    wMemoryMapped = new Button( shell, SWT.CHECK );
+    props.setLook( wMemoryMapped );
+    wMemoryMapped.setToolTipText( BaseMessages.getString( PKG, inputMeta.getTooltip( "MEMORY_MAPPED" ) ) );
+    FormData fdMemoryMapped = new FormData();
+    fdMemoryMapped.top = new FormAttachment( lastControl, margin );
+    fdMemoryMapped.left = new FormAttachment( middle, 0 );
+    wMemoryMapped.setLayoutData( fdMemoryMapped );
+    lastControl = wMemoryMapped;
+
     // Is a new line possible in a field?
     //
     Label wlNewlinePossible = new Label( shell, SWT.RIGHT );
@@ -777,6 +797,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     wLazyConversion.setSelection( inputMeta.isLazyConversionActive() );
     wHeaderPresent.setSelection( inputMeta.isHeaderPresent() );
     wRunningInParallel.setSelection( inputMeta.isRunningInParallel() );
+    wMemoryMapped.setSelection( inputMeta.isMemoryMapped() );
     wNewlinePossible.setSelection( inputMeta.isNewlinePossibleInFields() );
     wRowNumField.setText( Const.NVL( inputMeta.getRowNumField(), "" ) );
     wAddResult.setSelection( inputMeta.isAddResultFile() );
@@ -836,6 +857,7 @@ public class CsvInputDialog extends BaseStepDialog implements StepDialogInterfac
     inputMeta.setRowNumField( wRowNumField.getText() );
     inputMeta.setAddResultFile( wAddResult.getSelection() );
     inputMeta.setRunningInParallel( wRunningInParallel.getSelection() );
+    inputMeta.setMemoryMapped( wMemoryMapped.getSelection() );
     inputMeta.setNewlinePossibleInFields( wNewlinePossible.getSelection() );
     inputMeta.setFileFormat( wFormat.getText() );
     inputMeta.setEncoding( wEncoding.getText() );
@@ -39,6 +39,7 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.TableItem;
 import org.eclipse.swt.widgets.Text;
 import org.pentaho.di.core.Const;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
@@ -78,6 +79,22 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
   private Text wCachesize;
   private FormData fdlCachesize, fdCachesize;
 
+  private Label wlEvictionPolicy;
+  private CCombo wEvictionPolicy;
+  private FormData fdlEvictionPolicy, fdEvictionPolicy;
+
+  private Label wlCacheMemoryLimit;
+  private TextVar wCacheMemoryLimit;
+  private FormData fdlCacheMemoryLimit, fdCacheMemoryLimit;
+
+  private Label wlCacheTimeToLive;
+  private TextVar wCacheTimeToLive;
+  private FormData fdlCacheTimeToLive, fdCacheTimeToLive;
+
+  private Label wlOffHeapBudget;
+  private TextVar wOffHeapBudget;
+  private FormData fdlOffHeapBudget, fdOffHeapBudget;
+
   private Label wlKey;
   private TableView wKey;
   private FormData fdlKey, fdKey;
@@ -302,6 +319,67 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     fdCachesize.top = new FormAttachment( wCache, margin );
     wCachesize.setLayoutData( fdCachesize );
 
+    // Cache : eviction policy
+    wlEvictionPolicy = new Label( shell, SWT.RIGHT );
+    wlEvictionPolicy.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.EvictionPolicy.Label" ) );
+    props.setLook( wlEvictionPolicy );
+    fdlEvictionPolicy = new FormData();
+    fdlEvictionPolicy.left = new FormAttachment( 0, 0 );
+    fdlEvictionPolicy.right = new FormAttachment( middle, -margin );
+    fdlEvictionPolicy.top = new FormAttachment( wCachesize, margin );
+    wlEvictionPolicy.setLayoutData( fdlEvictionPolicy );
+    wEvictionPolicy = new CCombo( shell, SWT.BORDER | SWT.READ_ONLY );
+    wEvictionPolicy.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.EvictionPolicy.Tooltip" ) );
+    props.setLook( wEvictionPolicy );
+    for ( EvictionPolicy policy : EvictionPolicy.values() ) {
+      wEvictionPolicy.add( BaseMessages.getString( PKG, "DatabaseLookupDialog.EvictionPolicy." + policy.name() ) );
+    }
+    wEvictionPolicy.addModifyListener( lsMod );
+    fdEvictionPolicy = new FormData();
+    fdEvictionPolicy.left = new FormAttachment( middle, 0 );
+    fdEvictionPolicy.right = new FormAttachment( 100, 0 );
+    fdEvictionPolicy.top = new FormAttachment( wCachesize, margin );
+    wEvictionPolicy.setLayoutData( fdEvictionPolicy );
+
+    // Cache : memory limit
+    wlCacheMemoryLimit = new Label( shell, SWT.RIGHT );
+    wlCacheMemoryLimit.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheMemoryLimit.Label" ) );
+    props.setLook( wlCacheMemoryLimit );
+    fdlCacheMemoryLimit = new FormData();
+    fdlCacheMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlCacheMemoryLimit.right = new FormAttachment( middle, -margin );
+    fdlCacheMemoryLimit.top = new FormAttachment( wEvictionPolicy, margin );
+    wlCacheMemoryLimit.setLayoutData( fdlCacheMemoryLimit );
+    wCacheMemoryLimit = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wCacheMemoryLimit.setToolTipText(
+      BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheMemoryLimit.Tooltip" ) );
+    props.setLook( wCacheMemoryLimit );
+    wCacheMemoryLimit.addModifyListener( lsMod );
+    fdCacheMemoryLimit = new FormData();
+    fdCacheMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdCacheMemoryLimit.right = new FormAttachment( 100, 0 );
+    fdCacheMemoryLimit.top = new FormAttachment( wEvictionPolicy, margin );
+    wCacheMemoryLimit.setLayoutData( fdCacheMemoryLimit );
+
+    // Cache : time to live
+    wlCacheTimeToLive = new Label( shell, SWT.RIGHT );
+    wlCacheTimeToLive.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheTimeToLive.Label" ) );
+    props.setLook( wlCacheTimeToLive );
+    fdlCacheTimeToLive = new FormData();
+    fdlCacheTimeToLive.left = new FormAttachment( 0, 0 );
+    fdlCacheTimeToLive.right = new FormAttachment( middle, -margin );
+    fdlCacheTimeToLive.top = new FormAttachment( wCacheMemoryLimit, margin );
+    wlCacheTimeToLive.setLayoutData( fdlCacheTimeToLive );
+    wCacheTimeToLive = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wCacheTimeToLive.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheTimeToLive.Tooltip" ) );
+    props.setLook( wCacheTimeToLive );
+    wCacheTimeToLive.addModifyListener( lsMod );
+    fdCacheTimeToLive = new FormData();
+    fdCacheTimeToLive.left = new FormAttachment( middle, 0 );
+    fdCacheTimeToLive.right = new FormAttachment( 100, 0 );
+    fdCacheTimeToLive.top = new FormAttachment( wCacheMemoryLimit, margin );
+    wCacheTimeToLive.setLayoutData( fdCacheTimeToLive );
+
     // Cache : Load all?
     wlCacheLoadAll = new Label( shell, SWT.RIGHT );
     wlCacheLoadAll.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.CacheLoadAll.Label" ) );
@@ -309,13 +387,13 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     fdlCacheLoadAll = new FormData();
     fdlCacheLoadAll.left = new FormAttachment( 0, 0 );
     fdlCacheLoadAll.right = new FormAttachment( middle, -margin );
-    fdlCacheLoadAll.top = new FormAttachment( wCachesize, margin );
+    fdlCacheLoadAll.top = new FormAttachment( wCacheTimeToLive, margin );
     wlCacheLoadAll.setLayoutData( fdlCacheLoadAll );
     wCacheLoadAll = new Button( shell, SWT.CHECK );
     props.setLook( wCacheLoadAll );
     fdCacheLoadAll = new FormData();
     fdCacheLoadAll.left = new FormAttachment( middle, 0 );
-    fdCacheLoadAll.top = new FormAttachment( wCachesize, margin );
+    fdCacheLoadAll.top = new FormAttachment( wCacheTimeToLive, margin );
     wCacheLoadAll.setLayoutData( fdCacheLoadAll );
     wCacheLoadAll.addSelectionListener( new SelectionAdapter() {
       public void widgetSelected( SelectionEvent e ) {
@@ -324,12 +402,31 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
       }
     } );
 
+    // Cache : Off-heap storage budget
+    wlOffHeapBudget = new Label( shell, SWT.RIGHT );
+    wlOffHeapBudget.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.OffHeapBudget.Label" ) );
+    props.setLook( wlOffHeapBudget );
+    fdlOffHeapBudget = new FormData();
+    fdlOffHeapBudget.left = new FormAttachment( 0, 0 );
+    fdlOffHeapBudget.right = new FormAttachment( middle, -margin );
+    fdlOffHeapBudget.top = new FormAttachment( wCacheLoadAll, margin );
+    wlOffHeapBudget.setLayoutData( fdlOffHeapBudget );
+    wOffHeapBudget = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wOffHeapBudget.setToolTipText( BaseMessages.getString( PKG, "DatabaseLookupDialog.OffHeapBudget.Tooltip" ) );
+    props.setLook( wOffHeapBudget );
+    wOffHeapBudget.addModifyListener( lsMod );
+    fdOffHeapBudget = new FormData();
+    fdOffHeapBudget.left = new FormAttachment( middle, 0 );
+    fdOffHeapBudget.right = new FormAttachment( 100, 0 );
+    fdOffHeapBudget.top = new FormAttachment( wCacheLoadAll, margin );
+    wOffHeapBudget.setLayoutData( fdOffHeapBudget );
+
     wlKey = new Label( shell, SWT.NONE );
     wlKey.setText( BaseMessages.getString( PKG, "DatabaseLookupDialog.Keys.Label" ) );
     props.setLook( wlKey );
     fdlKey = new FormData();
     fdlKey.left = new FormAttachment( 0, 0 );
-    fdlKey.top = new FormAttachment( wCacheLoadAll, margin );
+    fdlKey.top = new FormAttachment( wOffHeapBudget, margin );
     wlKey.setLayoutData( fdlKey );
 
     int nrKeyCols = 4;
@@ -632,8 +729,16 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
 
     wCachesize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
     wlCachesize.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wEvictionPolicy.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wlEvictionPolicy.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wCacheMemoryLimit.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wlCacheMemoryLimit.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wCacheTimeToLive.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
+    wlCacheTimeToLive.setEnabled( wCache.getSelection() && !wCacheLoadAll.getSelection() );
     wCacheLoadAll.setEnabled( wCache.getSelection() );
     wlCacheLoadAll.setEnabled( wCache.getSelection() );
+    wOffHeapBudget.setEnabled( wCache.getSelection() && wCacheLoadAll.getSelection() );
+    wlOffHeapBudget.setEnabled( wCache.getSelection() && wCacheLoadAll.getSelection() );
     wFailMultiple.setEnabled( !wCache.getSelection() );
     wlFailMultiple.setEnabled( !wCache.getSelection() );
   }
@@ -647,6 +752,10 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     wCache.setSelection( input.isCached() );
     wCachesize.setText( "" + input.getCacheSize() );
     wCacheLoadAll.setSelection( input.isLoadingAllDataInCache() );
+    wEvictionPolicy.select( EvictionPolicy.getPolicyByCode( input.getCacheEvictionPolicy() ).ordinal() );
+    wCacheMemoryLimit.setText( Const.NVL( input.getCacheMemoryLimit(), "" ) );
+    wCacheTimeToLive.setText( Const.NVL( input.getCacheTimeToLive(), "" ) );
+    wOffHeapBudget.setText( Const.NVL( input.getOffHeapBudget(), "" ) );
 
     if ( input.getStreamKeyField1() != null ) {
       for ( int i = 0; i < input.getStreamKeyField1().length; i++ ) {
@@ -731,6 +840,11 @@ public class DatabaseLookupDialog extends BaseStepDialog implements StepDialogIn
     input.setCached( wCache.getSelection() );
     input.setCacheSize( Const.toInt( wCachesize.getText(), 0 ) );
     input.setLoadingAllDataInCache( wCacheLoadAll.getSelection() );
+    int policyIndex = Math.max( 0, wEvictionPolicy.getSelectionIndex() );
+    input.setCacheEvictionPolicy( EvictionPolicy.values()[ policyIndex ].getCode() );
+    input.setCacheMemoryLimit( wCacheMemoryLimit.getText() );
+    input.setCacheTimeToLive( wCacheTimeToLive.getText() );
+    input.setOffHeapBudget( wOffHeapBudget.getText() );
 
     logDebug( BaseMessages.getString( PKG, "DatabaseLookupDialog.Log.FoundKeys", String.valueOf( nrkeys ) ) );
     //CHECKSTYLE:Indentation:OFF
@@ -57,6 +57,7 @@ import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.Props;
 import org.pentaho.di.core.SQLStatement;
+import org.pentaho.di.core.cache.LookupCache.EvictionPolicy;
 import org.pentaho.di.core.database.Database;
 import org.pentaho.di.core.database.DatabaseMeta;
 import org.pentaho.di.core.exception.KettleException;
@@ -112,15 +113,30 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
   private Label wlCommit;
   private Text wCommit;
 
+  private Label wlBatchSize;
+  private Text wBatchSize;
+
   private Label wlUseCache;
   private Button wUseCache;
 
   private Label wlPreloadCache;
   private Button wPreloadCache;
 
+  private Label wlPreloadCacheFile;
+  private TextVar wPreloadCacheFile;
+
   private Label wlCacheSize;
   private Text wCacheSize;
 
+  private Label wlEvictionPolicy;
+  private CCombo wEvictionPolicy;
+
+  private Label wlCacheMemoryLimit;
+  private TextVar wCacheMemoryLimit;
+
+  private Label wlCacheTimeToLive;
+  private TextVar wCacheTimeToLive;
+
   private Label wlTk;
   private CCombo wTk;
 
@@ -409,6 +425,25 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     fdCommit.right = new FormAttachment( 100, 0 );
     wCommit.setLayoutData( fdCommit );
 
+    // Batch size ...
+    wlBatchSize = new Label( comp, SWT.RIGHT );
+    wlBatchSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.BatchSize.Label" ) );
+    props.setLook( wlBatchSize );
+    FormData fdlBatchSize = new FormData();
+    fdlBatchSize.left = new FormAttachment( 0, 0 );
+    fdlBatchSize.right = new FormAttachment( middle, -margin );
+    fdlBatchSize.top = new FormAttachment( wCommit, margin );
+    wlBatchSize.setLayoutData( fdlBatchSize );
+    wBatchSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBatchSize.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.BatchSize.Tooltip" ) );
+    props.setLook( wBatchSize );
+    wBatchSize.addModifyListener( lsMod );
+    FormData fdBatchSize = new FormData();
+    fdBatchSize.left = new FormAttachment( middle, 0 );
+    fdBatchSize.top = new FormAttachment( wCommit, margin );
+    fdBatchSize.right = new FormAttachment( 100, 0 );
+    wBatchSize.setLayoutData( fdBatchSize );
+
     // Use Cache?
     wlUseCache = new Label( comp, SWT.RIGHT );
     wlUseCache.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.UseCache.Label" ) );
@@ -416,7 +451,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     FormData fdlUseCache = new FormData();
     fdlUseCache.left = new FormAttachment( 0, 0 );
     fdlUseCache.right = new FormAttachment( middle, -margin );
-    fdlUseCache.top = new FormAttachment( wCommit, margin );
+    fdlUseCache.top = new FormAttachment( wBatchSize, margin );
     wlUseCache.setLayoutData( fdlUseCache );
     wUseCache = new Button( comp, SWT.CHECK );
     props.setLook( wUseCache );
@@ -428,7 +463,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     } );
     FormData fdUseCache = new FormData();
     fdUseCache.left = new FormAttachment( middle, 0 );
-    fdUseCache.top = new FormAttachment( wCommit, margin );
+    fdUseCache.top = new FormAttachment( wBatchSize, margin );
     fdUseCache.right = new FormAttachment( 100, 0 );
     wUseCache.setLayoutData( fdUseCache );
 
@@ -455,6 +490,26 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     fdPreloadCache.right = new FormAttachment( 100, 0 );
     wPreloadCache.setLayoutData( fdPreloadCache );
 
+    // Preload cache file ...
+    wlPreloadCacheFile = new Label( comp, SWT.RIGHT );
+    wlPreloadCacheFile.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadCacheFile.Label" ) );
+    props.setLook( wlPreloadCacheFile );
+    FormData fdlPreloadCacheFile = new FormData();
+    fdlPreloadCacheFile.left = new FormAttachment( 0, 0 );
+    fdlPreloadCacheFile.right = new FormAttachment( middle, -margin );
+    fdlPreloadCacheFile.top = new FormAttachment( wPreloadCache, margin );
+    wlPreloadCacheFile.setLayoutData( fdlPreloadCacheFile );
+    wPreloadCacheFile = new TextVar( transMeta, comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wPreloadCacheFile.setToolTipText(
+      BaseMessages.getString( PKG, "DimensionLookupDialog.PreloadCacheFile.Tooltip" ) );
+    props.setLook( wPreloadCacheFile );
+    wPreloadCacheFile.addModifyListener( lsMod );
+    FormData fdPreloadCacheFile = new FormData();
+    fdPreloadCacheFile.left = new FormAttachment( middle, 0 );
+    fdPreloadCacheFile.top = new FormAttachment( wPreloadCache, margin );
+    fdPreloadCacheFile.right = new FormAttachment( 100, 0 );
+    wPreloadCacheFile.setLayoutData( fdPreloadCacheFile );
+
     // Cache size ...
     wlCacheSize = new Label( comp, SWT.RIGHT );
     wlCacheSize.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheSize.Label" ) );
@@ -462,17 +517,79 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     FormData fdlCacheSize = new FormData();
     fdlCacheSize.left = new FormAttachment( 0, 0 );
     fdlCacheSize.right = new FormAttachment( middle, -margin );
-    fdlCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdlCacheSize.top = new FormAttachment( wPreloadCacheFile, margin );
     wlCacheSize.setLayoutData( fdlCacheSize );
     wCacheSize = new Text( comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
     props.setLook( wCacheSize );
     wCacheSize.addModifyListener( lsMod );
     FormData fdCacheSize = new FormData();
     fdCacheSize.left = new FormAttachment( middle, 0 );
-    fdCacheSize.top = new FormAttachment( wPreloadCache, margin );
+    fdCacheSize.top = new FormAttachment( wPreloadCacheFile, margin );
     fdCacheSize.right = new FormAttachment( 100, 0 );
     wCacheSize.setLayoutData( fdCacheSize );
 
+    // Cache eviction policy ...
+    wlEvictionPolicy = new Label( comp, SWT.RIGHT );
+    wlEvictionPolicy.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.EvictionPolicy.Label" ) );
+    props.setLook( wlEvictionPolicy );
+    FormData fdlEvictionPolicy = new FormData();
+    fdlEvictionPolicy.left = new FormAttachment( 0, 0 );
+    fdlEvictionPolicy.right = new FormAttachment( middle, -margin );
+    fdlEvictionPolicy.top = new FormAttachment( wCacheSize, margin );
+    wlEvictionPolicy.setLayoutData( fdlEvictionPolicy );
+    wEvictionPolicy = new CCombo( comp, SWT.BORDER | SWT.READ_ONLY );
+    wEvictionPolicy.setToolTipText( BaseMessages.getString( PKG, "DimensionLookupDialog.EvictionPolicy.Tooltip" ) );
+    props.setLook( wEvictionPolicy );
+    for ( EvictionPolicy policy : EvictionPolicy.values() ) {
+      wEvictionPolicy.add( BaseMessages.getString( PKG, "DimensionLookupDialog.EvictionPolicy." + policy.name() ) );
+    }
+    wEvictionPolicy.addModifyListener( lsMod );
+    FormData fdEvictionPolicy = new FormData();
+    fdEvictionPolicy.left = new FormAttachment( middle, 0 );
+    fdEvictionPolicy.top = new FormAttachment( wCacheSize, margin );
+    fdEvictionPolicy.right = new FormAttachment( 100, 0 );
+    wEvictionPolicy.setLayoutData( fdEvictionPolicy );
+
+    // Cache memory limit ...
+    wlCacheMemoryLimit = new Label( comp, SWT.RIGHT );
+    wlCacheMemoryLimit.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheMemoryLimit.Label" ) );
+    props.setLook( wlCacheMemoryLimit );
+    FormData fdlCacheMemoryLimit = new FormData();
+    fdlCacheMemoryLimit.left = new FormAttachment( 0, 0 );
+    fdlCacheMemoryLimit.right = new FormAttachment( middle, -margin );
+    fdlCacheMemoryLimit.top = new FormAttachment( wEvictionPolicy, margin );
+    wlCacheMemoryLimit.setLayoutData( fdlCacheMemoryLimit );
+    wCacheMemoryLimit = new TextVar( transMeta, comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wCacheMemoryLimit.setToolTipText(
+      BaseMessages.getString( PKG, "DimensionLookupDialog.CacheMemoryLimit.Tooltip" ) );
+    props.setLook( wCacheMemoryLimit );
+    wCacheMemoryLimit.addModifyListener( lsMod );
+    FormData fdCacheMemoryLimit = new FormData();
+    fdCacheMemoryLimit.left = new FormAttachment( middle, 0 );
+    fdCacheMemoryLimit.top = new FormAttachment( wEvictionPolicy, margin );
+    fdCacheMemoryLimit.right = new FormAttachment( 100, 0 );
+    wCacheMemoryLimit.setLayoutData( fdCacheMemoryLimit );
+
+    // Cache time to live ...
+    wlCacheTimeToLive = new Label( comp, SWT.RIGHT );
+    wlCacheTimeToLive.setText( BaseMessages.getString( PKG, "DimensionLookupDialog.CacheTimeToLive.Label" ) );
+    props.setLook( wlCacheTimeToLive );
+    FormData fdlCacheTimeToLive = new FormData();
+    fdlCacheTimeToLive.left = new FormAttachment( 0, 0 );
+    fdlCacheTimeToLive.right = new FormAttachment( middle, -margin );
+    fdlCacheTimeToLive.top = new FormAttachment( wCacheMemoryLimit, margin );
+    wlCacheTimeToLive.setLayoutData( fdlCacheTimeToLive );
+    wCacheTimeToLive = new TextVar( transMeta, comp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wCacheTimeToLive.setToolTipText(
+      BaseMessages.getString( PKG, "DimensionLookupDialog.CacheTimeToLive.Tooltip" ) );
+    props.setLook( wCacheTimeToLive );
+    wCacheTimeToLive.addModifyListener( lsMod );
+    FormData fdCacheTimeToLive = new FormData();
+    fdCacheTimeToLive.left = new FormAttachment( middle, 0 );
+    fdCacheTimeToLive.top = new FormAttachment( wCacheMemoryLimit, margin );
+    fdCacheTimeToLive.right = new FormAttachment( 100, 0 );
+    wCacheTimeToLive.setLayoutData( fdCacheTimeToLive );
+
     wlTkRename = new Label( comp, SWT.RIGHT );
 
     wTabFolder = new CTabFolder( comp, SWT.BORDER );
@@ -630,7 +747,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
 
     fdTabFolder = new FormData();
     fdTabFolder.left = new FormAttachment( 0, 0 );
-    fdTabFolder.top = new FormAttachment( wCacheSize, margin );
+    fdTabFolder.top = new FormAttachment( wCacheTimeToLive, margin );
     fdTabFolder.right = new FormAttachment( 100, 0 );
     fdTabFolder.height = 200;
     wTabFolder.setLayoutData( fdTabFolder );
@@ -1063,6 +1180,7 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     wSchema.addSelectionListener( lsDef );
     wTable.addSelectionListener( lsDef );
     wCommit.addSelectionListener( lsDef );
+    wBatchSize.addSelectionListener( lsDef );
     wCacheSize.addSelectionListener( lsDef );
     wTk.addSelectionListener( lsDef );
     wTkRename.addSelectionListener( lsDef );
@@ -1191,9 +1309,17 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     //
     wlPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
     wPreloadCache.setEnabled( wUseCache.getSelection() && !wUpdate.getSelection() );
+    wlPreloadCacheFile.setEnabled( wPreloadCache.isEnabled() && wPreloadCache.getSelection() );
+    wPreloadCacheFile.setEnabled( wPreloadCache.isEnabled() && wPreloadCache.getSelection() );
 
     wlCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
     wCacheSize.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
+    wlEvictionPolicy.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
+    wEvictionPolicy.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
+    wlCacheMemoryLimit.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
+    wCacheMemoryLimit.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
+    wlCacheTimeToLive.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
+    wCacheTimeToLive.setEnabled( wUseCache.getSelection() && !wPreloadCache.getSelection() );
 
   }
 
@@ -1359,12 +1485,17 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     }
 
     wCommit.setText( "" + input.getCommitSize() );
+    wBatchSize.setText( "" + input.getBatchSize() );
 
     wUseCache.setSelection( input.getCacheSize() >= 0 );
     wPreloadCache.setSelection( input.isPreloadingCache() );
+    wPreloadCacheFile.setText( Const.NVL( input.getPreloadCacheFile(), "" ) );
     if ( input.getCacheSize() >= 0 ) {
       wCacheSize.setText( "" + input.getCacheSize() );
     }
+    wEvictionPolicy.select( EvictionPolicy.getPolicyByCode( input.getCacheEvictionPolicy() ).ordinal() );
+    wCacheMemoryLimit.setText( Const.NVL( input.getCacheMemoryLimit(), "" ) );
+    wCacheTimeToLive.setText( Const.NVL( input.getCacheTimeToLive(), "" ) );
 
     wMinyear.setText( "" + input.getMinYear() );
     wMaxyear.setText( "" + input.getMaxYear() );
@@ -1479,13 +1610,19 @@ public class DimensionLookupDialog extends BaseStepDialog implements StepDialogI
     in.setDateTo( wTodate.getText() );
 
     in.setCommitSize( Const.toInt( wCommit.getText(), 0 ) );
+    in.setBatchSize( Const.toInt( wBatchSize.getText(), 0 ) );
 
     if ( wUseCache.getSelection() ) {
       in.setCacheSize( Const.toInt( wCacheSize.getText(), -1 ) );
     } else {
       in.setCacheSize( -1 );
     }
+    int policyIndex = Math.max( 0, wEvictionPolicy.getSelectionIndex() );
+    in.setCacheEvictionPolicy( EvictionPolicy.values()[ policyIndex ].getCode() );
+    in.setCacheMemoryLimit( wCacheMemoryLimit.getText() );
+    in.setCacheTimeToLive( wCacheTimeToLive.getText() );
     in.setPreloadingCache( wPreloadCache.getSelection() );
+    in.setPreloadCacheFile( wPreloadCacheFile.getText() );
     if ( wPreloadCache.getSelection() ) {
       in.setCacheSize( 0 );
     }
@@ -147,6 +147,15 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
   private Label wlCloseIdleConnectionsTime;
   private TextVar wCloseIdleConnectionsTime;
 
+  private Label wlAsynchronous;
+  private Button wAsynchronous;
+
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+
+  private Label wlPreserveOrder;
+  private Button wPreserveOrder;
+
   public HTTPDialog( Shell parent, Object in, TransMeta transMeta, String sname ) {
     super( parent, (BaseStepMeta) in, transMeta, sname );
     input = (HTTPMeta) in;
@@ -397,6 +406,69 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     fdCloseIdleConnectionsTime.right = new FormAttachment( 100, 0 );
     wCloseIdleConnectionsTime.setLayoutData( fdCloseIdleConnectionsTime );
 
+    wlAsynchronous = new Label( gSettings, SWT.RIGHT );
+    wlAsynchronous.setText( BaseMessages.getString( PKG, "HTTPDialog.Asynchronous.Label" ) );
+    props.setLook( wlAsynchronous );
+    FormData fdlAsynchronous = new FormData();
+    fdlAsynchronous.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdlAsynchronous.left = new FormAttachment( 0, 0 );
+    fdlAsynchronous.right = new FormAttachment( middle, -margin );
+    wlAsynchronous.setLayoutData( fdlAsynchronous );
+    wAsynchronous = new Button( gSettings, SWT.CHECK );
+    wAsynchronous.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.Asynchronous.Tooltip" ) );
+    props.setLook( wAsynchronous );
+    FormData fdAsynchronous = new FormData();
+    fdAsynchronous.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdAsynchronous.left = new FormAttachment( middle, 0 );
+    fdAsynchronous.right = new FormAttachment( 100, 0 );
+    wAsynchronous.setLayoutData( fdAsynchronous );
+    wAsynchronous.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        activeAsynchronous();
+      }
+    } );
+
+    wlConcurrentRequests = new Label( gSettings, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "HTTPDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.top = new FormAttachment( wAsynchronous, margin );
+    fdlConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlConcurrentRequests.setLayoutData( fdlConcurrentRequests );
+    wConcurrentRequests = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.addModifyListener( lsMod );
+    wConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment( wAsynchronous, margin );
+    fdConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wConcurrentRequests.setLayoutData( fdConcurrentRequests );
+
+    wlPreserveOrder = new Label( gSettings, SWT.RIGHT );
+    wlPreserveOrder.setText( BaseMessages.getString( PKG, "HTTPDialog.PreserveOrder.Label" ) );
+    props.setLook( wlPreserveOrder );
+    FormData fdlPreserveOrder = new FormData();
+    fdlPreserveOrder.top = new FormAttachment( wConcurrentRequests, margin );
+    fdlPreserveOrder.left = new FormAttachment( 0, 0 );
+    fdlPreserveOrder.right = new FormAttachment( middle, -margin );
+    wlPreserveOrder.setLayoutData( fdlPreserveOrder );
+    wPreserveOrder = new Button( gSettings, SWT.CHECK );
+    wPreserveOrder.setToolTipText( BaseMessages.getString( PKG, "HTTPDialog.PreserveOrder.Tooltip" ) );
+    props.setLook( wPreserveOrder );
+    FormData fdPreserveOrder = new FormData();
+    fdPreserveOrder.top = new FormAttachment( wConcurrentRequests, margin );
+    fdPreserveOrder.left = new FormAttachment( middle, 0 );
+    fdPreserveOrder.right = new FormAttachment( 100, 0 );
+    wPreserveOrder.setLayoutData( fdPreserveOrder );
+    wPreserveOrder.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, 0 );
     fdSettings.right = new FormAttachment( 100, 0 );
@@ -828,6 +900,7 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     setSize();
 
     getData();
+    activeAsynchronous();
     wTabFolder.setSelection( 0 );
     activeUrlInfield();
     input.setChanged( changed );
@@ -880,6 +953,14 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     colinfHeaders[0].setComboValues( fieldNames );
   }
 
+  private void activeAsynchronous() {
+    boolean asynchronous = wAsynchronous.getSelection();
+    wlConcurrentRequests.setEnabled( asynchronous );
+    wConcurrentRequests.setEnabled( asynchronous );
+    wlPreserveOrder.setEnabled( asynchronous );
+    wPreserveOrder.setEnabled( asynchronous );
+  }
+
   private void activeUrlInfield() {
     wlUrlField.setEnabled( wUrlInField.getSelection() );
     wUrlField.setEnabled( wUrlInField.getSelection() );
@@ -917,6 +998,9 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     wSocketTimeOut.setText( Const.NVL( input.getSocketTimeout(), "" ) );
     wConnectionTimeOut.setText( Const.NVL( input.getConnectionTimeout(), "" ) );
     wCloseIdleConnectionsTime.setText( Const.NVL( input.getCloseIdleConnectionsTime(), "" ) );
+    wAsynchronous.setSelection( input.isAsynchronous() );
+    wConcurrentRequests.setText( Const.NVL( input.getConcurrentRequests(), "" ) );
+    wPreserveOrder.setSelection( input.isPreserveOrder() );
 
     wUrl.setText( Const.NVL( input.getUrl(), "" ) );
     wUrlInField.setSelection( input.isUrlInField() );
@@ -1006,6 +1090,9 @@ public class HTTPDialog extends BaseStepDialog implements StepDialogInterface {
     input.setSocketTimeout( wSocketTimeOut.getText() );
     input.setConnectionTimeout( wConnectionTimeOut.getText() );
     input.setCloseIdleConnectionsTime( wCloseIdleConnectionsTime.getText() );
+    input.setAsynchronous( wAsynchronous.getSelection() );
+    input.setConcurrentRequests( wConcurrentRequests.getText() );
+    input.setPreserveOrder( wPreserveOrder.getSelection() );
 
     stepname = wStepname.getText(); // return value
 
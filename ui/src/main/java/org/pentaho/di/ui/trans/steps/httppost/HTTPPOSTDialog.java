@@ -167,6 +167,15 @@ public class HTTPPOSTDialog extends BaseStepDialog implements StepDialogInterfac
   private Label wlCloseIdleConnectionsTime;
   private TextVar wCloseIdleConnectionsTime;
 
+  private Label wlAsynchronous;
+  private Button wAsynchronous;
+
+  private Label wlConcurrentRequests;
+  private TextVar wConcurrentRequests;
+
+  private Label wlPreserveOrder;
+  private Button wPreserveOrder;
+
   public HTTPPOSTDialog( Shell parent, Object in, TransMeta transMeta, String sname ) {
     super( parent, (BaseStepMeta) in, transMeta, sname );
     input = (HTTPPOSTMeta) in;
@@ -456,6 +465,69 @@ public class HTTPPOSTDialog extends BaseStepDialog implements StepDialogInterfac
     fdCloseIdleConnectionsTime.right = new FormAttachment( 100, 0 );
     wCloseIdleConnectionsTime.setLayoutData( fdCloseIdleConnectionsTime );
 
+    wlAsynchronous = new Label( gSettings, SWT.RIGHT );
+    wlAsynchronous.setText( BaseMessages.getString( PKG, "HTTPPOSTDialog.Asynchronous.Label" ) );
+    props.setLook( wlAsynchronous );
+    FormData fdlAsynchronous = new FormData();
+    fdlAsynchronous.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdlAsynchronous.left = new FormAttachment( 0, 0 );
+    fdlAsynchronous.right = new FormAttachment( middle, -margin );
+    wlAsynchronous.setLayoutData( fdlAsynchronous );
+    wAsynchronous = new Button( gSettings, SWT.CHECK );
+    wAsynchronous.setToolTipText( BaseMessages.getString( PKG, "HTTPPOSTDialog.Asynchronous.Tooltip" ) );
+    props.setLook( wAsynchronous );
+    FormData fdAsynchronous = new FormData();
+    fdAsynchronous.top = new FormAttachment( wCloseIdleConnectionsTime, margin );
+    fdAsynchronous.left = new FormAttachment( middle, 0 );
+    fdAsynchronous.right = new FormAttachment( 100, 0 );
+    wAsynchronous.setLayoutData( fdAsynchronous );
+    wAsynchronous.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        activeAsynchronous();
+      }
+    } );
+
+    wlConcurrentRequests = new Label( gSettings, SWT.RIGHT );
+    wlConcurrentRequests.setText( BaseMessages.getString( PKG, "HTTPPOSTDialog.ConcurrentRequests.Label" ) );
+    props.setLook( wlConcurrentRequests );
+    FormData fdlConcurrentRequests = new FormData();
+    fdlConcurrentRequests.top = new FormAttachment( wAsynchronous, margin );
+    fdlConcurrentRequests.left = new FormAttachment( 0, 0 );
+    fdlConcurrentRequests.right = new FormAttachment( middle, -margin );
+    wlConcurrentRequests.setLayoutData( fdlConcurrentRequests );
+    wConcurrentRequests = new TextVar( transMeta, gSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wConcurrentRequests.addModifyListener( lsMod );
+    wConcurrentRequests.setToolTipText( BaseMessages.getString( PKG, "HTTPPOSTDialog.ConcurrentRequests.Tooltip" ) );
+    props.setLook( wConcurrentRequests );
+    FormData fdConcurrentRequests = new FormData();
+    fdConcurrentRequests.top = new FormAttachment( wAsynchronous, margin );
+    fdConcurrentRequests.left = new FormAttachment( middle, 0 );
+    fdConcurrentRequests.right = new FormAttachment( 100, 0 );
+    wConcurrentRequests.setLayoutData( fdConcurrentRequests );
+
+    wlPreserveOrder = new Label( gSettings, SWT.RIGHT );
+    wlPreserveOrder.setText( BaseMessages.getString( PKG, "HTTPPOSTDialog.PreserveOrder.Label" ) );
+    props.setLook( wlPreserveOrder );
+    FormData fdlPreserveOrder = new FormData();
+    fdlPreserveOrder.top = new FormAttachment( wConcurrentRequests, margin );
+    fdlPreserveOrder.left = new FormAttachment( 0, 0 );
+    fdlPreserveOrder.right = new FormAttachment( middle, -margin );
+    wlPreserveOrder.setLayoutData( fdlPreserveOrder );
+    wPreserveOrder = new Button( gSettings, SWT.CHECK );
+    wPreserveOrder.setToolTipText( BaseMessages.getString( PKG, "HTTPPOSTDialog.PreserveOrder.Tooltip" ) );
+    props.setLook( wPreserveOrder );
+    FormData fdPreserveOrder = new FormData();
+    fdPreserveOrder.top = new FormAttachment( wConcurrentRequests, margin );
+    fdPreserveOrder.left = new FormAttachment( middle, 0 );
+    fdPreserveOrder.right = new FormAttachment( 100, 0 );
+    wPreserveOrder.setLayoutData( fdPreserveOrder );
+    wPreserveOrder.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     FormData fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, 0 );
     fdSettings.right = new FormAttachment( 100, 0 );
@@ -888,6 +960,7 @@ public class HTTPPOSTDialog extends BaseStepDialog implements StepDialogInterfac
     setSize();
     wTabFolder.setSelection( 0 );
     getData();
+    activeAsynchronous();
     activeUrlInfield();
     input.setChanged( changed );
 
@@ -959,6 +1032,14 @@ public class HTTPPOSTDialog extends BaseStepDialog implements StepDialogInterfac
     }
   }
 
+  private void activeAsynchronous() {
+    boolean asynchronous = wAsynchronous.getSelection();
+    wlConcurrentRequests.setEnabled( asynchronous );
+    wConcurrentRequests.setEnabled( asynchronous );
+    wlPreserveOrder.setEnabled( asynchronous );
+    wPreserveOrder.setEnabled( asynchronous );
+  }
+
   private void activeUrlInfield() {
     wlUrlField.setEnabled( wUrlInField.getSelection() );
     wUrlField.setEnabled( wUrlInField.getSelection() );
@@ -1040,6 +1121,9 @@ public class HTTPPOSTDialog extends BaseStepDialog implements StepDialogInterfac
     wSocketTimeOut.setText( Const.NVL( input.getSocketTimeout(), "" ) );
     wConnectionTimeOut.setText( Const.NVL( input.getConnectionTimeout(), "" ) );
     wCloseIdleConnectionsTime.setText( Const.NVL( input.getCloseIdleConnectionsTime(), "" ) );
+    wAsynchronous.setSelection( input.isAsynchronous() );
+    wConcurrentRequests.setText( Const.NVL( input.getConcurrentRequests(), "" ) );
+    wPreserveOrder.setSelection( input.isPreserveOrder() );
 
     wFields.setRowNums();
     wFields.optWidth( true );
@@ -1104,6 +1188,9 @@ public class HTTPPOSTDialog extends BaseStepDialog implements StepDialogInterfac
     input.setSocketTimeout( wSocketTimeOut.getText() );
     input.setConnectionTimeout( wConnectionTimeOut.getText() );
     input.setCloseIdleConnectionsTime( wCloseIdleConnectionsTime.getText() );
+    input.setAsynchronous( wAsynchronous.getSelection() );
+    input.setConcurrentRequests( wConcurrentRequests.getText() );
+    input.setPreserveOrder( wPreserveOrder.getSelection() );
 
     stepname = wStepname.getText(); // return value
 
@@ -104,6 +104,8 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Label wlPreparedInstances;
+  private TextVar wPreparedInstances;
 
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
@@ -440,6 +442,7 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
 
     wGroupSize.setText( Const.NVL( jobExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( jobExecutorMeta.getGroupTime(), "" ) );
+    wPreparedInstances.setText( Const.NVL( jobExecutorMeta.getPreparedInstances(), "" ) );
     wGroupField.setText( Const.NVL( jobExecutorMeta.getGroupField(), "" ) );
 
     wExecutionResultTarget.setText( jobExecutorMeta.getExecutionResultTargetStepMeta() == null
@@ -722,6 +725,27 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Prepared instances
+    //
+    wlPreparedInstances = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlPreparedInstances );
+    wlPreparedInstances.setText( BaseMessages.getString( PKG, "JobExecutorDialog.PreparedInstances.Label" ) );
+    wlPreparedInstances.setToolTipText( BaseMessages.getString( PKG, "JobExecutorDialog.PreparedInstances.Tooltip" ) );
+    FormData fdlPreparedInstances = new FormData();
+    fdlPreparedInstances.top = new FormAttachment( wGroupTime, 10 );
+    fdlPreparedInstances.left = new FormAttachment( 0, 0 );
+    wlPreparedInstances.setLayoutData( fdlPreparedInstances );
+
+    wPreparedInstances = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPreparedInstances );
+    wPreparedInstances.setToolTipText( BaseMessages.getString( PKG, "JobExecutorDialog.PreparedInstances.Tooltip" ) );
+    wPreparedInstances.addModifyListener( lsMod );
+    FormData fdPreparedInstances = new FormData();
+    fdPreparedInstances.width = 250;
+    fdPreparedInstances.top = new FormAttachment( wlPreparedInstances, 5 );
+    fdPreparedInstances.left = new FormAttachment( 0, 0 );
+    wPreparedInstances.setLayoutData( fdPreparedInstances );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -1098,6 +1122,7 @@ public class JobExecutorDialog extends BaseStepDialog implements StepDialogInter
     jobExecutorMeta.setGroupSize( wGroupSize.getText() );
     jobExecutorMeta.setGroupField( wGroupField.getText() );
     jobExecutorMeta.setGroupTime( wGroupTime.getText() );
+    jobExecutorMeta.setPreparedInstances( wPreparedInstances.getText() );
 
     jobExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     jobExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );
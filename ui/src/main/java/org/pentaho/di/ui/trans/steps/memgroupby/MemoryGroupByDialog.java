@@ -51,6 +51,7 @@ import org.pentaho.di.trans.steps.memgroupby.MemoryGroupByMeta;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInterface {
@@ -68,6 +69,11 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
   private Button wAlwaysAddResult;
   private FormData fdlAlwaysAddResult, fdAlwaysAddResult;
 
+  private Button wMergingCopies;
+  private TextVar wSpillSize;
+  private TextVar wDirectory;
+  private TextVar wPrefix;
+
   private Button wGet, wGetAgg;
   private FormData fdGet, fdGetAgg;
   private Listener lsGet, lsGetAgg;
@@ -159,12 +165,88 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     wAlwaysAddResult.setLayoutData( fdAlwaysAddResult );
     wAlwaysAddResult.addSelectionListener( lsSel );
 
+    // Merge the groups of the step copies
+    Label wlMergingCopies = new Label( shell, SWT.RIGHT );
+    wlMergingCopies.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MergingCopies.Label" ) );
+    wlMergingCopies.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MergingCopies.ToolTip" ) );
+    props.setLook( wlMergingCopies );
+    FormData fdlMergingCopies = new FormData();
+    fdlMergingCopies.left = new FormAttachment( 0, 0 );
+    fdlMergingCopies.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlMergingCopies.right = new FormAttachment( middle, -margin );
+    wlMergingCopies.setLayoutData( fdlMergingCopies );
+    wMergingCopies = new Button( shell, SWT.CHECK );
+    wMergingCopies.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.MergingCopies.ToolTip" ) );
+    props.setLook( wMergingCopies );
+    FormData fdMergingCopies = new FormData();
+    fdMergingCopies.left = new FormAttachment( middle, 0 );
+    fdMergingCopies.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdMergingCopies.right = new FormAttachment( 100, 0 );
+    wMergingCopies.setLayoutData( fdMergingCopies );
+    wMergingCopies.addSelectionListener( lsSel );
+
+    // Maximum number of groups in memory
+    Label wlSpillSize = new Label( shell, SWT.RIGHT );
+    wlSpillSize.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillSize.Label" ) );
+    wlSpillSize.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillSize.ToolTip" ) );
+    props.setLook( wlSpillSize );
+    FormData fdlSpillSize = new FormData();
+    fdlSpillSize.left = new FormAttachment( 0, 0 );
+    fdlSpillSize.top = new FormAttachment( wMergingCopies, margin );
+    fdlSpillSize.right = new FormAttachment( middle, -margin );
+    wlSpillSize.setLayoutData( fdlSpillSize );
+    wSpillSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSpillSize.setToolTipText( BaseMessages.getString( PKG, "MemoryGroupByDialog.SpillSize.ToolTip" ) );
+    props.setLook( wSpillSize );
+    wSpillSize.addModifyListener( lsMod );
+    FormData fdSpillSize = new FormData();
+    fdSpillSize.left = new FormAttachment( middle, 0 );
+    fdSpillSize.top = new FormAttachment( wMergingCopies, margin );
+    fdSpillSize.right = new FormAttachment( 100, 0 );
+    wSpillSize.setLayoutData( fdSpillSize );
+
+    // Temporary directory for the spilled groups
+    Label wlDirectory = new Label( shell, SWT.RIGHT );
+    wlDirectory.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Directory.Label" ) );
+    props.setLook( wlDirectory );
+    FormData fdlDirectory = new FormData();
+    fdlDirectory.left = new FormAttachment( 0, 0 );
+    fdlDirectory.top = new FormAttachment( wSpillSize, margin );
+    fdlDirectory.right = new FormAttachment( middle, -margin );
+    wlDirectory.setLayoutData( fdlDirectory );
+    wDirectory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wDirectory );
+    wDirectory.addModifyListener( lsMod );
+    FormData fdDirectory = new FormData();
+    fdDirectory.left = new FormAttachment( middle, 0 );
+    fdDirectory.top = new FormAttachment( wSpillSize, margin );
+    fdDirectory.right = new FormAttachment( 100, 0 );
+    wDirectory.setLayoutData( fdDirectory );
+
+    // Prefix of the temporary files
+    Label wlPrefix = new Label( shell, SWT.RIGHT );
+    wlPrefix.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Prefix.Label" ) );
+    props.setLook( wlPrefix );
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment( 0, 0 );
+    fdlPrefix.top = new FormAttachment( wDirectory, margin );
+    fdlPrefix.right = new FormAttachment( middle, -margin );
+    wlPrefix.setLayoutData( fdlPrefix );
+    wPrefix = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPrefix );
+    wPrefix.addModifyListener( lsMod );
+    FormData fdPrefix = new FormData();
+    fdPrefix.left = new FormAttachment( middle, 0 );
+    fdPrefix.top = new FormAttachment( wDirectory, margin );
+    fdPrefix.right = new FormAttachment( 100, 0 );
+    wPrefix.setLayoutData( fdPrefix );
+
     wlGroup = new Label( shell, SWT.NONE );
     wlGroup.setText( BaseMessages.getString( PKG, "MemoryGroupByDialog.Group.Label" ) );
     props.setLook( wlGroup );
     fdlGroup = new FormData();
     fdlGroup.left = new FormAttachment( 0, 0 );
-    fdlGroup.top = new FormAttachment( wAlwaysAddResult, margin );
+    fdlGroup.top = new FormAttachment( wPrefix, margin );
     wlGroup.setLayoutData( fdlGroup );
 
     int nrKeyCols = 1;
@@ -366,6 +448,10 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     logDebug( BaseMessages.getString( PKG, "MemoryGroupByDialog.Log.GettingKeyInfo" ) );
 
     wAlwaysAddResult.setSelection( input.isAlwaysGivingBackOneRow() );
+    wMergingCopies.setSelection( input.isMergingCopies() );
+    wSpillSize.setText( Const.NVL( input.getSpillSize(), "" ) );
+    wDirectory.setText( Const.NVL( input.getDirectory(), "" ) );
+    wPrefix.setText( Const.NVL( input.getPrefix(), "" ) );
 
     if ( input.getGroupField() != null ) {
       for ( int i = 0; i < input.getGroupField().length; i++ ) {
@@ -416,6 +502,10 @@ public class MemoryGroupByDialog extends BaseStepDialog implements StepDialogInt
     int nrfields = wAgg.nrNonEmpty();
 
     input.setAlwaysGivingBackOneRow( wAlwaysAddResult.getSelection() );
+    input.setMergingCopies( wMergingCopies.getSelection() );
+    input.setSpillSize( wSpillSize.getText() );
+    input.setDirectory( wDirectory.getText() );
+    input.setPrefix( wPrefix.getText() );
 
     input.allocate( sizegroup, nrfields );
 
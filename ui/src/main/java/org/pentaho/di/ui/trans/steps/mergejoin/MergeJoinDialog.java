@@ -51,6 +51,7 @@ import org.pentaho.di.ui.core.dialog.ErrorDialog;
 import org.pentaho.di.ui.core.gui.GUIResource;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterface {
@@ -70,6 +71,11 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
   private CCombo wType;
   private FormData fdlType, fdType;
 
+  private Button wHashJoin;
+  private TextVar wSpillSize;
+  private TextVar wDirectory;
+  private TextVar wPrefix;
+
   private Label wlKeys1;
   private TableView wKeys1;
   private Button wbKeys1;
@@ -201,13 +207,94 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     fdType.right = new FormAttachment( 100, 0 );
     wType.setLayoutData( fdType );
 
+    // Join through a hash table?
+    Label wlHashJoin = new Label( shell, SWT.RIGHT );
+    wlHashJoin.setText( BaseMessages.getString( PKG, "MergeJoinDialog.HashJoin.Label" ) );
+    wlHashJoin.setToolTipText( BaseMessages.getString( PKG, "MergeJoinDialog.HashJoin.Tooltip" ) );
+    props.setLook( wlHashJoin );
+    FormData fdlHashJoin = new FormData();
+    fdlHashJoin.left = new FormAttachment( 0, 0 );
+    fdlHashJoin.right = new FormAttachment( middle, -margin );
+    fdlHashJoin.top = new FormAttachment( wType, margin );
+    wlHashJoin.setLayoutData( fdlHashJoin );
+    wHashJoin = new Button( shell, SWT.CHECK );
+    wHashJoin.setToolTipText( BaseMessages.getString( PKG, "MergeJoinDialog.HashJoin.Tooltip" ) );
+    props.setLook( wHashJoin );
+    FormData fdHashJoin = new FormData();
+    fdHashJoin.top = new FormAttachment( wType, margin );
+    fdHashJoin.left = new FormAttachment( middle, 0 );
+    fdHashJoin.right = new FormAttachment( 100, 0 );
+    wHashJoin.setLayoutData( fdHashJoin );
+    wHashJoin.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        setFlags();
+      }
+    } );
+
+    // Maximum number of rows in memory
+    Label wlSpillSize = new Label( shell, SWT.RIGHT );
+    wlSpillSize.setText( BaseMessages.getString( PKG, "MergeJoinDialog.SpillSize.Label" ) );
+    wlSpillSize.setToolTipText( BaseMessages.getString( PKG, "MergeJoinDialog.SpillSize.Tooltip" ) );
+    props.setLook( wlSpillSize );
+    FormData fdlSpillSize = new FormData();
+    fdlSpillSize.left = new FormAttachment( 0, 0 );
+    fdlSpillSize.right = new FormAttachment( middle, -margin );
+    fdlSpillSize.top = new FormAttachment( wHashJoin, margin );
+    wlSpillSize.setLayoutData( fdlSpillSize );
+    wSpillSize = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSpillSize.setToolTipText( BaseMessages.getString( PKG, "MergeJoinDialog.SpillSize.Tooltip" ) );
+    props.setLook( wSpillSize );
+    wSpillSize.addModifyListener( lsMod );
+    FormData fdSpillSize = new FormData();
+    fdSpillSize.top = new FormAttachment( wHashJoin, margin );
+    fdSpillSize.left = new FormAttachment( middle, 0 );
+    fdSpillSize.right = new FormAttachment( 100, 0 );
+    wSpillSize.setLayoutData( fdSpillSize );
+
+    // Directory of the temporary files
+    Label wlDirectory = new Label( shell, SWT.RIGHT );
+    wlDirectory.setText( BaseMessages.getString( PKG, "MergeJoinDialog.Directory.Label" ) );
+    props.setLook( wlDirectory );
+    FormData fdlDirectory = new FormData();
+    fdlDirectory.left = new FormAttachment( 0, 0 );
+    fdlDirectory.right = new FormAttachment( middle, -margin );
+    fdlDirectory.top = new FormAttachment( wSpillSize, margin );
+    wlDirectory.setLayoutData( fdlDirectory );
+    wDirectory = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wDirectory );
+    wDirectory.addModifyListener( lsMod );
+    FormData fdDirectory = new FormData();
+    fdDirectory.top = new FormAttachment( wSpillSize, margin );
+    fdDirectory.left = new FormAttachment( middle, 0 );
+    fdDirectory.right = new FormAttachment( 100, 0 );
+    wDirectory.setLayoutData( fdDirectory );
+
+    // Prefix of the temporary files
+    Label wlPrefix = new Label( shell, SWT.RIGHT );
+    wlPrefix.setText( BaseMessages.getString( PKG, "MergeJoinDialog.Prefix.Label" ) );
+    props.setLook( wlPrefix );
+    FormData fdlPrefix = new FormData();
+    fdlPrefix.left = new FormAttachment( 0, 0 );
+    fdlPrefix.right = new FormAttachment( middle, -margin );
+    fdlPrefix.top = new FormAttachment( wDirectory, margin );
+    wlPrefix.setLayoutData( fdlPrefix );
+    wPrefix = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPrefix );
+    wPrefix.addModifyListener( lsMod );
+    FormData fdPrefix = new FormData();
+    fdPrefix.top = new FormAttachment( wDirectory, margin );
+    fdPrefix.left = new FormAttachment( middle, 0 );
+    fdPrefix.right = new FormAttachment( 100, 0 );
+    wPrefix.setLayoutData( fdPrefix );
+
     // THE KEYS TO MATCH for first step...
     wlKeys1 = new Label( shell, SWT.NONE );
     wlKeys1.setText( BaseMessages.getString( PKG, "MergeJoinDialog.Keys1.Label" ) );
     props.setLook( wlKeys1 );
     fdlKeys1 = new FormData();
     fdlKeys1.left = new FormAttachment( 0, 0 );
-    fdlKeys1.top = new FormAttachment( wType, margin );
+    fdlKeys1.top = new FormAttachment( wPrefix, margin );
     wlKeys1.setLayoutData( fdlKeys1 );
 
     int nrKeyRows1 = ( input.getKeyFields1() != null ? input.getKeyFields1().length : 1 );
@@ -249,7 +336,7 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     props.setLook( wlKeys2 );
     fdlKeys2 = new FormData();
     fdlKeys2.left = new FormAttachment( 50, 0 );
-    fdlKeys2.top = new FormAttachment( wType, margin );
+    fdlKeys2.top = new FormAttachment( wPrefix, margin );
     wlKeys2.setLayoutData( fdlKeys2 );
 
     int nrKeyRows2 = ( input.getKeyFields2() != null ? input.getKeyFields2().length : 1 );
@@ -352,6 +439,11 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     } else {
       wType.setText( MergeJoinMeta.join_types[0] );
     }
+    wHashJoin.setSelection( input.isHashJoin() );
+    wSpillSize.setText( Const.NVL( input.getSpillSize(), "" ) );
+    wDirectory.setText( Const.NVL( input.getDirectory(), "" ) );
+    wPrefix.setText( Const.NVL( input.getPrefix(), "" ) );
+    setFlags();
 
     for ( int i = 0; i < input.getKeyFields1().length; i++ ) {
       TableItem item = wKeys1.table.getItem( i );
@@ -370,6 +462,13 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     wStepname.setFocus();
   }
 
+  private void setFlags() {
+    // Only a hash join keeps rows in memory
+    wSpillSize.setEnabled( wHashJoin.getSelection() );
+    wDirectory.setEnabled( wHashJoin.getSelection() );
+    wPrefix.setEnabled( wHashJoin.getSelection() );
+  }
+
   private void cancel() {
     stepname = null;
     input.setChanged( backupChanged );
@@ -382,6 +481,10 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
     infoStreams.get( 0 ).setStepMeta( transMeta.findStep( wStep1.getText() ) );
     infoStreams.get( 1 ).setStepMeta( transMeta.findStep( wStep2.getText() ) );
     meta.setJoinType( wType.getText() );
+    meta.setHashJoin( wHashJoin.getSelection() );
+    meta.setSpillSize( wSpillSize.getText() );
+    meta.setDirectory( wDirectory.getText() );
+    meta.setPrefix( wPrefix.getText() );
 
     int nrKeys1 = wKeys1.nrNonEmpty();
     int nrKeys2 = wKeys2.nrNonEmpty();
@@ -408,9 +511,9 @@ public class MergeJoinDialog extends BaseStepDialog implements StepDialogInterfa
 
     getMeta( input );
 
-    // Show a warning (optional)
+    // Show a warning (optional), a hash join doesn't need sorted input
     //
-    if ( "Y".equalsIgnoreCase( props.getCustomParameter( STRING_SORT_WARNING_PARAMETER, "Y" ) ) ) {
+    if ( !input.isHashJoin() && "Y".equalsIgnoreCase( props.getCustomParameter( STRING_SORT_WARNING_PARAMETER, "Y" ) ) ) {
       MessageDialogWithToggle md =
         new MessageDialogWithToggle( shell,
           BaseMessages.getString( PKG, "MergeJoinDialog.InputNeedSort.DialogTitle" ),
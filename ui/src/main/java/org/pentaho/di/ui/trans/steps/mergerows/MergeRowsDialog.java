@@ -69,6 +69,14 @@ public class MergeRowsDialog extends BaseStepDialog implements StepDialogInterfa
   private Text wFlagfield;
   private FormData fdlFlagfield, fdFlagfield;
 
+  private Label wlReferenceUnsorted;
+  private Button wReferenceUnsorted;
+  private FormData fdlReferenceUnsorted, fdReferenceUnsorted;
+
+  private Label wlPreserveMemory;
+  private Button wPreserveMemory;
+  private FormData fdlPreserveMemory, fdPreserveMemory;
+
   private Label wlKeys;
   private TableView wKeys;
   private Button wbKeys;
@@ -197,13 +205,57 @@ public class MergeRowsDialog extends BaseStepDialog implements StepDialogInterfa
     fdFlagfield.right = new FormAttachment( 100, 0 );
     wFlagfield.setLayoutData( fdFlagfield );
 
+    wlReferenceUnsorted = new Label( shell, SWT.RIGHT );
+    wlReferenceUnsorted.setText( BaseMessages.getString( PKG, "MergeRowsDialog.ReferenceUnsorted.Label" ) );
+    wlReferenceUnsorted.setToolTipText( BaseMessages.getString( PKG, "MergeRowsDialog.ReferenceUnsorted.Tooltip" ) );
+    props.setLook( wlReferenceUnsorted );
+    fdlReferenceUnsorted = new FormData();
+    fdlReferenceUnsorted.left = new FormAttachment( 0, 0 );
+    fdlReferenceUnsorted.top = new FormAttachment( wFlagfield, margin );
+    fdlReferenceUnsorted.right = new FormAttachment( middle, -margin );
+    wlReferenceUnsorted.setLayoutData( fdlReferenceUnsorted );
+    wReferenceUnsorted = new Button( shell, SWT.CHECK );
+    props.setLook( wReferenceUnsorted );
+    fdReferenceUnsorted = new FormData();
+    fdReferenceUnsorted.left = new FormAttachment( middle, 0 );
+    fdReferenceUnsorted.top = new FormAttachment( wFlagfield, margin );
+    fdReferenceUnsorted.right = new FormAttachment( 100, 0 );
+    wReferenceUnsorted.setLayoutData( fdReferenceUnsorted );
+    wReferenceUnsorted.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+        wPreserveMemory.setEnabled( wReferenceUnsorted.getSelection() );
+      }
+    } );
+
+    wlPreserveMemory = new Label( shell, SWT.RIGHT );
+    wlPreserveMemory.setText( BaseMessages.getString( PKG, "MergeRowsDialog.PreserveMemory.Label" ) );
+    props.setLook( wlPreserveMemory );
+    fdlPreserveMemory = new FormData();
+    fdlPreserveMemory.left = new FormAttachment( 0, 0 );
+    fdlPreserveMemory.top = new FormAttachment( wReferenceUnsorted, margin );
+    fdlPreserveMemory.right = new FormAttachment( middle, -margin );
+    wlPreserveMemory.setLayoutData( fdlPreserveMemory );
+    wPreserveMemory = new Button( shell, SWT.CHECK );
+    props.setLook( wPreserveMemory );
+    fdPreserveMemory = new FormData();
+    fdPreserveMemory.left = new FormAttachment( middle, 0 );
+    fdPreserveMemory.top = new FormAttachment( wReferenceUnsorted, margin );
+    fdPreserveMemory.right = new FormAttachment( 100, 0 );
+    wPreserveMemory.setLayoutData( fdPreserveMemory );
+    wPreserveMemory.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent e ) {
+        input.setChanged();
+      }
+    } );
+
     // THE KEYS TO MATCH...
     wlKeys = new Label( shell, SWT.NONE );
     wlKeys.setText( BaseMessages.getString( PKG, "MergeRowsDialog.Keys.Label" ) );
     props.setLook( wlKeys );
     fdlKeys = new FormData();
     fdlKeys.left = new FormAttachment( 0, 0 );
-    fdlKeys.top = new FormAttachment( wFlagfield, margin );
+    fdlKeys.top = new FormAttachment( wPreserveMemory, margin );
     wlKeys.setLayoutData( fdlKeys );
 
     int nrKeyRows = ( input.getKeyFields() != null ? input.getKeyFields().length : 1 );
@@ -345,6 +397,9 @@ public class MergeRowsDialog extends BaseStepDialog implements StepDialogInterfa
     if ( input.getFlagField() != null ) {
       wFlagfield.setText( input.getFlagField() );
     }
+    wReferenceUnsorted.setSelection( input.isReferenceUnsorted() );
+    wPreserveMemory.setSelection( input.isMemoryPreservationActive() );
+    wPreserveMemory.setEnabled( input.isReferenceUnsorted() );
 
     for ( int i = 0; i < input.getKeyFields().length; i++ ) {
       TableItem item = wKeys.table.getItem( i );
@@ -378,6 +433,8 @@ public class MergeRowsDialog extends BaseStepDialog implements StepDialogInterfa
     infoStreams.get( 0 ).setStepMeta( transMeta.findStep( wReference.getText() ) );
     infoStreams.get( 1 ).setStepMeta( transMeta.findStep( wCompare.getText() ) );
     input.setFlagField( wFlagfield.getText() );
+    input.setReferenceUnsorted( wReferenceUnsorted.getSelection() );
+    input.setMemoryPreservationActive( wPreserveMemory.getSelection() );
 
     int nrKeys = wKeys.nrNonEmpty();
     int nrValues = wValues.nrNonEmpty();
@@ -399,7 +456,8 @@ public class MergeRowsDialog extends BaseStepDialog implements StepDialogInterfa
     stepname = wStepname.getText(); // return value
 
     // PDI-13509 Fix
-    if ( nrKeys > 0 && "Y".equalsIgnoreCase( props.getCustomParameter( STRING_SORT_WARNING_PARAMETER, "Y" ) ) ) {
+    if ( nrKeys > 0 && !input.isReferenceUnsorted()
+      && "Y".equalsIgnoreCase( props.getCustomParameter( STRING_SORT_WARNING_PARAMETER, "Y" ) ) ) {
       MessageDialogWithToggle md =
         new MessageDialogWithToggle( shell,
           BaseMessages.getString( PKG, "MergeRowsDialog.MergeRowsWarningDialog.DialogTitle" ), null,
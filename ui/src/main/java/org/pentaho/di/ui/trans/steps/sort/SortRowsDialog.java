@@ -43,6 +43,7 @@ import org.pentaho.di.core.Const;
 import org.pentaho.di.core.util.Utils;
 import org.pentaho.di.core.exception.KettleException;
 import org.pentaho.di.core.row.RowMetaInterface;
+import org.pentaho.di.core.row.RowSpillCodecs;
 import org.pentaho.di.core.row.ValueMetaInterface;
 import org.pentaho.di.i18n.BaseMessages;
 import org.pentaho.di.trans.TransMeta;
@@ -56,6 +57,7 @@ import org.pentaho.di.ui.core.events.dialog.SelectionAdapterOptions;
 import org.pentaho.di.ui.core.events.dialog.SelectionOperation;
 import org.pentaho.di.ui.core.widget.CheckBoxVar;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
+import org.pentaho.di.ui.core.widget.ComboVar;
 import org.pentaho.di.ui.core.widget.TableView;
 import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
@@ -86,6 +88,10 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
   private CheckBoxVar wCompress;
   private FormData fdlCompress, fdCompress;
 
+  private Label wlSpillCodec;
+  private ComboVar wSpillCodec;
+  private FormData fdlSpillCodec, fdSpillCodec;
+
   private Label wlUniqueRows;
   private Button wUniqueRows;
   private FormData fdlUniqueRows, fdUniqueRows;
@@ -270,21 +276,41 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
       }
     } );
 
-    // Using compression for temporary files?
+    // The format of the temporary files
+    wlSpillCodec = new Label( shell, SWT.RIGHT );
+    wlSpillCodec.setText( BaseMessages.getString( PKG, "SortRowsDialog.SpillCodec.Label" ) );
+    props.setLook( wlSpillCodec );
+    fdlSpillCodec = new FormData();
+    fdlSpillCodec.left = new FormAttachment( 0, 0 );
+    fdlSpillCodec.right = new FormAttachment( middle, -margin );
+    fdlSpillCodec.top = new FormAttachment( wCompress, margin );
+    wlSpillCodec.setLayoutData( fdlSpillCodec );
+    wSpillCodec = new ComboVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wSpillCodec.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.SpillCodec.Tooltip" ) );
+    wSpillCodec.setItems( RowSpillCodecs.getCodes() );
+    props.setLook( wSpillCodec );
+    wSpillCodec.addModifyListener( lsMod );
+    fdSpillCodec = new FormData();
+    fdSpillCodec.left = new FormAttachment( middle, 0 );
+    fdSpillCodec.top = new FormAttachment( wCompress, margin );
+    fdSpillCodec.right = new FormAttachment( 100, 0 );
+    wSpillCodec.setLayoutData( fdSpillCodec );
+
+    // Only pass unique rows?
     wlUniqueRows = new Label( shell, SWT.RIGHT );
     wlUniqueRows.setText( BaseMessages.getString( PKG, "SortRowsDialog.UniqueRows.Label" ) );
     props.setLook( wlUniqueRows );
     fdlUniqueRows = new FormData();
     fdlUniqueRows.left = new FormAttachment( 0, 0 );
     fdlUniqueRows.right = new FormAttachment( middle, -margin );
-    fdlUniqueRows.top = new FormAttachment( wCompress, margin );
+    fdlUniqueRows.top = new FormAttachment( wSpillCodec, margin );
     wlUniqueRows.setLayoutData( fdlUniqueRows );
     wUniqueRows = new Button( shell, SWT.CHECK );
     wUniqueRows.setToolTipText( BaseMessages.getString( PKG, "SortRowsDialog.UniqueRows.Tooltip" ) );
     props.setLook( wUniqueRows );
     fdUniqueRows = new FormData();
     fdUniqueRows.left = new FormAttachment( middle, 0 );
-    fdUniqueRows.top = new FormAttachment( wCompress, margin );
+    fdUniqueRows.top = new FormAttachment( wSpillCodec, margin );
     fdUniqueRows.right = new FormAttachment( 100, 0 );
     wUniqueRows.setLayoutData( fdUniqueRows );
     wUniqueRows.addSelectionListener( new ComponentSelectionListener( input ) );
@@ -479,6 +505,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     wFreeMemory.setText( Const.NVL( input.getFreeMemoryLimit(), "" ) );
     wCompress.setSelection( input.getCompressFiles() );
     wCompress.setVariableName( input.getCompressFilesVariable() );
+    wSpillCodec.setText( Const.NVL( input.getSpillCodec(), "" ) );
     wUniqueRows.setSelection( input.isOnlyPassingUniqueRows() );
 
     Table table = wFields.table;
@@ -529,6 +556,7 @@ public class SortRowsDialog extends BaseStepDialog implements StepDialogInterfac
     log.logDetailed( "Sort rows", "Compression is set to " + wCompress.getSelection() );
     input.setCompressFiles( wCompress.getSelection() );
     input.setCompressFilesVariable( wCompress.getVariableName() );
+    input.setSpillCodec( wSpillCodec.getText() );
     input.setOnlyPassingUniqueRows( wUniqueRows.getSelection() );
 
     // Table table = wFields.table;
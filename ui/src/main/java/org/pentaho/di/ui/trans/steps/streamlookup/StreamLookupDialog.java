@@ -55,6 +55,7 @@ import org.pentaho.di.trans.steps.streamlookup.StreamLookupMeta;
 import org.pentaho.di.ui.core.dialog.ErrorDialog;
 import org.pentaho.di.ui.core.widget.ColumnInfo;
 import org.pentaho.di.ui.core.widget.TableView;
+import org.pentaho.di.ui.core.widget.TextVar;
 import org.pentaho.di.ui.trans.step.BaseStepDialog;
 
 public class StreamLookupDialog extends BaseStepDialog implements StepDialogInterface {
@@ -84,6 +85,10 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
   private Button wIntegerPair;
   private FormData fdlIntegerPair, fdIntegerPair;
 
+  private Label wlOffHeapBudget;
+  private TextVar wOffHeapBudget;
+  private FormData fdlOffHeapBudget, fdOffHeapBudget;
+
   private StreamLookupMeta input;
 
   private Button wGetLU;
@@ -249,7 +254,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     fdReturn.left = new FormAttachment( 0, 0 );
     fdReturn.top = new FormAttachment( wlReturn, margin );
     fdReturn.right = new FormAttachment( 100, 0 );
-    fdReturn.bottom = new FormAttachment( 100, -125 );
+    fdReturn.bottom = new FormAttachment( 100, -155 );
     wReturn.setLayoutData( fdReturn );
 
     wlPreserveMemory = new Label( shell, SWT.RIGHT );
@@ -328,6 +333,24 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
 
     // END MEMORY PRESERVE
 
+    wlOffHeapBudget = new Label( shell, SWT.RIGHT );
+    wlOffHeapBudget.setText( BaseMessages.getString( PKG, "StreamLookupDialog.OffHeapBudget.Label" ) );
+    props.setLook( wlOffHeapBudget );
+    fdlOffHeapBudget = new FormData();
+    fdlOffHeapBudget.left = new FormAttachment( 0, 0 );
+    fdlOffHeapBudget.top = new FormAttachment( wSortedList, margin );
+    fdlOffHeapBudget.right = new FormAttachment( middle, -margin );
+    wlOffHeapBudget.setLayoutData( fdlOffHeapBudget );
+    wOffHeapBudget = new TextVar( transMeta, shell, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wOffHeapBudget.setToolTipText( BaseMessages.getString( PKG, "StreamLookupDialog.OffHeapBudget.Tooltip" ) );
+    props.setLook( wOffHeapBudget );
+    wOffHeapBudget.addModifyListener( lsMod );
+    fdOffHeapBudget = new FormData();
+    fdOffHeapBudget.left = new FormAttachment( middle, 0 );
+    fdOffHeapBudget.top = new FormAttachment( wSortedList, margin );
+    fdOffHeapBudget.right = new FormAttachment( 100, 0 );
+    wOffHeapBudget.setLayoutData( fdOffHeapBudget );
+
     // THE BUTTONS
     wOK = new Button( shell, SWT.PUSH );
     wOK.setText( BaseMessages.getString( PKG, "System.Button.OK" ) );
@@ -527,6 +550,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     // for backward compatibility they can be set both
     // but user will be forced to choose only one option later.
     wSortedList.setSelection( input.isUsingSortedList() );
+    wOffHeapBudget.setText( Const.NVL( input.getOffHeapBudget(), "" ) );
     wIntegerPair.setSelection( input.isUsingIntegerPair() );
 
     wKey.setRowNums();
@@ -555,6 +579,7 @@ public class StreamLookupDialog extends BaseStepDialog implements StepDialogInte
     input.setMemoryPreservationActive( wPreserveMemory.getSelection() );
     input.setUsingSortedList( wSortedList.getSelection() );
     input.setUsingIntegerPair( wIntegerPair.getSelection() );
+    input.setOffHeapBudget( wOffHeapBudget.getText() );
 
     if ( log.isDebug() ) {
       logDebug( BaseMessages.getString( PKG, "StreamLookupDialog.Log.FoundKeys", nrkeys + "" ) );
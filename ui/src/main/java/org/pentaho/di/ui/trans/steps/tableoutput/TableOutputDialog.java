@@ -162,6 +162,26 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
   private TextVar wReturnField;
   private FormData fdlReturnField, fdReturnField;
 
+  private Label wlPipelined;
+  private Button wPipelined;
+  private FormData fdlPipelined, fdPipelined;
+
+  private Label wlWriterConnections;
+  private TextVar wWriterConnections;
+  private FormData fdlWriterConnections, fdWriterConnections;
+
+  private Label wlMaxBatchesInFlight;
+  private TextVar wMaxBatchesInFlight;
+  private FormData fdlMaxBatchesInFlight, fdMaxBatchesInFlight;
+
+  private Label wlPreserveRowOrder;
+  private Button wPreserveRowOrder;
+  private FormData fdlPreserveRowOrder, fdPreserveRowOrder;
+
+  private Label wlBatchRetries;
+  private TextVar wBatchRetries;
+  private FormData fdlBatchRetries, fdBatchRetries;
+
   private Label wlFields;
   private TableView wFields;
 
@@ -678,6 +698,107 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     fdReturnField.right = new FormAttachment( 100, 0 );
     wReturnField.setLayoutData( fdReturnField );
 
+    // Pipelined writing
+    wlPipelined = new Label( wMainComp, SWT.RIGHT );
+    wlPipelined.setText( BaseMessages.getString( PKG, "TableOutputDialog.Pipelined.Label" ) );
+    wlPipelined.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.Pipelined.Tooltip" ) );
+    props.setLook( wlPipelined );
+    fdlPipelined = new FormData();
+    fdlPipelined.left = new FormAttachment( 0, 0 );
+    fdlPipelined.top = new FormAttachment( wReturnField, margin * 5 );
+    fdlPipelined.right = new FormAttachment( middle, -margin );
+    wlPipelined.setLayoutData( fdlPipelined );
+    wPipelined = new Button( wMainComp, SWT.CHECK );
+    props.setLook( wPipelined );
+    fdPipelined = new FormData();
+    fdPipelined.left = new FormAttachment( middle, 0 );
+    fdPipelined.top = new FormAttachment( wReturnField, margin * 5 );
+    fdPipelined.right = new FormAttachment( 100, 0 );
+    wPipelined.setLayoutData( fdPipelined );
+    wPipelined.addSelectionListener( lsSelMod );
+
+    wPipelined.addSelectionListener( new SelectionAdapter() {
+      public void widgetSelected( SelectionEvent arg0 ) {
+        setFlags();
+      }
+    } );
+
+    // Writer connections
+    wlWriterConnections = new Label( wMainComp, SWT.RIGHT );
+    wlWriterConnections.setText( BaseMessages.getString( PKG, "TableOutputDialog.WriterConnections.Label" ) );
+    props.setLook( wlWriterConnections );
+    fdlWriterConnections = new FormData();
+    fdlWriterConnections.left = new FormAttachment( 0, 0 );
+    fdlWriterConnections.right = new FormAttachment( middle, -margin );
+    fdlWriterConnections.top = new FormAttachment( wPipelined, margin );
+    wlWriterConnections.setLayoutData( fdlWriterConnections );
+    wWriterConnections = new TextVar( transMeta, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wWriterConnections );
+    wWriterConnections.addModifyListener( lsMod );
+    fdWriterConnections = new FormData();
+    fdWriterConnections.left = new FormAttachment( middle, 0 );
+    fdWriterConnections.top = new FormAttachment( wPipelined, margin );
+    fdWriterConnections.right = new FormAttachment( 100, 0 );
+    wWriterConnections.setLayoutData( fdWriterConnections );
+
+    // Maximum batches in flight
+    wlMaxBatchesInFlight = new Label( wMainComp, SWT.RIGHT );
+    wlMaxBatchesInFlight.setText( BaseMessages.getString( PKG, "TableOutputDialog.MaxBatchesInFlight.Label" ) );
+    props.setLook( wlMaxBatchesInFlight );
+    fdlMaxBatchesInFlight = new FormData();
+    fdlMaxBatchesInFlight.left = new FormAttachment( 0, 0 );
+    fdlMaxBatchesInFlight.right = new FormAttachment( middle, -margin );
+    fdlMaxBatchesInFlight.top = new FormAttachment( wWriterConnections, margin );
+    wlMaxBatchesInFlight.setLayoutData( fdlMaxBatchesInFlight );
+    wMaxBatchesInFlight = new TextVar( transMeta, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wMaxBatchesInFlight.setToolTipText(
+      BaseMessages.getString( PKG, "TableOutputDialog.MaxBatchesInFlight.Tooltip" ) );
+    props.setLook( wMaxBatchesInFlight );
+    wMaxBatchesInFlight.addModifyListener( lsMod );
+    fdMaxBatchesInFlight = new FormData();
+    fdMaxBatchesInFlight.left = new FormAttachment( middle, 0 );
+    fdMaxBatchesInFlight.top = new FormAttachment( wWriterConnections, margin );
+    fdMaxBatchesInFlight.right = new FormAttachment( 100, 0 );
+    wMaxBatchesInFlight.setLayoutData( fdMaxBatchesInFlight );
+
+    // Preserve row order
+    wlPreserveRowOrder = new Label( wMainComp, SWT.RIGHT );
+    wlPreserveRowOrder.setText( BaseMessages.getString( PKG, "TableOutputDialog.PreserveRowOrder.Label" ) );
+    wlPreserveRowOrder.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.PreserveRowOrder.Tooltip" ) );
+    props.setLook( wlPreserveRowOrder );
+    fdlPreserveRowOrder = new FormData();
+    fdlPreserveRowOrder.left = new FormAttachment( 0, 0 );
+    fdlPreserveRowOrder.top = new FormAttachment( wMaxBatchesInFlight, margin );
+    fdlPreserveRowOrder.right = new FormAttachment( middle, -margin );
+    wlPreserveRowOrder.setLayoutData( fdlPreserveRowOrder );
+    wPreserveRowOrder = new Button( wMainComp, SWT.CHECK );
+    props.setLook( wPreserveRowOrder );
+    fdPreserveRowOrder = new FormData();
+    fdPreserveRowOrder.left = new FormAttachment( middle, 0 );
+    fdPreserveRowOrder.top = new FormAttachment( wMaxBatchesInFlight, margin );
+    fdPreserveRowOrder.right = new FormAttachment( 100, 0 );
+    wPreserveRowOrder.setLayoutData( fdPreserveRowOrder );
+    wPreserveRowOrder.addSelectionListener( lsSelMod );
+
+    // Retries per batch
+    wlBatchRetries = new Label( wMainComp, SWT.RIGHT );
+    wlBatchRetries.setText( BaseMessages.getString( PKG, "TableOutputDialog.BatchRetries.Label" ) );
+    props.setLook( wlBatchRetries );
+    fdlBatchRetries = new FormData();
+    fdlBatchRetries.left = new FormAttachment( 0, 0 );
+    fdlBatchRetries.right = new FormAttachment( middle, -margin );
+    fdlBatchRetries.top = new FormAttachment( wPreserveRowOrder, margin );
+    wlBatchRetries.setLayoutData( fdlBatchRetries );
+    wBatchRetries = new TextVar( transMeta, wMainComp, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wBatchRetries.setToolTipText( BaseMessages.getString( PKG, "TableOutputDialog.BatchRetries.Tooltip" ) );
+    props.setLook( wBatchRetries );
+    wBatchRetries.addModifyListener( lsMod );
+    fdBatchRetries = new FormData();
+    fdBatchRetries.left = new FormAttachment( middle, 0 );
+    fdBatchRetries.top = new FormAttachment( wPreserveRowOrder, margin );
+    fdBatchRetries.right = new FormAttachment( 100, 0 );
+    wBatchRetries.setLayoutData( fdBatchRetries );
+
     fdMainComp = new FormData();
     fdMainComp.left = new FormAttachment( 0, 0 );
     fdMainComp.top = new FormAttachment( 0, 0 );
@@ -1235,6 +1356,19 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     wlBatch.setEnabled( enableBatch );
     wBatch.setEnabled( enableBatch );
 
+    // Pipelined writing sends batches, so it needs batch updates
+    boolean usePipelined = useBatch && wPipelined.getSelection();
+    wlPipelined.setEnabled( useBatch );
+    wPipelined.setEnabled( useBatch );
+    wlWriterConnections.setEnabled( usePipelined );
+    wWriterConnections.setEnabled( usePipelined );
+    wlMaxBatchesInFlight.setEnabled( usePipelined );
+    wMaxBatchesInFlight.setEnabled( usePipelined );
+    wlPreserveRowOrder.setEnabled( usePipelined );
+    wPreserveRowOrder.setEnabled( usePipelined );
+    wlBatchRetries.setEnabled( usePipelined );
+    wBatchRetries.setEnabled( usePipelined );
+
     boolean specifyFields = wSpecifyFields.getSelection();
     wFields.setEnabled( specifyFields );
     wGetFields.setEnabled( specifyFields );
@@ -1283,6 +1417,12 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
 
     wCommit.setText( input.getCommitSize() );
 
+    wPipelined.setSelection( input.isPipelinedWriting() );
+    wWriterConnections.setText( Const.NVL( input.getWriterConnections(), "" ) );
+    wMaxBatchesInFlight.setText( Const.NVL( input.getMaxBatchesInFlight(), "" ) );
+    wPreserveRowOrder.setSelection( input.isPreserveRowOrder() );
+    wBatchRetries.setText( Const.NVL( input.getBatchRetries(), "" ) );
+
     wUsePart.setSelection( input.isPartitioningEnabled() );
     wPartDaily.setSelection( input.isPartitioningDaily() );
     wPartMonthly.setSelection( input.isPartitioningMonthly() );
@@ -1333,6 +1473,11 @@ public class TableOutputDialog extends BaseStepDialog implements StepDialogInter
     info.setTruncateTable( wTruncate.getSelection() );
     info.setIgnoreErrors( wIgnore.getSelection() );
     info.setUseBatchUpdate( wBatch.getSelection() );
+    info.setPipelinedWriting( wPipelined.getSelection() );
+    info.setWriterConnections( wWriterConnections.getText() );
+    info.setMaxBatchesInFlight( wMaxBatchesInFlight.getText() );
+    info.setPreserveRowOrder( wPreserveRowOrder.getSelection() );
+    info.setBatchRetries( wBatchRetries.getText() );
     info.setPartitioningEnabled( wUsePart.getSelection() );
     info.setPartitioningField( wPartField.getText() );
     info.setPartitioningDaily( wPartDaily.getSelection() );
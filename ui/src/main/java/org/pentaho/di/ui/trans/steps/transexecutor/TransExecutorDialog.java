@@ -104,6 +104,8 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
   private CCombo wGroupField;
   private Label wlGroupTime;
   private TextVar wGroupTime;
+  private Label wlPreparedInstances;
+  private TextVar wPreparedInstances;
 
   private Label wlExecutionResultTarget;
   private CCombo wExecutionResultTarget;
@@ -442,6 +444,7 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
 
     wGroupSize.setText( Const.NVL( transExecutorMeta.getGroupSize(), "" ) );
     wGroupTime.setText( Const.NVL( transExecutorMeta.getGroupTime(), "" ) );
+    wPreparedInstances.setText( Const.NVL( transExecutorMeta.getPreparedInstances(), "" ) );
     wGroupField.setText( Const.NVL( transExecutorMeta.getGroupField(), "" ) );
 
     wExecutionResultTarget.setText( transExecutorMeta.getExecutionResultTargetStepMeta() == null ? ""
@@ -710,6 +713,28 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     fdGroupTime.left = new FormAttachment( 0, 0 );
     wGroupTime.setLayoutData( fdGroupTime );
 
+    // Prepared instances
+    //
+    wlPreparedInstances = new Label( wInputComposite, SWT.RIGHT );
+    props.setLook( wlPreparedInstances );
+    wlPreparedInstances.setText( BaseMessages.getString( PKG, "TransExecutorDialog.PreparedInstances.Label" ) );
+    wlPreparedInstances.setToolTipText(
+      BaseMessages.getString( PKG, "TransExecutorDialog.PreparedInstances.Tooltip" ) );
+    FormData fdlPreparedInstances = new FormData();
+    fdlPreparedInstances.top = new FormAttachment( wGroupTime, 10 );
+    fdlPreparedInstances.left = new FormAttachment( 0, 0 );
+    wlPreparedInstances.setLayoutData( fdlPreparedInstances );
+
+    wPreparedInstances = new TextVar( transMeta, wInputComposite, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    props.setLook( wPreparedInstances );
+    wPreparedInstances.setToolTipText( BaseMessages.getString( PKG, "TransExecutorDialog.PreparedInstances.Tooltip" ) );
+    wPreparedInstances.addModifyListener( lsMod );
+    FormData fdPreparedInstances = new FormData();
+    fdPreparedInstances.width = 250;
+    fdPreparedInstances.top = new FormAttachment( wlPreparedInstances, 5 );
+    fdPreparedInstances.left = new FormAttachment( 0, 0 );
+    wPreparedInstances.setLayoutData( fdPreparedInstances );
+
     wTab.setControl( wInputComposite );
     wTabFolder.setSelection( wTab );
   }
@@ -1084,6 +1109,7 @@ public class TransExecutorDialog extends BaseStepDialog implements StepDialogInt
     transExecutorMeta.setGroupSize( wGroupSize.getText() );
     transExecutorMeta.setGroupField( wGroupField.getText() );
     transExecutorMeta.setGroupTime( wGroupTime.getText() );
+    transExecutorMeta.setPreparedInstances( wPreparedInstances.getText() );
 
     transExecutorMeta.setExecutionResultTargetStep( wExecutionResultTarget.getText() );
     transExecutorMeta.setExecutionResultTargetStepMeta( transMeta.findStep( wExecutionResultTarget.getText() ) );
@@ -79,6 +79,10 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
   private TextVar wErrorDesc;
   private FormData fdlErrorDesc, fdErrorDesc;
 
+  private Label wlOffHeapBudget;
+  private TextVar wOffHeapBudget;
+  private FormData fdlOffHeapBudget, fdOffHeapBudget;
+
   private Group wSettings;
   private FormData fdSettings;
 
@@ -209,6 +213,24 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     fdErrorDesc.right = new FormAttachment( 100, 0 );
     wErrorDesc.setLayoutData( fdErrorDesc );
 
+    wlOffHeapBudget = new Label( wSettings, SWT.RIGHT );
+    wlOffHeapBudget.setText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.OffHeapBudget.Label" ) );
+    props.setLook( wlOffHeapBudget );
+    fdlOffHeapBudget = new FormData();
+    fdlOffHeapBudget.left = new FormAttachment( 0, 0 );
+    fdlOffHeapBudget.top = new FormAttachment( wErrorDesc, margin );
+    fdlOffHeapBudget.right = new FormAttachment( middle, -margin );
+    wlOffHeapBudget.setLayoutData( fdlOffHeapBudget );
+    wOffHeapBudget = new TextVar( transMeta, wSettings, SWT.SINGLE | SWT.LEFT | SWT.BORDER );
+    wOffHeapBudget.setToolTipText( BaseMessages.getString( PKG, "UniqueRowsByHashSetDialog.OffHeapBudget.Tooltip" ) );
+    props.setLook( wOffHeapBudget );
+    wOffHeapBudget.addModifyListener( lsMod );
+    fdOffHeapBudget = new FormData();
+    fdOffHeapBudget.left = new FormAttachment( middle, 0 );
+    fdOffHeapBudget.top = new FormAttachment( wErrorDesc, margin );
+    fdOffHeapBudget.right = new FormAttachment( 100, 0 );
+    wOffHeapBudget.setLayoutData( fdOffHeapBudget );
+
     fdSettings = new FormData();
     fdSettings.left = new FormAttachment( 0, margin );
     fdSettings.top = new FormAttachment( wStepname, margin );
@@ -362,6 +384,7 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     if ( input.getErrorDescription() != null ) {
       wErrorDesc.setText( input.getErrorDescription() );
     }
+    wOffHeapBudget.setText( Const.NVL( input.getOffHeapBudget(), "" ) );
     for ( int i = 0; i < input.getCompareFields().length; i++ ) {
       TableItem item = wFields.table.getItem( i );
       if ( input.getCompareFields()[i] != null ) {
@@ -399,6 +422,7 @@ public class UniqueRowsByHashSetDialog extends BaseStepDialog implements StepDia
     input.setStoreValues( wStoreValues.getSelection() );
     input.setRejectDuplicateRow( wRejectDuplicateRow.getSelection() );
     input.setErrorDescription( wErrorDesc.getText() );
+    input.setOffHeapBudget( wOffHeapBudget.getText() );
     dispose();
   }
 